@@ -0,0 +1,905 @@
+package bdd;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * Diese Klasse verwaltet reduzierte, geordnete binäre Entscheidungsdiagramme
+ * (BDDs). Ein BDD wird durch die Nummer seines Wurzelknotens dargestellt, die
+ * Knoten 0 und 1 sind die Konstanten FALSE und TRUE. Die Variablen sind mit
+ * 0 bis varCount - 1 nummeriert, die Nummer ist zugleich die Position in der
+ * Variablenordnung.
+ *
+ * Die Knoten liegen in parallelen int-Arrays. Über eine Unique-Tabelle wird
+ * sichergestellt, dass jeder Knoten nur einmal existiert, so dass zwei BDDs
+ * genau dann dieselbe Funktion darstellen, wenn ihre Nummern gleich sind.
+ * Ergebnisse von Operationen werden in einem Cache mit direkter Adressierung
+ * zwischengespeichert.
+ *
+ * Knoten, die nicht mehr benötigt werden, werden von einer Garbage Collection
+ * freigegeben. Sie läuft nur zu Beginn einer öffentlichen Operation und
+ * behält alle Knoten, die von einer mit ref geschützten Wurzel oder von den
+ * Argumenten der Operation erreichbar sind. Wer ein Ergebnis über den Aufruf
+ * einer weiteren Operation hinaus verwendet, muss es daher mit ref schützen
+ * und später mit deref freigeben.
+ *
+ * Die Klasse ist nicht threadsicher.
+ */
+public class BddManager {
+
+    /**
+     * Die Konstante FALSE.
+     */
+    public static final int FALSE = 0;
+
+    /**
+     * Die Konstante TRUE.
+     */
+    public static final int TRUE = 1;
+
+    /**
+     * Kennung der Operation AND im Cache.
+     */
+    private static final int OP_AND = 0;
+
+    /**
+     * Kennung der Operation OR im Cache.
+     */
+    private static final int OP_OR = 1;
+
+    /**
+     * Kennung der Operation f AND NOT g im Cache.
+     */
+    private static final int OP_DIFF = 2;
+
+    /**
+     * Kennung der Operation NOT im Cache.
+     */
+    private static final int OP_NOT = 3;
+
+    /**
+     * Kennung der Operation EXISTS im Cache.
+     */
+    private static final int OP_EXISTS = 4;
+
+    /**
+     * Kennung der Operation AND-EXISTS im Cache.
+     */
+    private static final int OP_AND_EXISTS = 5;
+
+    /**
+     * Die Ebene freier Knoten.
+     */
+    private static final int FREE = -1;
+
+    /**
+     * Anzahl der Variablen.
+     */
+    private final int varCount;
+
+    /**
+     * Die Variable (Ebene) jedes Knotens. Die Konstanten haben die Ebene
+     * varCount, freie Knoten die Ebene FREE.
+     */
+    private int[] level;
+
+    /**
+     * Der Nachfolger jedes Knotens, falls seine Variable 0 ist.
+     */
+    private int[] low;
+
+    /**
+     * Der Nachfolger jedes Knotens, falls seine Variable 1 ist.
+     */
+    private int[] high;
+
+    /**
+     * Der nächste Knoten in derselben Kette der Unique-Tabelle bzw. der
+     * Freiliste.
+     */
+    private int[] next;
+
+    /**
+     * Anzahl der externen Referenzen jedes Knotens.
+     */
+    private int[] refs;
+
+    /**
+     * Die Ketten der Unique-Tabelle. Die Länge ist eine Zweierpotenz.
+     */
+    private int[] buckets;
+
+    /**
+     * Der erste freie Knoten oder -1.
+     */
+    private int freeList = -1;
+
+    /**
+     * Anzahl der belegten Knoten einschließlich der Konstanten.
+     */
+    private int nodeCount;
+
+    /**
+     * Ab dieser Anzahl belegter Knoten wird vor der nächsten Operation eine
+     * Garbage Collection durchgeführt.
+     */
+    private int gcLimit;
+
+    /**
+     * Die Operation eines Cache-Eintrags oder -1.
+     */
+    private final int[] cacheOp;
+
+    /**
+     * Das erste Argument eines Cache-Eintrags.
+     */
+    private final int[] cacheA;
+
+    /**
+     * Das zweite Argument eines Cache-Eintrags.
+     */
+    private final int[] cacheB;
+
+    /**
+     * Das dritte Argument eines Cache-Eintrags.
+     */
+    private final int[] cacheC;
+
+    /**
+     * Das Ergebnis eines Cache-Eintrags.
+     */
+    private final int[] cacheResult;
+
+    /**
+     * Anzahl der bisher durchgeführten Garbage Collections.
+     */
+    private int gcCount;
+
+    /**
+     * Dieser Konstruktor erzeugt einen Manager mit Standardgrößen.
+     *
+     * @param varCount Anzahl der Variablen.
+     */
+    public BddManager(int varCount) {
+        this(varCount, 1 << 16, 1 << 18);
+    }
+
+    /**
+     * Dieser Konstruktor erzeugt einen Manager.
+     *
+     * @param varCount Anzahl der Variablen.
+     * @param initialNodes Anfängliche Größe der Knotentabelle. Sie wächst bei
+     * Bedarf.
+     * @param cacheSize Größe des Caches. Sie wird auf eine Zweierpotenz
+     * aufgerundet.
+     */
+    public BddManager(int varCount, int initialNodes, int cacheSize) {
+        this.varCount = varCount;
+        int capacity = Math.max(16, initialNodes);
+        this.level = new int[capacity];
+        this.low = new int[capacity];
+        this.high = new int[capacity];
+        this.next = new int[capacity];
+        this.refs = new int[capacity];
+        this.buckets = new int[Integer.highestOneBit(capacity - 1) << 1];
+        Arrays.fill(buckets, -1);
+        for (int terminal = FALSE; terminal <= TRUE; terminal++) {
+            level[terminal] = varCount;
+            low[terminal] = terminal;
+            high[terminal] = terminal;
+            refs[terminal] = 1;
+        }
+        nodeCount = 2;
+        for (int i = capacity - 1; i >= 2; i--) {
+            level[i] = FREE;
+            next[i] = freeList;
+            freeList = i;
+        }
+        this.gcLimit = capacity / 4 * 3;
+
+        int cacheCapacity = Integer.highestOneBit(Math.max(16, cacheSize) - 1) << 1;
+        this.cacheOp = new int[cacheCapacity];
+        this.cacheA = new int[cacheCapacity];
+        this.cacheB = new int[cacheCapacity];
+        this.cacheC = new int[cacheCapacity];
+        this.cacheResult = new int[cacheCapacity];
+        Arrays.fill(cacheOp, -1);
+    }
+
+    /**
+     * Diese Methode gibt die Anzahl der Variablen zurück.
+     *
+     * @return Das Attribut varCount.
+     */
+    public int getVarCount() {
+        return varCount;
+    }
+
+    /**
+     * Diese Methode gibt die Anzahl der belegten Knoten zurück.
+     *
+     * @return Das Attribut nodeCount.
+     */
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * Diese Methode gibt die Anzahl der bisher durchgeführten Garbage
+     * Collections zurück.
+     *
+     * @return Das Attribut gcCount.
+     */
+    public int getGcCount() {
+        return gcCount;
+    }
+
+    /**
+     * Diese Methode gibt die Variable eines Knotens zurück.
+     *
+     * @param f Der Knoten.
+     * @return Die Variable oder varCount für die Konstanten.
+     */
+    public int getVar(int f) {
+        return level[f];
+    }
+
+    /**
+     * Diese Methode gibt den Nachfolger eines Knotens für den Wert 0 zurück.
+     *
+     * @param f Der Knoten.
+     * @return Der Nachfolger.
+     */
+    public int getLow(int f) {
+        return low[f];
+    }
+
+    /**
+     * Diese Methode gibt den Nachfolger eines Knotens für den Wert 1 zurück.
+     *
+     * @param f Der Knoten.
+     * @return Der Nachfolger.
+     */
+    public int getHigh(int f) {
+        return high[f];
+    }
+
+    /**
+     * Diese Methode schützt ein BDD vor der Garbage Collection.
+     *
+     * @param f Das BDD.
+     * @return Das BDD.
+     */
+    public int ref(int f) {
+        refs[f]++;
+        return f;
+    }
+
+    /**
+     * Diese Methode hebt einen Schutz vor der Garbage Collection auf.
+     *
+     * @param f Das BDD.
+     */
+    public void deref(int f) {
+        if (refs[f] <= 0) {
+            throw new IllegalStateException("BDD " + f + " ist nicht geschützt.");
+        }
+        refs[f]--;
+    }
+
+    /**
+     * Diese Methode gibt das BDD einer Variablen zurück.
+     *
+     * @param v Die Variable.
+     * @return Das BDD, das genau dann wahr ist, wenn v den Wert 1 hat.
+     */
+    public int var(int v) {
+        checkVar(v);
+        maybeGc();
+        return mk(v, FALSE, TRUE);
+    }
+
+    /**
+     * Diese Methode gibt das BDD einer negierten Variablen zurück.
+     *
+     * @param v Die Variable.
+     * @return Das BDD, das genau dann wahr ist, wenn v den Wert 0 hat.
+     */
+    public int nvar(int v) {
+        checkVar(v);
+        maybeGc();
+        return mk(v, TRUE, FALSE);
+    }
+
+    /**
+     * Diese Methode erzeugt eine Konjunktion von Literalen.
+     *
+     * @param positive Die Variablen, die den Wert 1 haben.
+     * @param negative Die Variablen, die den Wert 0 haben.
+     * @return Das BDD der Konjunktion.
+     */
+    public int cube(int[] positive, int[] negative) {
+        int[] value = new int[varCount];
+        for (int v : positive) {
+            checkVar(v);
+            value[v] = 1;
+        }
+        for (int v : negative) {
+            checkVar(v);
+            if (value[v] == 1) {
+                return FALSE;
+            }
+            value[v] = -1;
+        }
+        maybeGc();
+        int result = TRUE;
+        for (int v = varCount - 1; v >= 0; v--) {
+            if (value[v] > 0) {
+                result = mk(v, FALSE, result);
+            } else if (value[v] < 0) {
+                result = mk(v, result, FALSE);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Diese Methode erzeugt die Konjunktion der übergebenen Variablen. Das
+     * Ergebnis wird als Variablenmenge für exists und andExists verwendet.
+     *
+     * @param vars Die Variablen.
+     * @return Das BDD der Konjunktion.
+     */
+    public int cube(int... vars) {
+        return cube(vars, new int[0]);
+    }
+
+    /**
+     * Diese Methode negiert ein BDD.
+     *
+     * @param f Das BDD.
+     * @return NOT f.
+     */
+    public int not(int f) {
+        maybeGc(f);
+        return notRec(f);
+    }
+
+    /**
+     * Diese Methode berechnet die Konjunktion zweier BDDs.
+     *
+     * @param f Das erste BDD.
+     * @param g Das zweite BDD.
+     * @return f AND g.
+     */
+    public int and(int f, int g) {
+        maybeGc(f, g);
+        return apply(OP_AND, f, g);
+    }
+
+    /**
+     * Diese Methode berechnet die Disjunktion zweier BDDs.
+     *
+     * @param f Das erste BDD.
+     * @param g Das zweite BDD.
+     * @return f OR g.
+     */
+    public int or(int f, int g) {
+        maybeGc(f, g);
+        return apply(OP_OR, f, g);
+    }
+
+    /**
+     * Diese Methode berechnet die Differenz zweier BDDs.
+     *
+     * @param f Das erste BDD.
+     * @param g Das zweite BDD.
+     * @return f AND NOT g.
+     */
+    public int diff(int f, int g) {
+        maybeGc(f, g);
+        return apply(OP_DIFF, f, g);
+    }
+
+    /**
+     * Diese Methode quantifiziert Variablen existenziell.
+     *
+     * @param f Das BDD.
+     * @param vars Die Variablenmenge als Konjunktion (siehe cube).
+     * @return Das BDD, in dem die Variablen aus vars nicht mehr vorkommen.
+     */
+    public int exists(int f, int vars) {
+        maybeGc(f, vars);
+        return existsRec(f, vars);
+    }
+
+    /**
+     * Diese Methode berechnet die Konjunktion zweier BDDs und quantifiziert
+     * dabei Variablen existenziell (relationales Produkt), ohne die
+     * Konjunktion vollständig aufzubauen.
+     *
+     * @param f Das erste BDD.
+     * @param g Das zweite BDD.
+     * @param vars Die Variablenmenge als Konjunktion (siehe cube).
+     * @return EXISTS vars: f AND g.
+     */
+    public int andExists(int f, int g, int vars) {
+        maybeGc(f, g, vars);
+        return andExistsRec(f, g, vars);
+    }
+
+    /**
+     * Diese Methode zählt die erfüllenden Belegungen aller Variablen.
+     *
+     * @param f Das BDD.
+     * @return Anzahl der erfüllenden Belegungen.
+     */
+    public BigInteger satCount(int f) {
+        BigInteger[] memo = new BigInteger[level.length];
+        return countRec(f, memo).shiftLeft(level[f]);
+    }
+
+    /**
+     * Diese Methode bestimmt eine erfüllende Belegung. Variablen, deren Wert
+     * keine Rolle spielt, erhalten den Wert 0.
+     *
+     * @param f Das BDD.
+     * @return Die Belegung aller Variablen oder null, falls f FALSE ist.
+     */
+    public boolean[] anySat(int f) {
+        if (f == FALSE) {
+            return null;
+        }
+        boolean[] assignment = new boolean[varCount];
+        while (f != TRUE) {
+            if (low[f] != FALSE) {
+                f = low[f];
+            } else {
+                assignment[level[f]] = true;
+                f = high[f];
+            }
+        }
+        return assignment;
+    }
+
+    /**
+     * Diese Methode führt eine Garbage Collection durch. Es bleiben nur die
+     * Knoten erhalten, die von einer geschützten Wurzel erreichbar sind.
+     */
+    public void gc() {
+        gc(new int[0]);
+    }
+
+    /**
+     * Diese Methode überprüft eine Variable.
+     *
+     * @param v Die Variable.
+     */
+    private void checkVar(int v) {
+        if (v < 0 || v >= varCount) {
+            throw new IllegalArgumentException("Ungültige Variable: " + v);
+        }
+    }
+
+    /**
+     * Diese Methode führt eine Garbage Collection durch, falls die Grenze
+     * gcLimit erreicht ist. Ist danach mehr als die Hälfte der Knotentabelle
+     * belegt, wird sie vergrößert, damit nicht nach wenigen Operationen die
+     * nächste Garbage Collection folgt.
+     *
+     * @param roots Die Argumente der anstehenden Operation.
+     */
+    private void maybeGc(int... roots) {
+        if (nodeCount < gcLimit) {
+            return;
+        }
+        gc(roots);
+        while (nodeCount * 4 > level.length) {
+            grow();
+        }
+        gcLimit = Math.max(level.length / 4 * 3, nodeCount * 2);
+    }
+
+    /**
+     * Diese Methode führt eine Garbage Collection durch (mark and sweep).
+     *
+     * @param roots Zusätzliche Wurzeln, die erhalten bleiben.
+     */
+    private void gc(int[] roots) {
+        gcCount++;
+        boolean[] marked = new boolean[level.length];
+        marked[FALSE] = true;
+        marked[TRUE] = true;
+        int[] stack = new int[64];
+        for (int f = 2; f < level.length; f++) {
+            if (level[f] != FREE && refs[f] > 0) {
+                stack = mark(f, marked, stack);
+            }
+        }
+        for (int f : roots) {
+            stack = mark(f, marked, stack);
+        }
+
+        Arrays.fill(buckets, -1);
+        freeList = -1;
+        nodeCount = 2;
+        for (int f = level.length - 1; f >= 2; f--) {
+            if (marked[f]) {
+                int bucket = hash(level[f], low[f], high[f]);
+                next[f] = buckets[bucket];
+                buckets[bucket] = f;
+                nodeCount++;
+            } else {
+                level[f] = FREE;
+                next[f] = freeList;
+                freeList = f;
+            }
+        }
+        // Einträge, die auf freigegebene Knoten verweisen, werden gelöscht.
+        for (int i = 0; i < cacheOp.length; i++) {
+            if (cacheOp[i] >= 0 && !(marked[cacheA[i]] && marked[cacheB[i]]
+                    && marked[cacheC[i]] && marked[cacheResult[i]])) {
+                cacheOp[i] = -1;
+            }
+        }
+    }
+
+    /**
+     * Diese Methode markiert alle Knoten, die von f erreichbar sind. Sie
+     * verwendet einen expliziten Stapel, damit tiefe BDDs den Aufrufstapel
+     * nicht überlaufen lassen.
+     *
+     * @param f Die Wurzel.
+     * @param marked Die Markierungen.
+     * @param stack Der Stapel.
+     * @return Der (eventuell vergrößerte) Stapel.
+     */
+    private int[] mark(int f, boolean[] marked, int[] stack) {
+        if (marked[f]) {
+            return stack;
+        }
+        int size = 0;
+        marked[f] = true;
+        stack[size++] = f;
+        while (size > 0) {
+            int g = stack[--size];
+            for (int child = 0; child < 2; child++) {
+                int h = child == 0 ? low[g] : high[g];
+                if (!marked[h]) {
+                    marked[h] = true;
+                    if (size == stack.length) {
+                        stack = Arrays.copyOf(stack, size * 2);
+                    }
+                    stack[size++] = h;
+                }
+            }
+        }
+        return stack;
+    }
+
+    /**
+     * Diese Methode gibt den eindeutigen Knoten mit der übergebenen Variablen
+     * und den übergebenen Nachfolgern zurück und erzeugt ihn bei Bedarf.
+     *
+     * @param v Die Variable.
+     * @param lo Der Nachfolger für den Wert 0.
+     * @param hi Der Nachfolger für den Wert 1.
+     * @return Der Knoten.
+     */
+    private int mk(int v, int lo, int hi) {
+        if (lo == hi) {
+            return lo;
+        }
+        int bucket = hash(v, lo, hi);
+        for (int f = buckets[bucket]; f >= 0; f = next[f]) {
+            if (level[f] == v && low[f] == lo && high[f] == hi) {
+                return f;
+            }
+        }
+        if (freeList < 0) {
+            grow();
+            bucket = hash(v, lo, hi);
+        }
+        int f = freeList;
+        freeList = next[f];
+        level[f] = v;
+        low[f] = lo;
+        high[f] = hi;
+        refs[f] = 0;
+        next[f] = buckets[bucket];
+        buckets[bucket] = f;
+        nodeCount++;
+        return f;
+    }
+
+    /**
+     * Diese Methode verdoppelt die Knotentabelle und baut die Unique-Tabelle
+     * neu auf. Es werden keine Knoten freigegeben, daher darf sie auch
+     * während einer Operation aufgerufen werden.
+     */
+    private void grow() {
+        int oldCapacity = level.length;
+        if (oldCapacity >= Integer.MAX_VALUE / 2) {
+            throw new IllegalStateException("Die Knotentabelle ist voll.");
+        }
+        int capacity = oldCapacity * 2;
+        level = Arrays.copyOf(level, capacity);
+        low = Arrays.copyOf(low, capacity);
+        high = Arrays.copyOf(high, capacity);
+        next = Arrays.copyOf(next, capacity);
+        refs = Arrays.copyOf(refs, capacity);
+        for (int f = capacity - 1; f >= oldCapacity; f--) {
+            level[f] = FREE;
+            next[f] = freeList;
+            freeList = f;
+        }
+        buckets = new int[buckets.length * 2];
+        Arrays.fill(buckets, -1);
+        for (int f = 2; f < oldCapacity; f++) {
+            if (level[f] != FREE) {
+                int bucket = hash(level[f], low[f], high[f]);
+                next[f] = buckets[bucket];
+                buckets[bucket] = f;
+            }
+        }
+    }
+
+    /**
+     * Diese Methode berechnet die Kette der Unique-Tabelle für einen Knoten.
+     *
+     * @param v Die Variable.
+     * @param lo Der Nachfolger für den Wert 0.
+     * @param hi Der Nachfolger für den Wert 1.
+     * @return Index in buckets.
+     */
+    private int hash(int v, int lo, int hi) {
+        int h = v * 0x9E3779B1 + lo * 0x85EBCA6B + hi * 0xC2B2AE35;
+        h ^= h >>> 15;
+        return h & (buckets.length - 1);
+    }
+
+    /**
+     * Diese Methode berechnet den Cache-Index einer Operation.
+     *
+     * @param op Die Operation.
+     * @param a Das erste Argument.
+     * @param b Das zweite Argument.
+     * @param c Das dritte Argument.
+     * @return Der Index.
+     */
+    private int cacheIndex(int op, int a, int b, int c) {
+        int h = op * 0x27D4EB2F + a * 0x9E3779B1 + b * 0x85EBCA6B + c * 0xC2B2AE35;
+        h ^= h >>> 16;
+        return h & (cacheOp.length - 1);
+    }
+
+    /**
+     * Diese Methode sucht ein Ergebnis im Cache.
+     *
+     * @param index Der Cache-Index.
+     * @param op Die Operation.
+     * @param a Das erste Argument.
+     * @param b Das zweite Argument.
+     * @param c Das dritte Argument.
+     * @return Das Ergebnis oder -1.
+     */
+    private int lookup(int index, int op, int a, int b, int c) {
+        if (cacheOp[index] == op && cacheA[index] == a && cacheB[index] == b
+                && cacheC[index] == c) {
+            return cacheResult[index];
+        }
+        return -1;
+    }
+
+    /**
+     * Diese Methode legt ein Ergebnis im Cache ab.
+     *
+     * @param index Der Cache-Index.
+     * @param op Die Operation.
+     * @param a Das erste Argument.
+     * @param b Das zweite Argument.
+     * @param c Das dritte Argument.
+     * @param result Das Ergebnis.
+     * @return Das Ergebnis.
+     */
+    private int store(int index, int op, int a, int b, int c, int result) {
+        cacheOp[index] = op;
+        cacheA[index] = a;
+        cacheB[index] = b;
+        cacheC[index] = c;
+        cacheResult[index] = result;
+        return result;
+    }
+
+    /**
+     * Diese Methode negiert ein BDD rekursiv.
+     *
+     * @param f Das BDD.
+     * @return NOT f.
+     */
+    private int notRec(int f) {
+        if (f <= TRUE) {
+            return TRUE - f;
+        }
+        int index = cacheIndex(OP_NOT, f, 0, 0);
+        int cached = lookup(index, OP_NOT, f, 0, 0);
+        if (cached >= 0) {
+            return cached;
+        }
+        int lo = notRec(low[f]);
+        int hi = notRec(high[f]);
+        return store(index, OP_NOT, f, 0, 0, mk(level[f], lo, hi));
+    }
+
+    /**
+     * Diese Methode wendet eine zweistellige Operation rekursiv an.
+     *
+     * @param op OP_AND, OP_OR oder OP_DIFF.
+     * @param f Das erste BDD.
+     * @param g Das zweite BDD.
+     * @return Das Ergebnis.
+     */
+    private int apply(int op, int f, int g) {
+        switch (op) {
+            case OP_AND:
+                if (f == FALSE || g == FALSE) {
+                    return FALSE;
+                }
+                if (f == TRUE || f == g) {
+                    return g;
+                }
+                if (g == TRUE) {
+                    return f;
+                }
+                if (f > g) {
+                    int swap = f;
+                    f = g;
+                    g = swap;
+                }
+                break;
+            case OP_OR:
+                if (f == TRUE || g == TRUE) {
+                    return TRUE;
+                }
+                if (f == FALSE || f == g) {
+                    return g;
+                }
+                if (g == FALSE) {
+                    return f;
+                }
+                if (f > g) {
+                    int swap = f;
+                    f = g;
+                    g = swap;
+                }
+                break;
+            default:
+                if (f == FALSE || g == TRUE || f == g) {
+                    return FALSE;
+                }
+                if (g == FALSE) {
+                    return f;
+                }
+                if (f == TRUE) {
+                    return notRec(g);
+                }
+                break;
+        }
+        int index = cacheIndex(op, f, g, 0);
+        int cached = lookup(index, op, f, g, 0);
+        if (cached >= 0) {
+            return cached;
+        }
+        int v = Math.min(level[f], level[g]);
+        int f0 = level[f] == v ? low[f] : f;
+        int f1 = level[f] == v ? high[f] : f;
+        int g0 = level[g] == v ? low[g] : g;
+        int g1 = level[g] == v ? high[g] : g;
+        int lo = apply(op, f0, g0);
+        int hi = apply(op, f1, g1);
+        return store(index, op, f, g, 0, mk(v, lo, hi));
+    }
+
+    /**
+     * Diese Methode quantifiziert Variablen rekursiv existenziell.
+     *
+     * @param f Das BDD.
+     * @param vars Die Variablenmenge als Konjunktion.
+     * @return Das Ergebnis.
+     */
+    private int existsRec(int f, int vars) {
+        while (vars != TRUE && level[vars] < level[f]) {
+            vars = high[vars];
+        }
+        if (f <= TRUE || vars == TRUE) {
+            return f;
+        }
+        int index = cacheIndex(OP_EXISTS, f, vars, 0);
+        int cached = lookup(index, OP_EXISTS, f, vars, 0);
+        if (cached >= 0) {
+            return cached;
+        }
+        int result;
+        if (level[vars] == level[f]) {
+            int lo = existsRec(low[f], high[vars]);
+            result = lo == TRUE ? TRUE : apply(OP_OR, lo, existsRec(high[f], high[vars]));
+        } else {
+            int lo = existsRec(low[f], vars);
+            int hi = existsRec(high[f], vars);
+            result = mk(level[f], lo, hi);
+        }
+        return store(index, OP_EXISTS, f, vars, 0, result);
+    }
+
+    /**
+     * Diese Methode berechnet das relationale Produkt rekursiv.
+     *
+     * @param f Das erste BDD.
+     * @param g Das zweite BDD.
+     * @param vars Die Variablenmenge als Konjunktion.
+     * @return EXISTS vars: f AND g.
+     */
+    private int andExistsRec(int f, int g, int vars) {
+        if (f == FALSE || g == FALSE) {
+            return FALSE;
+        }
+        if (f == TRUE || f == g) {
+            return existsRec(g, vars);
+        }
+        if (g == TRUE) {
+            return existsRec(f, vars);
+        }
+        if (f > g) {
+            int swap = f;
+            f = g;
+            g = swap;
+        }
+        int v = Math.min(level[f], level[g]);
+        while (vars != TRUE && level[vars] < v) {
+            vars = high[vars];
+        }
+        if (vars == TRUE) {
+            return apply(OP_AND, f, g);
+        }
+        int index = cacheIndex(OP_AND_EXISTS, f, g, vars);
+        int cached = lookup(index, OP_AND_EXISTS, f, g, vars);
+        if (cached >= 0) {
+            return cached;
+        }
+        int f0 = level[f] == v ? low[f] : f;
+        int f1 = level[f] == v ? high[f] : f;
+        int g0 = level[g] == v ? low[g] : g;
+        int g1 = level[g] == v ? high[g] : g;
+        int result;
+        if (level[vars] == v) {
+            int lo = andExistsRec(f0, g0, high[vars]);
+            result = lo == TRUE ? TRUE : apply(OP_OR, lo, andExistsRec(f1, g1, high[vars]));
+        } else {
+            int lo = andExistsRec(f0, g0, vars);
+            int hi = andExistsRec(f1, g1, vars);
+            result = mk(v, lo, hi);
+        }
+        return store(index, OP_AND_EXISTS, f, g, vars, result);
+    }
+
+    /**
+     * Diese Methode zählt die erfüllenden Belegungen der Variablen ab der
+     * Ebene von f.
+     *
+     * @param f Das BDD.
+     * @param memo Die bereits berechneten Anzahlen.
+     * @return Anzahl der erfüllenden Belegungen.
+     */
+    private BigInteger countRec(int f, BigInteger[] memo) {
+        if (f <= TRUE) {
+            return f == TRUE ? BigInteger.ONE : BigInteger.ZERO;
+        }
+        if (memo[f] != null) {
+            return memo[f];
+        }
+        BigInteger lo = countRec(low[f], memo).shiftLeft(level[low[f]] - level[f] - 1);
+        BigInteger hi = countRec(high[f], memo).shiftLeft(level[high[f]] - level[f] - 1);
+        memo[f] = lo.add(hi);
+        return memo[f];
+    }
+}
@@ -0,0 +1,115 @@
+package conformance;
+
+/**
+ * Diese Klasse hält ein optimales Alignment zwischen einem Fall und dem
+ * Verhalten des Netzes fest. Es besteht aus einer Folge von Schritten: Ein
+ * synchroner Schritt schaltet eine Transition, die zum nächsten Ereignis
+ * passt, ein Schritt nur im Modell schaltet eine Transition ohne Ereignis und
+ * ein Schritt nur im Log überspringt ein Ereignis. Die Kosten sind die Anzahl
+ * der Schritte, die nicht synchron sind.
+ */
+public class Alignment {
+
+    /**
+     * Die Arten von Schritten.
+     */
+    public enum MoveType {
+        /**
+         * Ereignis und Transition passen zueinander.
+         */
+        SYNCHRONOUS,
+        /**
+         * Die Transition schaltet, ohne dass ein Ereignis vorliegt.
+         */
+        MODEL,
+        /**
+         * Das Ereignis wird übersprungen.
+         */
+        LOG
+    }
+
+    /**
+     * Die Kosten des Alignments.
+     */
+    private final int cost;
+
+    /**
+     * Die Art jedes Schritts.
+     */
+    private final MoveType[] types;
+
+    /**
+     * Die Transition jedes Schritts als Index im NetGraph oder -1.
+     */
+    private final int[] transitions;
+
+    /**
+     * Die Aktivität jedes Schritts als Index im TokenReplayer oder -1.
+     */
+    private final int[] activities;
+
+    /**
+     * Dieser Konstruktor initialisiert alle Attribute.
+     *
+     * @param cost Die Kosten des Alignments.
+     * @param types Die Art jedes Schritts.
+     * @param transitions Die Transition jedes Schritts oder -1.
+     * @param activities Die Aktivität jedes Schritts oder -1.
+     */
+    public Alignment(int cost, MoveType[] types, int[] transitions, int[] activities) {
+        this.cost = cost;
+        this.types = types;
+        this.transitions = transitions;
+        this.activities = activities;
+    }
+
+    /**
+     * Diese Methode gibt das Attribut cost zurück.
+     *
+     * @return Das Attribut cost.
+     */
+    public int getCost() {
+        return cost;
+    }
+
+    /**
+     * Diese Methode gibt die Anzahl der Schritte zurück.
+     *
+     * @return Die Anzahl der Schritte.
+     */
+    public int getMoveCount() {
+        return types.length;
+    }
+
+    /**
+     * Diese Methode gibt die Art eines Schritts zurück.
+     *
+     * @param i Die Position des Schritts.
+     * @return Die Art des Schritts.
+     */
+    public MoveType getMoveType(int i) {
+        return types[i];
+    }
+
+    /**
+     * Diese Methode gibt die Transition eines Schritts zurück.
+     *
+     * @param i Die Position des Schritts.
+     * @return Der Index der Transition im NetGraph oder -1 bei einem Schritt
+     * nur im Log.
+     */
+    public int getTransition(int i) {
+        return transitions[i];
+    }
+
+    /**
+     * Diese Methode gibt die Aktivität eines Schritts zurück.
+     *
+     * @param i Die Position des Schritts.
+     * @return Der Index der Aktivität im TokenReplayer oder -1 bei einem
+     * Schritt nur im Modell.
+     */
+    public int getActivity(int i) {
+        return activities[i];
+    }
+}
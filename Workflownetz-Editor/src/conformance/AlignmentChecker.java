@@ -0,0 +1,328 @@
+package conformance;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import stateSpace.MarkingEncoding;
+import workflownetLogic.NetGraph;
+
+/**
+ * Diese Klasse berechnet für alle Fälle eines Ereignislogs optimale
+ * Alignments mit dem Netz (siehe AlignmentSearch) und fasst die Abweichungen
+ * je Transition und je Aktivität zusammen.
+ *
+ * Das Log wird Fall für Fall gelesen, gespeichert werden nur die
+ * verschiedenen Varianten mit ihrer Häufigkeit. Jede Variante wird genau
+ * einmal ausgerichtet. Die Varianten werden von einem ForkJoinPool in
+ * Teilbereiche zerlegt, die sich die Threads gegenseitig abnehmen, so dass
+ * auch einzelne teure Varianten die übrigen Threads nicht aufhalten. Die
+ * Ergebnisse werden in der Reihenfolge des ersten Auftretens der Varianten
+ * zusammengeführt.
+ *
+ * Ereignisse, zu deren Aktivität keine Transition gehört, können nie
+ * synchron sein. Sie werden vor der Suche entfernt und als Schritte nur im
+ * Log gezählt.
+ *
+ * Es gilt dieselbe Schaltregel wie in den übrigen Analysen: Das Netz wird
+ * als 1-sicher betrachtet, Transitionen mit Kontakt schalten nicht.
+ *
+ * Wird der ausführende Thread unterbrochen, bricht die Berechnung mit einer
+ * CancellationException ab.
+ */
+public class AlignmentChecker {
+
+    /**
+     * Das Objekt, das Aktivitäten und Transitionen zuordnet.
+     */
+    private final TokenReplayer replayer;
+
+    /**
+     * Die Kodierung der Markierungen.
+     */
+    private final MarkingEncoding encoding;
+
+    /**
+     * Index der Startstelle.
+     */
+    private final int startPlace;
+
+    /**
+     * Index der Endstelle.
+     */
+    private final int endPlace;
+
+    /**
+     * Anzahl der Threads.
+     */
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Maximale Anzahl an Zuständen je Variante.
+     */
+    private int maxStates = 1000000;
+
+    /**
+     * Dieser Konstruktor initialisiert die Berechnung für ein gültiges
+     * Workflownetz. Stammt die Momentaufnahme aus der Benutzeroberfläche,
+     * muss er im JavaFX-Thread aufgerufen werden (siehe TokenReplayer).
+     *
+     * @param graph Die Momentaufnahme des Workflownetzes.
+     * @param startPlace Index der Startstelle.
+     * @param endPlace Index der Endstelle.
+     */
+    public AlignmentChecker(NetGraph graph, int startPlace, int endPlace) {
+        this.replayer = new TokenReplayer(graph, startPlace, endPlace);
+        this.encoding = new MarkingEncoding(graph);
+        this.startPlace = startPlace;
+        this.endPlace = endPlace;
+    }
+
+    /**
+     * Diese Methode setzt die Anzahl der Threads.
+     *
+     * @param threads Anzahl der Threads (mindestens 1).
+     * @return Dieses Objekt.
+     */
+    public AlignmentChecker setThreads(int threads) {
+        this.threads = Math.max(1, threads);
+        return this;
+    }
+
+    /**
+     * Diese Methode setzt die maximale Anzahl an Zuständen je Variante.
+     *
+     * @param maxStates Die maximale Anzahl an Zuständen.
+     * @return Dieses Objekt.
+     */
+    public AlignmentChecker setMaxStates(int maxStates) {
+        this.maxStates = Math.max(1, maxStates);
+        return this;
+    }
+
+    /**
+     * Diese Methode gibt das Attribut replayer zurück.
+     *
+     * @return Das Attribut replayer.
+     */
+    public TokenReplayer getReplayer() {
+        return replayer;
+    }
+
+    /**
+     * Diese Methode berechnet die Alignments aller Fälle eines Logs. Das Log
+     * wird dabei nicht geschlossen.
+     *
+     * @param reader Das Objekt, aus dem das Log gelesen wird.
+     * @return Das Ergebnis der Berechnung.
+     * @throws IOException Falls das Log nicht gelesen werden kann.
+     */
+    public AlignmentResult align(EventLogReader reader) throws IOException {
+        // Varianten einschließlich der Anzahl entfernter Ereignisse, die in
+        // die Kosten eingeht, und die davon unabhängigen Abfolgen, die
+        // ausgerichtet werden.
+        Map<TraceVariant, long[]> variants = new LinkedHashMap<>();
+        Map<TraceVariant, Integer> traces = new LinkedHashMap<>();
+        Map<String, long[]> unmapped = new HashMap<>();
+        long cases = 0;
+        long events = 0;
+        while (reader.next()) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new CancellationException();
+            }
+            List<String> activities = reader.getActivities();
+            int[] trace = new int[activities.size()];
+            int length = 0;
+            for (String name : activities) {
+                int a = replayer.getActivity(name);
+                if (a >= 0) {
+                    trace[length++] = a;
+                } else {
+                    unmapped.computeIfAbsent(name, key -> new long[1])[0]++;
+                }
+            }
+            cases++;
+            events += trace.length;
+            int[] variant = Arrays.copyOf(trace, length + 1);
+            variant[length] = trace.length - length;
+            long[] entry = variants.get(new TraceVariant(variant));
+            if (entry == null) {
+                TraceVariant mapped = new TraceVariant(Arrays.copyOf(trace, length));
+                Integer index = traces.get(mapped);
+                if (index == null) {
+                    index = traces.size();
+                    traces.put(mapped, index);
+                }
+                entry = new long[] {0, index};
+                variants.put(new TraceVariant(variant), entry);
+            }
+            entry[0]++;
+        }
+        List<TraceVariant> keys = new ArrayList<>(traces.keySet());
+        Alignment[] alignments = new Alignment[keys.size()];
+        Alignment empty = alignAll(keys, alignments);
+        int emptyCost = empty == null ? 0 : empty.getCost();
+        int transitionCount = encoding.getTransitionCount();
+        int placeCount = encoding.getGraph().getPlaceCount();
+        long[] synchronousMoves = new long[transitionCount];
+        long[] modelMoves = new long[transitionCount];
+        // Stille Transitionen schalten nur im Modell, ohne abzuweichen.
+        boolean[] silent = new boolean[transitionCount];
+        for (int t : replayer.getSilentTransitions()) {
+            silent[t - placeCount] = true;
+        }
+        Map<String, long[]> logMoves = new HashMap<>(unmapped);
+        long fittingCases = 0;
+        long failedCases = 0;
+        long totalCost = 0;
+        double fitnessSum = 0;
+        for (Map.Entry<TraceVariant, long[]> variant : variants.entrySet()) {
+            long count = variant.getValue()[0];
+            int[] trace = variant.getKey().getTrace();
+            Alignment alignment = alignments[(int) variant.getValue()[1]];
+            if (alignment == null) {
+                failedCases += count;
+                continue;
+            }
+            for (int k = 0; k < alignment.getMoveCount(); k++) {
+                switch (alignment.getMoveType(k)) {
+                    case SYNCHRONOUS:
+                        synchronousMoves[alignment.getTransition(k) - placeCount] += count;
+                        break;
+                    case MODEL:
+                        if (!silent[alignment.getTransition(k) - placeCount]) {
+                            modelMoves[alignment.getTransition(k) - placeCount] += count;
+                        }
+                        break;
+                    default:
+                        logMoves.computeIfAbsent(replayer.getActivityName(alignment.getActivity(k)),
+                                key -> new long[1])[0] += count;
+                }
+            }
+            // Die entfernten Ereignisse eines Falls kosten je 1.
+            int removed = trace[trace.length - 1];
+            long cost = alignment.getCost() + removed;
+            long worst = trace.length - 1 + removed + emptyCost;
+            if (cost == 0) {
+                fittingCases += count;
+            }
+            totalCost += cost * count;
+            fitnessSum += count * (worst == 0 ? 1 : 1 - (double) cost / worst);
+        }
+        List<String> logActivities = new ArrayList<>(logMoves.keySet());
+        logActivities.sort((a, b) -> Long.compare(logMoves.get(b)[0], logMoves.get(a)[0]));
+        long[] logCounts = new long[logActivities.size()];
+        for (int i = 0; i < logCounts.length; i++) {
+            logCounts[i] = logMoves.get(logActivities.get(i))[0];
+        }
+        return new AlignmentResult(encoding.getGraph(), cases, variants.size(), events,
+                fittingCases, failedCases, totalCost, fitnessSum, synchronousMoves, modelMoves,
+                logActivities, logCounts);
+    }
+
+    /**
+     * Diese Methode richtet alle Varianten parallel aus.
+     *
+     * @param keys Die Varianten.
+     * @param alignments Das Array für die Alignments.
+     * @return Das Alignment des leeren Falls, also ein kürzester Lauf durch
+     * das Netz, oder null.
+     */
+    private Alignment alignAll(List<TraceVariant> keys, Alignment[] alignments) {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            ForkJoinTask<Void> task = pool.submit(new AlignTask(keys, alignments, 0, keys.size()));
+            Alignment empty = newSearch().align(new int[0]);
+            task.get();
+            return empty;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Diese Methode erzeugt eine Suche für den aktuellen Thread.
+     *
+     * @return Die Suche.
+     */
+    private AlignmentSearch newSearch() {
+        return new AlignmentSearch(replayer, encoding, startPlace, endPlace)
+                .setMaxStates(maxStates);
+    }
+
+    /**
+     * Diese Aufgabe richtet einen Teilbereich der Varianten aus. Bereiche mit
+     * mehr als einer Variante werden halbiert.
+     */
+    private class AlignTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Die Varianten.
+         */
+        private final List<TraceVariant> keys;
+
+        /**
+         * Das Array für die Alignments.
+         */
+        private final Alignment[] alignments;
+
+        /**
+         * Anfang des Teilbereichs (inklusive).
+         */
+        private final int from;
+
+        /**
+         * Ende des Teilbereichs (exklusive).
+         */
+        private final int to;
+
+        /**
+         * Dieser Konstruktor initialisiert die Aufgabe.
+         *
+         * @param keys Die Varianten.
+         * @param alignments Das Array für die Alignments.
+         * @param from Anfang des Teilbereichs.
+         * @param to Ende des Teilbereichs.
+         */
+        AlignTask(List<TraceVariant> keys, Alignment[] alignments, int from, int to) {
+            this.keys = keys;
+            this.alignments = alignments;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new AlignTask(keys, alignments, from, middle),
+                        new AlignTask(keys, alignments, middle, to));
+                return;
+            }
+            if (from < to) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new CancellationException();
+                }
+                alignments[from] = newSearch().align(keys.get(from).getTrace());
+            }
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package conformance;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import resources.MyMessages;
+import workflownetLogic.NetGraph;
+import workflownetLogic.WorkflownetValidator;
+
+/**
+ * Diese Klasse hält das Ergebnis der Alignments eines Ereignislogs mit dem
+ * AlignmentChecker fest. Für jede Transition wird gezählt, wie oft sie
+ * synchron mit einem Ereignis und wie oft sie nur im Modell geschaltet hat,
+ * für jede Aktivität, wie oft ihr Ereignis nur im Log vorkam. Die Zahlen
+ * sind mit der Häufigkeit der Varianten gewichtet.
+ *
+ * Die Fitness eines Falls ist 1 - Kosten / (Länge des Falls + Länge eines
+ * kürzesten Laufs durch das Netz), die Fitness des Logs der Durchschnitt
+ * über alle ausgerichteten Fälle.
+ */
+public class AlignmentResult {
+
+    /**
+     * Die Momentaufnahme des Netzes.
+     */
+    private final NetGraph graph;
+
+    /**
+     * Anzahl der Fälle.
+     */
+    private final long cases;
+
+    /**
+     * Anzahl der verschiedenen Varianten.
+     */
+    private final int variants;
+
+    /**
+     * Anzahl der Ereignisse.
+     */
+    private final long events;
+
+    /**
+     * Anzahl der Fälle mit Kosten 0.
+     */
+    private final long fittingCases;
+
+    /**
+     * Anzahl der Fälle, die nicht ausgerichtet werden konnten.
+     */
+    private final long failedCases;
+
+    /**
+     * Summe der Kosten aller ausgerichteten Fälle.
+     */
+    private final long totalCost;
+
+    /**
+     * Summe der Fitness aller ausgerichteten Fälle.
+     */
+    private final double fitnessSum;
+
+    /**
+     * Anzahl der synchronen Schritte je Transition (0 bis
+     * transitionCount-1).
+     */
+    private final long[] synchronousMoves;
+
+    /**
+     * Anzahl der Schritte nur im Modell je Transition.
+     */
+    private final long[] modelMoves;
+
+    /**
+     * Die Aktivitäten mit Schritten nur im Log, absteigend nach Häufigkeit.
+     */
+    private final List<String> logActivities;
+
+    /**
+     * Anzahl der Schritte nur im Log je Eintrag in logActivities.
+     */
+    private final long[] logMoves;
+
+    /**
+     * Dieser Konstruktor initialisiert alle Attribute.
+     *
+     * @param graph Die Momentaufnahme des Netzes.
+     * @param cases Anzahl der Fälle.
+     * @param variants Anzahl der Varianten.
+     * @param events Anzahl der Ereignisse.
+     * @param fittingCases Anzahl der Fälle mit Kosten 0.
+     * @param failedCases Anzahl der nicht ausgerichteten Fälle.
+     * @param totalCost Summe der Kosten.
+     * @param fitnessSum Summe der Fitness.
+     * @param synchronousMoves Anzahl der synchronen Schritte je Transition.
+     * @param modelMoves Anzahl der Schritte nur im Modell je Transition.
+     * @param logActivities Die Aktivitäten mit Schritten nur im Log.
+     * @param logMoves Anzahl der Schritte nur im Log je Aktivität.
+     */
+    public AlignmentResult(NetGraph graph, long cases, int variants, long events,
+            long fittingCases, long failedCases, long totalCost, double fitnessSum,
+            long[] synchronousMoves, long[] modelMoves, List<String> logActivities,
+            long[] logMoves) {
+        this.graph = graph;
+        this.cases = cases;
+        this.variants = variants;
+        this.events = events;
+        this.fittingCases = fittingCases;
+        this.failedCases = failedCases;
+        this.totalCost = totalCost;
+        this.fitnessSum = fitnessSum;
+        this.synchronousMoves = synchronousMoves;
+        this.modelMoves = modelMoves;
+        this.logActivities = Collections.unmodifiableList(logActivities);
+        this.logMoves = logMoves;
+    }
+
+    /**
+     * Diese Methode berechnet den Durchschnitt der Fitness aller
+     * ausgerichteten Fälle.
+     *
+     * @return Die Fitness oder 1, falls kein Fall ausgerichtet wurde.
+     */
+    public double getFitness() {
+        long aligned = cases - failedCases;
+        return aligned == 0 ? 1 : fitnessSum / aligned;
+    }
+
+    /**
+     * Diese Methode gibt die Anzahl der synchronen Schritte einer Transition
+     * zurück.
+     *
+     * @param t Nummer der Transition (0 bis transitionCount-1).
+     * @return Die Anzahl über alle Fälle.
+     */
+    public long getSynchronousMoves(int t) {
+        return synchronousMoves[t];
+    }
+
+    /**
+     * Diese Methode gibt die Anzahl der Schritte nur im Modell einer
+     * Transition zurück.
+     *
+     * @param t Nummer der Transition (0 bis transitionCount-1).
+     * @return Die Anzahl über alle Fälle.
+     */
+    public long getModelMoves(int t) {
+        return modelMoves[t];
+    }
+
+    /**
+     * Diese Methode gibt die Anzahl der Schritte nur im Log einer Aktivität
+     * zurück.
+     *
+     * @param activity Der Name der Aktivität.
+     * @return Die Anzahl über alle Fälle.
+     */
+    public long getLogMoves(String activity) {
+        int i = logActivities.indexOf(activity);
+        return i < 0 ? 0 : logMoves[i];
+    }
+
+    /**
+     * Diese Methode gibt das Attribut graph zurück.
+     *
+     * @return Das Attribut graph.
+     */
+    public NetGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * Diese Methode gibt das Attribut cases zurück.
+     *
+     * @return Das Attribut cases.
+     */
+    public long getCases() {
+        return cases;
+    }
+
+    /**
+     * Diese Methode gibt das Attribut variants zurück.
+     *
+     * @return Das Attribut variants.
+     */
+    public int getVariants() {
+        return variants;
+    }
+
+    /**
+     * Diese Methode gibt das Attribut events zurück.
+     *
+     * @return Das Attribut events.
+     */
+    public long getEvents() {
+        return events;
+    }
+
+    /**
+     * Diese Methode gibt das Attribut fittingCases zurück.
+     *
+     * @return Das Attribut fittingCases.
+     */
+    public long getFittingCases() {
+        return fittingCases;
+    }
+
+    /**
+     * Diese Methode gibt das Attribut failedCases zurück.
+     *
+     * @return Das Attribut failedCases.
+     */
+    public long getFailedCases() {
+        return failedCases;
+    }
+
+    /**
+     * Diese Methode gibt das Attribut totalCost zurück.
+     *
+     * @return Das Attribut totalCost.
+     */
+    public long getTotalCost() {
+        return totalCost;
+    }
+
+    /**
+     * Diese Methode gibt das Attribut logActivities zurück.
+     *
+     * @return Das Attribut logActivities.
+     */
+    public List<String> getLogActivities() {
+        return logActivities;
+    }
+
+    /**
+     * Diese Methode erzeugt eine Meldung für den Benutzer. Sie nennt die
+     * Fitness, die Transitionen, die nur im Modell geschaltet haben, und die
+     * Aktivitäten, die nur im Log vorkamen, jeweils mit ihrer Häufigkeit.
+     *
+     * @return Die Meldung.
+     */
+    public String getMessage() {
+        long aligned = cases - failedCases;
+        StringBuilder builder = new StringBuilder(String.format(MyMessages.ALIGNMENT_RESULT,
+                getFitness(), fittingCases, cases, variants,
+                aligned == 0 ? 0.0 : (double) totalCost / aligned));
+        List<String> model = new ArrayList<>();
+        List<Integer> order = new ArrayList<>();
+        for (int t = 0; t < modelMoves.length; t++) {
+            if (modelMoves[t] > 0) {
+                order.add(t);
+            }
+        }
+        order.sort((a, b) -> Long.compare(modelMoves[b], modelMoves[a]));
+        for (int t : order) {
+            model.add(graph.getId(graph.getPlaceCount() + t) + " (" + modelMoves[t] + ")");
+        }
+        if (!model.isEmpty()) {
+            builder.append('\n').append(WorkflownetValidator.describe(
+                    MyMessages.ALIGNMENT_MODEL_MOVES, model));
+        }
+        List<String> log = new ArrayList<>();
+        for (int i = 0; i < logMoves.length; i++) {
+            log.add(logActivities.get(i) + " (" + logMoves[i] + ")");
+        }
+        if (!log.isEmpty()) {
+            builder.append('\n').append(WorkflownetValidator.describe(
+                    MyMessages.ALIGNMENT_LOG_MOVES, log));
+        }
+        if (failedCases > 0) {
+            builder.append('\n').append(String.format(MyMessages.ALIGNMENT_FAILED, failedCases));
+        }
+        return builder.toString();
+    }
+}
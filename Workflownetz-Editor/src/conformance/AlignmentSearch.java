@@ -0,0 +1,575 @@
+package conformance;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import stateSpace.IntArrayList;
+import stateSpace.MarkingEncoding;
+import stateSpace.MarkingStore;
+
+/**
+ * Diese Klasse berechnet mit A* ein optimales Alignment zwischen einem Fall
+ * und dem Netz. Ein Zustand des synchronen Produkts besteht aus einer
+ * Markierung des Netzes und der Position im Fall. Die Markierung wird wie in
+ * den übrigen Analysen als Bitvektor (siehe MarkingEncoding) kodiert, die
+ * Position als zusätzliches Wort, so dass die Zustände in einem
+ * MarkingStore abgelegt und wiedererkannt werden.
+ *
+ * Als Heuristik dient die Markierungsgleichung (siehe MarkingEquation). Da
+ * ein lineares Programm je Zustand teuer ist, wird die Lösung des Vorgängers
+ * weiterverwendet: Ist die Variable des ausgeführten Schritts in ihr
+ * mindestens 1, ergibt sich die exakte Lösung des Nachfolgers durch
+ * Abziehen. Andernfalls erhält der Nachfolger die Schätzung h - Kosten, die
+ * wegen der Konsistenz der Heuristik eine untere Schranke bleibt. Sie wird
+ * erst dann durch die exakte Lösung ersetzt, wenn der Zustand aus der
+ * Warteschlange genommen wird. Steigt der Wert, wird er erneut eingereiht.
+ *
+ * Stille Transitionen (siehe TokenReplayer) passen zu keinem Ereignis. Sie
+ * schalten nur im Modell und kosten dabei nichts.
+ *
+ * Die Warteschlange ist ein binärer Heap aus long-Schlüsseln (f-Wert und
+ * bei Gleichstand größere Kosten g zuerst) und int-Zustandsnummern. Veraltete
+ * Einträge werden beim Entnehmen übersprungen.
+ *
+ * Die Objekte dieser Klasse sind nicht threadsicher, jeder Thread benötigt
+ * ein eigenes Objekt. Wird der ausführende Thread unterbrochen, bricht die
+ * Suche mit einer CancellationException ab.
+ */
+public class AlignmentSearch {
+
+    /**
+     * Art eines synchronen Schritts in der Kodierung der Schritte.
+     */
+    private static final int SYNC = 0;
+
+    /**
+     * Art eines Schritts nur im Modell in der Kodierung der Schritte.
+     */
+    private static final int MODEL = 1;
+
+    /**
+     * Art eines Schritts nur im Log in der Kodierung der Schritte.
+     */
+    private static final int LOG = 2;
+
+    /**
+     * Das Objekt, das Aktivitäten und Transitionen zuordnet.
+     */
+    private final TokenReplayer replayer;
+
+    /**
+     * Die Kodierung der Markierungen.
+     */
+    private final MarkingEncoding encoding;
+
+    /**
+     * Index der Startstelle.
+     */
+    private final int startPlace;
+
+    /**
+     * Index der Endstelle.
+     */
+    private final int endPlace;
+
+    /**
+     * Die stillen Transitionen (0 bis transitionCount-1).
+     */
+    private final int[] silent;
+
+    /**
+     * Die Kosten eines Schritts nur im Modell je Transition.
+     */
+    private final int[] modelCosts;
+
+    /**
+     * Maximale Anzahl an Zuständen je Fall.
+     */
+    private int maxStates = 1000000;
+
+    /**
+     * Anzahl der gelösten linearen Programme.
+     */
+    private long solvedPrograms;
+
+    /**
+     * Dieser Konstruktor initialisiert die Suche.
+     *
+     * @param replayer Das Objekt, das Aktivitäten und Transitionen zuordnet.
+     * @param encoding Die Kodierung der Markierungen desselben Netzes.
+     * @param startPlace Index der Startstelle.
+     * @param endPlace Index der Endstelle.
+     */
+    public AlignmentSearch(TokenReplayer replayer, MarkingEncoding encoding,
+            int startPlace, int endPlace) {
+        this.replayer = replayer;
+        this.encoding = encoding;
+        this.startPlace = startPlace;
+        this.endPlace = endPlace;
+        int placeCount = encoding.getGraph().getPlaceCount();
+        int[] nodes = replayer.getSilentTransitions();
+        this.silent = new int[nodes.length];
+        this.modelCosts = new int[encoding.getTransitionCount()];
+        Arrays.fill(modelCosts, 1);
+        for (int i = 0; i < nodes.length; i++) {
+            silent[i] = nodes[i] - placeCount;
+            modelCosts[silent[i]] = 0;
+        }
+    }
+
+    /**
+     * Diese Methode setzt die maximale Anzahl an Zuständen je Fall.
+     *
+     * @param maxStates Die maximale Anzahl an Zuständen.
+     * @return Dieses Objekt.
+     */
+    public AlignmentSearch setMaxStates(int maxStates) {
+        this.maxStates = Math.max(1, maxStates);
+        return this;
+    }
+
+    /**
+     * Diese Methode berechnet ein optimales Alignment.
+     *
+     * @param trace Die Indizes der Aktivitäten des Falls (siehe
+     * TokenReplayer.getActivity).
+     * @return Das Alignment oder null, falls die Endmarkierung nicht
+     * erreichbar ist oder die Zustandsgrenze erreicht wurde.
+     */
+    public Alignment align(int[] trace) {
+        int length = trace.length;
+        int placeCount = encoding.getGraph().getPlaceCount();
+        // Die Aktivitäten des Falls werden lokal durchnummeriert.
+        int[] localIndex = new int[replayer.getActivityCount()];
+        Arrays.fill(localIndex, -1);
+        int[] local = new int[length];
+        IntArrayList activities = new IntArrayList(8);
+        for (int i = 0; i < length; i++) {
+            if (localIndex[trace[i]] < 0) {
+                localIndex[trace[i]] = activities.size();
+                activities.add(trace[i]);
+            }
+            local[i] = localIndex[trace[i]];
+        }
+        int[][] transitions = new int[activities.size()][];
+        for (int a = 0; a < transitions.length; a++) {
+            int[] nodes = replayer.getTransitions(activities.get(a));
+            transitions[a] = new int[nodes.length];
+            for (int j = 0; j < nodes.length; j++) {
+                transitions[a][j] = nodes[j] - placeCount;
+            }
+        }
+        MarkingEquation equation = new MarkingEquation(encoding, endPlace, transitions,
+                silent);
+        Search search = new Search(trace, local, transitions, equation);
+        return search.run();
+    }
+
+    /**
+     * Diese Methode gibt das Attribut solvedPrograms zurück.
+     *
+     * @return Das Attribut solvedPrograms.
+     */
+    public long getSolvedPrograms() {
+        return solvedPrograms;
+    }
+
+    /**
+     * Die Daten der Suche für einen Fall.
+     */
+    private class Search {
+
+        /**
+         * Die Indizes der Aktivitäten des Falls.
+         */
+        private final int[] trace;
+
+        /**
+         * Die lokalen Indizes der Aktivitäten des Falls.
+         */
+        private final int[] local;
+
+        /**
+         * Die passenden Transitionen je lokaler Aktivität.
+         */
+        private final int[][] transitions;
+
+        /**
+         * Die Markierungsgleichung des Falls.
+         */
+        private final MarkingEquation equation;
+
+        /**
+         * Anzahl der Wörter einer Markierung.
+         */
+        private final int words;
+
+        /**
+         * Die bekannten Zustände: Markierung und Position im Fall.
+         */
+        private final MarkingStore store;
+
+        /**
+         * Die bisher geringsten Kosten je Zustand.
+         */
+        private final IntArrayList costs = new IntArrayList(1024);
+
+        /**
+         * Die Schätzung der restlichen Kosten je Zustand.
+         */
+        private final IntArrayList estimates = new IntArrayList(1024);
+
+        /**
+         * Der Vorgänger je Zustand oder -1.
+         */
+        private final IntArrayList predecessors = new IntArrayList(1024);
+
+        /**
+         * Der Schritt vom Vorgänger je Zustand: Art in den unteren zwei Bits,
+         * darüber die Transition.
+         */
+        private final IntArrayList moves = new IntArrayList(1024);
+
+        /**
+         * Die Lösung der Markierungsgleichung je Zustand oder null, falls
+         * die Schätzung nicht exakt ist.
+         */
+        private final List<double[]> solutions = new ArrayList<>();
+
+        /**
+         * Die bereits expandierten Zustände.
+         */
+        private final BitSet closed = new BitSet();
+
+        /**
+         * Die Warteschlange.
+         */
+        private final Heap heap = new Heap();
+
+        /**
+         * Puffer für die verbleibenden Ereignisse je Aktivität.
+         */
+        private final int[] counts;
+
+        /**
+         * Dieser Konstruktor initialisiert die Suche.
+         *
+         * @param trace Die Indizes der Aktivitäten des Falls.
+         * @param local Die lokalen Indizes der Aktivitäten.
+         * @param transitions Die Transitionen je lokaler Aktivität.
+         * @param equation Die Markierungsgleichung des Falls.
+         */
+        Search(int[] trace, int[] local, int[][] transitions, MarkingEquation equation) {
+            this.trace = trace;
+            this.local = local;
+            this.transitions = transitions;
+            this.equation = equation;
+            this.words = encoding.getWords();
+            this.store = new MarkingStore(words + 1, 1024);
+            this.counts = new int[transitions.length];
+        }
+
+        /**
+         * Diese Methode führt die Suche durch.
+         *
+         * @return Das Alignment oder null.
+         */
+        Alignment run() {
+            int length = trace.length;
+            long[] state = Arrays.copyOf(encoding.encodeMarking(startPlace), words + 1);
+            long[] goal = Arrays.copyOf(encoding.encodeMarking(endPlace), words + 1);
+            goal[words] = length;
+            long[] next = new long[words + 1];
+            int[] enabled = new int[encoding.getTransitionCount()];
+            double[] solution = new double[equation.getVariableCount()];
+            int start = store.add(state, 0);
+            int h = solve(state, solution);
+            if (h < 0) {
+                return null;
+            }
+            addState(-1, 0, 0, h, solution.clone());
+            heap.push(key(0, h), start);
+            long steps = 0;
+            while (heap.size() > 0) {
+                long key = heap.peekKey();
+                int s = heap.pop();
+                if ((++steps & 0xFFF) == 0 && Thread.currentThread().isInterrupted()) {
+                    throw new CancellationException();
+                }
+                int g = costs.get(s);
+                if (closed.get(s) || key != key(g, estimates.get(s))) {
+                    continue;
+                }
+                store.get(s, state, 0);
+                if (solutions.get(s) == null) {
+                    int exact = solve(state, solution);
+                    if (exact < 0) {
+                        closed.set(s);
+                        continue;
+                    }
+                    solutions.set(s, solution.clone());
+                    if (exact > estimates.get(s)) {
+                        estimates.set(s, exact);
+                        heap.push(key(g, exact), s);
+                        continue;
+                    }
+                }
+                if (Arrays.equals(state, goal)) {
+                    return reconstruct(s);
+                }
+                closed.set(s);
+                if (store.size() >= maxStates) {
+                    return null;
+                }
+                int position = (int) state[words];
+                double[] parent = solutions.get(s);
+                // Die Lösung wird nur für die Nachfolger benötigt.
+                solutions.set(s, null);
+                int estimate = estimates.get(s);
+                if (position < length) {
+                    System.arraycopy(state, 0, next, 0, words);
+                    next[words] = position + 1;
+                    successor(s, next, LOG, 1, estimate, parent,
+                            equation.logVariable(local[position]));
+                }
+                int count = encoding.collectEnabled(state, 0, enabled);
+                for (int i = 0; i < count; i++) {
+                    int t = enabled[i];
+                    encoding.fire(state, 0, t, next, 0);
+                    next[words] = position;
+                    successor(s, next, (t << 2) | MODEL, modelCosts[t], estimate, parent,
+                            equation.modelVariable(t));
+                    if (position < length) {
+                        int variable = equation.syncVariable(local[position], t);
+                        if (variable >= 0) {
+                            next[words] = position + 1;
+                            successor(s, next, (t << 2) | SYNC, 0, estimate, parent, variable);
+                        }
+                    }
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Diese Methode vermerkt einen Nachfolger und reiht ihn ein, falls er
+         * neu ist oder billiger erreicht wird.
+         *
+         * @param s Der Vorgänger.
+         * @param next Der Nachfolger.
+         * @param move Der Schritt in der Kodierung der Schritte.
+         * @param moveCost Die Kosten des Schritts.
+         * @param estimate Die exakte Schätzung des Vorgängers.
+         * @param parent Die Lösung der Markierungsgleichung des Vorgängers.
+         * @param variable Die Variable des Schritts in der Lösung.
+         */
+        private void successor(int s, long[] next, int move, int moveCost, int estimate,
+                double[] parent, int variable) {
+            int g = costs.get(s) + moveCost;
+            int id = store.add(next, 0);
+            if (id < 0) {
+                id = -id - 1;
+                if (closed.get(id) || g >= costs.get(id)) {
+                    return;
+                }
+                costs.set(id, g);
+                predecessors.set(id, s);
+                moves.set(id, move);
+                heap.push(key(g, estimates.get(id)), id);
+                return;
+            }
+            double[] solution = null;
+            int h = Math.max(0, estimate - moveCost);
+            if (parent[variable] >= 1 - 1e-9) {
+                solution = parent.clone();
+                solution[variable] -= 1;
+            }
+            addState(s, move, g, h, solution);
+            heap.push(key(g, h), id);
+        }
+
+        /**
+         * Diese Methode legt die Daten eines neuen Zustands an.
+         *
+         * @param predecessor Der Vorgänger oder -1.
+         * @param move Der Schritt vom Vorgänger.
+         * @param g Die Kosten bis zum Zustand.
+         * @param h Die Schätzung der restlichen Kosten.
+         * @param solution Die Lösung der Markierungsgleichung oder null.
+         */
+        private void addState(int predecessor, int move, int g, int h, double[] solution) {
+            predecessors.add(predecessor);
+            moves.add(move);
+            costs.add(g);
+            estimates.add(h);
+            solutions.add(solution);
+        }
+
+        /**
+         * Diese Methode löst die Markierungsgleichung für einen Zustand.
+         *
+         * @param state Der Zustand.
+         * @param solution Das Array für die Lösung.
+         * @return Die Schätzung oder -1, falls die Endmarkierung nicht
+         * erreichbar ist.
+         */
+        private int solve(long[] state, double[] solution) {
+            Arrays.fill(counts, 0);
+            for (int i = (int) state[words]; i < local.length; i++) {
+                counts[local[i]]++;
+            }
+            solvedPrograms++;
+            return equation.solve(state, 0, counts, solution);
+        }
+
+        /**
+         * Diese Methode setzt das Alignment aus den Vorgängern zusammen.
+         *
+         * @param s Der Zielzustand.
+         * @return Das Alignment.
+         */
+        private Alignment reconstruct(int s) {
+            IntArrayList path = new IntArrayList(trace.length * 2);
+            for (int v = s; predecessors.get(v) >= 0; v = predecessors.get(v)) {
+                path.add(v);
+            }
+            int n = path.size();
+            Alignment.MoveType[] types = new Alignment.MoveType[n];
+            int[] moveTransitions = new int[n];
+            int[] moveActivities = new int[n];
+            int placeCount = encoding.getGraph().getPlaceCount();
+            for (int i = 0; i < n; i++) {
+                int v = path.get(n - 1 - i);
+                int move = moves.get(v);
+                int position = (int) store.getWord(predecessors.get(v), words);
+                switch (move & 3) {
+                    case SYNC:
+                        types[i] = Alignment.MoveType.SYNCHRONOUS;
+                        moveTransitions[i] = placeCount + (move >>> 2);
+                        moveActivities[i] = trace[position];
+                        break;
+                    case MODEL:
+                        types[i] = Alignment.MoveType.MODEL;
+                        moveTransitions[i] = placeCount + (move >>> 2);
+                        moveActivities[i] = -1;
+                        break;
+                    default:
+                        types[i] = Alignment.MoveType.LOG;
+                        moveTransitions[i] = -1;
+                        moveActivities[i] = trace[position];
+                }
+            }
+            return new Alignment(costs.get(s), types, moveTransitions, moveActivities);
+        }
+
+        /**
+         * Diese Methode bildet den Schlüssel eines Zustands in der
+         * Warteschlange. Bei gleichem f-Wert wird der Zustand mit den größeren
+         * Kosten g zuerst entnommen, da er näher am Ziel liegt.
+         *
+         * @param g Die Kosten bis zum Zustand.
+         * @param h Die Schätzung der restlichen Kosten.
+         * @return Der Schlüssel.
+         */
+        private long key(int g, int h) {
+            return ((long) (g + h) << 32) | (Integer.MAX_VALUE - g);
+        }
+    }
+
+    /**
+     * Ein binärer Min-Heap aus long-Schlüsseln mit int-Werten.
+     */
+    private static final class Heap {
+
+        /**
+         * Die Schlüssel in Heap-Ordnung.
+         */
+        private long[] keys = new long[1024];
+
+        /**
+         * Die Werte zu den Schlüsseln.
+         */
+        private int[] values = new int[1024];
+
+        /**
+         * Anzahl der Einträge.
+         */
+        private int size;
+
+        /**
+         * Diese Methode fügt einen Eintrag hinzu.
+         *
+         * @param key Der Schlüssel.
+         * @param value Der Wert.
+         */
+        void push(long key, int value) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (keys[parent] <= key) {
+                    break;
+                }
+                keys[i] = keys[parent];
+                values[i] = values[parent];
+                i = parent;
+            }
+            keys[i] = key;
+            values[i] = value;
+        }
+
+        /**
+         * Diese Methode gibt den kleinsten Schlüssel zurück.
+         *
+         * @return Der kleinste Schlüssel.
+         */
+        long peekKey() {
+            return keys[0];
+        }
+
+        /**
+         * Diese Methode entfernt den Eintrag mit dem kleinsten Schlüssel.
+         *
+         * @return Der Wert des Eintrags.
+         */
+        int pop() {
+            int result = values[0];
+            size--;
+            long key = keys[size];
+            int value = values[size];
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && keys[child + 1] < keys[child]) {
+                    child++;
+                }
+                if (keys[child] >= key) {
+                    break;
+                }
+                keys[i] = keys[child];
+                values[i] = values[child];
+                i = child;
+            }
+            keys[i] = key;
+            values[i] = value;
+            return result;
+        }
+
+        /**
+         * Diese Methode gibt die Anzahl der Einträge zurück.
+         *
+         * @return Die Anzahl der Einträge.
+         */
+        int size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,343 @@
+package conformance;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import workflownetLogic.NetGraph;
+
+/**
+ * Diese Klasse überprüft, wie gut ein Ereignislog zu einem Workflownetz passt
+ * (conformance checking). Das Log wird Fall für Fall gelesen, so dass auch
+ * Logs mit Millionen von Fällen nicht vollständig in den Speicher passen
+ * müssen. Jeder Fall wird mit einem TokenReplayer abgespielt.
+ *
+ * Der lesende Thread übersetzt die Aktivitäten in Indizes und fasst die
+ * Fälle zu Paketen von etwa BATCH_EVENTS Ereignissen zusammen, die ein
+ * ForkJoinPool parallel abspielt. Es sind höchstens zwei Pakete je Thread
+ * gleichzeitig unterwegs, so dass der Speicherbedarf unabhängig von der Größe
+ * des Logs bleibt. Die Pakete werden in der Reihenfolge des Logs
+ * zusammengeführt, das Ergebnis hängt daher nicht von der Anzahl der Threads
+ * ab.
+ *
+ * In Logs wiederholen sich die Abfolgen von Aktivitäten (Varianten) sehr
+ * häufig. Die Zähler einer Variante werden daher bis zu MAX_VARIANTS
+ * Varianten gespeichert und für gleiche Fälle wiederverwendet.
+ *
+ * Ereignisse, deren Aktivität zu keiner Transition passt, werden nicht
+ * abgespielt, zählen aber als Abweichung: Ein Fall mit einem solchen
+ * Ereignis gilt nicht als passend und kommt für die Liste der Fälle mit der
+ * geringsten Fitness in Frage. Die Fitness aus den Marken ändert sich
+ * dadurch nicht.
+ *
+ * Wird der lesende Thread unterbrochen, bricht die Überprüfung mit einer
+ * CancellationException ab.
+ */
+public class ConformanceChecker {
+
+    /**
+     * Ungefähre Anzahl an Ereignissen je Paket.
+     */
+    private static final int BATCH_EVENTS = 1 << 14;
+
+    /**
+     * Maximale Anzahl an gespeicherten Varianten.
+     */
+    private static final int MAX_VARIANTS = 1 << 16;
+
+    /**
+     * Anzahl der Fälle mit der geringsten Fitness, die im Ergebnis genannt
+     * werden.
+     */
+    private static final int WORST_CASES = 10;
+
+    /**
+     * Das Objekt, das die einzelnen Fälle abspielt.
+     */
+    private final TokenReplayer replayer;
+
+    /**
+     * Die Zähler der bereits abgespielten Varianten.
+     */
+    private final Map<TraceVariant, int[]> variants = new ConcurrentHashMap<>();
+
+    /**
+     * Anzahl der Threads.
+     */
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Dieser Konstruktor initialisiert die Überprüfung für ein gültiges
+     * Workflownetz. Stammt die Momentaufnahme aus der Benutzeroberfläche,
+     * muss er im JavaFX-Thread aufgerufen werden (siehe TokenReplayer).
+     *
+     * @param graph Die Momentaufnahme des Workflownetzes.
+     * @param startPlace Index der Startstelle.
+     * @param endPlace Index der Endstelle.
+     */
+    public ConformanceChecker(NetGraph graph, int startPlace, int endPlace) {
+        this.replayer = new TokenReplayer(graph, startPlace, endPlace);
+    }
+
+    /**
+     * Diese Methode setzt die Anzahl der Threads.
+     *
+     * @param threads Anzahl der Threads (mindestens 1).
+     * @return Dieses Objekt.
+     */
+    public ConformanceChecker setThreads(int threads) {
+        this.threads = Math.max(1, threads);
+        return this;
+    }
+
+    /**
+     * Diese Methode spielt alle Fälle eines Logs ab. Das Log wird dabei nicht
+     * geschlossen.
+     *
+     * @param reader Das Objekt, aus dem das Log gelesen wird.
+     * @return Das Ergebnis der Überprüfung.
+     * @throws IOException Falls das Log nicht gelesen werden kann.
+     */
+    public ReplayResult replay(EventLogReader reader) throws IOException {
+        Statistics total = new Statistics();
+        Map<String, long[]> unmapped = new HashMap<>();
+        long events = 0;
+        long unmappedEvents = 0;
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        ArrayDeque<ForkJoinTask<Statistics>> pending = new ArrayDeque<>();
+        try {
+            Batch batch = new Batch();
+            while (reader.next()) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new CancellationException();
+                }
+                List<String> activities = reader.getActivities();
+                int[] trace = new int[activities.size()];
+                int length = 0;
+                for (String name : activities) {
+                    int a = replayer.getActivity(name);
+                    if (a >= 0) {
+                        trace[length++] = a;
+                    } else {
+                        unmapped.computeIfAbsent(name, key -> new long[1])[0]++;
+                        unmappedEvents++;
+                    }
+                }
+                events += trace.length;
+                batch.add(reader.getCaseId(),
+                        length == trace.length ? trace : Arrays.copyOf(trace, length),
+                        length < activities.size());
+                if (batch.events >= BATCH_EVENTS) {
+                    pending.add(pool.submit(batch));
+                    batch = new Batch();
+                    if (pending.size() >= 2 * threads) {
+                        total.merge(pending.poll().join());
+                    }
+                }
+            }
+            pending.add(pool.submit(batch));
+            while (!pending.isEmpty()) {
+                total.merge(pending.poll().join());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        List<String> unmappedActivities = new ArrayList<>(unmapped.keySet());
+        unmappedActivities.sort((a, b) -> Long.compare(unmapped.get(b)[0], unmapped.get(a)[0]));
+        return new ReplayResult(total.cases, total.fittingCases, events, unmappedEvents,
+                total.counts, total.fitnessSum, total.getWorstCases(), unmappedActivities);
+    }
+
+    /**
+     * Ein Paket aufeinanderfolgender Fälle, das von einem Thread abgespielt
+     * wird.
+     */
+    private class Batch implements Callable<Statistics> {
+
+        /**
+         * Die ids der Fälle.
+         */
+        private final List<String> caseIds = new ArrayList<>();
+
+        /**
+         * Die Indizes der Aktivitäten je Fall.
+         */
+        private final List<int[]> traces = new ArrayList<>();
+
+        /**
+         * Die Fälle, die Ereignisse ohne passende Transition enthalten.
+         */
+        private final BitSet unmapped = new BitSet();
+
+        /**
+         * Anzahl der Ereignisse im Paket. Jeder Fall zählt mindestens einmal,
+         * damit auch leere Fälle das Paket füllen.
+         */
+        private int events;
+
+        /**
+         * Diese Methode fügt einen Fall hinzu.
+         *
+         * @param caseId Die id des Falls.
+         * @param trace Die Indizes der Aktivitäten.
+         * @param hasUnmapped true, falls der Fall Ereignisse ohne passende
+         * Transition enthielt.
+         */
+        void add(String caseId, int[] trace, boolean hasUnmapped) {
+            if (hasUnmapped) {
+                unmapped.set(caseIds.size());
+            }
+            caseIds.add(caseId);
+            traces.add(trace);
+            events += trace.length + 1;
+        }
+
+        @Override
+        public Statistics call() {
+            Statistics statistics = new Statistics();
+            int[] marking = new int[replayer.getGraph().getPlaceCount()];
+            for (int i = 0; i < traces.size(); i++) {
+                int[] trace = traces.get(i);
+                TraceVariant variant = new TraceVariant(trace);
+                int[] counts = variants.get(variant);
+                if (counts == null) {
+                    counts = new int[4];
+                    replayer.replay(trace, marking, counts);
+                    if (variants.size() < MAX_VARIANTS) {
+                        variants.putIfAbsent(variant, counts);
+                    }
+                }
+                statistics.add(caseIds.get(i), counts, unmapped.get(i));
+            }
+            return statistics;
+        }
+    }
+
+    /**
+     * Die gesammelten Zahlen eines Pakets bzw. aller bisherigen Pakete.
+     */
+    private class Statistics {
+
+        /**
+         * Die erzeugten, verbrauchten, fehlenden und übrigen Marken, indiziert
+         * wie in TokenReplayer.
+         */
+        private final long[] counts = new long[4];
+
+        /**
+         * Anzahl der Fälle.
+         */
+        private long cases;
+
+        /**
+         * Anzahl der Fälle ohne fehlende und übrige Marken und ohne
+         * Ereignisse ohne passende Transition.
+         */
+        private long fittingCases;
+
+        /**
+         * Summe der Fitness aller Fälle.
+         */
+        private double fitnessSum;
+
+        /**
+         * Die Fitness der Fälle mit der geringsten Fitness, aufsteigend.
+         */
+        private final double[] worstFitness = new double[WORST_CASES];
+
+        /**
+         * Die ids der Fälle mit der geringsten Fitness.
+         */
+        private final String[] worstIds = new String[WORST_CASES];
+
+        /**
+         * Anzahl der Einträge in worstFitness und worstIds.
+         */
+        private int worstCount;
+
+        /**
+         * Diese Methode vermerkt einen abgespielten Fall.
+         *
+         * @param caseId Die id des Falls.
+         * @param caseCounts Die Zähler des Falls.
+         * @param hasUnmapped true, falls der Fall Ereignisse ohne passende
+         * Transition enthielt.
+         */
+        void add(String caseId, int[] caseCounts, boolean hasUnmapped) {
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] += caseCounts[i];
+            }
+            int missing = caseCounts[TokenReplayer.MISSING];
+            int remaining = caseCounts[TokenReplayer.REMAINING];
+            double fitness = TokenReplayer.fitness(caseCounts[TokenReplayer.PRODUCED],
+                    caseCounts[TokenReplayer.CONSUMED], missing, remaining);
+            cases++;
+            fitnessSum += fitness;
+            if (missing == 0 && remaining == 0 && !hasUnmapped) {
+                fittingCases++;
+            } else {
+                addWorst(caseId, fitness);
+            }
+        }
+
+        /**
+         * Diese Methode nimmt einen Fall in die Liste der Fälle mit der
+         * geringsten Fitness auf, falls seine Fitness geringer ist als die des
+         * letzten Eintrags. Bei gleicher Fitness bleibt der frühere Fall
+         * vorne.
+         *
+         * @param caseId Die id des Falls.
+         * @param fitness Die Fitness des Falls.
+         */
+        private void addWorst(String caseId, double fitness) {
+            if (worstCount == WORST_CASES && fitness >= worstFitness[WORST_CASES - 1]) {
+                return;
+            }
+            int i = Math.min(worstCount, WORST_CASES - 1);
+            while (i > 0 && worstFitness[i - 1] > fitness) {
+                worstFitness[i] = worstFitness[i - 1];
+                worstIds[i] = worstIds[i - 1];
+                i--;
+            }
+            worstFitness[i] = fitness;
+            worstIds[i] = caseId;
+            worstCount = Math.min(worstCount + 1, WORST_CASES);
+        }
+
+        /**
+         * Diese Methode addiert die Zahlen eines späteren Pakets.
+         *
+         * @param other Die Zahlen des späteren Pakets.
+         */
+        void merge(Statistics other) {
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] += other.counts[i];
+            }
+            cases += other.cases;
+            fittingCases += other.fittingCases;
+            fitnessSum += other.fitnessSum;
+            for (int i = 0; i < other.worstCount; i++) {
+                addWorst(other.worstIds[i], other.worstFitness[i]);
+            }
+        }
+
+        /**
+         * Diese Methode gibt die ids der Fälle mit der geringsten Fitness
+         * zurück.
+         *
+         * @return Die ids, aufsteigend nach Fitness.
+         */
+        List<String> getWorstCases() {
+            return new ArrayList<>(Arrays.asList(worstIds).subList(0, worstCount));
+        }
+    }
+}
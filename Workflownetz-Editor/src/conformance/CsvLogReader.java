@@ -0,0 +1,226 @@
+package conformance;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import resources.MyMessages;
+
+/**
+ * Diese Klasse liest ein Ereignislog im CSV-Format. Die erste Zeile enthält
+ * die Spaltennamen, jede weitere Zeile ein Ereignis. Als Trennzeichen wird
+ * das Zeichen aus ',', ';' und Tabulator gewählt, das in der ersten Zeile am
+ * häufigsten vorkommt. Felder können in doppelte Anführungszeichen gesetzt
+ * werden, Zeilenumbrüche innerhalb eines Feldes werden nicht unterstützt.
+ *
+ * Die Spalten für Fall und Aktivität werden an ihren Namen erkannt (z.B.
+ * "case:concept:name" und "concept:name" oder "case" und "activity"). Wird
+ * keine passende Spalte gefunden, gilt die erste Spalte als Fall und die
+ * zweite als Aktivität.
+ *
+ * Die Ereignisse eines Falls müssen direkt aufeinander folgen, wie es bei
+ * nach Fall und Zeit sortierten Exporten der Fall ist. Nur so kann das Log
+ * gelesen werden, ohne alle offenen Fälle im Speicher zu halten. Taucht ein
+ * Fall später erneut auf, wird er als eigener Fall abgespielt.
+ */
+public class CsvLogReader extends EventLogReader {
+
+    /**
+     * Spaltennamen, an denen die Spalte des Falls erkannt wird.
+     */
+    private static final List<String> CASE_COLUMNS = Arrays.asList(
+            "case:concept:name", "case", "case id", "caseid", "case_id", "fall");
+
+    /**
+     * Spaltennamen, an denen die Spalte der Aktivität erkannt wird.
+     */
+    private static final List<String> ACTIVITY_COLUMNS = Arrays.asList(
+            "concept:name", "activity", "activity name", "event", "aktivität");
+
+    /**
+     * Das Objekt, aus dem die Zeilen gelesen werden.
+     */
+    private final BufferedReader reader;
+
+    /**
+     * Das Trennzeichen der Felder.
+     */
+    private final char separator;
+
+    /**
+     * Index der Spalte des Falls.
+     */
+    private final int caseColumn;
+
+    /**
+     * Index der Spalte der Aktivität.
+     */
+    private final int activityColumn;
+
+    /**
+     * Die Felder der zuletzt gelesenen Zeile.
+     */
+    private final List<String> fields = new ArrayList<>();
+
+    /**
+     * Puffer für ein Feld.
+     */
+    private final StringBuilder field = new StringBuilder();
+
+    /**
+     * Der Fall des bereits gelesenen ersten Ereignisses des nächsten Falls
+     * oder null.
+     */
+    private String pendingCase;
+
+    /**
+     * Die Aktivität des bereits gelesenen ersten Ereignisses des nächsten
+     * Falls.
+     */
+    private String pendingActivity;
+
+    /**
+     * Nummer der zuletzt gelesenen Zeile.
+     */
+    private long lineNumber;
+
+    /**
+     * Dieser Konstruktor liest die Kopfzeile und bestimmt Trennzeichen und
+     * Spalten.
+     *
+     * @param in Das Objekt, aus dem das Log gelesen wird.
+     * @throws IOException Falls das Log nicht gelesen werden kann oder leer
+     * ist.
+     */
+    public CsvLogReader(Reader in) throws IOException {
+        this.reader = in instanceof BufferedReader ? (BufferedReader) in
+                : new BufferedReader(in, 1 << 16);
+        String header = reader.readLine();
+        lineNumber = 1;
+        if (header == null) {
+            throw new IOException(MyMessages.EMPTY_LOG);
+        }
+        if (header.startsWith("\uFEFF")) {
+            header = header.substring(1);
+        }
+        this.separator = detectSeparator(header);
+        split(header);
+        int caseIndex = -1;
+        int activityIndex = -1;
+        for (int i = 0; i < fields.size(); i++) {
+            String name = fields.get(i).trim().toLowerCase(Locale.ROOT);
+            if (caseIndex < 0 && CASE_COLUMNS.contains(name)) {
+                caseIndex = i;
+            } else if (activityIndex < 0 && ACTIVITY_COLUMNS.contains(name)) {
+                activityIndex = i;
+            }
+        }
+        this.caseColumn = caseIndex < 0 ? 0 : caseIndex;
+        this.activityColumn = activityIndex < 0 ? (caseColumn == 1 ? 0 : 1) : activityIndex;
+    }
+
+    @Override
+    public boolean next() throws IOException {
+        activities.clear();
+        if (pendingCase == null && !readEvent()) {
+            return false;
+        }
+        caseId = pendingCase;
+        activities.add(pendingActivity);
+        pendingCase = null;
+        while (readEvent()) {
+            if (!pendingCase.equals(caseId)) {
+                return true;
+            }
+            activities.add(pendingActivity);
+            pendingCase = null;
+        }
+        return true;
+    }
+
+    /**
+     * Diese Methode liest das nächste Ereignis in pendingCase und
+     * pendingActivity. Leere Zeilen werden übersprungen.
+     *
+     * @return true, falls ein Ereignis gelesen wurde, false am Ende des Logs.
+     * @throws IOException Falls eine Zeile zu wenige Felder hat.
+     */
+    private boolean readEvent() throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+            lineNumber++;
+            if (line == null) {
+                pendingCase = null;
+                return false;
+            }
+        } while (line.isEmpty());
+        split(line);
+        if (fields.size() <= Math.max(caseColumn, activityColumn)) {
+            throw new IOException(String.format(MyMessages.INVALID_LOG_LINE, lineNumber));
+        }
+        pendingCase = fields.get(caseColumn);
+        pendingActivity = fields.get(activityColumn).trim();
+        return true;
+    }
+
+    /**
+     * Diese Methode zerlegt eine Zeile in ihre Felder und legt sie in fields
+     * ab.
+     *
+     * @param line Die Zeile.
+     */
+    private void split(String line) {
+        fields.clear();
+        field.setLength(0);
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == separator) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+    }
+
+    /**
+     * Diese Methode bestimmt das Trennzeichen anhand der Kopfzeile.
+     *
+     * @param header Die Kopfzeile.
+     * @return Das häufigste der Zeichen ',', ';' und Tabulator.
+     */
+    private static char detectSeparator(String header) {
+        char best = ',';
+        long bestCount = 0;
+        for (char candidate : new char[] {',', ';', '\t'}) {
+            long count = header.chars().filter(c -> c == candidate).count();
+            if (count > bestCount) {
+                best = candidate;
+                bestCount = count;
+            }
+        }
+        return best;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,87 @@
+package conformance;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Diese Klasse liest ein Ereignislog Fall für Fall, ohne es vollständig in
+ * den Speicher zu laden. Nach jedem erfolgreichen Aufruf von next() enthalten
+ * getCaseId() und getActivities() die Daten des nächsten Falls. Die Liste der
+ * Aktivitäten wird dabei wiederverwendet und darf nur bis zum nächsten
+ * Aufruf von next() gelesen werden.
+ */
+public abstract class EventLogReader implements Closeable {
+
+    /**
+     * Die id des aktuellen Falls.
+     */
+    protected String caseId;
+
+    /**
+     * Die Namen der Aktivitäten des aktuellen Falls in ihrer Reihenfolge.
+     */
+    protected final List<String> activities = new ArrayList<>();
+
+    /**
+     * Diese Methode liest den nächsten Fall.
+     *
+     * @return true, falls ein Fall gelesen wurde, false am Ende des Logs.
+     * @throws IOException Falls das Log nicht gelesen werden kann.
+     */
+    public abstract boolean next() throws IOException;
+
+    /**
+     * Diese Methode gibt das Attribut caseId zurück.
+     *
+     * @return Das Attribut caseId.
+     */
+    public String getCaseId() {
+        return caseId;
+    }
+
+    /**
+     * Diese Methode gibt das Attribut activities zurück.
+     *
+     * @return Das Attribut activities.
+     */
+    public List<String> getActivities() {
+        return activities;
+    }
+
+    /**
+     * Diese Methode öffnet ein Ereignislog. Dateien mit der Endung .xes werden
+     * als XES gelesen, alle übrigen als CSV. Mit gzip komprimierte Dateien
+     * (Endung .gz) werden beim Lesen entpackt.
+     *
+     * @param file Die Datei des Logs.
+     * @return Das Objekt zum Lesen des Logs.
+     * @throws IOException Falls die Datei nicht geöffnet werden kann.
+     */
+    public static EventLogReader open(File file) throws IOException {
+        String name = file.getName().toLowerCase(Locale.ROOT);
+        InputStream in = new BufferedInputStream(new FileInputStream(file), 1 << 16);
+        try {
+            if (name.endsWith(".gz")) {
+                in = new GZIPInputStream(in, 1 << 16);
+                name = name.substring(0, name.length() - 3);
+            }
+            if (name.endsWith(".xes")) {
+                return new XesLogReader(in);
+            }
+            return new CsvLogReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        } catch (IOException | RuntimeException e) {
+            in.close();
+            throw e;
+        }
+    }
+}
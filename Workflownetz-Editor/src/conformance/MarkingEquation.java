@@ -0,0 +1,374 @@
+package conformance;
+
+import java.util.Arrays;
+import stateSpace.MarkingEncoding;
+import workflownetLogic.NetGraph;
+
+/**
+ * Diese Klasse schätzt die Kosten, die von einem Zustand des synchronen
+ * Produkts aus Fall und Netz mindestens noch anfallen, mit der
+ * Markierungsgleichung ab. Gesucht wird die billigste Lösung von
+ *
+ * m + C (x + y) = m_f und y_a + z_a = #a für jede Aktivität a,
+ *
+ * wobei x die Schaltvorgänge nur im Modell (Kosten 1, bei stillen
+ * Transitionen 0), y die synchronen
+ * Schaltvorgänge (Kosten 0) und z die Ereignisse nur im Log (Kosten 1)
+ * zählt, C die Inzidenzmatrix des Netzes, m_f die Endmarkierung und #a die
+ * Anzahl der verbleibenden Ereignisse mit Aktivität a ist. Jede Fortsetzung
+ * zu einem Alignment erfüllt diese Gleichungen, der Wert der relaxierten
+ * Lösung (reelle statt ganzzahliger Variablen) ist daher eine untere
+ * Schranke. Ist das System nicht lösbar, kann der Zustand die Endmarkierung
+ * nicht mehr erreichen.
+ *
+ * Das lineare Programm wird mit einem dichten Zwei-Phasen-Simplex und der
+ * Regel von Bland gelöst. Es enthält nur die Aktivitäten des jeweiligen
+ * Falls und bleibt damit klein.
+ *
+ * Die Variablen sind so nummeriert: zuerst x je Transition (0 bis
+ * transitionCount-1), dann y je Paar aus Aktivität und passender Transition,
+ * zuletzt z je Aktivität.
+ */
+public class MarkingEquation {
+
+    /**
+     * Toleranz für Vergleiche mit 0.
+     */
+    private static final double EPSILON = 1e-9;
+
+    /**
+     * Anzahl der Stellen.
+     */
+    private final int placeCount;
+
+    /**
+     * Anzahl der Transitionen.
+     */
+    private final int transitionCount;
+
+    /**
+     * Anzahl der Aktivitäten des Falls.
+     */
+    private final int activityCount;
+
+    /**
+     * Anzahl der Variablen.
+     */
+    private final int variableCount;
+
+    /**
+     * Information darüber, ob eine Transition still ist und im Modell
+     * kostenlos schaltet.
+     */
+    private final boolean[] silent;
+
+    /**
+     * Die Endmarkierung (Länge placeCount).
+     */
+    private final int[] finalMarking;
+
+    /**
+     * Die Koeffizienten der Zeilen zu den Stellen, je Variable.
+     */
+    private final int[][] placeRows;
+
+    /**
+     * Die Aktivität jeder y-Variable.
+     */
+    private final int[] pairActivity;
+
+    /**
+     * pairStart[a] bis pairStart[a+1]-1 sind die Indizes der y-Variablen von
+     * Aktivität a, gezählt ab der ersten y-Variable.
+     */
+    private final int[] pairStart;
+
+    /**
+     * Die Transition jeder y-Variable.
+     */
+    private final int[] pairTransition;
+
+    /**
+     * Dieser Konstruktor stellt die Gleichungen für einen Fall auf.
+     *
+     * @param encoding Die Kodierung der Markierungen des Netzes.
+     * @param endPlace Index der Endstelle.
+     * @param transitions Für jede Aktivität des Falls die passenden
+     * Transitionen (0 bis transitionCount-1).
+     * @param silent Die stillen Transitionen (0 bis transitionCount-1).
+     */
+    public MarkingEquation(MarkingEncoding encoding, int endPlace, int[][] transitions,
+            int[] silent) {
+        NetGraph graph = encoding.getGraph();
+        this.placeCount = graph.getPlaceCount();
+        this.transitionCount = graph.getTransitionCount();
+        this.activityCount = transitions.length;
+        this.pairStart = new int[activityCount + 1];
+        for (int a = 0; a < activityCount; a++) {
+            pairStart[a + 1] = pairStart[a] + transitions[a].length;
+        }
+        int pairCount = pairStart[activityCount];
+        this.pairActivity = new int[pairCount];
+        this.pairTransition = new int[pairCount];
+        for (int a = 0; a < activityCount; a++) {
+            for (int j = 0; j < transitions[a].length; j++) {
+                pairActivity[pairStart[a] + j] = a;
+                pairTransition[pairStart[a] + j] = transitions[a][j];
+            }
+        }
+        this.variableCount = transitionCount + pairCount + activityCount;
+        this.silent = new boolean[transitionCount];
+        for (int t : silent) {
+            this.silent[t] = true;
+        }
+        this.finalMarking = new int[placeCount];
+        finalMarking[endPlace] = 1;
+        // Die Inzidenzmatrix wird einmal aufgebaut und für x und y verwendet.
+        int[][] incidence = new int[placeCount][transitionCount];
+        int[] preStart = graph.getPreStart();
+        int[] pre = graph.getPre();
+        int[] postStart = graph.getPostStart();
+        int[] post = graph.getPost();
+        for (int t = 0; t < transitionCount; t++) {
+            int v = placeCount + t;
+            for (int k = preStart[v]; k < preStart[v + 1]; k++) {
+                incidence[pre[k]][t]--;
+            }
+            for (int k = postStart[v]; k < postStart[v + 1]; k++) {
+                incidence[post[k]][t]++;
+            }
+        }
+        this.placeRows = new int[placeCount][variableCount];
+        for (int p = 0; p < placeCount; p++) {
+            System.arraycopy(incidence[p], 0, placeRows[p], 0, transitionCount);
+            for (int k = 0; k < pairCount; k++) {
+                placeRows[p][transitionCount + k] = incidence[p][pairTransition[k]];
+            }
+        }
+    }
+
+    /**
+     * Diese Methode gibt den Index der x-Variable einer Transition zurück.
+     *
+     * @param t Nummer der Transition.
+     * @return Der Index der Variable.
+     */
+    public int modelVariable(int t) {
+        return t;
+    }
+
+    /**
+     * Diese Methode gibt den Index der y-Variable eines synchronen
+     * Schaltvorgangs zurück.
+     *
+     * @param activity Index der Aktivität im Fall.
+     * @param t Nummer der Transition.
+     * @return Der Index der Variable oder -1, falls die Transition nicht zur
+     * Aktivität passt.
+     */
+    public int syncVariable(int activity, int t) {
+        for (int k = pairStart[activity]; k < pairStart[activity + 1]; k++) {
+            if (pairTransition[k] == t) {
+                return transitionCount + k;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Diese Methode gibt den Index der z-Variable einer Aktivität zurück.
+     *
+     * @param activity Index der Aktivität im Fall.
+     * @return Der Index der Variable.
+     */
+    public int logVariable(int activity) {
+        return transitionCount + pairActivity.length + activity;
+    }
+
+    /**
+     * Diese Methode gibt die Anzahl der Variablen zurück.
+     *
+     * @return Die Anzahl der Variablen.
+     */
+    public int getVariableCount() {
+        return variableCount;
+    }
+
+    /**
+     * Diese Methode löst das lineare Programm für einen Zustand.
+     *
+     * @param marking Das Array, das die Markierung enthält.
+     * @param offset Die Position der Markierung im Array.
+     * @param counts Die Anzahl der verbleibenden Ereignisse je Aktivität.
+     * @param solution Ein Array der Länge getVariableCount() für die Lösung.
+     * @return Die aufgerundeten minimalen Kosten oder -1, falls das System
+     * nicht lösbar ist.
+     */
+    public int solve(long[] marking, int offset, int[] counts, double[] solution) {
+        int rows = placeCount + activityCount;
+        int columns = variableCount + rows;
+        int rhs = columns;
+        double[][] tableau = new double[rows + 1][columns + 1];
+        int[] basis = new int[rows];
+        for (int p = 0; p < placeCount; p++) {
+            int current = MarkingEncoding.isMarked(marking, offset, p) ? 1 : 0;
+            double b = finalMarking[p] - current;
+            double sign = b < 0 ? -1 : 1;
+            for (int j = 0; j < variableCount; j++) {
+                tableau[p][j] = sign * placeRows[p][j];
+            }
+            tableau[p][rhs] = sign * b;
+        }
+        for (int a = 0; a < activityCount; a++) {
+            int r = placeCount + a;
+            for (int k = pairStart[a]; k < pairStart[a + 1]; k++) {
+                tableau[r][transitionCount + k] = 1;
+            }
+            tableau[r][logVariable(a)] = 1;
+            tableau[r][rhs] = counts[a];
+        }
+        // Phase 1: Summe der künstlichen Variablen minimieren.
+        double[] objective = tableau[rows];
+        for (int r = 0; r < rows; r++) {
+            tableau[r][variableCount + r] = 1;
+            basis[r] = variableCount + r;
+            for (int j = 0; j < variableCount; j++) {
+                objective[j] -= tableau[r][j];
+            }
+            objective[rhs] -= tableau[r][rhs];
+        }
+        if (!optimize(tableau, basis, columns)) {
+            return -1;
+        }
+        if (-objective[rhs] > 1e-7) {
+            return -1;
+        }
+        // Künstliche Variablen verlassen, soweit möglich, die Basis.
+        for (int r = 0; r < rows; r++) {
+            if (basis[r] >= variableCount) {
+                for (int j = 0; j < variableCount; j++) {
+                    if (Math.abs(tableau[r][j]) > EPSILON) {
+                        pivot(tableau, basis, r, j);
+                        break;
+                    }
+                }
+            }
+        }
+        // Phase 2: die eigentlichen Kosten minimieren.
+        Arrays.fill(objective, 0);
+        for (int j = 0; j < variableCount; j++) {
+            objective[j] = cost(j);
+        }
+        for (int r = 0; r < rows; r++) {
+            double c = basis[r] < variableCount ? cost(basis[r]) : 0;
+            if (c != 0) {
+                for (int j = 0; j <= rhs; j++) {
+                    objective[j] -= c * tableau[r][j];
+                }
+            }
+        }
+        if (!optimize(tableau, basis, variableCount)) {
+            return -1;
+        }
+        Arrays.fill(solution, 0);
+        for (int r = 0; r < rows; r++) {
+            if (basis[r] < variableCount) {
+                solution[basis[r]] = tableau[r][rhs];
+            }
+        }
+        return (int) Math.ceil(-objective[rhs] - 1e-6);
+    }
+
+    /**
+     * Diese Methode gibt die Kosten einer Variable zurück.
+     *
+     * @param j Der Index der Variable.
+     * @return 0 für synchrone Schaltvorgänge und stille Transitionen, sonst
+     * 1.
+     */
+    private double cost(int j) {
+        if (j < transitionCount) {
+            return silent[j] ? 0 : 1;
+        }
+        return j < transitionCount + pairActivity.length ? 0 : 1;
+    }
+
+    /**
+     * Diese Methode führt Simplex-Schritte nach der Regel von Bland aus, bis
+     * keine Spalte mit negativen reduzierten Kosten mehr existiert.
+     *
+     * @param tableau Das Tableau, die letzte Zeile enthält die Zielfunktion.
+     * @param basis Die Basisvariable jeder Zeile.
+     * @param enteringLimit Nur Spalten unterhalb dieses Index dürfen in die
+     * Basis aufgenommen werden.
+     * @return false, falls das Programm unbeschränkt ist.
+     */
+    private boolean optimize(double[][] tableau, int[] basis, int enteringLimit) {
+        int rows = basis.length;
+        int rhs = tableau[0].length - 1;
+        double[] objective = tableau[rows];
+        while (true) {
+            int entering = -1;
+            for (int j = 0; j < enteringLimit; j++) {
+                if (objective[j] < -EPSILON) {
+                    entering = j;
+                    break;
+                }
+            }
+            if (entering < 0) {
+                return true;
+            }
+            int leaving = -1;
+            double best = Double.POSITIVE_INFINITY;
+            for (int r = 0; r < rows; r++) {
+                double a = tableau[r][entering];
+                if (a > EPSILON) {
+                    double ratio = tableau[r][rhs] / a;
+                    if (ratio < best - EPSILON
+                            || (ratio < best + EPSILON && basis[r] < basis[leaving])) {
+                        best = ratio;
+                        leaving = r;
+                    }
+                }
+            }
+            if (leaving < 0) {
+                return false;
+            }
+            pivot(tableau, basis, leaving, entering);
+        }
+    }
+
+    /**
+     * Diese Methode nimmt eine Spalte in die Basis auf.
+     *
+     * @param tableau Das Tableau.
+     * @param basis Die Basisvariable jeder Zeile.
+     * @param row Die Zeile der Variable, die die Basis verlässt.
+     * @param column Die Spalte der Variable, die aufgenommen wird.
+     */
+    private static void pivot(double[][] tableau, int[] basis, int row, int column) {
+        double[] pivotRow = tableau[row];
+        double factor = pivotRow[column];
+        // Das Tableau ist dünn besetzt, daher werden nur die Spalten
+        // aktualisiert, die in der Pivotzeile ungleich 0 sind.
+        int[] nonZero = new int[pivotRow.length];
+        int count = 0;
+        for (int j = 0; j < pivotRow.length; j++) {
+            if (pivotRow[j] != 0) {
+                pivotRow[j] /= factor;
+                nonZero[count++] = j;
+            }
+        }
+        for (int r = 0; r < tableau.length; r++) {
+            double a = tableau[r][column];
+            if (r != row && a != 0) {
+                double[] target = tableau[r];
+                for (int i = 0; i < count; i++) {
+                    int j = nonZero[i];
+                    target[j] -= a * pivotRow[j];
+                }
+            }
+        }
+        basis[row] = column;
+    }
+}
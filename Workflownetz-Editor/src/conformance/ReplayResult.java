@@ -0,0 +1,234 @@
+package conformance;
+
+import java.util.Collections;
+import java.util.List;
+import resources.MyMessages;
+import workflownetLogic.WorkflownetValidator;
+
+/**
+ * Diese Klasse hält das Ergebnis des Abspielens eines Ereignislogs mit dem
+ * ConformanceChecker fest: die Anzahl der erzeugten, verbrauchten, fehlenden
+ * und übrigen Marken über alle Fälle, daraus die Fitness des Logs, sowie die
+ * Fälle mit der geringsten Fitness und die Aktivitäten ohne passende
+ * Transition.
+ */
+public class ReplayResult {
+
+    /**
+     * Anzahl der Fälle.
+     */
+    private final long cases;
+
+    /**
+     * Anzahl der Fälle ohne fehlende und übrige Marken und ohne Ereignisse
+     * ohne passende Transition.
+     */
+    private final long fittingCases;
+
+    /**
+     * Anzahl der Ereignisse.
+     */
+    private final long events;
+
+    /**
+     * Anzahl der Ereignisse, zu deren Aktivität keine Transition gehört.
+     */
+    private final long unmappedEvents;
+
+    /**
+     * Anzahl der erzeugten Marken über alle Fälle.
+     */
+    private final long produced;
+
+    /**
+     * Anzahl der verbrauchten Marken über alle Fälle.
+     */
+    private final long consumed;
+
+    /**
+     * Anzahl der fehlenden Marken über alle Fälle.
+     */
+    private final long missing;
+
+    /**
+     * Anzahl der übrigen Marken über alle Fälle.
+     */
+    private final long remaining;
+
+    /**
+     * Summe der Fitness aller Fälle.
+     */
+    private final double fitnessSum;
+
+    /**
+     * Die ids der Fälle mit der geringsten Fitness, aufsteigend nach Fitness.
+     */
+    private final List<String> worstCases;
+
+    /**
+     * Die Namen der Aktivitäten ohne passende Transition, absteigend nach
+     * Häufigkeit.
+     */
+    private final List<String> unmappedActivities;
+
+    /**
+     * Dieser Konstruktor initialisiert alle Attribute.
+     *
+     * @param cases Anzahl der Fälle.
+     * @param fittingCases Anzahl der passenden Fälle.
+     * @param events Anzahl der Ereignisse.
+     * @param unmappedEvents Anzahl der Ereignisse ohne Transition.
+     * @param counts Die erzeugten, verbrauchten, fehlenden und übrigen Marken,
+     * indiziert wie in TokenReplayer.
+     * @param fitnessSum Summe der Fitness aller Fälle.
+     * @param worstCases Die ids der Fälle mit der geringsten Fitness.
+     * @param unmappedActivities Die Namen der Aktivitäten ohne Transition.
+     */
+    public ReplayResult(long cases, long fittingCases, long events, long unmappedEvents,
+            long[] counts, double fitnessSum, List<String> worstCases,
+            List<String> unmappedActivities) {
+        this.cases = cases;
+        this.fittingCases = fittingCases;
+        this.events = events;
+        this.unmappedEvents = unmappedEvents;
+        this.produced = counts[TokenReplayer.PRODUCED];
+        this.consumed = counts[TokenReplayer.CONSUMED];
+        this.missing = counts[TokenReplayer.MISSING];
+        this.remaining = counts[TokenReplayer.REMAINING];
+        this.fitnessSum = fitnessSum;
+        this.worstCases = Collections.unmodifiableList(worstCases);
+        this.unmappedActivities = Collections.unmodifiableList(unmappedActivities);
+    }
+
+    /**
+     * Diese Methode berechnet die Fitness des gesamten Logs aus den Marken
+     * aller Fälle.
+     *
+     * @return Die Fitness zwischen 0 und 1.
+     */
+    public double getFitness() {
+        return TokenReplayer.fitness(produced, consumed, missing, remaining);
+    }
+
+    /**
+     * Diese Methode berechnet den Durchschnitt der Fitness aller Fälle.
+     *
+     * @return Die durchschnittliche Fitness oder 1, falls das Log leer ist.
+     */
+    public double getAverageFitness() {
+        return cases == 0 ? 1 : fitnessSum / cases;
+    }
+
+    /**
+     * Diese Methode gibt das Attribut cases zurück.
+     *
+     * @return Das Attribut cases.
+     */
+    public long getCases() {
+        return cases;
+    }
+
+    /**
+     * Diese Methode gibt das Attribut fittingCases zurück.
+     *
+     * @return Das Attribut fittingCases.
+     */
+    public long getFittingCases() {
+        return fittingCases;
+    }
+
+    /**
+     * Diese Methode gibt das Attribut events zurück.
+     *
+     * @return Das Attribut events.
+     */
+    public long getEvents() {
+        return events;
+    }
+
+    /**
+     * Diese Methode gibt das Attribut unmappedEvents zurück.
+     *
+     * @return Das Attribut unmappedEvents.
+     */
+    public long getUnmappedEvents() {
+        return unmappedEvents;
+    }
+
+    /**
+     * Diese Methode gibt das Attribut produced zurück.
+     *
+     * @return Das Attribut produced.
+     */
+    public long getProduced() {
+        return produced;
+    }
+
+    /**
+     * Diese Methode gibt das Attribut consumed zurück.
+     *
+     * @return Das Attribut consumed.
+     */
+    public long getConsumed() {
+        return consumed;
+    }
+
+    /**
+     * Diese Methode gibt das Attribut missing zurück.
+     *
+     * @return Das Attribut missing.
+     */
+    public long getMissing() {
+        return missing;
+    }
+
+    /**
+     * Diese Methode gibt das Attribut remaining zurück.
+     *
+     * @return Das Attribut remaining.
+     */
+    public long getRemaining() {
+        return remaining;
+    }
+
+    /**
+     * Diese Methode gibt das Attribut worstCases zurück.
+     *
+     * @return Das Attribut worstCases.
+     */
+    public List<String> getWorstCases() {
+        return worstCases;
+    }
+
+    /**
+     * Diese Methode gibt das Attribut unmappedActivities zurück.
+     *
+     * @return Das Attribut unmappedActivities.
+     */
+    public List<String> getUnmappedActivities() {
+        return unmappedActivities;
+    }
+
+    /**
+     * Diese Methode erzeugt eine Meldung für den Benutzer. Sie nennt die
+     * Fitness, die Fälle mit der geringsten Fitness und die Aktivitäten ohne
+     * passende Transition.
+     *
+     * @return Die Meldung.
+     */
+    public String getMessage() {
+        StringBuilder builder = new StringBuilder(String.format(MyMessages.REPLAY_RESULT,
+                getFitness(), fittingCases, cases, getAverageFitness(), events, missing,
+                remaining));
+        if (fittingCases < cases) {
+            builder.append('\n').append(WorkflownetValidator.describe(
+                    MyMessages.REPLAY_WORST_CASES, worstCases));
+        }
+        if (unmappedEvents > 0) {
+            builder.append('\n').append(WorkflownetValidator.describe(
+                    String.format(MyMessages.REPLAY_UNMAPPED, unmappedEvents),
+                    unmappedActivities));
+        }
+        return builder.toString();
+    }
+}
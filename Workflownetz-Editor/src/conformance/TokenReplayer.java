@@ -0,0 +1,448 @@
+package conformance;
+
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import petriNodes.PetriNode;
+import stateSpace.IntArrayList;
+import workflownetLogic.NetGraph;
+
+/**
+ * Diese Klasse spielt einzelne Fälle eines Ereignislogs auf einem
+ * Workflownetz ab (token-based replay). Jede Aktivität wird über ihren Namen
+ * der Transition mit gleicher Beschriftung zugeordnet. Tragen mehrere
+ * Transitionen dieselbe Beschriftung, wird die erste schaltbare gewählt.
+ * Transitionen mit leerer Beschriftung sind still (z.B. in einem
+ * DiscoveredNet), sie gehören zu keiner Aktivität. Enthält die Momentaufnahme
+ * keine PetriNode-Objekte, dient die id als Beschriftung.
+ *
+ * Der Fall beginnt mit einer Marke auf der Startstelle. Ist die Transition
+ * einer Aktivität nicht schaltbar, wird zunächst die kürzeste Folge stiller
+ * Transitionen gesucht, nach der sie es ist, und geschaltet. Erst wenn es
+ * keine gibt, wird jede fehlende Marke im Vorbereich als fehlend (missing)
+ * gezählt und ergänzt, so dass das Abspielen nie stecken bleibt. Am Ende
+ * wird ebenso versucht, mit stillen Transitionen die Endmarkierung zu
+ * erreichen. Danach wird die Marke der Endstelle verbraucht, alle übrigen
+ * Marken gelten als übrig (remaining). Die Markierung liegt dabei in einem
+ * einfachen int-Array je Thread.
+ *
+ * Die Objekte dieser Klasse sind nach dem Erzeugen unveränderlich und können
+ * von mehreren Threads gleichzeitig verwendet werden.
+ */
+public class TokenReplayer {
+
+    /**
+     * Index der erzeugten Marken in den Zählern eines Falls.
+     */
+    public static final int PRODUCED = 0;
+
+    /**
+     * Index der verbrauchten Marken in den Zählern eines Falls.
+     */
+    public static final int CONSUMED = 1;
+
+    /**
+     * Index der fehlenden Marken in den Zählern eines Falls.
+     */
+    public static final int MISSING = 2;
+
+    /**
+     * Index der übrigen Marken in den Zählern eines Falls.
+     */
+    public static final int REMAINING = 3;
+
+    /**
+     * Maximale Anzahl an Markierungen, die bei der Suche nach einer Folge
+     * stiller Transitionen betrachtet werden.
+     */
+    private static final int MAX_SILENT_MARKINGS = 1000;
+
+    /**
+     * Die Momentaufnahme des Workflownetzes.
+     */
+    private final NetGraph graph;
+
+    /**
+     * Index der Startstelle.
+     */
+    private final int startPlace;
+
+    /**
+     * Index der Endstelle.
+     */
+    private final int endPlace;
+
+    /**
+     * Zuordnung der Aktivitätsnamen zu ihrem Index in candidates.
+     */
+    private final Map<String, Integer> activityIndex = new HashMap<>();
+
+    /**
+     * Die Namen der Aktivitäten, nach Index geordnet.
+     */
+    private final List<String> activityNames = new ArrayList<>();
+
+    /**
+     * Die Transitionen, die zu einer Aktivität passen.
+     */
+    private final int[][] candidates;
+
+    /**
+     * Die stillen Transitionen.
+     */
+    private final int[] silent;
+
+    /**
+     * Dieser Konstruktor ordnet die Beschriftungen der Transitionen den
+     * Aktivitäten zu. Stammt die Momentaufnahme aus der Benutzeroberfläche,
+     * muss er im JavaFX-Thread aufgerufen werden.
+     *
+     * @param graph Die Momentaufnahme des Workflownetzes.
+     * @param startPlace Index der Startstelle.
+     * @param endPlace Index der Endstelle.
+     */
+    public TokenReplayer(NetGraph graph, int startPlace, int endPlace) {
+        this(graph, startPlace, endPlace, labelsOf(graph));
+    }
+
+    /**
+     * Dieser Konstruktor ordnet die übergebenen Beschriftungen den
+     * Aktivitäten zu.
+     *
+     * @param graph Die Momentaufnahme des Workflownetzes.
+     * @param startPlace Index der Startstelle.
+     * @param endPlace Index der Endstelle.
+     * @param labels Die Beschriftung jeder Transition, nach Nummer geordnet.
+     * Eine leere Beschriftung kennzeichnet eine stille Transition.
+     */
+    TokenReplayer(NetGraph graph, int startPlace, int endPlace, String[] labels) {
+        this.graph = graph;
+        this.startPlace = startPlace;
+        this.endPlace = endPlace;
+        List<List<Integer>> lists = new ArrayList<>();
+        IntArrayList silentList = new IntArrayList(4);
+        for (int t = graph.getPlaceCount(); t < graph.getNodeCount(); t++) {
+            String label = labels[t - graph.getPlaceCount()];
+            if (label == null || label.trim().isEmpty()) {
+                silentList.add(t);
+            } else {
+                addName(label.trim(), t, lists);
+            }
+        }
+        this.silent = silentList.toArray();
+        this.candidates = new int[lists.size()][];
+        for (int a = 0; a < candidates.length; a++) {
+            candidates[a] = lists.get(a).stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
+
+    /**
+     * Diese Methode bestimmt die Beschriftungen der Transitionen einer
+     * Momentaufnahme. Ohne PetriNode-Objekt dient die id als Beschriftung.
+     *
+     * @param graph Die Momentaufnahme.
+     * @return Die Beschriftungen, nach Nummer der Transition geordnet.
+     */
+    private static String[] labelsOf(NetGraph graph) {
+        String[] labels = new String[graph.getTransitionCount()];
+        for (int i = 0; i < labels.length; i++) {
+            int t = graph.getPlaceCount() + i;
+            PetriNode node = graph.getPetriNode(t);
+            if (node == null) {
+                labels[i] = graph.getId(t);
+            } else if (node.getLabel() != null) {
+                labels[i] = node.getLabel().getText();
+            }
+        }
+        return labels;
+    }
+
+    /**
+     * Diese Methode ordnet einen Namen einer Transition zu.
+     *
+     * @param name Der Name.
+     * @param t Index der Transition.
+     * @param lists Die Transitionen je Aktivität.
+     */
+    private void addName(String name, int t, List<List<Integer>> lists) {
+        Integer a = activityIndex.get(name);
+        if (a == null) {
+            a = lists.size();
+            activityIndex.put(name, a);
+            activityNames.add(name);
+            lists.add(new ArrayList<>());
+        }
+        if (!lists.get(a).contains(t)) {
+            lists.get(a).add(t);
+        }
+    }
+
+    /**
+     * Diese Methode gibt den Index einer Aktivität zurück.
+     *
+     * @param name Der Name der Aktivität im Log.
+     * @return Der Index oder -1, falls keine Transition so heißt.
+     */
+    public int getActivity(String name) {
+        Integer a = activityIndex.get(name);
+        return a == null ? -1 : a;
+    }
+
+    /**
+     * Diese Methode gibt die Anzahl der Aktivitäten zurück, zu denen eine
+     * Transition gehört.
+     *
+     * @return Die Anzahl der Aktivitäten.
+     */
+    public int getActivityCount() {
+        return candidates.length;
+    }
+
+    /**
+     * Diese Methode gibt den Namen einer Aktivität zurück.
+     *
+     * @param activity Der Index der Aktivität.
+     * @return Der Name.
+     */
+    public String getActivityName(int activity) {
+        return activityNames.get(activity);
+    }
+
+    /**
+     * Diese Methode gibt die Transitionen zurück, die zu einer Aktivität
+     * passen. Das Array darf nicht verändert werden.
+     *
+     * @param activity Der Index der Aktivität.
+     * @return Die Indizes der Transitionen im NetGraph.
+     */
+    int[] getTransitions(int activity) {
+        return candidates[activity];
+    }
+
+    /**
+     * Diese Methode gibt die stillen Transitionen zurück. Das Array darf
+     * nicht verändert werden.
+     *
+     * @return Die Indizes der Transitionen im NetGraph.
+     */
+    int[] getSilentTransitions() {
+        return silent;
+    }
+
+    /**
+     * Diese Methode spielt einen Fall ab.
+     *
+     * @param trace Die Indizes der Aktivitäten des Falls.
+     * @param marking Ein Array der Länge getPlaceCount(), das als Markierung
+     * verwendet wird. Sein Inhalt wird überschrieben.
+     * @param counts Ein Array der Länge 4, in das die erzeugten, verbrauchten,
+     * fehlenden und übrigen Marken geschrieben werden.
+     */
+    public void replay(int[] trace, int[] marking, int[] counts) {
+        Arrays.fill(marking, 0);
+        Arrays.fill(counts, 0);
+        marking[startPlace] = 1;
+        counts[PRODUCED] = 1;
+        for (int a : trace) {
+            int t = choose(candidates[a], marking);
+            if (t < 0) {
+                fireSilent(findSilentPath(marking, candidates[a]), marking, counts);
+                t = choose(candidates[a], marking);
+            }
+            fire(t < 0 ? candidates[a][0] : t, marking, counts);
+        }
+        if (!isFinal(marking)) {
+            fireSilent(findSilentPath(marking, null), marking, counts);
+        }
+        if (marking[endPlace] == 0) {
+            counts[MISSING]++;
+        } else {
+            marking[endPlace]--;
+        }
+        counts[CONSUMED]++;
+        int remaining = 0;
+        for (int tokens : marking) {
+            remaining += tokens;
+        }
+        counts[REMAINING] = remaining;
+    }
+
+    /**
+     * Diese Methode schaltet eine Transition und zählt die erzeugten,
+     * verbrauchten und fehlenden Marken.
+     *
+     * @param t Index der Transition.
+     * @param marking Die Markierung.
+     * @param counts Die Zähler des Falls.
+     */
+    private void fire(int t, int[] marking, int[] counts) {
+        int[] preStart = graph.getPreStart();
+        int[] pre = graph.getPre();
+        int[] postStart = graph.getPostStart();
+        int[] post = graph.getPost();
+        for (int k = preStart[t]; k < preStart[t + 1]; k++) {
+            int p = pre[k];
+            if (marking[p] == 0) {
+                counts[MISSING]++;
+            } else {
+                marking[p]--;
+            }
+            counts[CONSUMED]++;
+        }
+        for (int k = postStart[t]; k < postStart[t + 1]; k++) {
+            marking[post[k]]++;
+            counts[PRODUCED]++;
+        }
+    }
+
+    /**
+     * Diese Methode schaltet eine Folge stiller Transitionen.
+     *
+     * @param path Die Folge oder null, falls keine gefunden wurde.
+     * @param marking Die Markierung.
+     * @param counts Die Zähler des Falls.
+     */
+    private void fireSilent(int[] path, int[] marking, int[] counts) {
+        if (path != null) {
+            for (int t : path) {
+                fire(t, marking, counts);
+            }
+        }
+    }
+
+    /**
+     * Diese Methode überprüft, ob eine Transition ohne fehlende Marken
+     * schalten kann.
+     *
+     * @param t Index der Transition.
+     * @param marking Die Markierung.
+     * @return true, falls alle Stellen im Vorbereich markiert sind.
+     */
+    private boolean isEnabled(int t, int[] marking) {
+        int[] preStart = graph.getPreStart();
+        int[] pre = graph.getPre();
+        for (int k = preStart[t]; k < preStart[t + 1]; k++) {
+            if (marking[pre[k]] == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Diese Methode überprüft, ob nur die Endstelle mit genau einer Marke
+     * markiert ist.
+     *
+     * @param marking Die Markierung.
+     * @return true, falls die Endmarkierung erreicht ist.
+     */
+    private boolean isFinal(int[] marking) {
+        for (int p = 0; p < marking.length; p++) {
+            if (marking[p] != (p == endPlace ? 1 : 0)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Diese Methode wählt unter gleich benannten Transitionen die erste
+     * schaltbare.
+     *
+     * @param transitions Die Transitionen der Aktivität.
+     * @param marking Die aktuelle Markierung.
+     * @return Index der gewählten Transition oder -1, falls keine schaltbar
+     * ist.
+     */
+    private int choose(int[] transitions, int[] marking) {
+        for (int t : transitions) {
+            if (isEnabled(t, marking)) {
+                return t;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Diese Methode sucht mit einer Breitensuche die kürzeste Folge stiller
+     * Transitionen, nach der eine der übergebenen Transitionen schaltbar bzw.
+     * die Endmarkierung erreicht ist. Die Suche betrachtet höchstens
+     * MAX_SILENT_MARKINGS Markierungen.
+     *
+     * @param marking Die aktuelle Markierung. Sie wird nicht verändert.
+     * @param targets Die Transitionen der nächsten Aktivität oder null, falls
+     * die Endmarkierung gesucht wird.
+     * @return Die Folge oder null, falls keine gefunden wurde.
+     */
+    private int[] findSilentPath(int[] marking, int[] targets) {
+        if (silent.length == 0) {
+            return null;
+        }
+        List<int[]> markings = new ArrayList<>();
+        IntArrayList parents = new IntArrayList(16);
+        IntArrayList fired = new IntArrayList(16);
+        // IntBuffer vergleicht den Inhalt des Arrays.
+        Set<IntBuffer> visited = new HashSet<>();
+        markings.add(marking.clone());
+        parents.add(-1);
+        fired.add(-1);
+        visited.add(IntBuffer.wrap(markings.get(0)));
+        for (int i = 0; i < markings.size(); i++) {
+            int[] current = markings.get(i);
+            if (i > 0 && (targets == null ? isFinal(current) : choose(targets, current) >= 0)) {
+                IntArrayList path = new IntArrayList(4);
+                for (int j = i; j > 0; j = parents.get(j)) {
+                    path.add(fired.get(j));
+                }
+                int[] result = new int[path.size()];
+                for (int k = 0; k < result.length; k++) {
+                    result[k] = path.get(result.length - 1 - k);
+                }
+                return result;
+            }
+            for (int t : silent) {
+                if (markings.size() >= MAX_SILENT_MARKINGS || !isEnabled(t, current)) {
+                    continue;
+                }
+                int[] next = current.clone();
+                fire(t, next, new int[4]);
+                if (visited.add(IntBuffer.wrap(next))) {
+                    markings.add(next);
+                    parents.add(i);
+                    fired.add(t);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Diese Methode berechnet die Fitness aus den Zählern eines oder mehrerer
+     * Fälle: 1/2 (1 - fehlend/verbraucht) + 1/2 (1 - übrig/erzeugt).
+     *
+     * @param produced Anzahl der erzeugten Marken.
+     * @param consumed Anzahl der verbrauchten Marken.
+     * @param missing Anzahl der fehlenden Marken.
+     * @param remaining Anzahl der übrigen Marken.
+     * @return Die Fitness zwischen 0 und 1.
+     */
+    public static double fitness(long produced, long consumed, long missing, long remaining) {
+        double consumedPart = consumed == 0 ? 1 : 1 - (double) missing / consumed;
+        double producedPart = produced == 0 ? 1 : 1 - (double) remaining / produced;
+        return (consumedPart + producedPart) / 2;
+    }
+
+    /**
+     * Diese Methode gibt das Attribut graph zurück.
+     *
+     * @return Das Attribut graph.
+     */
+    public NetGraph getGraph() {
+        return graph;
+    }
+}
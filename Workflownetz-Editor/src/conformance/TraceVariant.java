@@ -0,0 +1,51 @@
+package conformance;
+
+import java.util.Arrays;
+
+/**
+ * Eine Abfolge von Aktivitäten (Variante) als Schlüssel in Hashtabellen.
+ * Fälle mit derselben Abfolge müssen nur einmal abgespielt bzw.
+ * ausgerichtet werden.
+ */
+final class TraceVariant {
+
+    /**
+     * Die Indizes der Aktivitäten.
+     */
+    private final int[] trace;
+
+    /**
+     * Der vorab berechnete Hashwert.
+     */
+    private final int hash;
+
+    /**
+     * Dieser Konstruktor initialisiert den Schlüssel.
+     *
+     * @param trace Die Indizes der Aktivitäten.
+     */
+    TraceVariant(int[] trace) {
+        this.trace = trace;
+        this.hash = Arrays.hashCode(trace);
+    }
+
+    /**
+     * Diese Methode gibt das Attribut trace zurück.
+     *
+     * @return Das Attribut trace.
+     */
+    int[] getTrace() {
+        return trace;
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof TraceVariant && ((TraceVariant) obj).hash == hash
+                && Arrays.equals(((TraceVariant) obj).trace, trace);
+    }
+}
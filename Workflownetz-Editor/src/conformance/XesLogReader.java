@@ -0,0 +1,140 @@
+package conformance;
+
+import java.io.IOException;
+import java.io.InputStream;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Diese Klasse liest ein Ereignislog im XES-Format mit einem
+ * XMLStreamReader. Es wird immer nur der aktuelle Fall (trace) im Speicher
+ * gehalten.
+ *
+ * Die id eines Falls ist sein Attribut concept:name, die Aktivität eines
+ * Ereignisses ebenfalls dessen Attribut concept:name. Hat ein Ereignis das
+ * Attribut lifecycle:transition, werden nur Ereignisse mit dem Wert
+ * "complete" berücksichtigt, so dass Start und Ende einer Aktivität nicht
+ * doppelt gezählt werden.
+ */
+public class XesLogReader extends EventLogReader {
+
+    /**
+     * Der Schlüssel des Namensattributs.
+     */
+    private static final String NAME_KEY = "concept:name";
+
+    /**
+     * Der Schlüssel des Lebenszyklus-Attributs.
+     */
+    private static final String LIFECYCLE_KEY = "lifecycle:transition";
+
+    /**
+     * Das Objekt, aus dem das Log gelesen wird.
+     */
+    private final InputStream in;
+
+    /**
+     * Das Objekt, das die XML-Elemente liefert.
+     */
+    private final XMLStreamReader reader;
+
+    /**
+     * Anzahl der bisher gelesenen Fälle.
+     */
+    private long traceCount;
+
+    /**
+     * Dieser Konstruktor initialisiert den XMLStreamReader. DTDs und externe
+     * Entitäten werden nicht verarbeitet.
+     *
+     * @param in Das Objekt, aus dem das Log gelesen wird.
+     * @throws IOException Falls das Log nicht gelesen werden kann.
+     */
+    public XesLogReader(InputStream in) throws IOException {
+        this.in = in;
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        try {
+            this.reader = factory.createXMLStreamReader(in);
+        } catch (XMLStreamException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public boolean next() throws IOException {
+        activities.clear();
+        caseId = null;
+        // Tiefe des aktuellen Elements relativ zum trace-Element bzw. -1
+        // außerhalb eines Falls. Attribute zählen nur als direkte Kinder.
+        int depth = -1;
+        int eventDepth = -1;
+        String activity = null;
+        String lifecycle = null;
+        try {
+            while (reader.hasNext()) {
+                int type = reader.next();
+                if (type == XMLStreamConstants.START_ELEMENT) {
+                    String name = reader.getLocalName();
+                    if (depth < 0) {
+                        if ("trace".equals(name)) {
+                            depth = 0;
+                        }
+                        continue;
+                    }
+                    depth++;
+                    if ("event".equals(name) && depth == 1) {
+                        eventDepth = depth;
+                        activity = null;
+                        lifecycle = null;
+                    } else if ("string".equals(name)) {
+                        String key = reader.getAttributeValue(null, "key");
+                        String value = reader.getAttributeValue(null, "value");
+                        if (eventDepth > 0 && depth == eventDepth + 1) {
+                            if (NAME_KEY.equals(key)) {
+                                activity = value;
+                            } else if (LIFECYCLE_KEY.equals(key)) {
+                                lifecycle = value;
+                            }
+                        } else if (depth == 1 && NAME_KEY.equals(key)) {
+                            caseId = value;
+                        }
+                    }
+                } else if (type == XMLStreamConstants.END_ELEMENT && depth >= 0) {
+                    if (depth == 0) {
+                        traceCount++;
+                        if (caseId == null) {
+                            caseId = "#" + traceCount;
+                        }
+                        return true;
+                    }
+                    if (depth == eventDepth) {
+                        if (activity != null
+                                && (lifecycle == null || "complete".equalsIgnoreCase(lifecycle))) {
+                            activities.add(activity.trim());
+                        }
+                        eventDepth = -1;
+                    }
+                    depth--;
+                }
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+        return false;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            reader.close();
+        } catch (XMLStreamException e) {
+            throw new IOException(e.getMessage(), e);
+        } finally {
+            in.close();
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package controller;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
 import java.net.URL;
 import java.util.ResourceBundle;
 import javafx.animation.KeyFrame;
@@ -8,15 +11,37 @@ import javafx.animation.Timeline;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
+import javafx.concurrent.Task;
 import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.Label;
 import javafx.scene.control.Slider;
 import javafx.scene.control.Tab;
 import javafx.scene.control.TextArea;
+import javafx.scene.control.Tooltip;
 import javafx.scene.layout.VBox;
 import javafx.scene.shape.Circle;
+import javafx.stage.FileChooser;
 import javafx.util.Duration;
 import resources.MyColors;
 import resources.MyMessages;
+import conformance.AlignmentChecker;
+import conformance.AlignmentResult;
+import conformance.ConformanceChecker;
+import conformance.EventLogReader;
+import conformance.ReplayResult;
+import discovery.DirectlyFollowsGraph;
+import discovery.DiscoveredNet;
+import discovery.InductiveMiner;
+import discovery.ProcessTree;
+import invariants.InvariantCalculator;
+import invariants.Invariants;
+import persistenceService.AnalysisCache;
+import stateSpace.CoverabilityTreeBuilder;
+import workflownetLogic.DeadlockFinder;
+import workflownetLogic.NetGraph;
+import workflownetLogic.SoundnessChecker;
+import workflownetLogic.SoundnessResult;
 import workflownetLogic.WorkflownetHandler;
 
 /**
@@ -66,6 +91,89 @@ public class LeftVBoxController implements Initializable {
     private Button refreshBtn;
     @FXML
     private Button searchCycleBtn;
+    @FXML
+    private Button checkSoundnessBtn;
+    @FXML
+    private Button checkBoundednessBtn;
+    @FXML
+    private Button findDeadlockBtn;
+    @FXML
+    private Button computeInvariantsBtn;
+    @FXML
+    private Button replayLogBtn;
+    @FXML
+    private Button alignmentBtn;
+    @FXML
+    private Button discoverNetBtn;
+
+    /**
+     * Das Label neben der Status-Anzeige, das das Ergebnis der letzten
+     * Soundness-Überprüfung anzeigt.
+     */
+    @FXML
+    private Label soundnessLabel;
+
+    /**
+     * Das CheckBox-Objekt, mit dem die Partial-Order-Reduktion der
+     * Soundness-Überprüfung ein- und ausgeschaltet wird.
+     */
+    @FXML
+    private CheckBox reductionCheckBox;
+
+    /**
+     * Das CheckBox-Objekt, mit dem die symbolische Soundness-Überprüfung
+     * ausgewählt wird.
+     */
+    @FXML
+    private CheckBox symbolicCheckBox;
+
+    /**
+     * Das CheckBox-Objekt, mit dem die Vereinfachung des Netzes mit
+     * NetReduction vor der Soundness-Überprüfung und der Deadlock-Suche
+     * eingeschaltet wird.
+     */
+    @FXML
+    private CheckBox netReductionCheckBox;
+
+    /**
+     * Die laufende Soundness-Überprüfung oder null.
+     */
+    private Task<SoundnessResult> soundnessTask;
+
+    /**
+     * Die laufende Beschränktheits-Überprüfung oder null.
+     */
+    private Task<String> boundednessTask;
+
+    /**
+     * Die laufende Deadlock-Suche oder null.
+     */
+    private Task<Boolean> deadlockTask;
+
+    /**
+     * Die laufende Invarianten-Berechnung oder null.
+     */
+    private Task<String> invariantTask;
+
+    /**
+     * Das laufende Abspielen eines Ereignislogs oder null.
+     */
+    private Task<ReplayResult> replayTask;
+
+    /**
+     * Die laufende Berechnung von Alignments oder null.
+     */
+    private Task<AlignmentResult> alignmentTask;
+
+    /**
+     * Das laufende Erzeugen eines Netzes aus einem Ereignislog oder null.
+     */
+    private Task<DiscoveredNet> discoveryTask;
+
+    /**
+     * Das FileChooser-Objekt, mit dem ein Ereignislog ausgewählt wird.
+     */
+    private final FileChooser logChooser = new FileChooser();
 
     /**
      * Diese Methode wird beim Erzeugen einer Instanz aufgerufen. Sie
@@ -78,6 +186,23 @@ public class LeftVBoxController implements Initializable {
     public void initialize(URL url, ResourceBundle rb) {
         initTimeline();
         this.zoomSlider.setValue(0.7);
+        initTooltips();
+    }
+
+    /**
+     * Diese Methode nennt in den Tooltips der Analyse-Buttons die
+     * Schaltregel, die die jeweilige Analyse verwendet. Das Markenspiel des
+     * Editors und die Deadlock-Suche blockieren eine Transition bei Kontakt,
+     * die Soundness-Überprüfung setzt ein 1-sicheres Netz voraus und der
+     * Überdeckungsbaum verwendet die gewöhnliche Schaltregel. Die
+     * Vereinfachung des Netzes verwendet ebenfalls die gewöhnliche
+     * Schaltregel.
+     */
+    private void initTooltips() {
+        this.checkSoundnessBtn.setTooltip(new Tooltip(MyMessages.SAFE_RULE));
+        this.findDeadlockBtn.setTooltip(new Tooltip(MyMessages.CONTACT_RULE));
+        this.checkBoundednessBtn.setTooltip(new Tooltip(MyMessages.STANDARD_RULE));
+        this.netReductionCheckBox.setTooltip(new Tooltip(MyMessages.NET_REDUCTION_RULE));
     }
 
     /**
@@ -170,6 +295,23 @@ public class LeftVBoxController implements Initializable {
         }
     }
 
+    /**
+     * Diese Methode zeigt das Ergebnis der letzten Soundness-Überprüfung neben
+     * der Status-Anzeige an.
+     *
+     * @param result Das Ergebnis oder null, falls das aktuelle Netz noch nicht
+     * überprüft wurde.
+     */
+    void resetSoundnessStatus(SoundnessResult result) {
+        if (result == null || !result.isDecided()) {
+            this.soundnessLabel.setText(MyMessages.SOUNDNESS_LABEL_UNKNOWN);
+        } else if (result.isSound()) {
+            this.soundnessLabel.setText(MyMessages.SOUNDNESS_LABEL_SOUND);
+        } else {
+            this.soundnessLabel.setText(MyMessages.SOUNDNESS_LABEL_NOT_SOUND);
+        }
+    }
+
     /**
      * Diese Methode setzt den Text des Attributs messageArea und startet die
      * messageTimeline.
@@ -210,17 +352,364 @@ public class LeftVBoxController implements Initializable {
         this.messageTimeline = new Timeline(frame0, frame1, frame2, frame3, frame4);
     }
 
+    /**
+     * Diese Methode wählt den nächsten Kreis des Netzes aus. Wiederholtes
+     * Aktivieren des Buttons searchCycleBtn geht alle Kreise der Reihe nach
+     * durch. Dieses Verhalten ist in der Datei view.leftVBox.fxml definiert.
+     */
     @FXML
     private void searchCycle() {
         WorkflownetContainerController wcc = getWccOfSelectedTab();
         if (wcc != null) {
             WorkflownetHandler wfnHandler = wcc.getWfnHandler();
-            boolean isCycle =  wfnHandler.checkCycle();
-            if(!isCycle){
-                showToast(wfnHandler.getMessage());
+            wfnHandler.checkCycle();
+            showToast(wfnHandler.getMessage());
+        }
+    }
+
+    /**
+     * Diese Methode überprüft, ob das Workflownetz des geöffneten Tabs sound
+     * ist. Die Überprüfung läuft in einem eigenen Thread, damit die
+     * Benutzeroberfläche auch bei großen Zustandsräumen bedienbar bleibt. Das
+     * Ergebnis wird nur angezeigt, wenn das Netz in der Zwischenzeit nicht
+     * verändert wurde. Ist reductionCheckBox ausgewählt, wird der
+     * Zustandsraum kreisfreier Netze reduziert, ist symbolicCheckBox
+     * ausgewählt, wird er mit BDDs dargestellt. Ist netReductionCheckBox
+     * ausgewählt, wird das Netz vorher vereinfacht. Ist das Ergebnis für diese
+     * Struktur bereits bekannt, wird es sofort angezeigt. Liegt es im
+     * AnalysisCache, wird es im Thread der Überprüfung von dort gelesen,
+     * statt den Zustandsraum aufzubauen. Diese Methode wird
+     * aufgerufen, wenn der Button checkSoundnessBtn aktiviert wird. Dieses
+     * Verhalten ist in der Datei view.leftVBox.fxml definiert.
+     */
+    @FXML
+    private void checkSoundness() {
+        WorkflownetContainerController wcc = getWccOfSelectedTab();
+        if (wcc == null) {
+            return;
+        }
+        WorkflownetHandler wfnHandler = wcc.getWfnHandler();
+        SoundnessResult known = wfnHandler.getSoundnessResult();
+        if (known != null) {
+            resetSoundnessStatus(known);
+            showToast(known.getMessage());
+            return;
+        }
+        SoundnessChecker checker = wfnHandler.createSoundnessChecker();
+        if (checker == null) {
+            showToast(MyMessages.NO_WORKFLOWNET);
+            return;
+        }
+        checker.setReduction(this.reductionCheckBox.isSelected())
+                .setSymbolic(this.symbolicCheckBox.isSelected())
+                .setNetReduction(this.netReductionCheckBox.isSelected());
+        if (this.soundnessTask != null) {
+            this.soundnessTask.cancel();
+        }
+        Task<SoundnessResult> task = new Task<SoundnessResult>() {
+            @Override
+            protected SoundnessResult call() {
+                SoundnessResult cached = WorkflownetHandler.getCachedSoundnessResult(checker.getGraph());
+                return cached != null ? cached : checker.check();
+            }
+        };
+        task.setOnSucceeded(event -> {
+            SoundnessResult result = task.getValue();
+            if (wfnHandler.setSoundnessResult(checker, result)
+                    && getWccOfSelectedTab() == wcc) {
+                resetSoundnessStatus(result);
+                showToast(result.getMessage());
             }
-            
+        });
+        task.setOnFailed(event -> {
+            resetSoundnessStatus(null);
+            showToast(String.valueOf(task.getException().getMessage()));
+        });
+        this.soundnessTask = task;
+        this.soundnessLabel.setText(MyMessages.SOUNDNESS_LABEL_RUNNING);
+        Thread thread = new Thread(task);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Diese Methode überprüft, ob das Netz des geöffneten Tabs ausgehend von
+     * der aktuellen Markierung beschränkt ist. Dazu wird in einem eigenen
+     * Thread der Überdeckungsbaum aufgebaut (siehe CoverabilityTreeBuilder).
+     * Diese Methode wird aufgerufen, wenn der Button checkBoundednessBtn
+     * aktiviert wird. Dieses Verhalten ist in der Datei view.leftVBox.fxml
+     * definiert.
+     */
+    @FXML
+    private void checkBoundedness() {
+        WorkflownetContainerController wcc = getWccOfSelectedTab();
+        if (wcc == null) {
+            return;
+        }
+        WorkflownetHandler wfnHandler = wcc.getWfnHandler();
+        NetGraph graph = wfnHandler.getGraph();
+        int[] marking = wfnHandler.getCurrentMarking();
+        if (this.boundednessTask != null) {
+            this.boundednessTask.cancel();
+        }
+        Task<String> task = new Task<String>() {
+            @Override
+            protected String call() {
+                return WorkflownetHandler.getBoundednessMessage(
+                        new CoverabilityTreeBuilder(graph).build(marking));
+            }
+        };
+        task.setOnSucceeded(event -> showToast(task.getValue()));
+        task.setOnFailed(event -> showToast(String.valueOf(task.getException().getMessage())));
+        this.boundednessTask = task;
+        Thread thread = new Thread(task);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Diese Methode sucht im Workflownetz des geöffneten Tabs einen von [i]
+     * aus erreichbaren Deadlock (siehe DeadlockFinder). Die Suche läuft in
+     * einem eigenen Thread. Wurde ein Deadlock gefunden und das Netz in der
+     * Zwischenzeit nicht verändert, wird die kürzeste Schaltfolge dorthin im
+     * Editor nachgespielt. Ist netReductionCheckBox ausgewählt, wird zuerst
+     * im vereinfachten Netz gesucht. Diese Methode wird aufgerufen, wenn der
+     * Button findDeadlockBtn aktiviert wird. Dieses Verhalten ist in der Datei
+     * view.leftVBox.fxml definiert.
+     */
+    @FXML
+    private void findDeadlock() {
+        WorkflownetContainerController wcc = getWccOfSelectedTab();
+        if (wcc == null) {
+            return;
+        }
+        WorkflownetHandler wfnHandler = wcc.getWfnHandler();
+        DeadlockFinder finder = wfnHandler.createDeadlockFinder();
+        if (finder == null) {
+            showToast(MyMessages.NO_WORKFLOWNET);
+            return;
+        }
+        finder.setNetReduction(this.netReductionCheckBox.isSelected());
+        if (this.deadlockTask != null) {
+            this.deadlockTask.cancel();
+        }
+        Task<Boolean> task = new Task<Boolean>() {
+            @Override
+            protected Boolean call() {
+                return finder.find();
+            }
+        };
+        task.setOnSucceeded(event -> {
+            if (!wfnHandler.isCurrent(finder.getGraph()) || getWccOfSelectedTab() != wcc) {
+                return;
+            }
+            if (task.getValue()) {
+                wcc.replay(finder.getWitness());
+            }
+            showToast(finder.getMessage());
+        });
+        task.setOnFailed(event -> showToast(String.valueOf(task.getException().getMessage())));
+        this.deadlockTask = task;
+        Thread thread = new Thread(task);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Diese Methode berechnet in einem eigenen Thread die minimalen P- und
+     * T-Invarianten des Netzes im geöffneten Tab (siehe InvariantCalculator)
+     * und zeigt das Ergebnis an. Vollständige Ergebnisse werden im
+     * AnalysisCache abgelegt, die Suche in seinen Dateien erfolgt ebenfalls
+     * in diesem Thread. Diese Methode wird aufgerufen, wenn der
+     * Button computeInvariantsBtn aktiviert wird. Dieses Verhalten ist in der
+     * Datei view.leftVBox.fxml definiert.
+     */
+    @FXML
+    private void computeInvariants() {
+        WorkflownetContainerController wcc = getWccOfSelectedTab();
+        if (wcc == null) {
+            return;
+        }
+        NetGraph graph = wcc.getWfnHandler().getGraph();
+        if (this.invariantTask != null) {
+            this.invariantTask.cancel();
+        }
+        String key = AnalysisCache.key(graph.getFingerprint(), AnalysisCache.INVARIANTS);
+        Task<String> task = new Task<String>() {
+            @Override
+            protected String call() {
+                Serializable cached = AnalysisCache.getInstance().get(key);
+                if (cached instanceof String) {
+                    return (String) cached;
+                }
+                InvariantCalculator calculator = new InvariantCalculator(graph);
+                Invariants placeInvariants = calculator.placeInvariants();
+                Invariants transitionInvariants = calculator.transitionInvariants();
+                String message = WorkflownetHandler.getInvariantMessage(placeInvariants,
+                        transitionInvariants);
+                if (placeInvariants.isComplete() && transitionInvariants.isComplete()) {
+                    AnalysisCache.getInstance().put(key, message);
+                }
+                return message;
+            }
+        };
+        task.setOnSucceeded(event -> showToast(task.getValue()));
+        task.setOnFailed(event -> showToast(String.valueOf(task.getException().getMessage())));
+        this.invariantTask = task;
+        Thread thread = new Thread(task);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Diese Methode spielt ein Ereignislog (CSV oder XES) auf dem
+     * Workflownetz des geöffneten Tabs ab und zeigt die Fitness an (siehe
+     * ConformanceChecker). Das Log wird in einem eigenen Thread gelesen.
+     * Diese Methode wird aufgerufen, wenn der Button replayLogBtn aktiviert
+     * wird. Dieses Verhalten ist in der Datei view.leftVBox.fxml definiert.
+     */
+    @FXML
+    private void replayLog() {
+        WorkflownetContainerController wcc = getWccOfSelectedTab();
+        if (wcc == null) {
+            return;
+        }
+        ConformanceChecker checker = wcc.getWfnHandler().createConformanceChecker();
+        if (checker == null) {
+            showToast(MyMessages.NO_WORKFLOWNET);
+            return;
+        }
+        File file = chooseLog();
+        if (file == null) {
+            return;
+        }
+        if (this.replayTask != null) {
+            this.replayTask.cancel();
+        }
+        Task<ReplayResult> task = new Task<ReplayResult>() {
+            @Override
+            protected ReplayResult call() throws Exception {
+                try (EventLogReader reader = EventLogReader.open(file)) {
+                    return checker.replay(reader);
+                }
+            }
+        };
+        task.setOnSucceeded(event -> showToast(task.getValue().getMessage()));
+        task.setOnFailed(event -> showToast(String.valueOf(task.getException().getMessage())));
+        this.replayTask = task;
+        Thread thread = new Thread(task);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Diese Methode berechnet für jede Spur eines Ereignislogs (CSV oder XES)
+     * ein optimales Alignment mit dem Workflownetz des geöffneten Tabs (siehe
+     * AlignmentChecker). Die Fitness wird als Meldung angezeigt, die
+     * Abweichungen je Transition im Workflownetz. Diese Methode wird
+     * aufgerufen, wenn der Button alignmentBtn aktiviert wird. Dieses
+     * Verhalten ist in der Datei view.leftVBox.fxml definiert.
+     */
+    @FXML
+    private void computeAlignments() {
+        WorkflownetContainerController wcc = getWccOfSelectedTab();
+        if (wcc == null) {
+            return;
+        }
+        AlignmentChecker checker = wcc.getWfnHandler().createAlignmentChecker();
+        if (checker == null) {
+            showToast(MyMessages.NO_WORKFLOWNET);
+            return;
+        }
+        File file = chooseLog();
+        if (file == null) {
+            return;
+        }
+        if (this.alignmentTask != null) {
+            this.alignmentTask.cancel();
+        }
+        Task<AlignmentResult> task = new Task<AlignmentResult>() {
+            @Override
+            protected AlignmentResult call() throws Exception {
+                try (EventLogReader reader = EventLogReader.open(file)) {
+                    return checker.align(reader);
+                }
+            }
+        };
+        task.setOnSucceeded(event -> {
+            wcc.showDeviations(task.getValue());
+            showToast(task.getValue().getMessage());
+        });
+        task.setOnFailed(event -> showToast(String.valueOf(task.getException().getMessage())));
+        this.alignmentTask = task;
+        Thread thread = new Thread(task);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Diese Methode erzeugt aus einem Ereignislog (CSV oder XES) ein
+     * Workflownetz und öffnet es in einem neuen Tab. Das Log wird in einem
+     * eigenen Thread einmal gelesen und zur Directly-Follows-Relation
+     * verdichtet, aus der der InductiveMiner einen Prozessbaum erzeugt (siehe
+     * DirectlyFollowsGraph und DiscoveredNet). Diese Methode wird aufgerufen,
+     * wenn der Button discoverNetBtn aktiviert wird. Dieses Verhalten ist in
+     * der Datei view.leftVBox.fxml definiert.
+     */
+    @FXML
+    private void discoverNet() {
+        File file = chooseLog();
+        if (file == null) {
+            return;
+        }
+        if (this.discoveryTask != null) {
+            this.discoveryTask.cancel();
+        }
+        Task<DiscoveredNet> task = new Task<DiscoveredNet>() {
+            @Override
+            protected DiscoveredNet call() throws Exception {
+                DirectlyFollowsGraph dfg;
+                try (EventLogReader reader = EventLogReader.open(file)) {
+                    dfg = DirectlyFollowsGraph.read(reader);
+                }
+                ProcessTree tree = new InductiveMiner(dfg).mine();
+                return new DiscoveredNet(tree, dfg);
+            }
+        };
+        task.setOnSucceeded(event -> {
+            try {
+                WorkflownetContainerController wcc
+                        = mainController.getTabPaneController().createNewTabWithWcc();
+                wcc.initWccFromDiscovery(file.getName(), task.getValue());
+                showToast(task.getValue().getMessage());
+            } catch (IOException e) {
+                showToast(String.valueOf(e.getMessage()));
+            }
+        });
+        task.setOnFailed(event -> showToast(String.valueOf(task.getException().getMessage())));
+        this.discoveryTask = task;
+        Thread thread = new Thread(task);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Diese Methode lässt den Benutzer ein Ereignislog auswählen. Der
+     * FileChooser beginnt im Verzeichnis des zuletzt gewählten Logs.
+     *
+     * @return Die gewählte Datei oder null.
+     */
+    private File chooseLog() {
+        if (logChooser.getExtensionFilters().isEmpty()) {
+            logChooser.getExtensionFilters().addAll(
+                    new FileChooser.ExtensionFilter("Ereignislog", "*.csv", "*.xes", "*.gz"),
+                    new FileChooser.ExtensionFilter("Alle Dateien", "*.*"));
+        }
+        File file = logChooser.showOpenDialog(leftVBox.getScene().getWindow());
+        if (file != null) {
+            logChooser.setInitialDirectory(file.getParentFile());
         }
+        return file;
     }
 
 }
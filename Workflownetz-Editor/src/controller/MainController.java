@@ -4,10 +4,15 @@ import java.io.File;
 import java.net.URL;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 import java.util.ResourceBundle;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
+import javafx.scene.control.Alert;
+import javafx.scene.control.Alert.AlertType;
+import javafx.scene.control.ButtonBar.ButtonData;
+import javafx.scene.control.ButtonType;
 import javafx.scene.control.Tab;
 import javafx.scene.control.TabPane;
 import javafx.scene.layout.BorderPane;
@@ -163,4 +168,31 @@ public class MainController implements Initializable {
         this.wccMap.put(tab, wcc);
     }
 
+    /**
+     * Diese Methode wird aufgerufen, bevor die Anwendung beendet wird. Wird
+     * noch ein Netz gespeichert, wird ein Dialog angezeigt, der eine
+     * Bestätigung verlangt. Die Anwendung wartet beim Beenden auf das Ende
+     * der Speichervorgänge.
+     *
+     * @return true, falls die Anwendung beendet werden darf.
+     */
+    public boolean confirmExit() {
+        boolean saving = this.wccMap.values().stream().anyMatch(WorkflownetContainerController::isSaving);
+        if (!saving) {
+            return true;
+        }
+        Alert alert = new Alert(AlertType.WARNING);
+        alert.setTitle("Achtung");
+        alert.setHeaderText("Es werden noch Netze gespeichert.");
+        alert.setContentText("Die Anwendung wird beendet, sobald das Speichern abgeschlossen ist. Wollen Sie sie trotzdem beenden?");
+
+        ButtonType exitType = new ButtonType("Beenden");
+        ButtonType cancelType = new ButtonType("Abbrechen", ButtonData.CANCEL_CLOSE);
+
+        alert.getButtonTypes().setAll(exitType, cancelType);
+
+        Optional<ButtonType> result = alert.showAndWait();
+        return result.isPresent() && result.get() == exitType;
+    }
+
 }
@@ -1,6 +1,7 @@
 package controller;
 
 import petriNodes.PetriNode;
+import petriNodes.Place;
 import java.util.Optional;
 import javafx.event.ActionEvent;
 import javafx.scene.control.ContextMenu;
@@ -33,6 +34,12 @@ public class PetriNodeContextMenu extends ContextMenu {
      */
     private final MenuItem changeLabel;
 
+    /**
+     * Menüelement, das das Setzen der Anzahl der Marken einer Stelle
+     * initialisiert. Bei Transitionen ist es null.
+     */
+    private final MenuItem setTokens;
+
     /**
      * Der Knoten, der den Request ausgelöst hat.
      */
@@ -59,6 +66,12 @@ public class PetriNodeContextMenu extends ContextMenu {
             result.ifPresent(newLabel -> sourceNode.getLabel().setText(newLabel));
         });
         this.getItems().addAll(changeLabel, deleteShape, addArc);
+        if (sourceNode instanceof Place) {
+            this.setTokens = new MenuItem("Marken setzen");
+            this.getItems().add(setTokens);
+        } else {
+            this.setTokens = null;
+        }
         this.setOnShowing((WindowEvent event) -> {
             if (SelectionModel.getInstance().getSelectedNodes().size() > 1) {
                 deleteShape.setText("Markierte Knoten löschen");
@@ -69,8 +82,8 @@ public class PetriNodeContextMenu extends ContextMenu {
     }
 
     /**
-     * Diese Methode initialisiert die Funktionen der Menüelemente deleteShape
-     * und addArc in Abhängigkeit zu einem Objekt der Klasse
+     * Diese Methode initialisiert die Funktionen der Menüelemente deleteShape,
+     * addArc und setTokens in Abhängigkeit zu einem Objekt der Klasse
      * WorkfloanetContainerController.
      *
      * @param wcc Eine Instanz der WorkflownetContainerController-Klasse
@@ -82,5 +95,16 @@ public class PetriNodeContextMenu extends ContextMenu {
         addArc.setOnAction((ActionEvent event) -> {
             wcc.initAddArc(sourceNode);
         });
+        if (setTokens != null) {
+            setTokens.setOnAction((ActionEvent event) -> {
+                Place place = (Place) sourceNode;
+                TextInputDialog dialog = new TextInputDialog(place.getMarkingAsString());
+                dialog.setTitle("Marken setzen");
+                dialog.setHeaderText("Marken setzen");
+                dialog.setContentText("Geben Sie die Anzahl der Marken ein: ");
+                Optional<String> result = dialog.showAndWait();
+                result.ifPresent(count -> wcc.setTokens(place, count));
+            });
+        }
     }
 }
@@ -0,0 +1,101 @@
+package controller;
+
+/**
+ * Diese Klasse hält fest, ob das Netz eines Tabs gespeichert ist. Da im
+ * Hintergrund gespeichert wird, kann das Netz während des Speicherns weiter
+ * bearbeitet werden. Jede Änderung erhöht daher einen Zähler. Ein
+ * Speichervorgang merkt sich den Zähler bei seinem Start und markiert das
+ * Netz nach dem Schreiben nur dann als gespeichert, wenn sich der Zähler
+ * seitdem nicht geändert hat. Ein fehlgeschlagener oder abgebrochener
+ * Speichervorgang markiert das Netz als nicht gespeichert.
+ *
+ * Die Klasse enthält keine JavaFX-Objekte, alle Methoden werden aber im
+ * JavaFX-Thread aufgerufen.
+ */
+class SaveState {
+
+    /**
+     * Information darüber, ob das Netz gespeichert ist.
+     */
+    private boolean saved = false;
+
+    /**
+     * Die Anzahl der bisherigen Änderungen.
+     */
+    private long changeCount = 0;
+
+    /**
+     * Die Anzahl der gestarteten, noch nicht beendeten Speichervorgänge.
+     */
+    private int pendingSaves = 0;
+
+    /**
+     * Diese Methode vermerkt eine Änderung des Netzes.
+     */
+    void changed() {
+        this.saved = false;
+        this.changeCount++;
+    }
+
+    /**
+     * Diese Methode setzt das Attribut saved, z.B. nach dem Laden einer
+     * Datei.
+     *
+     * @param saved Der Wert, den das Attribut saved annehmen soll.
+     */
+    void setSaved(boolean saved) {
+        this.saved = saved;
+    }
+
+    /**
+     * Diese Methode vermerkt den Start eines Speichervorgangs.
+     *
+     * @return Der Stand des Änderungszählers, der saveSucceeded übergeben
+     * werden muss.
+     */
+    long saveStarted() {
+        this.pendingSaves++;
+        return this.changeCount;
+    }
+
+    /**
+     * Diese Methode vermerkt das erfolgreiche Ende eines Speichervorgangs.
+     * Das Netz gilt nur dann als gespeichert, wenn es seit dem Start nicht
+     * geändert wurde.
+     *
+     * @param startCount Der Rückgabewert von saveStarted.
+     */
+    void saveSucceeded(long startCount) {
+        this.pendingSaves--;
+        if (startCount == this.changeCount) {
+            this.saved = true;
+        }
+    }
+
+    /**
+     * Diese Methode vermerkt einen fehlgeschlagenen oder abgebrochenen
+     * Speichervorgang. Das Netz gilt danach als nicht gespeichert.
+     */
+    void saveFailed() {
+        this.pendingSaves--;
+        this.saved = false;
+    }
+
+    /**
+     * Diese Methode gibt das Attribut saved zurück.
+     *
+     * @return Das Attribut saved.
+     */
+    boolean isSaved() {
+        return saved;
+    }
+
+    /**
+     * Diese Methode gibt zurück, ob noch ein Speichervorgang läuft.
+     *
+     * @return true, falls ein Speichervorgang noch nicht beendet ist.
+     */
+    boolean isSaving() {
+        return pendingSaves > 0;
+    }
+}
@@ -60,7 +60,7 @@ public class TopMenuController implements Initializable {
             WorkflownetContainerController wcc = this.mainController.getTabPaneController().createNewTabWithWcc();
             try {
                 wcc.initWccFromFileloading(file);
-            } catch (XMLStreamException e) {
+            } catch (XMLStreamException | IOException e) {
                 wcc.getTab().setText("new Tab");
                 mainController.getLeftVBoxController().showToast(MyMessages.NO_VALID_FILE);
             }
@@ -89,11 +89,14 @@ public class TopMenuController implements Initializable {
     }
 
     /**
-     * Diese Methode schließt die Anwendung.
+     * Diese Methode schließt die Anwendung, falls kein Speichervorgang läuft
+     * oder der Benutzer das Beenden bestätigt.
      */
     @FXML
     private void closeApplication() {
-        Platform.exit();
+        if (mainController.confirmExit()) {
+            Platform.exit();
+        }
     }
 
     /**
@@ -1,21 +1,34 @@
 package controller;
 
+import conformance.AlignmentResult;
+import discovery.DiscoveredNet;
 import petriNodes.Arc;
 import petriNodes.PetriNode;
 import petriNodes.Place;
 import petriNodes.Transition;
+import workflownetLogic.NetGraph;
+import workflownetLogic.TokenGameTracker;
 import workflownetLogic.WorkflownetHandler;
 import java.io.File;
+import java.io.IOException;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.ResourceBundle;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
 import javafx.beans.property.DoubleProperty;
+import javafx.concurrent.Task;
 import javafx.event.Event;
 import javafx.event.EventHandler;
 import javafx.fxml.FXML;
@@ -32,7 +45,10 @@ import javafx.scene.input.MouseEvent;
 import javafx.scene.layout.Pane;
 import javafx.scene.shape.Rectangle;
 import javafx.scene.shape.Shape;
+import javafx.scene.text.Text;
+import javafx.util.Duration;
 import javax.xml.stream.XMLStreamException;
+import persistenceService.NetModel;
 import persistenceService.PersistenceService;
 import petriNodes.SelectionModel;
 import resources.MyColors;
@@ -92,6 +108,38 @@ public class WorkflownetContainerController implements Initializable {
         return wfnHandler;
     }
 
+    /**
+     * Das Markenspiel des Editors. Es wird bei jeder Änderung der Struktur nur
+     * für den geänderten Knoten bzw. die geänderte Kante angepasst und nur
+     * nach dem Laden oder Zurücksetzen des Netzes vollständig neu aufgebaut
+     * (updateTransitions). Beim Schalten einer Transition und beim Setzen von
+     * Marken wird es nur in der Umgebung der betroffenen Stellen aktualisiert.
+     */
+    private final TokenGameTracker tokenGame = new TokenGameTracker();
+
+    /**
+     * Die Transitionen, deren Vor- oder Nachbereich sich seit der letzten
+     * Überprüfung (checkAndResetStatus) geändert hat. Nur ihr Zustand kann
+     * sich durch die Änderung verändert haben.
+     */
+    private final Set<Transition> changedTransitions = new HashSet<>();
+
+    /**
+     * Die Timeline, die eine Schaltfolge nachspielt, oder null.
+     */
+    private Timeline replayTimeline;
+
+    /**
+     * Die Beschriftungen mit den Abweichungen der letzten Alignments.
+     */
+    private final List<Text> deviationLabels = new ArrayList<>();
+
+    /**
+     * Die Momentaufnahme, zu der die Beschriftungen in deviationLabels
+     * gehören, oder null.
+     */
+    private NetGraph deviationGraph;
+
     /**
      * In diesem Boolean-Objekt wird festgehalten ob die Knoten im
      * HashMap-Objekt ein gültiges Workflownetz repräsentieren.
@@ -99,10 +147,30 @@ public class WorkflownetContainerController implements Initializable {
     private boolean isWorkflownet = false;
 
     /**
-     * In diesem Boolean-Objekt wird festgehalten, ob nicht gespeicherte
-     * Änderungen bestehen.
+     * In diesem Boolean-Objekt wird festgehalten, ob die Knoten den Status
+     * isWorkflownet bereits anzeigen. Nach dem Laden einer Datei ist das noch
+     * nicht der Fall.
+     */
+    private boolean isStatusShown = true;
+
+    /**
+     * Der Thread, in dem alle Tabs ihre Netze speichern. Da es nur einen gibt,
+     * werden mehrere Speichervorgänge in der Reihenfolge ihres Starts
+     * ausgeführt, ein älterer Stand kann einen neueren daher nicht
+     * überschreiben. Der Thread ist kein Daemon-Thread, beim Beenden der
+     * Anwendung wartet awaitPendingSaves auf laufende Speichervorgänge.
      */
-    private boolean isSaved = false;
+    private static final ExecutorService SAVE_EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "save");
+        thread.setDaemon(false);
+        return thread;
+    });
+
+    /**
+     * In diesem Objekt wird festgehalten, ob nicht gespeicherte Änderungen
+     * bestehen und ob das Netz gerade gespeichert wird.
+     */
+    private final SaveState saveState = new SaveState();
 
     /**
      * Anzahl der Transitionen in der HashMap petriNodes.
@@ -122,14 +190,34 @@ public class WorkflownetContainerController implements Initializable {
     /**
      * Diese Methode wird aufgerufen, bevor das Tab tab geschlossen wird. Falls
      * nicht gespeicherte Änderungen bestehen, wird ein Dialog angezeigt, der
-     * eine Bestätigung verlangt. Sonst wird das Tab nicht geschlossen.
+     * eine Bestätigung verlangt. Sonst wird das Tab nicht geschlossen. Das
+     * gleiche gilt, solange das Netz noch gespeichert wird.
      *
      * @param closeEvent Das Event, das beim Schließen eines Tabs ausgelöst
      * wird.
      */
     @FXML
     protected void closeTab(Event closeEvent) {
-        if (!this.isSaved) {
+        if (this.saveState.isSaving()) {
+            Alert alert = new Alert(AlertType.WARNING);
+            alert.setTitle("Achtung");
+            alert.setHeaderText("Das Netz wird noch gespeichert.");
+            alert.setContentText("Das Speichern wird auch nach dem Schließen des Tabs abgeschlossen. Schlägt es fehl, gehen die Änderungen verloren. Wollen Sie das Tab trotzdem schließen?");
+
+            ButtonType closeType = new ButtonType("Schließen");
+            ButtonType cancelClosingType = new ButtonType("Abbrechen", ButtonData.CANCEL_CLOSE);
+
+            alert.getButtonTypes().setAll(closeType, cancelClosingType);
+
+            Optional<ButtonType> result = alert.showAndWait();
+            if (!result.isPresent() || result.get() == cancelClosingType) {
+                closeEvent.consume();
+            } else {
+                mainController.getWccMap().remove(this.tab);
+            }
+            return;
+        }
+        if (!this.saveState.isSaved()) {
             Alert alert = new Alert(AlertType.WARNING);
             alert.setTitle("Achtung");
             alert.setHeaderText("Nicht gespeicherte Änderungen.");
@@ -162,9 +250,14 @@ public class WorkflownetContainerController implements Initializable {
     private void addPetriNode(PetriNode petriNode) {
         this.petriNodes.put(petriNode.getId(), petriNode);
         petriNode.getContextMenu().initMenuItems(this);
+        this.wfnHandler.nodeAdded(petriNode);
+        this.tokenGame.nodeAdded(petriNode);
+        if (petriNode instanceof Transition) {
+            this.changedTransitions.add((Transition) petriNode);
+        }
         checkAndResetStatus();
-        workflownetContentPane.getChildren().addAll(petriNode.getShape(), petriNode.getLabel());
-        this.isSaved = false;
+        drawNode(petriNode);
+        this.saveState.changed();
     }
 
     /**
@@ -196,14 +289,12 @@ public class WorkflownetContainerController implements Initializable {
     /**
      * Diese Methode berechnet die Anzahl der Kanten im Workflownetz.
      *
-     * @return Anzahl der Places im Workflownetz.
+     * @return Anzahl der Kanten im Workflownetz.
      */
     private int computeCountOfArcs() {
-        int i = 0;
-        i = this.petriNodes.values().stream().filter((value)
-                -> (value.getClass().getSimpleName().equalsIgnoreCase("Arc"))).map((_item)
-                -> 1).reduce(i, Integer::sum);
-        return i;
+        // Kanten liegen nicht in petriNodes, sondern an ihrem Startknoten.
+        return this.petriNodes.values().stream()
+                .mapToInt(value -> value.getNextArcs().size()).sum();
     }
 
     /**
@@ -211,25 +302,53 @@ public class WorkflownetContainerController implements Initializable {
      * gespeicherten Objekten und ruft daraufhin die MEthode drawNodes auf.
      * Abschließend wird der Netzstatus überprüft(checkAndResetStatus).
      *
-     * @param file die pnml-File, die geladen werden soll.
+     * @param file die pnml-File oder Momentaufnahme, die geladen werden soll.
      * @throws javax.xml.stream.XMLStreamException
+     * @throws java.io.IOException
      */
-    protected void initWccFromFileloading(File file) throws XMLStreamException {
+    protected void initWccFromFileloading(File file) throws XMLStreamException, IOException {
 
         this.tab.setText(file.getName());
         try {
             this.petriNodes = PersistenceService.loadNodeObjects(file);
-            this.isSaved = true;
-        } catch (XMLStreamException e) {
+            this.saveState.setSaved(true);
+        } catch (XMLStreamException | IOException e) {
             throw e;
         }
+        initWccFromNodes();
+    }
 
+    /**
+     * Diese Methode füllt die HashMap petriNodes mit einem aus einem
+     * Ereignislog erzeugten Netz und zeigt es an. Das Netz gilt als nicht
+     * gespeichert.
+     *
+     * @param name Der Name des Tabs.
+     * @param net Das erzeugte Netz.
+     */
+    protected void initWccFromDiscovery(String name, DiscoveredNet net) {
+        this.tab.setText(name);
+        this.petriNodes = net.toPetriNodes();
+        initWccFromNodes();
+        this.saveState.changed();
+    }
+
+    /**
+     * Diese Methode zeichnet die Knoten in petriNodes, nachdem sie geladen
+     * oder erzeugt wurden, und bestimmt den Netzstatus.
+     */
+    private void initWccFromNodes() {
         this.countOfTransition = computeCountOfTransition();
         this.countOfPlaces = computeCountOfPlaces();
         this.countOfArcs = computeCountOfArcs();
         initContextMenus();
         drawNodes();
+        // Nach dem Laden wird der Status einmal vollständig bestimmt, danach
+        // nur noch für die geänderten Bereiche.
+        this.isWorkflownet = this.wfnHandler.checkWorkflowStatus(this.petriNodes.values());
+        this.isStatusShown = false;
         checkAndResetStatus();
+        resetSoundnessStatus();
     }
 
     /**
@@ -248,10 +367,29 @@ public class WorkflownetContainerController implements Initializable {
                 arc.toBack();
             }
             value.getShape().toFront();
-            this.workflownetContentPane.getChildren().addAll(value.getShape(), value.getLabel());
+            drawNode(value);
         });
     }
 
+    /**
+     * Diese Methode fügt die grafische Darstellung eines Knotens dem Pane
+     * workflownetContentPane hinzu. Bei Stellen gehören dazu auch der Kreis
+     * und der Text der Markierung, die über der Stelle liegen und nur ein-
+     * oder ausgeblendet werden (siehe Place.setTokens).
+     *
+     * @param petriNode Der Knoten.
+     */
+    private void drawNode(PetriNode petriNode) {
+        if (petriNode instanceof Place) {
+            this.workflownetContentPane.getChildren().addAll(petriNode.getShape(),
+                    ((Place) petriNode).getMarking(), ((Place) petriNode).getTokenLabel(),
+                    petriNode.getLabel());
+        } else {
+            this.workflownetContentPane.getChildren().addAll(petriNode.getShape(),
+                    petriNode.getLabel());
+        }
+    }
+
     /**
      * Diese Methode gibt das Attribut tab zurück.
      *
@@ -272,25 +410,52 @@ public class WorkflownetContainerController implements Initializable {
 
     /**
      * Diese Methode initialisiert das Speichern einer pnml-File und ändert den
-     * Namen des Tabs tab in den Dateinamen. Das Speichern der Datei übernimmt
-     * die statische Methode der Klasse PersistenceService.
+     * Namen des Tabs tab in den Dateinamen. Im JavaFX-Thread wird nur eine
+     * Kopie des Netzes ohne JavaFX-Objekte erzeugt (NetModel.fromPetriNodes).
+     * Das Schreiben übernimmt die statische Methode der Klasse
+     * PersistenceService im Thread SAVE_EXECUTOR, die Benutzeroberfläche
+     * bleibt dabei bedienbar. Fortschritt und Abschluss werden als Meldung
+     * angezeigt. Das Netz gilt erst nach erfolgreichem Schreiben und nur dann
+     * als gespeichert, wenn es währenddessen nicht geändert wurde (siehe
+     * SaveState).
      *
      * @param file Die Datei, die gespeichert werden soll.
      */
     protected void initSavePNML(File file) {
-        try {
-            PersistenceService.savePNML(this.petriNodes, file);
+        NetModel model = NetModel.fromPetriNodes(this.petriNodes.values());
+        LeftVBoxController leftVBoxController = this.mainController.getLeftVBoxController();
+        long startCount = this.saveState.saveStarted();
+        Task<Void> task = new Task<Void>() {
+            @Override
+            protected Void call() throws Exception {
+                PersistenceService.saveModel(model, file, fraction -> updateProgress(fraction, 1));
+                return null;
+            }
+        };
+        task.progressProperty().addListener((observable, oldValue, newValue) -> {
+            int oldPercent = (int) (oldValue.doubleValue() * 100);
+            int newPercent = (int) (newValue.doubleValue() * 100);
+            if (newPercent > 0 && newPercent < 100 && newPercent / 10 > oldPercent / 10) {
+                leftVBoxController.showToast(String.format(MyMessages.SAVE_PROGRESS,
+                        file.getName(), newPercent));
+            }
+        });
+        task.setOnSucceeded(event -> {
+            this.saveState.saveSucceeded(startCount);
             tab.setText(file.getName());
-            this.isSaved = true;
-            this.mainController.getLeftVBoxController().showToast(MyMessages.SEVE_DONE);
-        } catch (Exception e) {
+            leftVBoxController.showToast(MyMessages.SEVE_DONE);
+        });
+        task.setOnCancelled(event -> this.saveState.saveFailed());
+        task.setOnFailed(event -> {
+            this.saveState.saveFailed();
             Alert alert = new Alert(AlertType.ERROR);
             alert.setTitle("Fehler!");
             alert.setHeaderText("Fehler beim Speichern");
             alert.setContentText("Beim Speichern ist ein Fehler aufgetreten. Bitte versuchen Sie es erneut.");
             alert.showAndWait();
-        }
-
+        });
+        leftVBoxController.showToast(String.format(MyMessages.SAVE_RUNNING, file.getName()));
+        SAVE_EXECUTOR.execute(task);
     }
 
     /**
@@ -323,9 +488,12 @@ public class WorkflownetContainerController implements Initializable {
     void refreshNet() {
         if (isWorkflownet) {
             if (!this.wfnHandler.getStartPlace().isMarked()) {
-                this.isSaved = false;
+                this.saveState.changed();
             }
             setPetriNodesToDefault();
+            // Alle Knoten sind zurückgesetzt, der Status wird daher wie nach
+            // dem Laden vollständig angezeigt.
+            this.isStatusShown = false;
             checkAndResetStatus();
         }
     }
@@ -431,8 +599,8 @@ public class WorkflownetContainerController implements Initializable {
      * HashMap-Objekt petriNodes und die entsprechende grafische Darstellung der
      * Knoten aus der Pane workflownetContentPane. Außerdem wird die Methode
      * removeAllConnectedArcs aufgerufen, um die verbundenen Kanten zu
-     * entfernen. Abschließend wird der Netzstatus überprüft
-     * (checkAndResetStatus).
+     * entfernen. Abschließend wird der Netzstatus einmal für alle entfernten
+     * Knoten überprüft (checkAndResetStatus).
      *
      */
     public void removePetriNode() {
@@ -444,13 +612,16 @@ public class WorkflownetContainerController implements Initializable {
                     petriNode.getShape(),
                     petriNode.getLabel());
             if (petriNode instanceof Place) {
-                this.workflownetContentPane.getChildren().remove(
-                        ((Place) petriNode).getMarking());
+                this.workflownetContentPane.getChildren().removeAll(
+                        ((Place) petriNode).getMarking(),
+                        ((Place) petriNode).getTokenLabel());
             }
             this.petriNodes.remove(petriNode.getId());
-            this.isSaved = false;
-            checkAndResetStatus();
+            this.wfnHandler.nodeRemoved(petriNode);
+            this.tokenGame.nodeRemoved(petriNode);
+            this.saveState.changed();
         }
+        checkAndResetStatus();
     }
 
     /**
@@ -469,6 +640,7 @@ public class WorkflownetContainerController implements Initializable {
             Arc arc = nextIterator.next();
             nextIterator.remove();
             arc.getEndNode().getPrevArcs().remove(arc);
+            arcChanged(arc, false);
             this.workflownetContentPane.getChildren().remove(arc);
         }
         while (prevIterator.hasNext()) {
@@ -476,6 +648,7 @@ public class WorkflownetContainerController implements Initializable {
             Arc arc = prevIterator.next();
             prevIterator.remove();
             arc.getStartNode().getNextArcs().remove(arc);
+            arcChanged(arc, false);
             this.workflownetContentPane.getChildren().remove(arc);
         }
     }
@@ -484,29 +657,62 @@ public class WorkflownetContainerController implements Initializable {
      * Diese Methode übeprüft mithilfe des WorkflownetHandler-Objekts
      * wfnHandler, ob die HashMap petriNodes ein gültiges Workflownetz
      * repräsentiert. Diese Information wird im Attribut isWorkflownet
-     * festgehalten.
+     * festgehalten. Der wfnHandler betrachtet dabei nur die Bereiche des
+     * Netzes, die seit der letzten Überprüfung geändert wurden.
      *
      * Falls ein Workflownetz besteht, werden Start- und Endstelle gesetzt und
-     * alle Transitionen aktualisiert.
+     * die Transitionen aktualisiert. Bestand schon vorher ein Workflownetz,
+     * sind das nur die Transitionen in changedTransitions. Dabei wird keine
+     * Momentaufnahme des Netzes erzeugt.
      *
      * Falls kein Workflownetz besteht, wird die Nachricht, die im Attribut
-     * message des wfnHandler-Objektes steht, dem Benutzer angezeigt und alle
-     * Knoten des Netzes in den Default-Zustand zurückgesetzt.
+     * message des wfnHandler-Objektes steht, dem Benutzer angezeigt. Die
+     * Knoten des Netzes werden nur dann in den Default-Zustand zurückgesetzt,
+     * wenn vorher ein Workflownetz bestand, da sie sich sonst bereits in
+     * diesem Zustand befinden.
      */
     private void checkAndResetStatus() {
-        this.isWorkflownet = this.wfnHandler.checkWorkflowStatus(this.petriNodes.values());
+        boolean wasWorkflownet = this.isWorkflownet && this.isStatusShown;
+        if (this.deviationGraph != null && !wfnHandler.isCurrent(this.deviationGraph)) {
+            clearDeviations();
+        }
+        this.isWorkflownet = this.wfnHandler.updateWorkflowStatus(this.petriNodes.values());
         this.mainController.getLeftVBoxController().resetWNetStatus(this.isWorkflownet);
+        this.mainController.getLeftVBoxController().resetSoundnessStatus(wfnHandler.getSoundnessResult());
         if (isWorkflownet) {
-            setStartAndEnd();
-            resetTransitions();
+            updateTransitions(!wasWorkflownet);
+            setStartAndEnd(!wasWorkflownet);
+            checkPossibleDeadlock();
         } else {
             mainController.getLeftVBoxController().showToast(wfnHandler.getMessage());
-            Iterator<PetriNode> iterator = this.petriNodes.values().iterator();
-            while (iterator.hasNext()) {
-                PetriNode petriNode = iterator.next();
-                petriNode.resetStatusToDefault(this.workflownetContentPane);
+            if (wasWorkflownet || !this.isStatusShown) {
+                setPetriNodesToDefault();
             }
         }
+        this.changedTransitions.clear();
+        this.isStatusShown = true;
+    }
+
+    /**
+     * Diese Methode meldet eine neue oder entfernte Kante an den wfnHandler
+     * und das Markenspiel tokenGame und vermerkt die Transition der Kante in
+     * changedTransitions. Die Kante muss bereits in die Kantenlisten ihrer
+     * Knoten eingetragen bzw. aus ihnen entfernt sein.
+     *
+     * @param arc Die Kante.
+     * @param added true, falls die Kante neu ist, false, falls sie entfernt
+     * wurde.
+     */
+    private void arcChanged(Arc arc, boolean added) {
+        if (added) {
+            this.wfnHandler.arcAdded(arc);
+        } else {
+            this.wfnHandler.arcRemoved(arc);
+        }
+        this.tokenGame.arcChanged(arc);
+        PetriNode transition = arc.getStartNode() instanceof Transition
+                ? arc.getStartNode() : arc.getEndNode();
+        this.changedTransitions.add((Transition) transition);
     }
 
     /**
@@ -545,6 +751,7 @@ public class WorkflownetContainerController implements Initializable {
                     Arc arc = new Arc(id, sourceNode, petriNode);
                     sourceNode.getNextArcs().add(arc);
                     petriNode.getPrevArcs().add(arc);
+                    arcChanged(arc, true);
                     workflownetContentPane.getChildren().add(arc);
                     arc.getContextMenu().initMenuItem(WorkflownetContainerController.this);
                     arc.toBack();
@@ -595,34 +802,190 @@ public class WorkflownetContainerController implements Initializable {
 
     /**
      * Diese Methode aktulisiert, je nach Wert des Attributs isWorkflownetz, die
-     * Statusanzeige im linken Bereich dr Benutzeroberfläche.
+     * Statusanzeige im linken Bereich dr Benutzeroberfläche. Außerdem wird das
+     * Ergebnis der letzten Soundness-Überprüfung des Netzes angezeigt.
      */
     void resetStatusView() {
         mainController.getLeftVBoxController().resetWNetStatus(this.isWorkflownet);
+        resetSoundnessStatus();
     }
 
     /**
-     * Diese Methode überprüft für jede Transition des Netzes, ob sie schaltbar
-     * ist. Falls keine schaltbare Transition gefunden wird, wird überprüft, ob
-     * ein Deadlock oder der Reguläre Endzustand besteht. Falls ja, wird dem
-     * Benutzer eine entsprechende Nachricht ausgegeben.
+     * Diese Methode zeigt das bekannte Ergebnis der Soundness-Überprüfung an
+     * und lässt im Hintergrund im AnalysisCache danach suchen. Sie wird nur
+     * nach dem Laden und beim Wechsel zu diesem Tab aufgerufen, nicht nach
+     * einer Änderung des Netzes. Ein dort gefundenes Ergebnis wird angezeigt, solange dieser Tab
+     * ausgewählt ist.
      */
-    private void resetTransitions() {
-        boolean isPossibleDeadlock = true;
-        Iterator<PetriNode> iterator = this.petriNodes.values().iterator();
-        while (iterator.hasNext()) {
-            PetriNode node = iterator.next();
-            if (node instanceof Transition) {
-                Transition trans = (Transition) node;
-                trans.checkTickableAndContact();
-                resetTickableEvent((Transition) trans);
-                if (trans.isTickable()) {
-                    isPossibleDeadlock = false;
+    private void resetSoundnessStatus() {
+        LeftVBoxController leftVBoxController = mainController.getLeftVBoxController();
+        leftVBoxController.resetSoundnessStatus(wfnHandler.getSoundnessResult());
+        wfnHandler.loadSoundnessResult(result -> {
+            if (this.tab.isSelected()) {
+                leftVBoxController.resetSoundnessStatus(result);
+            }
+        });
+    }
+
+
+    /**
+     * Diese Methode überträgt den Zustand des Markenspiels tokenGame in die
+     * Benutzeroberfläche. Ist all gesetzt, wird das Markenspiel vorher aus den
+     * Knoten neu aufgebaut und übernimmt die Markierung der Stellen, z.B.
+     * nach dem Laden. Andernfalls wurde es bereits bei jeder Änderung der
+     * Struktur angepasst, und da eine solche Änderung die Markierung nicht
+     * verändert, werden nur die Transitionen in changedTransitions
+     * aktualisiert.
+     *
+     * @param all true, falls alle Transitionen aktualisiert werden sollen.
+     */
+    private void updateTransitions(boolean all) {
+        if (all) {
+            this.tokenGame.reset(this.petriNodes.values());
+            for (PetriNode petriNode : this.petriNodes.values()) {
+                if (petriNode instanceof Transition) {
+                    resetTransition((Transition) petriNode);
+                }
+            }
+            return;
+        }
+        for (Transition transition : this.changedTransitions) {
+            // Entfernte Transitionen gehören nicht mehr zum Netz.
+            if (this.petriNodes.get(transition.getId()) == transition) {
+                resetTransition(transition);
+            }
+        }
+    }
+
+    /**
+     * Diese Methode aktualisiert die Transitionen, die beim letzten Schalten
+     * bzw. Setzen von Marken im Markenspiel tokenGame betroffen waren.
+     */
+    private void resetAffectedTransitions() {
+        for (int i = 0; i < tokenGame.getAffectedCount(); i++) {
+            resetTransition(tokenGame.getAffectedTransition(i));
+        }
+    }
+
+    /**
+     * Diese Methode lässt eine Transition schalten. Es werden nur die Stellen
+     * im Vor- und Nachbereich der Transition und die Transitionen in deren
+     * Umgebung aktualisiert.
+     *
+     * @param transition Die Transition, die schalten soll.
+     */
+    private void fireTransition(Transition transition) {
+        if (!tokenGame.isEnabled(transition)) {
+            return;
+        }
+        tokenGame.fire(transition);
+        for (int i = 0; i < tokenGame.getChangedPlaceCount(); i++) {
+            Place place = tokenGame.getChangedPlace(i);
+            place.setTokens(tokenGame.getTokens(place));
+        }
+        resetAffectedTransitions();
+        this.saveState.changed();
+        checkPossibleDeadlock();
+    }
+
+    /**
+     * Diese Methode setzt das Workflownetz auf den Anfangszustand zurück und
+     * lässt danach die übergebenen Transitionen nacheinander schalten, so dass
+     * der Benutzer die Schaltfolge verfolgen kann. Wird das Netz währenddessen
+     * verändert oder ist eine Transition nicht schaltbar, endet das Nachspielen.
+     *
+     * @param ids Die ids der Transitionen in der Reihenfolge des Schaltens.
+     */
+    void replay(List<String> ids) {
+        if (this.replayTimeline != null) {
+            this.replayTimeline.stop();
+        }
+        refreshNet();
+        if (!isWorkflownet) {
+            return;
+        }
+        NetGraph graph = wfnHandler.getGraph();
+        Timeline timeline = new Timeline();
+        for (int i = 0; i < ids.size(); i++) {
+            String id = ids.get(i);
+            timeline.getKeyFrames().add(new KeyFrame(Duration.millis(600 * (i + 1)), event -> {
+                PetriNode petriNode = this.petriNodes.get(id);
+                if (!wfnHandler.isCurrent(graph) || !(petriNode instanceof Transition)
+                        || !((Transition) petriNode).isTickable()) {
+                    this.replayTimeline.stop();
+                    return;
                 }
+                fireTransition((Transition) petriNode);
+            }));
+        }
+        this.replayTimeline = timeline;
+        timeline.play();
+    }
+
+    /**
+     * Diese Methode zeigt über jeder Transition an, wie oft sie in den
+     * Alignments eines Ereignislogs synchron und wie oft sie nur im Modell
+     * geschaltet hat. Transitionen, die nur im Modell schalten, werden
+     * hervorgehoben. Die Beschriftungen bleiben bis zur nächsten Änderung
+     * des Netzes bestehen.
+     *
+     * @param result Das Ergebnis der Alignments.
+     */
+    void showDeviations(AlignmentResult result) {
+        clearDeviations();
+        NetGraph graph = result.getGraph();
+        if (!wfnHandler.isCurrent(graph)) {
+            return;
+        }
+        for (int t = 0; t < graph.getTransitionCount(); t++) {
+            long synchronous = result.getSynchronousMoves(t);
+            long model = result.getModelMoves(t);
+            PetriNode transition = graph.getPetriNode(graph.getPlaceCount() + t);
+            if (transition == null || synchronous + model == 0) {
+                continue;
             }
+            Text text = new Text(String.format(MyMessages.DEVIATION_LABEL, synchronous, model));
+            text.setStyle("-fx-font: 13 arial; ");
+            text.setFill(model > 0 ? MyColors.DEVIATION : MyColors.CONFORMING);
+            text.xProperty().bind(transition.getPosXProperty());
+            text.yProperty().bind(transition.getPosYProperty().subtract(8));
+            text.translateXProperty().bind(transition.getLabel().translateXProperty());
+            text.translateYProperty().bind(transition.getLabel().translateYProperty());
+            text.setMouseTransparent(true);
+            this.deviationLabels.add(text);
         }
-        if (isPossibleDeadlock) {
-            wfnHandler.checkPossibleDeadlock(this.petriNodes.values());
+        this.workflownetContentPane.getChildren().addAll(this.deviationLabels);
+        this.deviationGraph = graph;
+    }
+
+    /**
+     * Diese Methode entfernt die Beschriftungen der letzten Alignments.
+     */
+    private void clearDeviations() {
+        this.workflownetContentPane.getChildren().removeAll(this.deviationLabels);
+        this.deviationLabels.clear();
+        this.deviationGraph = null;
+    }
+
+    /**
+     * Diese Methode übernimmt den Zustand einer Transition aus dem
+     * Markenspiel tokenGame.
+     *
+     * @param trans Die Transition.
+     */
+    private void resetTransition(Transition trans) {
+        trans.setTickableAndContact(tokenGame.isEnabled(trans), tokenGame.hasContact(trans));
+        resetTickableEvent(trans);
+    }
+
+    /**
+     * Diese Methode überprüft, ob ein Deadlock oder der Reguläre Endzustand
+     * besteht, falls keine Transition schaltbar ist, und gibt dem Benutzer
+     * eine entsprechende Nachricht aus.
+     */
+    private void checkPossibleDeadlock() {
+        if (tokenGame.getEnabledCount() == 0) {
+            wfnHandler.checkPossibleDeadlock(tokenGame);
             mainController.getLeftVBoxController().showToast(wfnHandler.getMessage());
         }
     }
@@ -630,21 +993,28 @@ public class WorkflownetContainerController implements Initializable {
     /**
      * Diese Methode setzt die Start- und Endstelle eines gültigen
      * Workflownetzes. Falls keine Stellen im Netz markiert sind, wird die
-     * Anfangsstelle markiert.
+     * Anfangsstelle markiert. Die Markierung wird dem Markenspiel tokenGame
+     * entnommen, das vorher mit updateTransitions abgeglichen sein muss.
+     *
+     * @param showMarking true, falls die Marken noch nicht angezeigt werden,
+     * z.B. nach dem Laden einer Datei.
      */
-    private void setStartAndEnd() {
+    private void setStartAndEnd(boolean showMarking) {
         Place endPlace = wfnHandler.getEndPlace();
         endPlace.setAsEnd();
         Place startPlace = wfnHandler.getStartPlace();
-        HashSet<Place> markedPlaces = wfnHandler.getMarkedPlaces(this.petriNodes.values());
-        if (markedPlaces.isEmpty()) {
-            startPlace.setAsMarked(this.workflownetContentPane);
-        } else {
-            Iterator<Place> iterator = markedPlaces.iterator();
-            while (iterator.hasNext()) {
-                ((Place) iterator.next()).setAsMarked(workflownetContentPane);
+        if (showMarking) {
+            for (PetriNode petriNode : this.petriNodes.values()) {
+                if (petriNode instanceof Place && tokenGame.getTokens((Place) petriNode) > 0) {
+                    ((Place) petriNode).setAsMarked();
+                }
             }
         }
+        if (tokenGame.getMarkedCount() == 0) {
+            startPlace.setAsMarked();
+            tokenGame.setTokens(startPlace, 1);
+            resetAffectedTransitions();
+        }
         startPlace.setAsStart();
     }
 
@@ -661,13 +1031,7 @@ public class WorkflownetContainerController implements Initializable {
         EventHandler<MouseEvent> clickOnTickableTransitionEvent = (MouseEvent event) -> {
             if (event.getButton().equals(MouseButton.PRIMARY)) {
                 if (event.getClickCount() == 2) {
-                    Set<Place> placesForUnsetAsMarked = wfnHandler.getMarkedPrevPlaces(transition);
-                    unmarkPlaces(placesForUnsetAsMarked);
-                    Set<Place> placesForSetAsMarked = wfnHandler.getUnmarkedNextPlaces(transition);
-                    markPlaces(placesForSetAsMarked);
-                    transition.setTickable(false);
-                    this.isSaved = false;
-                    resetTransitions();
+                    fireTransition(transition);
                 }
 
             }
@@ -685,33 +1049,6 @@ public class WorkflownetContainerController implements Initializable {
         transition.setFill();
     }
 
-    /**
-     * Diese Methode hebt die Markierung der Stellen auf, die im Set-Objekt
-     * placesForUnset übergeben werden.
-     *
-     * @param placesForUnset Ein Set mit Stellen, deren Markierung aufgehoben
-     * werden sollen.
-     */
-    private void unmarkPlaces(Set<Place> placesForUnset) {
-        Iterator<Place> iterator = placesForUnset.iterator();
-        while (iterator.hasNext()) {
-            iterator.next().unsetAsMarked(this.workflownetContentPane);
-        }
-    }
-
-    /**
-     * Diese Methode markiert alle Stellen, die im Set-Objekt placesForSet
-     * übergeben werden.
-     *
-     * @param placesForSet Ein Set mit Stellen, die markiert werden sollen.
-     */
-    private void markPlaces(Set<Place> placesForSet) {
-        Iterator<Place> iterator = placesForSet.iterator();
-        while (iterator.hasNext()) {
-            iterator.next().setAsMarked(this.workflownetContentPane);
-        }
-    }
-
     /**
      * Diese Methode entfernt eine Kante. Dabei ist darauf zu achten, dass die
      * Kantenlisten der betroffenen Knoten aktualisiert werden. Abschließend
@@ -725,6 +1062,7 @@ public class WorkflownetContainerController implements Initializable {
         PetriNode endNode = sourceArc.getEndNode();
         startNode.getNextArcs().remove(sourceArc);
         endNode.getPrevArcs().remove(sourceArc);
+        arcChanged(sourceArc, false);
         this.workflownetContentPane.getChildren().remove(sourceArc);
         checkAndResetStatus();
     }
@@ -743,8 +1081,66 @@ public class WorkflownetContainerController implements Initializable {
 
     }
 
+    /**
+     * Diese Methode setzt die Anzahl der Marken einer Stelle und überprüft
+     * danach die Transitionen in ihrer Umgebung. Marken werden nur in einem gültigen
+     * Workflownetz angezeigt, andernfalls wird dem Benutzer eine Nachricht
+     * ausgegeben. Dasselbe gilt für eine ungültige Eingabe.
+     *
+     * @param place Die Stelle.
+     * @param count Die Anzahl der Marken als String.
+     */
+    void setTokens(Place place, String count) {
+        if (!isWorkflownet) {
+            mainController.getLeftVBoxController().showToast(MyMessages.NO_WORKFLOWNET);
+            return;
+        }
+        int value;
+        try {
+            value = Integer.parseInt(count.trim());
+        } catch (NumberFormatException e) {
+            value = -1;
+        }
+        if (value < 0) {
+            mainController.getLeftVBoxController().showToast(MyMessages.NO_VALID_TOKENS);
+            return;
+        }
+        if (value != place.getTokens()) {
+            place.setTokens(value);
+            this.saveState.changed();
+            tokenGame.setTokens(place, value);
+            resetAffectedTransitions();
+            checkPossibleDeadlock();
+        }
+    }
+
     void setAsSaved(boolean isSaved) {
-        this.isSaved = isSaved;
+        this.saveState.setSaved(isSaved);
+    }
+
+    /**
+     * Diese Methode gibt zurück, ob das Netz dieses Tabs gerade gespeichert
+     * wird.
+     *
+     * @return true, falls ein Speichervorgang noch nicht beendet ist.
+     */
+    boolean isSaving() {
+        return this.saveState.isSaving();
+    }
+
+    /**
+     * Diese Methode nimmt keine neuen Speichervorgänge mehr an und wartet auf
+     * die laufenden. Sie wird beim Beenden der Anwendung aufgerufen, damit
+     * keine Datei halb geschrieben zurückbleibt.
+     *
+     * @param timeout Die maximale Wartezeit in Sekunden.
+     * @return true, falls alle Speichervorgänge beendet sind.
+     * @throws InterruptedException Falls der Thread beim Warten unterbrochen
+     * wird.
+     */
+    public static boolean awaitPendingSaves(long timeout) throws InterruptedException {
+        SAVE_EXECUTOR.shutdown();
+        return SAVE_EXECUTOR.awaitTermination(timeout, TimeUnit.SECONDS);
     }
 
     /**
@@ -0,0 +1,327 @@
+package discovery;
+
+import conformance.EventLogReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Diese Klasse hält die Directly-Follows-Relation eines Ereignislogs fest:
+ * wie oft eine Aktivität b direkt auf eine Aktivität a folgt, wie oft eine
+ * Aktivität einen Fall beginnt bzw. beendet und wie oft sie insgesamt
+ * vorkommt. Das Log wird dazu in einem einzigen Durchlauf gelesen, jeder Fall
+ * wird nach dem Zählen verworfen. Der Speicherbedarf hängt daher nur von der
+ * Anzahl der Aktivitäten und der verschiedenen Kanten ab, nicht von der Länge
+ * des Logs.
+ *
+ * Die Aktivitäten werden in der Reihenfolge ihres ersten Auftretens
+ * durchnummeriert. Die Nachfolger und Vorgänger einer Aktivität werden nach
+ * dem Lesen einmalig in kompakte Arrays übertragen (siehe getSuccessors).
+ */
+public class DirectlyFollowsGraph {
+
+    /**
+     * Zuordnung der Aktivitätsnamen zu ihrem Index.
+     */
+    private final Map<String, Integer> activityIndex = new HashMap<>();
+
+    /**
+     * Die Namen der Aktivitäten, nach Index geordnet.
+     */
+    private final List<String> activityNames = new ArrayList<>();
+
+    /**
+     * Häufigkeit jeder Aktivität.
+     */
+    private long[] frequencies = new long[16];
+
+    /**
+     * Anzahl der Fälle, die mit der Aktivität beginnen.
+     */
+    private long[] startCounts = new long[16];
+
+    /**
+     * Anzahl der Fälle, die mit der Aktivität enden.
+     */
+    private long[] endCounts = new long[16];
+
+    /**
+     * Häufigkeit der Kanten a → b.
+     */
+    private final EdgeCountMap edges = new EdgeCountMap();
+
+    /**
+     * Anzahl der gelesenen Fälle.
+     */
+    private long caseCount;
+
+    /**
+     * Anzahl der gelesenen Ereignisse.
+     */
+    private long eventCount;
+
+    /**
+     * Anzahl der Fälle ohne Ereignisse.
+     */
+    private long emptyCaseCount;
+
+    /**
+     * Für jede Aktivität der Beginn ihrer Nachfolger in successors bzw. null,
+     * falls die Arrays seit der letzten Änderung nicht erzeugt wurden.
+     */
+    private int[] successorStart;
+
+    /**
+     * Die Nachfolger aller Aktivitäten, nach Aktivität gruppiert.
+     */
+    private int[] successors;
+
+    /**
+     * Für jede Aktivität der Beginn ihrer Vorgänger in predecessors.
+     */
+    private int[] predecessorStart;
+
+    /**
+     * Die Vorgänger aller Aktivitäten, nach Aktivität gruppiert.
+     */
+    private int[] predecessors;
+
+    /**
+     * Diese Methode liest ein Ereignislog vollständig ein.
+     *
+     * @param reader Das geöffnete Ereignislog.
+     * @return Die Directly-Follows-Relation des Logs.
+     * @throws IOException Falls das Log nicht gelesen werden kann.
+     * @throws CancellationException Falls der Thread unterbrochen wurde.
+     */
+    public static DirectlyFollowsGraph read(EventLogReader reader) throws IOException {
+        DirectlyFollowsGraph graph = new DirectlyFollowsGraph();
+        while (reader.next()) {
+            graph.addCase(reader.getActivities());
+            if ((graph.caseCount & 0xFFF) == 0 && Thread.currentThread().isInterrupted()) {
+                throw new CancellationException();
+            }
+        }
+        return graph;
+    }
+
+    /**
+     * Diese Methode zählt die Ereignisse eines Falls.
+     *
+     * @param activities Die Aktivitäten des Falls in ihrer Reihenfolge.
+     */
+    public void addCase(List<String> activities) {
+        caseCount++;
+        successorStart = null;
+        if (activities.isEmpty()) {
+            emptyCaseCount++;
+            return;
+        }
+        int previous = -1;
+        for (String name : activities) {
+            int a = intern(name);
+            frequencies[a]++;
+            if (previous < 0) {
+                startCounts[a]++;
+            } else {
+                edges.add(previous, a, 1);
+            }
+            previous = a;
+        }
+        endCounts[previous]++;
+        eventCount += activities.size();
+    }
+
+    /**
+     * Diese Methode gibt den Index einer Aktivität zurück und legt sie bei
+     * Bedarf an.
+     *
+     * @param name Der Name der Aktivität.
+     * @return Der Index der Aktivität.
+     */
+    private int intern(String name) {
+        Integer a = activityIndex.get(name);
+        if (a != null) {
+            return a;
+        }
+        int index = activityNames.size();
+        activityIndex.put(name, index);
+        activityNames.add(name);
+        if (index == frequencies.length) {
+            frequencies = Arrays.copyOf(frequencies, index * 2);
+            startCounts = Arrays.copyOf(startCounts, index * 2);
+            endCounts = Arrays.copyOf(endCounts, index * 2);
+        }
+        return index;
+    }
+
+    /**
+     * Diese Methode überträgt die Kanten in die Arrays successors und
+     * predecessors. Die Nachfolger bzw. Vorgänger einer Aktivität sind
+     * aufsteigend sortiert.
+     */
+    private void buildAdjacency() {
+        int n = activityNames.size();
+        int m = edges.size();
+        int[] outStart = new int[n + 1];
+        int[] inStart = new int[n + 1];
+        for (int i = 0; i < edges.capacity(); i++) {
+            long key = edges.getKey(i);
+            if (key >= 0) {
+                outStart[(int) (key >>> 32) + 1]++;
+                inStart[(int) key + 1]++;
+            }
+        }
+        for (int a = 0; a < n; a++) {
+            outStart[a + 1] += outStart[a];
+            inStart[a + 1] += inStart[a];
+        }
+        int[] out = new int[m];
+        int[] in = new int[m];
+        int[] outFill = Arrays.copyOf(outStart, n);
+        int[] inFill = Arrays.copyOf(inStart, n);
+        for (int i = 0; i < edges.capacity(); i++) {
+            long key = edges.getKey(i);
+            if (key >= 0) {
+                int a = (int) (key >>> 32);
+                int b = (int) key;
+                out[outFill[a]++] = b;
+                in[inFill[b]++] = a;
+            }
+        }
+        for (int a = 0; a < n; a++) {
+            Arrays.sort(out, outStart[a], outStart[a + 1]);
+            Arrays.sort(in, inStart[a], inStart[a + 1]);
+        }
+        this.successors = out;
+        this.predecessors = in;
+        this.predecessorStart = inStart;
+        this.successorStart = outStart;
+    }
+
+    /**
+     * Diese Methode gibt die Nachfolger einer Aktivität zurück.
+     *
+     * @param a Index der Aktivität.
+     * @return Die Indizes der Aktivitäten b mit einer Kante a → b.
+     */
+    public int[] getSuccessors(int a) {
+        if (successorStart == null) {
+            buildAdjacency();
+        }
+        return Arrays.copyOfRange(successors, successorStart[a], successorStart[a + 1]);
+    }
+
+    /**
+     * Diese Methode gibt die Vorgänger einer Aktivität zurück.
+     *
+     * @param a Index der Aktivität.
+     * @return Die Indizes der Aktivitäten b mit einer Kante b → a.
+     */
+    public int[] getPredecessors(int a) {
+        if (successorStart == null) {
+            buildAdjacency();
+        }
+        return Arrays.copyOfRange(predecessors, predecessorStart[a], predecessorStart[a + 1]);
+    }
+
+    /**
+     * Diese Methode gibt zurück, wie oft b direkt auf a folgt.
+     *
+     * @param a Index der ersten Aktivität.
+     * @param b Index der folgenden Aktivität.
+     * @return Die Häufigkeit der Kante a → b.
+     */
+    public long getEdgeCount(int a, int b) {
+        return edges.get(a, b);
+    }
+
+    /**
+     * Diese Methode gibt die Anzahl der Aktivitäten zurück.
+     *
+     * @return Die Anzahl der Aktivitäten.
+     */
+    public int getActivityCount() {
+        return activityNames.size();
+    }
+
+    /**
+     * Diese Methode gibt den Namen einer Aktivität zurück.
+     *
+     * @param a Index der Aktivität.
+     * @return Der Name der Aktivität.
+     */
+    public String getActivityName(int a) {
+        return activityNames.get(a);
+    }
+
+    /**
+     * Diese Methode gibt die Häufigkeit einer Aktivität zurück.
+     *
+     * @param a Index der Aktivität.
+     * @return Die Anzahl ihrer Ereignisse.
+     */
+    public long getFrequency(int a) {
+        return frequencies[a];
+    }
+
+    /**
+     * Diese Methode gibt zurück, wie viele Fälle mit einer Aktivität beginnen.
+     *
+     * @param a Index der Aktivität.
+     * @return Die Anzahl der Fälle.
+     */
+    public long getStartCount(int a) {
+        return startCounts[a];
+    }
+
+    /**
+     * Diese Methode gibt zurück, wie viele Fälle mit einer Aktivität enden.
+     *
+     * @param a Index der Aktivität.
+     * @return Die Anzahl der Fälle.
+     */
+    public long getEndCount(int a) {
+        return endCounts[a];
+    }
+
+    /**
+     * Diese Methode gibt die Anzahl der verschiedenen Kanten zurück.
+     *
+     * @return Die Anzahl der Kanten.
+     */
+    public int getEdgeCount() {
+        return edges.size();
+    }
+
+    /**
+     * Diese Methode gibt das Attribut caseCount zurück.
+     *
+     * @return Das Attribut caseCount.
+     */
+    public long getCaseCount() {
+        return caseCount;
+    }
+
+    /**
+     * Diese Methode gibt das Attribut eventCount zurück.
+     *
+     * @return Das Attribut eventCount.
+     */
+    public long getEventCount() {
+        return eventCount;
+    }
+
+    /**
+     * Diese Methode gibt das Attribut emptyCaseCount zurück.
+     *
+     * @return Das Attribut emptyCaseCount.
+     */
+    public long getEmptyCaseCount() {
+        return emptyCaseCount;
+    }
+}
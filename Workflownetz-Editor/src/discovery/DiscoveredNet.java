@@ -0,0 +1,577 @@
+package discovery;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import petriNodes.Arc;
+import petriNodes.PetriNode;
+import petriNodes.Place;
+import petriNodes.Transition;
+import resources.MyMessages;
+import stateSpace.IntArrayList;
+
+/**
+ * Diese Klasse übersetzt einen Prozessbaum in ein Workflownetz. Jeder Knoten
+ * wird zwischen einer Eingangs- und einer Ausgangsstelle eingesetzt:
+ *
+ * - Aktivität bzw. stiller Schritt: eine Transition.
+ * - Sequenz: die Kinder hintereinander, verbunden über neue Stellen.
+ * - Auswahl: alle Kinder zwischen denselben beiden Stellen.
+ * - Parallelität: eine stille Transition verteilt die Marke auf die Kinder,
+ * eine zweite sammelt sie wieder ein.
+ * - Schleife: Rumpf und Rücksprünge zwischen zwei eigenen Stellen, die über
+ * stille Transitionen betreten und verlassen werden.
+ *
+ * Anschließend werden stille Transitionen, die nur eine Marke weiterreichen,
+ * mit den Regeln zur Verschmelzung serieller Stellen und Transitionen von
+ * Murata entfernt. Das Verhalten des Netzes bleibt dabei erhalten. Zuletzt
+ * werden die Knoten schichtweise nach ihrem Abstand zur Startstelle
+ * angeordnet.
+ *
+ * Stille Transitionen tragen eine leere Beschriftung.
+ */
+public class DiscoveredNet {
+
+    /**
+     * Horizontaler Abstand zwischen zwei Schichten.
+     */
+    private static final double LAYER_DISTANCE = 120;
+
+    /**
+     * Vertikaler Abstand zwischen zwei Knoten einer Schicht.
+     */
+    private static final double NODE_DISTANCE = 110;
+
+    /**
+     * Die Beschriftungen der Transitionen, null für stille Transitionen.
+     */
+    private final List<String> labels = new ArrayList<>();
+
+    /**
+     * Die Stellen im Vorbereich jeder Transition.
+     */
+    private final List<IntArrayList> pre = new ArrayList<>();
+
+    /**
+     * Die Stellen im Nachbereich jeder Transition.
+     */
+    private final List<IntArrayList> post = new ArrayList<>();
+
+    /**
+     * Die Transitionen, die auf jede Stelle legen.
+     */
+    private final List<IntArrayList> producers = new ArrayList<>();
+
+    /**
+     * Die Transitionen, die von jeder Stelle nehmen.
+     */
+    private final List<IntArrayList> consumers = new ArrayList<>();
+
+    /**
+     * Index der Startstelle.
+     */
+    private final int startPlace;
+
+    /**
+     * Index der Endstelle.
+     */
+    private final int endPlace;
+
+    /**
+     * Anzahl der Fälle im Log.
+     */
+    private final long caseCount;
+
+    /**
+     * Anzahl der Ereignisse im Log.
+     */
+    private final long eventCount;
+
+    /**
+     * Anzahl der Aktivitäten im Log.
+     */
+    private final int activityCount;
+
+    /**
+     * Die verbleibenden Stellen nach der Vereinfachung.
+     */
+    private int[] places;
+
+    /**
+     * Die verbleibenden Transitionen nach der Vereinfachung.
+     */
+    private int[] transitions;
+
+    /**
+     * Dieser Konstruktor übersetzt den Prozessbaum und vereinfacht das Netz.
+     *
+     * @param tree Der Prozessbaum.
+     * @param dfg Die Directly-Follows-Relation, aus der er entstanden ist.
+     */
+    public DiscoveredNet(ProcessTree tree, DirectlyFollowsGraph dfg) {
+        this.caseCount = dfg.getCaseCount();
+        this.eventCount = dfg.getEventCount();
+        this.activityCount = dfg.getActivityCount();
+        this.startPlace = newPlace();
+        this.endPlace = newPlace();
+        translate(tree);
+        reduce();
+    }
+
+    /**
+     * Diese Methode setzt die Knoten des Prozessbaums ein. Statt einer
+     * Rekursion wird ein Stapel aus (Knoten, Eingang, Ausgang) verwendet.
+     *
+     * @param tree Der Prozessbaum.
+     */
+    private void translate(ProcessTree tree) {
+        Deque<Object[]> stack = new ArrayDeque<>();
+        stack.push(new Object[]{tree, startPlace, endPlace});
+        while (!stack.isEmpty()) {
+            Object[] entry = stack.pop();
+            ProcessTree node = (ProcessTree) entry[0];
+            int in = (Integer) entry[1];
+            int out = (Integer) entry[2];
+            List<ProcessTree> children = node.getChildren();
+            switch (node.getOperator()) {
+                case ACTIVITY:
+                case SILENT:
+                    newTransition(node.getLabel(), in, out);
+                    break;
+                case SEQUENCE:
+                    int from = in;
+                    for (int i = 0; i < children.size(); i++) {
+                        int to = i == children.size() - 1 ? out : newPlace();
+                        stack.push(new Object[]{children.get(i), from, to});
+                        from = to;
+                    }
+                    break;
+                case EXCLUSIVE_CHOICE:
+                    for (ProcessTree child : children) {
+                        stack.push(new Object[]{child, in, out});
+                    }
+                    break;
+                case PARALLEL:
+                    int split = newTransition(null, in, -1);
+                    int join = newTransition(null, -1, out);
+                    for (ProcessTree child : children) {
+                        int childIn = newPlace();
+                        int childOut = newPlace();
+                        addArc(split, childIn, true);
+                        addArc(join, childOut, false);
+                        stack.push(new Object[]{child, childIn, childOut});
+                    }
+                    break;
+                default:
+                    int loopIn = newPlace();
+                    int loopOut = newPlace();
+                    newTransition(null, in, loopIn);
+                    newTransition(null, loopOut, out);
+                    stack.push(new Object[]{children.get(0), loopIn, loopOut});
+                    for (int i = 1; i < children.size(); i++) {
+                        stack.push(new Object[]{children.get(i), loopOut, loopIn});
+                    }
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Diese Methode legt eine neue Stelle an.
+     *
+     * @return Der Index der Stelle.
+     */
+    private int newPlace() {
+        producers.add(new IntArrayList(2));
+        consumers.add(new IntArrayList(2));
+        return producers.size() - 1;
+    }
+
+    /**
+     * Diese Methode legt eine neue Transition an.
+     *
+     * @param label Die Beschriftung oder null.
+     * @param in Die Stelle im Vorbereich oder -1.
+     * @param out Die Stelle im Nachbereich oder -1.
+     * @return Der Index der Transition.
+     */
+    private int newTransition(String label, int in, int out) {
+        labels.add(label);
+        pre.add(new IntArrayList(2));
+        post.add(new IntArrayList(2));
+        int t = labels.size() - 1;
+        if (in >= 0) {
+            addArc(t, in, false);
+        }
+        if (out >= 0) {
+            addArc(t, out, true);
+        }
+        return t;
+    }
+
+    /**
+     * Diese Methode fügt eine Kante zwischen einer Transition und einer
+     * Stelle ein.
+     *
+     * @param t Die Transition.
+     * @param p Die Stelle.
+     * @param output true für t → p, false für p → t.
+     */
+    private void addArc(int t, int p, boolean output) {
+        if (output) {
+            post.get(t).add(p);
+            producers.get(p).add(t);
+        } else {
+            pre.get(t).add(p);
+            consumers.get(p).add(t);
+        }
+    }
+
+    /**
+     * Diese Methode entfernt stille Transitionen, solange eine der beiden
+     * folgenden Regeln anwendbar ist. Entfernte Knoten werden nur markiert
+     * und am Ende aussortiert.
+     *
+     * - Hat eine stille Transition t genau eine Stelle p im Vorbereich und
+     * ist t der einzige Abnehmer von p, legen die Erzeuger von p ihre Marke
+     * direkt in den Nachbereich von t.
+     * - Hat eine stille Transition t genau eine Stelle q im Nachbereich und
+     * ist t der einzige Erzeuger von q und der einzige Abnehmer aller Stellen
+     * im Vorbereich, nehmen die Abnehmer von q ihre Marken direkt aus dem
+     * Vorbereich von t.
+     *
+     * Start- und Endstelle bleiben dabei immer erhalten.
+     */
+    private void reduce() {
+        int transitionCount = labels.size();
+        boolean[] removedTransition = new boolean[transitionCount];
+        boolean[] removedPlace = new boolean[producers.size()];
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int t = 0; t < transitionCount; t++) {
+                if (removedTransition[t] || labels.get(t) != null) {
+                    continue;
+                }
+                int p = fuseForward(t);
+                if (p < 0) {
+                    p = fuseBackward(t);
+                }
+                if (p >= 0) {
+                    removedTransition[t] = true;
+                    removedPlace[p] = true;
+                    changed = true;
+                }
+            }
+        }
+        IntArrayList keptPlaces = new IntArrayList(producers.size());
+        for (int p = 0; p < producers.size(); p++) {
+            if (!removedPlace[p]) {
+                keptPlaces.add(p);
+            }
+        }
+        IntArrayList keptTransitions = new IntArrayList(transitionCount);
+        for (int t = 0; t < transitionCount; t++) {
+            if (!removedTransition[t]) {
+                keptTransitions.add(t);
+            }
+        }
+        this.places = keptPlaces.toArray();
+        this.transitions = keptTransitions.toArray();
+    }
+
+    /**
+     * Diese Methode wendet die erste Regel von reduce auf t an.
+     *
+     * @param t Die stille Transition.
+     * @return Die entfernte Stelle oder -1, falls die Regel nicht passt.
+     */
+    private int fuseForward(int t) {
+        if (pre.get(t).size() != 1) {
+            return -1;
+        }
+        int p = pre.get(t).get(0);
+        IntArrayList sources = producers.get(p);
+        if (consumers.get(p).size() != 1 || sources.size() == 0 || contains(post.get(t), p)) {
+            return -1;
+        }
+        for (int i = 0; i < sources.size(); i++) {
+            if (intersects(post.get(sources.get(i)), post.get(t))) {
+                return -1;
+            }
+        }
+        IntArrayList targets = post.get(t);
+        for (int i = 0; i < sources.size(); i++) {
+            int r = sources.get(i);
+            remove(post.get(r), p);
+            for (int j = 0; j < targets.size(); j++) {
+                addArc(r, targets.get(j), true);
+            }
+        }
+        for (int j = 0; j < targets.size(); j++) {
+            remove(producers.get(targets.get(j)), t);
+        }
+        return p;
+    }
+
+    /**
+     * Diese Methode wendet die zweite Regel von reduce auf t an.
+     *
+     * @param t Die stille Transition.
+     * @return Die entfernte Stelle oder -1, falls die Regel nicht passt.
+     */
+    private int fuseBackward(int t) {
+        if (post.get(t).size() != 1) {
+            return -1;
+        }
+        int q = post.get(t).get(0);
+        IntArrayList sinks = consumers.get(q);
+        IntArrayList sources = pre.get(t);
+        if (producers.get(q).size() != 1 || sinks.size() == 0 || sources.size() == 0
+                || contains(sources, q)) {
+            return -1;
+        }
+        for (int i = 0; i < sources.size(); i++) {
+            if (consumers.get(sources.get(i)).size() != 1) {
+                return -1;
+            }
+        }
+        for (int i = 0; i < sinks.size(); i++) {
+            if (intersects(pre.get(sinks.get(i)), sources)) {
+                return -1;
+            }
+        }
+        for (int j = 0; j < sources.size(); j++) {
+            remove(consumers.get(sources.get(j)), t);
+        }
+        for (int i = 0; i < sinks.size(); i++) {
+            int c = sinks.get(i);
+            remove(pre.get(c), q);
+            for (int j = 0; j < sources.size(); j++) {
+                addArc(c, sources.get(j), false);
+            }
+        }
+        return q;
+    }
+
+    /**
+     * Diese Methode prüft, ob eine Liste einen Wert enthält.
+     *
+     * @param list Die Liste.
+     * @param value Der Wert.
+     * @return true, falls der Wert enthalten ist.
+     */
+    private static boolean contains(IntArrayList list, int value) {
+        for (int i = 0; i < list.size(); i++) {
+            if (list.get(i) == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Diese Methode prüft, ob zwei Listen einen gemeinsamen Wert haben.
+     *
+     * @param a Die erste Liste.
+     * @param b Die zweite Liste.
+     * @return true, falls ein Wert in beiden Listen vorkommt.
+     */
+    private static boolean intersects(IntArrayList a, IntArrayList b) {
+        for (int i = 0; i < b.size(); i++) {
+            if (contains(a, b.get(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Diese Methode entfernt einen Wert aus einer Liste. Der letzte Wert
+     * rückt an seine Stelle.
+     *
+     * @param list Die Liste.
+     * @param value Der Wert.
+     */
+    private static void remove(IntArrayList list, int value) {
+        for (int i = 0; i < list.size(); i++) {
+            if (list.get(i) == value) {
+                list.set(i, list.get(list.size() - 1));
+                list.removeLast();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Diese Methode ordnet jedem Knoten eine Schicht zu: den Abstand zur
+     * Startstelle bei einer Breitensuche über die Kanten. Knoten werden
+     * innerhalb ihrer Schicht in der Reihenfolge der Suche untereinander
+     * gesetzt.
+     *
+     * @return Für jede Stelle und dahinter für jede Transition die Position
+     * {x, y}.
+     */
+    private double[][] layout() {
+        int placeCount = producers.size();
+        int[] layer = new int[placeCount + labels.size()];
+        Arrays.fill(layer, -1);
+        int[] queue = new int[layer.length];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = startPlace;
+        layer[startPlace] = 0;
+        while (head < tail) {
+            int node = queue[head++];
+            IntArrayList next = node < placeCount ? consumers.get(node) : post.get(node - placeCount);
+            int offset = node < placeCount ? placeCount : 0;
+            for (int i = 0; i < next.size(); i++) {
+                int v = next.get(i) + offset;
+                if (layer[v] < 0) {
+                    layer[v] = layer[node] + 1;
+                    queue[tail++] = v;
+                }
+            }
+        }
+        int maxLayer = 0;
+        for (int i = 0; i < tail; i++) {
+            maxLayer = Math.max(maxLayer, layer[queue[i]]);
+        }
+        // Die Endstelle steht immer ganz rechts.
+        layer[endPlace] = maxLayer;
+        int[] rows = new int[maxLayer + 2];
+        double[][] positions = new double[layer.length][];
+        for (int i = 0; i < tail; i++) {
+            int node = queue[i];
+            if (node != endPlace) {
+                positions[node] = position(layer[node], rows[layer[node]]++);
+            }
+        }
+        positions[endPlace] = position(maxLayer, rows[maxLayer]++);
+        return positions;
+    }
+
+    /**
+     * Diese Methode berechnet die Koordinaten eines Knotens.
+     *
+     * @param layer Die Schicht.
+     * @param row Die Position in der Schicht.
+     * @return Die Koordinaten {x, y}.
+     */
+    private static double[] position(int layer, int row) {
+        return new double[]{50 + layer * LAYER_DISTANCE, 50 + row * NODE_DISTANCE};
+    }
+
+    /**
+     * Diese Methode erzeugt die Knoten und Kanten für die
+     * Benutzeroberfläche, wie sie auch der PNMLParser beim Laden erzeugt.
+     * Stellen und Transitionen werden mit "P" bzw. "T" und Kanten mit "K"
+     * fortlaufend nummeriert. Da JavaFX-Objekte entstehen, muss sie im
+     * JavaFX-Thread aufgerufen werden.
+     *
+     * @return Die Knoten des Netzes nach ihrer id.
+     */
+    public Map<String, PetriNode> toPetriNodes() {
+        double[][] positions = layout();
+        Map<String, PetriNode> nodeMap = new HashMap<>();
+        int placeCount = producers.size();
+        PetriNode[] placeNodes = new PetriNode[placeCount];
+        for (int i = 0; i < places.length; i++) {
+            int p = places[i];
+            Place place = new Place("P" + (i + 1));
+            placeNodes[p] = place;
+            setPosition(place, positions[p]);
+            nodeMap.put(place.getId(), place);
+        }
+        int arcCount = 0;
+        for (int i = 0; i < transitions.length; i++) {
+            int t = transitions[i];
+            Transition transition = new Transition("T" + (i + 1));
+            transition.getLabel().setText(labels.get(t) == null ? "" : labels.get(t));
+            setPosition(transition, positions[placeCount + t]);
+            nodeMap.put(transition.getId(), transition);
+            for (int j = 0; j < pre.get(t).size(); j++) {
+                connect("K" + (++arcCount), placeNodes[pre.get(t).get(j)], transition);
+            }
+            for (int j = 0; j < post.get(t).size(); j++) {
+                connect("K" + (++arcCount), transition, placeNodes[post.get(t).get(j)]);
+            }
+        }
+        return nodeMap;
+    }
+
+    /**
+     * Diese Methode setzt die Position eines Knotens. Knoten, die von der
+     * Startstelle aus nicht erreichbar sind, kommen in die linke obere Ecke.
+     *
+     * @param node Der Knoten.
+     * @param position Die Koordinaten {x, y} oder null.
+     */
+    private static void setPosition(PetriNode node, double[] position) {
+        if (position == null) {
+            node.setPosXAndY(50, 50);
+        } else {
+            node.setPosXAndY(position[0], position[1]);
+        }
+    }
+
+    /**
+     * Diese Methode verbindet zwei Knoten mit einer Kante.
+     *
+     * @param id Die id der Kante.
+     * @param source Der Startknoten.
+     * @param target Der Endknoten.
+     */
+    private static void connect(String id, PetriNode source, PetriNode target) {
+        Arc arc = new Arc(id, source, target);
+        source.getNextArcs().add(arc);
+        target.getPrevArcs().add(arc);
+    }
+
+    /**
+     * Diese Methode gibt die Anzahl der Stellen zurück.
+     *
+     * @return Die Anzahl der Stellen.
+     */
+    public int getPlaceCount() {
+        return places.length;
+    }
+
+    /**
+     * Diese Methode gibt die Anzahl der Transitionen zurück.
+     *
+     * @return Die Anzahl der Transitionen einschließlich der stillen.
+     */
+    public int getTransitionCount() {
+        return transitions.length;
+    }
+
+    /**
+     * Diese Methode gibt die Anzahl der stillen Transitionen zurück.
+     *
+     * @return Die Anzahl der stillen Transitionen.
+     */
+    public int getSilentTransitionCount() {
+        int count = 0;
+        for (int t : transitions) {
+            if (labels.get(t) == null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Diese Methode erzeugt eine Meldung für den Benutzer.
+     *
+     * @return Die Meldung.
+     */
+    public String getMessage() {
+        return String.format(MyMessages.DISCOVERY_RESULT, caseCount, eventCount, activityCount,
+                getPlaceCount(), getTransitionCount(), getSilentTransitionCount());
+    }
+}
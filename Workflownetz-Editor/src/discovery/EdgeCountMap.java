@@ -0,0 +1,172 @@
+package discovery;
+
+import java.util.Arrays;
+
+/**
+ * Eine Hashtabelle mit offener Adressierung, die Paaren von Aktivitäten
+ * (a, b) eine Häufigkeit zuordnet. Schlüssel und Zähler liegen in zwei
+ * primitiven Arrays, so dass pro Kante nur 16 Bytes belegt werden und beim
+ * Zählen keine Objekte entstehen. Die Größe hängt nur von der Anzahl
+ * verschiedener Kanten ab, nicht von der Länge des Logs.
+ */
+final class EdgeCountMap {
+
+    /**
+     * Markierung eines freien Eintrags. Schlüssel sind nie negativ.
+     */
+    private static final long FREE = -1L;
+
+    /**
+     * Die Schlüssel (a << 32 | b).
+     */
+    private long[] keys;
+
+    /**
+     * Die Häufigkeiten zu den Schlüsseln.
+     */
+    private long[] counts;
+
+    /**
+     * Anzahl der belegten Einträge.
+     */
+    private int size;
+
+    /**
+     * Dieser Konstruktor initialisiert eine leere Tabelle.
+     */
+    EdgeCountMap() {
+        this.keys = new long[1024];
+        this.counts = new long[1024];
+        Arrays.fill(keys, FREE);
+    }
+
+    /**
+     * Diese Methode erhöht die Häufigkeit einer Kante.
+     *
+     * @param a Index der ersten Aktivität.
+     * @param b Index der folgenden Aktivität.
+     * @param count Die hinzuzufügende Häufigkeit.
+     */
+    void add(int a, int b, long count) {
+        long key = key(a, b);
+        int mask = keys.length - 1;
+        int i = slot(key, mask);
+        while (keys[i] != FREE) {
+            if (keys[i] == key) {
+                counts[i] += count;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        counts[i] = count;
+        if (++size * 2 > keys.length) {
+            grow();
+        }
+    }
+
+    /**
+     * Diese Methode gibt die Häufigkeit einer Kante zurück.
+     *
+     * @param a Index der ersten Aktivität.
+     * @param b Index der folgenden Aktivität.
+     * @return Die Häufigkeit oder 0.
+     */
+    long get(int a, int b) {
+        long key = key(a, b);
+        int mask = keys.length - 1;
+        int i = slot(key, mask);
+        while (keys[i] != FREE) {
+            if (keys[i] == key) {
+                return counts[i];
+            }
+            i = (i + 1) & mask;
+        }
+        return 0;
+    }
+
+    /**
+     * Diese Methode gibt die Anzahl der Kanten zurück.
+     *
+     * @return Das Attribut size.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Diese Methode gibt die Länge der internen Arrays zurück. Zusammen mit
+     * getKey und getCount können so alle Kanten durchlaufen werden.
+     *
+     * @return Die Anzahl der Einträge einschließlich der freien.
+     */
+    int capacity() {
+        return keys.length;
+    }
+
+    /**
+     * Diese Methode gibt den Schlüssel eines Eintrags zurück.
+     *
+     * @param i Index des Eintrags.
+     * @return Der Schlüssel oder -1, falls der Eintrag frei ist.
+     */
+    long getKey(int i) {
+        return keys[i];
+    }
+
+    /**
+     * Diese Methode gibt die Häufigkeit eines Eintrags zurück.
+     *
+     * @param i Index des Eintrags.
+     * @return Die Häufigkeit.
+     */
+    long getCount(int i) {
+        return counts[i];
+    }
+
+    /**
+     * Diese Methode setzt den Schlüssel einer Kante zusammen.
+     *
+     * @param a Index der ersten Aktivität.
+     * @param b Index der folgenden Aktivität.
+     * @return Der Schlüssel.
+     */
+    static long key(int a, int b) {
+        return ((long) a << 32) | b;
+    }
+
+    /**
+     * Diese Methode bestimmt den ersten Eintrag, an dem ein Schlüssel gesucht
+     * wird. Die Bits werden gemischt, da die Indizes klein und dicht sind.
+     *
+     * @param key Der Schlüssel.
+     * @param mask Die Länge der Arrays minus eins.
+     * @return Der Index des Eintrags.
+     */
+    private static int slot(long key, int mask) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    /**
+     * Diese Methode verdoppelt die Arrays und fügt alle Einträge neu ein.
+     */
+    private void grow() {
+        long[] oldKeys = keys;
+        long[] oldCounts = counts;
+        keys = new long[oldKeys.length * 2];
+        counts = new long[oldKeys.length * 2];
+        Arrays.fill(keys, FREE);
+        int mask = keys.length - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] != FREE) {
+                int i = slot(oldKeys[j], mask);
+                while (keys[i] != FREE) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = oldKeys[j];
+                counts[i] = oldCounts[j];
+            }
+        }
+    }
+}
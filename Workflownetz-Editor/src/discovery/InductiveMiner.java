@@ -0,0 +1,878 @@
+package discovery;
+
+import discovery.ProcessTree.Operator;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Diese Klasse erzeugt aus der Directly-Follows-Relation eines Ereignislogs
+ * einen Prozessbaum (Inductive Miner - directly-follows). Die Menge der
+ * Aktivitäten wird rekursiv an einem Schnitt (cut) in Teilmengen zerlegt, die
+ * als exklusive Auswahl, Sequenz, Parallelität oder Schleife verknüpft
+ * werden. Gesucht wird in dieser Reihenfolge:
+ *
+ * - Auswahl: Zusammenhangskomponenten des ungerichteten Graphen.
+ * - Sequenz: starke Zusammenhangskomponenten, wobei Komponenten, die sich
+ * gegenseitig nicht erreichen, zusammengefasst werden.
+ * - Parallelität: Komponenten des Graphen aller Paare, die nicht in beiden
+ * Richtungen aufeinander folgen. Jede Teilmenge braucht eine Start- und eine
+ * Endaktivität.
+ * - Schleife: Der Rumpf enthält die Start- und Endaktivitäten, die übrigen
+ * Komponenten werden zu Rücksprüngen, wenn sie nur von Endaktivitäten aus
+ * betreten und nur zu Startaktivitäten hin verlassen werden.
+ *
+ * Vor der Suche werden seltene Kanten entfernt (siehe noiseThreshold).
+ * Findet sich so kein Schnitt, wird ohne Filterung gesucht. Bleibt auch das
+ * erfolglos, wird ein Blumenmodell erzeugt, das jede Abfolge der Aktivitäten
+ * erlaubt. Das Ergebnis ist damit immer ein sound Prozessbaum, der jede
+ * Aktivität genau einmal enthält.
+ *
+ * Die Teilgraphen werden mit kompakten Arrays dargestellt, die Rekursion
+ * läuft über einen eigenen Stapel, so dass auch Logs mit tausenden
+ * Aktivitäten keinen Stapelüberlauf verursachen.
+ */
+public class InductiveMiner {
+
+    /**
+     * Die Directly-Follows-Relation des Logs.
+     */
+    private final DirectlyFollowsGraph dfg;
+
+    /**
+     * Anteil an der häufigsten Kante einer Aktivität, unter dem eine Kante
+     * als Rauschen gilt (siehe Part.filter). 0 schaltet die Filterung ab.
+     */
+    private double noiseThreshold = 0.2;
+
+    /**
+     * Dieser Konstruktor initialisiert das Attribut dfg.
+     *
+     * @param dfg Die Directly-Follows-Relation des Logs.
+     */
+    public InductiveMiner(DirectlyFollowsGraph dfg) {
+        this.dfg = dfg;
+    }
+
+    /**
+     * Diese Methode setzt das Attribut noiseThreshold.
+     *
+     * @param noiseThreshold Ein Wert zwischen 0 und 1.
+     * @return Diese Instanz.
+     */
+    public InductiveMiner setNoiseThreshold(double noiseThreshold) {
+        this.noiseThreshold = Math.max(0, Math.min(1, noiseThreshold));
+        return this;
+    }
+
+    /**
+     * Diese Methode gibt das Attribut noiseThreshold zurück.
+     *
+     * @return Das Attribut noiseThreshold.
+     */
+    public double getNoiseThreshold() {
+        return noiseThreshold;
+    }
+
+    /**
+     * Diese Methode erzeugt den Prozessbaum.
+     *
+     * @return Der Prozessbaum des Logs.
+     * @throws CancellationException Falls der Thread unterbrochen wurde.
+     */
+    public ProcessTree mine() {
+        int n = dfg.getActivityCount();
+        if (n == 0) {
+            return ProcessTree.silent();
+        }
+        int[] acts = new int[n];
+        long[] start = new long[n];
+        long[] end = new long[n];
+        int[] outStart = new int[n + 1];
+        for (int a = 0; a < n; a++) {
+            acts[a] = a;
+            start[a] = dfg.getStartCount(a);
+            end[a] = dfg.getEndCount(a);
+            outStart[a + 1] = outStart[a] + dfg.getSuccessors(a).length;
+        }
+        int[] out = new int[outStart[n]];
+        long[] outCount = new long[outStart[n]];
+        for (int a = 0; a < n; a++) {
+            int[] successors = dfg.getSuccessors(a);
+            for (int i = 0; i < successors.length; i++) {
+                out[outStart[a] + i] = successors[i];
+                outCount[outStart[a] + i] = dfg.getEdgeCount(a, successors[i]);
+            }
+        }
+        ProcessTree holder = ProcessTree.node(Operator.SEQUENCE, 1);
+        ProcessTree parent = holder;
+        long empty = dfg.getEmptyCaseCount();
+        if (empty > noiseThreshold * dfg.getCaseCount()) {
+            // Fälle ohne Ereignisse werden durch einen stillen Schritt
+            // abgebildet, der das ganze Modell überspringt.
+            ProcessTree choice = ProcessTree.node(Operator.EXCLUSIVE_CHOICE, 2);
+            choice.setChild(1, ProcessTree.silent());
+            holder.setChild(0, choice);
+            parent = choice;
+        }
+        Deque<Job> jobs = new ArrayDeque<>();
+        jobs.push(new Job(new Part(acts, start, end, outStart, out, outCount), parent, 0));
+        while (!jobs.isEmpty()) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new CancellationException();
+            }
+            Job job = jobs.pop();
+            job.parent.setChild(job.index, split(job.part, jobs));
+        }
+        return holder.getChildren().get(0);
+    }
+
+    /**
+     * Diese Methode erzeugt den Knoten für einen Teilgraphen. Für die Kinder
+     * werden neue Aufträge auf den Stapel gelegt.
+     *
+     * @param part Der Teilgraph.
+     * @param jobs Der Stapel der offenen Aufträge.
+     * @return Der Knoten, dessen Kinder noch gesetzt werden.
+     */
+    private ProcessTree split(Part part, Deque<Job> jobs) {
+        if (part.size() == 1) {
+            return single(noiseThreshold > 0 ? part.filter(noiseThreshold) : part);
+        }
+        Cut cut = null;
+        if (noiseThreshold > 0) {
+            Part filtered = part.filter(noiseThreshold);
+            cut = findCut(filtered);
+            if (cut != null) {
+                part = filtered;
+            }
+        }
+        if (cut == null) {
+            cut = findCut(part);
+        }
+        if (cut == null) {
+            return flower(part);
+        }
+        ProcessTree node = ProcessTree.node(cut.operator, cut.groupCount);
+        boolean cross = cut.operator == Operator.SEQUENCE || cut.operator == Operator.LOOP;
+        boolean[] skippable = cut.operator == Operator.SEQUENCE
+                ? skippable(part, cut) : new boolean[cut.groupCount];
+        int[][] members = cut.members();
+        for (int g = 0; g < cut.groupCount; g++) {
+            Part child = part.project(members[g], cross);
+            if (skippable[g]) {
+                ProcessTree choice = ProcessTree.node(Operator.EXCLUSIVE_CHOICE, 2);
+                choice.setChild(1, ProcessTree.silent());
+                node.setChild(g, choice);
+                jobs.push(new Job(child, choice, 0));
+            } else {
+                jobs.push(new Job(child, node, g));
+            }
+        }
+        return node;
+    }
+
+    /**
+     * Diese Methode erzeugt den Knoten für eine einzelne Aktivität. Folgt sie
+     * auf sich selbst, wird sie in eine Schleife mit stillem Rücksprung
+     * gesetzt.
+     *
+     * @param part Der Teilgraph mit einer Aktivität.
+     * @return Der Knoten.
+     */
+    private ProcessTree single(Part part) {
+        ProcessTree activity = ProcessTree.activity(dfg.getActivityName(part.acts[0]));
+        if (part.out.length == 0) {
+            return activity;
+        }
+        ProcessTree loop = ProcessTree.node(Operator.LOOP, 2);
+        loop.setChild(0, activity);
+        loop.setChild(1, ProcessTree.silent());
+        return loop;
+    }
+
+    /**
+     * Diese Methode erzeugt ein Blumenmodell: eine Schleife mit stillem Rumpf,
+     * in der jede Aktivität ein Rücksprung ist.
+     *
+     * @param part Der Teilgraph.
+     * @return Der Knoten.
+     */
+    private ProcessTree flower(Part part) {
+        ProcessTree loop = ProcessTree.node(Operator.LOOP, part.size() + 1);
+        loop.setChild(0, ProcessTree.silent());
+        for (int i = 0; i < part.size(); i++) {
+            loop.setChild(i + 1, ProcessTree.activity(dfg.getActivityName(part.acts[i])));
+        }
+        return loop;
+    }
+
+    /**
+     * Diese Methode sucht nacheinander die vier Arten von Schnitten.
+     *
+     * @param part Der Teilgraph.
+     * @return Der erste gefundene Schnitt oder null.
+     */
+    private static Cut findCut(Part part) {
+        Cut cut = exclusiveChoiceCut(part);
+        if (cut == null) {
+            cut = sequenceCut(part);
+        }
+        if (cut == null) {
+            cut = parallelCut(part);
+        }
+        if (cut == null) {
+            cut = loopCut(part);
+        }
+        return cut;
+    }
+
+    /**
+     * Diese Methode sucht einen Auswahl-Schnitt. Die Teilmengen sind die
+     * Zusammenhangskomponenten des ungerichteten Graphen.
+     *
+     * @param part Der Teilgraph.
+     * @return Der Schnitt oder null.
+     */
+    private static Cut exclusiveChoiceCut(Part part) {
+        int n = part.size();
+        int[] parent = identity(n);
+        for (int u = 0; u < n; u++) {
+            for (int e = part.outStart[u]; e < part.outStart[u + 1]; e++) {
+                union(parent, u, part.out[e]);
+            }
+        }
+        return Cut.fromRoots(Operator.EXCLUSIVE_CHOICE, parent);
+    }
+
+    /**
+     * Diese Methode sucht einen Sequenz-Schnitt. Die starken
+     * Zusammenhangskomponenten werden mit dem Algorithmus von Tarjan
+     * bestimmt, ihre Erreichbarkeit als Bitmengen. Komponenten, von denen
+     * keine die andere erreicht, kommen in dieselbe Teilmenge. Die
+     * Teilmengen werden topologisch geordnet. Führt danach eine Kante zurück,
+     * gibt es keinen Schnitt.
+     *
+     * @param part Der Teilgraph.
+     * @return Der Schnitt oder null.
+     */
+    private static Cut sequenceCut(Part part) {
+        int n = part.size();
+        int[] comp = stronglyConnectedComponents(part);
+        int count = 0;
+        for (int u = 0; u < n; u++) {
+            count = Math.max(count, comp[u] + 1);
+        }
+        if (count < 2) {
+            return null;
+        }
+        // Tarjan liefert die Komponenten in umgekehrter topologischer
+        // Reihenfolge, Kanten führen also immer zu kleineren Nummern.
+        int[] nodeStart = new int[count + 1];
+        for (int u = 0; u < n; u++) {
+            nodeStart[comp[u] + 1]++;
+        }
+        for (int c = 0; c < count; c++) {
+            nodeStart[c + 1] += nodeStart[c];
+        }
+        int[] nodes = new int[n];
+        int[] fill = Arrays.copyOf(nodeStart, count);
+        for (int u = 0; u < n; u++) {
+            nodes[fill[comp[u]]++] = u;
+        }
+        int words = (count + 63) >>> 6;
+        long[][] reach = new long[count][words];
+        for (int c = 0; c < count; c++) {
+            for (int i = nodeStart[c]; i < nodeStart[c + 1]; i++) {
+                int u = nodes[i];
+                for (int e = part.outStart[u]; e < part.outStart[u + 1]; e++) {
+                    int d = comp[part.out[e]];
+                    if (d != c) {
+                        reach[c][d >>> 6] |= 1L << d;
+                        for (int w = 0; w < words; w++) {
+                            reach[c][w] |= reach[d][w];
+                        }
+                    }
+                }
+            }
+        }
+        int[] parent = identity(count);
+        for (int x = 0; x < count; x++) {
+            for (int y = x + 1; y < count; y++) {
+                if ((reach[x][y >>> 6] & (1L << y)) == 0 && (reach[y][x >>> 6] & (1L << x)) == 0) {
+                    union(parent, x, y);
+                }
+            }
+        }
+        // Die Teilmengen werden nach ihrer frühesten Komponente geordnet.
+        int[] rank = new int[count];
+        Arrays.fill(rank, -1);
+        int groups = 0;
+        for (int c = count - 1; c >= 0; c--) {
+            int root = find(parent, c);
+            if (rank[root] < 0) {
+                rank[root] = groups++;
+            }
+        }
+        if (groups < 2) {
+            return null;
+        }
+        int[] group = new int[n];
+        for (int u = 0; u < n; u++) {
+            group[u] = rank[find(parent, comp[u])];
+        }
+        for (int u = 0; u < n; u++) {
+            for (int e = part.outStart[u]; e < part.outStart[u + 1]; e++) {
+                if (group[part.out[e]] < group[u]) {
+                    return null;
+                }
+            }
+        }
+        return new Cut(Operator.SEQUENCE, group, groups);
+    }
+
+    /**
+     * Diese Methode bestimmt die starken Zusammenhangskomponenten mit einer
+     * iterativen Variante des Algorithmus von Tarjan.
+     *
+     * @param part Der Teilgraph.
+     * @return Für jede Aktivität die Nummer ihrer Komponente.
+     */
+    private static int[] stronglyConnectedComponents(Part part) {
+        int n = part.size();
+        int[] index = new int[n];
+        int[] low = new int[n];
+        int[] comp = new int[n];
+        int[] edge = new int[n];
+        int[] stack = new int[n];
+        int[] callStack = new int[n];
+        boolean[] onStack = new boolean[n];
+        Arrays.fill(index, -1);
+        int counter = 0;
+        int components = 0;
+        int sp = 0;
+        for (int s = 0; s < n; s++) {
+            if (index[s] >= 0) {
+                continue;
+            }
+            int csp = 0;
+            callStack[csp++] = s;
+            index[s] = low[s] = counter++;
+            edge[s] = part.outStart[s];
+            stack[sp++] = s;
+            onStack[s] = true;
+            while (csp > 0) {
+                int u = callStack[csp - 1];
+                if (edge[u] < part.outStart[u + 1]) {
+                    int v = part.out[edge[u]++];
+                    if (index[v] < 0) {
+                        index[v] = low[v] = counter++;
+                        edge[v] = part.outStart[v];
+                        stack[sp++] = v;
+                        onStack[v] = true;
+                        callStack[csp++] = v;
+                    } else if (onStack[v]) {
+                        low[u] = Math.min(low[u], index[v]);
+                    }
+                    continue;
+                }
+                csp--;
+                if (csp > 0) {
+                    int caller = callStack[csp - 1];
+                    low[caller] = Math.min(low[caller], low[u]);
+                }
+                if (low[u] == index[u]) {
+                    int v;
+                    do {
+                        v = stack[--sp];
+                        onStack[v] = false;
+                        comp[v] = components;
+                    } while (v != u);
+                    components++;
+                }
+            }
+        }
+        return comp;
+    }
+
+    /**
+     * Diese Methode sucht einen Parallel-Schnitt. Zwei Aktivitäten müssen in
+     * dieselbe Teilmenge, wenn sie nicht in beiden Richtungen direkt
+     * aufeinander folgen. Die Komponenten dieses Graphen werden mit einer
+     * Breitensuche über Bitmengen bestimmt. Teilmengen ohne Start- oder
+     * Endaktivität werden mit der vollständigen Teilmenge vereinigt, mit der
+     * sie die meisten Übergänge haben.
+     *
+     * @param part Der Teilgraph.
+     * @return Der Schnitt oder null.
+     */
+    private static Cut parallelCut(Part part) {
+        int n = part.size();
+        BitSet[] out = new BitSet[n];
+        BitSet[] in = new BitSet[n];
+        for (int u = 0; u < n; u++) {
+            out[u] = new BitSet(n);
+            in[u] = new BitSet(n);
+        }
+        for (int u = 0; u < n; u++) {
+            for (int e = part.outStart[u]; e < part.outStart[u + 1]; e++) {
+                out[u].set(part.out[e]);
+                in[part.out[e]].set(u);
+            }
+        }
+        BitSet unvisited = new BitSet(n);
+        unvisited.set(0, n);
+        int[] group = new int[n];
+        int[] queue = new int[n];
+        int groups = 0;
+        for (int s = unvisited.nextSetBit(0); s >= 0; s = unvisited.nextSetBit(0)) {
+            unvisited.clear(s);
+            int head = 0;
+            int tail = 0;
+            queue[tail++] = s;
+            group[s] = groups;
+            while (head < tail) {
+                int u = queue[head++];
+                BitSet both = (BitSet) out[u].clone();
+                both.and(in[u]);
+                BitSet next = (BitSet) unvisited.clone();
+                next.andNot(both);
+                for (int v = next.nextSetBit(0); v >= 0; v = next.nextSetBit(v + 1)) {
+                    unvisited.clear(v);
+                    group[v] = groups;
+                    queue[tail++] = v;
+                }
+            }
+            groups++;
+        }
+        if (groups < 2) {
+            return null;
+        }
+        boolean[] hasStart = new boolean[groups];
+        boolean[] hasEnd = new boolean[groups];
+        for (int u = 0; u < n; u++) {
+            hasStart[group[u]] |= part.start[u] > 0;
+            hasEnd[group[u]] |= part.end[u] > 0;
+        }
+        // Eine unvollständige Teilmenge kommt zu der vollständigen, mit der
+        // sie die meisten Übergänge hat. Meist ist das die Teilmenge, in deren
+        // Schleife sie ein Rücksprung ist.
+        EdgeCountMap weights = new EdgeCountMap();
+        boolean complete = false;
+        for (int g = 0; g < groups; g++) {
+            complete |= hasStart[g] && hasEnd[g];
+        }
+        if (!complete) {
+            return null;
+        }
+        for (int u = 0; u < n; u++) {
+            for (int e = part.outStart[u]; e < part.outStart[u + 1]; e++) {
+                int g = group[u];
+                int h = group[part.out[e]];
+                boolean gComplete = hasStart[g] && hasEnd[g];
+                boolean hComplete = hasStart[h] && hasEnd[h];
+                if (gComplete && !hComplete) {
+                    weights.add(h, g, part.outCount[e]);
+                } else if (!gComplete && hComplete) {
+                    weights.add(g, h, part.outCount[e]);
+                }
+            }
+        }
+        int[] target = new int[groups];
+        long[] best = new long[groups];
+        Arrays.fill(target, -1);
+        for (int g = 0; g < groups; g++) {
+            if (hasStart[g] && hasEnd[g]) {
+                target[g] = g;
+            }
+        }
+        for (int i = 0; i < weights.capacity(); i++) {
+            long key = weights.getKey(i);
+            if (key < 0) {
+                continue;
+            }
+            int g = (int) (key >>> 32);
+            int h = (int) key;
+            long weight = weights.getCount(i);
+            if (target[g] < 0 || weight > best[g] || (weight == best[g] && h < target[g])) {
+                target[g] = h;
+                best[g] = weight;
+            }
+        }
+        int fallback = -1;
+        for (int g = 0; g < groups && fallback < 0; g++) {
+            if (hasStart[g] && hasEnd[g]) {
+                fallback = g;
+            }
+        }
+        int[] parent = identity(n);
+        int[] first = new int[groups];
+        Arrays.fill(first, -1);
+        for (int u = 0; u < n; u++) {
+            int g = target[group[u]] < 0 ? fallback : target[group[u]];
+            if (first[g] < 0) {
+                first[g] = u;
+            } else {
+                union(parent, first[g], u);
+            }
+        }
+        return Cut.fromRoots(Operator.PARALLEL, parent);
+    }
+
+    /**
+     * Diese Methode sucht einen Schleifen-Schnitt. Der Rumpf (Teilmenge 0)
+     * besteht aus den Start- und Endaktivitäten und allen Komponenten, die
+     * von einer anderen als einer Endaktivität betreten oder zu einer anderen
+     * als einer Startaktivität hin verlassen werden. Die übrigen Komponenten
+     * sind die Rücksprünge.
+     *
+     * @param part Der Teilgraph.
+     * @return Der Schnitt oder null.
+     */
+    private static Cut loopCut(Part part) {
+        int n = part.size();
+        boolean[] seed = new boolean[n];
+        boolean anySeed = false;
+        for (int u = 0; u < n; u++) {
+            seed[u] = part.start[u] > 0 || part.end[u] > 0;
+            anySeed |= seed[u];
+        }
+        if (!anySeed) {
+            return null;
+        }
+        int[] parent = identity(n);
+        for (int u = 0; u < n; u++) {
+            for (int e = part.outStart[u]; e < part.outStart[u + 1]; e++) {
+                int v = part.out[e];
+                if (!seed[u] && !seed[v]) {
+                    union(parent, u, v);
+                }
+            }
+        }
+        boolean[] body = new boolean[n];
+        for (int u = 0; u < n; u++) {
+            for (int e = part.outStart[u]; e < part.outStart[u + 1]; e++) {
+                int v = part.out[e];
+                if (seed[u] && !seed[v] && part.end[u] == 0) {
+                    body[find(parent, v)] = true;
+                } else if (!seed[u] && seed[v] && part.start[v] == 0) {
+                    body[find(parent, u)] = true;
+                }
+            }
+        }
+        int[] group = new int[n];
+        int[] rank = new int[n];
+        Arrays.fill(rank, -1);
+        int groups = 1;
+        for (int u = 0; u < n; u++) {
+            int root = find(parent, u);
+            if (seed[u] || body[root]) {
+                group[u] = 0;
+            } else {
+                if (rank[root] < 0) {
+                    rank[root] = groups++;
+                }
+                group[u] = rank[root];
+            }
+        }
+        return groups < 2 ? null : new Cut(Operator.LOOP, group, groups);
+    }
+
+    /**
+     * Diese Methode bestimmt die Teilmengen eines Sequenz-Schnitts, die
+     * übersprungen werden können: Es gibt eine Kante über sie hinweg, eine
+     * Startaktivität in einer späteren oder eine Endaktivität in einer
+     * früheren Teilmenge.
+     *
+     * @param part Der Teilgraph.
+     * @param cut Der Sequenz-Schnitt.
+     * @return Für jede Teilmenge, ob sie übersprungen werden kann.
+     */
+    private static boolean[] skippable(Part part, Cut cut) {
+        int k = cut.groupCount;
+        int[] diff = new int[k + 1];
+        for (int u = 0; u < part.size(); u++) {
+            int g = cut.group[u];
+            if (part.start[u] > 0) {
+                diff[0]++;
+                diff[g]--;
+            }
+            if (part.end[u] > 0) {
+                diff[g + 1]++;
+                diff[k]--;
+            }
+            for (int e = part.outStart[u]; e < part.outStart[u + 1]; e++) {
+                int h = cut.group[part.out[e]];
+                if (h > g + 1) {
+                    diff[g + 1]++;
+                    diff[h]--;
+                }
+            }
+        }
+        boolean[] skippable = new boolean[k];
+        int sum = 0;
+        for (int g = 0; g < k; g++) {
+            sum += diff[g];
+            skippable[g] = sum > 0;
+        }
+        return skippable;
+    }
+
+    /**
+     * Diese Methode erzeugt einen Wald aus n einzelnen Knoten für die
+     * Union-Find-Struktur.
+     *
+     * @param n Die Anzahl der Knoten.
+     * @return Die Vorgänger der Knoten.
+     */
+    private static int[] identity(int n) {
+        int[] parent = new int[n];
+        for (int i = 0; i < n; i++) {
+            parent[i] = i;
+        }
+        return parent;
+    }
+
+    /**
+     * Diese Methode bestimmt die Wurzel eines Knotens und verkürzt dabei den
+     * Pfad.
+     *
+     * @param parent Die Vorgänger der Knoten.
+     * @param x Der Knoten.
+     * @return Die Wurzel.
+     */
+    private static int find(int[] parent, int x) {
+        while (parent[x] != x) {
+            parent[x] = parent[parent[x]];
+            x = parent[x];
+        }
+        return x;
+    }
+
+    /**
+     * Diese Methode vereinigt die Mengen zweier Knoten.
+     *
+     * @param parent Die Vorgänger der Knoten.
+     * @param x Der erste Knoten.
+     * @param y Der zweite Knoten.
+     */
+    private static void union(int[] parent, int x, int y) {
+        int rx = find(parent, x);
+        int ry = find(parent, y);
+        if (rx != ry) {
+            parent[Math.max(rx, ry)] = Math.min(rx, ry);
+        }
+    }
+
+    /**
+     * Ein offener Auftrag: der Knoten für einen Teilgraphen wird als Kind
+     * index von parent eingetragen.
+     */
+    private static final class Job {
+
+        private final Part part;
+        private final ProcessTree parent;
+        private final int index;
+
+        Job(Part part, ProcessTree parent, int index) {
+            this.part = part;
+            this.parent = parent;
+            this.index = index;
+        }
+    }
+
+    /**
+     * Ein Schnitt: die Art des Knotens und für jede Aktivität die Nummer
+     * ihrer Teilmenge.
+     */
+    private static final class Cut {
+
+        private final Operator operator;
+        private final int[] group;
+        private final int groupCount;
+
+        Cut(Operator operator, int[] group, int groupCount) {
+            this.operator = operator;
+            this.group = group;
+            this.groupCount = groupCount;
+        }
+
+        /**
+         * Diese Methode erzeugt einen Schnitt aus einer Union-Find-Struktur.
+         * Die Teilmengen werden in der Reihenfolge ihrer kleinsten Aktivität
+         * nummeriert.
+         *
+         * @param operator Die Art des Knotens.
+         * @param parent Die Vorgänger der Knoten.
+         * @return Der Schnitt oder null, falls es nur eine Teilmenge gibt.
+         */
+        static Cut fromRoots(Operator operator, int[] parent) {
+            int n = parent.length;
+            int[] rank = new int[n];
+            Arrays.fill(rank, -1);
+            int[] group = new int[n];
+            int groups = 0;
+            for (int u = 0; u < n; u++) {
+                int root = find(parent, u);
+                if (rank[root] < 0) {
+                    rank[root] = groups++;
+                }
+                group[u] = rank[root];
+            }
+            return groups < 2 ? null : new Cut(operator, group, groups);
+        }
+
+        /**
+         * Diese Methode gibt die Aktivitäten jeder Teilmenge zurück.
+         *
+         * @return Die lokalen Indizes der Aktivitäten je Teilmenge.
+         */
+        int[][] members() {
+            int[] sizes = new int[groupCount];
+            for (int g : group) {
+                sizes[g]++;
+            }
+            int[][] members = new int[groupCount][];
+            for (int g = 0; g < groupCount; g++) {
+                members[g] = new int[sizes[g]];
+            }
+            Arrays.fill(sizes, 0);
+            for (int u = 0; u < group.length; u++) {
+                members[group[u]][sizes[group[u]]++] = u;
+            }
+            return members;
+        }
+    }
+
+    /**
+     * Ein Teilgraph der Directly-Follows-Relation. Die Aktivitäten werden
+     * lokal von 0 an nummeriert, die Kanten liegen als Nachfolgerlisten in
+     * kompakten Arrays. Start- und Endhäufigkeiten beziehen sich auf den
+     * Teilgraphen, nicht auf das ganze Log.
+     */
+    private static final class Part {
+
+        private final int[] acts;
+        private final long[] start;
+        private final long[] end;
+        private final int[] outStart;
+        private final int[] out;
+        private final long[] outCount;
+
+        Part(int[] acts, long[] start, long[] end, int[] outStart, int[] out, long[] outCount) {
+            this.acts = acts;
+            this.start = start;
+            this.end = end;
+            this.outStart = outStart;
+            this.out = out;
+            this.outCount = outCount;
+        }
+
+        int size() {
+            return acts.length;
+        }
+
+        /**
+         * Diese Methode erzeugt den Teilgraphen einer Teilmenge. Bei Sequenz
+         * und Schleife werden Kanten, die die Teilmenge betreten oder
+         * verlassen, zu Start- bzw. Endhäufigkeiten.
+         *
+         * @param members Die lokalen Indizes der Teilmenge.
+         * @param cross true, falls Kanten über die Grenze gezählt werden.
+         * @return Der Teilgraph.
+         */
+        Part project(int[] members, boolean cross) {
+            int[] pos = new int[size()];
+            Arrays.fill(pos, -1);
+            int m = members.length;
+            int[] childActs = new int[m];
+            long[] childStart = new long[m];
+            long[] childEnd = new long[m];
+            for (int i = 0; i < m; i++) {
+                pos[members[i]] = i;
+                childActs[i] = acts[members[i]];
+                childStart[i] = start[members[i]];
+                childEnd[i] = end[members[i]];
+            }
+            int[] childOutStart = new int[m + 1];
+            for (int u = 0; u < size(); u++) {
+                for (int e = outStart[u]; e < outStart[u + 1]; e++) {
+                    int v = out[e];
+                    if (pos[u] >= 0 && pos[v] >= 0) {
+                        childOutStart[pos[u] + 1]++;
+                    } else if (cross && pos[u] >= 0) {
+                        childEnd[pos[u]] += outCount[e];
+                    } else if (cross && pos[v] >= 0) {
+                        childStart[pos[v]] += outCount[e];
+                    }
+                }
+            }
+            for (int i = 0; i < m; i++) {
+                childOutStart[i + 1] += childOutStart[i];
+            }
+            int[] childOut = new int[childOutStart[m]];
+            long[] childCount = new long[childOutStart[m]];
+            int k = 0;
+            for (int i = 0; i < m; i++) {
+                int u = members[i];
+                for (int e = outStart[u]; e < outStart[u + 1]; e++) {
+                    if (pos[out[e]] >= 0) {
+                        childOut[k] = pos[out[e]];
+                        childCount[k++] = outCount[e];
+                    }
+                }
+            }
+            return new Part(childActs, childStart, childEnd, childOutStart, childOut, childCount);
+        }
+
+        /**
+         * Diese Methode entfernt seltene Kanten und seltene Start- und
+         * Endaktivitäten. Eine Kante a → b ist selten, wenn ihre Häufigkeit
+         * sowohl unter threshold mal der häufigsten ausgehenden Kante von a
+         * (einschließlich des Endes) als auch unter threshold mal der
+         * häufigsten eingehenden Kante von b (einschließlich des Starts)
+         * liegt. So bleiben auch die Kanten in eine breite Auswahl erhalten.
+         *
+         * @param threshold Der Schwellwert.
+         * @return Der gefilterte Teilgraph.
+         */
+        Part filter(double threshold) {
+            int n = size();
+            long maxStart = 0;
+            long maxEnd = 0;
+            for (int u = 0; u < n; u++) {
+                maxStart = Math.max(maxStart, start[u]);
+                maxEnd = Math.max(maxEnd, end[u]);
+            }
+            long[] newStart = new long[n];
+            long[] newEnd = new long[n];
+            int[] newOutStart = new int[n + 1];
+            int[] newOut = new int[out.length];
+            long[] newCount = new long[out.length];
+            long[] maxIn = Arrays.copyOf(start, n);
+            for (int e = 0; e < out.length; e++) {
+                maxIn[out[e]] = Math.max(maxIn[out[e]], outCount[e]);
+            }
+            int k = 0;
+            for (int u = 0; u < n; u++) {
+                newStart[u] = start[u] >= threshold * maxStart ? start[u] : 0;
+                newEnd[u] = end[u] >= threshold * maxEnd ? end[u] : 0;
+                long max = end[u];
+                for (int e = outStart[u]; e < outStart[u + 1]; e++) {
+                    max = Math.max(max, outCount[e]);
+                }
+                for (int e = outStart[u]; e < outStart[u + 1]; e++) {
+                    if (outCount[e] >= threshold * max || outCount[e] >= threshold * maxIn[out[e]]) {
+                        newOut[k] = out[e];
+                        newCount[k++] = outCount[e];
+                    }
+                }
+                newOutStart[u + 1] = k;
+            }
+            return new Part(acts, newStart, newEnd, newOutStart,
+                    Arrays.copyOf(newOut, k), Arrays.copyOf(newCount, k));
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package discovery;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Ein Knoten eines Prozessbaums, wie ihn der InductiveMiner erzeugt. Blätter
+ * sind Aktivitäten oder stille Schritte (tau), innere Knoten verknüpfen ihre
+ * Kinder als Sequenz, exklusive Auswahl, Parallelität oder Schleife. Bei
+ * einer Schleife ist das erste Kind der Rumpf, die übrigen Kinder sind
+ * alternative Rücksprünge (redo), nach denen der Rumpf erneut ausgeführt
+ * wird.
+ *
+ * Jeder Prozessbaum beschreibt ein sound Workflownetz (siehe DiscoveredNet).
+ */
+public final class ProcessTree {
+
+    /**
+     * Die Arten der Knoten.
+     */
+    public enum Operator {
+        ACTIVITY, SILENT, SEQUENCE, EXCLUSIVE_CHOICE, PARALLEL, LOOP
+    }
+
+    /**
+     * Die Art des Knotens.
+     */
+    private final Operator operator;
+
+    /**
+     * Der Name der Aktivität oder null.
+     */
+    private final String label;
+
+    /**
+     * Die Kinder eines inneren Knotens. Der InductiveMiner füllt sie erst,
+     * nachdem der Knoten angelegt wurde.
+     */
+    private final List<ProcessTree> children;
+
+    /**
+     * Dieser Konstruktor initialisiert alle Attribute.
+     *
+     * @param operator Die Art des Knotens.
+     * @param label Der Name der Aktivität oder null.
+     * @param childCount Die Anzahl der Kinder.
+     */
+    private ProcessTree(Operator operator, String label, int childCount) {
+        this.operator = operator;
+        this.label = label;
+        this.children = new ArrayList<>(Collections.<ProcessTree>nCopies(childCount, null));
+    }
+
+    /**
+     * Diese Methode erzeugt ein Blatt für eine Aktivität.
+     *
+     * @param label Der Name der Aktivität.
+     * @return Das Blatt.
+     */
+    public static ProcessTree activity(String label) {
+        return new ProcessTree(Operator.ACTIVITY, label, 0);
+    }
+
+    /**
+     * Diese Methode erzeugt ein Blatt für einen stillen Schritt.
+     *
+     * @return Das Blatt.
+     */
+    public static ProcessTree silent() {
+        return new ProcessTree(Operator.SILENT, null, 0);
+    }
+
+    /**
+     * Diese Methode erzeugt einen inneren Knoten mit den übergebenen Kindern.
+     *
+     * @param operator Die Art des Knotens.
+     * @param children Die Kinder.
+     * @return Der Knoten.
+     */
+    public static ProcessTree node(Operator operator, List<ProcessTree> children) {
+        ProcessTree tree = new ProcessTree(operator, null, children.size());
+        for (int i = 0; i < children.size(); i++) {
+            tree.children.set(i, children.get(i));
+        }
+        return tree;
+    }
+
+    /**
+     * Diese Methode erzeugt einen inneren Knoten, dessen Kinder noch gesetzt
+     * werden müssen.
+     *
+     * @param operator Die Art des Knotens.
+     * @param childCount Die Anzahl der Kinder.
+     * @return Der Knoten.
+     */
+    static ProcessTree node(Operator operator, int childCount) {
+        return new ProcessTree(operator, null, childCount);
+    }
+
+    /**
+     * Diese Methode setzt ein Kind eines inneren Knotens.
+     *
+     * @param index Die Position des Kindes.
+     * @param child Das Kind.
+     */
+    void setChild(int index, ProcessTree child) {
+        children.set(index, child);
+    }
+
+    /**
+     * Diese Methode gibt das Attribut operator zurück.
+     *
+     * @return Das Attribut operator.
+     */
+    public Operator getOperator() {
+        return operator;
+    }
+
+    /**
+     * Diese Methode gibt das Attribut label zurück.
+     *
+     * @return Das Attribut label.
+     */
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * Diese Methode gibt das Attribut children zurück.
+     *
+     * @return Das Attribut children.
+     */
+    public List<ProcessTree> getChildren() {
+        return Collections.unmodifiableList(children);
+    }
+
+    /**
+     * Diese Methode gibt den Baum in der üblichen Schreibweise zurück, z.B.
+     * "->(a, X(b, tau))".
+     *
+     * @return Die Beschreibung des Baums.
+     */
+    @Override
+    public String toString() {
+        switch (operator) {
+            case ACTIVITY:
+                return label;
+            case SILENT:
+                return "tau";
+            default:
+                StringBuilder sb = new StringBuilder();
+                sb.append(operator == Operator.SEQUENCE ? "->"
+                        : operator == Operator.EXCLUSIVE_CHOICE ? "X"
+                        : operator == Operator.PARALLEL ? "+" : "*").append('(');
+                for (int i = 0; i < children.size(); i++) {
+                    sb.append(i == 0 ? "" : ", ").append(children.get(i));
+                }
+                return sb.append(')').toString();
+        }
+    }
+}
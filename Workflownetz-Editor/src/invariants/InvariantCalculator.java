@@ -0,0 +1,524 @@
+package invariants;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import stateSpace.IntArrayList;
+import workflownetLogic.NetGraph;
+
+/**
+ * Diese Klasse berechnet die minimalen semi-positiven P- und T-Invarianten
+ * eines Netzes mit dem Farkas-Algorithmus (Fourier-Motzkin-Elimination). Eine
+ * P-Invariante ist ein Vektor y ≥ 0, y ≠ 0 mit y·C = 0, eine T-Invariante ein
+ * Vektor x ≥ 0, x ≠ 0 mit C·x = 0, wobei C die Inzidenzmatrix ist.
+ *
+ * Jede Zeile der Rechnung besteht aus einem Invariantenteil (anfangs ein
+ * Einheitsvektor) und dem Rest der Matrixzeile. In jedem Schritt wird eine
+ * Spalte eliminiert: Zeilen mit 0 in dieser Spalte bleiben erhalten, jede
+ * Zeile mit positivem Eintrag wird mit jeder Zeile mit negativem Eintrag so
+ * kombiniert, dass die Spalte 0 wird, und die übrigen Zeilen fallen weg. Alle
+ * Zeilen werden sparse gespeichert und durch den ggT ihrer Einträge geteilt.
+ *
+ * Um das Anwachsen der Zwischenergebnisse zu begrenzen, werden zwei
+ * Heuristiken verwendet:
+ * <ul>
+ * <li>Es wird stets die Spalte eliminiert, die die Anzahl der Zeilen am
+ * wenigsten erhöht (positive mal negative Einträge abzüglich der wegfallenden
+ * Zeilen), statt der Spalten in fester Reihenfolge.</li>
+ * <li>Eine neue Zeile wird verworfen, wenn der Träger ihres Invariantenteils
+ * den Träger einer anderen Zeile enthält. Die minimalen Invarianten sind bis
+ * auf ein Vielfaches durch ihren Träger bestimmt, nicht minimale Zeilen werden
+ * daher nie benötigt. Die Prüfung sucht nur Zeilen, deren kleinster Index im
+ * Träger der neuen Zeile liegt.</li>
+ * </ul>
+ * Die Anzahl der Zeilen kann trotzdem exponentiell wachsen. Wird die
+ * festgelegte Grenze überschritten oder läuft eine Zahl über, wird die
+ * Berechnung abgebrochen und ein unvollständiges Ergebnis zurückgegeben.
+ *
+ * Wird der ausführende Thread unterbrochen, bricht die Berechnung mit einer
+ * CancellationException ab.
+ */
+public class InvariantCalculator {
+
+    /**
+     * Die Momentaufnahme des Netzes.
+     */
+    private final NetGraph graph;
+
+    /**
+     * Maximale Anzahl an Zeilen.
+     */
+    private int maxRows = 1000000;
+
+    /**
+     * Dieser Konstruktor initialisiert die Berechnung für ein Netz.
+     *
+     * @param graph Die Momentaufnahme des Netzes.
+     */
+    public InvariantCalculator(NetGraph graph) {
+        this.graph = graph;
+    }
+
+    /**
+     * Diese Methode setzt die maximale Anzahl an Zeilen, die während der
+     * Berechnung gleichzeitig bestehen dürfen.
+     *
+     * @param maxRows Die maximale Anzahl an Zeilen.
+     * @return Dieses Objekt.
+     */
+    public InvariantCalculator setMaxRows(int maxRows) {
+        this.maxRows = maxRows;
+        return this;
+    }
+
+    /**
+     * Diese Methode berechnet die minimalen semi-positiven P-Invarianten.
+     *
+     * @return Die P-Invarianten.
+     */
+    public Invariants placeInvariants() {
+        return compute(SparseIntMatrix.incidence(graph), true);
+    }
+
+    /**
+     * Diese Methode berechnet die minimalen semi-positiven T-Invarianten.
+     *
+     * @return Die T-Invarianten.
+     */
+    public Invariants transitionInvariants() {
+        return compute(SparseIntMatrix.incidence(graph).transpose(), false);
+    }
+
+    /**
+     * Diese Methode berechnet die minimalen semi-positiven Vektoren y mit
+     * y·A = 0.
+     *
+     * @param matrix Die Matrix A.
+     * @param placeInvariants true, falls die Zeilen von A Stellen sind.
+     * @return Die minimalen Invarianten.
+     */
+    private Invariants compute(SparseIntMatrix matrix, boolean placeInvariants) {
+        int n = matrix.getRowCount();
+        List<Row> rows = new ArrayList<>(n);
+        int[] rowStart = matrix.getRowStart();
+        for (int r = 0; r < n; r++) {
+            int from = rowStart[r];
+            int to = rowStart[r + 1];
+            long[] values = new long[to - from];
+            for (int i = from; i < to; i++) {
+                values[i - from] = matrix.getValues()[i];
+            }
+            rows.add(new Row(new int[]{r}, new long[]{1},
+                    Arrays.copyOfRange(matrix.getColumns(), from, to), values));
+        }
+        Elimination elimination = new Elimination(n, matrix.getColumnCount());
+        for (Row row : rows) {
+            elimination.count(row, 1);
+        }
+        int peakRowCount = rows.size();
+        try {
+            for (int column = elimination.selectColumn(); column >= 0;
+                    column = elimination.selectColumn()) {
+                rows = elimination.eliminate(rows, column);
+                if (rows == null) {
+                    return new Invariants(graph, placeInvariants, Collections.<int[]>emptyList(),
+                            Collections.<int[]>emptyList(), false, maxRows);
+                }
+                peakRowCount = Math.max(peakRowCount, rows.size());
+            }
+        } catch (ArithmeticException e) {
+            return new Invariants(graph, placeInvariants, Collections.<int[]>emptyList(),
+                    Collections.<int[]>emptyList(), false, peakRowCount);
+        }
+        rows.sort((a, b) -> compareSupports(a.support, b.support));
+        List<int[]> supports = new ArrayList<>(rows.size());
+        List<int[]> weights = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            int[] weight = new int[row.weights.length];
+            for (int k = 0; k < weight.length; k++) {
+                weight[k] = Math.toIntExact(row.weights[k]);
+            }
+            supports.add(row.support);
+            weights.add(weight);
+        }
+        return new Invariants(graph, placeInvariants, supports, weights, true, peakRowCount);
+    }
+
+    /**
+     * Diese Methode vergleicht zwei Träger lexikographisch.
+     *
+     * @param a Der erste Träger.
+     * @param b Der zweite Träger.
+     * @return Ein negativer Wert, 0 oder ein positiver Wert.
+     */
+    private static int compareSupports(int[] a, int[] b) {
+        for (int k = 0; k < Math.min(a.length, b.length); k++) {
+            if (a[k] != b[k]) {
+                return Integer.compare(a[k], b[k]);
+            }
+        }
+        return Integer.compare(a.length, b.length);
+    }
+
+    /**
+     * Diese Methode bestimmt den größten gemeinsamen Teiler zweier nicht
+     * negativer Zahlen.
+     *
+     * @param a Die erste Zahl.
+     * @param b Die zweite Zahl.
+     * @return Der ggT.
+     */
+    private static long gcd(long a, long b) {
+        while (b != 0) {
+            long r = a % b;
+            a = b;
+            b = r;
+        }
+        return a;
+    }
+
+    /**
+     * Eine Zeile der Rechnung: der Invariantenteil mit seinem Träger und der
+     * verbleibende Rest der Matrixzeile, beide dünn gespeichert.
+     */
+    private static final class Row {
+
+        /**
+         * Der Träger des Invariantenteils, aufsteigend sortiert.
+         */
+        private final int[] support;
+
+        /**
+         * Die positiven Gewichte des Invariantenteils.
+         */
+        private final long[] weights;
+
+        /**
+         * Die Spalten des Rests mit Eintrag ungleich 0, aufsteigend sortiert.
+         */
+        private final int[] columns;
+
+        /**
+         * Die Einträge des Rests.
+         */
+        private final long[] values;
+
+        /**
+         * Dieser Konstruktor initialisiert alle Attribute.
+         *
+         * @param support Der Träger des Invariantenteils.
+         * @param weights Die Gewichte des Invariantenteils.
+         * @param columns Die Spalten des Rests.
+         * @param values Die Einträge des Rests.
+         */
+        Row(int[] support, long[] weights, int[] columns, long[] values) {
+            this.support = support;
+            this.weights = weights;
+            this.columns = columns;
+            this.values = values;
+        }
+
+        /**
+         * Diese Methode gibt den Eintrag einer Spalte im Rest zurück.
+         *
+         * @param column Die Spalte.
+         * @return Der Eintrag oder 0.
+         */
+        long get(int column) {
+            int position = Arrays.binarySearch(columns, column);
+            return position >= 0 ? values[position] : 0;
+        }
+    }
+
+    /**
+     * Diese Klasse führt die Eliminationsschritte durch. Sie hält die
+     * Hilfsarrays, die in jedem Schritt wiederverwendet werden.
+     */
+    private final class Elimination {
+
+        /**
+         * Anzahl positiver Einträge je Spalte in den aktuellen Zeilen.
+         */
+        private final int[] positive;
+
+        /**
+         * Anzahl negativer Einträge je Spalte in den aktuellen Zeilen.
+         */
+        private final int[] negative;
+
+        /**
+         * head[i] ist die erste behaltene Zeile, deren Träger mit Index i
+         * beginnt, oder -1.
+         */
+        private final int[] head;
+
+        /**
+         * next[k] ist die nächste behaltene Zeile mit demselben kleinsten
+         * Index wie Zeile k, oder -1.
+         */
+        private final IntArrayList next = new IntArrayList(1024);
+
+        /**
+         * Die Markierung des Trägers der gerade geprüften Zeile.
+         */
+        private final boolean[] mark;
+
+        /**
+         * Dieser Konstruktor initialisiert die Hilfsarrays.
+         *
+         * @param n Länge des Invariantenteils.
+         * @param m Anzahl der Spalten.
+         */
+        Elimination(int n, int m) {
+            this.positive = new int[m];
+            this.negative = new int[m];
+            this.head = new int[n];
+            this.mark = new boolean[n];
+        }
+
+        /**
+         * Diese Methode zählt die Einträge einer Zeile zu den Anzahlen je
+         * Spalte hinzu oder zieht sie ab.
+         *
+         * @param row Die Zeile.
+         * @param delta 1 für eine neue, -1 für eine wegfallende Zeile.
+         */
+        void count(Row row, int delta) {
+            for (int i = 0; i < row.columns.length; i++) {
+                if (row.values[i] > 0) {
+                    positive[row.columns[i]] += delta;
+                } else {
+                    negative[row.columns[i]] += delta;
+                }
+            }
+        }
+
+        /**
+         * Diese Methode wählt die nächste zu eliminierende Spalte. Gewählt
+         * wird die Spalte, bei der die Anzahl der Zeilen am wenigsten wächst.
+         *
+         * @return Die Spalte oder -1, falls alle Reste 0 sind.
+         */
+        int selectColumn() {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new CancellationException();
+            }
+            int best = -1;
+            long bestGrowth = Long.MAX_VALUE;
+            for (int c = 0; c < positive.length; c++) {
+                if (positive[c] + negative[c] > 0) {
+                    long growth = (long) positive[c] * negative[c] - positive[c] - negative[c];
+                    if (growth < bestGrowth) {
+                        best = c;
+                        bestGrowth = growth;
+                    }
+                }
+            }
+            return best;
+        }
+
+        /**
+         * Diese Methode eliminiert eine Spalte.
+         *
+         * @param rows Die aktuellen Zeilen.
+         * @param column Die zu eliminierende Spalte.
+         * @return Die neuen Zeilen oder null, falls die Grenze maxRows
+         * überschritten wurde.
+         */
+        List<Row> eliminate(List<Row> rows, int column) {
+            List<Row> kept = new ArrayList<>();
+            List<Row> positiveRows = new ArrayList<>();
+            List<Row> negativeRows = new ArrayList<>();
+            for (Row row : rows) {
+                long value = row.get(column);
+                if (value == 0) {
+                    kept.add(row);
+                } else if (value > 0) {
+                    positiveRows.add(row);
+                    count(row, -1);
+                } else {
+                    negativeRows.add(row);
+                    count(row, -1);
+                }
+            }
+            if (positiveRows.isEmpty() || negativeRows.isEmpty()) {
+                return kept;
+            }
+            Arrays.fill(head, -1);
+            next.clear();
+            for (int k = 0; k < kept.size(); k++) {
+                index(kept.get(k), k);
+            }
+            // Zuerst wird gegen die unveränderten Zeilen geprüft, danach
+            // werden die Kandidaten nach der Größe ihres Trägers sortiert
+            // untereinander geprüft.
+            List<Row> candidates = new ArrayList<>();
+            int combined = 0;
+            for (Row a : positiveRows) {
+                for (Row b : negativeRows) {
+                    if ((++combined & 0x3FF) == 0 && Thread.currentThread().isInterrupted()) {
+                        throw new CancellationException();
+                    }
+                    int[] support = union(a.support, b.support);
+                    if (!isDominated(support, kept)) {
+                        candidates.add(combine(a, b, column, support));
+                        if (kept.size() + candidates.size() > maxRows) {
+                            return null;
+                        }
+                    }
+                }
+            }
+            candidates.sort((a, b) -> Integer.compare(a.support.length, b.support.length));
+            for (Row candidate : candidates) {
+                if (!isDominated(candidate.support, kept)) {
+                    index(candidate, kept.size());
+                    kept.add(candidate);
+                    count(candidate, 1);
+                }
+            }
+            return kept;
+        }
+
+        /**
+         * Diese Methode nimmt eine behaltene Zeile in die Liste zum kleinsten
+         * Index ihres Trägers auf.
+         *
+         * @param row Die Zeile.
+         * @param k Ihre Position in der Liste der behaltenen Zeilen.
+         */
+        private void index(Row row, int k) {
+            int first = row.support[0];
+            next.add(head[first]);
+            head[first] = k;
+        }
+
+        /**
+         * Diese Methode überprüft, ob der Träger einer behaltenen Zeile im
+         * übergebenen Träger enthalten ist.
+         *
+         * @param support Der Träger einer neuen Zeile.
+         * @param kept Die behaltenen Zeilen.
+         * @return true, falls die neue Zeile nicht minimal ist.
+         */
+        private boolean isDominated(int[] support, List<Row> kept) {
+            for (int index : support) {
+                mark[index] = true;
+            }
+            boolean dominated = false;
+            for (int i = 0; i < support.length && !dominated; i++) {
+                for (int k = head[support[i]]; k >= 0 && !dominated; k = next.get(k)) {
+                    int[] other = kept.get(k).support;
+                    if (other.length <= support.length) {
+                        dominated = true;
+                        for (int j = 1; j < other.length && dominated; j++) {
+                            dominated = mark[other[j]];
+                        }
+                    }
+                }
+            }
+            for (int index : support) {
+                mark[index] = false;
+            }
+            return dominated;
+        }
+
+        /**
+         * Diese Methode bestimmt die Vereinigung zweier sortierter Träger.
+         *
+         * @param a Der erste Träger.
+         * @param b Der zweite Träger.
+         * @return Die sortierte Vereinigung.
+         */
+        private int[] union(int[] a, int[] b) {
+            int[] result = new int[a.length + b.length];
+            int i = 0;
+            int j = 0;
+            int size = 0;
+            while (i < a.length || j < b.length) {
+                if (j == b.length || (i < a.length && a[i] < b[j])) {
+                    result[size++] = a[i++];
+                } else if (i == a.length || b[j] < a[i]) {
+                    result[size++] = b[j++];
+                } else {
+                    result[size++] = a[i++];
+                    j++;
+                }
+            }
+            return size == result.length ? result : Arrays.copyOf(result, size);
+        }
+
+        /**
+         * Diese Methode kombiniert eine Zeile mit positivem und eine Zeile mit
+         * negativem Eintrag in der Spalte column, so dass dieser Eintrag 0
+         * wird. Das Ergebnis wird durch den ggT seiner Einträge geteilt.
+         *
+         * @param a Die Zeile mit positivem Eintrag.
+         * @param b Die Zeile mit negativem Eintrag.
+         * @param column Die zu eliminierende Spalte.
+         * @param support Die Vereinigung der beiden Träger.
+         * @return Die neue Zeile.
+         */
+        private Row combine(Row a, Row b, int column, int[] support) {
+            long valueA = a.get(column);
+            long valueB = -b.get(column);
+            long g = gcd(valueA, valueB);
+            long factorA = valueB / g;
+            long factorB = valueA / g;
+            long[] weights = new long[support.length];
+            int i = 0;
+            int j = 0;
+            for (int k = 0; k < support.length; k++) {
+                long weight = 0;
+                if (i < a.support.length && a.support[i] == support[k]) {
+                    weight = Math.multiplyExact(factorA, a.weights[i++]);
+                }
+                if (j < b.support.length && b.support[j] == support[k]) {
+                    weight = Math.addExact(weight, Math.multiplyExact(factorB, b.weights[j++]));
+                }
+                weights[k] = weight;
+            }
+            int[] columns = new int[a.columns.length + b.columns.length];
+            long[] values = new long[columns.length];
+            int size = 0;
+            i = 0;
+            j = 0;
+            while (i < a.columns.length || j < b.columns.length) {
+                int c;
+                long value;
+                if (j == b.columns.length || (i < a.columns.length && a.columns[i] < b.columns[j])) {
+                    c = a.columns[i];
+                    value = Math.multiplyExact(factorA, a.values[i++]);
+                } else if (i == a.columns.length || b.columns[j] < a.columns[i]) {
+                    c = b.columns[j];
+                    value = Math.multiplyExact(factorB, b.values[j++]);
+                } else {
+                    c = a.columns[i];
+                    value = Math.addExact(Math.multiplyExact(factorA, a.values[i++]),
+                            Math.multiplyExact(factorB, b.values[j++]));
+                }
+                if (value != 0) {
+                    columns[size] = c;
+                    values[size++] = value;
+                }
+            }
+            long divisor = 0;
+            for (long weight : weights) {
+                divisor = gcd(divisor, weight);
+            }
+            for (int k = 0; k < size && divisor > 1; k++) {
+                divisor = gcd(divisor, Math.abs(values[k]));
+            }
+            if (divisor > 1) {
+                for (int k = 0; k < weights.length; k++) {
+                    weights[k] /= divisor;
+                }
+                for (int k = 0; k < size; k++) {
+                    values[k] /= divisor;
+                }
+            }
+            return new Row(support, weights, Arrays.copyOf(columns, size), Arrays.copyOf(values, size));
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package invariants;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import workflownetLogic.NetGraph;
+
+/**
+ * Diese Klasse hält die minimalen semi-positiven Invarianten eines Netzes
+ * fest, entweder die P-Invarianten (Gewichte der Stellen) oder die
+ * T-Invarianten (Anzahlen der Transitionen). Jede Invariante wird dünn
+ * gespeichert: als aufsteigend sortierte Indizes ihres Trägers und die
+ * zugehörigen positiven Gewichte. Die Indizes sind bei P-Invarianten Stellen
+ * (0 bis placeCount-1), bei T-Invarianten Transitionen (Knoten placeCount + t
+ * des NetGraph).
+ */
+public class Invariants {
+
+    /**
+     * Die Momentaufnahme des Netzes.
+     */
+    private final NetGraph graph;
+
+    /**
+     * Information darüber, ob es sich um P-Invarianten handelt.
+     */
+    private final boolean placeInvariants;
+
+    /**
+     * Die Träger aller Invarianten.
+     */
+    private final List<int[]> supports;
+
+    /**
+     * Die Gewichte aller Invarianten, in der Reihenfolge ihrer Träger.
+     */
+    private final List<int[]> weights;
+
+    /**
+     * Information darüber, ob die Berechnung vollständig durchgeführt wurde.
+     */
+    private final boolean complete;
+
+    /**
+     * Größte Anzahl an Zeilen, die während der Berechnung gleichzeitig
+     * bestanden.
+     */
+    private final int peakRowCount;
+
+    /**
+     * Dieser Konstruktor initialisiert alle Attribute. Die Listen werden
+     * übernommen und nicht kopiert.
+     *
+     * @param graph Die Momentaufnahme des Netzes.
+     * @param placeInvariants true für P-Invarianten, false für T-Invarianten.
+     * @param supports Die Träger aller Invarianten.
+     * @param weights Die Gewichte aller Invarianten.
+     * @param complete true, falls die Berechnung vollständig ist.
+     * @param peakRowCount Größte Anzahl gleichzeitiger Zeilen.
+     */
+    Invariants(NetGraph graph, boolean placeInvariants, List<int[]> supports,
+            List<int[]> weights, boolean complete, int peakRowCount) {
+        this.graph = graph;
+        this.placeInvariants = placeInvariants;
+        this.supports = supports;
+        this.weights = weights;
+        this.complete = complete;
+        this.peakRowCount = peakRowCount;
+    }
+
+    /**
+     * Diese Methode gibt die Anzahl der Invarianten zurück.
+     *
+     * @return Anzahl der minimalen Invarianten.
+     */
+    public int getCount() {
+        return supports.size();
+    }
+
+    /**
+     * Diese Methode gibt den Träger einer Invariante zurück. Das Array darf
+     * nicht verändert werden.
+     *
+     * @param i Nummer der Invariante.
+     * @return Die aufsteigend sortierten Indizes der Stellen bzw.
+     * Transitionen mit positivem Gewicht.
+     */
+    public int[] getSupport(int i) {
+        return supports.get(i);
+    }
+
+    /**
+     * Diese Methode gibt die Gewichte einer Invariante zurück. Das Array darf
+     * nicht verändert werden.
+     *
+     * @param i Nummer der Invariante.
+     * @return Die Gewichte in der Reihenfolge des Trägers.
+     */
+    public int[] getWeights(int i) {
+        return weights.get(i);
+    }
+
+    /**
+     * Diese Methode stellt eine Invariante als gewichtete Summe der ids dar,
+     * z.B. "p1 + 2 p2 + p3".
+     *
+     * @param i Nummer der Invariante.
+     * @return Die Invariante als String.
+     */
+    public String toString(int i) {
+        int[] support = supports.get(i);
+        int[] weight = weights.get(i);
+        StringBuilder builder = new StringBuilder();
+        for (int k = 0; k < support.length; k++) {
+            if (k > 0) {
+                builder.append(" + ");
+            }
+            if (weight[k] != 1) {
+                builder.append(weight[k]).append(' ');
+            }
+            builder.append(graph.getId(offset() + support[k]));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Diese Methode bestimmt alle Stellen bzw. Transitionen, die im Träger
+     * mindestens einer Invariante liegen.
+     *
+     * @return Ein BitSet mit den überdeckten Indizes.
+     */
+    public BitSet getCovered() {
+        BitSet covered = new BitSet();
+        for (int[] support : supports) {
+            for (int index : support) {
+                covered.set(index);
+            }
+        }
+        return covered;
+    }
+
+    /**
+     * Diese Methode gibt an, ob das Netz von den Invarianten überdeckt wird.
+     * Ein Netz, das von P-Invarianten überdeckt wird, ist für jede
+     * Anfangsmarkierung beschränkt.
+     *
+     * @return true, falls jede Stelle bzw. Transition in einem Träger liegt.
+     */
+    public boolean isCovering() {
+        return getCovered().cardinality() == size();
+    }
+
+    /**
+     * Diese Methode bestimmt die ids der Stellen bzw. Transitionen, die in
+     * keinem Träger liegen.
+     *
+     * @return Die ids der nicht überdeckten Knoten.
+     */
+    public List<String> getUncoveredIds() {
+        BitSet covered = getCovered();
+        List<String> ids = new ArrayList<>();
+        for (int index = covered.nextClearBit(0); index < size();
+                index = covered.nextClearBit(index + 1)) {
+            ids.add(graph.getId(offset() + index));
+        }
+        return ids;
+    }
+
+    /**
+     * Diese Methode gibt die Anzahl der Stellen bzw. Transitionen zurück.
+     *
+     * @return Die Länge einer Invariante als dichter Vektor.
+     */
+    private int size() {
+        return placeInvariants ? graph.getPlaceCount() : graph.getTransitionCount();
+    }
+
+    /**
+     * Diese Methode gibt den Knotenindex des ersten Eintrags zurück.
+     *
+     * @return 0 für P-Invarianten, placeCount für T-Invarianten.
+     */
+    private int offset() {
+        return placeInvariants ? 0 : graph.getPlaceCount();
+    }
+
+    /**
+     * Diese Methode gibt an, ob es sich um P-Invarianten handelt.
+     *
+     * @return Das Attribut placeInvariants.
+     */
+    public boolean isPlaceInvariants() {
+        return placeInvariants;
+    }
+
+    /**
+     * Diese Methode gibt an, ob die Berechnung vollständig durchgeführt
+     * wurde.
+     *
+     * @return false, falls die Berechnung an der Zeilengrenze abgebrochen
+     * wurde. Die Liste der Invarianten ist dann leer.
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * Diese Methode gibt das Attribut peakRowCount zurück.
+     *
+     * @return Größte Anzahl an Zeilen, die gleichzeitig bestanden.
+     */
+    public int getPeakRowCount() {
+        return peakRowCount;
+    }
+
+    /**
+     * Diese Methode gibt die Momentaufnahme des Netzes zurück.
+     *
+     * @return Das Attribut graph.
+     */
+    public NetGraph getGraph() {
+        return graph;
+    }
+}
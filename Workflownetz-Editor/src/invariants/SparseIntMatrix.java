@@ -0,0 +1,211 @@
+package invariants;
+
+import java.util.Arrays;
+import workflownetLogic.NetGraph;
+
+/**
+ * Diese Klasse ist eine unveränderliche, dünn besetzte Matrix mit
+ * int-Einträgen. Wie die Vor- und Nachbereiche im NetGraph werden die
+ * Einträge im CSR-Format (compressed sparse row) gehalten: Zu jeder Zeile
+ * stehen nur die Spalten mit einem Eintrag ungleich 0, aufsteigend sortiert.
+ */
+public class SparseIntMatrix {
+
+    /**
+     * Anzahl der Zeilen.
+     */
+    private final int rowCount;
+
+    /**
+     * Anzahl der Spalten.
+     */
+    private final int columnCount;
+
+    /**
+     * rowStart[r] bis rowStart[r+1]-1 sind die Positionen der Einträge von
+     * Zeile r in den Arrays columns und values.
+     */
+    private final int[] rowStart;
+
+    /**
+     * Die Spalten aller Einträge, je Zeile aufsteigend sortiert.
+     */
+    private final int[] columns;
+
+    /**
+     * Die Werte aller Einträge.
+     */
+    private final int[] values;
+
+    /**
+     * Dieser Konstruktor initialisiert alle Attribute. Die Arrays werden
+     * übernommen und nicht kopiert.
+     *
+     * @param rowCount Anzahl der Zeilen.
+     * @param columnCount Anzahl der Spalten.
+     * @param rowStart Die Offsets der Zeilen (Länge rowCount+1).
+     * @param columns Die Spalten aller Einträge.
+     * @param values Die Werte aller Einträge.
+     */
+    SparseIntMatrix(int rowCount, int columnCount, int[] rowStart, int[] columns, int[] values) {
+        this.rowCount = rowCount;
+        this.columnCount = columnCount;
+        this.rowStart = rowStart;
+        this.columns = columns;
+        this.values = values;
+    }
+
+    /**
+     * Diese Methode erzeugt die Inzidenzmatrix eines Netzes. Die Zeilen sind
+     * die Stellen, die Spalten die Transitionen (Transition t ist Knoten
+     * placeCount + t des NetGraph). Der Eintrag zu Stelle p und Transition t
+     * ist die Anzahl der Marken, die t auf p legt, abzüglich der Anzahl, die
+     * t von p nimmt. Da der NetGraph aus den Kanten (Arc) des Netzes erzeugt
+     * wird, entsprechen seine Vor- und Nachbereiche genau diesen Kanten.
+     * Schlingen ergeben 0 und werden nicht gespeichert.
+     *
+     * @param graph Die Momentaufnahme des Netzes.
+     * @return Die Inzidenzmatrix.
+     */
+    public static SparseIntMatrix incidence(NetGraph graph) {
+        int placeCount = graph.getPlaceCount();
+        int transitionCount = graph.getTransitionCount();
+        int[] preStart = graph.getPreStart();
+        int[] pre = graph.getPre();
+        int[] postStart = graph.getPostStart();
+        int[] post = graph.getPost();
+        // Eine Stelle hat höchstens so viele Einträge wie Kanten.
+        int[] rowStart = new int[placeCount + 1];
+        int[] columns = new int[graph.getArcCount()];
+        int[] values = new int[graph.getArcCount()];
+        int[] row = new int[transitionCount];
+        int[] touched = new int[graph.getArcCount()];
+        int size = 0;
+        for (int p = 0; p < placeCount; p++) {
+            int touchedCount = 0;
+            for (int i = preStart[p]; i < preStart[p + 1]; i++) {
+                int t = pre[i] - placeCount;
+                if (row[t] == 0) {
+                    touched[touchedCount++] = t;
+                }
+                row[t]++;
+            }
+            for (int i = postStart[p]; i < postStart[p + 1]; i++) {
+                int t = post[i] - placeCount;
+                if (row[t] == 0) {
+                    touched[touchedCount++] = t;
+                }
+                row[t]--;
+            }
+            Arrays.sort(touched, 0, touchedCount);
+            for (int i = 0; i < touchedCount; i++) {
+                int t = touched[i];
+                if (row[t] != 0) {
+                    columns[size] = t;
+                    values[size++] = row[t];
+                    row[t] = 0;
+                }
+            }
+            rowStart[p + 1] = size;
+        }
+        return new SparseIntMatrix(placeCount, transitionCount, rowStart, columns, values);
+    }
+
+    /**
+     * Diese Methode erzeugt die transponierte Matrix.
+     *
+     * @return Die transponierte Matrix.
+     */
+    public SparseIntMatrix transpose() {
+        int size = rowStart[rowCount];
+        int[] start = new int[columnCount + 1];
+        for (int i = 0; i < size; i++) {
+            start[columns[i] + 1]++;
+        }
+        for (int c = 0; c < columnCount; c++) {
+            start[c + 1] += start[c];
+        }
+        int[] fill = new int[columnCount];
+        int[] transposedColumns = new int[size];
+        int[] transposedValues = new int[size];
+        // Die Zeilen werden aufsteigend durchlaufen, dadurch bleiben die
+        // Einträge jeder neuen Zeile sortiert.
+        for (int r = 0; r < rowCount; r++) {
+            for (int i = rowStart[r]; i < rowStart[r + 1]; i++) {
+                int position = start[columns[i]] + fill[columns[i]]++;
+                transposedColumns[position] = r;
+                transposedValues[position] = values[i];
+            }
+        }
+        return new SparseIntMatrix(columnCount, rowCount, start, transposedColumns, transposedValues);
+    }
+
+    /**
+     * Diese Methode gibt einen Eintrag der Matrix zurück.
+     *
+     * @param row Die Zeile.
+     * @param column Die Spalte.
+     * @return Der Eintrag oder 0.
+     */
+    public int get(int row, int column) {
+        int position = Arrays.binarySearch(columns, rowStart[row], rowStart[row + 1], column);
+        return position >= 0 ? values[position] : 0;
+    }
+
+    /**
+     * Diese Methode gibt das Attribut rowCount zurück.
+     *
+     * @return Anzahl der Zeilen.
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Diese Methode gibt das Attribut columnCount zurück.
+     *
+     * @return Anzahl der Spalten.
+     */
+    public int getColumnCount() {
+        return columnCount;
+    }
+
+    /**
+     * Diese Methode gibt die Anzahl der Einträge ungleich 0 zurück.
+     *
+     * @return Anzahl der gespeicherten Einträge.
+     */
+    public int getEntryCount() {
+        return rowStart[rowCount];
+    }
+
+    /**
+     * Diese Methode gibt das Attribut rowStart zurück. Das Array darf nicht
+     * verändert werden.
+     *
+     * @return Die Offsets der Zeilen.
+     */
+    public int[] getRowStart() {
+        return rowStart;
+    }
+
+    /**
+     * Diese Methode gibt das Attribut columns zurück. Das Array darf nicht
+     * verändert werden.
+     *
+     * @return Die Spalten aller Einträge.
+     */
+    public int[] getColumns() {
+        return columns;
+    }
+
+    /**
+     * Diese Methode gibt das Attribut values zurück. Das Array darf nicht
+     * verändert werden.
+     *
+     * @return Die Werte aller Einträge.
+     */
+    public int[] getValues() {
+        return values;
+    }
+}
@@ -0,0 +1,446 @@
+package persistenceService;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.Serializable;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import workflownetLogic.SoundnessResult;
+
+/**
+ * Diese Klasse speichert Ergebnisse von Analysen, damit sie für ein
+ * unverändertes Netz nicht erneut berechnet werden müssen. Der Schlüssel
+ * besteht aus dem Fingerabdruck des Netzes (NetGraph.getFingerprint) und dem
+ * Namen der Analyse. Ein Netz, das erneut geöffnet oder nach Änderungen
+ * wieder in einen bekannten Zustand gebracht wird, erhält so sofort die
+ * bekannten Ergebnisse.
+ *
+ * Die Ergebnisse werden im Speicher und als serialisierte Dateien im
+ * Verzeichnis CACHE_DIRECTORY abgelegt. Beide Ebenen sind in ihrer Größe
+ * beschränkt und verwerfen bei Bedarf das am längsten nicht verwendete
+ * Ergebnis (LRU). Auf der Festplatte dient dazu das Änderungsdatum der
+ * Dateien, das bei jedem Treffer erneuert wird. Fehler beim Lesen oder
+ * Schreiben einer Datei führen nur dazu, dass das Ergebnis neu berechnet
+ * wird.
+ *
+ * Die Dateien werden nicht im aufrufenden Thread gelesen und geschrieben,
+ * sondern über einen eigenen Executor. put legt ein Ergebnis sofort im
+ * Speicher ab und schreibt die Datei im Hintergrund, load liest sie im
+ * Hintergrund und übergibt das Ergebnis einem Consumer. Aus dem JavaFX-Thread
+ * dürfen daher nur put und load aufgerufen werden, get liest die Datei im
+ * aufrufenden Thread.
+ *
+ * Beim Lesen werden nur die Klassen in ALLOWED_CLASSES zugelassen, eine
+ * manipulierte Datei im Verzeichnis kann also keine beliebigen Objekte
+ * erzeugen. Abgelegt werden Soundness-Ergebnisse und Meldungen (String).
+ *
+ * Die Methoden sind synchronisiert, so dass Ergebnisse auch aus den Threads
+ * der Analysen abgelegt werden können. Der Speicher und die Dateien haben
+ * getrennte Sperren: Während eine Datei gelesen, geschrieben oder verdrängt
+ * wird, bleiben put und der Zugriff auf den Speicher frei.
+ */
+public class AnalysisCache {
+
+    /**
+     * Das Verzeichnis, in dem die Ergebnisse abgelegt werden.
+     */
+    public static final File CACHE_DIRECTORY = new File(System.getProperty("user.home"),
+            ".workflownetz-editor" + File.separator + "cache");
+
+    /**
+     * Der Name der Soundness-Überprüfung.
+     */
+    public static final String SOUNDNESS = "soundness";
+
+    /**
+     * Der Name der Invarianten-Berechnung.
+     */
+    public static final String INVARIANTS = "invariants";
+
+    /**
+     * Maximale Anzahl an Ergebnissen im Speicher.
+     */
+    private static final int MAX_MEMORY_ENTRIES = 256;
+
+    /**
+     * Maximale Größe aller Dateien im Verzeichnis in Bytes.
+     */
+    private static final long MAX_DISK_BYTES = 64L * 1024 * 1024;
+
+    /**
+     * Die Endung der Dateien.
+     */
+    private static final String SUFFIX = ".cache";
+
+    /**
+     * Die Klassen, die beim Lesen einer Datei erzeugt werden dürfen. Neben
+     * SoundnessResult sind das die Klassen seiner Attribute und ihre
+     * Oberklassen. String wird ohne Klassenbeschreibung gelesen.
+     */
+    private static final Set<String> ALLOWED_CLASSES = new HashSet<>(Arrays.asList(
+            SoundnessResult.class.getName(),
+            SoundnessResult.Verdict.class.getName(),
+            Enum.class.getName(),
+            Number.class.getName(),
+            BigInteger.class.getName(),
+            ArrayList.class.getName(),
+            LinkedList.class.getName(),
+            Arrays.asList().getClass().getName(),
+            Collections.emptyList().getClass().getName(),
+            Collections.singletonList(null).getClass().getName(),
+            "java.util.Collections$UnmodifiableCollection",
+            "java.util.Collections$UnmodifiableList",
+            "java.util.Collections$UnmodifiableRandomAccessList",
+            byte[].class.getName(),
+            String[].class.getName(),
+            Object[].class.getName()));
+
+    /**
+     * Die einzige Instanz dieser Klasse.
+     */
+    private static AnalysisCache instance;
+
+    /**
+     * Die Ergebnisse im Speicher, in der Reihenfolge ihrer letzten
+     * Verwendung.
+     */
+    private final Map<String, Serializable> memory;
+
+    /**
+     * Das Verzeichnis der Dateien oder null, falls nur im Speicher abgelegt
+     * werden soll.
+     */
+    private final File directory;
+
+    /**
+     * Maximale Anzahl an Ergebnissen im Speicher.
+     */
+    private final int maxMemoryEntries;
+
+    /**
+     * Maximale Größe aller Dateien in Bytes.
+     */
+    private final long maxDiskBytes;
+
+    /**
+     * Der Executor, der die Dateien liest und schreibt.
+     */
+    private final Executor diskExecutor;
+
+    /**
+     * Die Sperre für die Dateien und diskBytes. Der Speicher wird über das
+     * Objekt selbst gesperrt.
+     */
+    private final Object diskLock = new Object();
+
+    /**
+     * Die Größe aller Dateien in Bytes oder -1, falls das Verzeichnis noch
+     * nicht gelesen wurde.
+     */
+    private long diskBytes = -1;
+
+    /**
+     * Dieser Konstruktor initialisiert einen Cache mit den übergebenen
+     * Grenzen.
+     *
+     * @param directory Das Verzeichnis der Dateien oder null.
+     * @param maxMemoryEntries Maximale Anzahl an Ergebnissen im Speicher.
+     * @param maxDiskBytes Maximale Größe aller Dateien in Bytes.
+     * @param diskExecutor Der Executor, der die Dateien liest und schreibt.
+     */
+    public AnalysisCache(File directory, int maxMemoryEntries, long maxDiskBytes,
+            Executor diskExecutor) {
+        this.directory = directory;
+        this.maxMemoryEntries = maxMemoryEntries;
+        this.maxDiskBytes = maxDiskBytes;
+        this.diskExecutor = diskExecutor;
+        this.memory = new LinkedHashMap<String, Serializable>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Serializable> eldest) {
+                return size() > AnalysisCache.this.maxMemoryEntries;
+            }
+        };
+    }
+
+    /**
+     * Gibt die einzige Instanz dieser Klasse zurück. Sie legt ihre Dateien
+     * im Verzeichnis CACHE_DIRECTORY ab und liest und schreibt sie in einem
+     * eigenen Daemon-Thread. Da nur Ergebnisse abgelegt werden, die sich neu
+     * berechnen lassen, muss beim Beenden nicht auf ihn gewartet werden.
+     *
+     * @return Die Instanz dieser Klasse.
+     */
+    public static synchronized AnalysisCache getInstance() {
+        if (instance == null) {
+            Executor executor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "analysis-cache");
+                thread.setDaemon(true);
+                return thread;
+            });
+            instance = new AnalysisCache(CACHE_DIRECTORY, MAX_MEMORY_ENTRIES, MAX_DISK_BYTES,
+                    executor);
+        }
+        return instance;
+    }
+
+    /**
+     * Diese Methode setzt den Schlüssel eines Ergebnisses zusammen.
+     *
+     * @param fingerprint Der Fingerabdruck des Netzes.
+     * @param analysis Der Name der Analyse, z.B. SOUNDNESS.
+     * @return Der Schlüssel.
+     */
+    public static String key(String fingerprint, String analysis) {
+        return fingerprint + "-" + analysis;
+    }
+
+    /**
+     * Diese Methode sucht ein gespeichertes Ergebnis wie get, liest die Datei
+     * aber mit dem Executor des Caches. Auch der Schlüssel wird erst dort
+     * bestimmt, damit der Fingerabdruck eines großen Netzes nicht im
+     * aufrufenden Thread berechnet wird. Das Ergebnis wird im Thread des
+     * Executors an den Consumer übergeben.
+     *
+     * @param key Liefert den Schlüssel aus Fingerabdruck und Name der Analyse.
+     * @param consumer Erhält das Ergebnis oder null, falls keines gespeichert
+     * ist.
+     */
+    public void load(Supplier<String> key, Consumer<Serializable> consumer) {
+        diskExecutor.execute(() -> consumer.accept(get(key.get())));
+    }
+
+    /**
+     * Diese Methode gibt ein gespeichertes Ergebnis zurück. Ist es nicht im
+     * Speicher, wird es im aufrufenden Thread aus seiner Datei gelesen. Sie
+     * darf daher nicht im JavaFX-Thread aufgerufen werden.
+     *
+     * @param key Der Schlüssel aus Fingerabdruck und Name der Analyse.
+     * @return Das Ergebnis oder null, falls keines gespeichert ist.
+     */
+    public Serializable get(String key) {
+        Serializable value;
+        synchronized (this) {
+            value = memory.get(key);
+        }
+        if (value != null || directory == null) {
+            return value;
+        }
+        synchronized (diskLock) {
+            value = read(key);
+        }
+        if (value != null) {
+            synchronized (this) {
+                memory.put(key, value);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Diese Methode liest ein Ergebnis aus seiner Datei. Eine unlesbare Datei
+     * wird gelöscht. Der Aufrufer muss diskLock halten.
+     *
+     * @param key Der Schlüssel aus Fingerabdruck und Name der Analyse.
+     * @return Das Ergebnis oder null, falls keines gespeichert ist.
+     */
+    private Serializable read(String key) {
+        File file = getFile(key);
+        if (!file.isFile()) {
+            return null;
+        }
+        Serializable value = null;
+        try (ObjectInputStream in = new AllowListInputStream(
+                new BufferedInputStream(new FileInputStream(file)))) {
+            // Die Datei enthält den vollständigen Schlüssel, damit
+            // Kollisionen des Dateinamens erkannt werden.
+            if (key.equals(in.readUTF())) {
+                value = (Serializable) in.readObject();
+            }
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            value = null;
+        }
+        if (value == null) {
+            deleteFile(file);
+            return null;
+        }
+        file.setLastModified(System.currentTimeMillis());
+        return value;
+    }
+
+    /**
+     * Diese Methode speichert ein Ergebnis im Speicher. Die Datei wird mit dem
+     * Executor des Caches geschrieben.
+     *
+     * @param key Der Schlüssel aus Fingerabdruck und Name der Analyse.
+     * @param value Das Ergebnis.
+     */
+    public synchronized void put(String key, Serializable value) {
+        memory.put(key, value);
+        if (directory != null) {
+            diskExecutor.execute(() -> write(key, value));
+        }
+    }
+
+    /**
+     * Diese Methode schreibt ein Ergebnis in seine Datei. Danach werden so
+     * lange die ältesten Dateien gelöscht, bis die Größengrenze wieder
+     * eingehalten ist.
+     *
+     * @param key Der Schlüssel aus Fingerabdruck und Name der Analyse.
+     * @param value Das Ergebnis.
+     */
+    private void write(String key, Serializable value) {
+        synchronized (diskLock) {
+            writeFile(key, value);
+        }
+    }
+
+    /**
+     * Diese Methode schreibt die Datei für write. Der Aufrufer muss diskLock
+     * halten.
+     *
+     * @param key Der Schlüssel aus Fingerabdruck und Name der Analyse.
+     * @param value Das Ergebnis.
+     */
+    private void writeFile(String key, Serializable value) {
+        if (directory == null || (!directory.isDirectory() && !directory.mkdirs())) {
+            return;
+        }
+        File file = getFile(key);
+        long previous = file.length();
+        try (ObjectOutputStream out = new ObjectOutputStream(
+                new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.writeUTF(key);
+            out.writeObject(value);
+        } catch (IOException e) {
+            deleteFile(file);
+            return;
+        }
+        if (diskBytes < 0) {
+            diskBytes = 0;
+            for (File cached : listFiles()) {
+                diskBytes += cached.length();
+            }
+        } else {
+            diskBytes += file.length() - previous;
+        }
+        if (diskBytes > maxDiskBytes) {
+            evict(file);
+        }
+    }
+
+    /**
+     * Diese Methode löscht die am längsten nicht verwendeten Dateien, bis
+     * die Größengrenze eingehalten ist. Die zuletzt geschriebene Datei bleibt
+     * erhalten.
+     *
+     * @param keep Die zuletzt geschriebene Datei.
+     */
+    private void evict(File keep) {
+        File[] files = listFiles();
+        Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+        for (File file : files) {
+            if (diskBytes <= maxDiskBytes) {
+                break;
+            }
+            if (!file.equals(keep)) {
+                deleteFile(file);
+            }
+        }
+    }
+
+    /**
+     * Diese Methode löscht eine Datei und verringert die gespeicherte Größe.
+     *
+     * @param file Die Datei.
+     */
+    private void deleteFile(File file) {
+        long length = file.length();
+        if (file.delete() && diskBytes >= 0) {
+            diskBytes -= length;
+        }
+    }
+
+    /**
+     * Diese Methode gibt alle Dateien des Verzeichnisses zurück.
+     *
+     * @return Die Dateien mit der Endung SUFFIX.
+     */
+    private File[] listFiles() {
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(SUFFIX));
+        return files == null ? new File[0] : files;
+    }
+
+    /**
+     * Diese Methode bestimmt die Datei zu einem Schlüssel. Zeichen, die in
+     * Dateinamen nicht erlaubt sind, werden ersetzt.
+     *
+     * @param key Der Schlüssel.
+     * @return Die Datei im Verzeichnis directory.
+     */
+    private File getFile(String key) {
+        return new File(directory, key.replaceAll("[^A-Za-z0-9_-]", "_") + SUFFIX);
+    }
+
+    /**
+     * Diese Methode verwirft alle Ergebnisse im Speicher. Die Dateien bleiben
+     * erhalten.
+     */
+    public synchronized void clearMemory() {
+        memory.clear();
+    }
+
+    /**
+     * Dieser ObjectInputStream erzeugt nur Objekte der Klassen in
+     * ALLOWED_CLASSES. Für jede andere Klasse wird eine
+     * InvalidClassException geworfen, bevor ein Objekt entsteht.
+     */
+    private static class AllowListInputStream extends ObjectInputStream {
+
+        /**
+         * Dieser Konstruktor liest den Kopf des Streams.
+         *
+         * @param in Der zugrunde liegende Stream.
+         * @throws IOException Falls der Kopf nicht gelesen werden kann.
+         */
+        AllowListInputStream(InputStream in) throws IOException {
+            super(in);
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass desc)
+                throws IOException, ClassNotFoundException {
+            if (!ALLOWED_CLASSES.contains(desc.getName())) {
+                throw new InvalidClassException(desc.getName(), "not allowed");
+            }
+            return super.resolveClass(desc);
+        }
+
+        @Override
+        protected Class<?> resolveProxyClass(String[] interfaces)
+                throws IOException, ClassNotFoundException {
+            throw new InvalidClassException(Arrays.toString(interfaces), "not allowed");
+        }
+    }
+}
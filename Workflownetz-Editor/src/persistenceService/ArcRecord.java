@@ -0,0 +1,63 @@
+package persistenceService;
+
+/**
+ * Diese Klasse beschreibt eine Kante eines geladenen Netzes ohne
+ * JavaFX-Objekte. Start- und Endknoten werden als NodeRecord gehalten.
+ */
+public final class ArcRecord {
+
+    /**
+     * Die id der Kante.
+     */
+    private final String id;
+
+    /**
+     * Der Startknoten.
+     */
+    private final NodeRecord source;
+
+    /**
+     * Der Endknoten.
+     */
+    private final NodeRecord target;
+
+    /**
+     * Dieser Konstruktor initialisiert alle Attribute.
+     *
+     * @param id Die id der Kante.
+     * @param source Der Startknoten.
+     * @param target Der Endknoten.
+     */
+    ArcRecord(String id, NodeRecord source, NodeRecord target) {
+        this.id = id;
+        this.source = source;
+        this.target = target;
+    }
+
+    /**
+     * Diese Methode gibt das Attribut id zurück.
+     *
+     * @return Das Attribut id.
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Diese Methode gibt das Attribut source zurück.
+     *
+     * @return Das Attribut source.
+     */
+    public NodeRecord getSource() {
+        return source;
+    }
+
+    /**
+     * Diese Methode gibt das Attribut target zurück.
+     *
+     * @return Das Attribut target.
+     */
+    public NodeRecord getTarget() {
+        return target;
+    }
+}
@@ -0,0 +1,217 @@
+package persistenceService;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import petriNodes.Arc;
+import petriNodes.PetriNode;
+import petriNodes.Place;
+import petriNodes.Transition;
+import workflownetLogic.NetGraph;
+
+/**
+ * Diese Klasse hält ein geladenes Netz ohne JavaFX-Objekte. Jede Stelle und
+ * Transition kostet nur ein NodeRecord, jede Kante ein ArcRecord. Place-,
+ * Transition- und Arc-Objekte erzeugen dagegen Shapes, Beschriftungen,
+ * Properties, Bindungen und Kontextmenüs. Analysen und Stapelverarbeitung
+ * können große Netze daher mit toNetGraph() ohne Benutzeroberfläche und mit
+ * einem Bruchteil des Speichers auswerten. Die Objekte für die
+ * Benutzeroberfläche erzeugt erst toPetriNodes() in einem eigenen Schritt.
+ */
+public class NetModel {
+
+    /**
+     * Die Knoten nach ihrer id, in der Reihenfolge der Datei.
+     */
+    private final Map<String, NodeRecord> nodes = new LinkedHashMap<>();
+
+    /**
+     * Die Kanten in der Reihenfolge der Datei.
+     */
+    private final List<ArcRecord> arcs = new ArrayList<>();
+
+    /**
+     * Diese Methode erzeugt ein NetModel aus den Objekten der
+     * Benutzeroberfläche. Übernommen werden die Beschriftung, die Position
+     * und die aktuelle Markierung. Da JavaFX-Objekte gelesen werden, muss sie
+     * im JavaFX-Thread aufgerufen werden.
+     *
+     * @param petriNodes Das Netz in Form eines Collection-Objekts.
+     * @return Das Netz ohne JavaFX-Objekte.
+     */
+    public static NetModel fromPetriNodes(Collection<PetriNode> petriNodes) {
+        NetModel model = new NetModel();
+        for (PetriNode node : petriNodes) {
+            NodeRecord record;
+            if (node instanceof Place) {
+                record = model.addPlace(node.getId());
+                record.setMarking(((Place) node).getTokens());
+            } else {
+                record = model.addTransition(node.getId());
+            }
+            record.setName(node.getLabel().getText());
+            record.setPosition(node.getPosX(), node.getPosY());
+        }
+        for (PetriNode node : petriNodes) {
+            Iterator<Arc> iterator = node.getNextArcs().iterator();
+            while (iterator.hasNext()) {
+                Arc arc = iterator.next();
+                model.addArc(arc.getArcId(), arc.getStartNode().getId(), arc.getEndNode().getId());
+            }
+        }
+        return model;
+    }
+
+    /**
+     * Diese Methode legt eine Stelle an. Ein Knoten mit derselben id wird wie
+     * beim Laden der PetriNode-Objekte ersetzt.
+     *
+     * @param id Die id der Stelle.
+     * @return Die neue Stelle.
+     */
+    NodeRecord addPlace(String id) {
+        NodeRecord node = new NodeRecord(id, true);
+        nodes.put(id, node);
+        return node;
+    }
+
+    /**
+     * Diese Methode legt eine Transition an. Ein Knoten mit derselben id wird
+     * ersetzt.
+     *
+     * @param id Die id der Transition.
+     * @return Die neue Transition.
+     */
+    NodeRecord addTransition(String id) {
+        NodeRecord node = new NodeRecord(id, false);
+        nodes.put(id, node);
+        return node;
+    }
+
+    /**
+     * Diese Methode legt eine Kante zwischen zwei bereits vorhandenen Knoten
+     * an.
+     *
+     * @param id Die id der Kante.
+     * @param source Die id des Startknotens.
+     * @param target Die id des Endknotens.
+     * @return false, falls einer der Knoten nicht existiert. Die Kante wird
+     * dann nicht angelegt.
+     */
+    boolean addArc(String id, String source, String target) {
+        NodeRecord sourceNode = nodes.get(source);
+        NodeRecord targetNode = nodes.get(target);
+        if (sourceNode == null || targetNode == null) {
+            return false;
+        }
+        arcs.add(new ArcRecord(id, sourceNode, targetNode));
+        return true;
+    }
+
+    /**
+     * Diese Methode gibt den Knoten mit der übergebenen id zurück.
+     *
+     * @param id Die id des Knotens.
+     * @return Der Knoten oder null.
+     */
+    public NodeRecord getNode(String id) {
+        return nodes.get(id);
+    }
+
+    /**
+     * Diese Methode gibt das Attribut nodes zurück.
+     *
+     * @return Die Knoten in der Reihenfolge der Datei.
+     */
+    public Collection<NodeRecord> getNodes() {
+        return Collections.unmodifiableCollection(nodes.values());
+    }
+
+    /**
+     * Diese Methode gibt das Attribut arcs zurück.
+     *
+     * @return Die Kanten in der Reihenfolge der Datei.
+     */
+    public List<ArcRecord> getArcs() {
+        return Collections.unmodifiableList(arcs);
+    }
+
+    /**
+     * Diese Methode erzeugt eine Momentaufnahme des Netzes für die Analysen.
+     * Die Knoten werden wie in NetGraph.fromPetriNodes nummeriert, der
+     * Fingerabdruck stimmt daher mit dem des angezeigten Netzes überein. Es
+     * entstehen keine JavaFX-Objekte.
+     *
+     * @return Die Momentaufnahme des Netzes.
+     */
+    public NetGraph toNetGraph() {
+        List<NodeRecord> sorted = new ArrayList<>(nodes.values());
+        sorted.sort(Comparator.comparing((NodeRecord node) -> !node.isPlace())
+                .thenComparing(NodeRecord::getId));
+        int n = sorted.size();
+        String[] ids = new String[n];
+        Map<String, Integer> index = new HashMap<>(n * 2);
+        int placeCount = 0;
+        for (int v = 0; v < n; v++) {
+            NodeRecord node = sorted.get(v);
+            ids[v] = node.getId();
+            index.put(ids[v], v);
+            if (node.isPlace()) {
+                placeCount++;
+            }
+        }
+        int[] marking = new int[placeCount];
+        for (int p = 0; p < placeCount; p++) {
+            marking[p] = sorted.get(p).getMarking();
+        }
+        int[] arcSource = new int[arcs.size()];
+        int[] arcTarget = new int[arcs.size()];
+        for (int i = 0; i < arcs.size(); i++) {
+            arcSource[i] = index.get(arcs.get(i).getSource().getId());
+            arcTarget[i] = index.get(arcs.get(i).getTarget().getId());
+        }
+        return new NetGraph(ids, placeCount, marking, arcSource, arcTarget, arcs.size(), null);
+    }
+
+    /**
+     * Diese Methode erzeugt die Place-, Transition- und Arc-Objekte für die
+     * Benutzeroberfläche. Da JavaFX-Objekte entstehen, muss sie im
+     * JavaFX-Thread aufgerufen werden.
+     *
+     * @return Die Knoten des Netzes nach ihrer id.
+     */
+    public Map<String, PetriNode> toPetriNodes() {
+        Map<String, PetriNode> nodeMap = new HashMap<>(nodes.size() * 2);
+        for (NodeRecord record : nodes.values()) {
+            PetriNode node;
+            if (record.isPlace()) {
+                Place place = new Place(record.getId());
+                place.setMarking(record.getMarking());
+                node = place;
+            } else {
+                node = new Transition(record.getId());
+            }
+            if (record.hasPosition()) {
+                node.setPosXAndY(record.getX(), record.getY());
+            }
+            if (record.getName() != null) {
+                node.getLabel().setText(record.getName());
+            }
+            nodeMap.put(record.getId(), node);
+        }
+        for (ArcRecord record : arcs) {
+            PetriNode source = nodeMap.get(record.getSource().getId());
+            PetriNode target = nodeMap.get(record.getTarget().getId());
+            Arc arc = new Arc(record.getId(), source, target);
+            source.getNextArcs().add(arc);
+            target.getPrevArcs().add(arc);
+        }
+        return nodeMap;
+    }
+}
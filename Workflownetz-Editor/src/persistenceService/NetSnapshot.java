@@ -0,0 +1,524 @@
+package persistenceService;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import workflownetLogic.NetGraph;
+
+/**
+ * Diese Klasse liest und schreibt ein Netz in einem kompakten Binärformat.
+ * PNML bleibt das Austauschformat, die Momentaufnahme dient dem schnellen
+ * Öffnen großer Netze. Die Datei wird nicht eingelesen, sondern über einen
+ * FileChannel nur lesend in den Speicher eingeblendet. Das Öffnen prüft
+ * lediglich den Kopf, die Knoten und Kanten werden erst beim Zugriff aus der
+ * Datei gelesen. Mehrere Prozesse können dieselbe Datei gleichzeitig
+ * einblenden und teilen sich dann die Seiten des Betriebssystems.
+ *
+ * Aufbau der Datei (alle Zahlen big-endian):
+ * <ul>
+ * <li>Kopf, 32 Bytes: Kennung "WFNS", Version, Anzahl der Knoten, der
+ * Stellen, der Kanten und der Strings, Länge der Stringdaten, reserviert.</li>
+ * <li>Knoten, je 32 Bytes: id (Stringnummer), Beschriftung (Stringnummer oder
+ * -1), x, y (double, NaN ohne Position), Markierung, Flags. Zuerst kommen
+ * alle Stellen, dann alle Transitionen, jeweils nach id sortiert, wie in
+ * NetGraph.</li>
+ * <li>Kanten im CSR-Format: nodeCount + 1 Anfangspositionen, danach die
+ * Endknoten und die ids (Stringnummern) der Kanten, nach Startknoten
+ * gruppiert.</li>
+ * <li>Stringtabelle: stringCount + 1 Anfangspositionen, danach die Strings in
+ * UTF-8.</li>
+ * </ul>
+ */
+public final class NetSnapshot {
+
+    /**
+     * Die Dateiendung, an der Momentaufnahmen beim Speichern erkannt werden.
+     */
+    public static final String EXTENSION = ".wfns";
+
+    /**
+     * Die Kennung am Anfang jeder Datei ("WFNS").
+     */
+    private static final int MAGIC = 0x57464E53;
+
+    /**
+     * Die Version des Formats.
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * Die Größe des Kopfes in Bytes.
+     */
+    private static final int HEADER_SIZE = 32;
+
+    /**
+     * Die Größe eines Knotens in Bytes.
+     */
+    private static final int NODE_SIZE = 32;
+
+    /**
+     * Flag eines Knotens, der eine Stelle ist.
+     */
+    private static final int FLAG_PLACE = 1;
+
+    /**
+     * Der eingeblendete Inhalt der Datei.
+     */
+    private final ByteBuffer buffer;
+
+    /**
+     * Anzahl der Knoten.
+     */
+    private final int nodeCount;
+
+    /**
+     * Anzahl der Stellen.
+     */
+    private final int placeCount;
+
+    /**
+     * Anzahl der Kanten.
+     */
+    private final int arcCount;
+
+    /**
+     * Anzahl der Strings.
+     */
+    private final int stringCount;
+
+    /**
+     * Beginn der Anfangspositionen der Kanten je Knoten.
+     */
+    private final int arcStartOffset;
+
+    /**
+     * Beginn der Endknoten der Kanten.
+     */
+    private final int arcTargetOffset;
+
+    /**
+     * Beginn der ids der Kanten.
+     */
+    private final int arcIdOffset;
+
+    /**
+     * Beginn der Anfangspositionen der Strings.
+     */
+    private final int stringStartOffset;
+
+    /**
+     * Beginn der Stringdaten.
+     */
+    private final int stringDataOffset;
+
+    /**
+     * Dieser Konstruktor liest den Kopf und prüft die Größe der Datei.
+     *
+     * @param buffer Der Inhalt der Datei.
+     * @throws IOException Falls der Inhalt keine gültige Momentaufnahme ist.
+     */
+    private NetSnapshot(ByteBuffer buffer) throws IOException {
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Die Datei ist keine Momentaufnahme eines Netzes!");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Unbekannte Version " + buffer.getInt(4) + " der Momentaufnahme!");
+        }
+        this.buffer = buffer;
+        this.nodeCount = buffer.getInt(8);
+        this.placeCount = buffer.getInt(12);
+        this.arcCount = buffer.getInt(16);
+        this.stringCount = buffer.getInt(20);
+        int stringBytes = buffer.getInt(24);
+        long arcStart = HEADER_SIZE + (long) nodeCount * NODE_SIZE;
+        long arcTarget = arcStart + 4L * (nodeCount + 1);
+        long arcId = arcTarget + 4L * arcCount;
+        long stringStart = arcId + 4L * arcCount;
+        long stringData = stringStart + 4L * (stringCount + 1);
+        if (nodeCount < 0 || placeCount < 0 || placeCount > nodeCount || arcCount < 0
+                || stringCount < 0 || stringBytes < 0
+                || stringData + stringBytes != buffer.capacity()) {
+            throw new IOException("Die Momentaufnahme ist beschädigt!");
+        }
+        this.arcStartOffset = (int) arcStart;
+        this.arcTargetOffset = (int) arcTarget;
+        this.arcIdOffset = (int) arcId;
+        this.stringStartOffset = (int) stringStart;
+        this.stringDataOffset = (int) stringData;
+    }
+
+    /**
+     * Mit dieser Main Methode können Netze umgewandelt werden. Als Parameter
+     * werden die Eingabe- und die Ausgabedatei angegeben. Endet die
+     * Ausgabedatei auf ".wfns", wird eine Momentaufnahme geschrieben, sonst
+     * eine PNML Datei. Die Eingabe darf in beiden Formaten vorliegen.
+     *
+     * @param args Die Konsolen Parameter, mit denen das Programm aufgerufen
+     * wird.
+     * @throws java.lang.Exception Exception wird geworfen, falls eine Datei
+     * nicht gelesen oder geschrieben werden kann.
+     */
+    public static void main(final String[] args) throws Exception {
+        if (args.length > 1) {
+            NetModel model = PersistenceService.loadModel(new File(args[0]));
+            PersistenceService.saveModel(model, new File(args[1]));
+        } else {
+            System.out.println("Bitte eine Eingabe- und eine Ausgabedatei als Parameter angeben!");
+        }
+    }
+
+    /**
+     * Diese Methode blendet eine Momentaufnahme nur lesend in den Speicher ein.
+     * Der FileChannel wird sofort wieder geschlossen, die Einblendung bleibt
+     * gültig, bis das Objekt nicht mehr erreichbar ist.
+     *
+     * @param file Die Datei.
+     * @return Die geöffnete Momentaufnahme.
+     * @throws IOException Falls die Datei nicht gelesen werden kann oder keine
+     * gültige Momentaufnahme ist.
+     */
+    public static NetSnapshot open(File file) throws IOException {
+        try (FileChannel channel = new RandomAccessFile(file, "r").getChannel()) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Die Momentaufnahme ist zu groß!");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new NetSnapshot(buffer);
+        }
+    }
+
+    /**
+     * Diese Methode prüft anhand der Kennung, ob eine Datei eine
+     * Momentaufnahme ist.
+     *
+     * @param file Die Datei.
+     * @return true, falls die Datei mit der Kennung beginnt.
+     */
+    public static boolean isSnapshot(File file) {
+        try (FileInputStream in = new FileInputStream(file)) {
+            byte[] head = new byte[4];
+            return in.read(head) == 4 && ByteBuffer.wrap(head).getInt() == MAGIC;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Diese Methode schreibt ein Netz als Momentaufnahme. Die Datei wird
+     * gepuffert über einen FileChannel geschrieben und vor dem Schließen auf
+     * den Datenträger übertragen.
+     *
+     * @param model Das Netz.
+     * @param file Die Datei, in die geschrieben werden soll.
+     * @throws IOException Falls die Datei nicht geschrieben werden kann.
+     */
+    public static void write(NetModel model, File file) throws IOException {
+        List<NodeRecord> nodes = new ArrayList<>(model.getNodes());
+        nodes.sort(Comparator.comparing((NodeRecord node) -> !node.isPlace())
+                .thenComparing(NodeRecord::getId));
+        int n = nodes.size();
+        Map<String, Integer> index = new HashMap<>(n * 2);
+        Map<String, Integer> stringIndex = new HashMap<>(n * 4);
+        List<byte[]> strings = new ArrayList<>();
+        int placeCount = 0;
+        int[] idString = new int[n];
+        int[] nameString = new int[n];
+        for (int v = 0; v < n; v++) {
+            NodeRecord node = nodes.get(v);
+            index.put(node.getId(), v);
+            idString[v] = intern(node.getId(), stringIndex, strings);
+            nameString[v] = node.getName() == null ? -1 : intern(node.getName(), stringIndex, strings);
+            if (node.isPlace()) {
+                placeCount++;
+            }
+        }
+        // Die Kanten werden nach ihrem Startknoten gruppiert, innerhalb einer
+        // Gruppe bleibt die Reihenfolge der Datei erhalten.
+        List<ArcRecord> arcs = model.getArcs();
+        int m = arcs.size();
+        int[] arcStart = new int[n + 1];
+        for (ArcRecord arc : arcs) {
+            arcStart[index.get(arc.getSource().getId()) + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            arcStart[v + 1] += arcStart[v];
+        }
+        int[] fill = new int[n];
+        int[] arcTarget = new int[m];
+        int[] arcId = new int[m];
+        for (ArcRecord arc : arcs) {
+            int source = index.get(arc.getSource().getId());
+            int i = arcStart[source] + fill[source]++;
+            arcTarget[i] = index.get(arc.getTarget().getId());
+            arcId[i] = intern(arc.getId(), stringIndex, strings);
+        }
+        int stringBytes = 0;
+        for (byte[] string : strings) {
+            stringBytes += string.length;
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+                DataOutputStream out = new DataOutputStream(
+                        new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(n);
+            out.writeInt(placeCount);
+            out.writeInt(m);
+            out.writeInt(strings.size());
+            out.writeInt(stringBytes);
+            out.writeInt(0);
+            for (int v = 0; v < n; v++) {
+                NodeRecord node = nodes.get(v);
+                out.writeInt(idString[v]);
+                out.writeInt(nameString[v]);
+                out.writeDouble(node.getX());
+                out.writeDouble(node.getY());
+                out.writeInt(node.getMarking());
+                out.writeInt(node.isPlace() ? FLAG_PLACE : 0);
+            }
+            for (int value : arcStart) {
+                out.writeInt(value);
+            }
+            for (int value : arcTarget) {
+                out.writeInt(value);
+            }
+            for (int value : arcId) {
+                out.writeInt(value);
+            }
+            int start = 0;
+            for (byte[] string : strings) {
+                out.writeInt(start);
+                start += string.length;
+            }
+            out.writeInt(start);
+            for (byte[] string : strings) {
+                out.write(string);
+            }
+            out.flush();
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Diese Methode gibt die Nummer eines Strings in der Stringtabelle zurück
+     * und nimmt ihn bei Bedarf auf. Gleiche Strings werden nur einmal
+     * gespeichert.
+     *
+     * @param string Der String.
+     * @param stringIndex Die bisherigen Strings mit ihrer Nummer.
+     * @param strings Die bisherigen Strings in UTF-8.
+     * @return Die Nummer des Strings.
+     */
+    private static int intern(String string, Map<String, Integer> stringIndex, List<byte[]> strings) {
+        Integer i = stringIndex.get(string);
+        if (i == null) {
+            i = strings.size();
+            stringIndex.put(string, i);
+            strings.add(string.getBytes(StandardCharsets.UTF_8));
+        }
+        return i;
+    }
+
+    /**
+     * Diese Methode liest einen String aus der Stringtabelle.
+     *
+     * @param i Die Nummer des Strings.
+     * @return Der String.
+     */
+    private String string(int i) {
+        int start = buffer.getInt(stringStartOffset + 4 * i);
+        int end = buffer.getInt(stringStartOffset + 4 * i + 4);
+        byte[] bytes = new byte[end - start];
+        // Eine Kopie des Puffers, damit die Position des gemeinsamen Puffers
+        // unverändert bleibt und mehrere Threads lesen können.
+        ByteBuffer view = buffer.duplicate();
+        view.position(stringDataOffset + start);
+        view.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Diese Methode gibt das Attribut nodeCount zurück.
+     *
+     * @return Das Attribut nodeCount.
+     */
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * Diese Methode gibt das Attribut placeCount zurück.
+     *
+     * @return Das Attribut placeCount.
+     */
+    public int getPlaceCount() {
+        return placeCount;
+    }
+
+    /**
+     * Diese Methode gibt das Attribut arcCount zurück.
+     *
+     * @return Das Attribut arcCount.
+     */
+    public int getArcCount() {
+        return arcCount;
+    }
+
+    /**
+     * Diese Methode gibt zurück, ob ein Knoten eine Stelle ist.
+     *
+     * @param v Index des Knotens.
+     * @return true, falls der Knoten eine Stelle ist.
+     */
+    public boolean isPlace(int v) {
+        return (buffer.getInt(HEADER_SIZE + v * NODE_SIZE + 28) & FLAG_PLACE) != 0;
+    }
+
+    /**
+     * Diese Methode gibt die id eines Knotens zurück.
+     *
+     * @param v Index des Knotens.
+     * @return Die id.
+     */
+    public String getId(int v) {
+        return string(buffer.getInt(HEADER_SIZE + v * NODE_SIZE));
+    }
+
+    /**
+     * Diese Methode gibt die Beschriftung eines Knotens zurück.
+     *
+     * @param v Index des Knotens.
+     * @return Die Beschriftung oder null.
+     */
+    public String getName(int v) {
+        int name = buffer.getInt(HEADER_SIZE + v * NODE_SIZE + 4);
+        return name < 0 ? null : string(name);
+    }
+
+    /**
+     * Diese Methode gibt die x-Koordinate eines Knotens zurück.
+     *
+     * @param v Index des Knotens.
+     * @return Die x-Koordinate oder NaN.
+     */
+    public double getX(int v) {
+        return buffer.getDouble(HEADER_SIZE + v * NODE_SIZE + 8);
+    }
+
+    /**
+     * Diese Methode gibt die y-Koordinate eines Knotens zurück.
+     *
+     * @param v Index des Knotens.
+     * @return Die y-Koordinate oder NaN.
+     */
+    public double getY(int v) {
+        return buffer.getDouble(HEADER_SIZE + v * NODE_SIZE + 16);
+    }
+
+    /**
+     * Diese Methode gibt die Markierung eines Knotens zurück.
+     *
+     * @param v Index des Knotens.
+     * @return Die Anzahl der Marken.
+     */
+    public int getMarking(int v) {
+        return buffer.getInt(HEADER_SIZE + v * NODE_SIZE + 24);
+    }
+
+    /**
+     * Diese Methode gibt die Position der ersten ausgehenden Kante eines
+     * Knotens zurück. Die ausgehenden Kanten von v haben die Positionen
+     * getArcStart(v) bis getArcStart(v + 1) - 1.
+     *
+     * @param v Index des Knotens oder getNodeCount().
+     * @return Die Position der ersten Kante.
+     */
+    public int getArcStart(int v) {
+        return buffer.getInt(arcStartOffset + 4 * v);
+    }
+
+    /**
+     * Diese Methode gibt den Endknoten einer Kante zurück.
+     *
+     * @param i Position der Kante.
+     * @return Index des Endknotens.
+     */
+    public int getArcTarget(int i) {
+        return buffer.getInt(arcTargetOffset + 4 * i);
+    }
+
+    /**
+     * Diese Methode gibt die id einer Kante zurück.
+     *
+     * @param i Position der Kante.
+     * @return Die id der Kante.
+     */
+    public String getArcId(int i) {
+        return string(buffer.getInt(arcIdOffset + 4 * i));
+    }
+
+    /**
+     * Diese Methode erzeugt eine Momentaufnahme für die Analysen. Die Knoten
+     * sind bereits wie in NetGraph nummeriert.
+     *
+     * @return Die Momentaufnahme des Netzes.
+     */
+    public NetGraph toNetGraph() {
+        String[] ids = new String[nodeCount];
+        for (int v = 0; v < nodeCount; v++) {
+            ids[v] = getId(v);
+        }
+        int[] marking = new int[placeCount];
+        for (int p = 0; p < placeCount; p++) {
+            marking[p] = getMarking(p);
+        }
+        int[] arcSource = new int[arcCount];
+        int[] arcTarget = new int[arcCount];
+        for (int v = 0; v < nodeCount; v++) {
+            for (int i = getArcStart(v); i < getArcStart(v + 1); i++) {
+                arcSource[i] = v;
+                arcTarget[i] = getArcTarget(i);
+            }
+        }
+        return new NetGraph(ids, placeCount, marking, arcSource, arcTarget, arcCount, null);
+    }
+
+    /**
+     * Diese Methode erzeugt ein NetModel aus der Momentaufnahme, z.B. um das
+     * Netz anzuzeigen oder als PNML zu speichern.
+     *
+     * @return Das Netz.
+     */
+    public NetModel toModel() {
+        NetModel model = new NetModel();
+        String[] ids = new String[nodeCount];
+        for (int v = 0; v < nodeCount; v++) {
+            ids[v] = getId(v);
+            NodeRecord node = isPlace(v) ? model.addPlace(ids[v]) : model.addTransition(ids[v]);
+            node.setName(getName(v));
+            node.setPosition(getX(v), getY(v));
+            node.setMarking(getMarking(v));
+        }
+        for (int v = 0; v < nodeCount; v++) {
+            for (int i = getArcStart(v); i < getArcStart(v + 1); i++) {
+                model.addArc(getArcId(i), ids[v], ids[getArcTarget(i)]);
+            }
+        }
+        return model;
+    }
+}
@@ -0,0 +1,144 @@
+package persistenceService;
+
+/**
+ * Diese Klasse beschreibt eine Stelle oder Transition eines geladenen Netzes
+ * ohne JavaFX-Objekte. Sie enthält nur die Angaben aus der PNML Datei: id,
+ * Beschriftung, Position und bei Stellen die Markierung. Die zugehörigen
+ * Place- bzw. Transition-Objekte erzeugt erst NetModel.toPetriNodes().
+ */
+public final class NodeRecord {
+
+    /**
+     * Die id des Knotens.
+     */
+    private final String id;
+
+    /**
+     * Information darüber, ob der Knoten eine Stelle ist.
+     */
+    private final boolean place;
+
+    /**
+     * Die Beschriftung oder null, falls die Datei keine enthält.
+     */
+    private String name;
+
+    /**
+     * Die x-Koordinate oder NaN, falls die Datei keine Position enthält.
+     */
+    private double x = Double.NaN;
+
+    /**
+     * Die y-Koordinate oder NaN, falls die Datei keine Position enthält.
+     */
+    private double y = Double.NaN;
+
+    /**
+     * Die Anzahl der Marken. Bei Transitionen immer 0.
+     */
+    private int marking;
+
+    /**
+     * Dieser Konstruktor initialisiert die id und die Art des Knotens.
+     *
+     * @param id Die id des Knotens.
+     * @param place true, falls der Knoten eine Stelle ist.
+     */
+    NodeRecord(String id, boolean place) {
+        this.id = id;
+        this.place = place;
+    }
+
+    /**
+     * Diese Methode gibt das Attribut id zurück.
+     *
+     * @return Das Attribut id.
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Diese Methode gibt das Attribut place zurück.
+     *
+     * @return true, falls der Knoten eine Stelle ist.
+     */
+    public boolean isPlace() {
+        return place;
+    }
+
+    /**
+     * Diese Methode gibt das Attribut name zurück.
+     *
+     * @return Das Attribut name oder null.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Diese Methode gibt das Attribut x zurück.
+     *
+     * @return Das Attribut x oder NaN.
+     */
+    public double getX() {
+        return x;
+    }
+
+    /**
+     * Diese Methode gibt das Attribut y zurück.
+     *
+     * @return Das Attribut y oder NaN.
+     */
+    public double getY() {
+        return y;
+    }
+
+    /**
+     * Diese Methode gibt zurück, ob die Datei eine Position enthält.
+     *
+     * @return true, falls x und y gesetzt sind.
+     */
+    public boolean hasPosition() {
+        return !Double.isNaN(x) && !Double.isNaN(y);
+    }
+
+    /**
+     * Diese Methode gibt das Attribut marking zurück.
+     *
+     * @return Das Attribut marking.
+     */
+    public int getMarking() {
+        return marking;
+    }
+
+    /**
+     * Diese Methode setzt die Beschriftung.
+     *
+     * @param name Die Beschriftung.
+     */
+    void setName(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Diese Methode setzt die Position.
+     *
+     * @param x Die x-Koordinate.
+     * @param y Die y-Koordinate.
+     */
+    void setPosition(double x, double y) {
+        this.x = x;
+        this.y = y;
+    }
+
+    /**
+     * Diese Methode setzt die Markierung. Negative Werte werden wie in
+     * Place.setMarking als 0 behandelt.
+     *
+     * @param marking Die Anzahl der Marken.
+     */
+    void setMarking(int marking) {
+        this.marking = Math.max(0, marking);
+    }
+}
@@ -0,0 +1,120 @@
+package persistenceService;
+
+import java.io.File;
+
+/**
+ * Dieser Parser liest eine PNML Datei in ein NetModel statt in Place-,
+ * Transition- und Arc-Objekte. Er überschreibt dazu die Methoden des
+ * PNMLParser, die für die gefundenen Elemente aufgerufen werden, und
+ * verwendet die Cursor-API. Er kommt ohne JavaFX aus und kann daher auch ohne
+ * Anzeige und in Hintergrund-Threads verwendet werden.
+ */
+public class PNMLModelParser extends PNMLParser {
+
+    /**
+     * Das Netz, das beim Lesen gefüllt wird.
+     */
+    private final NetModel model = new NetModel();
+
+    /**
+     * Dieser Konstruktor erstellt einen neuen Parser für die übergebene PNML
+     * Datei.
+     *
+     * @param pnml Java {@link File} Objekt der PNML Datei
+     */
+    public PNMLModelParser(final File pnml) {
+        super(pnml, true);
+    }
+
+    /**
+     * Diese Methode gibt das Attribut model zurück.
+     *
+     * @return Das Attribut model.
+     */
+    public NetModel getModel() {
+        return model;
+    }
+
+    /**
+     * Diese Methode legt eine Transition im NetModel an.
+     *
+     * @param id Identifikationstext der Transition
+     */
+    @Override
+    public void newTransition(final String id) {
+        model.addTransition(id);
+    }
+
+    /**
+     * Diese Methode legt eine Stelle im NetModel an.
+     *
+     * @param id Identifikationstext der Stelle
+     */
+    @Override
+    public void newPlace(final String id) {
+        model.addPlace(id);
+    }
+
+    /**
+     * Diese Methode legt eine Kante im NetModel an. Der PNMLParser ruft sie
+     * erst auf, wenn alle Knoten gelesen sind.
+     *
+     * @param id Identifikationstext der Kante
+     * @param source Identifikationstext des Startelements der Kante
+     * @param target Identifikationstext des Endelements der Kante
+     */
+    @Override
+    public void newArc(final String id, final String source, final String target) {
+        model.addArc(id, source, target);
+    }
+
+    /**
+     * Diese Methode setzt die Position eines Knotens im NetModel.
+     *
+     * @param id Identifikationstext des Elements
+     * @param x x Position des Elements
+     * @param y y Position des Elements
+     */
+    @Override
+    public void setPosition(final String id, final String x, final String y) {
+        setPosition(id, Double.parseDouble(x), Double.parseDouble(y));
+    }
+
+    /**
+     * Diese Methode setzt die Position eines Knotens im NetModel.
+     *
+     * @param id Identifikationstext des Elements
+     * @param x x Position des Elements
+     * @param y y Position des Elements
+     */
+    @Override
+    public void setPosition(final String id, final double x, final double y) {
+        model.getNode(id).setPosition(x, y);
+    }
+
+    /**
+     * Diese Methode setzt die Beschriftung eines Knotens im NetModel.
+     *
+     * @param id Identifikationstext des Elements
+     * @param name Beschriftungstext des Elements
+     */
+    @Override
+    public void setName(final String id, final String name) {
+        model.getNode(id).setName(name);
+    }
+
+    /**
+     * Diese Methode setzt die Markierung einer Stelle im NetModel. Marken an
+     * Transitionen werden ignoriert.
+     *
+     * @param id Identifikationstext des Elements
+     * @param marking Markierung des Elements
+     */
+    @Override
+    public void setMarking(final String id, final int marking) {
+        NodeRecord node = model.getNode(id);
+        if (node.isPlace()) {
+            node.setMarking(marking);
+        }
+    }
+}
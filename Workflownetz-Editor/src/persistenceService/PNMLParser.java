@@ -4,18 +4,26 @@ import petriNodes.Arc;
 import petriNodes.PetriNode;
 import petriNodes.Place;
 import petriNodes.Transition;
+import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 
 import javax.xml.stream.XMLEventReader;
 import javax.xml.stream.XMLInputFactory;
 import javax.xml.stream.XMLStreamConstants;
 import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import javax.xml.stream.events.Attribute;
 import javax.xml.stream.events.Characters;
 import javax.xml.stream.events.StartElement;
@@ -23,6 +31,25 @@ import javax.xml.stream.events.XMLEvent;
 
 /**
  * Diese Klasse implementiert die Grundlage für einen einfachen PNML Parser.
+ *
+ * Die Datei kann auf zwei Arten gelesen werden. Die Ereignis-API
+ * (XMLEventReader) erzeugt für jedes Element, jedes Attribut und jeden Text
+ * eigene Objekte. Die Cursor-API (XMLStreamReader) liest dagegen direkt aus
+ * dem Puffer des Parsers: Elementnamen werden als lokale Namen aus dessen
+ * Symboltabelle verglichen, Attribute über ihren Index gelesen und Marken
+ * direkt aus dem Zeichenpuffer umgewandelt. Große Dateien werden so etwa
+ * doppelt so schnell und mit deutlich weniger Müll gelesen. Die Koordinaten
+ * der Positionen sind Attribute, deren Werte auch die Cursor-API nur als
+ * String liefert. Sie werden daher weiterhin mit Double.parseDouble
+ * umgewandelt.
+ *
+ * Kanten dürfen in PNML vor ihren Start- und Endknoten stehen. Sie werden
+ * daher beim Lesen nur gepuffert: Die ids von Start- und Endknoten werden auf
+ * fortlaufende Nummern abgebildet und paarweise in einem int-Array abgelegt.
+ * Erst nach dem Ende des Dokuments werden alle Kanten in einem Durchlauf
+ * aufgelöst und an newArc übergeben. Bis dahin sind alle Knoten erzeugt.
+ * Kanten mit unbekannten Knoten werden gesammelt gemeldet (siehe
+ * getUnresolvedArcs).
  */
 public class PNMLParser {
 
@@ -69,6 +96,55 @@ public class PNMLParser {
      */
     private XMLEventReader xmlParser = null;
 
+    /**
+     * Information darüber, ob die Datei mit der Cursor-API gelesen wird.
+     */
+    private final boolean cursorMode;
+
+    /**
+     * Der XML Parser der Cursor-API. Diese Referenz wird durch die Methode
+     * initParser() initialisiert, falls cursorMode gesetzt ist.
+     */
+    private XMLStreamReader cursor = null;
+
+    /**
+     * Der Eingabestrom der Datei im Cursor-Modus. Er wird nach dem Lesen
+     * geschlossen.
+     */
+    private InputStream cursorInput = null;
+
+    /**
+     * Zuordnung der ids von Knoten und Kantenenden zu fortlaufenden Nummern.
+     */
+    private final Map<String, Integer> symbolIndex = new HashMap<>();
+
+    /**
+     * Die ids nach ihrer Nummer.
+     */
+    private final List<String> symbols = new ArrayList<>();
+
+    /**
+     * Die Nummern der ids, für die ein Knoten gelesen wurde.
+     */
+    private final BitSet readNodes = new BitSet();
+
+    /**
+     * Die ids der gepufferten Kanten.
+     */
+    private final List<String> arcIds = new ArrayList<>();
+
+    /**
+     * Start- und Endknoten der gepufferten Kanten. Die Kante i hat den
+     * Startknoten arcEnds[2 * i] und den Endknoten arcEnds[2 * i + 1].
+     */
+    private int[] arcEnds = new int[64];
+
+    /**
+     * Die ids der Kanten, deren Start- oder Endknoten nicht in der Datei
+     * enthalten ist.
+     */
+    private final List<String> unresolvedArcs = new ArrayList<>();
+
     /**
      * Diese Variable dient als Zwischenspeicher für die ID des zuletzt
      * gefundenen Elements.
@@ -100,9 +176,21 @@ public class PNMLParser {
      * @param pnml Java {@link File} Objekt der PNML Datei
      */
     public PNMLParser(final File pnml) {
+        this(pnml, false);
+    }
+
+    /**
+     * Dieser Konstruktor erstellt einen neuen Parser für PNML Dateien, der
+     * wahlweise die Cursor-API verwendet.
+     *
+     * @param pnml Java {@link File} Objekt der PNML Datei
+     * @param cursorMode true, falls die Cursor-API verwendet werden soll.
+     */
+    public PNMLParser(final File pnml, final boolean cursorMode) {
         super();
 
         this.pnmlDatei = pnml;
+        this.cursorMode = cursorMode;
     }
 
     /**
@@ -114,6 +202,16 @@ public class PNMLParser {
         return nodeMap;
     }
 
+    /**
+     * Diese Methode gibt die ids der Kanten zurück, die nach dem Lesen
+     * verworfen wurden, weil ihr Start- oder Endknoten fehlt.
+     *
+     * @return Die ids der verworfenen Kanten.
+     */
+    public List<String> getUnresolvedArcs() {
+        return Collections.unmodifiableList(unresolvedArcs);
+    }
+
     /**
      * Diese Methode öffnet die PNML Datei als Eingabestrom und initialisiert
      * den XML Parser.
@@ -125,6 +223,16 @@ public class PNMLParser {
         try {
             InputStream dateiEingabeStrom = new FileInputStream(pnmlDatei);
             XMLInputFactory factory = XMLInputFactory.newInstance();
+            if (cursorMode) {
+                factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+                factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+                // Texte werden zu einem Ereignis zusammengefasst, damit eine
+                // Markierung nicht auf zwei Puffer verteilt ist.
+                factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+                cursorInput = new BufferedInputStream(dateiEingabeStrom, 1 << 16);
+                cursor = factory.createXMLStreamReader(cursorInput);
+                return;
+            }
             xmlParser = factory.createXMLEventReader(dateiEingabeStrom);
 
         } catch (FileNotFoundException e) {
@@ -141,6 +249,10 @@ public class PNMLParser {
      * falls die Datei nicht eingelesen werden kann.
      */
     public final void parse() throws XMLStreamException {
+        if (cursorMode) {
+            parseCursor();
+            return;
+        }
         while (xmlParser.hasNext()) {
             XMLEvent event = xmlParser.nextEvent();
             switch (event.getEventType()) {
@@ -179,6 +291,203 @@ public class PNMLParser {
                 default:
             }
         }
+        resolveArcs();
+    }
+
+    /**
+     * Diese Methode liest die XML Datei mit der Cursor-API. Sie entspricht
+     * parse(), erzeugt aber keine Ereignis-Objekte. Die lokalen Namen der
+     * Elemente stammen aus der Symboltabelle des Parsers, der Vergleich im
+     * switch braucht daher keine neuen Strings. Anders als bei der
+     * Ereignis-API werden Namensräume ignoriert und die Namen müssen, wie
+     * in PNML vorgeschrieben, klein geschrieben sein.
+     *
+     * @throws javax.xml.stream.XMLStreamException Exception wird geworfen,
+     * falls die Datei nicht eingelesen werden kann.
+     */
+    private void parseCursor() throws XMLStreamException {
+        if (cursor == null) {
+            return;
+        }
+        try {
+            while (cursor.hasNext()) {
+                switch (cursor.next()) {
+                    case XMLStreamConstants.START_ELEMENT:
+                        handleStartElement();
+                        break;
+                    case XMLStreamConstants.END_ELEMENT:
+                        switch (cursor.getLocalName()) {
+                            case "token":
+                                isToken = false;
+                                break;
+                            case "name":
+                                isName = false;
+                                break;
+                            case "value":
+                                isValue = false;
+                                break;
+                            default:
+                                break;
+                        }
+                        break;
+                    case XMLStreamConstants.CHARACTERS:
+                    case XMLStreamConstants.CDATA:
+                        if (isValue && lastId != null && !cursor.isWhiteSpace()) {
+                            handleCursorValue();
+                        }
+                        break;
+                    default:
+                }
+            }
+            resolveArcs();
+        } finally {
+            cursor.close();
+            try {
+                cursorInput.close();
+            } catch (IOException e) {
+                System.err.println("Die Datei konnte nicht geschlossen werden! "
+                        + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Diese Methode behandelt im Cursor-Modus den Start eines XML Elements.
+     * Die Attribute werden über ihren Index gelesen.
+     */
+    private void handleStartElement() {
+        switch (cursor.getLocalName()) {
+            case "transition":
+            case "place":
+                String id = attribute("id");
+                boolean isPlace = "place".equals(cursor.getLocalName());
+                if (id == null) {
+                    System.err.println(isPlace ? "Stelle ohne id wurde verworfen!"
+                            : "Transition ohne id wurde verworfen!");
+                } else if (isPlace) {
+                    readNodes.set(symbol(id));
+                    newPlace(id);
+                } else {
+                    readNodes.set(symbol(id));
+                    newTransition(id);
+                }
+                lastId = id;
+                break;
+            case "arc":
+                String arcId = null;
+                String source = null;
+                String target = null;
+                for (int i = 0; i < cursor.getAttributeCount(); i++) {
+                    switch (cursor.getAttributeLocalName(i)) {
+                        case "id":
+                            arcId = cursor.getAttributeValue(i);
+                            break;
+                        case "source":
+                            source = cursor.getAttributeValue(i);
+                            break;
+                        case "target":
+                            target = cursor.getAttributeValue(i);
+                            break;
+                        default:
+                            break;
+                    }
+                }
+                if (arcId != null && source != null && target != null) {
+                    bufferArc(arcId, source, target);
+                } else {
+                    System.err.println("Unvollständige Kante wurde verworfen!");
+                }
+                lastId = null;
+                break;
+            case "position":
+                String x = attribute("x");
+                String y = attribute("y");
+                if (x != null && y != null && lastId != null) {
+                    setPosition(lastId, Double.parseDouble(x), Double.parseDouble(y));
+                } else {
+                    System.err.println("Unvollständige Position wurde verworfen!");
+                }
+                break;
+            case "name":
+                isName = true;
+                break;
+            case "token":
+                isToken = true;
+                break;
+            case "value":
+                isValue = true;
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Diese Methode gibt im Cursor-Modus den Wert eines Attributs des
+     * aktuellen Elements zurück.
+     *
+     * @param localName Der lokale Name des Attributs.
+     * @return Der Wert oder null, falls das Attribut fehlt.
+     */
+    private String attribute(final String localName) {
+        for (int i = 0; i < cursor.getAttributeCount(); i++) {
+            if (localName.equals(cursor.getAttributeLocalName(i))) {
+                return cursor.getAttributeValue(i);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Diese Methode wird im Cursor-Modus aufgerufen, wenn Text innerhalb
+     * eines Value Elements gelesen wird. Eine Markierung wird direkt aus dem
+     * Zeichenpuffer des Parsers gelesen, nur für Namen entsteht ein String.
+     */
+    private void handleCursorValue() {
+        if (isName) {
+            setName(lastId, cursor.getText());
+        } else if (isToken) {
+            setMarking(lastId, parseInt(cursor.getTextCharacters(),
+                    cursor.getTextStart(), cursor.getTextLength()));
+        }
+    }
+
+    /**
+     * Diese Methode wandelt Ziffern in einem Zeichenpuffer in eine Zahl um.
+     * Leerraum am Anfang und Ende wird übersprungen.
+     *
+     * @param chars Der Zeichenpuffer.
+     * @param start Der Beginn des Textes.
+     * @param length Die Länge des Textes.
+     * @return Die Zahl.
+     * @throws NumberFormatException Falls der Text keine ganze Zahl ist.
+     */
+    static int parseInt(final char[] chars, final int start, final int length) {
+        int i = start;
+        int end = start + length;
+        while (i < end && Character.isWhitespace(chars[i])) {
+            i++;
+        }
+        while (end > i && Character.isWhitespace(chars[end - 1])) {
+            end--;
+        }
+        boolean negative = i < end && chars[i] == '-';
+        if (negative || (i < end && chars[i] == '+')) {
+            i++;
+        }
+        if (i == end || end - i > 9) {
+            // Leere oder sehr lange Zahlen prüft Integer.parseInt.
+            return Integer.parseInt(new String(chars, start, length).trim());
+        }
+        int value = 0;
+        for (; i < end; i++) {
+            int digit = chars[i] - '0';
+            if (digit < 0 || digit > 9) {
+                throw new NumberFormatException(new String(chars, start, length));
+            }
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
     }
 
     /**
@@ -262,6 +571,7 @@ public class PNMLParser {
             }
         }
         if (transitionId != null) {
+            readNodes.set(symbol(transitionId));
             newTransition(transitionId);
             lastId = transitionId;
         } else {
@@ -286,6 +596,7 @@ public class PNMLParser {
             }
         }
         if (placeId != null) {
+            readNodes.set(symbol(placeId));
             newPlace(placeId);
             lastId = placeId;
         } else {
@@ -321,7 +632,7 @@ public class PNMLParser {
             }
         }
         if (arcId != null && source != null && target != null) {
-            newArc(arcId, source, target);
+            bufferArc(arcId, source, target);
         } else {
             System.err.println("Unvollständige Kante wurde verworfen!");
         }
@@ -329,6 +640,77 @@ public class PNMLParser {
         lastId = null;
     }
 
+    /**
+     * Diese Methode gibt die Nummer einer id zurück und vergibt bei Bedarf
+     * eine neue.
+     *
+     * @param id Die id eines Knotens oder Kantenendes.
+     * @return Die Nummer der id.
+     */
+    private int symbol(final String id) {
+        Integer index = symbolIndex.get(id);
+        if (index == null) {
+            index = symbols.size();
+            symbolIndex.put(id, index);
+            symbols.add(id);
+        }
+        return index;
+    }
+
+    /**
+     * Diese Methode puffert eine gelesene Kante, bis das Dokument vollständig
+     * gelesen ist.
+     *
+     * @param id Identifikationstext der Kante
+     * @param source Identifikationstext des Startelements der Kante
+     * @param target Identifikationstext des Endelements der Kante
+     */
+    private void bufferArc(final String id, final String source, final String target) {
+        int i = arcIds.size();
+        if (2 * i + 1 >= arcEnds.length) {
+            arcEnds = Arrays.copyOf(arcEnds, arcEnds.length * 2);
+        }
+        arcEnds[2 * i] = symbol(source);
+        arcEnds[2 * i + 1] = symbol(target);
+        arcIds.add(id);
+    }
+
+    /**
+     * Diese Methode löst nach dem Ende des Dokuments alle gepufferten Kanten
+     * in einem Durchlauf auf. Kanten, deren Start- und Endknoten gelesen
+     * wurden, werden an newArc übergeben, alle übrigen werden gesammelt und
+     * gemeinsam gemeldet.
+     */
+    private void resolveArcs() {
+        StringBuilder report = new StringBuilder();
+        for (int i = 0; i < arcIds.size(); i++) {
+            int source = arcEnds[2 * i];
+            int target = arcEnds[2 * i + 1];
+            if (readNodes.get(source) && readNodes.get(target)) {
+                newArc(arcIds.get(i), symbols.get(source), symbols.get(target));
+            } else {
+                unresolvedArcs.add(arcIds.get(i));
+                if (unresolvedArcs.size() <= 10) {
+                    report.append(unresolvedArcs.size() == 1 ? "" : ", ")
+                            .append(arcIds.get(i)).append(" (")
+                            .append(symbols.get(source)).append(" -> ")
+                            .append(symbols.get(target)).append(')');
+                }
+            }
+        }
+        if (!unresolvedArcs.isEmpty()) {
+            System.err.println(unresolvedArcs.size()
+                    + " Kanten mit unbekanntem Start- oder Endknoten wurden verworfen: "
+                    + report + (unresolvedArcs.size() > 10 ? ", ..." : ""));
+        }
+        // Der Puffer wird nicht mehr gebraucht.
+        arcIds.clear();
+        arcEnds = new int[0];
+        symbolIndex.clear();
+        symbols.clear();
+        readNodes.clear();
+    }
+
     /**
      * Diese Methode erstellt eine neue Transition-Instant und fügt sie der Map
      * nodeMap hinzu.
@@ -356,7 +738,8 @@ public class PNMLParser {
      * Identifikationtexte source und target werden der Start- und Endknoten
      * gefunden und dem Konstruktor üübergeben. Anschließend wird das erzeugte
      * Objekt den nextArc- bzw. prevArc-Attributen der entsprechenden Knoten
-     * übergeben.
+     * übergeben. Sie wird erst nach dem Ende des Dokuments und nur für Kanten
+     * aufgerufen, deren Start- und Endknoten gelesen wurden.
      *
      * @param id Identifikationstext der Kante
      * @param source Identifikationstext des Startelements der Kante
@@ -381,6 +764,18 @@ public class PNMLParser {
         nodeMap.get(id).setPosXAndY(x, y);
     }
 
+    /**
+     * Diese Methode aktualisiert die Positionen der geladenen Elemente mit
+     * bereits umgewandelten Koordinaten.
+     *
+     * @param id Identifikationstext des Elements
+     * @param x x Position des Elements
+     * @param y y Position des Elements
+     */
+    public void setPosition(final String id, final double x, final double y) {
+        nodeMap.get(id).setPosXAndY(x, y);
+    }
+
     /**
      * Diese Methode aktualisiert den Beschriftungstext der geladenen Elemente.
      *
@@ -398,7 +793,17 @@ public class PNMLParser {
      * @param marking Markierung des Elements
      */
     public void setMarking(final String id, final String marking) {
-        ((Place) nodeMap.get(id)).setMarking(Integer.parseInt(marking));
+        setMarking(id, Integer.parseInt(marking.trim()));
+    }
 
+    /**
+     * Diese Methode aktualisiert die Markierung der geladenen Elemente mit
+     * einer bereits umgewandelten Anzahl an Marken.
+     *
+     * @param id Identifikationstext des Elements
+     * @param marking Markierung des Elements
+     */
+    public void setMarking(final String id, final int marking) {
+        ((Place) nodeMap.get(id)).setMarking(marking);
     }
 }
@@ -1,8 +1,12 @@
 package persistenceService;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 
 import javax.xml.stream.XMLOutputFactory;
 import javax.xml.stream.XMLStreamException;
@@ -10,8 +14,14 @@ import javax.xml.stream.XMLStreamWriter;
 
 /**
  * Diese Klasse implementiert eine einfache XML Ausgabe für PNML Dateien.
+ *
+ * Die Datei wird gepuffert über einen FileChannel geschrieben und beim
+ * Beenden des Dokuments auf den Datenträger übertragen. Schlägt das Schreiben
+ * eines Elements fehl, meldet finishXMLDocument() einen Fehler, damit keine
+ * unvollständige Datei als gespeichert gilt. Wird das Schreiben vorher
+ * abgebrochen, gibt close() die Datei frei.
  */
-public final class PNMLWriter {
+public final class PNMLWriter implements AutoCloseable {
 
 //    /**
 //     * Mit dieser Main Methode kann der PNMLWriter zum Testen aufgerufen werden.
@@ -57,6 +67,21 @@ public final class PNMLWriter {
      */
     private XMLStreamWriter writer = null;
 
+    /**
+     * Der Kanal zur Datei. Er wird in finishXMLDocument() geschlossen.
+     */
+    private FileChannel channel = null;
+
+    /**
+     * Der gepufferte Ausgabestrom über dem Kanal.
+     */
+    private OutputStream output = null;
+
+    /**
+     * Information darüber, ob ein Element nicht geschrieben werden konnte.
+     */
+    private boolean failed = false;
+
     /**
      * Dieser Konstruktor erstellt einen neuen Writer für PNML Dateien, dem die
      * PNML Datei als Java {@link File} übergeben wird.
@@ -78,14 +103,16 @@ public final class PNMLWriter {
      */
     public void startXMLDocument() throws Exception {
         try {
-            FileOutputStream fos = new FileOutputStream(pnmlDatei);
+            channel = FileChannel.open(pnmlDatei.toPath(), StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+            output = new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16);
             XMLOutputFactory factory = XMLOutputFactory.newInstance();
-            writer = factory.createXMLStreamWriter(fos, "UTF-8");
+            writer = factory.createXMLStreamWriter(output, "UTF-8");
             // XML Dokument mit Version 1.0 und Kodierung UTF-8 beginnen
             writer.writeStartDocument("UTF-8", "1.0");
             writer.writeStartElement("pnml");
             writer.writeStartElement("net");
-        } catch (FileNotFoundException e) {
+        } catch (IOException e) {
             System.err.println("Die Datei " + pnmlDatei.getAbsolutePath()
                     + " kann nicht geschrieben werden! " + e.getMessage());
             e.printStackTrace();
@@ -93,15 +120,18 @@ public final class PNMLWriter {
         } catch (XMLStreamException e) {
             System.err.println("XML Fehler: " + e.getMessage());
             e.printStackTrace();
+            channel.close();
             throw new Exception();
         }
     }
 
     /**
-     * Diese Methode beendet das Schreiben eines Petrinetzes als XML Datei.
+     * Diese Methode beendet das Schreiben eines Petrinetzes als XML Datei. Der
+     * Puffer wird geleert, die Datei auf den Datenträger übertragen und
+     * geschlossen.
      *
      * @throws java.lang.Exception Wirft Exception, falls das Dokument nicht
-     * beendet werden konnte.
+     * beendet werden konnte oder ein Element nicht geschrieben wurde.
      */
     public void finishXMLDocument() throws Exception {
         if (writer != null) {
@@ -110,16 +140,37 @@ public final class PNMLWriter {
                 writer.writeEndElement();
                 writer.writeEndDocument();
                 writer.close();
-            } catch (XMLStreamException e) {
+                // XMLStreamWriter.close() schließt den Ausgabestrom nicht.
+                output.flush();
+                channel.force(true);
+            } catch (XMLStreamException | IOException e) {
                 System.err.println("XML Fehler: " + e.getMessage());
                 e.printStackTrace();
                 throw new Exception();
+            } finally {
+                channel.close();
+            }
+            if (failed) {
+                throw new Exception();
             }
         } else {
             System.err.println("Das Dokument wurde noch nicht gestartet!");
         }
     }
 
+    /**
+     * Diese Methode schließt den Kanal zur Datei, ohne das Dokument zu
+     * beenden. Nach finishXMLDocument() hat sie keine Wirkung.
+     *
+     * @throws IOException Falls der Kanal nicht geschlossen werden kann.
+     */
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
     /**
      * Diese Methode fügt eine neue Transition zum XML Dokument hinzu. Vor
      * dieser Methode muss startXMLDocument() aufgerufen worden sein.
@@ -156,6 +207,7 @@ public final class PNMLWriter {
                                 + " konnte nicht geschrieben werden! "
                                 + e.getMessage());
                 e.printStackTrace();
+                failed = true;
             }
 
         } else {
@@ -209,6 +261,7 @@ public final class PNMLWriter {
                                 + " konnte nicht geschrieben werden! "
                                 + e.getMessage());
                 e.printStackTrace();
+                failed = true;
             }
 
         } else {
@@ -238,6 +291,7 @@ public final class PNMLWriter {
                                 + " konnte nicht geschrieben werden! "
                                 + e.getMessage());
                 e.printStackTrace();
+                failed = true;
             }
 
         } else {
@@ -1,42 +1,85 @@
 package persistenceService;
 
-import petriNodes.Arc;
 import petriNodes.PetriNode;
-import petriNodes.Place;
-import petriNodes.Transition;
 import java.io.File;
-import java.util.Iterator;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.DosFileAttributeView;
+import java.nio.file.attribute.DosFileAttributes;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFileAttributes;
 import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.DoubleConsumer;
 import javax.xml.stream.XMLStreamException;
 
 /**
- * Diese Klasse bietet zwei statische Methoden, mit deren Hilfe eine Netz
- * geladen bzw. gespeichert werden kann.
+ * Diese Klasse bietet statische Methoden, mit deren Hilfe eine Netz geladen
+ * bzw. gespeichert werden kann. Neben PNML wird die binäre Momentaufnahme
+ * (NetSnapshot) unterstützt: Beim Laden wird sie an ihrer Kennung erkannt,
+ * beim Speichern an der Dateiendung ".wfns".
+ *
+ * Gespeichert wird immer zuerst in eine temporäre Datei im Zielverzeichnis,
+ * die danach atomar umbenannt wird. Bricht das Schreiben ab, bleibt die
+ * bisherige Datei daher unverändert. Die Zugriffsrechte einer bestehenden
+ * Datei werden auf die neue übertragen.
  *
  * @author Tobias Hübel, 5509840
  */
 public class PersistenceService {
 
     /**
-     * Diese Methode initialisiert den PNMLParser und ruf die Methode parse auf.
-     * Dabei wird das Attribut nodeMap mit Werten gefüllt.
+     * Diese Methode lädt eine PNML Datei oder eine Momentaufnahme und erzeugt
+     * daraus die Objekte für die Benutzeroberfläche. Die Datei wird zuerst
+     * mit loadModel gelesen, danach entstehen die JavaFX-Objekte in einem
+     * eigenen Schritt (NetModel.toPetriNodes). Sie muss daher im
+     * JavaFX-Thread aufgerufen werden.
      *
      * @param file Die Datei, die geladen werden soll.
      * @return Ein Map-Objekt, das mit den in der Datei gefundenen Elementen
      * gefüllt ist.
      * @throws javax.xml.stream.XMLStreamException Exception wird geworfen,
-     * falls die Datei nicht eingelesen werden kann.
+     * falls die PNML Datei nicht eingelesen werden kann.
+     * @throws java.io.IOException Exception wird geworfen, falls die
+     * Momentaufnahme nicht gelesen werden kann.
+     */
+    public static Map<String, PetriNode> loadNodeObjects(File file) throws XMLStreamException, IOException {
+        return loadModel(file).toPetriNodes();
+    }
+
+    /**
+     * Diese Methode liest eine PNML Datei mit dem PNMLModelParser bzw. eine
+     * Momentaufnahme mit NetSnapshot, ohne JavaFX-Objekte zu erzeugen. Sie
+     * kann daher in jedem Thread und ohne Anzeige aufgerufen werden, z.B. für
+     * Analysen großer Netze (NetModel.toNetGraph).
+     *
+     * @param file Die Datei, die geladen werden soll.
+     * @return Das gelesene Netz.
+     * @throws javax.xml.stream.XMLStreamException Exception wird geworfen,
+     * falls die PNML Datei nicht eingelesen werden kann.
+     * @throws java.io.IOException Exception wird geworfen, falls die
+     * Momentaufnahme nicht gelesen werden kann.
      */
-    public static Map<String, PetriNode> loadNodeObjects(File file) throws XMLStreamException {
-        PNMLParser parser = new PNMLParser(file);
+    public static NetModel loadModel(File file) throws XMLStreamException, IOException {
+        if (NetSnapshot.isSnapshot(file)) {
+            return NetSnapshot.open(file).toModel();
+        }
+        PNMLModelParser parser = new PNMLModelParser(file);
         parser.initParser();
         parser.parse();
-        return parser.getNodeMap();
+        return parser.getModel();
     }
 
     /**
-     * Diese Methode initialisiert einen PNMLWriter und schreibt die übergebenen
-     * Elemente in die Datei.
+     * Diese Methode speichert die übergebenen Elemente. Endet der Dateiname
+     * auf ".wfns", wird eine Momentaufnahme geschrieben, sonst eine PNML
+     * Datei. Da die JavaFX-Objekte gelesen werden, muss sie im JavaFX-Thread
+     * aufgerufen werden. Für große Netze sollte stattdessen mit
+     * NetModel.fromPetriNodes eine Kopie erzeugt und diese mit saveModel in
+     * einem Hintergrund-Thread gespeichert werden.
      *
      * @param nodes Das Netz in Form eines Map-Objekts.
      * @param file Die Datei, in die geschrieben werden soll und die gespeichert
@@ -45,45 +88,151 @@ public class PersistenceService {
      * nicht erfolgreich war.
      */
     public static void savePNML(Map<String, PetriNode> nodes, File file) throws Exception {
+        saveModel(NetModel.fromPetriNodes(nodes.values()), file);
+    }
+
+    /**
+     * Diese Methode speichert ein Netz. Endet der Dateiname auf ".wfns", wird
+     * eine Momentaufnahme geschrieben, sonst eine PNML Datei.
+     *
+     * @param model Das Netz.
+     * @param file Die Datei, in die geschrieben werden soll.
+     * @throws java.lang.Exception Wirft eine Exception, falls das Speichern
+     * nicht erfolgreich war.
+     */
+    public static void saveModel(NetModel model, File file) throws Exception {
+        saveModel(model, file, fraction -> {
+        });
+    }
+
+    /**
+     * Diese Methode speichert ein Netz und meldet dabei den Fortschritt. Sie
+     * liest keine JavaFX-Objekte und kann daher in einem Hintergrund-Thread
+     * aufgerufen werden. Das Netz wird in eine temporäre Datei im
+     * Zielverzeichnis geschrieben, die anschließend atomar über die Zieldatei
+     * umbenannt wird. Unterstützt das Dateisystem keine atomare Umbenennung,
+     * wird die Zieldatei einfach ersetzt. Zuvor erhält die temporäre Datei die
+     * Zugriffsrechte der Zieldatei (siehe copyAttributes).
+     *
+     * @param model Das Netz.
+     * @param file Die Datei, in die geschrieben werden soll.
+     * @param progress Erhält den Anteil der geschriebenen Elemente zwischen
+     * 0 und 1.
+     * @throws java.lang.Exception Wirft eine Exception, falls das Speichern
+     * nicht erfolgreich war.
+     */
+    public static void saveModel(NetModel model, File file, DoubleConsumer progress) throws Exception {
+        File temp = createTempFile(file);
         try {
-            PNMLWriter writer = new PNMLWriter(file);
+            if (file.getName().toLowerCase().endsWith(NetSnapshot.EXTENSION)) {
+                NetSnapshot.write(model, temp);
+            } else {
+                writePNML(model, temp, progress);
+            }
+            if (file.exists()) {
+                copyAttributes(file.toPath(), temp.toPath());
+            }
+            try {
+                Files.move(temp.toPath(), file.toPath(),
+                        StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            progress.accept(1);
+        } finally {
+            Files.deleteIfExists(temp.toPath());
+        }
+    }
+
+    /**
+     * Diese Methode legt eine leere temporäre Datei neben der Zieldatei an.
+     * Anders als File.createTempFile, das nur den Besitzer lesen und
+     * schreiben lässt, erhält sie die üblichen Rechte neuer Dateien.
+     *
+     * @param file Die Zieldatei.
+     * @return Die temporäre Datei.
+     * @throws IOException Falls die Datei nicht angelegt werden kann.
+     */
+    private static File createTempFile(File file) throws IOException {
+        File directory = file.getAbsoluteFile().getParentFile();
+        while (true) {
+            File temp = new File(directory, file.getName() + "."
+                    + Long.toUnsignedString(ThreadLocalRandom.current().nextLong()) + ".tmp");
+            if (temp.createNewFile()) {
+                return temp;
+            }
+        }
+    }
+
+    /**
+     * Diese Methode überträgt die Zugriffsrechte und die Gruppe bzw. die
+     * DOS-Attribute einer Datei auf eine andere. Eine Gruppe, die der
+     * Benutzer nicht setzen darf, wird übergangen.
+     *
+     * @param source Die bestehende Datei.
+     * @param target Die Datei, die die Attribute erhält.
+     * @throws IOException Falls die Attribute nicht gelesen oder gesetzt
+     * werden können.
+     */
+    private static void copyAttributes(Path source, Path target) throws IOException {
+        PosixFileAttributeView posix = Files.getFileAttributeView(source, PosixFileAttributeView.class);
+        if (posix != null) {
+            PosixFileAttributes attributes = posix.readAttributes();
+            PosixFileAttributeView targetView = Files.getFileAttributeView(target, PosixFileAttributeView.class);
+            targetView.setPermissions(attributes.permissions());
+            try {
+                targetView.setGroup(attributes.group());
+            } catch (IOException e) {
+                // Die Rechte sind übertragen, die Gruppe bleibt die des Benutzers.
+            }
+            return;
+        }
+        DosFileAttributeView dos = Files.getFileAttributeView(source, DosFileAttributeView.class);
+        if (dos != null) {
+            DosFileAttributes attributes = dos.readAttributes();
+            DosFileAttributeView targetView = Files.getFileAttributeView(target, DosFileAttributeView.class);
+            targetView.setHidden(attributes.isHidden());
+            targetView.setSystem(attributes.isSystem());
+        }
+    }
+
+    /**
+     * Diese Methode initialisiert einen PNMLWriter und schreibt die Elemente
+     * eines Netzes in die Datei. Der Fortschritt wird alle 4096 Elemente
+     * gemeldet. Wirft der Empfänger des Fortschritts eine Exception, wird die
+     * Datei trotzdem geschlossen.
+     *
+     * @param model Das Netz.
+     * @param file Die Datei, in die geschrieben werden soll.
+     * @param progress Erhält den Anteil der geschriebenen Elemente.
+     * @throws java.lang.Exception Wirft eine Exception, falls das Schreiben
+     * nicht erfolgreich war.
+     */
+    private static void writePNML(NetModel model, File file, DoubleConsumer progress) throws Exception {
+        double total = model.getNodes().size() + model.getArcs().size();
+        int written = 0;
+        try (PNMLWriter writer = new PNMLWriter(file)) {
             writer.startXMLDocument();
-            nodes.forEach((key, value) -> {
-                Transition trans;
-                Place place;
-                switch (value.getClass().getSimpleName()) {
-                    case "Transition":
-                        trans = (Transition) value;
-                        writer.addTransition(
-                                trans.getId(),
-                                trans.getLabel().getText(),
-                                String.valueOf(trans.getPosX()),
-                                String.valueOf(trans.getPosY()));
-                        break;
-                    case "Place":
-                        place = (Place) value;
-                        writer.addPlace(
-                                place.getId(),
-                                place.getLabel().getText(),
-                                String.valueOf(place.getPosX()),
-                                String.valueOf(place.getPosY()),
-                                place.getMarkingAsString());
+            for (NodeRecord node : model.getNodes()) {
+                String name = node.getName() == null ? "" : node.getName();
+                String x = String.valueOf(node.hasPosition() ? node.getX() : 0.0);
+                String y = String.valueOf(node.hasPosition() ? node.getY() : 0.0);
+                if (node.isPlace()) {
+                    writer.addPlace(node.getId(), name, x, y, String.valueOf(node.getMarking()));
+                } else {
+                    writer.addTransition(node.getId(), name, x, y);
                 }
-            });
-            nodes.forEach((key, value) -> {
-                Iterator<Arc> iterator = value.getNextArcs().iterator();
-                while (iterator.hasNext()) {
-                    Arc arc = iterator.next();
-                    writer.addArc(
-                            arc.getArcId(),
-                            arc.getStartNode().getId(),
-                            arc.getEndNode().getId());
+                if ((++written & 0xFFF) == 0) {
+                    progress.accept(written / total);
                 }
-            });
+            }
+            for (ArcRecord arc : model.getArcs()) {
+                writer.addArc(arc.getId(), arc.getSource().getId(), arc.getTarget().getId());
+                if ((++written & 0xFFF) == 0) {
+                    progress.accept(written / total);
+                }
+            }
             writer.finishXMLDocument();
-        } catch (Exception e) {
-            throw e;
         }
-
     }
 }
@@ -86,20 +86,6 @@ public abstract class PetriNode {
      */
     protected Set<Arc> prevArcs = new HashSet<>();
 
-    /**
-     * Wird bei der Überprüfung der Workflownetzeigenschafen benötigt. Wenn
-     * dieser Wert wahr ist, ist der Knoten im Netz vom Startknoten aus
-     * erreichbar.
-     */
-    protected boolean forwardReachable = false;
-
-    /**
-     * Wird bei der Überprüfung der Workflownetzeigenschafen benötigt. Wenn
-     * dieser Wert wahr ist, ist der Knoten im Netz vom Endknoten über
-     * invertierte Kanten erreichbar.
-     */
-    protected boolean backwardReachable = false;
-
     /**
      * Das Kontext-Menü, das bei einem Klick der rechten Maustaste
      * (ContextMenuRequest) auf das entsprechende Shape-Objekt, geöffnet wird.
@@ -188,7 +174,7 @@ public abstract class PetriNode {
 
     /**
      * Dieser Konstruktor initialisiert die ID, die X- und Y-Koordinaten und das
-     * Kontext-Menü.
+     * Kontext-Menü. Das Kontext-Menü wird bereits von PetriNode(id) erzeugt.
      *
      * @param id Id der Instanz
      * @param posX Wert der posX-Property
@@ -202,7 +188,6 @@ public abstract class PetriNode {
         this.posY.set(posY);
         this.centerPosX.set(posX);
         this.centerPosY.set(posY);
-        this.contextMenu = new PetriNodeContextMenu(this);
     }
 
     /**
@@ -400,42 +385,6 @@ public abstract class PetriNode {
         this.id = id;
     }
 
-    /**
-     * Diese Methode gibt den Wert des Attributs forwardReachable zurück.
-     *
-     * @return Den Wert des Attributs forwardReachable.
-     */
-    public boolean isForwardReachable() {
-        return forwardReachable;
-    }
-
-    /**
-     * Diese Methode gibt den Wert des Attributs backwardReachable zurück.
-     *
-     * @return Den Wert des Attributs backwardReachable.
-     */
-    public boolean isBackwardReachable() {
-        return backwardReachable;
-    }
-
-    /**
-     * Diese Methode setzt den Wert des Attributs forwardReachable.
-     *
-     * @param forwardReachable Der Wert, den das Attribut annehmen soll.
-     */
-    public void setForwardReachable(boolean forwardReachable) {
-        this.forwardReachable = forwardReachable;
-    }
-
-    /**
-     * Diese Methode setzt den Wert des Attributs backwardReachable.
-     *
-     * @param backwardReachable Der Wert, den das Attribut annehmen soll.
-     */
-    public void setBackwardReachable(boolean backwardReachable) {
-        this.backwardReachable = backwardReachable;
-    }
-
     void isSelected(boolean isSelected) {
         this.isSelected = isSelected;
     }
@@ -1,7 +1,11 @@
 package petriNodes;
 
+import javafx.beans.binding.Bindings;
 import javafx.beans.property.BooleanProperty;
+import javafx.beans.property.IntegerProperty;
 import javafx.beans.property.SimpleBooleanProperty;
+import javafx.beans.property.SimpleIntegerProperty;
+import javafx.geometry.VPos;
 import javafx.scene.layout.Pane;
 import javafx.scene.paint.Color;
 import javafx.scene.shape.Circle;
@@ -34,6 +38,12 @@ public class Place extends PetriNode {
      */
     private Circle marking;
 
+    /**
+     * Der Text, der bei mehr als einer Marke die Anzahl der Marken anstelle
+     * des Kreises marking anzeigt.
+     */
+    private Text tokenLabel;
+
     /**
      * Information darüber, ob diese Stelle im Workflownetz die Startstelle ist.
      * (In Form einer BooleanProperty)
@@ -47,10 +57,10 @@ public class Place extends PetriNode {
     private final BooleanProperty isEndPlace = new SimpleBooleanProperty(false);
 
     /**
-     * Information darüber, ob diese Stelle im Workflownetz markiert ist. (In
-     * Form einer BooleanProperty)
+     * Die Anzahl der Marken dieser Stelle im Workflownetz. (In Form einer
+     * IntegerProperty)
      */
-    private final BooleanProperty isMarked = new SimpleBooleanProperty(false);
+    private final IntegerProperty tokens = new SimpleIntegerProperty(0);
 
     /**
      * Dieser Code wird unabhängig vom verwendeten Konsruktor durchlaufen.
@@ -101,13 +111,27 @@ public class Place extends PetriNode {
 
     /**
      * Diese Methode initialisiert den Kreis, der in der Benutzeroberfläche die
-     * Markierung einer Stelle darstellt.
+     * Markierung einer Stelle darstellt. Kreis und Text werden zusammen mit
+     * der Stelle in das Pane eingefügt und bleiben dort, bis die Stelle
+     * entfernt wird. Angezeigt werden sie erst durch setTokens.
      */
     private void initMarking() {
         this.marking = new Circle(8);
         this.marking.setFill(MyColors.BLACK);
+        this.marking.setVisible(false);
         this.marking.centerXProperty().bind(centerPosX);
         this.marking.centerYProperty().bind(centerPosY);
+        this.tokenLabel = new Text();
+        this.tokenLabel.setStyle("-fx-font: bold 17 arial;");
+        this.tokenLabel.setTextOrigin(VPos.CENTER);
+        this.tokenLabel.setMouseTransparent(true);
+        this.tokenLabel.setVisible(false);
+        this.tokenLabel.xProperty().bind(centerPosX);
+        this.tokenLabel.yProperty().bind(centerPosY);
+        // Der Text wird um die halbe Breite verschoben, damit er zentriert ist.
+        this.tokenLabel.translateXProperty().bind(Bindings.createDoubleBinding(
+                () -> -this.tokenLabel.getLayoutBounds().getWidth() / 2,
+                this.tokenLabel.layoutBoundsProperty()));
     }
 
     /**
@@ -145,28 +169,24 @@ public class Place extends PetriNode {
     }
 
     /**
-     * Diese Methode gibt den Wert des Attributs isMarked in Form eines Strings
-     * zurück.
+     * Diese Methode gibt die Anzahl der Marken in Form eines Strings zurück.
      *
-     * @return isMarked als String.
+     * @return Die Anzahl der Marken als String.
      */
     public String getMarkingAsString() {
-        if (this.isMarked.getValue()) {
-            return "1";
-        } else {
-            return "0";
-        }
+        return String.valueOf(this.tokens.getValue());
     }
 
     /**
-     * Diese Methode setzt den Wert des Attributs isMarked.
+     * Diese Methode setzt die Anzahl der Marken, ohne die Darstellung zu
+     * verändern. Sie wird beim Laden einer Datei verwendet, die Marken werden
+     * angezeigt, sobald ein Workflownetz erkannt wird. Negative Werte werden
+     * als 0 behandelt.
      *
-     * @param markingValue Der Wert, den das Attribut annehmen soll.
+     * @param markingValue Die Anzahl der Marken.
      */
     public void setMarking(int markingValue) {
-        if (markingValue == 1) {
-            this.isMarked.set(true);
-        }
+        this.tokens.set(Math.max(0, markingValue));
     }
 
     /**
@@ -203,12 +223,30 @@ public class Place extends PetriNode {
     }
 
     /**
-     * Diese Methode gibt den Wert der isMarked-Property zurück
+     * Diese Methode gibt das Attribut tokenLabel zurück.
      *
-     * @return Wert der isMarked-BooleanProperty
+     * @return Das Attribut tokenLabel.
+     */
+    public Text getTokenLabel() {
+        return tokenLabel;
+    }
+
+    /**
+     * Diese Methode gibt an, ob diese Stelle mindestens eine Marke hat.
+     *
+     * @return true, falls der Wert der tokens-Property größer als 0 ist.
      */
     public boolean isMarked() {
-        return isMarked.getValue();
+        return tokens.getValue() > 0;
+    }
+
+    /**
+     * Diese Methode gibt den Wert der tokens-Property zurück.
+     *
+     * @return Die Anzahl der Marken.
+     */
+    public int getTokens() {
+        return tokens.getValue();
     }
 
     /**
@@ -239,30 +277,39 @@ public class Place extends PetriNode {
     }
 
     /**
-     * Diese Methode setzt Diesen Knoten als markiert. Falls die Markierung der
-     * Benutzeroberfläche noch nicht hinzugeffügt wurde, wird sie hinzugefügt.
-     *
-     * @param workflownetContentPane Das Pane, das das Shape-Objekt beinhaltet.
+     * Diese Methode setzt Diesen Knoten als markiert. Hat er noch keine Marke,
+     * erhält er genau eine, sonst bleibt die Anzahl der Marken erhalten. Die
+     * Darstellung wird entsprechend angepasst.
      */
-    public void setAsMarked(Pane workflownetContentPane) {
-        if (!workflownetContentPane.getChildren().contains(this.marking)) {
-            workflownetContentPane.getChildren().add(this.marking);
-        }
-        this.isMarked.set(true);
-        this.marking.toFront();
+    public void setAsMarked() {
+        setTokens(Math.max(1, this.tokens.getValue()));
     }
 
     /**
-     * Diese Methode setzt Diesen Knoten als unmarkiert. Falls die Markierung in
-     * der Benutzeroberfläche noch nicht entfernt wurde, wird sie entfernt.
+     * Diese Methode setzt Diesen Knoten als unmarkiert. Die Markierung wird in
+     * der Benutzeroberfläche ausgeblendet.
+     */
+    public void unsetAsMarked() {
+        setTokens(0);
+    }
+
+    /**
+     * Diese Methode setzt die Anzahl der Marken und passt die Darstellung an:
+     * Eine Marke wird durch den Kreis marking angezeigt, mehrere Marken durch
+     * ihre Anzahl im Text tokenLabel. Beide bleiben im Pane und werden nur
+     * ein- oder ausgeblendet.
      *
-     * @param workflownetContentPane Das Pane, das das Shape-Objekt beinhaltet.
+     * @param count Die Anzahl der Marken (negative Werte werden als 0
+     * behandelt).
      */
-    public void unsetAsMarked(Pane workflownetContentPane) {
-        if (workflownetContentPane.getChildren().contains(this.marking)) {
-            workflownetContentPane.getChildren().remove(this.marking);
+    public void setTokens(int count) {
+        this.tokens.set(Math.max(0, count));
+        int value = this.tokens.getValue();
+        this.marking.setVisible(value == 1);
+        if (value > 1) {
+            this.tokenLabel.setText(getMarkingAsString());
         }
-        this.isMarked.set(false);
+        this.tokenLabel.setVisible(value > 1);
     }
 
     /**
@@ -296,10 +343,9 @@ public class Place extends PetriNode {
      */
     @Override
     public void resetStatusToDefault(Pane workflownetContentPane) {
-        if (workflownetContentPane.getChildren().contains(this.marking)) {
-            workflownetContentPane.getChildren().remove(this.marking);
-        }
-        this.isMarked.set(false);
+        this.marking.setVisible(false);
+        this.tokenLabel.setVisible(false);
+        this.tokens.set(0);
         this.isEndPlace.set(false);
         this.isStartPlace.set(false);
         this.setFill();
@@ -1,6 +1,5 @@
 package petriNodes;
 
-import java.util.Iterator;
 import javafx.beans.property.BooleanProperty;
 import javafx.beans.property.SimpleBooleanProperty;
 import javafx.scene.layout.Pane;
@@ -222,39 +221,16 @@ public class Transition extends PetriNode {
     }
 
     /**
-     * Diese Methode überprüft, ob diese Transition schaltbar (alle
-     * Vorgängerstellen sind markiert) ist und ob ein Kontakt (eine
-     * Nachfolgerstelle, die nicht zugleich Vorgänger ist, ist markiert)
-     * vorliegt. Die Füllfarbe wird entsprechend angepasst.
+     * Diese Methode übernimmt den Zustand, den eine außerhalb berechnete
+     * Schaltregel (siehe TokenGame) ermittelt hat. Die Füllfarbe wird
+     * entsprechend angepasst.
+     *
+     * @param tickable Information darüber, ob die Transition schaltbar ist.
+     * @param contact Information darüber, ob ein Kontakt vorliegt.
      */
-    public void checkTickableAndContact() {
-        if (this.getPrevArcs().size() > 0) {
-            this.tickable.setValue(true);
-            Iterator<Arc> iterator = this.getPrevArcs().iterator();
-            while (iterator.hasNext()) {
-                Arc arc = iterator.next();
-                Place prevPlace = (Place) arc.getStartNode();
-                if (!prevPlace.isMarked()) {
-                    // Hier wurde eine unmarkierte Vorgängerstelle gefunden
-                    this.tickable.setValue(false);
-                }
-            }
-        }
-        this.contactDetected.setValue(false);
-        if (this.isTickable()) {
-            Iterator<Arc> iterator = this.getNextArcs().iterator();
-            while (iterator.hasNext()) {
-                Arc arc = iterator.next();
-                Place nextPlace = (Place) arc.getEndNode();
-                if (nextPlace.isMarked() && !this.isNextTo(nextPlace)) {
-                    // eine markierte Nachfolgerstelle, die nicht zugleich
-                    // Vorgänger ist wurde gefunden.
-                    this.contactDetected.setValue(true);
-                    this.setTickable(false);
-                }
-            }
-
-        }
+    public void setTickableAndContact(boolean tickable, boolean contact) {
+        this.tickable.setValue(tickable);
+        this.contactDetected.setValue(contact);
         this.setFill();
     }
 
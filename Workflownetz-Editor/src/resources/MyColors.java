@@ -22,4 +22,6 @@ public class MyColors {
     public static final Color TRANS_TICKABLE = Color.LIME;
     public static final Color TRANS_CONTACT = Color.valueOf("#ed0909");
     public static final Color NODE_SELECTED = Color.valueOf("#e0ea2a");
+    public static final Color DEVIATION = Color.DARKORANGE;
+    public static final Color CONFORMING = Color.FORESTGREEN;
 }
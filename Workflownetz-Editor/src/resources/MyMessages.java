@@ -18,5 +18,49 @@ public class MyMessages {
     public static final String NO_NET = "Es ist kein Petrinetz zum speichern vorhanden!";
     public static final String NO_TAB = "Es ist kein Tab geöffnet!";
     public static final String NO_VALID_FILE = "Die ausgewählte Datei hat ein falsches Format";
+    public static final String NO_CYCLE = "Kein Kreis gefunden!";
+    public static final String CYCLE_FOUND = "Kreis %d von %d (Komponente mit %d Knoten)";
+    public static final String NO_WORKFLOWNET = "Es besteht kein gültiges Workflownetz!";
+    public static final String NO_VALID_TOKENS = "Die Anzahl der Marken muss eine ganze Zahl ab 0 sein!";
+    public static final String BOUNDED = "Das Netz ist beschränkt: höchstens %d Marken je Stelle (%d Knoten).";
+    public static final String UNBOUNDED = "Das Netz ist unbeschränkt. Unbeschränkte Stellen: %s. Schaltfolge:";
+    public static final String COVERABILITY_LIMIT = "Die Überprüfung wurde nach %d Knoten abgebrochen, bisher höchstens %d Marken je Stelle.";
+    public static final String STANDARD_RULE = "Gewöhnliche Schaltregel: Ein Kontakt blockiert keine Transition, Stellen können beliebig viele Marken tragen.";
+    public static final String CONTACT_RULE = "Schaltregel des Editors: Eine Transition schaltet nicht, solange eine Stelle ihres Nachbereichs markiert ist (Kontakt).";
+    public static final String NET_REDUCTION_RULE = "Vereinfacht das Netz vor der Soundness-Überprüfung und der Deadlock-Suche. Die Regeln gelten für die gewöhnliche Schaltregel, ein Deadlock wird im ursprünglichen Netz bestätigt.";
+    public static final String SAFE_RULE = "Nur für 1-sichere Netze: Erzeugt eine Transition eine zweite Marke auf einer Stelle, wird die Prüfung abgebrochen.";
+    public static final String INVARIANTS = "%d minimale P-Invarianten, %d minimale T-Invarianten.";
+    public static final String P_COVERED = "Alle Stellen liegen in einer P-Invariante, das Netz ist strukturell beschränkt.";
+    public static final String P_NOT_COVERED = "Nicht von P-Invarianten überdeckte Stellen:";
+    public static final String INVARIANT_LIMIT = "Die Berechnung der Invarianten wurde wegen zu vieler Zwischenergebnisse abgebrochen.";
+    public static final String SOUND = "Das Workflownetz ist sound (%d Zustände).";
+    public static final String SOUND_REDUCED = "Das Workflownetz ist sound (%d Zustände, reduziert).";
+    public static final String SOUND_FREE_CHOICE = "Das Workflownetz ist sound (free-choice, %d Reduktionsschritte).";
+    public static final String NOT_REDUCIBLE = "Nicht sound: Das Free-Choice-Netz lässt sich nicht vollständig reduzieren. Verbliebene Stellen:";
+    public static final String IMPROPER_COMPLETION = "Nicht sound: Die Endstelle wird markiert, während weitere Stellen markiert sind. Schaltfolge:";
+    public static final String SOUNDNESS_DEADLOCK = "Nicht sound: Es wird ein Deadlock erreicht. Schaltfolge:";
+    public static final String NO_OPTION_TO_COMPLETE = "Nicht sound: Die Endstelle ist nicht mehr erreichbar. Schaltfolge:";
+    public static final String DEAD_TRANSITIONS = "Nicht sound: Folgende Transitionen können nie schalten:";
+    public static final String UNSAFE = "Das Netz ist nicht 1-sicher, die Soundness kann nicht entschieden werden. Schaltfolge:";
+    public static final String DEADLOCK_FOUND = "Deadlock nach %d Schaltvorgängen gefunden. Schaltfolge:";
+    public static final String NO_DEADLOCK = "Es ist kein Deadlock erreichbar (%d Zustände).";
+    public static final String STATE_LIMIT = "Die Überprüfung wurde nach %d Zuständen abgebrochen.";
+    public static final String REPLAY_RESULT = "Fitness %.3f: %d von %d Fällen passen, durchschnittliche Fallfitness %.3f (%d Ereignisse, %d fehlende und %d übrige Marken).";
+    public static final String REPLAY_WORST_CASES = "Fälle mit der geringsten Fitness:";
+    public static final String REPLAY_UNMAPPED = "%d Ereignisse ohne passende Transition:";
+    public static final String ALIGNMENT_RESULT = "Alignment-Fitness %.3f: %d von %d Fällen passen (%d Varianten, durchschnittlich %.2f Abweichungen je Fall).";
+    public static final String ALIGNMENT_MODEL_MOVES = "Nur im Modell geschaltet:";
+    public static final String ALIGNMENT_LOG_MOVES = "Nur im Log:";
+    public static final String ALIGNMENT_FAILED = "%d Fälle konnten innerhalb der Zustandsgrenze nicht ausgerichtet werden.";
+    public static final String DEVIATION_LABEL = "%d synchron, %d nur Modell";
+    public static final String DISCOVERY_RESULT = "Aus %d Fällen mit %d Ereignissen und %d Aktivitäten wurde ein Netz mit %d Stellen und %d Transitionen (davon %d still) erzeugt.";
+    public static final String EMPTY_LOG = "Die Logdatei ist leer.";
+    public static final String INVALID_LOG_LINE = "Zeile %d der Logdatei ist ungültig.";
+    public static final String SOUNDNESS_LABEL_SOUND = "sound";
+    public static final String SOUNDNESS_LABEL_NOT_SOUND = "nicht sound";
+    public static final String SOUNDNESS_LABEL_UNKNOWN = "?";
+    public static final String SOUNDNESS_LABEL_RUNNING = "...";
     public static final String SEVE_DONE = "Das Workflownetz wurde erfolgreich gespeicehrt.";
+    public static final String SAVE_RUNNING = "%s wird gespeichert ...";
+    public static final String SAVE_PROGRESS = "%s wird gespeichert ... %d %%";
 }
@@ -0,0 +1,299 @@
+package stateSpace;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Diese Klasse ist eine Hashmenge für kodierte Markierungen, in die mehrere
+ * Threads gleichzeitig einfügen können. Die Hashtabelle ist in Streifen
+ * (stripes) aufgeteilt, die jeweils eine eigene Tabelle mit offener
+ * Adressierung besitzen und einzeln gesperrt werden. Welcher Streifen
+ * zuständig ist, ergibt sich aus den oberen Bits des Hashwertes, so dass
+ * Threads nur selten auf denselben Streifen warten.
+ *
+ * Die Nummern der Markierungen werden global über einen atomaren Zähler
+ * vergeben, die Markierungen selbst liegen wie im MarkingStore in Seiten.
+ * Eine Markierung wird unter der Sperre ihres Streifens geschrieben, bevor
+ * ihre Nummer in die Tabelle eingetragen wird. Threads, die eine Nummer über
+ * dieselbe Sperre oder nach einer Synchronisation (z.B. dem Ende einer
+ * ForkJoin-Aufgabe) erhalten, sehen daher immer die vollständige Markierung.
+ */
+public class ConcurrentMarkingStore implements StateStore {
+
+    /**
+     * Rückgabewert von add, falls die Markierung nicht enthalten war und
+     * wegen der Zustandsgrenze nicht eingefügt wurde.
+     */
+    public static final int NOT_ADDED = Integer.MIN_VALUE;
+
+    /**
+     * Ungefähre Anzahl an long-Werten je Seite als Zweierpotenz.
+     */
+    private static final int PAGE_WORDS_SHIFT = 20;
+
+    /**
+     * Maximale Größe der Tabelle eines Streifens.
+     */
+    private static final int MAX_STRIPE_CAPACITY = 1 << 30;
+
+    /**
+     * Anzahl der long-Werte je Markierung.
+     */
+    private final int words;
+
+    /**
+     * Anzahl der Markierungen je Seite als Zweierpotenz.
+     */
+    private final int pageShift;
+
+    /**
+     * Maske für die Position einer Markierung innerhalb ihrer Seite.
+     */
+    private final int pageMask;
+
+    /**
+     * Die Seiten, in denen die Markierungen abgelegt sind. Das Array wird nur
+     * unter der Sperre dieses Objekts ersetzt.
+     */
+    private volatile long[][] pages = new long[16][];
+
+    /**
+     * Anzahl der Bits, die den Streifen bestimmen.
+     */
+    private final int stripeBits;
+
+    /**
+     * Die Tabellen der Streifen. Sie enthalten die Nummer der Markierung + 1
+     * oder 0.
+     */
+    private final int[][] tables;
+
+    /**
+     * Anzahl der Einträge je Streifen.
+     */
+    private final int[] stripeSizes;
+
+    /**
+     * Die Sperrobjekte der Streifen.
+     */
+    private final Object[] locks;
+
+    /**
+     * Der Zähler für die Vergabe der Nummern.
+     */
+    private final AtomicInteger size = new AtomicInteger();
+
+    /**
+     * Maximale Anzahl an Markierungen.
+     */
+    private final int maxSize;
+
+    /**
+     * Dieser Konstruktor erzeugt eine leere Menge.
+     *
+     * @param words Anzahl der long-Werte je Markierung.
+     * @param stripes Mindestanzahl der Streifen. Sie wird auf eine
+     * Zweierpotenz aufgerundet.
+     * @param maxSize Maximale Anzahl an Markierungen.
+     */
+    public ConcurrentMarkingStore(int words, int stripes, int maxSize) {
+        this.words = words;
+        int wordsShift = 32 - Integer.numberOfLeadingZeros(words - 1);
+        this.pageShift = Math.max(0, PAGE_WORDS_SHIFT - wordsShift);
+        this.pageMask = (1 << pageShift) - 1;
+        this.maxSize = maxSize;
+        int bits = 0;
+        while ((1 << bits) < stripes && bits < 16) {
+            bits++;
+        }
+        this.stripeBits = bits;
+        int count = 1 << bits;
+        this.tables = new int[count][];
+        this.stripeSizes = new int[count];
+        this.locks = new Object[count];
+        for (int i = 0; i < count; i++) {
+            tables[i] = new int[64];
+            locks[i] = new Object();
+        }
+    }
+
+    /**
+     * Diese Methode fügt eine Markierung hinzu, falls sie noch nicht enthalten
+     * ist und die Zustandsgrenze noch nicht erreicht wurde.
+     *
+     * @param marking Das Array, das die Markierung enthält.
+     * @param offset Die Position der Markierung im Array.
+     * @return Die Nummer der neuen Markierung, -(Nummer + 1), falls die
+     * Markierung bereits enthalten war, oder NOT_ADDED.
+     */
+    public int add(long[] marking, int offset) {
+        long hash = MarkingStore.hash(marking, offset, words);
+        int stripe = stripeBits == 0 ? 0 : (int) (hash >>> (64 - stripeBits));
+        synchronized (locks[stripe]) {
+            int[] table = tables[stripe];
+            int mask = table.length - 1;
+            int slot = (int) hash & mask;
+            while (true) {
+                int entry = table[slot];
+                if (entry == 0) {
+                    break;
+                }
+                if (equalsStored(entry - 1, marking, offset)) {
+                    return -entry;
+                }
+                slot = (slot + 1) & mask;
+            }
+            int id = allocate();
+            if (id < 0) {
+                return NOT_ADDED;
+            }
+            store(id, marking, offset);
+            table[slot] = id + 1;
+            if (++stripeSizes[stripe] > table.length / 4 * 3
+                    && table.length < MAX_STRIPE_CAPACITY) {
+                tables[stripe] = rehash(table);
+            }
+            return id;
+        }
+    }
+
+    /**
+     * Diese Methode vergibt die nächste Nummer, falls die Zustandsgrenze noch
+     * nicht erreicht ist.
+     *
+     * @return Die neue Nummer oder -1.
+     */
+    private int allocate() {
+        while (true) {
+            int current = size.get();
+            if (current >= maxSize) {
+                return -1;
+            }
+            if (size.compareAndSet(current, current + 1)) {
+                return current;
+            }
+        }
+    }
+
+    @Override
+    public int indexOf(long[] marking, int offset) {
+        long hash = MarkingStore.hash(marking, offset, words);
+        int stripe = stripeBits == 0 ? 0 : (int) (hash >>> (64 - stripeBits));
+        synchronized (locks[stripe]) {
+            int[] table = tables[stripe];
+            int mask = table.length - 1;
+            int slot = (int) hash & mask;
+            while (true) {
+                int entry = table[slot];
+                if (entry == 0) {
+                    return -1;
+                }
+                if (equalsStored(entry - 1, marking, offset)) {
+                    return entry - 1;
+                }
+                slot = (slot + 1) & mask;
+            }
+        }
+    }
+
+    @Override
+    public void get(int id, long[] target, int offset) {
+        System.arraycopy(pages[id >>> pageShift], (id & pageMask) * words,
+                target, offset, words);
+    }
+
+    @Override
+    public long getWord(int id, int word) {
+        return pages[id >>> pageShift][(id & pageMask) * words + word];
+    }
+
+    @Override
+    public int size() {
+        return size.get();
+    }
+
+    @Override
+    public int getWords() {
+        return words;
+    }
+
+    /**
+     * Diese Methode legt eine Markierung in ihrer Seite ab. Fehlende Seiten
+     * werden unter der Sperre dieses Objekts erzeugt.
+     *
+     * @param id Nummer der Markierung.
+     * @param marking Das Array, das die Markierung enthält.
+     * @param offset Die Position der Markierung im Array.
+     */
+    private void store(int id, long[] marking, int offset) {
+        int page = id >>> pageShift;
+        long[][] current = pages;
+        long[] target = page < current.length ? current[page] : null;
+        if (target == null) {
+            target = allocatePage(page);
+        }
+        System.arraycopy(marking, offset, target, (id & pageMask) * words, words);
+    }
+
+    /**
+     * Diese Methode erzeugt eine Seite, falls sie noch nicht existiert.
+     *
+     * @param page Nummer der Seite.
+     * @return Die Seite.
+     */
+    private synchronized long[] allocatePage(int page) {
+        long[][] current = pages;
+        if (page >= current.length) {
+            current = Arrays.copyOf(current, Math.max(current.length * 2, page + 1));
+        }
+        if (current[page] == null) {
+            current[page] = new long[(pageMask + 1) * words];
+        }
+        pages = current;
+        return current[page];
+    }
+
+    /**
+     * Diese Methode vergleicht eine gespeicherte mit einer übergebenen
+     * Markierung.
+     *
+     * @param id Nummer der gespeicherten Markierung.
+     * @param marking Das Array, das die übergebene Markierung enthält.
+     * @param offset Die Position der Markierung im Array.
+     * @return true, falls beide Markierungen gleich sind.
+     */
+    private boolean equalsStored(int id, long[] marking, int offset) {
+        long[] page = pages[id >>> pageShift];
+        int position = (id & pageMask) * words;
+        for (int i = 0; i < words; i++) {
+            if (page[position + i] != marking[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Diese Methode verdoppelt die Tabelle eines Streifens.
+     *
+     * @param table Die bisherige Tabelle.
+     * @return Die neue Tabelle.
+     */
+    private int[] rehash(int[] table) {
+        int[] newTable = new int[table.length << 1];
+        int mask = newTable.length - 1;
+        for (int entry : table) {
+            if (entry == 0) {
+                continue;
+            }
+            int id = entry - 1;
+            long[] page = pages[id >>> pageShift];
+            int slot = (int) MarkingStore.hash(page, (id & pageMask) * words, words) & mask;
+            while (newTable[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            newTable[slot] = entry;
+        }
+        return newTable;
+    }
+}
@@ -0,0 +1,264 @@
+package stateSpace;
+
+import java.util.ArrayList;
+import java.util.List;
+import workflownetLogic.NetGraph;
+
+/**
+ * Diese Klasse ist der Überdeckungsbaum (Karp-Miller-Baum) eines Netzes mit
+ * beliebig vielen Marken je Stelle. Die Knoten sind von 0 bis nodeCount-1
+ * nummeriert, Knoten 0 ist die Anfangsmarkierung. Eine Stelle, deren
+ * Markenzahl auf einem Pfad beliebig wachsen kann, erhält den Wert OMEGA.
+ *
+ * Jede erreichbare Markierung wird von einem Knoten überdeckt. Das Netz ist
+ * daher genau dann beschränkt, wenn kein Knoten OMEGA enthält, und die größte
+ * Markenzahl einer Stelle in den Knoten ist dann ihre Schranke.
+ *
+ * Die Markierungen liegen hintereinander in einem int-Array: Die Markierung
+ * von Knoten n steht an den Positionen n * placeCount bis (n+1) * placeCount-1.
+ */
+public class CoverabilityTree {
+
+    /**
+     * Der Wert einer Stelle, deren Markenzahl unbeschränkt ist.
+     */
+    public static final int OMEGA = Integer.MAX_VALUE;
+
+    /**
+     * Die Momentaufnahme des Netzes.
+     */
+    private final NetGraph graph;
+
+    /**
+     * Anzahl der Stellen.
+     */
+    private final int placeCount;
+
+    /**
+     * Anzahl der Knoten.
+     */
+    private final int nodeCount;
+
+    /**
+     * Die Markierungen aller Knoten.
+     */
+    private final int[] markings;
+
+    /**
+     * Der Elternknoten jedes Knotens, -1 für die Wurzel.
+     */
+    private final int[] parent;
+
+    /**
+     * Die Transition, über die jeder Knoten von seinem Elternknoten aus
+     * erreicht wurde, -1 für die Wurzel.
+     */
+    private final int[] transition;
+
+    /**
+     * Anzahl der Nachfolger, die nicht aufgenommen wurden, weil ein
+     * vorhandener Knoten sie überdeckt.
+     */
+    private final int prunedCount;
+
+    /**
+     * Information darüber, ob der Baum vollständig aufgebaut wurde.
+     */
+    private final boolean complete;
+
+    /**
+     * Dieser Konstruktor initialisiert alle Attribute. Die Arrays werden
+     * übernommen und nicht kopiert.
+     *
+     * @param graph Die Momentaufnahme des Netzes.
+     * @param nodeCount Anzahl der Knoten.
+     * @param markings Die Markierungen aller Knoten.
+     * @param parent Der Elternknoten jedes Knotens.
+     * @param transition Die Transition zu jedem Knoten.
+     * @param prunedCount Anzahl der überdeckten Nachfolger.
+     * @param complete true, falls der Baum vollständig ist.
+     */
+    CoverabilityTree(NetGraph graph, int nodeCount, int[] markings, int[] parent,
+            int[] transition, int prunedCount, boolean complete) {
+        this.graph = graph;
+        this.placeCount = graph.getPlaceCount();
+        this.nodeCount = nodeCount;
+        this.markings = markings;
+        this.parent = parent;
+        this.transition = transition;
+        this.prunedCount = prunedCount;
+        this.complete = complete;
+    }
+
+    /**
+     * Diese Methode gibt das Attribut nodeCount zurück.
+     *
+     * @return Anzahl der Knoten.
+     */
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * Diese Methode gibt das Attribut prunedCount zurück.
+     *
+     * @return Anzahl der überdeckten Nachfolger.
+     */
+    public int getPrunedCount() {
+        return prunedCount;
+    }
+
+    /**
+     * Diese Methode gibt an, ob der Baum vollständig aufgebaut wurde.
+     *
+     * @return false, falls der Aufbau an der Knotengrenze abgebrochen wurde.
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * Diese Methode gibt die Markenzahl einer Stelle in einem Knoten zurück.
+     *
+     * @param node Nummer des Knotens.
+     * @param p Index der Stelle.
+     * @return Anzahl der Marken oder OMEGA.
+     */
+    public int getMarking(int node, int p) {
+        return markings[node * placeCount + p];
+    }
+
+    /**
+     * Diese Methode gibt den Elternknoten eines Knotens zurück.
+     *
+     * @param node Nummer des Knotens.
+     * @return Nummer des Elternknotens oder -1 für die Wurzel.
+     */
+    public int getParent(int node) {
+        return parent[node];
+    }
+
+    /**
+     * Diese Methode gibt die Transition zurück, über die ein Knoten von seinem
+     * Elternknoten aus erreicht wurde.
+     *
+     * @param node Nummer des Knotens.
+     * @return Nummer der Transition oder -1 für die Wurzel.
+     */
+    public int getTransition(int node) {
+        return transition[node];
+    }
+
+    /**
+     * Diese Methode gibt die Schranke einer Stelle zurück, d.h. die größte
+     * Markenzahl in allen Knoten. Ist der Baum nicht vollständig, ist das nur
+     * eine untere Schranke.
+     *
+     * @param p Index der Stelle.
+     * @return Die Schranke oder OMEGA, falls die Stelle unbeschränkt ist.
+     */
+    public int getBound(int p) {
+        int bound = 0;
+        for (int n = 0; n < nodeCount; n++) {
+            bound = Math.max(bound, markings[n * placeCount + p]);
+        }
+        return bound;
+    }
+
+    /**
+     * Diese Methode gibt die größte Schranke aller Stellen zurück.
+     *
+     * @return Die größte Markenzahl in allen Knoten oder OMEGA.
+     */
+    public int getBound() {
+        int bound = 0;
+        for (int i = 0; i < nodeCount * placeCount; i++) {
+            bound = Math.max(bound, markings[i]);
+        }
+        return bound;
+    }
+
+    /**
+     * Diese Methode gibt an, ob das Netz beschränkt ist. Ist der Baum nicht
+     * vollständig, kann nur eine Unbeschränktheit sicher festgestellt werden.
+     *
+     * @return true, falls kein Knoten OMEGA enthält.
+     */
+    public boolean isBounded() {
+        return getOmegaNode() < 0;
+    }
+
+    /**
+     * Diese Methode sucht den ersten Knoten, der OMEGA enthält.
+     *
+     * @return Nummer des Knotens oder -1, falls es keinen gibt.
+     */
+    public int getOmegaNode() {
+        for (int n = 0; n < nodeCount; n++) {
+            for (int p = 0; p < placeCount; p++) {
+                if (markings[n * placeCount + p] == OMEGA) {
+                    return n;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Diese Methode bestimmt die ids der unbeschränkten Stellen.
+     *
+     * @return Die ids aller Stellen, die in einem Knoten OMEGA sind.
+     */
+    public List<String> getUnboundedPlaceIds() {
+        List<String> ids = new ArrayList<>();
+        for (int p = 0; p < placeCount; p++) {
+            if (getBound(p) == OMEGA) {
+                ids.add(graph.getId(p));
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Diese Methode bestimmt die Schaltfolge von der Wurzel zu einem Knoten.
+     *
+     * @param node Nummer des Knotens.
+     * @return Die Nummern der Transitionen von der Wurzel bis node.
+     */
+    public int[] getPath(int node) {
+        int length = 0;
+        for (int n = node; parent[n] >= 0; n = parent[n]) {
+            length++;
+        }
+        int[] path = new int[length];
+        for (int n = node; parent[n] >= 0; n = parent[n]) {
+            path[--length] = transition[n];
+        }
+        return path;
+    }
+
+    /**
+     * Diese Methode bestimmt die Schaltfolge zu einem Knoten als Liste der
+     * ids der Transitionen.
+     *
+     * @param node Nummer des Knotens.
+     * @return Die ids der Transitionen von der Wurzel bis node.
+     */
+    public List<String> getPathIds(int node) {
+        int[] path = getPath(node);
+        List<String> ids = new ArrayList<>(path.length);
+        for (int t : path) {
+            ids.add(graph.getId(placeCount + t));
+        }
+        return ids;
+    }
+
+    /**
+     * Diese Methode gibt die Momentaufnahme des Netzes zurück.
+     *
+     * @return Das Attribut graph.
+     */
+    public NetGraph getGraph() {
+        return graph;
+    }
+}
@@ -0,0 +1,474 @@
+package stateSpace;
+
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+import workflownetLogic.NetGraph;
+
+/**
+ * Diese Klasse baut den Überdeckungsbaum eines Netzes nach Karp und Miller
+ * auf. Anders als im Markenspiel des Editors gilt hier die gewöhnliche
+ * Schaltregel für Stellen mit beliebig vielen Marken: Eine Transition ist
+ * schaltbar, wenn jede Stelle ihres Vorbereichs mindestens eine Marke hat,
+ * ein Kontakt blockiert sie nicht. Eine Transition ohne Vorbereich ist daher
+ * immer schaltbar und macht jede Stelle ihres Nachbereichs unbeschränkt.
+ *
+ * Ist eine neue Markierung echt größer als die Markierung eines Vorfahren,
+ * lässt sich die Schaltfolge dazwischen beliebig oft wiederholen. Die
+ * gewachsenen Stellen erhalten dann den Wert CoverabilityTree.OMEGA.
+ *
+ * Zwei Techniken halten den Baum klein:
+ *
+ * - Eine Markierung, die bereits als Knoten vorhanden ist, wird über eine
+ * Hashtabelle wiedererkannt und nicht erneut aufgenommen.
+ *
+ * - Eine Markierung, die von einem vorhandenen Knoten mit OMEGA überdeckt
+ * wird, wird ebenfalls nicht aufgenommen, da ihre Nachfolger von den
+ * Nachfolgern dieses Knotens überdeckt werden. Dazu werden die maximalen
+ * Knoten mit OMEGA (Antikette) mitgeführt. Knoten ohne OMEGA werden nicht
+ * verglichen: In einem beschränkten Netz sind die meisten Markierungen
+ * unvergleichbar, der Vergleich würde den Aufbau quadratisch machen, ohne
+ * den Baum zu verkleinern.
+ *
+ * Beim Vergleich mit den Vorfahren werden zuerst die Markensumme und eine
+ * Bitmaske der markierten Stellen verglichen. Ein echt kleinerer Vorfahre hat
+ * eine echt kleinere Summe und keine markierte Stelle außerhalb der neuen
+ * Markierung, so dass die meisten Vorfahren ohne Vergleich aller Stellen
+ * ausscheiden.
+ *
+ * OMEGA entsteht weiterhin nur entlang des tatsächlichen Pfades von der
+ * Wurzel, das Netz ist also genau dann unbeschränkt, wenn ein Knoten OMEGA
+ * enthält. Wird der ausführende Thread unterbrochen, bricht build mit einer
+ * CancellationException ab.
+ */
+public class CoverabilityTreeBuilder {
+
+    /**
+     * Kennzeichnung eines freien Eintrags der Hashtabelle.
+     */
+    private static final int EMPTY = -1;
+
+    /**
+     * Die Momentaufnahme des Netzes.
+     */
+    private final NetGraph graph;
+
+    /**
+     * Anzahl der Stellen.
+     */
+    private final int placeCount;
+
+    /**
+     * Maximale Anzahl an Knoten.
+     */
+    private int maxNodes = 1000000;
+
+    /**
+     * Die Markierungen aller Knoten, je placeCount Einträge.
+     */
+    private int[] markings;
+
+    /**
+     * Der Elternknoten jedes Knotens.
+     */
+    private IntArrayList parent;
+
+    /**
+     * Die Transition zu jedem Knoten.
+     */
+    private IntArrayList transition;
+
+    /**
+     * Anzahl der Knoten.
+     */
+    private int nodeCount;
+
+    /**
+     * Die Hashtabelle der Knoten (offene Adressierung, lineares Sondieren).
+     */
+    private int[] table;
+
+    /**
+     * Die Markensumme jedes Knotens, OMEGA zählt als OMEGA Marken.
+     */
+    private long[] tokenSums;
+
+    /**
+     * Die Bitmaske der markierten Stellen jedes Knotens. Stelle p setzt das
+     * Bit p % 64.
+     */
+    private long[] supports;
+
+    /**
+     * Die Knoten mit OMEGA, deren Markierungen von keinem anderen Knoten mit
+     * OMEGA überdeckt werden.
+     */
+    private IntArrayList maximal;
+
+    /**
+     * Anzahl der überdeckten Nachfolger.
+     */
+    private int prunedCount;
+
+    /**
+     * Dieser Konstruktor initialisiert den Aufbau für die übergebene
+     * Momentaufnahme.
+     *
+     * @param graph Die Momentaufnahme des Netzes.
+     */
+    public CoverabilityTreeBuilder(NetGraph graph) {
+        this.graph = graph;
+        this.placeCount = graph.getPlaceCount();
+    }
+
+    /**
+     * Diese Methode setzt die maximale Anzahl an Knoten.
+     *
+     * @param maxNodes Die maximale Anzahl an Knoten.
+     * @return Dieses Objekt.
+     */
+    public CoverabilityTreeBuilder setMaxNodes(int maxNodes) {
+        this.maxNodes = Math.max(1, maxNodes);
+        return this;
+    }
+
+    /**
+     * Diese Methode baut den Überdeckungsbaum ausgehend von der Markierung der
+     * Momentaufnahme auf.
+     *
+     * @return Der Überdeckungsbaum.
+     */
+    public CoverabilityTree build() {
+        int[] initial = new int[placeCount];
+        for (int p = 0; p < placeCount; p++) {
+            initial[p] = Math.max(0, graph.getMarking(p));
+        }
+        return build(initial);
+    }
+
+    /**
+     * Diese Methode baut den Überdeckungsbaum ausgehend von der übergebenen
+     * Markierung auf.
+     *
+     * @param initial Die Anzahl der Marken jeder Stelle.
+     * @return Der Überdeckungsbaum.
+     */
+    public CoverabilityTree build(int[] initial) {
+        int transitionCount = graph.getTransitionCount();
+        int[] preStart = graph.getPreStart();
+        int[] pre = graph.getPre();
+        int[] postStart = graph.getPostStart();
+        int[] post = graph.getPost();
+        markings = new int[Math.max(1, placeCount) * 64];
+        parent = new IntArrayList(64);
+        transition = new IntArrayList(64);
+        table = new int[128];
+        Arrays.fill(table, EMPTY);
+        tokenSums = new long[64];
+        supports = new long[64];
+        maximal = new IntArrayList(16);
+        nodeCount = 0;
+        prunedCount = 0;
+
+        boolean complete = true;
+        IntArrayList stack = new IntArrayList(64);
+        int[] next = new int[placeCount];
+        addNode(initial, -1, -1);
+        stack.add(0);
+        search:
+        while (stack.size() > 0) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new CancellationException();
+            }
+            int node = stack.removeLast();
+            int base = node * placeCount;
+            for (int t = 0; t < transitionCount; t++) {
+                int v = placeCount + t;
+                if (!isEnabled(base, pre, preStart[v], preStart[v + 1])) {
+                    continue;
+                }
+                System.arraycopy(markings, base, next, 0, placeCount);
+                for (int i = preStart[v]; i < preStart[v + 1]; i++) {
+                    if (next[pre[i]] != CoverabilityTree.OMEGA) {
+                        next[pre[i]]--;
+                    }
+                }
+                for (int i = postStart[v]; i < postStart[v + 1]; i++) {
+                    if (next[post[i]] != CoverabilityTree.OMEGA) {
+                        next[post[i]]++;
+                    }
+                }
+                accelerate(node, next);
+                if (find(next) >= 0) {
+                    continue;
+                }
+                if (isCovered(next)) {
+                    prunedCount++;
+                    continue;
+                }
+                if (nodeCount == maxNodes) {
+                    complete = false;
+                    break search;
+                }
+                stack.add(addNode(next, node, t));
+            }
+        }
+        CoverabilityTree tree = new CoverabilityTree(graph, nodeCount,
+                Arrays.copyOf(markings, nodeCount * placeCount), parent.toArray(),
+                transition.toArray(), prunedCount, complete);
+        markings = null;
+        parent = null;
+        transition = null;
+        table = null;
+        tokenSums = null;
+        supports = null;
+        maximal = null;
+        return tree;
+    }
+
+    /**
+     * Diese Methode überprüft, ob jede Stelle eines Vorbereichs mindestens
+     * eine Marke hat.
+     *
+     * @param base Position der Markierung im Array markings.
+     * @param pre Das Array der Vorbereiche.
+     * @param from Beginn des Vorbereichs.
+     * @param to Ende des Vorbereichs (exklusiv).
+     * @return true, falls die Transition schaltbar ist.
+     */
+    private boolean isEnabled(int base, int[] pre, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (markings[base + pre[i]] == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Diese Methode vergleicht eine neue Markierung mit den Markierungen
+     * aller Vorfahren. Ist sie echt größer als eine davon, erhalten die
+     * gewachsenen Stellen den Wert OMEGA.
+     *
+     * @param node Der Knoten, von dem aus die Markierung erreicht wurde.
+     * @param marking Die neue Markierung, die angepasst wird.
+     */
+    private void accelerate(int node, int[] marking) {
+        long sum = tokenSum(marking);
+        long support = support(marking);
+        for (int a = node; a >= 0; a = parent.get(a)) {
+            if (tokenSums[a] >= sum || (supports[a] & ~support) != 0) {
+                continue;
+            }
+            int base = a * placeCount;
+            boolean smaller = false;
+            boolean covered = true;
+            for (int p = 0; p < placeCount && covered; p++) {
+                int value = markings[base + p];
+                if (value > marking[p]) {
+                    covered = false;
+                } else if (value < marking[p]) {
+                    smaller = true;
+                }
+            }
+            if (covered && smaller) {
+                for (int p = 0; p < placeCount; p++) {
+                    if (markings[base + p] < marking[p]) {
+                        marking[p] = CoverabilityTree.OMEGA;
+                    }
+                }
+                sum = tokenSum(marking);
+            }
+        }
+    }
+
+    /**
+     * Diese Methode überprüft, ob eine Markierung von einem vorhandenen
+     * Knoten mit OMEGA überdeckt wird.
+     *
+     * @param marking Die Markierung.
+     * @return true, falls ein Knoten an jeder Stelle mindestens so viele
+     * Marken hat.
+     */
+    private boolean isCovered(int[] marking) {
+        for (int i = 0; i < maximal.size(); i++) {
+            if (covers(maximal.get(i) * placeCount, marking)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Diese Methode überprüft, ob die Markierung eines Knotens eine andere
+     * Markierung überdeckt.
+     *
+     * @param base Position der Markierung des Knotens im Array markings.
+     * @param marking Die andere Markierung.
+     * @return true, falls der Knoten an jeder Stelle mindestens so viele
+     * Marken hat.
+     */
+    private boolean covers(int base, int[] marking) {
+        for (int p = 0; p < placeCount; p++) {
+            if (markings[base + p] < marking[p]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Diese Methode nimmt eine Markierung als neuen Knoten auf. Enthält sie
+     * OMEGA, wird sie in die Antikette aufgenommen und Knoten der Antikette,
+     * die von ihr überdeckt werden, werden entfernt.
+     *
+     * @param marking Die Markierung.
+     * @param from Der Elternknoten oder -1.
+     * @param t Die Transition oder -1.
+     * @return Nummer des neuen Knotens.
+     */
+    private int addNode(int[] marking, int from, int t) {
+        int node = nodeCount++;
+        if (nodeCount * placeCount > markings.length) {
+            markings = Arrays.copyOf(markings, markings.length * 2);
+        }
+        System.arraycopy(marking, 0, markings, node * placeCount, placeCount);
+        parent.add(from);
+        transition.add(t);
+        if (node == tokenSums.length) {
+            tokenSums = Arrays.copyOf(tokenSums, node * 2);
+            supports = Arrays.copyOf(supports, node * 2);
+        }
+        tokenSums[node] = tokenSum(marking);
+        supports[node] = support(marking);
+
+        if (tokenSums[node] >= CoverabilityTree.OMEGA) {
+            int kept = 0;
+            for (int i = 0; i < maximal.size(); i++) {
+                int other = maximal.get(i);
+                if (!coveredBy(other * placeCount, marking)) {
+                    maximal.set(kept++, other);
+                }
+            }
+            maximal.truncate(kept);
+            maximal.add(node);
+        }
+
+        if (nodeCount * 2 > table.length) {
+            rehash(node);
+        }
+        insert(node);
+        return node;
+    }
+
+    /**
+     * Diese Methode berechnet die Markensumme einer Markierung.
+     *
+     * @param marking Die Markierung.
+     * @return Die Summe, mindestens OMEGA, falls eine Stelle OMEGA ist.
+     */
+    private long tokenSum(int[] marking) {
+        long sum = 0;
+        for (int p = 0; p < placeCount; p++) {
+            sum += marking[p];
+        }
+        return sum;
+    }
+
+    /**
+     * Diese Methode berechnet die Bitmaske der markierten Stellen.
+     *
+     * @param marking Die Markierung.
+     * @return Die Bitmaske, Stelle p setzt das Bit p % 64.
+     */
+    private long support(int[] marking) {
+        long support = 0;
+        for (int p = 0; p < placeCount; p++) {
+            if (marking[p] > 0) {
+                support |= 1L << p;
+            }
+        }
+        return support;
+    }
+
+    /**
+     * Diese Methode überprüft, ob die Markierung eines Knotens von einer
+     * anderen Markierung überdeckt wird.
+     *
+     * @param base Position der Markierung des Knotens im Array markings.
+     * @param marking Die andere Markierung.
+     * @return true, falls marking an jeder Stelle mindestens so viele Marken
+     * hat.
+     */
+    private boolean coveredBy(int base, int[] marking) {
+        for (int p = 0; p < placeCount; p++) {
+            if (markings[base + p] > marking[p]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Diese Methode sucht eine Markierung in der Hashtabelle.
+     *
+     * @param marking Die Markierung.
+     * @return Nummer des Knotens oder -1, falls sie nicht vorhanden ist.
+     */
+    private int find(int[] marking) {
+        int mask = table.length - 1;
+        for (int i = hash(marking, 0) & mask; table[i] != EMPTY; i = (i + 1) & mask) {
+            int base = table[i] * placeCount;
+            boolean equal = true;
+            for (int p = 0; p < placeCount && equal; p++) {
+                equal = markings[base + p] == marking[p];
+            }
+            if (equal) {
+                return table[i];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Diese Methode fügt einen Knoten in die Hashtabelle ein.
+     *
+     * @param node Nummer des Knotens.
+     */
+    private void insert(int node) {
+        int mask = table.length - 1;
+        int i = hash(markings, node * placeCount) & mask;
+        while (table[i] != EMPTY) {
+            i = (i + 1) & mask;
+        }
+        table[i] = node;
+    }
+
+    /**
+     * Diese Methode verdoppelt die Hashtabelle und fügt die vorhandenen
+     * Knoten neu ein.
+     *
+     * @param count Anzahl der Knoten, die bereits in der Tabelle standen.
+     */
+    private void rehash(int count) {
+        table = new int[table.length * 2];
+        Arrays.fill(table, EMPTY);
+        for (int node = 0; node < count; node++) {
+            insert(node);
+        }
+    }
+
+    /**
+     * Diese Methode berechnet den Hashwert einer Markierung.
+     *
+     * @param array Das Array, das die Markierung enthält.
+     * @param base Position der Markierung im Array.
+     * @return Der Hashwert.
+     */
+    private int hash(int[] array, int base) {
+        int h = 0;
+        for (int p = 0; p < placeCount; p++) {
+            h = 31 * h + array[base + p];
+        }
+        return h ^ (h >>> 16);
+    }
+}
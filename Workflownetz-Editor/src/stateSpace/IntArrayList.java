@@ -0,0 +1,120 @@
+package stateSpace;
+
+import java.util.Arrays;
+
+/**
+ * Diese Klasse ist eine wachsende Liste von int-Werten. Sie wird für Kanten
+ * und Zustandsnummern verwendet, damit keine Integer-Objekte erzeugt werden.
+ */
+public class IntArrayList {
+
+    /**
+     * Die Elemente der Liste. Nur die ersten size Einträge sind gültig.
+     */
+    private int[] elements;
+
+    /**
+     * Anzahl der Elemente.
+     */
+    private int size;
+
+    /**
+     * Dieser Konstruktor erzeugt eine leere Liste.
+     *
+     * @param capacity Die anfängliche Kapazität.
+     */
+    public IntArrayList(int capacity) {
+        this.elements = new int[Math.max(capacity, 4)];
+    }
+
+    /**
+     * Diese Methode hängt einen Wert an die Liste an.
+     *
+     * @param value Der anzuhängende Wert.
+     */
+    public void add(int value) {
+        if (size == elements.length) {
+            grow(size + 1);
+        }
+        elements[size++] = value;
+    }
+
+    /**
+     * Diese Methode gibt einen Wert der Liste zurück.
+     *
+     * @param index Position des Wertes.
+     * @return Der Wert an der Position index.
+     */
+    public int get(int index) {
+        return elements[index];
+    }
+
+    /**
+     * Diese Methode setzt einen Wert der Liste.
+     *
+     * @param index Position des Wertes.
+     * @param value Der neue Wert.
+     */
+    public void set(int index, int value) {
+        elements[index] = value;
+    }
+
+    /**
+     * Diese Methode gibt die Anzahl der Elemente zurück.
+     *
+     * @return Das Attribut size.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Diese Methode entfernt das letzte Element und gibt es zurück.
+     *
+     * @return Das bisher letzte Element.
+     */
+    public int removeLast() {
+        return elements[--size];
+    }
+
+    /**
+     * Diese Methode kürzt die Liste auf die übergebene Länge.
+     *
+     * @param newSize Die neue Anzahl der Elemente (höchstens size).
+     */
+    public void truncate(int newSize) {
+        size = newSize;
+    }
+
+    /**
+     * Diese Methode entfernt alle Elemente. Die Kapazität bleibt erhalten.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Diese Methode gibt die Elemente als Array passender Länge zurück.
+     *
+     * @return Eine Kopie der Elemente.
+     */
+    public int[] toArray() {
+        return Arrays.copyOf(elements, size);
+    }
+
+    /**
+     * Diese Methode vergrößert das Array elements um mindestens die Hälfte.
+     *
+     * @param minCapacity Die mindestens benötigte Kapazität.
+     */
+    private void grow(int minCapacity) {
+        long capacity = Math.max((long) elements.length + (elements.length >> 1), minCapacity);
+        if (capacity > Integer.MAX_VALUE - 8) {
+            if (minCapacity > Integer.MAX_VALUE - 8) {
+                throw new IllegalStateException("Zu viele Einträge");
+            }
+            capacity = Integer.MAX_VALUE - 8;
+        }
+        elements = Arrays.copyOf(elements, (int) capacity);
+    }
+}
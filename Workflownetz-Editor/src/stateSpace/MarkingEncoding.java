@@ -0,0 +1,345 @@
+package stateSpace;
+
+import java.util.Arrays;
+import workflownetLogic.NetGraph;
+
+/**
+ * Diese Klasse beschreibt, wie die Markierungen eines 1-sicheren Netzes als
+ * Bitvektoren kodiert werden. Stelle p entspricht Bit (p % 64) im Wort
+ * (p / 64), eine Markierung belegt damit words long-Werte.
+ *
+ * Vor- und Nachbereiche der Transitionen werden als dünn besetzte Masken
+ * gehalten: Für jede Transition werden nur die Wörter gespeichert, in denen
+ * ihr Vor- oder Nachbereich liegt. Aktiviertheit und Schalten kosten daher nur
+ * so viel wie die Anzahl dieser Wörter, unabhängig von der Größe des Netzes.
+ *
+ * Es gilt dieselbe Schaltregel wie im Markenspiel des Editors (TokenGame):
+ * Eine Transition ist aktiviert, wenn alle Stellen ihres Vorbereichs markiert
+ * und alle Stellen ihres Nachbereichs, die nicht zugleich im Vorbereich liegen,
+ * unmarkiert sind. Transitionen ohne Vorbereich sind nie aktiviert.
+ *
+ * Die Transitionen werden von 0 bis transitionCount-1 nummeriert, Transition t
+ * entspricht dem Knoten placeCount + t des NetGraph.
+ */
+public class MarkingEncoding {
+
+    /**
+     * Die Momentaufnahme, zu der die Kodierung gehört.
+     */
+    private final NetGraph graph;
+
+    /**
+     * Anzahl der long-Werte je Markierung.
+     */
+    private final int words;
+
+    /**
+     * maskStart[t] bis maskStart[t+1]-1 sind die Positionen der Masken von
+     * Transition t.
+     */
+    private final int[] maskStart;
+
+    /**
+     * Das Wort, auf das sich eine Maske bezieht.
+     */
+    private final int[] maskWord;
+
+    /**
+     * Die Bits des Vorbereichs im jeweiligen Wort.
+     */
+    private final long[] preMask;
+
+    /**
+     * Die Bits des Nachbereichs im jeweiligen Wort.
+     */
+    private final long[] postMask;
+
+    /**
+     * Die Stelle mit dem kleinsten Index im Vorbereich jeder Transition oder
+     * -1, falls der Vorbereich leer ist. Eine Transition wird in collectEnabled nur über diese Stelle
+     * gefunden und damit genau einmal geprüft.
+     */
+    private final int[] firstPre;
+
+    /**
+     * Dieser Konstruktor erzeugt die Masken aller Transitionen der
+     * übergebenen Momentaufnahme.
+     *
+     * @param graph Die Momentaufnahme des Netzes.
+     */
+    public MarkingEncoding(NetGraph graph) {
+        this.graph = graph;
+        int placeCount = graph.getPlaceCount();
+        int transitionCount = graph.getTransitionCount();
+        this.words = Math.max(1, (placeCount + 63) >>> 6);
+        int[] preStart = graph.getPreStart();
+        int[] pre = graph.getPre();
+        int[] postStart = graph.getPostStart();
+        int[] post = graph.getPost();
+
+        // Für jede Transition werden die betroffenen Wörter in lastMask
+        // zusammengefasst. Die Anzahl der Masken ist höchstens die Anzahl der
+        // Kanten. Kanten zwischen zwei Transitionen werden ignoriert.
+        int[] lastMask = new int[words];
+        Arrays.fill(lastMask, -1);
+        this.maskStart = new int[transitionCount + 1];
+        this.firstPre = new int[transitionCount];
+        int[] wordBuffer = new int[graph.getArcCount()];
+        long[] preBuffer = new long[graph.getArcCount()];
+        long[] postBuffer = new long[graph.getArcCount()];
+        int count = 0;
+        for (int t = 0; t < transitionCount; t++) {
+            int v = placeCount + t;
+            maskStart[t] = count;
+            firstPre[t] = -1;
+            for (int i = preStart[v]; i < preStart[v + 1]; i++) {
+                int p = pre[i];
+                if (p >= placeCount) {
+                    continue;
+                }
+                if (firstPre[t] < 0 || p < firstPre[t]) {
+                    firstPre[t] = p;
+                }
+                int word = p >>> 6;
+                if (lastMask[word] < maskStart[t]) {
+                    lastMask[word] = count;
+                    wordBuffer[count++] = word;
+                }
+                preBuffer[lastMask[word]] |= 1L << p;
+            }
+            for (int i = postStart[v]; i < postStart[v + 1]; i++) {
+                int p = post[i];
+                if (p >= placeCount) {
+                    continue;
+                }
+                int word = p >>> 6;
+                if (lastMask[word] < maskStart[t]) {
+                    lastMask[word] = count;
+                    wordBuffer[count++] = word;
+                }
+                postBuffer[lastMask[word]] |= 1L << p;
+            }
+        }
+        maskStart[transitionCount] = count;
+        this.maskWord = Arrays.copyOf(wordBuffer, count);
+        this.preMask = Arrays.copyOf(preBuffer, count);
+        this.postMask = Arrays.copyOf(postBuffer, count);
+    }
+
+    /**
+     * Diese Methode kodiert die Markierung der Momentaufnahme. Jede Stelle mit
+     * mindestens einer Marke wird als markiert betrachtet.
+     *
+     * @return Die kodierte Markierung.
+     */
+    public long[] encodeMarking() {
+        long[] marking = new long[words];
+        for (int p = 0; p < graph.getPlaceCount(); p++) {
+            if (graph.getMarking(p) > 0) {
+                marking[p >>> 6] |= 1L << p;
+            }
+        }
+        return marking;
+    }
+
+    /**
+     * Diese Methode kodiert eine Markierung, in der genau die übergebenen
+     * Stellen markiert sind.
+     *
+     * @param places Die Indizes der markierten Stellen.
+     * @return Die kodierte Markierung.
+     */
+    public long[] encodeMarking(int... places) {
+        long[] marking = new long[words];
+        for (int p : places) {
+            marking[p >>> 6] |= 1L << p;
+        }
+        return marking;
+    }
+
+    /**
+     * Diese Methode überprüft, ob eine Transition in einer Markierung
+     * aktiviert ist.
+     *
+     * @param marking Das Array, das die Markierung enthält.
+     * @param offset Die Position der Markierung im Array.
+     * @param t Nummer der Transition.
+     * @return true, falls die Transition schalten kann.
+     */
+    public boolean isEnabled(long[] marking, int offset, int t) {
+        if (firstPre[t] < 0) {
+            return false;
+        }
+        for (int k = maskStart[t]; k < maskStart[t + 1]; k++) {
+            long m = marking[offset + maskWord[k]];
+            long pre = preMask[k];
+            if ((m & pre) != pre || (m & postMask[k] & ~pre) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Diese Methode überprüft, ob eine Transition in einer Markierung einen
+     * Kontakt hat: Ihr Vorbereich ist vollständig markiert, aber eine Stelle
+     * ihres Nachbereichs, die nicht im Vorbereich liegt, ist ebenfalls
+     * markiert. Nach der üblichen Schaltregel würde das Schalten eine zweite
+     * Marke erzeugen.
+     *
+     * @param marking Das Array, das die Markierung enthält.
+     * @param offset Die Position der Markierung im Array.
+     * @param t Nummer der Transition.
+     * @return true, falls die Transition einen Kontakt hat.
+     */
+    public boolean hasContact(long[] marking, int offset, int t) {
+        if (firstPre[t] < 0) {
+            return false;
+        }
+        boolean contact = false;
+        for (int k = maskStart[t]; k < maskStart[t + 1]; k++) {
+            long m = marking[offset + maskWord[k]];
+            long pre = preMask[k];
+            if ((m & pre) != pre) {
+                return false;
+            }
+            if ((m & postMask[k] & ~pre) != 0) {
+                contact = true;
+            }
+        }
+        return contact;
+    }
+
+    /**
+     * Diese Methode sucht eine Transition mit Kontakt (siehe hasContact).
+     *
+     * @param marking Das Array, das die Markierung enthält.
+     * @param offset Die Position der Markierung im Array.
+     * @return Nummer der Transition oder -1, falls keine Transition einen
+     * Kontakt hat.
+     */
+    public int findContact(long[] marking, int offset) {
+        int[] postStart = graph.getPostStart();
+        int[] post = graph.getPost();
+        int placeCount = graph.getPlaceCount();
+        for (int w = 0; w < words; w++) {
+            long bits = marking[offset + w];
+            while (bits != 0) {
+                int p = (w << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                for (int i = postStart[p]; i < postStart[p + 1]; i++) {
+                    int t = post[i] - placeCount;
+                    if (t >= 0 && firstPre[t] == p && hasContact(marking, offset, t)) {
+                        return t;
+                    }
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Diese Methode bestimmt alle aktivierten Transitionen einer Markierung.
+     * Es werden nur die Transitionen im Nachbereich markierter Stellen
+     * geprüft, der Aufwand hängt daher von der Anzahl der Marken und nicht von
+     * der Größe des Netzes ab.
+     *
+     * @param marking Das Array, das die Markierung enthält.
+     * @param offset Die Position der Markierung im Array.
+     * @param result Das Array für die Nummern der aktivierten Transitionen.
+     * Es muss mindestens getTransitionCount() Einträge haben.
+     * @return Die Anzahl der aktivierten Transitionen.
+     */
+    public int collectEnabled(long[] marking, int offset, int[] result) {
+        int[] postStart = graph.getPostStart();
+        int[] post = graph.getPost();
+        int placeCount = graph.getPlaceCount();
+        int count = 0;
+        for (int w = 0; w < words; w++) {
+            long bits = marking[offset + w];
+            while (bits != 0) {
+                int p = (w << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                for (int i = postStart[p]; i < postStart[p + 1]; i++) {
+                    int t = post[i] - placeCount;
+                    if (t >= 0 && firstPre[t] == p && isEnabled(marking, offset, t)) {
+                        result[count++] = t;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Diese Methode schaltet eine aktivierte Transition. Die Folgemarkierung
+     * wird in das Zielarray geschrieben, Quelle und Ziel dürfen
+     * übereinstimmen.
+     *
+     * @param source Das Array, das die Markierung enthält.
+     * @param sourceOffset Die Position der Markierung in source.
+     * @param t Nummer der Transition.
+     * @param target Das Array für die Folgemarkierung.
+     * @param targetOffset Die Position der Folgemarkierung in target.
+     */
+    public void fire(long[] source, int sourceOffset, int t, long[] target, int targetOffset) {
+        if (source != target || sourceOffset != targetOffset) {
+            System.arraycopy(source, sourceOffset, target, targetOffset, words);
+        }
+        for (int k = maskStart[t]; k < maskStart[t + 1]; k++) {
+            int word = targetOffset + maskWord[k];
+            target[word] = (target[word] & ~preMask[k]) | postMask[k];
+        }
+    }
+
+    /**
+     * Diese Methode überprüft, ob eine Stelle in einer Markierung markiert
+     * ist.
+     *
+     * @param marking Das Array, das die Markierung enthält.
+     * @param offset Die Position der Markierung im Array.
+     * @param p Index der Stelle.
+     * @return true, falls die Stelle markiert ist.
+     */
+    public static boolean isMarked(long[] marking, int offset, int p) {
+        return (marking[offset + (p >>> 6)] & (1L << p)) != 0;
+    }
+
+    /**
+     * Diese Methode gibt die Momentaufnahme zurück, zu der die Kodierung
+     * gehört.
+     *
+     * @return Das Attribut graph.
+     */
+    public NetGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * Diese Methode gibt die Anzahl der long-Werte je Markierung zurück.
+     *
+     * @return Das Attribut words.
+     */
+    public int getWords() {
+        return words;
+    }
+
+    /**
+     * Diese Methode gibt die Anzahl der Transitionen zurück.
+     *
+     * @return Anzahl der Transitionen.
+     */
+    public int getTransitionCount() {
+        return maskStart.length - 1;
+    }
+
+    /**
+     * Diese Methode gibt die id einer Transition zurück.
+     *
+     * @param t Nummer der Transition.
+     * @return Die id der Transition.
+     */
+    public String getTransitionId(int t) {
+        return graph.getId(graph.getPlaceCount() + t);
+    }
+}
@@ -0,0 +1,260 @@
+package stateSpace;
+
+import java.util.Arrays;
+
+/**
+ * Diese Klasse ist eine Hashmenge für kodierte Markierungen. Die Markierungen
+ * werden nicht als einzelne Objekte, sondern hintereinander in Seiten
+ * (long-Arrays) abgelegt und fortlaufend ab 0 nummeriert. Die Hashtabelle
+ * verwendet offene Adressierung mit linearer Sondierung und speichert nur die
+ * Nummern (+1, 0 bedeutet frei). Je Zustand fallen damit words * 8 Byte für die
+ * Markierung und höchstens 8 Byte in der Tabelle an, ohne Objekt-Header.
+ */
+public class MarkingStore implements StateStore {
+
+    /**
+     * Ungefähre Anzahl an long-Werten je Seite als Zweierpotenz.
+     */
+    private static final int PAGE_WORDS_SHIFT = 20;
+
+    /**
+     * Maximale Größe der Hashtabelle.
+     */
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    /**
+     * Anzahl der long-Werte je Markierung.
+     */
+    private final int words;
+
+    /**
+     * Anzahl der Markierungen je Seite als Zweierpotenz. Eine Seite umfasst
+     * unabhängig von words etwa 2^PAGE_WORDS_SHIFT long-Werte.
+     */
+    private final int pageShift;
+
+    /**
+     * Maske für die Position einer Markierung innerhalb ihrer Seite.
+     */
+    private final int pageMask;
+
+    /**
+     * Die Seiten, in denen die Markierungen abgelegt sind.
+     */
+    private long[][] pages = new long[16][];
+
+    /**
+     * Die Hashtabelle. Sie enthält die Nummer der Markierung + 1 oder 0.
+     */
+    private int[] table;
+
+    /**
+     * Anzahl der gespeicherten Markierungen.
+     */
+    private int size;
+
+    /**
+     * Dieser Konstruktor erzeugt eine leere Menge.
+     *
+     * @param words Anzahl der long-Werte je Markierung.
+     * @param expectedSize Erwartete Anzahl an Markierungen.
+     */
+    public MarkingStore(int words, int expectedSize) {
+        this.words = words;
+        int wordsShift = 32 - Integer.numberOfLeadingZeros(words - 1);
+        this.pageShift = Math.max(0, PAGE_WORDS_SHIFT - wordsShift);
+        this.pageMask = (1 << pageShift) - 1;
+        int capacity = 16;
+        while (capacity < MAX_CAPACITY && capacity / 2 < expectedSize) {
+            capacity <<= 1;
+        }
+        this.table = new int[capacity];
+    }
+
+    /**
+     * Diese Methode fügt eine Markierung hinzu, falls sie noch nicht enthalten
+     * ist.
+     *
+     * @param marking Das Array, das die Markierung enthält.
+     * @param offset Die Position der Markierung im Array.
+     * @return Die Nummer der neuen Markierung oder -(Nummer + 1), falls die
+     * Markierung bereits enthalten war.
+     */
+    public int add(long[] marking, int offset) {
+        long hash = hash(marking, offset, words);
+        int mask = table.length - 1;
+        int slot = (int) hash & mask;
+        while (true) {
+            int entry = table[slot];
+            if (entry == 0) {
+                break;
+            }
+            if (equalsStored(entry - 1, marking, offset)) {
+                return -entry;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (size >= table.length - 1) {
+            throw new IllegalStateException("Zu viele Zustände");
+        }
+        int id = size++;
+        store(id, marking, offset);
+        table[slot] = id + 1;
+        if (size > table.length / 4 * 3 && table.length < MAX_CAPACITY) {
+            rehash(table.length << 1);
+        }
+        return id;
+    }
+
+    /**
+     * Diese Methode sucht eine Markierung.
+     *
+     * @param marking Das Array, das die Markierung enthält.
+     * @param offset Die Position der Markierung im Array.
+     * @return Die Nummer der Markierung oder -1, falls sie nicht enthalten
+     * ist.
+     */
+    @Override
+    public int indexOf(long[] marking, int offset) {
+        int mask = table.length - 1;
+        int slot = (int) hash(marking, offset, words) & mask;
+        while (true) {
+            int entry = table[slot];
+            if (entry == 0) {
+                return -1;
+            }
+            if (equalsStored(entry - 1, marking, offset)) {
+                return entry - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Diese Methode kopiert eine gespeicherte Markierung in ein Array.
+     *
+     * @param id Nummer der Markierung.
+     * @param target Das Zielarray.
+     * @param offset Die Position im Zielarray.
+     */
+    @Override
+    public void get(int id, long[] target, int offset) {
+        System.arraycopy(pages[id >>> pageShift], (id & pageMask) * words,
+                target, offset, words);
+    }
+
+    /**
+     * Diese Methode gibt ein Wort einer gespeicherten Markierung zurück.
+     *
+     * @param id Nummer der Markierung.
+     * @param word Nummer des Wortes.
+     * @return Das Wort.
+     */
+    @Override
+    public long getWord(int id, int word) {
+        return pages[id >>> pageShift][(id & pageMask) * words + word];
+    }
+
+    /**
+     * Diese Methode gibt die Anzahl der gespeicherten Markierungen zurück.
+     *
+     * @return Das Attribut size.
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Diese Methode gibt die Anzahl der long-Werte je Markierung zurück.
+     *
+     * @return Das Attribut words.
+     */
+    @Override
+    public int getWords() {
+        return words;
+    }
+
+    /**
+     * Diese Methode legt eine Markierung in ihrer Seite ab und erzeugt die
+     * Seite bei Bedarf.
+     *
+     * @param id Nummer der Markierung.
+     * @param marking Das Array, das die Markierung enthält.
+     * @param offset Die Position der Markierung im Array.
+     */
+    private void store(int id, long[] marking, int offset) {
+        int page = id >>> pageShift;
+        if (page == pages.length) {
+            pages = Arrays.copyOf(pages, pages.length * 2);
+        }
+        if (pages[page] == null) {
+            pages[page] = new long[(pageMask + 1) * words];
+        }
+        System.arraycopy(marking, offset, pages[page], (id & pageMask) * words, words);
+    }
+
+    /**
+     * Diese Methode vergleicht eine gespeicherte mit einer übergebenen
+     * Markierung.
+     *
+     * @param id Nummer der gespeicherten Markierung.
+     * @param marking Das Array, das die übergebene Markierung enthält.
+     * @param offset Die Position der Markierung im Array.
+     * @return true, falls beide Markierungen gleich sind.
+     */
+    private boolean equalsStored(int id, long[] marking, int offset) {
+        long[] page = pages[id >>> pageShift];
+        int position = (id & pageMask) * words;
+        for (int i = 0; i < words; i++) {
+            if (page[position + i] != marking[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Diese Methode vergrößert die Hashtabelle. Die Markierungen bleiben an
+     * ihrer Stelle, nur die Nummern werden neu verteilt.
+     *
+     * @param capacity Die neue Größe der Tabelle.
+     */
+    private void rehash(int capacity) {
+        int[] newTable = new int[capacity];
+        int mask = capacity - 1;
+        for (int id = 0; id < size; id++) {
+            long[] page = pages[id >>> pageShift];
+            int slot = (int) hash(page, (id & pageMask) * words, words) & mask;
+            while (newTable[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            newTable[slot] = id + 1;
+        }
+        this.table = newTable;
+    }
+
+    /**
+     * Diese Methode berechnet den Hashwert einer Markierung. Die Wörter werden
+     * mit dem Finalisierer von MurmurHash3 durchmischt, damit auch Markierungen,
+     * die sich nur in wenigen Bits unterscheiden, gleichmäßig verteilt werden.
+     *
+     * @param marking Das Array, das die Markierung enthält.
+     * @param offset Die Position der Markierung im Array.
+     * @param words Anzahl der long-Werte je Markierung.
+     * @return Der Hashwert.
+     */
+    static long hash(long[] marking, int offset, int words) {
+        long h = 0x9E3779B97F4A7C15L;
+        for (int i = 0; i < words; i++) {
+            h = (h ^ marking[offset + i]) * 0xC2B2AE3D27D4EB4FL;
+            h = Long.rotateLeft(h, 31);
+        }
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
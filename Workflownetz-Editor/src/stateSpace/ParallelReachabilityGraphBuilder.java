@@ -0,0 +1,515 @@
+package stateSpace;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import workflownetLogic.NetGraph;
+
+/**
+ * Diese Klasse baut den Erreichbarkeitsgraphen eines 1-sicheren Netzes mit
+ * mehreren Threads auf. Die Suche läuft ebenenweise: Die Zustände einer Ebene
+ * werden von einem ForkJoinPool in Teilbereiche zerlegt, die sich die Threads
+ * gegenseitig abnehmen (work stealing). Neue Zustände werden in ein
+ * ConcurrentMarkingStore-Objekt eingefügt und bilden die nächste Ebene.
+ *
+ * Jeder Thread sammelt Kanten, Vorgänger und tote Zustände in eigenen Listen,
+ * die erst am Ende zusammengeführt werden. Da ein Zustand immer vollständig
+ * von einem Thread abgearbeitet wird, liegen seine Kanten in der Reihenfolge
+ * von MarkingEncoding.collectEnabled vor.
+ *
+ * Ohne weitere Angaben hängt die Nummerierung der Zustände von der zeitlichen
+ * Abfolge der Threads ab. Mit setDeterministic(true) werden die Zustände am
+ * Ende in der Reihenfolge einer Breitensuche neu nummeriert. Das Ergebnis ist
+ * dann unabhängig von der Anzahl der Threads und gleicht dem des
+ * ReachabilityGraphBuilder.
+ */
+public class ParallelReachabilityGraphBuilder {
+
+    /**
+     * Anzahl der Zustände, ab der ein Teilbereich einer Ebene weiter zerlegt
+     * wird.
+     */
+    private static final int GRAIN = 256;
+
+    /**
+     * Die Kodierung der Markierungen.
+     */
+    private final MarkingEncoding encoding;
+
+    /**
+     * Anzahl der Threads.
+     */
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Maximale Anzahl an Zuständen.
+     */
+    private int maxStates = Integer.MAX_VALUE - 8;
+
+    /**
+     * Information darüber, ob die Kanten gespeichert werden sollen.
+     */
+    private boolean storeEdges = true;
+
+    /**
+     * Information darüber, ob die Zustände reproduzierbar nummeriert werden
+     * sollen.
+     */
+    private boolean deterministic = false;
+
+    /**
+     * Dieser Konstruktor erzeugt die Kodierung für die übergebene
+     * Momentaufnahme.
+     *
+     * @param graph Die Momentaufnahme des Netzes.
+     */
+    public ParallelReachabilityGraphBuilder(NetGraph graph) {
+        this(new MarkingEncoding(graph));
+    }
+
+    /**
+     * Dieser Konstruktor verwendet eine vorhandene Kodierung.
+     *
+     * @param encoding Die Kodierung der Markierungen.
+     */
+    public ParallelReachabilityGraphBuilder(MarkingEncoding encoding) {
+        this.encoding = encoding;
+    }
+
+    /**
+     * Diese Methode setzt die Anzahl der Threads.
+     *
+     * @param threads Anzahl der Threads (mindestens 1).
+     * @return Dieses Objekt.
+     */
+    public ParallelReachabilityGraphBuilder setThreads(int threads) {
+        this.threads = Math.max(1, threads);
+        return this;
+    }
+
+    /**
+     * Diese Methode setzt die maximale Anzahl an Zuständen.
+     *
+     * @param maxStates Die maximale Anzahl an Zuständen.
+     * @return Dieses Objekt.
+     */
+    public ParallelReachabilityGraphBuilder setMaxStates(int maxStates) {
+        this.maxStates = maxStates;
+        return this;
+    }
+
+    /**
+     * Diese Methode legt fest, ob die Kanten gespeichert werden.
+     *
+     * @param storeEdges true, falls die Kanten gespeichert werden sollen.
+     * @return Dieses Objekt.
+     */
+    public ParallelReachabilityGraphBuilder setStoreEdges(boolean storeEdges) {
+        this.storeEdges = storeEdges;
+        return this;
+    }
+
+    /**
+     * Diese Methode legt fest, ob die Zustände am Ende reproduzierbar in der
+     * Reihenfolge einer Breitensuche nummeriert werden. Dafür werden die
+     * Kanten in jedem Fall während der Suche gesammelt.
+     *
+     * @param deterministic true, falls die Nummerierung reproduzierbar sein
+     * soll.
+     * @return Dieses Objekt.
+     */
+    public ParallelReachabilityGraphBuilder setDeterministic(boolean deterministic) {
+        this.deterministic = deterministic;
+        return this;
+    }
+
+    /**
+     * Diese Methode baut den Erreichbarkeitsgraphen ausgehend von der
+     * Markierung der Momentaufnahme auf.
+     *
+     * @return Der Erreichbarkeitsgraph.
+     */
+    public ReachabilityGraph build() {
+        return build(encoding.encodeMarking());
+    }
+
+    /**
+     * Diese Methode baut den Erreichbarkeitsgraphen ausgehend von der
+     * übergebenen Markierung auf.
+     *
+     * @param initialMarking Die kodierte Anfangsmarkierung.
+     * @return Der Erreichbarkeitsgraph.
+     */
+    public ReachabilityGraph build(long[] initialMarking) {
+        boolean collectEdges = storeEdges || deterministic;
+        ConcurrentMarkingStore states = new ConcurrentMarkingStore(
+                encoding.getWords(), threads * 64, maxStates);
+        states.add(initialMarking, 0);
+        Exploration exploration = new Exploration(states, collectEdges);
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            int[] frontier = {0};
+            while (frontier.length > 0) {
+                pool.invoke(new ExpandTask(exploration, frontier, 0, frontier.length));
+                frontier = exploration.nextFrontier();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        return exploration.result();
+    }
+
+    /**
+     * Die Daten eines Threads. Jeder Thread schreibt ausschließlich in seine
+     * eigenen Listen.
+     */
+    private class Worker {
+
+        /**
+         * Die Markierung des aktuellen Zustands.
+         */
+        private final long[] current = new long[encoding.getWords()];
+
+        /**
+         * Die Folgemarkierung.
+         */
+        private final long[] next = new long[encoding.getWords()];
+
+        /**
+         * Die aktivierten Transitionen des aktuellen Zustands.
+         */
+        private final int[] enabled = new int[encoding.getTransitionCount()];
+
+        /**
+         * Die neu gefundenen Zustände der aktuellen Ebene.
+         */
+        private final IntArrayList frontier = new IntArrayList(64);
+
+        /**
+         * Je neuem Zustand: Nummer, Vorgänger und Transition.
+         */
+        private final IntArrayList discovered = new IntArrayList(192);
+
+        /**
+         * Je Kante: Startzustand, Zielzustand und Transition.
+         */
+        private final IntArrayList edges;
+
+        /**
+         * Die toten Zustände.
+         */
+        private final IntArrayList deadStates = new IntArrayList(16);
+
+        /**
+         * Information darüber, ob ein Zustand wegen der Zustandsgrenze nicht
+         * aufgenommen wurde.
+         */
+        private boolean truncated;
+
+        /**
+         * Dieser Konstruktor erzeugt die Listen eines Threads.
+         *
+         * @param collectEdges true, falls Kanten gesammelt werden.
+         */
+        Worker(boolean collectEdges) {
+            this.edges = collectEdges ? new IntArrayList(768) : null;
+        }
+
+        /**
+         * Diese Methode bestimmt alle Nachfolger eines Zustands.
+         *
+         * @param states Die Markierungen aller Zustände.
+         * @param s Nummer des Zustands.
+         */
+        void expand(ConcurrentMarkingStore states, int s) {
+            states.get(s, current, 0);
+            int enabledCount = encoding.collectEnabled(current, 0, enabled);
+            if (enabledCount == 0) {
+                deadStates.add(s);
+            }
+            for (int i = 0; i < enabledCount; i++) {
+                int t = enabled[i];
+                encoding.fire(current, 0, t, next, 0);
+                int target = states.add(next, 0);
+                if (target == ConcurrentMarkingStore.NOT_ADDED) {
+                    truncated = true;
+                    continue;
+                }
+                if (target >= 0) {
+                    frontier.add(target);
+                    discovered.add(target);
+                    discovered.add(s);
+                    discovered.add(t);
+                } else {
+                    target = -target - 1;
+                }
+                if (edges != null) {
+                    edges.add(s);
+                    edges.add(target);
+                    edges.add(t);
+                }
+            }
+        }
+    }
+
+    /**
+     * Der gemeinsame Zustand einer Suche.
+     */
+    private class Exploration {
+
+        /**
+         * Die Markierungen aller Zustände.
+         */
+        private final ConcurrentMarkingStore states;
+
+        /**
+         * Information darüber, ob Kanten gesammelt werden.
+         */
+        private final boolean collectEdges;
+
+        /**
+         * Alle Threads, die an der Suche beteiligt waren.
+         */
+        private final ConcurrentLinkedQueue<Worker> workers = new ConcurrentLinkedQueue<>();
+
+        /**
+         * Die Daten des jeweiligen Threads.
+         */
+        private final ThreadLocal<Worker> worker = new ThreadLocal<Worker>() {
+            @Override
+            protected Worker initialValue() {
+                Worker created = new Worker(Exploration.this.collectEdges);
+                workers.add(created);
+                return created;
+            }
+        };
+
+        /**
+         * Dieser Konstruktor initialisiert eine Suche.
+         *
+         * @param states Die Markierungen aller Zustände.
+         * @param collectEdges true, falls Kanten gesammelt werden.
+         */
+        Exploration(ConcurrentMarkingStore states, boolean collectEdges) {
+            this.states = states;
+            this.collectEdges = collectEdges;
+        }
+
+        /**
+         * Diese Methode fasst die neuen Zustände aller Threads zur nächsten
+         * Ebene zusammen.
+         *
+         * @return Die Nummern der Zustände der nächsten Ebene.
+         */
+        int[] nextFrontier() {
+            int size = 0;
+            for (Worker w : workers) {
+                size += w.frontier.size();
+            }
+            int[] frontier = new int[size];
+            int i = 0;
+            for (Worker w : workers) {
+                for (int k = 0; k < w.frontier.size(); k++) {
+                    frontier[i++] = w.frontier.get(k);
+                }
+                w.frontier.clear();
+            }
+            return frontier;
+        }
+
+        /**
+         * Diese Methode führt die Listen aller Threads zum
+         * Erreichbarkeitsgraphen zusammen.
+         *
+         * @return Der Erreichbarkeitsgraph.
+         */
+        ReachabilityGraph result() {
+            int n = states.size();
+            boolean complete = true;
+            int[] predecessor = new int[n];
+            int[] predecessorTransition = new int[n];
+            predecessor[0] = -1;
+            predecessorTransition[0] = -1;
+            IntArrayList deadStates = new IntArrayList(16);
+            int edgeCount = 0;
+            for (Worker w : workers) {
+                complete &= !w.truncated;
+                for (int k = 0; k < w.discovered.size(); k += 3) {
+                    int s = w.discovered.get(k);
+                    predecessor[s] = w.discovered.get(k + 1);
+                    predecessorTransition[s] = w.discovered.get(k + 2);
+                }
+                for (int k = 0; k < w.deadStates.size(); k++) {
+                    deadStates.add(w.deadStates.get(k));
+                }
+                if (collectEdges) {
+                    edgeCount += w.edges.size() / 3;
+                }
+            }
+            int[] dead = deadStates.toArray();
+            Arrays.sort(dead);
+            if (!collectEdges) {
+                return new ReachabilityGraph(encoding, states, null, null, null,
+                        predecessor, predecessorTransition, dead, complete);
+            }
+
+            // Die Kanten werden wie beim Aufbau des NetGraph zuerst je
+            // Startzustand gezählt und danach einsortiert.
+            int[] edgeStart = new int[n + 1];
+            for (Worker w : workers) {
+                for (int k = 0; k < w.edges.size(); k += 3) {
+                    edgeStart[w.edges.get(k) + 1]++;
+                }
+            }
+            for (int s = 0; s < n; s++) {
+                edgeStart[s + 1] += edgeStart[s];
+            }
+            int[] edgeTarget = new int[edgeCount];
+            int[] edgeTransition = new int[edgeCount];
+            int[] fill = Arrays.copyOf(edgeStart, n);
+            for (Worker w : workers) {
+                for (int k = 0; k < w.edges.size(); k += 3) {
+                    int position = fill[w.edges.get(k)]++;
+                    edgeTarget[position] = w.edges.get(k + 1);
+                    edgeTransition[position] = w.edges.get(k + 2);
+                }
+            }
+            if (deterministic) {
+                return renumber(edgeStart, edgeTarget, edgeTransition, dead, complete);
+            }
+            return new ReachabilityGraph(encoding, states, edgeStart, edgeTarget,
+                    edgeTransition, predecessor, predecessorTransition, dead, complete);
+        }
+
+        /**
+         * Diese Methode nummeriert die Zustände in der Reihenfolge einer
+         * Breitensuche über die gesammelten Kanten neu. Da die Kanten jedes
+         * Zustands in fester Reihenfolge vorliegen, ist das Ergebnis
+         * unabhängig davon, in welcher Reihenfolge die Threads die Zustände
+         * gefunden haben.
+         *
+         * @param edgeStart Offset-Array der Kanten.
+         * @param edgeTarget Die Zielzustände aller Kanten.
+         * @param edgeTransition Die Transitionen aller Kanten.
+         * @param dead Die toten Zustände.
+         * @param complete true, falls alle Zustände untersucht wurden.
+         * @return Der neu nummerierte Erreichbarkeitsgraph.
+         */
+        private ReachabilityGraph renumber(int[] edgeStart, int[] edgeTarget,
+                int[] edgeTransition, int[] dead, boolean complete) {
+            int n = states.size();
+            int[] order = new int[n];
+            int[] canonical = new int[n];
+            Arrays.fill(canonical, -1);
+            int[] predecessor = new int[n];
+            int[] predecessorTransition = new int[n];
+            canonical[0] = 0;
+            predecessor[0] = -1;
+            predecessorTransition[0] = -1;
+            int tail = 1;
+            for (int head = 0; head < tail; head++) {
+                int s = order[head];
+                for (int e = edgeStart[s]; e < edgeStart[s + 1]; e++) {
+                    int target = edgeTarget[e];
+                    if (canonical[target] < 0) {
+                        canonical[target] = tail;
+                        predecessor[tail] = head;
+                        predecessorTransition[tail] = edgeTransition[e];
+                        order[tail++] = target;
+                    }
+                }
+            }
+
+            MarkingStore sorted = new MarkingStore(states.getWords(), n);
+            long[] marking = new long[states.getWords()];
+            for (int i = 0; i < n; i++) {
+                states.get(order[i], marking, 0);
+                sorted.add(marking, 0);
+            }
+            int[] newDead = new int[dead.length];
+            for (int i = 0; i < dead.length; i++) {
+                newDead[i] = canonical[dead[i]];
+            }
+            Arrays.sort(newDead);
+            if (!storeEdges) {
+                return new ReachabilityGraph(encoding, sorted, null, null, null,
+                        predecessor, predecessorTransition, newDead, complete);
+            }
+            int[] newStart = new int[n + 1];
+            int[] newTarget = new int[edgeTarget.length];
+            int[] newTransition = new int[edgeTarget.length];
+            int position = 0;
+            for (int i = 0; i < n; i++) {
+                int s = order[i];
+                newStart[i] = position;
+                for (int e = edgeStart[s]; e < edgeStart[s + 1]; e++) {
+                    newTarget[position] = canonical[edgeTarget[e]];
+                    newTransition[position++] = edgeTransition[e];
+                }
+            }
+            newStart[n] = position;
+            return new ReachabilityGraph(encoding, sorted, newStart, newTarget,
+                    newTransition, predecessor, predecessorTransition, newDead, complete);
+        }
+    }
+
+    /**
+     * Diese Aufgabe bearbeitet einen Teilbereich einer Ebene. Große Bereiche
+     * werden halbiert, so dass untätige Threads die andere Hälfte übernehmen
+     * können.
+     */
+    private static class ExpandTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Der gemeinsame Zustand der Suche.
+         */
+        private final Exploration exploration;
+
+        /**
+         * Die Zustände der aktuellen Ebene.
+         */
+        private final int[] frontier;
+
+        /**
+         * Anfang des Teilbereichs (inklusive).
+         */
+        private final int from;
+
+        /**
+         * Ende des Teilbereichs (exklusive).
+         */
+        private final int to;
+
+        /**
+         * Dieser Konstruktor initialisiert die Aufgabe.
+         *
+         * @param exploration Der gemeinsame Zustand der Suche.
+         * @param frontier Die Zustände der aktuellen Ebene.
+         * @param from Anfang des Teilbereichs.
+         * @param to Ende des Teilbereichs.
+         */
+        ExpandTask(Exploration exploration, int[] frontier, int from, int to) {
+            this.exploration = exploration;
+            this.frontier = frontier;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > GRAIN) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new ExpandTask(exploration, frontier, from, middle),
+                        new ExpandTask(exploration, frontier, middle, to));
+                return;
+            }
+            Worker worker = exploration.worker.get();
+            for (int i = from; i < to; i++) {
+                worker.expand(exploration.states, frontier[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package stateSpace;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Diese Klasse ist der Erreichbarkeitsgraph eines 1-sicheren Netzes. Die
+ * Zustände sind von 0 bis stateCount-1 nummeriert, Zustand 0 ist die
+ * Anfangsmarkierung. Die Markierungen liegen in einem StateStore-Objekt, die
+ * Kanten im CSR-Format in int-Arrays: edgeStart[s] bis edgeStart[s+1]-1 sind
+ * die Positionen der Kanten von s in edgeTarget und edgeTransition.
+ *
+ * Zu jedem Zustand (außer 0) wird der Zustand und die Transition festgehalten,
+ * über die er zuerst erreicht wurde. Wurde der Graph mit einer Breitensuche
+ * aufgebaut, ergibt sich daraus eine kürzeste Schaltfolge zu jedem Zustand.
+ */
+public class ReachabilityGraph {
+
+    /**
+     * Die Kodierung der Markierungen.
+     */
+    private final MarkingEncoding encoding;
+
+    /**
+     * Die Markierungen aller Zustände.
+     */
+    private final StateStore states;
+
+    /**
+     * Offset-Array der Kanten oder null, falls keine Kanten gespeichert
+     * wurden.
+     */
+    private final int[] edgeStart;
+
+    /**
+     * Die Zielzustände aller Kanten.
+     */
+    private final int[] edgeTarget;
+
+    /**
+     * Die Transitionen aller Kanten.
+     */
+    private final int[] edgeTransition;
+
+    /**
+     * Der Zustand, über den ein Zustand zuerst erreicht wurde, oder -1.
+     */
+    private final int[] predecessor;
+
+    /**
+     * Die Transition, über die ein Zustand zuerst erreicht wurde, oder -1.
+     */
+    private final int[] predecessorTransition;
+
+    /**
+     * Alle Zustände, in denen keine Transition aktiviert ist.
+     */
+    private final int[] deadStates;
+
+    /**
+     * Information darüber, ob alle erreichbaren Zustände untersucht wurden.
+     */
+    private final boolean complete;
+
+    /**
+     * Dieser Konstruktor wird von den Klassen verwendet, die den Graphen
+     * aufbauen.
+     *
+     * @param encoding Die Kodierung der Markierungen.
+     * @param states Die Markierungen aller Zustände.
+     * @param edgeStart Offset-Array der Kanten oder null.
+     * @param edgeTarget Die Zielzustände aller Kanten oder null.
+     * @param edgeTransition Die Transitionen aller Kanten oder null.
+     * @param predecessor Die Vorgängerzustände.
+     * @param predecessorTransition Die Vorgängertransitionen.
+     * @param deadStates Die Zustände ohne aktivierte Transition.
+     * @param complete true, falls alle erreichbaren Zustände untersucht
+     * wurden.
+     */
+    ReachabilityGraph(MarkingEncoding encoding, StateStore states, int[] edgeStart,
+            int[] edgeTarget, int[] edgeTransition, int[] predecessor,
+            int[] predecessorTransition, int[] deadStates, boolean complete) {
+        this.encoding = encoding;
+        this.states = states;
+        this.edgeStart = edgeStart;
+        this.edgeTarget = edgeTarget;
+        this.edgeTransition = edgeTransition;
+        this.predecessor = predecessor;
+        this.predecessorTransition = predecessorTransition;
+        this.deadStates = deadStates;
+        this.complete = complete;
+    }
+
+    /**
+     * Diese Methode gibt die Anzahl der Zustände zurück.
+     *
+     * @return Anzahl der Zustände.
+     */
+    public int getStateCount() {
+        return states.size();
+    }
+
+    /**
+     * Diese Methode gibt die Anzahl der Kanten zurück.
+     *
+     * @return Anzahl der Kanten oder -1, falls keine Kanten gespeichert
+     * wurden.
+     */
+    public int getEdgeCount() {
+        return edgeTarget == null ? -1 : edgeTarget.length;
+    }
+
+    /**
+     * Diese Methode überprüft, ob die Kanten gespeichert wurden.
+     *
+     * @return true, falls die Kanten verfügbar sind.
+     */
+    public boolean hasEdges() {
+        return edgeStart != null;
+    }
+
+    /**
+     * Diese Methode gibt an, ob alle erreichbaren Zustände untersucht wurden
+     * oder die Suche an der Zustandsgrenze abgebrochen wurde.
+     *
+     * @return Das Attribut complete.
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * Diese Methode gibt die Kodierung der Markierungen zurück.
+     *
+     * @return Das Attribut encoding.
+     */
+    public MarkingEncoding getEncoding() {
+        return encoding;
+    }
+
+    /**
+     * Diese Methode gibt die Markierungen aller Zustände zurück.
+     *
+     * @return Das Attribut states.
+     */
+    public StateStore getStates() {
+        return states;
+    }
+
+    /**
+     * Diese Methode gibt die Markierung eines Zustands zurück.
+     *
+     * @param state Nummer des Zustands.
+     * @return Eine Kopie der kodierten Markierung.
+     */
+    public long[] getMarking(int state) {
+        long[] marking = new long[states.getWords()];
+        states.get(state, marking, 0);
+        return marking;
+    }
+
+    /**
+     * Diese Methode überprüft, ob eine Stelle in einem Zustand markiert ist.
+     *
+     * @param state Nummer des Zustands.
+     * @param place Index der Stelle.
+     * @return true, falls die Stelle markiert ist.
+     */
+    public boolean isMarked(int state, int place) {
+        return (states.getWord(state, place >>> 6) & (1L << place)) != 0;
+    }
+
+    /**
+     * Diese Methode gibt das Offset-Array der Kanten zurück. Das Array darf
+     * nicht verändert werden.
+     *
+     * @return Das Attribut edgeStart oder null.
+     */
+    public int[] getEdgeStart() {
+        return edgeStart;
+    }
+
+    /**
+     * Diese Methode gibt die Zielzustände aller Kanten zurück. Das Array darf
+     * nicht verändert werden.
+     *
+     * @return Das Attribut edgeTarget oder null.
+     */
+    public int[] getEdgeTarget() {
+        return edgeTarget;
+    }
+
+    /**
+     * Diese Methode gibt die Transitionen aller Kanten zurück. Das Array darf
+     * nicht verändert werden.
+     *
+     * @return Das Attribut edgeTransition oder null.
+     */
+    public int[] getEdgeTransition() {
+        return edgeTransition;
+    }
+
+    /**
+     * Diese Methode gibt alle Zustände zurück, in denen keine Transition
+     * aktiviert ist. Das Array darf nicht verändert werden.
+     *
+     * @return Das Attribut deadStates.
+     */
+    public int[] getDeadStates() {
+        return deadStates;
+    }
+
+    /**
+     * Diese Methode gibt den Zustand zurück, über den ein Zustand zuerst
+     * erreicht wurde.
+     *
+     * @param state Nummer des Zustands.
+     * @return Nummer des Vorgängers oder -1 für den Anfangszustand.
+     */
+    public int getPredecessor(int state) {
+        return predecessor[state];
+    }
+
+    /**
+     * Diese Methode bestimmt die Schaltfolge, über die ein Zustand zuerst
+     * erreicht wurde.
+     *
+     * @param state Nummer des Zustands.
+     * @return Die Nummern der Transitionen vom Anfangszustand bis state.
+     */
+    public int[] getPath(int state) {
+        int length = 0;
+        for (int s = state; predecessor[s] >= 0; s = predecessor[s]) {
+            length++;
+        }
+        int[] path = new int[length];
+        for (int s = state; predecessor[s] >= 0; s = predecessor[s]) {
+            path[--length] = predecessorTransition[s];
+        }
+        return path;
+    }
+
+    /**
+     * Diese Methode bestimmt die Schaltfolge zu einem Zustand als Liste der
+     * ids der Transitionen.
+     *
+     * @param state Nummer des Zustands.
+     * @return Die ids der Transitionen vom Anfangszustand bis state.
+     */
+    public List<String> getPathIds(int state) {
+        int[] path = getPath(state);
+        List<String> ids = new ArrayList<>(path.length);
+        for (int t : path) {
+            ids.add(encoding.getTransitionId(t));
+        }
+        return ids;
+    }
+}
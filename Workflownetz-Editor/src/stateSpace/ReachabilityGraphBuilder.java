@@ -0,0 +1,213 @@
+package stateSpace;
+
+import workflownetLogic.NetGraph;
+
+/**
+ * Diese Klasse baut den Erreichbarkeitsgraphen eines 1-sicheren Netzes mit
+ * einer Breitensuche auf. Sie benötigt keine JavaFX-Objekte und kann daher
+ * auch ohne Benutzeroberfläche verwendet werden.
+ *
+ * Die Zustände werden in der Reihenfolge ihrer Entdeckung nummeriert. Da die
+ * Breitensuche die Zustände in genau dieser Reihenfolge abarbeitet, dient der
+ * MarkingStore selbst als Warteschlange und die Kanten eines Zustands werden
+ * zusammenhängend erzeugt. Sie können daher ohne Sortierung direkt im
+ * CSR-Format abgelegt werden.
+ *
+ * Optional wird mit Stubborn-Sets nur ein Teil der aktivierten Transitionen
+ * geschaltet (Partial-Order-Reduktion). Der reduzierte Graph enthält alle
+ * erreichbaren toten Markierungen, aber im Allgemeinen nicht alle Zustände
+ * und Kanten.
+ */
+public class ReachabilityGraphBuilder {
+
+    /**
+     * Die Kodierung der Markierungen.
+     */
+    private final MarkingEncoding encoding;
+
+    /**
+     * Maximale Anzahl an Zuständen. Werden mehr Zustände erreicht, wird die
+     * Suche abgebrochen und der Graph als unvollständig gekennzeichnet.
+     */
+    private int maxStates = Integer.MAX_VALUE - 8;
+
+    /**
+     * Information darüber, ob die Kanten gespeichert werden sollen. Ohne
+     * Kanten werden nur Zustände, Vorgänger und tote Zustände festgehalten.
+     */
+    private boolean storeEdges = true;
+
+    /**
+     * Ein Objekt, das jeden Zustand untersucht, oder null.
+     */
+    private StateVisitor visitor;
+
+    /**
+     * Die Stubborn-Sets für die Partial-Order-Reduktion oder null für den
+     * vollständigen Graphen.
+     */
+    private StubbornSets reduction;
+
+    /**
+     * Dieser Konstruktor erzeugt die Kodierung für die übergebene
+     * Momentaufnahme.
+     *
+     * @param graph Die Momentaufnahme des Netzes.
+     */
+    public ReachabilityGraphBuilder(NetGraph graph) {
+        this(new MarkingEncoding(graph));
+    }
+
+    /**
+     * Dieser Konstruktor verwendet eine vorhandene Kodierung.
+     *
+     * @param encoding Die Kodierung der Markierungen.
+     */
+    public ReachabilityGraphBuilder(MarkingEncoding encoding) {
+        this.encoding = encoding;
+    }
+
+    /**
+     * Diese Methode setzt die maximale Anzahl an Zuständen.
+     *
+     * @param maxStates Die maximale Anzahl an Zuständen.
+     * @return Dieses Objekt.
+     */
+    public ReachabilityGraphBuilder setMaxStates(int maxStates) {
+        this.maxStates = maxStates;
+        return this;
+    }
+
+    /**
+     * Diese Methode legt fest, ob die Kanten gespeichert werden.
+     *
+     * @param storeEdges true, falls die Kanten gespeichert werden sollen.
+     * @return Dieses Objekt.
+     */
+    public ReachabilityGraphBuilder setStoreEdges(boolean storeEdges) {
+        this.storeEdges = storeEdges;
+        return this;
+    }
+
+    /**
+     * Diese Methode setzt ein Objekt, das jeden Zustand untersucht. Gibt es
+     * false zurück, wird die Suche abgebrochen und der Graph als
+     * unvollständig gekennzeichnet.
+     *
+     * @param visitor Das untersuchende Objekt oder null.
+     * @return Dieses Objekt.
+     */
+    public ReachabilityGraphBuilder setVisitor(StateVisitor visitor) {
+        this.visitor = visitor;
+        return this;
+    }
+
+    /**
+     * Diese Methode schaltet die Partial-Order-Reduktion ein oder aus. Der
+     * Besucher erhält weiterhin alle aktivierten Transitionen eines Zustands,
+     * geschaltet werden nur die Transitionen des Stubborn-Sets.
+     *
+     * @param reduction Die Stubborn-Sets oder null für den vollständigen
+     * Graphen.
+     * @return Dieses Objekt.
+     */
+    public ReachabilityGraphBuilder setReduction(StubbornSets reduction) {
+        this.reduction = reduction;
+        return this;
+    }
+
+    /**
+     * Diese Methode baut den Erreichbarkeitsgraphen ausgehend von der
+     * Markierung der Momentaufnahme auf.
+     *
+     * @return Der Erreichbarkeitsgraph.
+     */
+    public ReachabilityGraph build() {
+        return build(encoding.encodeMarking());
+    }
+
+    /**
+     * Diese Methode baut den Erreichbarkeitsgraphen ausgehend von der
+     * übergebenen Markierung auf.
+     *
+     * @param initialMarking Die kodierte Anfangsmarkierung.
+     * @return Der Erreichbarkeitsgraph.
+     */
+    public ReachabilityGraph build(long[] initialMarking) {
+        int words = encoding.getWords();
+        MarkingStore states = new MarkingStore(words, 1024);
+        IntArrayList edgeStart = storeEdges ? new IntArrayList(1024) : null;
+        IntArrayList edgeTarget = storeEdges ? new IntArrayList(4096) : null;
+        IntArrayList edgeTransition = storeEdges ? new IntArrayList(4096) : null;
+        IntArrayList predecessor = new IntArrayList(1024);
+        IntArrayList predecessorTransition = new IntArrayList(1024);
+        IntArrayList deadStates = new IntArrayList(16);
+        boolean complete = true;
+
+        long[] current = new long[words];
+        long[] next = new long[words];
+        int[] enabled = new int[encoding.getTransitionCount()];
+        int[] fired = reduction != null ? new int[enabled.length] : enabled;
+        states.add(initialMarking, 0);
+        predecessor.add(-1);
+        predecessorTransition.add(-1);
+
+        for (int s = 0; s < states.size(); s++) {
+            states.get(s, current, 0);
+            if (storeEdges) {
+                edgeStart.add(edgeTarget.size());
+            }
+            int enabledCount = encoding.collectEnabled(current, 0, enabled);
+            if (enabledCount == 0) {
+                deadStates.add(s);
+            }
+            if (visitor != null && !visitor.visit(s, current, enabled, enabledCount)) {
+                complete = false;
+                break;
+            }
+            int firedCount = enabledCount;
+            if (reduction != null) {
+                firedCount = reduction.reduce(current, enabled, enabledCount, fired);
+            }
+            for (int i = 0; i < firedCount; i++) {
+                int t = fired[i];
+                encoding.fire(current, 0, t, next, 0);
+                int target;
+                if (states.size() < maxStates) {
+                    target = states.add(next, 0);
+                    if (target >= 0) {
+                        predecessor.add(s);
+                        predecessorTransition.add(t);
+                    } else {
+                        target = -target - 1;
+                    }
+                } else {
+                    // Nach Erreichen der Grenze werden nur noch Kanten zu
+                    // bekannten Zuständen eingetragen.
+                    target = states.indexOf(next, 0);
+                    if (target < 0) {
+                        complete = false;
+                        continue;
+                    }
+                }
+                if (storeEdges) {
+                    edgeTarget.add(target);
+                    edgeTransition.add(t);
+                }
+            }
+        }
+        if (storeEdges) {
+            // Nach einem Abbruch haben die nicht untersuchten Zustände keine
+            // Kanten.
+            while (edgeStart.size() <= states.size()) {
+                edgeStart.add(edgeTarget.size());
+            }
+        }
+        return new ReachabilityGraph(encoding, states,
+                storeEdges ? edgeStart.toArray() : null,
+                storeEdges ? edgeTarget.toArray() : null,
+                storeEdges ? edgeTransition.toArray() : null,
+                predecessor.toArray(), predecessorTransition.toArray(),
+                deadStates.toArray(), complete);
+    }
+}
@@ -0,0 +1,51 @@
+package stateSpace;
+
+/**
+ * Diese Schnittstelle beschreibt den lesenden Zugriff auf die Markierungen
+ * eines Erreichbarkeitsgraphen. Die Markierungen sind fortlaufend ab 0
+ * nummeriert.
+ */
+public interface StateStore {
+
+    /**
+     * Diese Methode sucht eine Markierung.
+     *
+     * @param marking Das Array, das die Markierung enthält.
+     * @param offset Die Position der Markierung im Array.
+     * @return Die Nummer der Markierung oder -1, falls sie nicht enthalten
+     * ist.
+     */
+    int indexOf(long[] marking, int offset);
+
+    /**
+     * Diese Methode kopiert eine gespeicherte Markierung in ein Array.
+     *
+     * @param id Nummer der Markierung.
+     * @param target Das Zielarray.
+     * @param offset Die Position im Zielarray.
+     */
+    void get(int id, long[] target, int offset);
+
+    /**
+     * Diese Methode gibt ein Wort einer gespeicherten Markierung zurück.
+     *
+     * @param id Nummer der Markierung.
+     * @param word Nummer des Wortes.
+     * @return Das Wort.
+     */
+    long getWord(int id, int word);
+
+    /**
+     * Diese Methode gibt die Anzahl der gespeicherten Markierungen zurück.
+     *
+     * @return Anzahl der Markierungen.
+     */
+    int size();
+
+    /**
+     * Diese Methode gibt die Anzahl der long-Werte je Markierung zurück.
+     *
+     * @return Anzahl der long-Werte je Markierung.
+     */
+    int getWords();
+}
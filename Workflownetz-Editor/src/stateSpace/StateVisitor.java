@@ -0,0 +1,23 @@
+package stateSpace;
+
+/**
+ * Diese Schnittstelle wird von Analysen implementiert, die während des
+ * Aufbaus eines Erreichbarkeitsgraphen jeden Zustand untersuchen und die Suche
+ * bei der ersten Verletzung einer Eigenschaft abbrechen möchten.
+ */
+public interface StateVisitor {
+
+    /**
+     * Diese Methode wird für jeden Zustand aufgerufen, bevor seine Nachfolger
+     * erzeugt werden.
+     *
+     * @param state Nummer des Zustands.
+     * @param marking Die kodierte Markierung des Zustands (ab Position 0). Das
+     * Array darf nicht verändert werden.
+     * @param enabled Die Nummern der aktivierten Transitionen.
+     * @param enabledCount Anzahl der gültigen Einträge in enabled.
+     * @return true, falls die Suche fortgesetzt werden soll, false, falls sie
+     * abgebrochen werden soll.
+     */
+    boolean visit(int state, long[] marking, int[] enabled, int enabledCount);
+}
@@ -0,0 +1,418 @@
+package stateSpace;
+
+import java.util.Arrays;
+import workflownetLogic.NetGraph;
+
+/**
+ * Diese Klasse berechnet Stubborn-Sets für die Partial-Order-Reduktion. In
+ * jeder Markierung wird statt aller aktivierten Transitionen nur eine
+ * Teilmenge geschaltet, die unabhängige, nebenläufige Zweige nicht in allen
+ * Reihenfolgen verschränkt. Die Menge S wird aus der Struktur des Netzes
+ * bestimmt:
+ *
+ * - Für jede aktivierte Transition t in S liegen alle Transitionen in S, die
+ * eine Stelle aus dem Vor- oder Nachbereich von t berühren. Transitionen
+ * außerhalb von S können t daher weder deaktivieren noch mit t in Konflikt
+ * stehen.
+ *
+ * - Für jede nicht aktivierte Transition t in S wird eine Stelle gewählt, die
+ * t blockiert (scapegoat): eine unmarkierte Stelle im Vorbereich, deren
+ * Erzeuger alle in S aufgenommen werden, oder bei einem Kontakt eine markierte
+ * Stelle im Nachbereich, deren Verbraucher alle in S aufgenommen werden.
+ *
+ * Damit bleiben alle erreichbaren toten Markierungen im reduzierten Graphen
+ * erhalten. Optional werden ausgewählte Transitionen in jede Menge
+ * aufgenommen, bis sie zum ersten Mal geschaltet haben (setInteresting). In
+ * kreisfreien Netzen bleibt dann zusätzlich erhalten, ob diese Transitionen
+ * schalten können. Da jede solche Transition die Mengen vergrößert, sollten
+ * nur die Transitionen ausgewählt werden, die nicht schon in einem
+ * vorherigen Durchlauf geschaltet haben.
+ *
+ * Jedes Objekt hält Hilfsarrays für die Berechnung und darf nur von einem
+ * Thread verwendet werden.
+ */
+public class StubbornSets {
+
+    /**
+     * Anzahl der Stellen.
+     */
+    private final int placeCount;
+
+    /**
+     * Offset-Array der Nachbartransitionen.
+     */
+    private final int[] neighbourStart;
+
+    /**
+     * Die Nachbartransitionen aller Transitionen (gemeinsame Stelle im Vor-
+     * oder Nachbereich).
+     */
+    private final int[] neighbours;
+
+    /**
+     * Die Momentaufnahme des Netzes.
+     */
+    private final NetGraph graph;
+
+    /**
+     * Markierung der Transitionen, die in der aktuellen Berechnung bereits in
+     * S liegen. Ein Eintrag gilt, wenn er dem Wert von epoch entspricht.
+     */
+    private final int[] inSet;
+
+    /**
+     * Die Arbeitsliste der Hüllenberechnung.
+     */
+    private final int[] workList;
+
+    /**
+     * Die aktivierten Transitionen der kleinsten bisher gefundenen Menge.
+     */
+    private final int[] best;
+
+    /**
+     * Die aktivierten Transitionen der aktuellen Menge.
+     */
+    private final int[] candidate;
+
+    /**
+     * Markierung der aktivierten Transitionen der aktuellen Markierung.
+     */
+    private final int[] enabledStamp;
+
+    /**
+     * Der Zähler, mit dem inSet und enabledStamp ohne Löschen zurückgesetzt
+     * werden.
+     */
+    private int epoch;
+
+    /**
+     * Die ausgewählten Transitionen, die noch nicht geschaltet haben.
+     */
+    private int[] interesting = new int[0];
+
+    /**
+     * Anzahl der gültigen Einträge in interesting.
+     */
+    private int interestingCount;
+
+    /**
+     * Information darüber, ob eine Transition in interesting enthalten ist.
+     */
+    private final boolean[] pending;
+
+    /**
+     * Dieser Konstruktor bestimmt die Nachbarschaften aller Transitionen.
+     *
+     * @param encoding Die Kodierung der Markierungen.
+     */
+    public StubbornSets(MarkingEncoding encoding) {
+        this.graph = encoding.getGraph();
+        this.placeCount = graph.getPlaceCount();
+        int transitionCount = encoding.getTransitionCount();
+        this.inSet = new int[transitionCount];
+        this.enabledStamp = new int[transitionCount];
+        this.workList = new int[transitionCount];
+        this.best = new int[transitionCount];
+        this.candidate = new int[transitionCount];
+        this.pending = new boolean[transitionCount];
+
+        // Zwei Transitionen sind benachbart, wenn sie eine Stelle berühren.
+        // Die Nachbarn werden wie beim NetGraph zuerst gezählt und danach
+        // eingetragen.
+        this.neighbourStart = new int[transitionCount + 1];
+        int[] stamp = new int[transitionCount];
+        Arrays.fill(stamp, -1);
+        int count = 0;
+        for (int t = 0; t < transitionCount; t++) {
+            neighbourStart[t] = count;
+            count = addNeighbours(t, stamp, null, count);
+        }
+        neighbourStart[transitionCount] = count;
+        this.neighbours = new int[count];
+        Arrays.fill(stamp, -1);
+        count = 0;
+        for (int t = 0; t < transitionCount; t++) {
+            count = addNeighbours(t, stamp, neighbours, count);
+        }
+    }
+
+    /**
+     * Diese Methode trägt alle Transitionen ein, die eine Stelle aus dem Vor-
+     * oder Nachbereich von t berühren.
+     *
+     * @param t Nummer der Transition.
+     * @param stamp Markierung der bereits eingetragenen Nachbarn.
+     * @param target Das Zielarray oder null, falls nur gezählt wird.
+     * @param count Anzahl der bisher eingetragenen Nachbarn.
+     * @return Die neue Anzahl.
+     */
+    private int addNeighbours(int t, int[] stamp, int[] target, int count) {
+        int v = placeCount + t;
+        stamp[t] = t;
+        int[][] starts = {graph.getPreStart(), graph.getPostStart()};
+        int[][] adjacent = {graph.getPre(), graph.getPost()};
+        for (int side = 0; side < 2; side++) {
+            for (int i = starts[side][v]; i < starts[side][v + 1]; i++) {
+                int p = adjacent[side][i];
+                if (p >= placeCount) {
+                    continue;
+                }
+                count = addTransitions(t, graph.getPreStart(), graph.getPre(), p, stamp, target, count);
+                count = addTransitions(t, graph.getPostStart(), graph.getPost(), p, stamp, target, count);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Diese Methode trägt die Transitionen im Vor- oder Nachbereich einer
+     * Stelle als Nachbarn von t ein.
+     *
+     * @param t Nummer der Transition.
+     * @param start Offset-Array des Bereichs.
+     * @param nodes Die Knoten des Bereichs.
+     * @param p Index der Stelle.
+     * @param stamp Markierung der bereits eingetragenen Nachbarn.
+     * @param target Das Zielarray oder null, falls nur gezählt wird.
+     * @param count Anzahl der bisher eingetragenen Nachbarn.
+     * @return Die neue Anzahl.
+     */
+    private int addTransitions(int t, int[] start, int[] nodes, int p, int[] stamp,
+            int[] target, int count) {
+        for (int k = start[p]; k < start[p + 1]; k++) {
+            int u = nodes[k] - placeCount;
+            if (u >= 0 && stamp[u] != t) {
+                stamp[u] = t;
+                if (target != null) {
+                    target[count] = u;
+                }
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Diese Methode wählt Transitionen aus, die in jede Menge aufgenommen
+     * werden, bis reduce sie zum ersten Mal zurückgegeben hat.
+     *
+     * @param transitions Die Nummern der Transitionen.
+     * @return Dieses Objekt.
+     */
+    public StubbornSets setInteresting(int... transitions) {
+        Arrays.fill(pending, false);
+        interesting = transitions.clone();
+        interestingCount = 0;
+        for (int t : transitions) {
+            if (!pending[t]) {
+                pending[t] = true;
+                interesting[interestingCount++] = t;
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Diese Methode gibt die Anzahl der ausgewählten Transitionen zurück, die
+     * noch nicht geschaltet haben.
+     *
+     * @return Das Attribut interestingCount.
+     */
+    public int getInterestingCount() {
+        return interestingCount;
+    }
+
+    /**
+     * Diese Methode gibt die ausgewählten Transitionen zurück, die noch nicht
+     * geschaltet haben.
+     *
+     * @return Die Nummern der Transitionen.
+     */
+    public int[] getInteresting() {
+        return Arrays.copyOf(interesting, interestingCount);
+    }
+
+    /**
+     * Diese Methode bestimmt die Transitionen, die in einer Markierung
+     * geschaltet werden. Jede aktivierte Transition wird einmal als
+     * Ausgangspunkt verwendet, gewählt wird die Menge mit den wenigsten
+     * aktivierten Transitionen.
+     *
+     * @param marking Die kodierte Markierung (ab Position 0).
+     * @param enabled Alle aktivierten Transitionen der Markierung.
+     * @param enabledCount Anzahl der aktivierten Transitionen.
+     * @param result Das Array für die zu schaltenden Transitionen.
+     * @return Anzahl der zu schaltenden Transitionen.
+     */
+    public int reduce(long[] marking, int[] enabled, int enabledCount, int[] result) {
+        if (enabledCount <= 1) {
+            System.arraycopy(enabled, 0, result, 0, enabledCount);
+            markFired(result, enabledCount);
+            return enabledCount;
+        }
+        int enabledEpoch = nextEpoch();
+        for (int i = 0; i < enabledCount; i++) {
+            enabledStamp[enabled[i]] = enabledEpoch;
+        }
+        int bestCount = Integer.MAX_VALUE;
+        for (int i = 0; i < enabledCount && bestCount > 1; i++) {
+            int count = closure(marking, enabled[i], enabledEpoch, bestCount);
+            if (count < bestCount) {
+                bestCount = count;
+                System.arraycopy(candidate, 0, best, 0, count);
+            }
+        }
+        System.arraycopy(best, 0, result, 0, bestCount);
+        markFired(result, bestCount);
+        return bestCount;
+    }
+
+    /**
+     * Diese Methode berechnet die Hülle ausgehend von einer aktivierten
+     * Transition und, falls gewünscht, allen noch nie geschalteten
+     * Transitionen. Die aktivierten Transitionen der Hülle werden in
+     * candidate abgelegt.
+     *
+     * @param marking Die kodierte Markierung.
+     * @param seed Die aktivierte Ausgangstransition.
+     * @param enabledEpoch Der Wert, mit dem die aktivierten Transitionen in
+     * enabledStamp gekennzeichnet sind.
+     * @param limit Die Berechnung wird abgebrochen, sobald so viele aktivierte
+     * Transitionen gefunden wurden.
+     * @return Anzahl der aktivierten Transitionen der Hülle.
+     */
+    private int closure(long[] marking, int seed, int enabledEpoch, int limit) {
+        int setEpoch = nextEpoch();
+        int head = 0;
+        int tail = 0;
+        inSet[seed] = setEpoch;
+        workList[tail++] = seed;
+        for (int i = 0; i < interestingCount; i++) {
+            int t = interesting[i];
+            if (inSet[t] != setEpoch) {
+                inSet[t] = setEpoch;
+                workList[tail++] = t;
+            }
+        }
+        int count = 0;
+        int[] preStart = graph.getPreStart();
+        int[] pre = graph.getPre();
+        int[] postStart = graph.getPostStart();
+        int[] post = graph.getPost();
+        while (head < tail) {
+            int t = workList[head++];
+            if (enabledStamp[t] == enabledEpoch) {
+                candidate[count++] = t;
+                if (count >= limit) {
+                    return count;
+                }
+                for (int i = neighbourStart[t]; i < neighbourStart[t + 1]; i++) {
+                    int u = neighbours[i];
+                    if (inSet[u] != setEpoch) {
+                        inSet[u] = setEpoch;
+                        workList[tail++] = u;
+                    }
+                }
+            } else {
+                int v = placeCount + t;
+                int scapegoat = -1;
+                boolean producers = true;
+                int cheapest = Integer.MAX_VALUE;
+                for (int i = preStart[v]; i < preStart[v + 1]; i++) {
+                    int p = pre[i];
+                    if (p < placeCount && !MarkingEncoding.isMarked(marking, 0, p)
+                            && graph.getPreCount(p) < cheapest) {
+                        scapegoat = p;
+                        cheapest = graph.getPreCount(p);
+                    }
+                }
+                if (scapegoat < 0) {
+                    // Der Vorbereich ist markiert, t ist durch einen Kontakt
+                    // blockiert. Die markierte Stelle im Nachbereich muss
+                    // zuerst geleert werden.
+                    producers = false;
+                    for (int i = postStart[v]; i < postStart[v + 1]; i++) {
+                        int p = post[i];
+                        if (p < placeCount && MarkingEncoding.isMarked(marking, 0, p)
+                                && !isPreOf(p, v) && graph.getPostCount(p) < cheapest) {
+                            scapegoat = p;
+                            cheapest = graph.getPostCount(p);
+                        }
+                    }
+                }
+                if (scapegoat < 0) {
+                    // Transitionen ohne Vorbereich sind nie aktiviert.
+                    continue;
+                }
+                int[] start = producers ? preStart : postStart;
+                int[] nodes = producers ? pre : post;
+                for (int i = start[scapegoat]; i < start[scapegoat + 1]; i++) {
+                    int u = nodes[i] - placeCount;
+                    if (u >= 0 && inSet[u] != setEpoch) {
+                        inSet[u] = setEpoch;
+                        workList[tail++] = u;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Diese Methode überprüft, ob eine Stelle im Vorbereich eines Knotens
+     * liegt.
+     *
+     * @param p Index der Stelle.
+     * @param v Index des Knotens.
+     * @return true, falls p im Vorbereich von v liegt.
+     */
+    private boolean isPreOf(int p, int v) {
+        int[] preStart = graph.getPreStart();
+        int[] pre = graph.getPre();
+        for (int i = preStart[v]; i < preStart[v + 1]; i++) {
+            if (pre[i] == p) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Diese Methode entfernt die zurückgegebenen Transitionen aus den
+     * ausgewählten Transitionen.
+     *
+     * @param transitions Die Transitionen.
+     * @param count Anzahl der gültigen Einträge.
+     */
+    private void markFired(int[] transitions, int count) {
+        if (interestingCount == 0) {
+            return;
+        }
+        for (int i = 0; i < count; i++) {
+            pending[transitions[i]] = false;
+        }
+        int kept = 0;
+        for (int i = 0; i < interestingCount; i++) {
+            if (pending[interesting[i]]) {
+                interesting[kept++] = interesting[i];
+            }
+        }
+        interestingCount = kept;
+    }
+
+    /**
+     * Diese Methode erhöht den Zähler epoch. Beim Überlauf werden die
+     * Markierungsarrays gelöscht.
+     *
+     * @return Der neue Wert von epoch.
+     */
+    private int nextEpoch() {
+        if (++epoch == Integer.MAX_VALUE) {
+            Arrays.fill(inSet, 0);
+            Arrays.fill(enabledStamp, 0);
+            epoch = 1;
+        }
+        return epoch;
+    }
+}
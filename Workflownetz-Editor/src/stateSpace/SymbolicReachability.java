@@ -0,0 +1,207 @@
+package stateSpace;
+
+import bdd.BddManager;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Diese Klasse berechnet die erreichbaren Markierungen symbolisch mit einer
+ * Breitensuche. Jeder Schritt bildet das Bild der zuletzt gefundenen
+ * Markierungen (frontier) und entfernt die bereits bekannten. Die Schichten
+ * werden aufbewahrt, damit zu jeder erreichbaren Markierung eine kürzeste
+ * Schaltfolge bestimmt werden kann.
+ *
+ * Die Suche wird schrittweise durch den Aufrufer vorangetrieben, damit er
+ * jede neue Schicht untersuchen und die Suche abbrechen kann. Wird der
+ * ausführende Thread unterbrochen, bricht step mit einer
+ * CancellationException ab.
+ */
+public class SymbolicReachability {
+
+    /**
+     * Der symbolische Zustandsraum.
+     */
+    private final SymbolicStateSpace space;
+
+    /**
+     * Der Manager der BDDs.
+     */
+    private final BddManager manager;
+
+    /**
+     * Die Schichten der Breitensuche. Schicht k enthält die Markierungen mit
+     * Abstand k zur Anfangsmarkierung. Alle Schichten sind geschützt.
+     */
+    private int[] layers = new int[16];
+
+    /**
+     * Anzahl der Schichten.
+     */
+    private int layerCount;
+
+    /**
+     * Alle bisher gefundenen Markierungen. Das BDD ist geschützt.
+     */
+    private int reached;
+
+    /**
+     * Dieser Konstruktor beginnt die Suche mit den übergebenen Markierungen.
+     *
+     * @param space Der symbolische Zustandsraum.
+     * @param initial Die Anfangsmarkierungen.
+     */
+    public SymbolicReachability(SymbolicStateSpace space, int initial) {
+        this.space = space;
+        this.manager = space.getManager();
+        this.layers[0] = manager.ref(initial);
+        this.layerCount = 1;
+        this.reached = manager.ref(initial);
+    }
+
+    /**
+     * Diese Methode berechnet die nächste Schicht.
+     *
+     * @return false, falls keine neuen Markierungen gefunden wurden. Die Suche
+     * ist dann vollständig.
+     */
+    public boolean step() {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new CancellationException();
+        }
+        int frontier = layers[layerCount - 1];
+        if (frontier == BddManager.FALSE) {
+            return false;
+        }
+        int successors = manager.ref(space.image(frontier));
+        int found = manager.ref(manager.diff(successors, reached));
+        manager.deref(successors);
+        if (found == BddManager.FALSE) {
+            manager.deref(found);
+            return false;
+        }
+        int union = manager.ref(manager.or(reached, found));
+        manager.deref(reached);
+        reached = union;
+        if (layerCount == layers.length) {
+            layers = Arrays.copyOf(layers, layerCount * 2);
+        }
+        layers[layerCount++] = found;
+        return true;
+    }
+
+    /**
+     * Diese Methode führt die Suche bis zum Ende durch.
+     *
+     * @return Alle erreichbaren Markierungen.
+     */
+    public int run() {
+        while (step()) {
+            // Die Schichten werden hier nicht einzeln untersucht.
+        }
+        return reached;
+    }
+
+    /**
+     * Diese Methode gibt die Anzahl der Schichten zurück.
+     *
+     * @return Das Attribut layerCount.
+     */
+    public int getLayerCount() {
+        return layerCount;
+    }
+
+    /**
+     * Diese Methode gibt eine Schicht zurück.
+     *
+     * @param k Der Abstand zur Anfangsmarkierung.
+     * @return Die Markierungen mit Abstand k.
+     */
+    public int getLayer(int k) {
+        return layers[k];
+    }
+
+    /**
+     * Diese Methode gibt die zuletzt berechnete Schicht zurück.
+     *
+     * @return Die Markierungen mit dem größten bisher bekannten Abstand.
+     */
+    public int getLastLayer() {
+        return layers[layerCount - 1];
+    }
+
+    /**
+     * Diese Methode gibt alle bisher gefundenen Markierungen zurück.
+     *
+     * @return Das Attribut reached.
+     */
+    public int getReached() {
+        return reached;
+    }
+
+    /**
+     * Diese Methode zählt die bisher gefundenen Markierungen.
+     *
+     * @return Anzahl der Markierungen.
+     */
+    public BigInteger getStateCount() {
+        return manager.satCount(reached);
+    }
+
+    /**
+     * Diese Methode bestimmt eine kürzeste Schaltfolge von der Anfangsmarkierung
+     * zu einer Markierung aus der übergebenen Menge. Dazu wird die erste
+     * Schicht gesucht, die die Menge schneidet, und von einer Markierung darin
+     * schichtweise rückwärts ein Vorgänger gewählt.
+     *
+     * @param targets Die Zielmarkierungen.
+     * @return Die Nummern der Transitionen oder null, falls keine
+     * Zielmarkierung gefunden wurde.
+     */
+    public int[] getPath(int targets) {
+        manager.ref(targets);
+        int depth = -1;
+        int state = BddManager.FALSE;
+        for (int k = 0; k < layerCount && depth < 0; k++) {
+            int hit = manager.and(layers[k], targets);
+            if (hit != BddManager.FALSE) {
+                depth = k;
+                state = manager.ref(space.pick(hit));
+            }
+        }
+        manager.deref(targets);
+        if (depth < 0) {
+            return null;
+        }
+        int[] path = new int[depth];
+        for (int k = depth; k > 0; k--) {
+            int previous = BddManager.FALSE;
+            for (int t = 0; t < space.getTransitionCount(); t++) {
+                int candidates = manager.ref(space.preImage(state, t));
+                previous = manager.and(candidates, layers[k - 1]);
+                manager.deref(candidates);
+                if (previous != BddManager.FALSE) {
+                    path[k - 1] = t;
+                    break;
+                }
+            }
+            int next = manager.ref(space.pick(previous));
+            manager.deref(state);
+            state = next;
+        }
+        manager.deref(state);
+        return path;
+    }
+
+    /**
+     * Diese Methode gibt alle geschützten BDDs dieser Suche frei.
+     */
+    public void dispose() {
+        for (int k = 0; k < layerCount; k++) {
+            manager.deref(layers[k]);
+        }
+        layerCount = 0;
+        manager.deref(reached);
+        reached = BddManager.FALSE;
+    }
+}
@@ -0,0 +1,474 @@
+package stateSpace;
+
+import bdd.BddManager;
+import java.util.Arrays;
+import workflownetLogic.NetGraph;
+
+/**
+ * Diese Klasse stellt Mengen von Markierungen eines 1-sicheren Netzes als BDDs
+ * dar. Jede Stelle ist eine Variable, die genau dann 1 ist, wenn die Stelle
+ * markiert ist. Eine Menge mit 2^40 Markierungen kann so mit wenigen tausend
+ * Knoten dargestellt werden, wenn die Markierungen aus unabhängigen Zweigen
+ * zusammengesetzt sind.
+ *
+ * Es gilt dieselbe Schaltregel wie in MarkingEncoding. Für jede Transition t
+ * werden drei BDDs gehalten: enabled (Vorbereich markiert, restlicher
+ * Nachbereich unmarkiert), effect (Nachbereich markiert, restlicher
+ * Vorbereich unmarkiert) und die Variablenmenge von Vor- und Nachbereich. Das
+ * Bild einer Menge S unter t ist dann (EXISTS Variablen: S AND enabled) AND
+ * effect, das Urbild entsprechend mit vertauschten Rollen. Gestrichene
+ * Variablen und Umbenennungen werden dadurch nicht benötigt.
+ *
+ * Die Variablenordnung folgt einer Tiefensuche durch das Netz, so dass
+ * Stellen desselben Zweiges benachbarte Variablen erhalten. Alle Methoden, die
+ * ein BDD zurückgeben, schützen es nicht vor der Garbage Collection (siehe
+ * BddManager).
+ */
+public class SymbolicStateSpace {
+
+    /**
+     * Die Momentaufnahme des Netzes.
+     */
+    private final NetGraph graph;
+
+    /**
+     * Der Manager aller BDDs dieses Zustandsraums.
+     */
+    private final BddManager manager;
+
+    /**
+     * Die Variable jeder Stelle.
+     */
+    private final int[] variable;
+
+    /**
+     * Die Aktiviertheit jeder Transition.
+     */
+    private final int[] enabled;
+
+    /**
+     * Die Markierung der Stellen von Vor- und Nachbereich nach dem Schalten
+     * jeder Transition.
+     */
+    private final int[] effect;
+
+    /**
+     * Die Variablen von Vor- und Nachbereich jeder Transition.
+     */
+    private final int[] support;
+
+    /**
+     * Die Markierungen, in denen eine Transition durch einen Kontakt
+     * blockiert ist.
+     */
+    private final int[] contact;
+
+    /**
+     * Die Markierungen, in denen mindestens eine Transition aktiviert ist.
+     */
+    private final int anyEnabled;
+
+    /**
+     * Dieser Konstruktor bestimmt die Variablenordnung und erzeugt die BDDs
+     * aller Transitionen.
+     *
+     * @param graph Die Momentaufnahme des Netzes.
+     */
+    public SymbolicStateSpace(NetGraph graph) {
+        this.graph = graph;
+        int placeCount = graph.getPlaceCount();
+        int transitionCount = graph.getTransitionCount();
+        this.variable = computeOrder(graph);
+        this.manager = new BddManager(placeCount);
+        this.enabled = new int[transitionCount];
+        this.effect = new int[transitionCount];
+        this.support = new int[transitionCount];
+        this.contact = new int[transitionCount];
+
+        int any = manager.ref(BddManager.FALSE);
+        for (int t = 0; t < transitionCount; t++) {
+            int[] prePlaces = places(graph.getPreStart(), graph.getPre(), placeCount + t);
+            int[] postPlaces = places(graph.getPostStart(), graph.getPost(), placeCount + t);
+            int[] postOnly = minus(postPlaces, prePlaces);
+            int[] preOnly = minus(prePlaces, postPlaces);
+            int[] all = Arrays.copyOf(prePlaces, prePlaces.length + postOnly.length);
+            System.arraycopy(postOnly, 0, all, prePlaces.length, postOnly.length);
+
+            // Transitionen ohne Vorbereich sind nie aktiviert.
+            enabled[t] = manager.ref(prePlaces.length == 0 ? BddManager.FALSE
+                    : manager.cube(vars(prePlaces), vars(postOnly)));
+            effect[t] = manager.ref(manager.cube(vars(postPlaces), vars(preOnly)));
+            support[t] = manager.ref(manager.cube(vars(all)));
+            int blocked = manager.ref(BddManager.FALSE);
+            if (prePlaces.length > 0) {
+                for (int p : postOnly) {
+                    int next = manager.ref(manager.or(blocked, manager.var(variable[p])));
+                    manager.deref(blocked);
+                    blocked = next;
+                }
+            }
+            contact[t] = manager.ref(manager.and(blocked, manager.cube(vars(prePlaces))));
+            manager.deref(blocked);
+            int next = manager.ref(manager.or(any, enabled[t]));
+            manager.deref(any);
+            any = next;
+        }
+        this.anyEnabled = any;
+    }
+
+    /**
+     * Diese Methode bestimmt die Variablenordnung durch eine Tiefensuche, die
+     * bei den Stellen ohne Vorbereich beginnt.
+     *
+     * @param graph Die Momentaufnahme des Netzes.
+     * @return Die Variable jeder Stelle.
+     */
+    private static int[] computeOrder(NetGraph graph) {
+        int placeCount = graph.getPlaceCount();
+        int nodeCount = graph.getNodeCount();
+        int[] postStart = graph.getPostStart();
+        int[] post = graph.getPost();
+        int[] order = new int[placeCount];
+        Arrays.fill(order, -1);
+        boolean[] visited = new boolean[nodeCount];
+        int[] stack = new int[nodeCount];
+        int nextVariable = 0;
+        for (int pass = 0; pass < 2; pass++) {
+            for (int root = 0; root < placeCount; root++) {
+                if (visited[root] || (pass == 0 && graph.getPreCount(root) > 0)) {
+                    continue;
+                }
+                int size = 0;
+                visited[root] = true;
+                stack[size++] = root;
+                while (size > 0) {
+                    int v = stack[--size];
+                    if (v < placeCount) {
+                        order[v] = nextVariable++;
+                    }
+                    // Die Nachfolger werden rückwärts abgelegt, damit sie in
+                    // ihrer Reihenfolge besucht werden.
+                    for (int i = postStart[v + 1] - 1; i >= postStart[v]; i--) {
+                        int w = post[i];
+                        if (!visited[w]) {
+                            visited[w] = true;
+                            stack[size++] = w;
+                        }
+                    }
+                }
+            }
+        }
+        return order;
+    }
+
+    /**
+     * Diese Methode gibt die Stellen eines Vor- oder Nachbereichs zurück.
+     *
+     * @param start Offset-Array des Bereichs.
+     * @param nodes Die Knoten des Bereichs.
+     * @param v Index des Knotens.
+     * @return Die Stellen ohne Duplikate.
+     */
+    private int[] places(int[] start, int[] nodes, int v) {
+        int[] result = new int[start[v + 1] - start[v]];
+        int count = 0;
+        for (int i = start[v]; i < start[v + 1]; i++) {
+            int p = nodes[i];
+            if (p < graph.getPlaceCount() && indexOf(result, count, p) < 0) {
+                result[count++] = p;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Diese Methode gibt die Stellen aus a zurück, die nicht in b liegen.
+     *
+     * @param a Die erste Menge.
+     * @param b Die zweite Menge.
+     * @return a ohne b.
+     */
+    private static int[] minus(int[] a, int[] b) {
+        int[] result = new int[a.length];
+        int count = 0;
+        for (int p : a) {
+            if (indexOf(b, b.length, p) < 0) {
+                result[count++] = p;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Diese Methode sucht einen Wert in den ersten count Einträgen eines
+     * Arrays.
+     *
+     * @param array Das Array.
+     * @param count Anzahl der gültigen Einträge.
+     * @param value Der gesuchte Wert.
+     * @return Die Position oder -1.
+     */
+    private static int indexOf(int[] array, int count, int value) {
+        for (int i = 0; i < count; i++) {
+            if (array[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Diese Methode bildet Stellen auf ihre Variablen ab.
+     *
+     * @param places Die Stellen.
+     * @return Die Variablen.
+     */
+    private int[] vars(int[] places) {
+        int[] result = new int[places.length];
+        for (int i = 0; i < places.length; i++) {
+            result[i] = variable[places[i]];
+        }
+        return result;
+    }
+
+    /**
+     * Diese Methode gibt den Manager der BDDs zurück.
+     *
+     * @return Das Attribut manager.
+     */
+    public BddManager getManager() {
+        return manager;
+    }
+
+    /**
+     * Diese Methode gibt die Momentaufnahme zurück.
+     *
+     * @return Das Attribut graph.
+     */
+    public NetGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * Diese Methode gibt die Anzahl der Transitionen zurück.
+     *
+     * @return Anzahl der Transitionen.
+     */
+    public int getTransitionCount() {
+        return enabled.length;
+    }
+
+    /**
+     * Diese Methode gibt die id einer Transition zurück.
+     *
+     * @param t Nummer der Transition.
+     * @return Die id.
+     */
+    public String getTransitionId(int t) {
+        return graph.getId(graph.getPlaceCount() + t);
+    }
+
+    /**
+     * Diese Methode gibt die Variable einer Stelle zurück.
+     *
+     * @param p Index der Stelle.
+     * @return Die Variable.
+     */
+    public int getVariable(int p) {
+        return variable[p];
+    }
+
+    /**
+     * Diese Methode gibt die Markierungen zurück, in denen eine Transition
+     * aktiviert ist.
+     *
+     * @param t Nummer der Transition.
+     * @return Das BDD der Markierungen.
+     */
+    public int getEnabled(int t) {
+        return enabled[t];
+    }
+
+    /**
+     * Diese Methode gibt die Markierungen zurück, in denen eine Transition
+     * durch einen Kontakt blockiert ist.
+     *
+     * @param t Nummer der Transition.
+     * @return Das BDD der Markierungen.
+     */
+    public int getContact(int t) {
+        return contact[t];
+    }
+
+    /**
+     * Diese Methode kodiert eine Markierung, in der genau die übergebenen
+     * Stellen markiert sind.
+     *
+     * @param places Die markierten Stellen.
+     * @return Das BDD mit genau dieser Markierung.
+     */
+    public int encodeMarking(int... places) {
+        boolean[] marked = new boolean[graph.getPlaceCount()];
+        for (int p : places) {
+            marked[p] = true;
+        }
+        return encode(marked);
+    }
+
+    /**
+     * Diese Methode kodiert die Markierung der Momentaufnahme. Jede Stelle mit
+     * mindestens einer Marke wird als markiert betrachtet.
+     *
+     * @return Das BDD mit genau dieser Markierung.
+     */
+    public int encodeMarking() {
+        boolean[] marked = new boolean[graph.getPlaceCount()];
+        for (int p = 0; p < marked.length; p++) {
+            marked[p] = graph.getMarking(p) > 0;
+        }
+        return encode(marked);
+    }
+
+    /**
+     * Diese Methode kodiert eine Markierung.
+     *
+     * @param marked Information darüber, welche Stellen markiert sind.
+     * @return Das BDD mit genau dieser Markierung.
+     */
+    private int encode(boolean[] marked) {
+        int positive = 0;
+        for (boolean m : marked) {
+            positive += m ? 1 : 0;
+        }
+        int[] on = new int[positive];
+        int[] off = new int[marked.length - positive];
+        int i = 0;
+        int j = 0;
+        for (int p = 0; p < marked.length; p++) {
+            if (marked[p]) {
+                on[i++] = variable[p];
+            } else {
+                off[j++] = variable[p];
+            }
+        }
+        return manager.cube(on, off);
+    }
+
+    /**
+     * Diese Methode wählt eine einzelne Markierung aus einer Menge.
+     *
+     * @param states Die Menge der Markierungen.
+     * @return Das BDD mit genau einer Markierung oder FALSE.
+     */
+    public int pick(int states) {
+        boolean[] assignment = manager.anySat(states);
+        if (assignment == null) {
+            return BddManager.FALSE;
+        }
+        boolean[] marked = new boolean[graph.getPlaceCount()];
+        for (int p = 0; p < marked.length; p++) {
+            marked[p] = assignment[variable[p]];
+        }
+        return encode(marked);
+    }
+
+    /**
+     * Diese Methode gibt die markierten Stellen einer Markierung zurück.
+     *
+     * @param state Das BDD mit genau einer Markierung.
+     * @return Die Indizes der markierten Stellen.
+     */
+    public int[] decodeMarking(int state) {
+        boolean[] assignment = manager.anySat(state);
+        int[] result = new int[graph.getPlaceCount()];
+        int count = 0;
+        for (int p = 0; assignment != null && p < result.length; p++) {
+            if (assignment[variable[p]]) {
+                result[count++] = p;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Diese Methode berechnet das Bild einer Menge unter einer Transition.
+     *
+     * @param states Die Menge der Markierungen.
+     * @param t Nummer der Transition.
+     * @return Die Markierungen nach dem Schalten von t.
+     */
+    public int image(int states, int t) {
+        int moved = manager.ref(manager.andExists(states, enabled[t], support[t]));
+        int result = manager.and(moved, effect[t]);
+        manager.deref(moved);
+        return result;
+    }
+
+    /**
+     * Diese Methode berechnet das Urbild einer Menge unter einer Transition.
+     *
+     * @param states Die Menge der Markierungen.
+     * @param t Nummer der Transition.
+     * @return Die Markierungen, aus denen t in die Menge schaltet.
+     */
+    public int preImage(int states, int t) {
+        int moved = manager.ref(manager.andExists(states, effect[t], support[t]));
+        int result = manager.and(moved, enabled[t]);
+        manager.deref(moved);
+        return result;
+    }
+
+    /**
+     * Diese Methode berechnet das Bild einer Menge unter allen Transitionen.
+     *
+     * @param states Die Menge der Markierungen.
+     * @return Die Nachfolgemarkierungen.
+     */
+    public int image(int states) {
+        return union(states, true);
+    }
+
+    /**
+     * Diese Methode berechnet das Urbild einer Menge unter allen Transitionen.
+     *
+     * @param states Die Menge der Markierungen.
+     * @return Die Vorgängermarkierungen.
+     */
+    public int preImage(int states) {
+        return union(states, false);
+    }
+
+    /**
+     * Diese Methode vereinigt die Bilder bzw. Urbilder aller Transitionen.
+     *
+     * @param states Die Menge der Markierungen.
+     * @param forward true für das Bild, false für das Urbild.
+     * @return Die Vereinigung.
+     */
+    private int union(int states, boolean forward) {
+        manager.ref(states);
+        int result = manager.ref(BddManager.FALSE);
+        for (int t = 0; t < enabled.length; t++) {
+            int part = manager.ref(forward ? image(states, t) : preImage(states, t));
+            if (part != BddManager.FALSE) {
+                int union = manager.ref(manager.or(result, part));
+                manager.deref(result);
+                result = union;
+            }
+            manager.deref(part);
+        }
+        manager.deref(states);
+        manager.deref(result);
+        return result;
+    }
+
+    /**
+     * Diese Methode gibt die toten Markierungen einer Menge zurück.
+     *
+     * @param states Die Menge der Markierungen.
+     * @return Die Markierungen, in denen keine Transition aktiviert ist.
+     */
+    public int deadStates(int states) {
+        return manager.diff(states, anyEnabled);
+    }
+}
@@ -0,0 +1,318 @@
+package workflownetLogic;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import resources.MyMessages;
+import stateSpace.MarkingEncoding;
+import stateSpace.ReachabilityGraph;
+import stateSpace.ReachabilityGraphBuilder;
+import stateSpace.StubbornSets;
+
+/**
+ * Diese Klasse sucht in einem Workflownetz einen erreichbaren Deadlock, d.h.
+ * eine Markierung, in der keine Transition schalten kann und die nicht die
+ * Endmarkierung [o] ist. Anders als WorkflownetHandler.checkPossibleDeadlock,
+ * das nur die aktuelle Markierung beurteilt, werden alle von [i] aus
+ * erreichbaren Markierungen untersucht.
+ *
+ * Die Suche ist eine Breitensuche über die bitweise kodierten Markierungen
+ * (siehe ReachabilityGraphBuilder), die beim ersten Deadlock abbricht. Es
+ * werden keine Kanten gespeichert, nur der Vorgänger jeder Markierung. Da die
+ * Markierungen in der Reihenfolge ihres Abstands zu [i] untersucht werden,
+ * ist die gefundene Schaltfolge eine kürzeste. Sie kann im Editor
+ * nachgespielt werden.
+ *
+ * Ohne weitere Angaben wird der Zustandsraum mit Stubborn-Sets reduziert.
+ * Der reduzierte Graph enthält jede erreichbare tote Markierung, und zu jeder
+ * Schaltfolge, die zu einer toten Markierung führt, eine Permutation dieser
+ * Schaltfolge. Die kürzeste Schaltfolge zu einem Deadlock hat daher im
+ * reduzierten Graphen dieselbe Länge wie im vollständigen. Nebenläufige
+ * Zweige werden nicht mehr in allen Reihenfolgen verschränkt, so dass auch
+ * Netze mit Millionen von Zuständen schnell untersucht werden.
+ *
+ * Auf Wunsch (setNetReduction) wird das Netz vor der Suche mit NetReduction
+ * vereinfacht und die Schaltfolge danach auf die ursprünglichen Transitionen
+ * zurückgeführt. Die Regeln von NetReduction gelten für die gewöhnliche
+ * Schaltregel ohne Kontakt. Ist das Netz nicht 1-sicher, kann die
+ * zurückgeführte Schaltfolge im Editor schon vorher blockieren oder in keinem
+ * Deadlock enden, und ein Deadlock, der nur durch einen Kontakt entsteht,
+ * fehlt im vereinfachten Netz. Eine Schaltfolge wird deshalb auf dem
+ * ursprünglichen Netz mit der Schaltregel des Editors nachgespielt (siehe
+ * TokenGame). Nur ein dort bestätigter Deadlock wird übernommen. Findet die
+ * Suche im vereinfachten Netz keinen Deadlock oder ist er kein echter, wird
+ * das unvereinfachte Netz durchsucht. Die Vereinfachung beschleunigt also nur
+ * das Finden eines Deadlocks und ist standardmäßig ausgeschaltet.
+ *
+ * Wird der ausführende Thread unterbrochen, bricht die Suche mit einer
+ * CancellationException ab.
+ */
+public class DeadlockFinder {
+
+    /**
+     * Die Momentaufnahme des Workflownetzes.
+     */
+    private final NetGraph graph;
+
+    /**
+     * Index der Startstelle.
+     */
+    private final int startPlace;
+
+    /**
+     * Index der Endstelle.
+     */
+    private final int endPlace;
+
+    /**
+     * Maximale Anzahl an Zuständen.
+     */
+    private int maxStates = 20000000;
+
+    /**
+     * Information darüber, ob der Zustandsraum reduziert werden soll.
+     */
+    private boolean reduction = true;
+
+    /**
+     * Information darüber, ob das Netz vor der Suche vereinfacht werden soll.
+     */
+    private boolean netReduction = false;
+
+    /**
+     * Die ids der Transitionen einer kürzesten Schaltfolge zum gefundenen
+     * Deadlock.
+     */
+    private List<String> witness = Collections.emptyList();
+
+    /**
+     * Anzahl der untersuchten Zustände.
+     */
+    private int stateCount;
+
+    /**
+     * Information darüber, ob alle erreichbaren Zustände untersucht wurden.
+     */
+    private boolean complete;
+
+    /**
+     * Die Meldung zum Ergebnis der letzten Suche.
+     */
+    private String message = "";
+
+    /**
+     * Dieser Konstruktor initialisiert die Suche in einem gültigen
+     * Workflownetz.
+     *
+     * @param graph Die Momentaufnahme des Workflownetzes.
+     * @param startPlace Index der Startstelle.
+     * @param endPlace Index der Endstelle.
+     */
+    public DeadlockFinder(NetGraph graph, int startPlace, int endPlace) {
+        this.graph = graph;
+        this.startPlace = startPlace;
+        this.endPlace = endPlace;
+    }
+
+    /**
+     * Diese Methode setzt die maximale Anzahl an Zuständen.
+     *
+     * @param maxStates Die maximale Anzahl an Zuständen.
+     * @return Dieses Objekt.
+     */
+    public DeadlockFinder setMaxStates(int maxStates) {
+        this.maxStates = maxStates;
+        return this;
+    }
+
+    /**
+     * Diese Methode legt fest, ob der Zustandsraum mit Stubborn-Sets reduziert
+     * wird.
+     *
+     * @param reduction true, falls der Zustandsraum reduziert werden soll.
+     * @return Dieses Objekt.
+     */
+    public DeadlockFinder setReduction(boolean reduction) {
+        this.reduction = reduction;
+        return this;
+    }
+
+    /**
+     * Diese Methode legt fest, ob das Netz vor der Suche mit NetReduction
+     * vereinfacht wird. Ein im vereinfachten Netz gefundener Deadlock wird
+     * auf dem ursprünglichen Netz überprüft. Dass es keinen Deadlock gibt,
+     * wird immer auf dem ursprünglichen Netz festgestellt.
+     *
+     * @param netReduction true, falls das Netz vereinfacht werden soll.
+     * @return Dieses Objekt.
+     */
+    public DeadlockFinder setNetReduction(boolean netReduction) {
+        this.netReduction = netReduction;
+        return this;
+    }
+
+    /**
+     * Diese Methode führt die Suche durch. Das Ergebnis kann danach mit
+     * getWitness, getStateCount und getMessage abgefragt werden.
+     *
+     * @return true, falls ein Deadlock gefunden wurde.
+     */
+    public boolean find() {
+        if (netReduction) {
+            NetReduction simplification = new NetReduction(graph, startPlace, endPlace);
+            NetGraph reduced = simplification.reduce();
+            DeadlockFinder finder = new DeadlockFinder(reduced,
+                    reduced.indexOf(graph.getId(startPlace)), reduced.indexOf(graph.getId(endPlace)))
+                    .setMaxStates(maxStates)
+                    .setReduction(reduction)
+                    .setNetReduction(false);
+            if (finder.find()) {
+                List<String> expanded = simplification.expand(finder.getWitness());
+                if (isDeadlock(expanded)) {
+                    this.stateCount = finder.getStateCount();
+                    this.complete = finder.isComplete();
+                    this.witness = Collections.unmodifiableList(expanded);
+                    this.message = WorkflownetValidator.describe(
+                            String.format(MyMessages.DEADLOCK_FOUND, witness.size()), witness);
+                    return true;
+                }
+            }
+            // Die Schaltfolge blockiert im Editor (Kontakt) oder endet in
+            // keinem Deadlock, oder ein Kontakt-Deadlock ging bei der
+            // Vereinfachung verloren. Das ursprüngliche Netz wird durchsucht.
+        }
+        return findUnreduced();
+    }
+
+    /**
+     * Diese Methode sucht im ursprünglichen Netz.
+     *
+     * @return true, falls ein Deadlock gefunden wurde.
+     */
+    private boolean findUnreduced() {
+        MarkingEncoding encoding = new MarkingEncoding(graph);
+        long[] finalMarking = encoding.encodeMarking(endPlace);
+        int[] deadlock = {-1};
+        ReachabilityGraph reachabilityGraph = new ReachabilityGraphBuilder(encoding)
+                .setMaxStates(maxStates)
+                .setStoreEdges(false)
+                .setReduction(reduction ? new StubbornSets(encoding) : null)
+                .setVisitor((state, marking, enabled, enabledCount) -> {
+                    if ((state & 0xFFF) == 0 && Thread.currentThread().isInterrupted()) {
+                        throw new CancellationException();
+                    }
+                    if (enabledCount == 0 && !isFinal(marking, finalMarking)) {
+                        deadlock[0] = state;
+                        return false;
+                    }
+                    return true;
+                })
+                .build(encoding.encodeMarking(startPlace));
+        this.stateCount = reachabilityGraph.getStateCount();
+        this.complete = reachabilityGraph.isComplete();
+        if (deadlock[0] >= 0) {
+            this.witness = Collections.unmodifiableList(reachabilityGraph.getPathIds(deadlock[0]));
+            this.message = WorkflownetValidator.describe(
+                    String.format(MyMessages.DEADLOCK_FOUND, witness.size()), witness);
+            return true;
+        }
+        this.witness = Collections.emptyList();
+        this.message = String.format(complete ? MyMessages.NO_DEADLOCK
+                : MyMessages.STATE_LIMIT, stateCount);
+        return false;
+    }
+
+    /**
+     * Diese Methode spielt eine Schaltfolge ab [i] auf dem ursprünglichen
+     * Netz mit der Schaltregel des Editors nach.
+     *
+     * @param sequence Die ids der Transitionen.
+     * @return true, falls jede Transition beim Schalten aktiviert ist und die
+     * erreichte Markierung tot, aber nicht [o] ist.
+     */
+    boolean isDeadlock(List<String> sequence) {
+        int placeCount = graph.getPlaceCount();
+        TokenGame game = new TokenGame(graph);
+        for (int p = 0; p < placeCount; p++) {
+            game.setTokens(p, p == startPlace ? 1 : 0);
+        }
+        for (String id : sequence) {
+            int v = graph.indexOf(id);
+            if (v < placeCount || !game.isEnabled(v - placeCount)) {
+                return false;
+            }
+            game.fire(v - placeCount);
+        }
+        if (game.getEnabledCount() > 0) {
+            return false;
+        }
+        for (int p = 0; p < placeCount; p++) {
+            if (game.getTokens(p) != (p == endPlace ? 1 : 0)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Diese Methode überprüft, ob eine Markierung die Endmarkierung ist.
+     *
+     * @param marking Die kodierte Markierung.
+     * @param finalMarking Die kodierte Endmarkierung.
+     * @return true, falls beide übereinstimmen.
+     */
+    private static boolean isFinal(long[] marking, long[] finalMarking) {
+        for (int w = 0; w < finalMarking.length; w++) {
+            if (marking[w] != finalMarking[w]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Diese Methode gibt die Momentaufnahme des Workflownetzes zurück.
+     *
+     * @return Das Attribut graph.
+     */
+    public NetGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * Diese Methode gibt das Attribut witness zurück.
+     *
+     * @return Die ids der Transitionen einer kürzesten Schaltfolge zum
+     * Deadlock oder eine leere Liste.
+     */
+    public List<String> getWitness() {
+        return witness;
+    }
+
+    /**
+     * Diese Methode gibt das Attribut stateCount zurück.
+     *
+     * @return Anzahl der untersuchten Zustände.
+     */
+    public int getStateCount() {
+        return stateCount;
+    }
+
+    /**
+     * Diese Methode gibt an, ob alle erreichbaren Zustände untersucht wurden.
+     *
+     * @return Das Attribut complete.
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * Diese Methode gibt das Attribut message zurück.
+     *
+     * @return Die Meldung zum Ergebnis der letzten Suche.
+     */
+    public String getMessage() {
+        return message;
+    }
+}
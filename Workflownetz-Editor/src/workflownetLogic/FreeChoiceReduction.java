@@ -0,0 +1,679 @@
+package workflownetLogic;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Diese Klasse entscheidet die Soundness von Free-Choice-Workflownetzen ohne
+ * Zustandsraum. Ein Netz ist free-choice, wenn zwei Transitionen mit einer
+ * gemeinsamen Eingangsstelle denselben Vorbereich haben. Die Transitionen mit
+ * gleichem Vorbereich bilden dann zusammen mit diesem ein Cluster: Ist eine
+ * von ihnen schaltbar, sind es alle.
+ *
+ * Das Netz wird mit drei Regeln reduziert, die die Soundness von
+ * Free-Choice-Workflownetzen in beide Richtungen erhalten:
+ * <ul>
+ * <li>Merge: Von zwei Stellen (außer [i] und [o]) bzw. zwei Transitionen mit
+ * gleichem Vor- und Nachbereich wird eine entfernt.</li>
+ * <li>Iteration: Eine Transition t mit •t = t•, deren Cluster eine weitere
+ * Transition enthält, wird entfernt.</li>
+ * <li>Shortcut: Enthält t• alle Stellen eines anderen Clusters c, wird t
+ * durch je eine Transition t_u für jede Transition u von c ersetzt, mit
+ * •t_u = •t und t_u• = (t• \ •u) ∪ u•. Hat danach keine Stelle von c
+ * mehr einen Vorgänger, wird c entfernt.</li>
+ * </ul>
+ * Die Regeln sind für Free-Choice-Workflownetze vollständig: Ein solches Netz
+ * ist genau dann sound, wenn es sich auf eine einzige Transition von [i] nach
+ * [o] reduzieren lässt. Jede Regel wird nur in der Umgebung der zuletzt
+ * geänderten Knoten gesucht, so dass auch Netze mit zehntausenden
+ * Transitionen in wenigen Millisekunden reduziert sind. Da die Anzahl der
+ * Regelanwendungen bei nicht soundem Netz nicht linear beschränkt ist, bricht
+ * die Reduktion nach einer festen Anzahl an Schritten ab.
+ *
+ * Wird der ausführende Thread unterbrochen, bricht die Reduktion mit einer
+ * CancellationException ab.
+ */
+public class FreeChoiceReduction {
+
+    /**
+     * Die Momentaufnahme des Workflownetzes.
+     */
+    private final NetGraph graph;
+
+    /**
+     * Index der Startstelle.
+     */
+    private final int startPlace;
+
+    /**
+     * Index der Endstelle.
+     */
+    private final int endPlace;
+
+    /**
+     * Die Transitionen im Vorbereich jeder Stelle.
+     */
+    private final List<Set<Integer>> placePre = new ArrayList<>();
+
+    /**
+     * Die Transitionen im Nachbereich jeder Stelle.
+     */
+    private final List<Set<Integer>> placePost = new ArrayList<>();
+
+    /**
+     * Der sortierte Vorbereich jeder Transition, null für entfernte
+     * Transitionen.
+     */
+    private final List<int[]> transitionPre = new ArrayList<>();
+
+    /**
+     * Der sortierte Nachbereich jeder Transition.
+     */
+    private final List<int[]> transitionPost = new ArrayList<>();
+
+    /**
+     * Information darüber, ob eine Stelle entfernt wurde.
+     */
+    private final boolean[] placeRemoved;
+
+    /**
+     * Die Arbeitsliste der zu untersuchenden Knoten. Stellen werden mit ihrem
+     * Index, Transitionen mit placeCount + Nummer eingetragen.
+     */
+    private final ArrayDeque<Integer> queue = new ArrayDeque<>();
+
+    /**
+     * Die Knoten, die sich in der Arbeitsliste befinden.
+     */
+    private final Set<Integer> queued = new HashSet<>();
+
+    /**
+     * Die Transitionen, für die nur ein zurückgestellter Shortcut möglich
+     * ist (siehe shortcut).
+     */
+    private final ArrayDeque<Integer> deferred = new ArrayDeque<>();
+
+    /**
+     * Anzahl der verbliebenen Transitionen.
+     */
+    private int transitionCount;
+
+    /**
+     * Anzahl der angewendeten Regeln.
+     */
+    private int ruleCount;
+
+    /**
+     * Maximale Anzahl an Regelanwendungen.
+     */
+    private int maxRules;
+
+    /**
+     * Information darüber, ob die Reduktion an der Grenze maxRules
+     * abgebrochen wurde.
+     */
+    private boolean exhausted;
+
+    /**
+     * Dieser Konstruktor initialisiert die Reduktion eines gültigen
+     * Workflownetzes.
+     *
+     * @param graph Die Momentaufnahme des Workflownetzes.
+     * @param startPlace Index der Startstelle.
+     * @param endPlace Index der Endstelle.
+     */
+    public FreeChoiceReduction(NetGraph graph, int startPlace, int endPlace) {
+        this.graph = graph;
+        this.startPlace = startPlace;
+        this.endPlace = endPlace;
+        this.placeRemoved = new boolean[graph.getPlaceCount()];
+        this.maxRules = 64 * graph.getNodeCount() + 10000;
+    }
+
+    /**
+     * Diese Methode überprüft, ob ein Netz free-choice ist, d.h. ob zwei
+     * Transitionen mit einer gemeinsamen Eingangsstelle stets denselben
+     * Vorbereich haben. Die Vor- und Nachbereiche des NetGraph entsprechen
+     * denen der PetriNode-Objekte.
+     *
+     * @param graph Die Momentaufnahme des Netzes.
+     * @return true, falls das Netz free-choice ist.
+     */
+    public static boolean isFreeChoice(NetGraph graph) {
+        int placeCount = graph.getPlaceCount();
+        int[] preStart = graph.getPreStart();
+        int[] pre = graph.getPre();
+        int[] postStart = graph.getPostStart();
+        int[] post = graph.getPost();
+        for (int p = 0; p < placeCount; p++) {
+            if (postStart[p + 1] - postStart[p] < 2) {
+                continue;
+            }
+            int[] first = sortedPreset(graph, post[postStart[p]]);
+            for (int i = postStart[p] + 1; i < postStart[p + 1]; i++) {
+                int t = post[i];
+                if (preStart[t + 1] - preStart[t] != first.length
+                        || !Arrays.equals(first, sortedPreset(graph, t))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Diese Methode gibt den sortierten Vorbereich eines Knotens zurück.
+     *
+     * @param graph Die Momentaufnahme des Netzes.
+     * @param v Index des Knotens.
+     * @return Die Indizes der Vorgänger, aufsteigend sortiert.
+     */
+    private static int[] sortedPreset(NetGraph graph, int v) {
+        int[] preset = Arrays.copyOfRange(graph.getPre(), graph.getPreStart()[v],
+                graph.getPreStart()[v + 1]);
+        Arrays.sort(preset);
+        return preset;
+    }
+
+    /**
+     * Diese Methode setzt die maximale Anzahl an Regelanwendungen.
+     *
+     * @param maxRules Die maximale Anzahl an Regelanwendungen.
+     * @return Dieses Objekt.
+     */
+    public FreeChoiceReduction setMaxRules(int maxRules) {
+        this.maxRules = maxRules;
+        return this;
+    }
+
+    /**
+     * Diese Methode reduziert das Netz, bis keine Regel mehr anwendbar ist.
+     * Das Netz muss free-choice sein.
+     *
+     * @return true, falls nur noch eine Transition von [i] nach [o] übrig
+     * ist, d.h. das Workflownetz sound ist.
+     */
+    public boolean reduce() {
+        int placeCount = graph.getPlaceCount();
+        for (int p = 0; p < placeCount; p++) {
+            placePre.add(new HashSet<>());
+            placePost.add(new HashSet<>());
+            enqueue(p);
+        }
+        for (int t = 0; t < graph.getTransitionCount(); t++) {
+            int[] post = Arrays.copyOfRange(graph.getPost(), graph.getPostStart()[placeCount + t],
+                    graph.getPostStart()[placeCount + t + 1]);
+            Arrays.sort(post);
+            addTransition(sortedPreset(graph, placeCount + t), post);
+        }
+        while (!queue.isEmpty() || !deferred.isEmpty()) {
+            if (ruleCount >= maxRules) {
+                exhausted = true;
+                return false;
+            }
+            if ((ruleCount & 0xFF) == 0 && Thread.currentThread().isInterrupted()) {
+                throw new CancellationException();
+            }
+            if (queue.isEmpty()) {
+                int t = deferred.poll();
+                if (transitionPre.get(t) != null) {
+                    shortcut(t, false);
+                }
+                continue;
+            }
+            int v = queue.poll();
+            queued.remove(v);
+            if (v < placeCount) {
+                if (!placeRemoved[v]) {
+                    mergePlace(v);
+                }
+            } else if (transitionPre.get(v - placeCount) != null) {
+                int t = v - placeCount;
+                if (!mergeTransition(t) && !iterate(t)) {
+                    shortcut(t, true);
+                }
+            }
+        }
+        return isTrivial();
+    }
+
+    /**
+     * Diese Methode überprüft, ob das Netz nur noch aus [i], [o] und einer
+     * Transition zwischen beiden besteht.
+     *
+     * @return true, falls das Netz vollständig reduziert ist.
+     */
+    private boolean isTrivial() {
+        if (transitionCount != 1) {
+            return false;
+        }
+        for (int p = 0; p < placeRemoved.length; p++) {
+            if (!placeRemoved[p] && p != startPlace && p != endPlace) {
+                return false;
+            }
+        }
+        int t = placePost.get(startPlace).isEmpty() ? -1
+                : placePost.get(startPlace).iterator().next();
+        return t >= 0 && Arrays.equals(transitionPre.get(t), new int[]{startPlace})
+                && Arrays.equals(transitionPost.get(t), new int[]{endPlace});
+    }
+
+    /**
+     * Merge-Regel für Stellen: Gibt es eine andere Stelle mit gleichem Vor-
+     * und Nachbereich, wird die übergebene Stelle entfernt.
+     *
+     * @param p Index der Stelle.
+     */
+    private void mergePlace(int p) {
+        if (p == startPlace || p == endPlace) {
+            return;
+        }
+        Set<Integer> pre = placePre.get(p);
+        Set<Integer> post = placePost.get(p);
+        int[] candidates;
+        if (!pre.isEmpty()) {
+            candidates = transitionPost.get(pre.iterator().next());
+        } else if (!post.isEmpty()) {
+            candidates = transitionPre.get(post.iterator().next());
+        } else {
+            return;
+        }
+        for (int q : candidates) {
+            if (q != p && q != startPlace && q != endPlace
+                    && placePre.get(q).equals(pre) && placePost.get(q).equals(post)) {
+                ruleCount++;
+                for (int t : pre) {
+                    transitionPost.set(t, without(transitionPost.get(t), p));
+                    touchTransition(t);
+                }
+                for (int t : post) {
+                    transitionPre.set(t, without(transitionPre.get(t), p));
+                    touchTransition(t);
+                }
+                pre.clear();
+                post.clear();
+                placeRemoved[p] = true;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Merge-Regel für Transitionen: Gibt es eine andere Transition mit
+     * gleichem Vor- und Nachbereich, wird die übergebene Transition entfernt.
+     *
+     * @param t Nummer der Transition.
+     * @return true, falls die Regel angewendet wurde.
+     */
+    private boolean mergeTransition(int t) {
+        int[] pre = transitionPre.get(t);
+        if (pre.length == 0) {
+            return false;
+        }
+        for (int u : placePost.get(pre[0])) {
+            if (u != t && Arrays.equals(transitionPre.get(u), pre)
+                    && Arrays.equals(transitionPost.get(u), transitionPost.get(t))) {
+                ruleCount++;
+                removeTransition(t);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Iterations-Regel: Eine Transition, die genau die Marken ihres
+     * Vorbereichs zurücklegt, wird entfernt, falls ihr Cluster eine weitere
+     * Transition enthält.
+     *
+     * @param t Nummer der Transition.
+     * @return true, falls die Regel angewendet wurde.
+     */
+    private boolean iterate(int t) {
+        int[] pre = transitionPre.get(t);
+        if (pre.length == 0 || !Arrays.equals(pre, transitionPost.get(t))
+                || placePost.get(pre[0]).size() < 2) {
+            return false;
+        }
+        ruleCount++;
+        removeTransition(t);
+        return true;
+    }
+
+    /**
+     * Shortcut-Regel: Enthält der Nachbereich der Transition alle Stellen
+     * eines anderen Clusters, wird sie durch die Hintereinanderausführung mit
+     * jeder Transition dieses Clusters ersetzt.
+     *
+     * Bevorzugt werden Shortcuts, nach denen das Cluster entfernt wird oder
+     * eine Schlinge entsteht, die die Iterations-Regel entfernt. Alle anderen
+     * werden zurückgestellt, bis keine andere Regel mehr anwendbar ist. Sonst
+     * könnten Transitionen, die in einen Zyklus führen, endlos von einem
+     * Cluster des Zyklus zum nächsten verschoben werden.
+     *
+     * @param t Nummer der Transition.
+     * @param preferredOnly true, falls nur bevorzugte Shortcuts angewendet
+     * und die übrigen zurückgestellt werden sollen.
+     */
+    private void shortcut(int t, boolean preferredOnly) {
+        int[] pre = transitionPre.get(t);
+        int[] post = transitionPost.get(t);
+        boolean postponed = false;
+        for (int q : post) {
+            Set<Integer> cluster = placePost.get(q);
+            if (cluster.isEmpty()) {
+                continue;
+            }
+            int[] clusterPlaces = transitionPre.get(cluster.iterator().next());
+            if (clusterPlaces[0] != q || Arrays.equals(clusterPlaces, pre)
+                    || !isSubset(clusterPlaces, post)) {
+                // Jedes Cluster wird nur über seine kleinste Stelle geprüft.
+                continue;
+            }
+            for (int u : new ArrayList<>(cluster)) {
+                // Eine Schlinge im Cluster würde t mit unverändertem
+                // Nachbereich neu erzeugen.
+                iterate(u);
+            }
+            int[] rest = minus(post, clusterPlaces);
+            List<int[]> posts = new ArrayList<>(cluster.size());
+            for (int u : cluster) {
+                int[] uPost = transitionPost.get(u);
+                if (!isDisjoint(rest, uPost)) {
+                    // t und u würden zusammen eine zweite Marke erzeugen.
+                    posts = null;
+                    break;
+                }
+                posts.add(union(rest, uPost));
+            }
+            if (posts == null) {
+                continue;
+            }
+            if (preferredOnly && !isPreferred(pre, clusterPlaces, posts)) {
+                postponed = true;
+                continue;
+            }
+            ruleCount++;
+            List<Integer> clusterTransitions = new ArrayList<>(cluster);
+            removeTransition(t);
+            for (int[] newPost : posts) {
+                addTransition(pre, newPost);
+            }
+            boolean unreachable = true;
+            for (int p : clusterPlaces) {
+                unreachable &= placePre.get(p).isEmpty();
+            }
+            if (unreachable) {
+                for (int u : clusterTransitions) {
+                    removeTransition(u);
+                }
+                for (int p : clusterPlaces) {
+                    placeRemoved[p] = true;
+                }
+            }
+            return;
+        }
+        if (postponed) {
+            deferred.add(t);
+        }
+    }
+
+    /**
+     * Diese Methode überprüft, ob ein Shortcut das Cluster entfernt oder eine
+     * Schlinge erzeugt.
+     *
+     * @param pre Der Vorbereich der Transition.
+     * @param clusterPlaces Die Stellen des Clusters.
+     * @param posts Die Nachbereiche der neuen Transitionen.
+     * @return true, falls der Shortcut bevorzugt wird.
+     */
+    private boolean isPreferred(int[] pre, int[] clusterPlaces, List<int[]> posts) {
+        boolean unreachable = true;
+        for (int p : clusterPlaces) {
+            unreachable &= placePre.get(p).size() == 1;
+        }
+        if (unreachable) {
+            // Die einzige Transition, die das Cluster markiert, wird ersetzt.
+            return true;
+        }
+        for (int[] post : posts) {
+            if (Arrays.equals(pre, post)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Diese Methode fügt eine Transition hinzu und nimmt sie in die
+     * Arbeitsliste auf.
+     *
+     * @param pre Der sortierte Vorbereich.
+     * @param post Der sortierte Nachbereich.
+     */
+    private void addTransition(int[] pre, int[] post) {
+        int t = transitionPre.size();
+        transitionPre.add(pre);
+        transitionPost.add(post);
+        transitionCount++;
+        for (int p : pre) {
+            placePost.get(p).add(t);
+        }
+        for (int p : post) {
+            placePre.get(p).add(t);
+        }
+        touchTransition(t);
+    }
+
+    /**
+     * Diese Methode entfernt eine Transition aus dem Netz.
+     *
+     * @param t Nummer der Transition.
+     */
+    private void removeTransition(int t) {
+        int[] pre = transitionPre.get(t);
+        int[] post = transitionPost.get(t);
+        for (int p : pre) {
+            placePost.get(p).remove(t);
+        }
+        for (int p : post) {
+            placePre.get(p).remove(t);
+        }
+        transitionPre.set(t, null);
+        transitionPost.set(t, null);
+        transitionCount--;
+        for (int p : pre) {
+            touchPlace(p);
+        }
+        for (int p : post) {
+            touchPlace(p);
+        }
+    }
+
+    /**
+     * Diese Methode nimmt eine Transition und die Stellen ihrer Umgebung in
+     * die Arbeitsliste auf.
+     *
+     * @param t Nummer der Transition.
+     */
+    private void touchTransition(int t) {
+        enqueue(graph.getPlaceCount() + t);
+        for (int p : transitionPre.get(t)) {
+            touchPlace(p);
+        }
+        for (int p : transitionPost.get(t)) {
+            touchPlace(p);
+        }
+    }
+
+    /**
+     * Diese Methode nimmt eine Stelle und alle Transitionen in ihrem Vor-
+     * und Nachbereich in die Arbeitsliste auf, da sich für diese ein Cluster
+     * oder ein Vergleichspartner geändert haben kann.
+     *
+     * @param p Index der Stelle.
+     */
+    private void touchPlace(int p) {
+        enqueue(p);
+        for (int t : placePre.get(p)) {
+            enqueue(graph.getPlaceCount() + t);
+        }
+        for (int t : placePost.get(p)) {
+            enqueue(graph.getPlaceCount() + t);
+        }
+    }
+
+    /**
+     * Diese Methode nimmt einen Knoten in die Arbeitsliste auf, falls er
+     * sich noch nicht darin befindet.
+     *
+     * @param v Der Knoten.
+     */
+    private void enqueue(int v) {
+        if (queued.add(v)) {
+            queue.add(v);
+        }
+    }
+
+    /**
+     * Diese Methode überprüft, ob ein sortiertes Array in einem anderen
+     * enthalten ist.
+     *
+     * @param a Das möglicherweise enthaltene Array.
+     * @param b Das umfassende Array.
+     * @return true, falls jedes Element von a in b vorkommt.
+     */
+    private static boolean isSubset(int[] a, int[] b) {
+        int j = 0;
+        for (int x : a) {
+            while (j < b.length && b[j] < x) {
+                j++;
+            }
+            if (j == b.length || b[j] != x) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Diese Methode überprüft, ob zwei sortierte Arrays disjunkt sind.
+     *
+     * @param a Das erste Array.
+     * @param b Das zweite Array.
+     * @return true, falls kein Element in beiden vorkommt.
+     */
+    private static boolean isDisjoint(int[] a, int[] b) {
+        int i = 0;
+        int j = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] == b[j]) {
+                return false;
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Diese Methode bestimmt die Vereinigung zweier disjunkter sortierter
+     * Arrays.
+     *
+     * @param a Das erste Array.
+     * @param b Das zweite Array.
+     * @return Die sortierte Vereinigung.
+     */
+    private static int[] union(int[] a, int[] b) {
+        int[] result = new int[a.length + b.length];
+        System.arraycopy(a, 0, result, 0, a.length);
+        System.arraycopy(b, 0, result, a.length, b.length);
+        Arrays.sort(result);
+        return result;
+    }
+
+    /**
+     * Diese Methode bestimmt die Differenz zweier sortierter Arrays.
+     *
+     * @param a Das Array, aus dem entfernt wird.
+     * @param b Die zu entfernenden Elemente.
+     * @return Die Elemente von a, die nicht in b vorkommen.
+     */
+    private static int[] minus(int[] a, int[] b) {
+        int[] result = new int[a.length];
+        int size = 0;
+        int j = 0;
+        for (int x : a) {
+            while (j < b.length && b[j] < x) {
+                j++;
+            }
+            if (j == b.length || b[j] != x) {
+                result[size++] = x;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    /**
+     * Diese Methode entfernt ein Element aus einem sortierten Array.
+     *
+     * @param a Das Array.
+     * @param x Das zu entfernende Element.
+     * @return Das Array ohne x.
+     */
+    private static int[] without(int[] a, int x) {
+        return minus(a, new int[]{x});
+    }
+
+    /**
+     * Diese Methode gibt die ids der Stellen zurück, die nach der Reduktion
+     * außer [i] und [o] übrig sind.
+     *
+     * @return Die ids der verbliebenen Stellen.
+     */
+    public List<String> getRemainingPlaceIds() {
+        List<String> ids = new ArrayList<>();
+        for (int p = 0; p < placeRemoved.length; p++) {
+            if (!placeRemoved[p] && p != startPlace && p != endPlace) {
+                ids.add(graph.getId(p));
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Diese Methode gibt das Attribut transitionCount zurück.
+     *
+     * @return Anzahl der verbliebenen Transitionen.
+     */
+    public int getTransitionCount() {
+        return transitionCount;
+    }
+
+    /**
+     * Diese Methode gibt das Attribut ruleCount zurück.
+     *
+     * @return Anzahl der angewendeten Regeln.
+     */
+    public int getRuleCount() {
+        return ruleCount;
+    }
+
+    /**
+     * Diese Methode gibt an, ob die Reduktion an der Grenze der
+     * Regelanwendungen abgebrochen wurde. Das Ergebnis ist dann nicht
+     * aussagekräftig.
+     *
+     * @return Das Attribut exhausted.
+     */
+    public boolean isExhausted() {
+        return exhausted;
+    }
+}
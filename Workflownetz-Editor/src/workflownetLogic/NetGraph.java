@@ -0,0 +1,465 @@
+package workflownetLogic;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import petriNodes.Arc;
+import petriNodes.PetriNode;
+import petriNodes.Place;
+
+/**
+ * Diese Klasse ist eine kompakte, unveränderliche Momentaufnahme eines Netzes.
+ * Die Knoten werden von 0 bis n-1 durchnummeriert, wobei zuerst alle Stellen
+ * (0 bis placeCount-1) und danach alle Transitionen folgen. Die Information,
+ * ob ein Knoten eine Stelle oder eine Transition ist, ergibt sich damit direkt
+ * aus seinem Index. Vor- und Nachbereiche werden im CSR-Format (compressed
+ * sparse row) in int-Arrays gehalten, so dass Analysen ohne HashSet-Iteratoren
+ * und ohne Zugriff auf die JavaFX-Objekte auskommen.
+ *
+ * Innerhalb der Stellen bzw. Transitionen sind die Knoten nach ihrer id
+ * sortiert. Zwei Momentaufnahmen desselben Netzes sind daher gleich
+ * nummeriert.
+ */
+public class NetGraph {
+
+    /**
+     * Anzahl der Stellen. Die Stellen haben die Indizes 0 bis placeCount-1.
+     */
+    private final int placeCount;
+
+    /**
+     * Anzahl aller Knoten (Stellen und Transitionen).
+     */
+    private final int nodeCount;
+
+    /**
+     * Die ids der Knoten, nach Index geordnet.
+     */
+    private final String[] ids;
+
+    /**
+     * Die Anzahl der Marken je Stelle (Länge placeCount).
+     */
+    private final int[] marking;
+
+    /**
+     * postStart[v] bis postStart[v+1]-1 sind die Positionen der Nachfolger von
+     * v im Array post.
+     */
+    private final int[] postStart;
+
+    /**
+     * Die Nachfolger aller Knoten, hintereinander abgelegt.
+     */
+    private final int[] post;
+
+    /**
+     * preStart[v] bis preStart[v+1]-1 sind die Positionen der Vorgänger von v
+     * im Array pre.
+     */
+    private final int[] preStart;
+
+    /**
+     * Die Vorgänger aller Knoten, hintereinander abgelegt.
+     */
+    private final int[] pre;
+
+    /**
+     * Die PetriNode-Objekte, aus denen die Momentaufnahme erzeugt wurde, oder
+     * null, falls sie nicht aus der Benutzeroberfläche stammt.
+     */
+    private final PetriNode[] petriNodes;
+
+    /**
+     * Zuordnung der ids zu den Indizes. Wird erst bei Bedarf erzeugt.
+     */
+    private Map<String, Integer> indexMap;
+
+    /**
+     * Der strukturelle Fingerabdruck. Wird erst bei Bedarf erzeugt.
+     */
+    private String fingerprint;
+
+    /**
+     * Dieser Konstruktor erzeugt die Momentaufnahme aus Knoten- und
+     * Kantenlisten. Die Kanten werden als Paare von Knotenindizes übergeben.
+     *
+     * @param ids Die ids der Knoten, zuerst alle Stellen, dann alle
+     * Transitionen.
+     * @param placeCount Die Anzahl der Stellen.
+     * @param marking Die Anzahl der Marken je Stelle.
+     * @param arcSource Die Startknoten der Kanten.
+     * @param arcTarget Die Endknoten der Kanten.
+     * @param arcCount Die Anzahl der gültigen Einträge in arcSource und
+     * arcTarget.
+     * @param petriNodes Die zugehörigen PetriNode-Objekte oder null.
+     */
+    public NetGraph(String[] ids, int placeCount, int[] marking,
+            int[] arcSource, int[] arcTarget, int arcCount, PetriNode[] petriNodes) {
+        this.ids = ids;
+        this.placeCount = placeCount;
+        this.nodeCount = ids.length;
+        this.marking = marking;
+        this.petriNodes = petriNodes;
+        this.postStart = new int[nodeCount + 1];
+        this.preStart = new int[nodeCount + 1];
+        this.post = new int[arcCount];
+        this.pre = new int[arcCount];
+        // Zuerst werden die Grade gezählt, danach die Kanten einsortiert.
+        for (int i = 0; i < arcCount; i++) {
+            postStart[arcSource[i] + 1]++;
+            preStart[arcTarget[i] + 1]++;
+        }
+        for (int v = 0; v < nodeCount; v++) {
+            postStart[v + 1] += postStart[v];
+            preStart[v + 1] += preStart[v];
+        }
+        int[] postFill = new int[nodeCount];
+        int[] preFill = new int[nodeCount];
+        for (int i = 0; i < arcCount; i++) {
+            int source = arcSource[i];
+            int target = arcTarget[i];
+            post[postStart[source] + postFill[source]++] = target;
+            pre[preStart[target] + preFill[target]++] = source;
+        }
+    }
+
+    /**
+     * Diese Methode erzeugt eine Momentaufnahme der übergebenen Knoten. Die
+     * aktuelle Markierung der Stellen wird übernommen.
+     *
+     * @param nodes Das Netz in Form eines Collection-Objekts.
+     * @return Die Momentaufnahme des Netzes.
+     */
+    public static NetGraph fromPetriNodes(Collection<PetriNode> nodes) {
+        List<PetriNode> sorted = new ArrayList<>(nodes);
+        sorted.sort(Comparator.comparing((PetriNode node) -> !(node instanceof Place))
+                .thenComparing(PetriNode::getId));
+        int n = sorted.size();
+        String[] ids = new String[n];
+        PetriNode[] petriNodes = new PetriNode[n];
+        Map<PetriNode, Integer> index = new HashMap<>(n * 2);
+        int placeCount = 0;
+        int arcCount = 0;
+        for (int v = 0; v < n; v++) {
+            PetriNode node = sorted.get(v);
+            ids[v] = node.getId();
+            petriNodes[v] = node;
+            index.put(node, v);
+            if (node instanceof Place) {
+                placeCount++;
+            }
+            arcCount += node.getNextArcs().size();
+        }
+        int[] marking = new int[placeCount];
+        for (int p = 0; p < placeCount; p++) {
+            marking[p] = ((Place) petriNodes[p]).getTokens();
+        }
+        int[] arcSource = new int[arcCount];
+        int[] arcTarget = new int[arcCount];
+        int i = 0;
+        for (int v = 0; v < n; v++) {
+            Iterator<Arc> iterator = petriNodes[v].getNextArcs().iterator();
+            while (iterator.hasNext()) {
+                Integer target = index.get(iterator.next().getEndNode());
+                if (target != null) {
+                    arcSource[i] = v;
+                    arcTarget[i] = target;
+                    i++;
+                }
+            }
+        }
+        return new NetGraph(ids, placeCount, marking, arcSource, arcTarget, i, petriNodes);
+    }
+
+    /**
+     * Diese Methode erzeugt eine Kopie dieser Momentaufnahme, die zusätzlich
+     * eine Transition mit dem übergebenen Vor- und Nachbereich enthält. Die
+     * neue Transition erhält den Index getNodeCount(), alle übrigen Indizes
+     * bleiben unverändert. Sie wird z.B. für das kurzgeschlossene Netz
+     * (Kante von der End- zur Startstelle) verwendet.
+     *
+     * @param id Die id der neuen Transition.
+     * @param prePlaces Die Indizes der Stellen im Vorbereich.
+     * @param postPlaces Die Indizes der Stellen im Nachbereich.
+     * @return Die erweiterte Momentaufnahme.
+     */
+    public NetGraph withTransition(String id, int[] prePlaces, int[] postPlaces) {
+        String[] newIds = Arrays.copyOf(ids, nodeCount + 1);
+        newIds[nodeCount] = id;
+        int arcCount = post.length + prePlaces.length + postPlaces.length;
+        int[] arcSource = new int[arcCount];
+        int[] arcTarget = new int[arcCount];
+        int i = 0;
+        for (int v = 0; v < nodeCount; v++) {
+            for (int k = postStart[v]; k < postStart[v + 1]; k++) {
+                arcSource[i] = v;
+                arcTarget[i++] = post[k];
+            }
+        }
+        for (int p : prePlaces) {
+            arcSource[i] = p;
+            arcTarget[i++] = nodeCount;
+        }
+        for (int p : postPlaces) {
+            arcSource[i] = nodeCount;
+            arcTarget[i++] = p;
+        }
+        PetriNode[] newNodes = petriNodes == null ? null : Arrays.copyOf(petriNodes, nodeCount + 1);
+        return new NetGraph(newIds, placeCount, marking, arcSource, arcTarget, arcCount, newNodes);
+    }
+
+    /**
+     * Diese Methode gibt die Anzahl aller Knoten zurück.
+     *
+     * @return Anzahl der Stellen und Transitionen.
+     */
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * Diese Methode gibt die Anzahl der Stellen zurück.
+     *
+     * @return Anzahl der Stellen.
+     */
+    public int getPlaceCount() {
+        return placeCount;
+    }
+
+    /**
+     * Diese Methode gibt die Anzahl der Transitionen zurück.
+     *
+     * @return Anzahl der Transitionen.
+     */
+    public int getTransitionCount() {
+        return nodeCount - placeCount;
+    }
+
+    /**
+     * Diese Methode gibt die Anzahl der Kanten zurück.
+     *
+     * @return Anzahl der Kanten.
+     */
+    public int getArcCount() {
+        return post.length;
+    }
+
+    /**
+     * Diese Methode überprüft, ob der Knoten mit dem übergebenen Index eine
+     * Stelle ist.
+     *
+     * @param v Index des Knotens.
+     * @return true, falls der Knoten eine Stelle ist, false, falls er eine
+     * Transition ist.
+     */
+    public boolean isPlace(int v) {
+        return v < placeCount;
+    }
+
+    /**
+     * Diese Methode gibt die id des Knotens zurück.
+     *
+     * @param v Index des Knotens.
+     * @return Die id des Knotens.
+     */
+    public String getId(int v) {
+        return ids[v];
+    }
+
+    /**
+     * Diese Methode gibt den Index des Knotens mit der übergebenen id zurück.
+     *
+     * @param id Die id des Knotens.
+     * @return Index des Knotens oder -1, falls es keinen solchen Knoten gibt.
+     */
+    public int indexOf(String id) {
+        if (indexMap == null) {
+            Map<String, Integer> map = new HashMap<>(nodeCount * 2);
+            for (int v = 0; v < nodeCount; v++) {
+                map.put(ids[v], v);
+            }
+            indexMap = map;
+        }
+        Integer v = indexMap.get(id);
+        return v == null ? -1 : v;
+    }
+
+    /**
+     * Diese Methode gibt das PetriNode-Objekt zu einem Index zurück.
+     *
+     * @param v Index des Knotens.
+     * @return Das PetriNode-Objekt oder null, falls die Momentaufnahme nicht
+     * aus PetriNode-Objekten erzeugt wurde.
+     */
+    public PetriNode getPetriNode(int v) {
+        return petriNodes == null ? null : petriNodes[v];
+    }
+
+    /**
+     * Diese Methode gibt die Anzahl der Marken einer Stelle zum Zeitpunkt der
+     * Momentaufnahme zurück.
+     *
+     * @param p Index der Stelle.
+     * @return Anzahl der Marken.
+     */
+    public int getMarking(int p) {
+        return marking[p];
+    }
+
+    /**
+     * Diese Methode gibt die Anzahl der Nachfolger eines Knotens zurück.
+     *
+     * @param v Index des Knotens.
+     * @return Anzahl der ausgehenden Kanten.
+     */
+    public int getPostCount(int v) {
+        return postStart[v + 1] - postStart[v];
+    }
+
+    /**
+     * Diese Methode gibt die Anzahl der Vorgänger eines Knotens zurück.
+     *
+     * @param v Index des Knotens.
+     * @return Anzahl der eingehenden Kanten.
+     */
+    public int getPreCount(int v) {
+        return preStart[v + 1] - preStart[v];
+    }
+
+    /**
+     * Diese Methode gibt das Offset-Array der Nachbereiche zurück. Das Array
+     * darf nicht verändert werden.
+     *
+     * @return Das Attribut postStart.
+     */
+    public int[] getPostStart() {
+        return postStart;
+    }
+
+    /**
+     * Diese Methode gibt die Nachbereiche aller Knoten zurück. Das Array darf
+     * nicht verändert werden.
+     *
+     * @return Das Attribut post.
+     */
+    public int[] getPost() {
+        return post;
+    }
+
+    /**
+     * Diese Methode gibt das Offset-Array der Vorbereiche zurück. Das Array
+     * darf nicht verändert werden.
+     *
+     * @return Das Attribut preStart.
+     */
+    public int[] getPreStart() {
+        return preStart;
+    }
+
+    /**
+     * Diese Methode gibt die Vorbereiche aller Knoten zurück. Das Array darf
+     * nicht verändert werden.
+     *
+     * @return Das Attribut pre.
+     */
+    public int[] getPre() {
+        return pre;
+    }
+
+    /**
+     * Diese Methode gibt einen Fingerabdruck der Struktur des Netzes zurück.
+     * Er umfasst die ids, die Art jedes Knotens und alle Kanten, nicht aber
+     * die Positionen, Beschriftungen oder Marken. Da die Knoten nach id
+     * nummeriert sind und die Nachfolger jedes Knotens sortiert eingehen,
+     * haben zwei Momentaufnahmen desselben Netzes denselben Fingerabdruck,
+     * unabhängig von der Reihenfolge, in der Knoten und Kanten angelegt
+     * wurden.
+     *
+     * @return Der SHA-256-Hashwert als Hexadezimalzahl.
+     */
+    public String getFingerprint() {
+        if (fingerprint == null) {
+            fingerprint = computeFingerprint(null);
+        }
+        return fingerprint;
+    }
+
+    /**
+     * Diese Methode gibt einen Fingerabdruck der Struktur des Netzes
+     * zusammen mit einer Markierung zurück. Er ist für Analysen gedacht,
+     * deren Ergebnis von der Anfangsmarkierung abhängt.
+     *
+     * @param marking Die Anzahl der Marken je Stelle.
+     * @return Der SHA-256-Hashwert als Hexadezimalzahl.
+     */
+    public String getFingerprint(int[] marking) {
+        return computeFingerprint(marking);
+    }
+
+    /**
+     * Diese Methode berechnet den Fingerabdruck aus einer kanonischen
+     * Binärdarstellung des Netzes.
+     *
+     * @param initialMarking Die Markierung oder null.
+     * @return Der SHA-256-Hashwert als Hexadezimalzahl.
+     */
+    private String computeFingerprint(int[] initialMarking) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        // Die Daten werden nur in den Hashwert geschrieben und verworfen.
+        OutputStream discard = new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+        };
+        try (DataOutputStream out = new DataOutputStream(
+                new DigestOutputStream(discard, digest))) {
+            out.writeInt(nodeCount);
+            out.writeInt(placeCount);
+            for (int v = 0; v < nodeCount; v++) {
+                out.writeUTF(ids[v]);
+            }
+            int[] successors = new int[nodeCount];
+            for (int v = 0; v < nodeCount; v++) {
+                int count = postStart[v + 1] - postStart[v];
+                System.arraycopy(post, postStart[v], successors, 0, count);
+                Arrays.sort(successors, 0, count);
+                out.writeInt(count);
+                for (int i = 0; i < count; i++) {
+                    out.writeInt(successors[i]);
+                }
+            }
+            out.writeBoolean(initialMarking != null);
+            if (initialMarking != null) {
+                for (int tokens : initialMarking) {
+                    out.writeInt(tokens);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        StringBuilder builder = new StringBuilder();
+        for (byte b : digest.digest()) {
+            builder.append(Character.forDigit((b >> 4) & 0xF, 16))
+                    .append(Character.forDigit(b & 0xF, 16));
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,549 @@
+package workflownetLogic;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import petriNodes.PetriNode;
+
+/**
+ * Diese Klasse vereinfacht eine Momentaufnahme eines Workflownetzes vor einer
+ * Analyse des Zustandsraums. Angewendet werden Regeln nach Murata, die das
+ * Verhalten ausgehend von der Startmarkierung [i] erhalten:
+ * <ul>
+ * <li>Serielle Verschmelzung: Hat eine Transition t genau eine Stelle p im
+ * Vorbereich, und ist t die einzige Transition im Nachbereich von p, schaltet
+ * t, sobald p markiert ist. Jede Transition u, die p markiert, legt dann
+ * direkt die Marken von t ab, p und t entfallen. u steht im vereinfachten
+ * Netz für die Schaltfolge u, t. Das umfasst die Verschmelzung serieller
+ * Stellen und serieller Transitionen.</li>
+ * <li>Parallele Stellen: Von zwei Stellen mit gleichem Vor- und Nachbereich
+ * wird eine entfernt, da beide stets gleich markiert sind.</li>
+ * <li>Schlingen: Eine Transition t mit •t = t• ändert keine Markierung. Gibt
+ * es eine andere Transition u mit gleichem Vorbereich, wird t entfernt. t
+ * kann genau dann schalten, wenn u es kann. Ausgenommen ist der Fall, dass
+ * u wegen eines Kontakts nicht schalten kann. Eine Markierung, in der nur
+ * noch t schalten könnte, gilt im vereinfachten Netz als tot. Das betrifft
+ * nur Netze, die nicht 1-sicher sind oder nicht korrekt terminieren.</li>
+ * </ul>
+ * Die Start- und Endstelle bleiben erhalten. Das vereinfachte Netz ist
+ * wieder ein NetGraph, so dass jede Analyse darauf ausgeführt werden kann.
+ * Stellen behalten ihre ids, eine Transition erhält die id der ersten
+ * Transition ihrer Schaltfolge. Mit expand und mapDeadTransitions werden die
+ * Ergebnisse auf die ids des ursprünglichen Netzes zurückgeführt.
+ *
+ * Wird der ausführende Thread unterbrochen, bricht die Vereinfachung mit
+ * einer CancellationException ab.
+ */
+public class NetReduction {
+
+    /**
+     * Die ursprüngliche Momentaufnahme.
+     */
+    private final NetGraph graph;
+
+    /**
+     * Index der Startstelle.
+     */
+    private final int startPlace;
+
+    /**
+     * Index der Endstelle.
+     */
+    private final int endPlace;
+
+    /**
+     * Die Transitionen im Vorbereich jeder Stelle.
+     */
+    private final List<Set<Integer>> placePre = new ArrayList<>();
+
+    /**
+     * Die Transitionen im Nachbereich jeder Stelle.
+     */
+    private final List<Set<Integer>> placePost = new ArrayList<>();
+
+    /**
+     * Der sortierte Vorbereich jeder Transition, null für entfernte
+     * Transitionen.
+     */
+    private final int[][] transitionPre;
+
+    /**
+     * Der sortierte Nachbereich jeder Transition.
+     */
+    private final int[][] transitionPost;
+
+    /**
+     * Die Schaltfolge jeder Transition als Indizes ursprünglicher
+     * Transitionen.
+     */
+    private final List<List<Integer>> sequences = new ArrayList<>();
+
+    /**
+     * Zu jeder Transition die entfernten Schlingen, die schalten können,
+     * sobald sie schalten kann.
+     */
+    private final List<List<Integer>> loops = new ArrayList<>();
+
+    /**
+     * Information darüber, ob eine Stelle entfernt wurde.
+     */
+    private final boolean[] placeRemoved;
+
+    /**
+     * Die Arbeitsliste der zu untersuchenden Knoten (Indizes des NetGraph).
+     */
+    private final ArrayDeque<Integer> queue = new ArrayDeque<>();
+
+    /**
+     * Die Knoten, die sich in der Arbeitsliste befinden.
+     */
+    private final Set<Integer> queued = new HashSet<>();
+
+    /**
+     * Die Schaltfolgen der vereinfachten Transitionen nach ihrer id.
+     */
+    private final Map<String, List<String>> expansion = new HashMap<>();
+
+    /**
+     * Das vereinfachte Netz oder null, falls reduce noch nicht aufgerufen
+     * wurde.
+     */
+    private NetGraph reduced;
+
+    /**
+     * Dieser Konstruktor initialisiert die Vereinfachung eines gültigen
+     * Workflownetzes.
+     *
+     * @param graph Die Momentaufnahme des Workflownetzes.
+     * @param startPlace Index der Startstelle.
+     * @param endPlace Index der Endstelle.
+     */
+    public NetReduction(NetGraph graph, int startPlace, int endPlace) {
+        this.graph = graph;
+        this.startPlace = startPlace;
+        this.endPlace = endPlace;
+        this.placeRemoved = new boolean[graph.getPlaceCount()];
+        this.transitionPre = new int[graph.getTransitionCount()][];
+        this.transitionPost = new int[graph.getTransitionCount()][];
+    }
+
+    /**
+     * Diese Methode wendet die Regeln an, bis keine mehr anwendbar ist, und
+     * erzeugt das vereinfachte Netz. Weitere Aufrufe geben dasselbe Netz
+     * zurück.
+     *
+     * @return Das vereinfachte Netz.
+     */
+    public NetGraph reduce() {
+        if (reduced != null) {
+            return reduced;
+        }
+        int placeCount = graph.getPlaceCount();
+        for (int p = 0; p < placeCount; p++) {
+            placePre.add(new HashSet<>());
+            placePost.add(new HashSet<>());
+        }
+        for (int t = 0; t < transitionPre.length; t++) {
+            int v = placeCount + t;
+            transitionPre[t] = sorted(graph.getPre(), graph.getPreStart()[v],
+                    graph.getPreStart()[v + 1]);
+            transitionPost[t] = sorted(graph.getPost(), graph.getPostStart()[v],
+                    graph.getPostStart()[v + 1]);
+            for (int p : transitionPre[t]) {
+                placePost.get(p).add(t);
+            }
+            for (int p : transitionPost[t]) {
+                placePre.get(p).add(t);
+            }
+            List<Integer> sequence = new ArrayList<>();
+            sequence.add(t);
+            sequences.add(sequence);
+            loops.add(new ArrayList<>());
+        }
+        for (int v = 0; v < graph.getNodeCount(); v++) {
+            enqueue(v);
+        }
+        int steps = 0;
+        while (!queue.isEmpty()) {
+            if ((++steps & 0xFFF) == 0 && Thread.currentThread().isInterrupted()) {
+                throw new CancellationException();
+            }
+            int v = queue.poll();
+            queued.remove(v);
+            if (v < placeCount) {
+                if (!placeRemoved[v]) {
+                    removeParallelPlace(v);
+                }
+            } else if (transitionPre[v - placeCount] != null) {
+                int t = v - placeCount;
+                if (!removeLoop(t)) {
+                    agglomerate(t);
+                }
+            }
+        }
+        this.reduced = build();
+        return reduced;
+    }
+
+    /**
+     * Serielle Verschmelzung: Eine Transition, deren einzige Eingangsstelle
+     * nur sie versorgt, wird an alle Transitionen angehängt, die diese Stelle
+     * markieren.
+     *
+     * @param t Nummer der Transition.
+     */
+    private void agglomerate(int t) {
+        int[] pre = transitionPre[t];
+        int[] post = transitionPost[t];
+        if (pre.length != 1) {
+            return;
+        }
+        int p = pre[0];
+        if (p == startPlace || p == endPlace || placePost.get(p).size() != 1
+                || placePre.get(p).isEmpty() || Arrays.binarySearch(post, p) >= 0) {
+            return;
+        }
+        for (int u : placePre.get(p)) {
+            if (!isDisjoint(transitionPost[u], post)) {
+                // u und t zusammen würden eine Stelle zweimal markieren.
+                return;
+            }
+        }
+        List<Integer> producers = new ArrayList<>(placePre.get(p));
+        for (int u : producers) {
+            for (int q : transitionPost[u]) {
+                placePre.get(q).remove(u);
+            }
+            int[] newPost = new int[transitionPost[u].length - 1 + post.length];
+            int size = 0;
+            for (int q : transitionPost[u]) {
+                if (q != p) {
+                    newPost[size++] = q;
+                }
+            }
+            System.arraycopy(post, 0, newPost, size, post.length);
+            Arrays.sort(newPost);
+            transitionPost[u] = newPost;
+            for (int q : newPost) {
+                placePre.get(q).add(u);
+            }
+            sequences.get(u).addAll(sequences.get(t));
+            loops.get(u).addAll(loops.get(t));
+        }
+        removeTransition(t);
+        placeRemoved[p] = true;
+        for (int u : producers) {
+            touchTransition(u);
+        }
+    }
+
+    /**
+     * Parallele Stellen: Gibt es eine andere Stelle mit gleichem Vor- und
+     * Nachbereich, wird die übergebene Stelle entfernt.
+     *
+     * @param p Index der Stelle.
+     */
+    private void removeParallelPlace(int p) {
+        if (p == startPlace || p == endPlace) {
+            return;
+        }
+        Set<Integer> pre = placePre.get(p);
+        Set<Integer> post = placePost.get(p);
+        int[] candidates;
+        if (!pre.isEmpty()) {
+            candidates = transitionPost[pre.iterator().next()];
+        } else if (!post.isEmpty()) {
+            candidates = transitionPre[post.iterator().next()];
+        } else {
+            return;
+        }
+        for (int q : candidates) {
+            if (q != p && q != startPlace && q != endPlace
+                    && graph.getMarking(q) == graph.getMarking(p)
+                    && placePre.get(q).equals(pre) && placePost.get(q).equals(post)) {
+                for (int t : pre) {
+                    transitionPost[t] = without(transitionPost[t], p);
+                    touchTransition(t);
+                }
+                for (int t : post) {
+                    transitionPre[t] = without(transitionPre[t], p);
+                    touchTransition(t);
+                }
+                pre.clear();
+                post.clear();
+                placeRemoved[p] = true;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Schlingen: Eine Transition, die keine Markierung verändert, wird
+     * entfernt, falls eine andere Transition denselben Vorbereich hat. Ihre
+     * Lebendigkeit wird dieser Transition zugeordnet.
+     *
+     * @param t Nummer der Transition.
+     * @return true, falls die Transition entfernt wurde.
+     */
+    private boolean removeLoop(int t) {
+        int[] pre = transitionPre[t];
+        if (pre.length == 0 || !Arrays.equals(pre, transitionPost[t])) {
+            return false;
+        }
+        for (int u : placePost.get(pre[0])) {
+            if (u != t && Arrays.equals(transitionPre[u], pre)) {
+                loops.get(u).addAll(sequences.get(t));
+                loops.get(u).addAll(loops.get(t));
+                removeTransition(t);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Diese Methode entfernt eine Transition aus dem Netz.
+     *
+     * @param t Nummer der Transition.
+     */
+    private void removeTransition(int t) {
+        for (int p : transitionPre[t]) {
+            placePost.get(p).remove(t);
+            touchPlace(p);
+        }
+        for (int p : transitionPost[t]) {
+            placePre.get(p).remove(t);
+            touchPlace(p);
+        }
+        transitionPre[t] = null;
+        transitionPost[t] = null;
+    }
+
+    /**
+     * Diese Methode nimmt eine Transition und die Stellen ihrer Umgebung in
+     * die Arbeitsliste auf.
+     *
+     * @param t Nummer der Transition.
+     */
+    private void touchTransition(int t) {
+        enqueue(graph.getPlaceCount() + t);
+        for (int p : transitionPre[t]) {
+            touchPlace(p);
+        }
+        for (int p : transitionPost[t]) {
+            touchPlace(p);
+        }
+    }
+
+    /**
+     * Diese Methode nimmt eine Stelle und die Transitionen in ihrem Vor- und
+     * Nachbereich in die Arbeitsliste auf.
+     *
+     * @param p Index der Stelle.
+     */
+    private void touchPlace(int p) {
+        enqueue(p);
+        for (int t : placePre.get(p)) {
+            enqueue(graph.getPlaceCount() + t);
+        }
+        for (int t : placePost.get(p)) {
+            enqueue(graph.getPlaceCount() + t);
+        }
+    }
+
+    /**
+     * Diese Methode nimmt einen Knoten in die Arbeitsliste auf, falls er
+     * sich noch nicht darin befindet.
+     *
+     * @param v Der Knoten.
+     */
+    private void enqueue(int v) {
+        if (queued.add(v)) {
+            queue.add(v);
+        }
+    }
+
+    /**
+     * Diese Methode erzeugt das vereinfachte Netz aus den verbliebenen
+     * Stellen und Transitionen.
+     *
+     * @return Das vereinfachte Netz.
+     */
+    private NetGraph build() {
+        int placeCount = graph.getPlaceCount();
+        int[] index = new int[placeCount];
+        List<String> ids = new ArrayList<>();
+        List<PetriNode> nodes = new ArrayList<>();
+        List<Integer> marking = new ArrayList<>();
+        for (int p = 0; p < placeCount; p++) {
+            if (!placeRemoved[p]) {
+                index[p] = ids.size();
+                ids.add(graph.getId(p));
+                nodes.add(graph.getPetriNode(p));
+                marking.add(graph.getMarking(p));
+            }
+        }
+        int reducedPlaceCount = ids.size();
+        int arcCount = 0;
+        for (int t = 0; t < transitionPre.length; t++) {
+            if (transitionPre[t] != null) {
+                arcCount += transitionPre[t].length + transitionPost[t].length;
+            }
+        }
+        int[] arcSource = new int[arcCount];
+        int[] arcTarget = new int[arcCount];
+        int i = 0;
+        for (int t = 0; t < transitionPre.length; t++) {
+            if (transitionPre[t] == null) {
+                continue;
+            }
+            int v = ids.size();
+            String id = graph.getId(placeCount + t);
+            ids.add(id);
+            nodes.add(graph.getPetriNode(placeCount + t));
+            List<String> sequence = new ArrayList<>();
+            for (int u : sequences.get(t)) {
+                sequence.add(graph.getId(placeCount + u));
+            }
+            expansion.put(id, sequence);
+            for (int p : transitionPre[t]) {
+                arcSource[i] = index[p];
+                arcTarget[i++] = v;
+            }
+            for (int p : transitionPost[t]) {
+                arcSource[i] = v;
+                arcTarget[i++] = index[p];
+            }
+        }
+        int[] reducedMarking = new int[reducedPlaceCount];
+        for (int p = 0; p < reducedPlaceCount; p++) {
+            reducedMarking[p] = marking.get(p);
+        }
+        return new NetGraph(ids.toArray(new String[0]), reducedPlaceCount, reducedMarking,
+                arcSource, arcTarget, arcCount, nodes.toArray(new PetriNode[0]));
+    }
+
+    /**
+     * Diese Methode ersetzt in einer Schaltfolge des vereinfachten Netzes
+     * jede Transition durch ihre ursprüngliche Schaltfolge. Unbekannte ids,
+     * z.B. die der Transition t* des kurzgeschlossenen Netzes, bleiben
+     * erhalten.
+     *
+     * @param ids Die ids einer Schaltfolge im vereinfachten Netz.
+     * @return Die ids der Schaltfolge im ursprünglichen Netz.
+     */
+    public List<String> expand(List<String> ids) {
+        List<String> expanded = new ArrayList<>();
+        for (String id : ids) {
+            List<String> sequence = expansion.get(id);
+            if (sequence == null) {
+                expanded.add(id);
+            } else {
+                expanded.addAll(sequence);
+            }
+        }
+        return expanded;
+    }
+
+    /**
+     * Diese Methode bestimmt die toten Transitionen des ursprünglichen Netzes
+     * aus denen des vereinfachten Netzes. Eine ursprüngliche Transition ist
+     * genau dann tot, wenn jede vereinfachte Transition tot ist, in deren
+     * Schaltfolge sie vorkommt oder der sie als Schlinge zugeordnet ist.
+     *
+     * @param dead Die ids der toten Transitionen im vereinfachten Netz.
+     * @return Die ids der toten Transitionen im ursprünglichen Netz, in der
+     * Reihenfolge des NetGraph.
+     */
+    public List<String> mapDeadTransitions(List<String> dead) {
+        Set<String> deadIds = new HashSet<>(dead);
+        int placeCount = graph.getPlaceCount();
+        boolean[] alive = new boolean[transitionPre.length];
+        for (int t = 0; t < transitionPre.length; t++) {
+            if (transitionPre[t] != null && !deadIds.contains(graph.getId(placeCount + t))) {
+                for (int u : sequences.get(t)) {
+                    alive[u] = true;
+                }
+                for (int u : loops.get(t)) {
+                    alive[u] = true;
+                }
+            }
+        }
+        List<String> mapped = new ArrayList<>();
+        for (int t = 0; t < alive.length; t++) {
+            if (!alive[t]) {
+                mapped.add(graph.getId(placeCount + t));
+            }
+        }
+        return mapped;
+    }
+
+    /**
+     * Diese Methode gibt die ursprüngliche Momentaufnahme zurück.
+     *
+     * @return Das Attribut graph.
+     */
+    public NetGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * Diese Methode sortiert einen Ausschnitt eines Arrays.
+     *
+     * @param array Das Array.
+     * @param from Der erste Index.
+     * @param to Der Index nach dem letzten.
+     * @return Der sortierte Ausschnitt.
+     */
+    private static int[] sorted(int[] array, int from, int to) {
+        int[] result = Arrays.copyOfRange(array, from, to);
+        Arrays.sort(result);
+        return result;
+    }
+
+    /**
+     * Diese Methode überprüft, ob zwei sortierte Arrays disjunkt sind.
+     *
+     * @param a Das erste Array.
+     * @param b Das zweite Array.
+     * @return true, falls kein Element in beiden vorkommt.
+     */
+    private static boolean isDisjoint(int[] a, int[] b) {
+        int i = 0;
+        int j = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] == b[j]) {
+                return false;
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Diese Methode entfernt ein Element aus einem sortierten Array.
+     *
+     * @param a Das Array.
+     * @param x Das zu entfernende Element.
+     * @return Das Array ohne x.
+     */
+    private static int[] without(int[] a, int x) {
+        int[] result = new int[a.length - 1];
+        int size = 0;
+        for (int y : a) {
+            if (y != x) {
+                result[size++] = y;
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,192 @@
+package workflownetLogic;
+
+/**
+ * Diese Klasse hält das Ergebnis einer Simulation mit dem TokenGameSimulator
+ * fest: wie die Läufe geendet haben, wie oft jede Transition geschaltet hat
+ * und wie sich die Anzahl der Schaltvorgänge je Lauf (Pfadlänge) verteilt.
+ */
+public class SimulationResult {
+
+    /**
+     * Die möglichen Enden eines Laufs.
+     */
+    public enum Outcome {
+        /**
+         * Keine Transition ist schaltbar und nur die Endstelle ist mit genau
+         * einer Marke markiert.
+         */
+        COMPLETED,
+        /**
+         * Keine Transition ist schaltbar, die Endstelle ist markiert und
+         * zusätzlich eine weitere Stelle oder die Endstelle mehrfach.
+         */
+        IMPROPER_COMPLETION,
+        /**
+         * Keine Transition ist schaltbar und die Endstelle ist nicht markiert.
+         */
+        DEADLOCK,
+        /**
+         * Der Lauf wurde nach der maximalen Anzahl an Schaltvorgängen
+         * abgebrochen.
+         */
+        STEP_LIMIT
+    }
+
+    /**
+     * Die Momentaufnahme des simulierten Netzes.
+     */
+    private final NetGraph graph;
+
+    /**
+     * Anzahl der Läufe.
+     */
+    private final long runs;
+
+    /**
+     * Anzahl der Läufe je Ende, indiziert mit Outcome.ordinal().
+     */
+    private final long[] outcomeCounts;
+
+    /**
+     * Summe der Pfadlängen je Ende, indiziert mit Outcome.ordinal().
+     */
+    private final long[] outcomeLengths;
+
+    /**
+     * Anzahl der Schaltvorgänge je Transition über alle Läufe.
+     */
+    private final long[] firingCounts;
+
+    /**
+     * Anzahl der Läufe je Pfadlänge.
+     */
+    private final long[] lengthHistogram;
+
+    /**
+     * Dieser Konstruktor initialisiert alle Attribute. Die Arrays werden
+     * übernommen und nicht kopiert.
+     *
+     * @param graph Die Momentaufnahme des simulierten Netzes.
+     * @param runs Anzahl der Läufe.
+     * @param outcomeCounts Anzahl der Läufe je Ende.
+     * @param outcomeLengths Summe der Pfadlängen je Ende.
+     * @param firingCounts Anzahl der Schaltvorgänge je Transition.
+     * @param lengthHistogram Anzahl der Läufe je Pfadlänge.
+     */
+    SimulationResult(NetGraph graph, long runs, long[] outcomeCounts,
+            long[] outcomeLengths, long[] firingCounts, long[] lengthHistogram) {
+        this.graph = graph;
+        this.runs = runs;
+        this.outcomeCounts = outcomeCounts;
+        this.outcomeLengths = outcomeLengths;
+        this.firingCounts = firingCounts;
+        this.lengthHistogram = lengthHistogram;
+    }
+
+    /**
+     * Diese Methode gibt das Attribut runs zurück.
+     *
+     * @return Anzahl der Läufe.
+     */
+    public long getRuns() {
+        return runs;
+    }
+
+    /**
+     * Diese Methode gibt die Anzahl der Läufe mit dem übergebenen Ende zurück.
+     *
+     * @param outcome Das Ende eines Laufs.
+     * @return Anzahl der Läufe.
+     */
+    public long getCount(Outcome outcome) {
+        return outcomeCounts[outcome.ordinal()];
+    }
+
+    /**
+     * Diese Methode schätzt die Wahrscheinlichkeit, dass ein Lauf mit dem
+     * übergebenen Ende endet.
+     *
+     * @param outcome Das Ende eines Laufs.
+     * @return Der Anteil der Läufe mit diesem Ende.
+     */
+    public double getProbability(Outcome outcome) {
+        return runs == 0 ? 0 : (double) getCount(outcome) / runs;
+    }
+
+    /**
+     * Diese Methode gibt die mittlere Pfadlänge der Läufe mit dem übergebenen
+     * Ende zurück.
+     *
+     * @param outcome Das Ende eines Laufs.
+     * @return Die mittlere Anzahl an Schaltvorgängen oder 0, falls kein Lauf
+     * so geendet hat.
+     */
+    public double getMeanLength(Outcome outcome) {
+        long count = getCount(outcome);
+        return count == 0 ? 0 : (double) outcomeLengths[outcome.ordinal()] / count;
+    }
+
+    /**
+     * Diese Methode gibt die mittlere Pfadlänge aller Läufe zurück.
+     *
+     * @return Die mittlere Anzahl an Schaltvorgängen.
+     */
+    public double getMeanLength() {
+        long sum = 0;
+        for (long length : outcomeLengths) {
+            sum += length;
+        }
+        return runs == 0 ? 0 : (double) sum / runs;
+    }
+
+    /**
+     * Diese Methode gibt die größte beobachtete Pfadlänge zurück.
+     *
+     * @return Die größte Anzahl an Schaltvorgängen eines Laufs.
+     */
+    public int getMaxLength() {
+        return lengthHistogram.length - 1;
+    }
+
+    /**
+     * Diese Methode gibt die Anzahl der Läufe mit der übergebenen Pfadlänge
+     * zurück.
+     *
+     * @param length Die Anzahl an Schaltvorgängen.
+     * @return Anzahl der Läufe.
+     */
+    public long getLengthCount(int length) {
+        return length < lengthHistogram.length ? lengthHistogram[length] : 0;
+    }
+
+    /**
+     * Diese Methode gibt an, wie oft eine Transition über alle Läufe
+     * geschaltet hat.
+     *
+     * @param t Nummer der Transition (Knoten placeCount + t des NetGraph).
+     * @return Anzahl der Schaltvorgänge.
+     */
+    public long getFiringCount(int t) {
+        return firingCounts[t];
+    }
+
+    /**
+     * Diese Methode gibt an, wie oft eine Transition über alle Läufe
+     * geschaltet hat.
+     *
+     * @param id Die id der Transition.
+     * @return Anzahl der Schaltvorgänge.
+     */
+    public long getFiringCount(String id) {
+        return firingCounts[graph.indexOf(id) - graph.getPlaceCount()];
+    }
+
+    /**
+     * Diese Methode gibt die Momentaufnahme des simulierten Netzes zurück.
+     *
+     * @return Das Attribut graph.
+     */
+    public NetGraph getGraph() {
+        return graph;
+    }
+}
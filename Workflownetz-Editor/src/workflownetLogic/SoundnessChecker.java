@@ -0,0 +1,452 @@
+package workflownetLogic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import stateSpace.MarkingEncoding;
+import stateSpace.ReachabilityGraph;
+import stateSpace.ReachabilityGraphBuilder;
+import stateSpace.StateVisitor;
+import stateSpace.StubbornSets;
+import workflownetLogic.SoundnessResult.Verdict;
+
+/**
+ * Diese Klasse überprüft, ob ein Workflownetz sound ist: Von jeder
+ * erreichbaren Markierung aus ist die Endmarkierung erreichbar (option to
+ * complete), wird die Endstelle markiert, ist keine andere Stelle markiert
+ * (proper completion), und jede Transition kann in mindestens einer
+ * erreichbaren Markierung schalten (no dead transitions).
+ *
+ * Die Überprüfung erfolgt auf dem kurzgeschlossenen Netz, in dem eine
+ * zusätzliche Transition die Endstelle mit der Startstelle verbindet. Das
+ * Workflownetz ist genau dann sound, wenn der Erreichbarkeitsgraph des
+ * kurzgeschlossenen Netzes stark zusammenhängend ist und jede Transition des
+ * ursprünglichen Netzes darin schaltet. Verletzungen, die an einer einzelnen
+ * Markierung erkennbar sind (Deadlock, proper completion, Kontakt), werden
+ * bereits während der Breitensuche gefunden und brechen sie ab. Da die
+ * Breitensuche Zustände in der Reihenfolge ihres Abstands zur Startmarkierung
+ * findet, ist die zurückgegebene Schaltfolge eine kürzeste.
+ *
+ * Wie im Editor wird jede Stelle mit höchstens einer Marke betrachtet. Würde
+ * eine Transition eine zweite Marke erzeugen (Kontakt), ist die Soundness mit
+ * dieser Kodierung nicht entscheidbar und das Urteil lautet UNSAFE.
+ *
+ * Optional wird der Zustandsraum mit Stubborn-Sets reduziert. Das ist nur für
+ * kreisfreie Netze exakt: Dort endet jede Schaltfolge in einer toten
+ * Markierung, so dass option to complete und proper completion genau dann
+ * gelten, wenn jede erreichbare tote Markierung die Endmarkierung ist. Tote
+ * Markierungen bleiben bei der Reduktion erhalten. Die Reduktion wird deshalb
+ * auf dem ursprünglichen statt auf dem kurzgeschlossenen Netz durchgeführt.
+ * Haben danach nicht alle Transitionen geschaltet, folgt ein zweiter
+ * reduzierter Durchlauf, in dem die verbliebenen Transitionen in jedes
+ * Stubborn-Set aufgenommen werden. Erst was dann nicht schaltet, ist tot.
+ * Enthält das Netz einen Zyklus, wird der vollständige Zustandsraum
+ * untersucht. Ein Kontakt wird im reduzierten Zustandsraum nur gefunden, wenn
+ * er in einer der untersuchten Markierungen auftritt; das Urteil gilt dann
+ * für die Schaltregel des Editors, die eine Transition bei Kontakt nicht
+ * schalten lässt.
+ *
+ * Auf Wunsch (setNetReduction) wird das Netz zuerst mit NetReduction
+ * vereinfacht: Folgen von Stellen und Transitionen mit nur einem Ein- und
+ * Ausgang, parallele Stellen und Schlingen tragen nichts zum Verhalten bei,
+ * vervielfachen aber die Anzahl der Zustände. Die Schaltfolge und die toten
+ * Transitionen des Ergebnisses werden auf die ursprünglichen ids
+ * zurückgeführt. Die Regeln gelten für die gewöhnliche Schaltregel ohne
+ * Kontakt. Das Urteil ist daher nur für 1-sichere Netze verlässlich, die
+ * Vereinfachung ist standardmäßig ausgeschaltet.
+ *
+ * Ist das Netz free-choice, wird es zuerst strukturell überprüft (siehe
+ * FreeChoiceReduction). Lässt es sich vollständig reduzieren, ist es sound,
+ * ohne dass ein Zustand untersucht wird. Andernfalls ist es nicht sound, und
+ * die Breitensuche liefert nur noch die Schaltfolge zur Verletzung. Findet sie
+ * diese nicht innerhalb von WITNESS_STATES Zuständen, lautet das Urteil
+ * NOT_REDUCIBLE.
+ *
+ * Die Klasse verwendet nur die Momentaufnahme und kann daher außerhalb des
+ * JavaFX-Threads ausgeführt werden. Wird der ausführende Thread unterbrochen,
+ * bricht die Überprüfung mit einer CancellationException ab.
+ */
+public class SoundnessChecker {
+
+    /**
+     * Die id der Transition, die das Netz kurzschließt.
+     */
+    public static final String SHORT_CIRCUIT_ID = "t*";
+
+    /**
+     * Maximale Anzahl an Zuständen, in denen nach einer Schaltfolge gesucht
+     * wird, wenn ein Free-Choice-Netz strukturell als nicht sound erkannt
+     * wurde.
+     */
+    private static final int WITNESS_STATES = 1000000;
+
+    /**
+     * Die Momentaufnahme des Workflownetzes.
+     */
+    private final NetGraph graph;
+
+    /**
+     * Index der Startstelle.
+     */
+    private final int startPlace;
+
+    /**
+     * Index der Endstelle.
+     */
+    private final int endPlace;
+
+    /**
+     * Maximale Anzahl an Zuständen.
+     */
+    private int maxStates = Integer.MAX_VALUE - 8;
+
+    /**
+     * Information darüber, ob die Partial-Order-Reduktion verwendet werden
+     * soll.
+     */
+    private boolean reduction;
+
+    /**
+     * Information darüber, ob die Überprüfung symbolisch erfolgen soll.
+     */
+    private boolean symbolic;
+
+    /**
+     * Information darüber, ob Free-Choice-Netze strukturell überprüft werden
+     * sollen.
+     */
+    private boolean structural = true;
+
+    /**
+     * Information darüber, ob das Netz vor der Überprüfung mit NetReduction
+     * vereinfacht werden soll.
+     */
+    private boolean netReduction = false;
+
+    /**
+     * Dieser Konstruktor initialisiert die Überprüfung eines gültigen
+     * Workflownetzes.
+     *
+     * @param graph Die Momentaufnahme des Workflownetzes.
+     * @param startPlace Index der Startstelle.
+     * @param endPlace Index der Endstelle.
+     */
+    public SoundnessChecker(NetGraph graph, int startPlace, int endPlace) {
+        this.graph = graph;
+        this.startPlace = startPlace;
+        this.endPlace = endPlace;
+    }
+
+    /**
+     * Diese Methode setzt die maximale Anzahl an Zuständen.
+     *
+     * @param maxStates Die maximale Anzahl an Zuständen.
+     * @return Dieses Objekt.
+     */
+    public SoundnessChecker setMaxStates(int maxStates) {
+        this.maxStates = maxStates;
+        return this;
+    }
+
+    /**
+     * Diese Methode schaltet die Partial-Order-Reduktion ein oder aus. Sie
+     * wird nur bei kreisfreien Netzen verwendet, siehe
+     * SoundnessResult.isReduced.
+     *
+     * @param reduction true, falls der Zustandsraum reduziert werden soll.
+     * @return Dieses Objekt.
+     */
+    public SoundnessChecker setReduction(boolean reduction) {
+        this.reduction = reduction;
+        return this;
+    }
+
+    /**
+     * Diese Methode legt fest, ob die Überprüfung symbolisch mit BDDs
+     * erfolgt (siehe SymbolicSoundnessChecker). Die Partial-Order-Reduktion
+     * und die Zustandsgrenze werden dann nicht verwendet.
+     *
+     * @param symbolic true, falls symbolisch überprüft werden soll.
+     * @return Dieses Objekt.
+     */
+    public SoundnessChecker setSymbolic(boolean symbolic) {
+        this.symbolic = symbolic;
+        return this;
+    }
+
+    /**
+     * Diese Methode legt fest, ob Free-Choice-Netze zuerst mit den
+     * Reduktionsregeln aus FreeChoiceReduction überprüft werden. Ein soundes
+     * Netz wird dann ohne Zustandsraum erkannt.
+     *
+     * @param structural true, falls strukturell überprüft werden soll.
+     * @return Dieses Objekt.
+     */
+    public SoundnessChecker setStructural(boolean structural) {
+        this.structural = structural;
+        return this;
+    }
+
+    /**
+     * Diese Methode legt fest, ob das Netz vor der Überprüfung vereinfacht
+     * wird (siehe NetReduction). Das Ergebnis bezieht sich in beiden Fällen
+     * auf die ids des ursprünglichen Netzes. Die Vereinfachung sollte nur für
+     * Netze eingeschaltet werden, die bekanntermaßen 1-sicher sind.
+     *
+     * @param netReduction true, falls das Netz vereinfacht werden soll.
+     * @return Dieses Objekt.
+     */
+    public SoundnessChecker setNetReduction(boolean netReduction) {
+        this.netReduction = netReduction;
+        return this;
+    }
+
+    /**
+     * Diese Methode gibt die Momentaufnahme zurück, die überprüft wird.
+     *
+     * @return Das Attribut graph.
+     */
+    public NetGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * Diese Methode führt die Überprüfung durch und bricht bei der ersten
+     * Verletzung ab.
+     *
+     * @return Das Ergebnis der Überprüfung.
+     */
+    public SoundnessResult check() {
+        if (netReduction) {
+            NetReduction simplification = new NetReduction(graph, startPlace, endPlace);
+            NetGraph reduced = simplification.reduce();
+            return new SoundnessChecker(reduced, reduced.indexOf(graph.getId(startPlace)),
+                    reduced.indexOf(graph.getId(endPlace)))
+                    .setMaxStates(maxStates)
+                    .setReduction(reduction)
+                    .setSymbolic(symbolic)
+                    .setStructural(structural)
+                    .setNetReduction(false)
+                    .check()
+                    .mapBack(simplification);
+        }
+        if (structural && FreeChoiceReduction.isFreeChoice(graph)) {
+            FreeChoiceReduction freeChoice = new FreeChoiceReduction(graph, startPlace, endPlace);
+            if (freeChoice.reduce()) {
+                return new SoundnessResult(Verdict.SOUND, Collections.<String>emptyList(),
+                        freeChoice.getRuleCount());
+            }
+            if (!freeChoice.isExhausted() && !symbolic) {
+                // Das Netz ist nicht sound. Die Suche dient nur noch dazu,
+                // eine Schaltfolge zur Verletzung zu finden.
+                SoundnessResult result = explore(Math.min(maxStates, WITNESS_STATES));
+                if (result.getVerdict() == Verdict.STATE_LIMIT) {
+                    return new SoundnessResult(Verdict.NOT_REDUCIBLE,
+                            freeChoice.getRemainingPlaceIds(), freeChoice.getRuleCount());
+                }
+                return result;
+            }
+        }
+        if (symbolic) {
+            return new SymbolicSoundnessChecker(graph, startPlace, endPlace).check();
+        }
+        return explore(maxStates);
+    }
+
+    /**
+     * Diese Methode untersucht den Zustandsraum und bricht bei der ersten
+     * Verletzung ab.
+     *
+     * @param limit Die maximale Anzahl an Zuständen.
+     * @return Das Ergebnis der Überprüfung.
+     */
+    private SoundnessResult explore(int limit) {
+        boolean reduced = reduction && StronglyConnectedComponents.of(graph).isAcyclic();
+        NetGraph explored = reduced ? graph : graph.withTransition(SHORT_CIRCUIT_ID,
+                new int[]{endPlace}, new int[]{startPlace});
+        MarkingEncoding encoding = new MarkingEncoding(explored);
+        Monitor monitor = new Monitor(encoding);
+        ReachabilityGraphBuilder builder = new ReachabilityGraphBuilder(encoding)
+                .setMaxStates(limit)
+                .setVisitor(monitor);
+        if (reduced) {
+            builder.setReduction(new StubbornSets(encoding));
+        }
+        ReachabilityGraph reachabilityGraph = builder.build(encoding.encodeMarking(startPlace));
+        int stateCount = reachabilityGraph.getStateCount();
+        List<String> none = Collections.emptyList();
+
+        if (monitor.cancelled) {
+            throw new CancellationException();
+        }
+        if (monitor.verdict != null) {
+            List<String> witness = reachabilityGraph.getPathIds(monitor.state);
+            if (monitor.verdict == Verdict.UNSAFE) {
+                witness = new ArrayList<>(witness);
+                witness.add(encoding.getTransitionId(monitor.transition));
+            }
+            return new SoundnessResult(monitor.verdict, witness, none, stateCount, reduced);
+        }
+        if (!reachabilityGraph.isComplete()) {
+            return new SoundnessResult(Verdict.STATE_LIMIT, none, none, stateCount, reduced);
+        }
+
+        // Im reduzierten, kreisfreien Fall hat der Monitor bereits alle toten
+        // Markierungen geprüft. Sonst gilt: Alle Zustände, die nicht in der
+        // Komponente der Startmarkierung liegen, können die Startmarkierung
+        // und damit auch die Endmarkierung nicht mehr erreichen. Der erste
+        // solche Zustand hat den kürzesten Pfad.
+        if (!reduced) {
+            StronglyConnectedComponents components = new StronglyConnectedComponents(
+                    reachabilityGraph.getEdgeStart(), reachabilityGraph.getEdgeTarget(),
+                    stateCount);
+            int initialComponent = components.getComponent(0);
+            for (int s = 0; s < stateCount; s++) {
+                if (components.getComponent(s) != initialComponent) {
+                    return new SoundnessResult(Verdict.NO_OPTION_TO_COMPLETE,
+                            reachabilityGraph.getPathIds(s), none, stateCount);
+                }
+            }
+        }
+
+        // Die Transition t* ist immer die letzte und zählt nicht mit.
+        int transitionCount = graph.getTransitionCount();
+        boolean[] fired = new boolean[encoding.getTransitionCount()];
+        for (int t : reachabilityGraph.getEdgeTransition()) {
+            fired[t] = true;
+        }
+        int[] unfired = new int[transitionCount];
+        int unfiredCount = 0;
+        for (int t = 0; t < transitionCount; t++) {
+            if (!fired[t]) {
+                unfired[unfiredCount++] = t;
+            }
+        }
+        unfired = Arrays.copyOf(unfired, unfiredCount);
+        if (reduced && unfired.length > 0) {
+            // Die reduzierte Suche schaltet nicht jede Transition, die
+            // schalten kann. Ein zweiter Durchlauf nimmt die verbliebenen
+            // Transitionen in jedes Stubborn-Set auf.
+            StubbornSets interesting = new StubbornSets(encoding)
+                    .setInteresting(unfired);
+            ReachabilityGraph second = new ReachabilityGraphBuilder(encoding)
+                    .setMaxStates(limit)
+                    .setStoreEdges(false)
+                    .setReduction(interesting)
+                    .setVisitor((s, marking, enabled, enabledCount) -> {
+                        if ((s & 0xFFF) == 0 && Thread.currentThread().isInterrupted()) {
+                            throw new CancellationException();
+                        }
+                        return interesting.getInterestingCount() > 0;
+                    })
+                    .build(encoding.encodeMarking(startPlace));
+            stateCount += second.getStateCount();
+            if (!second.isComplete() && interesting.getInterestingCount() > 0) {
+                return new SoundnessResult(Verdict.STATE_LIMIT, none, none, stateCount, reduced);
+            }
+            unfired = interesting.getInteresting();
+        }
+        List<String> deadTransitions = new ArrayList<>();
+        for (int t : unfired) {
+            deadTransitions.add(encoding.getTransitionId(t));
+        }
+        if (!deadTransitions.isEmpty()) {
+            return new SoundnessResult(Verdict.DEAD_TRANSITIONS, none, deadTransitions,
+                    stateCount, reduced);
+        }
+        return new SoundnessResult(Verdict.SOUND, none, none, stateCount, reduced);
+    }
+
+    /**
+     * Dieses Objekt untersucht während der Breitensuche jede Markierung und
+     * hält die erste Verletzung fest.
+     */
+    private class Monitor implements StateVisitor {
+
+        /**
+         * Die Kodierung des kurzgeschlossenen Netzes.
+         */
+        private final MarkingEncoding encoding;
+
+        /**
+         * Die Art der ersten Verletzung oder null.
+         */
+        private Verdict verdict;
+
+        /**
+         * Der Zustand, in dem die Verletzung gefunden wurde.
+         */
+        private int state = -1;
+
+        /**
+         * Bei einem Kontakt die betroffene Transition.
+         */
+        private int transition = -1;
+
+        /**
+         * Information darüber, ob die Suche wegen einer Unterbrechung des
+         * Threads abgebrochen wurde.
+         */
+        private boolean cancelled;
+
+        /**
+         * Dieser Konstruktor initialisiert das Attribut encoding.
+         *
+         * @param encoding Die Kodierung des kurzgeschlossenen Netzes.
+         */
+        Monitor(MarkingEncoding encoding) {
+            this.encoding = encoding;
+        }
+
+        @Override
+        public boolean visit(int s, long[] marking, int[] enabled, int enabledCount) {
+            if ((s & 0xFFF) == 0 && Thread.currentThread().isInterrupted()) {
+                cancelled = true;
+                return false;
+            }
+            if (MarkingEncoding.isMarked(marking, 0, endPlace) && countTokens(marking) > 1) {
+                return stop(Verdict.IMPROPER_COMPLETION, s);
+            }
+            int contact = encoding.findContact(marking, 0);
+            if (contact >= 0) {
+                transition = contact;
+                return stop(Verdict.UNSAFE, s);
+            }
+            // Im kurzgeschlossenen Netz ist in der Endmarkierung t* aktiviert,
+            // im reduzierten Fall ist sie die einzige erlaubte tote Markierung.
+            if (enabledCount == 0 && !MarkingEncoding.isMarked(marking, 0, endPlace)) {
+                return stop(Verdict.DEADLOCK, s);
+            }
+            return true;
+        }
+
+        /**
+         * Diese Methode hält eine Verletzung fest.
+         *
+         * @param found Die Art der Verletzung.
+         * @param s Der Zustand, in dem sie gefunden wurde.
+         * @return false, damit die Suche abgebrochen wird.
+         */
+        private boolean stop(Verdict found, int s) {
+            this.verdict = found;
+            this.state = s;
+            return false;
+        }
+
+        /**
+         * Diese Methode zählt die markierten Stellen einer Markierung.
+         *
+         * @param marking Die kodierte Markierung.
+         * @return Anzahl der markierten Stellen.
+         */
+        private int countTokens(long[] marking) {
+            int count = 0;
+            for (int w = 0; w < encoding.getWords(); w++) {
+                count += Long.bitCount(marking[w]);
+            }
+            return count;
+        }
+    }
+}
@@ -0,0 +1,326 @@
+package workflownetLogic;
+
+import java.io.Serializable;
+import java.math.BigInteger;
+import java.util.Collections;
+import java.util.List;
+import resources.MyMessages;
+
+/**
+ * Diese Klasse hält das Ergebnis einer Soundness-Überprüfung fest. Neben dem
+ * Urteil enthält sie für die erste gefundene Verletzung eine Schaltfolge von
+ * der Startmarkierung aus (witness), mit der die Verletzung im Editor
+ * nachgespielt werden kann. Ergebnisse werden im AnalysisCache abgelegt und
+ * sind daher serialisierbar.
+ */
+public class SoundnessResult implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Die möglichen Urteile einer Überprüfung.
+     */
+    public enum Verdict {
+        /**
+         * Das Netz ist sound.
+         */
+        SOUND,
+        /**
+         * Es wird eine Markierung erreicht, in der die Endstelle und
+         * zusätzlich eine weitere Stelle markiert ist.
+         */
+        IMPROPER_COMPLETION,
+        /**
+         * Es wird eine Markierung erreicht, in der keine Transition schalten
+         * kann und die nicht die Endmarkierung ist.
+         */
+        DEADLOCK,
+        /**
+         * Es wird eine Markierung erreicht, von der aus die Endmarkierung nicht
+         * mehr erreichbar ist, obwohl weiterhin Transitionen schalten können.
+         */
+        NO_OPTION_TO_COMPLETE,
+        /**
+         * Mindestens eine Transition kann nie schalten.
+         */
+        DEAD_TRANSITIONS,
+        /**
+         * Das Netz ist nicht 1-sicher. Eine Transition würde eine zweite
+         * Marke auf eine Stelle legen.
+         */
+        UNSAFE,
+        /**
+         * Das Free-Choice-Netz lässt sich nicht vollständig reduzieren und ist
+         * daher nicht sound. Eine Schaltfolge zur Verletzung wurde innerhalb
+         * der Zustandsgrenze nicht gefunden.
+         */
+        NOT_REDUCIBLE,
+        /**
+         * Die Überprüfung wurde an der Zustandsgrenze abgebrochen.
+         */
+        STATE_LIMIT
+    }
+
+    /**
+     * Das Urteil der Überprüfung.
+     */
+    private final Verdict verdict;
+
+    /**
+     * Die ids der Transitionen einer Schaltfolge, die zur Verletzung führt.
+     */
+    private final List<String> witness;
+
+    /**
+     * Die ids der Transitionen, die nie schalten können.
+     */
+    private final List<String> deadTransitions;
+
+    /**
+     * Anzahl der untersuchten Zustände. Bei der symbolischen Überprüfung
+     * kann sie den Wertebereich von long überschreiten.
+     */
+    private final BigInteger stateCount;
+
+    /**
+     * Information darüber, ob der Zustandsraum mit Partial-Order-Reduktion
+     * untersucht wurde.
+     */
+    private final boolean reduced;
+
+    /**
+     * Information darüber, ob das Urteil strukturell, d.h. ohne Zustandsraum
+     * mit den Regeln aus FreeChoiceReduction gefällt wurde.
+     */
+    private final boolean structural;
+
+    /**
+     * Bei einem strukturellen Urteil die ids der Stellen, die nach der
+     * Reduktion außer [i] und [o] übrig sind.
+     */
+    private final List<String> remainingPlaces;
+
+    /**
+     * Bei einem strukturellen Urteil die Anzahl der angewendeten
+     * Reduktionsregeln.
+     */
+    private final int ruleCount;
+
+    /**
+     * Dieser Konstruktor initialisiert das Ergebnis einer Überprüfung des
+     * vollständigen Zustandsraums.
+     *
+     * @param verdict Das Urteil der Überprüfung.
+     * @param witness Die Schaltfolge zur Verletzung.
+     * @param deadTransitions Die ids der toten Transitionen.
+     * @param stateCount Anzahl der untersuchten Zustände.
+     */
+    public SoundnessResult(Verdict verdict, List<String> witness,
+            List<String> deadTransitions, int stateCount) {
+        this(verdict, witness, deadTransitions, stateCount, false);
+    }
+
+    /**
+     * Dieser Konstruktor initialisiert alle Attribute.
+     *
+     * @param verdict Das Urteil der Überprüfung.
+     * @param witness Die Schaltfolge zur Verletzung.
+     * @param deadTransitions Die ids der toten Transitionen.
+     * @param stateCount Anzahl der untersuchten Zustände.
+     * @param reduced true, falls der Zustandsraum reduziert wurde.
+     */
+    public SoundnessResult(Verdict verdict, List<String> witness,
+            List<String> deadTransitions, int stateCount, boolean reduced) {
+        this(verdict, witness, deadTransitions, BigInteger.valueOf(stateCount), reduced);
+    }
+
+    /**
+     * Dieser Konstruktor initialisiert alle Attribute mit einer beliebig
+     * großen Anzahl an Zuständen.
+     *
+     * @param verdict Das Urteil der Überprüfung.
+     * @param witness Die Schaltfolge zur Verletzung.
+     * @param deadTransitions Die ids der toten Transitionen.
+     * @param stateCount Anzahl der untersuchten Zustände.
+     * @param reduced true, falls der Zustandsraum reduziert wurde.
+     */
+    public SoundnessResult(Verdict verdict, List<String> witness,
+            List<String> deadTransitions, BigInteger stateCount, boolean reduced) {
+        this(verdict, witness, deadTransitions, stateCount, reduced, false,
+                Collections.<String>emptyList(), 0);
+    }
+
+    /**
+     * Dieser Konstruktor initialisiert das Ergebnis einer strukturellen
+     * Überprüfung eines Free-Choice-Netzes.
+     *
+     * @param verdict Das Urteil, SOUND oder NOT_REDUCIBLE.
+     * @param remainingPlaces Die ids der nicht reduzierten Stellen.
+     * @param ruleCount Anzahl der angewendeten Reduktionsregeln.
+     */
+    public SoundnessResult(Verdict verdict, List<String> remainingPlaces, int ruleCount) {
+        this(verdict, Collections.<String>emptyList(), Collections.<String>emptyList(),
+                BigInteger.ZERO, false, true, remainingPlaces, ruleCount);
+    }
+
+    /**
+     * Dieser Konstruktor initialisiert alle Attribute.
+     *
+     * @param verdict Das Urteil der Überprüfung.
+     * @param witness Die Schaltfolge zur Verletzung.
+     * @param deadTransitions Die ids der toten Transitionen.
+     * @param stateCount Anzahl der untersuchten Zustände.
+     * @param reduced true, falls der Zustandsraum reduziert wurde.
+     * @param structural true, falls strukturell entschieden wurde.
+     * @param remainingPlaces Die ids der nicht reduzierten Stellen.
+     * @param ruleCount Anzahl der angewendeten Reduktionsregeln.
+     */
+    private SoundnessResult(Verdict verdict, List<String> witness,
+            List<String> deadTransitions, BigInteger stateCount, boolean reduced,
+            boolean structural, List<String> remainingPlaces, int ruleCount) {
+        this.verdict = verdict;
+        this.witness = Collections.unmodifiableList(witness);
+        this.deadTransitions = Collections.unmodifiableList(deadTransitions);
+        this.stateCount = stateCount;
+        this.reduced = reduced;
+        this.structural = structural;
+        this.remainingPlaces = Collections.unmodifiableList(remainingPlaces);
+        this.ruleCount = ruleCount;
+    }
+
+    /**
+     * Diese Methode überträgt ein Ergebnis, das auf einem vereinfachten Netz
+     * ermittelt wurde, auf das ursprüngliche Netz. Die Schaltfolge und die
+     * toten Transitionen werden durch die ursprünglichen ids ersetzt.
+     *
+     * @param netReduction Die Vereinfachung, die das Netz erzeugt hat.
+     * @return Das Ergebnis für das ursprüngliche Netz.
+     */
+    public SoundnessResult mapBack(NetReduction netReduction) {
+        List<String> originalDead = deadTransitions.isEmpty() ? deadTransitions
+                : netReduction.mapDeadTransitions(deadTransitions);
+        return new SoundnessResult(verdict, netReduction.expand(witness), originalDead,
+                stateCount, reduced, structural, remainingPlaces, ruleCount);
+    }
+
+    /**
+     * Diese Methode gibt an, ob das Netz sound ist.
+     *
+     * @return true, falls das Urteil SOUND ist.
+     */
+    public boolean isSound() {
+        return verdict == Verdict.SOUND;
+    }
+
+    /**
+     * Diese Methode gibt an, ob die Überprüfung zu einem Urteil gekommen ist.
+     *
+     * @return false, falls die Überprüfung abgebrochen wurde.
+     */
+    public boolean isDecided() {
+        return verdict != Verdict.STATE_LIMIT && verdict != Verdict.UNSAFE;
+    }
+
+    /**
+     * Diese Methode gibt das Attribut verdict zurück.
+     *
+     * @return Das Attribut verdict.
+     */
+    public Verdict getVerdict() {
+        return verdict;
+    }
+
+    /**
+     * Diese Methode gibt das Attribut witness zurück.
+     *
+     * @return Das Attribut witness.
+     */
+    public List<String> getWitness() {
+        return witness;
+    }
+
+    /**
+     * Diese Methode gibt das Attribut deadTransitions zurück.
+     *
+     * @return Das Attribut deadTransitions.
+     */
+    public List<String> getDeadTransitions() {
+        return deadTransitions;
+    }
+
+    /**
+     * Diese Methode gibt das Attribut stateCount zurück.
+     *
+     * @return Das Attribut stateCount.
+     */
+    public BigInteger getStateCount() {
+        return stateCount;
+    }
+
+    /**
+     * Diese Methode gibt das Attribut reduced zurück.
+     *
+     * @return Das Attribut reduced.
+     */
+    public boolean isReduced() {
+        return reduced;
+    }
+
+    /**
+     * Diese Methode gibt das Attribut structural zurück.
+     *
+     * @return Das Attribut structural.
+     */
+    public boolean isStructural() {
+        return structural;
+    }
+
+    /**
+     * Diese Methode gibt das Attribut remainingPlaces zurück.
+     *
+     * @return Das Attribut remainingPlaces.
+     */
+    public List<String> getRemainingPlaces() {
+        return remainingPlaces;
+    }
+
+    /**
+     * Diese Methode gibt das Attribut ruleCount zurück.
+     *
+     * @return Das Attribut ruleCount.
+     */
+    public int getRuleCount() {
+        return ruleCount;
+    }
+
+    /**
+     * Diese Methode erzeugt eine Meldung für den Benutzer. Sie nennt den Grund
+     * und, falls vorhanden, die Schaltfolge bzw. die toten Transitionen.
+     *
+     * @return Die Meldung.
+     */
+    public String getMessage() {
+        switch (verdict) {
+            case SOUND:
+                if (structural) {
+                    return String.format(MyMessages.SOUND_FREE_CHOICE, ruleCount);
+                }
+                return String.format(reduced ? MyMessages.SOUND_REDUCED : MyMessages.SOUND,
+                        stateCount);
+            case IMPROPER_COMPLETION:
+                return WorkflownetValidator.describe(MyMessages.IMPROPER_COMPLETION, witness);
+            case DEADLOCK:
+                return WorkflownetValidator.describe(MyMessages.SOUNDNESS_DEADLOCK, witness);
+            case NO_OPTION_TO_COMPLETE:
+                return WorkflownetValidator.describe(MyMessages.NO_OPTION_TO_COMPLETE, witness);
+            case DEAD_TRANSITIONS:
+                return WorkflownetValidator.describe(MyMessages.DEAD_TRANSITIONS, deadTransitions);
+            case UNSAFE:
+                return WorkflownetValidator.describe(MyMessages.UNSAFE, witness);
+            case NOT_REDUCIBLE:
+                return WorkflownetValidator.describe(MyMessages.NOT_REDUCIBLE, remainingPlaces);
+            default:
+                return String.format(MyMessages.STATE_LIMIT, stateCount);
+        }
+    }
+}
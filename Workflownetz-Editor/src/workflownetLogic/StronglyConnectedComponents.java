@@ -0,0 +1,314 @@
+package workflownetLogic;
+
+import java.util.Arrays;
+
+/**
+ * Diese Klasse bestimmt die starken Zusammenhangskomponenten eines Graphen im
+ * CSR-Format mit einer iterativen Variante des Algorithmus von Tarjan. Die
+ * Laufzeit ist linear in der Anzahl der Knoten und Kanten, der Zustand der
+ * Suche wird ausschließlich in int-Arrays gehalten. Dadurch können auch Netze
+ * mit mehreren hunderttausend Elementen ohne Rekursion untersucht werden.
+ *
+ * Die Komponenten werden in der Reihenfolge nummeriert, in der Tarjan sie
+ * abschließt. Das ist eine umgekehrte topologische Ordnung: Kanten zwischen
+ * verschiedenen Komponenten führen immer von einer höheren zu einer
+ * niedrigeren Nummer.
+ *
+ * Da die Klasse nur die Arrays start und adjacent verwendet, kann sie sowohl
+ * für Netze (NetGraph) als auch für andere Graphen, z.B. Erreichbarkeitsgraphen,
+ * eingesetzt werden.
+ */
+public class StronglyConnectedComponents {
+
+    /**
+     * Offset-Array der Nachfolger.
+     */
+    private final int[] start;
+
+    /**
+     * Die Nachfolger aller Knoten.
+     */
+    private final int[] adjacent;
+
+    /**
+     * Die Komponente jedes Knotens.
+     */
+    private final int[] component;
+
+    /**
+     * memberStart[c] bis memberStart[c+1]-1 sind die Positionen der Knoten der
+     * Komponente c im Array members.
+     */
+    private final int[] memberStart;
+
+    /**
+     * Die Knoten aller Komponenten, nach Komponente geordnet.
+     */
+    private final int[] members;
+
+    /**
+     * Die Nummern aller nichttrivialen Komponenten, also der Komponenten, die
+     * einen Kreis enthalten.
+     */
+    private final int[] nontrivialComponents;
+
+    /**
+     * Die Vorgänger der Breitensuche in findCycle. Das Array wird erst bei
+     * Bedarf erzeugt und nach jeder Suche wieder mit -1 belegt.
+     */
+    private int[] parent;
+
+    /**
+     * Dieser Konstruktor bestimmt die Komponenten des übergebenen Graphen.
+     *
+     * @param start Offset-Array der Nachfolger (Länge n+1).
+     * @param adjacent Die Nachfolger aller Knoten.
+     * @param n Die Anzahl der Knoten.
+     */
+    public StronglyConnectedComponents(int[] start, int[] adjacent, int n) {
+        this.start = start;
+        this.adjacent = adjacent;
+        this.component = new int[n];
+        int componentCount = computeComponents(n);
+
+        // Die Knoten werden wie beim Aufbau des NetGraph zuerst gezählt und
+        // danach nach Komponente einsortiert.
+        this.memberStart = new int[componentCount + 1];
+        for (int v = 0; v < n; v++) {
+            memberStart[component[v] + 1]++;
+        }
+        for (int c = 0; c < componentCount; c++) {
+            memberStart[c + 1] += memberStart[c];
+        }
+        this.members = new int[n];
+        int[] fill = new int[componentCount];
+        for (int v = 0; v < n; v++) {
+            int c = component[v];
+            members[memberStart[c] + fill[c]++] = v;
+        }
+
+        int nontrivialCount = 0;
+        int[] nontrivial = new int[componentCount];
+        for (int c = 0; c < componentCount; c++) {
+            if (hasCycle(c)) {
+                nontrivial[nontrivialCount++] = c;
+            }
+        }
+        this.nontrivialComponents = new int[nontrivialCount];
+        System.arraycopy(nontrivial, 0, nontrivialComponents, 0, nontrivialCount);
+    }
+
+    /**
+     * Diese Methode erzeugt die Komponenten der Momentaufnahme eines Netzes.
+     *
+     * @param graph Die Momentaufnahme des Netzes.
+     * @return Die Komponenten des Netzes.
+     */
+    public static StronglyConnectedComponents of(NetGraph graph) {
+        return new StronglyConnectedComponents(graph.getPostStart(), graph.getPost(),
+                graph.getNodeCount());
+    }
+
+    /**
+     * Iterativer Tarjan-Algorithmus. Statt der Rekursion werden der aktuelle
+     * Pfad (callStack) und die Position in der Nachfolgerliste jedes Knotens
+     * (edge) in Arrays gehalten.
+     *
+     * @param n Die Anzahl der Knoten.
+     * @return Die Anzahl der Komponenten.
+     */
+    private int computeComponents(int n) {
+        // index[v] == 0 bedeutet unbesucht, sonst Besuchsreihenfolge + 1.
+        int[] index = new int[n];
+        int[] low = new int[n];
+        int[] tarjanStack = new int[n];
+        int[] callStack = new int[n];
+        int[] edge = new int[n];
+        boolean[] onStack = new boolean[n];
+        int nextIndex = 1;
+        int stackSize = 0;
+        int componentCount = 0;
+
+        for (int root = 0; root < n; root++) {
+            if (index[root] != 0) {
+                continue;
+            }
+            int depth = 0;
+            callStack[0] = root;
+            edge[root] = start[root];
+            index[root] = low[root] = nextIndex++;
+            tarjanStack[stackSize++] = root;
+            onStack[root] = true;
+            while (depth >= 0) {
+                int v = callStack[depth];
+                if (edge[v] < start[v + 1]) {
+                    int w = adjacent[edge[v]++];
+                    if (index[w] == 0) {
+                        index[w] = low[w] = nextIndex++;
+                        edge[w] = start[w];
+                        tarjanStack[stackSize++] = w;
+                        onStack[w] = true;
+                        callStack[++depth] = w;
+                    } else if (onStack[w] && index[w] < low[v]) {
+                        low[v] = index[w];
+                    }
+                } else {
+                    if (low[v] == index[v]) {
+                        int w;
+                        do {
+                            w = tarjanStack[--stackSize];
+                            onStack[w] = false;
+                            component[w] = componentCount;
+                        } while (w != v);
+                        componentCount++;
+                    }
+                    depth--;
+                    if (depth >= 0) {
+                        int parent = callStack[depth];
+                        if (low[v] < low[parent]) {
+                            low[parent] = low[v];
+                        }
+                    }
+                }
+            }
+        }
+        return componentCount;
+    }
+
+    /**
+     * Diese Methode überprüft, ob eine Komponente einen Kreis enthält. Das ist
+     * der Fall, wenn sie aus mehr als einem Knoten besteht oder ihr einziger
+     * Knoten eine Kante zu sich selbst hat.
+     *
+     * @param c Nummer der Komponente.
+     * @return true, falls die Komponente einen Kreis enthält.
+     */
+    private boolean hasCycle(int c) {
+        if (getSize(c) > 1) {
+            return true;
+        }
+        int v = members[memberStart[c]];
+        for (int i = start[v]; i < start[v + 1]; i++) {
+            if (adjacent[i] == v) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Diese Methode gibt die Anzahl der Komponenten zurück.
+     *
+     * @return Anzahl der Komponenten.
+     */
+    public int getComponentCount() {
+        return memberStart.length - 1;
+    }
+
+    /**
+     * Diese Methode gibt die Komponente eines Knotens zurück.
+     *
+     * @param v Index des Knotens.
+     * @return Nummer der Komponente.
+     */
+    public int getComponent(int v) {
+        return component[v];
+    }
+
+    /**
+     * Diese Methode gibt die Anzahl der Knoten einer Komponente zurück.
+     *
+     * @param c Nummer der Komponente.
+     * @return Anzahl der Knoten.
+     */
+    public int getSize(int c) {
+        return memberStart[c + 1] - memberStart[c];
+    }
+
+    /**
+     * Diese Methode gibt die Knoten einer Komponente zurück.
+     *
+     * @param c Nummer der Komponente.
+     * @return Die Indizes der Knoten in aufsteigender Reihenfolge.
+     */
+    public int[] getMembers(int c) {
+        int[] result = new int[getSize(c)];
+        System.arraycopy(members, memberStart[c], result, 0, result.length);
+        return result;
+    }
+
+    /**
+     * Diese Methode gibt die Nummern aller Komponenten zurück, die einen Kreis
+     * enthalten. Das Array darf nicht verändert werden.
+     *
+     * @return Die Nummern der nichttrivialen Komponenten.
+     */
+    public int[] getNontrivialComponents() {
+        return nontrivialComponents;
+    }
+
+    /**
+     * Diese Methode überprüft, ob der Graph kreisfrei ist.
+     *
+     * @return true, falls keine Komponente einen Kreis enthält.
+     */
+    public boolean isAcyclic() {
+        return nontrivialComponents.length == 0;
+    }
+
+    /**
+     * Diese Methode bestimmt einen kürzesten Kreis durch den kleinsten Knoten
+     * einer nichttrivialen Komponente. Die Breitensuche bleibt innerhalb der
+     * Komponente.
+     *
+     * @param c Nummer der Komponente.
+     * @return Die Indizes der Knoten des Kreises in Durchlaufreihenfolge oder
+     * null, falls die Komponente keinen Kreis enthält.
+     */
+    public int[] findCycle(int c) {
+        int root = members[memberStart[c]];
+        if (parent == null) {
+            parent = new int[component.length];
+            Arrays.fill(parent, -1);
+        }
+        int[] workList = new int[getSize(c)];
+        int head = 0;
+        int tail = 0;
+        workList[tail++] = root;
+        parent[root] = root;
+        int last = -1;
+        while (head < tail && last < 0) {
+            int v = workList[head++];
+            for (int i = start[v]; i < start[v + 1]; i++) {
+                int w = adjacent[i];
+                if (w == root) {
+                    last = v;
+                    break;
+                }
+                if (component[w] == c && parent[w] < 0) {
+                    parent[w] = v;
+                    workList[tail++] = w;
+                }
+            }
+        }
+        int[] cycle = null;
+        if (last >= 0) {
+            int length = 1;
+            for (int v = last; v != root; v = parent[v]) {
+                length++;
+            }
+            cycle = new int[length];
+            int i = length - 1;
+            for (int v = last; v != root; v = parent[v]) {
+                cycle[i--] = v;
+            }
+            cycle[0] = root;
+        }
+        // Nur die besuchten Einträge werden zurückgesetzt, damit der Aufwand
+        // weiterer Aufrufe nur von der Größe der Komponente abhängt.
+        for (int i = 0; i < tail; i++) {
+            parent[workList[i]] = -1;
+        }
+        return cycle;
+    }
+}
@@ -0,0 +1,163 @@
+package workflownetLogic;
+
+import bdd.BddManager;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import stateSpace.SymbolicReachability;
+import stateSpace.SymbolicStateSpace;
+import workflownetLogic.SoundnessResult.Verdict;
+
+/**
+ * Diese Klasse überprüft wie der SoundnessChecker, ob ein Workflownetz sound
+ * ist, stellt die Markierungen aber als BDDs dar (siehe SymbolicStateSpace).
+ * Netze mit vielen nebenläufigen Zweigen, deren Zustandsraum sich nicht mehr
+ * aufzählen lässt, können so trotzdem untersucht werden.
+ *
+ * Die Überprüfung erfolgt auf dem ursprünglichen Netz:
+ *
+ * - Jede Schicht der Breitensuche wird wie im SoundnessChecker auf proper
+ * completion, Kontakt und Deadlock (tote Markierung außer der Endmarkierung)
+ * geprüft.
+ *
+ * - option to complete: Die Markierungen, von denen aus die Endmarkierung
+ * erreichbar ist, werden rückwärts berechnet. Jede erreichbare Markierung
+ * muss darin liegen.
+ *
+ * - no dead transitions: Jede Transition muss in einer erreichbaren
+ * Markierung aktiviert sein.
+ *
+ * Die Schaltfolgen zu Verletzungen sind wie im SoundnessChecker kürzeste
+ * Schaltfolgen. Wird der ausführende Thread unterbrochen, bricht die
+ * Überprüfung mit einer CancellationException ab.
+ */
+public class SymbolicSoundnessChecker {
+
+    /**
+     * Die Momentaufnahme des Workflownetzes.
+     */
+    private final NetGraph graph;
+
+    /**
+     * Index der Startstelle.
+     */
+    private final int startPlace;
+
+    /**
+     * Index der Endstelle.
+     */
+    private final int endPlace;
+
+    /**
+     * Dieser Konstruktor initialisiert die Überprüfung eines gültigen
+     * Workflownetzes.
+     *
+     * @param graph Die Momentaufnahme des Workflownetzes.
+     * @param startPlace Index der Startstelle.
+     * @param endPlace Index der Endstelle.
+     */
+    public SymbolicSoundnessChecker(NetGraph graph, int startPlace, int endPlace) {
+        this.graph = graph;
+        this.startPlace = startPlace;
+        this.endPlace = endPlace;
+    }
+
+    /**
+     * Diese Methode führt die Überprüfung durch und bricht bei der ersten
+     * Verletzung ab.
+     *
+     * @return Das Ergebnis der Überprüfung.
+     */
+    public SoundnessResult check() {
+        SymbolicStateSpace space = new SymbolicStateSpace(graph);
+        BddManager manager = space.getManager();
+        List<String> none = Collections.emptyList();
+        int finalMarking = manager.ref(space.encodeMarking(endPlace));
+        int improper = manager.ref(manager.diff(
+                manager.var(space.getVariable(endPlace)), finalMarking));
+        SymbolicReachability reachability = new SymbolicReachability(space,
+                space.encodeMarking(startPlace));
+
+        do {
+            int layer = reachability.getLastLayer();
+            int bad = manager.and(layer, improper);
+            if (bad != BddManager.FALSE) {
+                return violation(Verdict.IMPROPER_COMPLETION, reachability, bad, -1);
+            }
+            for (int t = 0; t < space.getTransitionCount(); t++) {
+                bad = manager.and(layer, space.getContact(t));
+                if (bad != BddManager.FALSE) {
+                    return violation(Verdict.UNSAFE, reachability, bad, t);
+                }
+            }
+            bad = manager.ref(space.deadStates(layer));
+            int deadlocks = manager.diff(bad, finalMarking);
+            manager.deref(bad);
+            if (deadlocks != BddManager.FALSE) {
+                return violation(Verdict.DEADLOCK, reachability, deadlocks, -1);
+            }
+        } while (reachability.step());
+
+        int reached = reachability.getReached();
+        int canComplete = manager.ref(finalMarking);
+        int frontier = manager.ref(finalMarking);
+        while (frontier != BddManager.FALSE) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new CancellationException();
+            }
+            int previous = manager.ref(space.preImage(frontier));
+            int restricted = manager.ref(manager.and(previous, reached));
+            manager.deref(previous);
+            manager.deref(frontier);
+            frontier = manager.ref(manager.diff(restricted, canComplete));
+            manager.deref(restricted);
+            int union = manager.ref(manager.or(canComplete, frontier));
+            manager.deref(canComplete);
+            canComplete = union;
+        }
+        manager.deref(frontier);
+        int stuck = manager.diff(reached, canComplete);
+        manager.deref(canComplete);
+        if (stuck != BddManager.FALSE) {
+            return violation(Verdict.NO_OPTION_TO_COMPLETE, reachability, stuck, -1);
+        }
+
+        List<String> deadTransitions = new ArrayList<>();
+        for (int t = 0; t < space.getTransitionCount(); t++) {
+            if (manager.and(reached, space.getEnabled(t)) == BddManager.FALSE) {
+                deadTransitions.add(space.getTransitionId(t));
+            }
+        }
+        if (!deadTransitions.isEmpty()) {
+            return new SoundnessResult(Verdict.DEAD_TRANSITIONS, none, deadTransitions,
+                    reachability.getStateCount(), false);
+        }
+        return new SoundnessResult(Verdict.SOUND, none, none,
+                reachability.getStateCount(), false);
+    }
+
+    /**
+     * Diese Methode erzeugt das Ergebnis für eine gefundene Verletzung mit
+     * einer kürzesten Schaltfolge.
+     *
+     * @param verdict Die Art der Verletzung.
+     * @param reachability Die Breitensuche.
+     * @param states Die Markierungen, in denen die Verletzung vorliegt.
+     * @param contact Bei einem Kontakt die betroffene Transition, sonst -1.
+     * @return Das Ergebnis.
+     */
+    private SoundnessResult violation(Verdict verdict, SymbolicReachability reachability,
+            int states, int contact) {
+        List<String> witness = new ArrayList<>();
+        int[] path = reachability.getPath(states);
+        for (int t : path) {
+            witness.add(graph.getId(graph.getPlaceCount() + t));
+        }
+        if (contact >= 0) {
+            witness.add(graph.getId(graph.getPlaceCount() + contact));
+        }
+        return new SoundnessResult(verdict, witness, Collections.<String>emptyList(),
+                reachability.getStateCount(), false);
+    }
+}
@@ -0,0 +1,456 @@
+package workflownetLogic;
+
+import java.util.Arrays;
+
+/**
+ * Diese Klasse spielt das Markenspiel auf einer Momentaufnahme des Netzes. Sie
+ * legt die Schaltregel des Editors fest, ein Kontakt blockiert also eine
+ * Transition. Dazu hält sie für jede Transition zwei Zähler: die Anzahl der
+ * unmarkierten Stellen im Vorbereich (missing) und die Anzahl der markierten
+ * Stellen im Nachbereich, die nicht zugleich im Vorbereich liegen (contacts).
+ * Eine Transition ist schaltbar, wenn sie einen Vorbereich hat und beide
+ * Zähler 0 sind.
+ *
+ * Ändert sich die Markierung einer Stelle, werden nur die Zähler der
+ * Transitionen in ihrem Vor- und Nachbereich angepasst. Das Schalten einer
+ * Transition kostet damit nur so viel wie die Anzahl der Kanten in ihrer
+ * Umgebung, unabhängig von der Größe des Netzes.
+ *
+ * Stellen können mehrere Marken tragen. Beim Schalten wird von jeder Stelle
+ * im Vorbereich eine Marke entfernt und auf jede Stelle im Nachbereich eine
+ * Marke gelegt. Die Zähler ändern sich nur, wenn eine Stelle ihre letzte
+ * Marke verliert oder ihre erste erhält.
+ *
+ * Die Transitionen werden wie im Paket stateSpace von 0 bis transitionCount-1
+ * nummeriert, Transition t entspricht dem Knoten placeCount + t des NetGraph.
+ * Die Klasse greift nicht auf JavaFX-Objekte zu.
+ */
+public class TokenGame {
+
+    /**
+     * Die Momentaufnahme des Netzes.
+     */
+    private final NetGraph graph;
+
+    /**
+     * Anzahl der Stellen.
+     */
+    private final int placeCount;
+
+    /**
+     * Anzahl der Marken jeder Stelle.
+     */
+    private final int[] tokens;
+
+    /**
+     * Anzahl der markierten Stellen.
+     */
+    private int markedCount;
+
+    /**
+     * Anzahl der unmarkierten Stellen im Vorbereich jeder Transition.
+     */
+    private final int[] missing;
+
+    /**
+     * Anzahl der markierten Stellen im Nachbereich jeder Transition, die nicht
+     * zugleich im Vorbereich liegen.
+     */
+    private final int[] contacts;
+
+    /**
+     * Information darüber, ob die Kante an Position i des Arrays post eine
+     * Transition mit einer Stelle verbindet, die nicht im Vorbereich der
+     * Transition liegt. Nur die Positionen der Transitionen werden verwendet.
+     */
+    private final boolean[] postOnly;
+
+    /**
+     * Information darüber, ob die Kante an Position i des Arrays pre eine
+     * Stelle und eine Transition verbindet, wobei die Stelle nur im Vor- bzw.
+     * nur im Nachbereich der Transition liegt. An den Positionen einer
+     * Transition bedeutet das, dass die Stelle beim Schalten ihre Marke
+     * verliert, an den Positionen einer Stelle, dass die Transition die
+     * Stelle nur markiert und daher einen Kontakt haben kann.
+     */
+    private final boolean[] preOnly;
+
+    /**
+     * Die schaltbaren Transitionen in beliebiger Reihenfolge. Gültig sind die
+     * ersten enabledCount Einträge.
+     */
+    private final int[] enabled;
+
+    /**
+     * Position jeder schaltbaren Transition im Array enabled.
+     */
+    private final int[] enabledPosition;
+
+    /**
+     * Anzahl der schaltbaren Transitionen.
+     */
+    private int enabledCount;
+
+    /**
+     * Die Stellen, deren Markierung sich beim letzten Schalten geändert hat.
+     */
+    private final int[] changedPlaces;
+
+    /**
+     * Anzahl der gültigen Einträge in changedPlaces.
+     */
+    private int changedPlaceCount;
+
+    /**
+     * Die Transitionen in der Umgebung der geänderten Stellen.
+     */
+    private final int[] affected;
+
+    /**
+     * Anzahl der gültigen Einträge in affected.
+     */
+    private int affectedCount;
+
+    /**
+     * Markierung der Transitionen, die bereits in affected stehen. Ein Eintrag
+     * gilt, wenn er dem Wert von round entspricht.
+     */
+    private final int[] affectedStamp;
+
+    /**
+     * Der Zähler, mit dem affectedStamp ohne Löschen zurückgesetzt wird.
+     */
+    private int round;
+
+    /**
+     * Dieser Konstruktor übernimmt die Markierung der Momentaufnahme und
+     * berechnet die Zähler aller Transitionen. Jede Stelle mit mindestens
+     * einer Marke wird als markiert betrachtet.
+     *
+     * @param graph Die Momentaufnahme des Netzes.
+     */
+    public TokenGame(NetGraph graph) {
+        this.graph = graph;
+        this.placeCount = graph.getPlaceCount();
+        int transitionCount = graph.getTransitionCount();
+        this.tokens = new int[placeCount];
+        this.missing = new int[transitionCount];
+        this.contacts = new int[transitionCount];
+        this.enabled = new int[transitionCount];
+        this.enabledPosition = new int[transitionCount];
+        this.changedPlaces = new int[placeCount];
+        this.affected = new int[transitionCount];
+        this.affectedStamp = new int[transitionCount];
+        int[] preStart = graph.getPreStart();
+        int[] pre = graph.getPre();
+        int[] postStart = graph.getPostStart();
+        int[] post = graph.getPost();
+        this.postOnly = new boolean[post.length];
+        this.preOnly = new boolean[pre.length];
+
+        for (int p = 0; p < placeCount; p++) {
+            tokens[p] = Math.max(0, graph.getMarking(p));
+            if (tokens[p] > 0) {
+                markedCount++;
+            }
+        }
+        for (int t = 0; t < transitionCount; t++) {
+            int v = placeCount + t;
+            for (int i = preStart[v]; i < preStart[v + 1]; i++) {
+                preOnly[i] = !contains(post, postStart[v], postStart[v + 1], pre[i]);
+                if (tokens[pre[i]] == 0) {
+                    missing[t]++;
+                }
+            }
+            for (int i = postStart[v]; i < postStart[v + 1]; i++) {
+                postOnly[i] = !contains(pre, preStart[v], preStart[v + 1], post[i]);
+                if (postOnly[i] && tokens[post[i]] > 0) {
+                    contacts[t]++;
+                }
+            }
+            if (isEnabled(t)) {
+                enabledPosition[t] = enabledCount;
+                enabled[enabledCount++] = t;
+            }
+        }
+        // Für die Aktualisierung von einer Stelle aus wird an ihren Positionen
+        // festgehalten, welche Erzeuger sie nicht zugleich verbrauchen.
+        for (int p = 0; p < placeCount; p++) {
+            for (int i = preStart[p]; i < preStart[p + 1]; i++) {
+                preOnly[i] = !contains(pre, preStart[pre[i]], preStart[pre[i] + 1], p);
+            }
+        }
+    }
+
+    /**
+     * Diese Methode überprüft, ob ein Wert in einem Abschnitt eines Arrays
+     * vorkommt.
+     *
+     * @param array Das Array.
+     * @param from Der Beginn des Abschnitts.
+     * @param to Das Ende des Abschnitts (exklusiv).
+     * @param value Der gesuchte Wert.
+     * @return true, falls der Wert vorkommt.
+     */
+    private static boolean contains(int[] array, int from, int to, int value) {
+        for (int i = from; i < to; i++) {
+            if (array[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Diese Methode gibt die Momentaufnahme zurück.
+     *
+     * @return Das Attribut graph.
+     */
+    public NetGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * Diese Methode gibt an, ob eine Stelle markiert ist.
+     *
+     * @param p Index der Stelle.
+     * @return true, falls die Stelle mindestens eine Marke hat.
+     */
+    public boolean isMarked(int p) {
+        return tokens[p] > 0;
+    }
+
+    /**
+     * Diese Methode gibt die Anzahl der Marken einer Stelle zurück.
+     *
+     * @param p Index der Stelle.
+     * @return Anzahl der Marken.
+     */
+    public int getTokens(int p) {
+        return tokens[p];
+    }
+
+    /**
+     * Diese Methode gibt die Anzahl der markierten Stellen zurück.
+     *
+     * @return Das Attribut markedCount.
+     */
+    public int getMarkedCount() {
+        return markedCount;
+    }
+
+    /**
+     * Diese Methode gibt an, ob eine Transition schaltbar ist.
+     *
+     * @param t Nummer der Transition.
+     * @return true, falls die Transition schaltbar ist.
+     */
+    public boolean isEnabled(int t) {
+        int v = placeCount + t;
+        return missing[t] == 0 && contacts[t] == 0 && graph.getPreCount(v) > 0;
+    }
+
+    /**
+     * Diese Methode gibt an, ob eine Transition durch einen Kontakt blockiert
+     * ist, d.h. ihr Vorbereich ist markiert, aber auch eine Stelle ihres
+     * Nachbereichs.
+     *
+     * @param t Nummer der Transition.
+     * @return true, falls ein Kontakt vorliegt.
+     */
+    public boolean hasContact(int t) {
+        int v = placeCount + t;
+        return missing[t] == 0 && contacts[t] > 0 && graph.getPreCount(v) > 0;
+    }
+
+    /**
+     * Diese Methode gibt die Anzahl der schaltbaren Transitionen zurück.
+     *
+     * @return Das Attribut enabledCount.
+     */
+    public int getEnabledCount() {
+        return enabledCount;
+    }
+
+    /**
+     * Diese Methode gibt eine schaltbare Transition zurück. Die Reihenfolge
+     * ändert sich beim Schalten.
+     *
+     * @param i Position in der Liste der schaltbaren Transitionen (0 bis
+     * getEnabledCount()-1).
+     * @return Nummer der Transition.
+     */
+    public int getEnabledTransition(int i) {
+        return enabled[i];
+    }
+
+    /**
+     * Diese Methode setzt die Anzahl der Marken einer Stelle und passt die
+     * Zähler der benachbarten Transitionen an. Die betroffenen Transitionen
+     * können danach mit getAffectedTransition abgefragt werden.
+     *
+     * @param p Index der Stelle.
+     * @param count Anzahl der Marken (negative Werte werden als 0 behandelt).
+     */
+    public void setTokens(int p, int count) {
+        startRound();
+        count = Math.max(0, count);
+        if (tokens[p] != count) {
+            changedPlaces[changedPlaceCount++] = p;
+            boolean wasMarked = tokens[p] > 0;
+            tokens[p] = count;
+            if (wasMarked != count > 0) {
+                update(p, count > 0);
+            }
+        }
+    }
+
+    /**
+     * Diese Methode lässt eine schaltbare Transition schalten. Die Stellen,
+     * deren Markierung sich geändert hat, und die Transitionen in ihrer
+     * Umgebung können danach abgefragt werden.
+     *
+     * @param t Nummer der Transition.
+     * @throws IllegalStateException Falls die Transition nicht schaltbar ist.
+     */
+    public void fire(int t) {
+        if (!isEnabled(t)) {
+            throw new IllegalStateException("Die Transition " + graph.getId(placeCount + t)
+                    + " ist nicht schaltbar.");
+        }
+        startRound();
+        int v = placeCount + t;
+        int[] preStart = graph.getPreStart();
+        int[] pre = graph.getPre();
+        int[] postStart = graph.getPostStart();
+        int[] post = graph.getPost();
+        for (int i = preStart[v]; i < preStart[v + 1]; i++) {
+            int p = pre[i];
+            if (preOnly[i]) {
+                changedPlaces[changedPlaceCount++] = p;
+                if (--tokens[p] == 0) {
+                    update(p, false);
+                }
+            }
+        }
+        for (int i = postStart[v]; i < postStart[v + 1]; i++) {
+            int p = post[i];
+            if (postOnly[i]) {
+                changedPlaces[changedPlaceCount++] = p;
+                if (++tokens[p] == 1) {
+                    update(p, true);
+                }
+            }
+        }
+    }
+
+    /**
+     * Diese Methode setzt die Listen der geänderten Stellen und betroffenen
+     * Transitionen zurück.
+     */
+    private void startRound() {
+        changedPlaceCount = 0;
+        affectedCount = 0;
+        if (++round == Integer.MAX_VALUE) {
+            Arrays.fill(affectedStamp, 0);
+            round = 1;
+        }
+    }
+
+    /**
+     * Diese Methode passt die Zähler der Transitionen im Vor- und Nachbereich
+     * einer Stelle an, die ihre erste Marke erhalten oder ihre letzte verloren
+     * hat.
+     *
+     * @param p Index der Stelle.
+     * @param value true, falls die Stelle jetzt markiert ist.
+     */
+    private void update(int p, boolean value) {
+        int delta = value ? -1 : 1;
+        markedCount -= delta;
+        int[] postStart = graph.getPostStart();
+        int[] post = graph.getPost();
+        int[] preStart = graph.getPreStart();
+        int[] pre = graph.getPre();
+        // Verbraucher der Stelle: die Anzahl der fehlenden Marken ändert sich.
+        for (int i = postStart[p]; i < postStart[p + 1]; i++) {
+            int t = post[i] - placeCount;
+            boolean before = isEnabled(t);
+            missing[t] += delta;
+            afterUpdate(t, before);
+        }
+        // Erzeuger der Stelle, die sie nicht zugleich verbrauchen: die Anzahl
+        // der Kontakte ändert sich.
+        for (int i = preStart[p]; i < preStart[p + 1]; i++) {
+            int t = pre[i] - placeCount;
+            if (preOnly[i]) {
+                boolean before = isEnabled(t);
+                contacts[t] -= delta;
+                afterUpdate(t, before);
+            }
+        }
+    }
+
+    /**
+     * Diese Methode passt nach der Änderung eines Zählers die Liste der
+     * schaltbaren Transitionen an und vermerkt die Transition als betroffen.
+     *
+     * @param t Nummer der Transition.
+     * @param before Information darüber, ob sie vorher schaltbar war.
+     */
+    private void afterUpdate(int t, boolean before) {
+        boolean after = isEnabled(t);
+        if (after && !before) {
+            enabledPosition[t] = enabledCount;
+            enabled[enabledCount++] = t;
+        } else if (before && !after) {
+            int last = enabled[--enabledCount];
+            enabled[enabledPosition[t]] = last;
+            enabledPosition[last] = enabledPosition[t];
+        }
+        if (affectedStamp[t] != round) {
+            affectedStamp[t] = round;
+            affected[affectedCount++] = t;
+        }
+    }
+
+    /**
+     * Diese Methode gibt die Anzahl der Stellen zurück, deren Markierung sich
+     * beim letzten Aufruf von fire oder setTokens geändert hat.
+     *
+     * @return Das Attribut changedPlaceCount.
+     */
+    public int getChangedPlaceCount() {
+        return changedPlaceCount;
+    }
+
+    /**
+     * Diese Methode gibt eine geänderte Stelle zurück.
+     *
+     * @param i Position in der Liste der geänderten Stellen.
+     * @return Index der Stelle.
+     */
+    public int getChangedPlace(int i) {
+        return changedPlaces[i];
+    }
+
+    /**
+     * Diese Methode gibt die Anzahl der Transitionen zurück, die beim letzten
+     * Aufruf von fire oder setTokens betroffen waren.
+     *
+     * @return Das Attribut affectedCount.
+     */
+    public int getAffectedCount() {
+        return affectedCount;
+    }
+
+    /**
+     * Diese Methode gibt eine betroffene Transition zurück.
+     *
+     * @param i Position in der Liste der betroffenen Transitionen.
+     * @return Nummer der Transition.
+     */
+    public int getAffectedTransition(int i) {
+        return affected[i];
+    }
+}
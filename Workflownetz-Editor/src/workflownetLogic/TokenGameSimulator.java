@@ -0,0 +1,351 @@
+package workflownetLogic;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Diese Klasse spielt das Markenspiel eines Workflownetzes viele Male ohne
+ * Benutzeroberfläche durch. Jeder Lauf beginnt mit einer Marke auf der
+ * Startstelle und lässt so lange eine zufällig gewählte schaltbare Transition
+ * schalten, bis keine Transition mehr schaltbar ist oder die maximale Anzahl
+ * an Schaltvorgängen erreicht wird. Die Markierung liegt dabei in einem
+ * TokenGame-Objekt, so dass ein Schaltvorgang nur die Umgebung der
+ * Transition berührt. Auch der Beginn und das Ende eines Laufs kosten nur so
+ * viel wie der Lauf selbst: Zurückgesetzt werden nur die Stellen, deren
+ * Markierung sich im vorigen Lauf geändert hat, und das Ende wird an der
+ * Anzahl der markierten Stellen erkannt.
+ *
+ * Die Läufe werden von einem ForkJoinPool in Teilbereiche zerlegt. Jeder
+ * Teilbereich erhält einen eigenen Zufallsgenerator, der durch
+ * SplittableRandom.split vom Generator des übergeordneten Bereichs abgeleitet
+ * wird. Da die Zerlegung nur von der Anzahl der Läufe abhängt, liefert ein
+ * fester Startwert unabhängig von der Anzahl der Threads dasselbe Ergebnis.
+ *
+ * Wird der ausführende Thread unterbrochen, bricht die Simulation mit einer
+ * CancellationException ab.
+ */
+public class TokenGameSimulator {
+
+    /**
+     * Anzahl der Läufe, ab der ein Teilbereich weiter zerlegt wird.
+     */
+    private static final int GRAIN = 1024;
+
+    /**
+     * Die Momentaufnahme des Workflownetzes.
+     */
+    private final NetGraph graph;
+
+    /**
+     * Index der Startstelle.
+     */
+    private final int startPlace;
+
+    /**
+     * Index der Endstelle.
+     */
+    private final int endPlace;
+
+    /**
+     * Anzahl der Threads.
+     */
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Maximale Anzahl an Schaltvorgängen je Lauf.
+     */
+    private int maxSteps = 10000;
+
+    /**
+     * Der Startwert der Zufallsgeneratoren.
+     */
+    private long seed = System.nanoTime();
+
+    /**
+     * Dieser Konstruktor initialisiert die Simulation eines gültigen
+     * Workflownetzes.
+     *
+     * @param graph Die Momentaufnahme des Workflownetzes.
+     * @param startPlace Index der Startstelle.
+     * @param endPlace Index der Endstelle.
+     */
+    public TokenGameSimulator(NetGraph graph, int startPlace, int endPlace) {
+        this.graph = graph;
+        this.startPlace = startPlace;
+        this.endPlace = endPlace;
+    }
+
+    /**
+     * Diese Methode setzt die Anzahl der Threads.
+     *
+     * @param threads Anzahl der Threads (mindestens 1).
+     * @return Dieses Objekt.
+     */
+    public TokenGameSimulator setThreads(int threads) {
+        this.threads = Math.max(1, threads);
+        return this;
+    }
+
+    /**
+     * Diese Methode setzt die maximale Anzahl an Schaltvorgängen je Lauf.
+     *
+     * @param maxSteps Die maximale Anzahl an Schaltvorgängen.
+     * @return Dieses Objekt.
+     */
+    public TokenGameSimulator setMaxSteps(int maxSteps) {
+        this.maxSteps = Math.max(0, maxSteps);
+        return this;
+    }
+
+    /**
+     * Diese Methode setzt den Startwert der Zufallsgeneratoren.
+     *
+     * @param seed Der Startwert.
+     * @return Dieses Objekt.
+     */
+    public TokenGameSimulator setSeed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    /**
+     * Diese Methode führt die übergebene Anzahl an Läufen durch.
+     *
+     * @param runs Anzahl der Läufe.
+     * @return Das Ergebnis der Simulation.
+     */
+    public SimulationResult simulate(long runs) {
+        Statistics statistics;
+        if (runs <= GRAIN || threads == 1) {
+            statistics = new SimulateTask(new SplittableRandom(seed), 0, runs).compute();
+        } else {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                statistics = pool.invoke(new SimulateTask(new SplittableRandom(seed), 0, runs));
+            } finally {
+                pool.shutdown();
+            }
+        }
+        return new SimulationResult(graph, runs, statistics.outcomeCounts,
+                statistics.outcomeLengths, statistics.firingCounts,
+                Arrays.copyOf(statistics.lengthHistogram, statistics.maxLength + 1));
+    }
+
+    /**
+     * Die gesammelten Zahlen eines Teilbereichs der Läufe.
+     */
+    private class Statistics {
+
+        /**
+         * Anzahl der Läufe je Ende.
+         */
+        private final long[] outcomeCounts = new long[SimulationResult.Outcome.values().length];
+
+        /**
+         * Summe der Pfadlängen je Ende.
+         */
+        private final long[] outcomeLengths = new long[outcomeCounts.length];
+
+        /**
+         * Anzahl der Schaltvorgänge je Transition.
+         */
+        private final long[] firingCounts = new long[graph.getTransitionCount()];
+
+        /**
+         * Anzahl der Läufe je Pfadlänge. Das Array wächst bei Bedarf.
+         */
+        private long[] lengthHistogram = new long[64];
+
+        /**
+         * Die größte beobachtete Pfadlänge.
+         */
+        private int maxLength;
+
+        /**
+         * Diese Methode vermerkt das Ende eines Laufs.
+         *
+         * @param outcome Das Ende des Laufs.
+         * @param length Die Pfadlänge des Laufs.
+         */
+        void add(SimulationResult.Outcome outcome, int length) {
+            outcomeCounts[outcome.ordinal()]++;
+            outcomeLengths[outcome.ordinal()] += length;
+            if (length >= lengthHistogram.length) {
+                lengthHistogram = Arrays.copyOf(lengthHistogram,
+                        Math.max(length + 1, lengthHistogram.length * 2));
+            }
+            lengthHistogram[length]++;
+            maxLength = Math.max(maxLength, length);
+        }
+
+        /**
+         * Diese Methode addiert die Zahlen eines anderen Teilbereichs.
+         *
+         * @param other Die Zahlen des anderen Teilbereichs.
+         */
+        void merge(Statistics other) {
+            for (int i = 0; i < outcomeCounts.length; i++) {
+                outcomeCounts[i] += other.outcomeCounts[i];
+                outcomeLengths[i] += other.outcomeLengths[i];
+            }
+            for (int t = 0; t < firingCounts.length; t++) {
+                firingCounts[t] += other.firingCounts[t];
+            }
+            if (other.maxLength >= lengthHistogram.length) {
+                lengthHistogram = Arrays.copyOf(lengthHistogram, other.maxLength + 1);
+            }
+            for (int length = 0; length <= other.maxLength; length++) {
+                lengthHistogram[length] += other.lengthHistogram[length];
+            }
+            maxLength = Math.max(maxLength, other.maxLength);
+        }
+    }
+
+    /**
+     * Diese Aufgabe führt einen Teilbereich der Läufe durch. Große Bereiche
+     * werden halbiert, wobei die zweite Hälfte einen abgespaltenen
+     * Zufallsgenerator erhält.
+     */
+    private class SimulateTask extends RecursiveTask<Statistics> {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Der Zufallsgenerator dieses Teilbereichs.
+         */
+        private final SplittableRandom random;
+
+        /**
+         * Anfang des Teilbereichs (inklusive).
+         */
+        private final long from;
+
+        /**
+         * Ende des Teilbereichs (exklusive).
+         */
+        private final long to;
+
+        /**
+         * Die Stellen, deren Markierung sich im aktuellen Lauf geändert hat.
+         */
+        private int[] touched;
+
+        /**
+         * Information darüber, ob eine Stelle bereits in touched steht.
+         */
+        private boolean[] isTouched;
+
+        /**
+         * Anzahl der gültigen Einträge in touched.
+         */
+        private int touchedCount;
+
+        /**
+         * Dieser Konstruktor initialisiert die Aufgabe.
+         *
+         * @param random Der Zufallsgenerator des Teilbereichs.
+         * @param from Anfang des Teilbereichs.
+         * @param to Ende des Teilbereichs.
+         */
+        SimulateTask(SplittableRandom random, long from, long to) {
+            this.random = random;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Statistics compute() {
+            if (to - from > GRAIN) {
+                long middle = (from + to) >>> 1;
+                SimulateTask right = new SimulateTask(random.split(), middle, to);
+                right.fork();
+                Statistics statistics = new SimulateTask(random, from, middle).compute();
+                statistics.merge(right.join());
+                return statistics;
+            }
+            Statistics statistics = new Statistics();
+            TokenGame game = new TokenGame(graph);
+            int placeCount = graph.getPlaceCount();
+            touched = new int[placeCount];
+            isTouched = new boolean[placeCount];
+            // Die Markierung der Momentaufnahme wird einmal vollständig
+            // entfernt, danach setzt jeder Lauf nur seine Stellen zurück.
+            for (int p = 0; p < placeCount; p++) {
+                game.setTokens(p, 0);
+            }
+            for (long run = from; run < to; run++) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new CancellationException();
+                }
+                simulateRun(game, statistics);
+            }
+            return statistics;
+        }
+
+        /**
+         * Diese Methode führt einen Lauf durch und vermerkt sein Ende.
+         *
+         * @param game Das Markenspiel, dessen Markierung zurückgesetzt wird.
+         * @param statistics Die Zahlen des Teilbereichs.
+         */
+        private void simulateRun(TokenGame game, Statistics statistics) {
+            for (int i = 0; i < touchedCount; i++) {
+                game.setTokens(touched[i], 0);
+                isTouched[touched[i]] = false;
+            }
+            touchedCount = 0;
+            game.setTokens(startPlace, 1);
+            touch(startPlace);
+            int steps = 0;
+            while (game.getEnabledCount() > 0) {
+                if (steps == maxSteps) {
+                    statistics.add(SimulationResult.Outcome.STEP_LIMIT, steps);
+                    return;
+                }
+                int t = game.getEnabledTransition(random.nextInt(game.getEnabledCount()));
+                game.fire(t);
+                for (int i = 0; i < game.getChangedPlaceCount(); i++) {
+                    touch(game.getChangedPlace(i));
+                }
+                statistics.firingCounts[t]++;
+                steps++;
+            }
+            statistics.add(endOutcome(game), steps);
+        }
+
+        /**
+         * Diese Methode vermerkt eine Stelle, deren Markierung sich im
+         * aktuellen Lauf geändert hat.
+         *
+         * @param p Index der Stelle.
+         */
+        private void touch(int p) {
+            if (!isTouched[p]) {
+                isTouched[p] = true;
+                touched[touchedCount++] = p;
+            }
+        }
+
+        /**
+         * Diese Methode bestimmt das Ende eines Laufs, in dem keine Transition
+         * mehr schaltbar ist. Ist die Endstelle markiert, ist der Lauf genau
+         * dann korrekt beendet, wenn sie die einzige markierte Stelle ist und
+         * genau eine Marke trägt.
+         *
+         * @param game Das Markenspiel.
+         * @return Das Ende des Laufs.
+         */
+        private SimulationResult.Outcome endOutcome(TokenGame game) {
+            if (!game.isMarked(endPlace)) {
+                return SimulationResult.Outcome.DEADLOCK;
+            }
+            if (game.getTokens(endPlace) > 1 || game.getMarkedCount() > 1) {
+                return SimulationResult.Outcome.IMPROPER_COMPLETION;
+            }
+            return SimulationResult.Outcome.COMPLETED;
+        }
+    }
+}
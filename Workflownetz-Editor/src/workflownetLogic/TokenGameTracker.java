@@ -0,0 +1,503 @@
+package workflownetLogic;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import petriNodes.Arc;
+import petriNodes.PetriNode;
+import petriNodes.Place;
+import petriNodes.Transition;
+
+/**
+ * Diese Klasse hält das Markenspiel des Editors aktuell, während das Netz
+ * bearbeitet wird. Sie verwendet dieselbe Schaltregel und dieselben Zähler
+ * wie TokenGame (missing und contacts), arbeitet aber direkt auf den
+ * PetriNode-Objekten statt auf einer Momentaufnahme. Eine Änderung der
+ * Struktur muss daher keine Momentaufnahme erzeugen: Beim Hinzufügen oder
+ * Entfernen einer Kante werden nur die Zähler der Transition an der Kante neu
+ * berechnet, beim Hinzufügen oder Entfernen eines Knotens nur die Zähler des
+ * Knotens selbst.
+ *
+ * Wie im WorkflownetStatusTracker erhält jeder Knoten einen Platz (slot), über
+ * den er in den Arrays adressiert wird. Freie Plätze werden wiederverwendet.
+ */
+public class TokenGameTracker {
+
+    /**
+     * Zuordnung der Knoten zu ihren Plätzen.
+     */
+    private final Map<PetriNode, Integer> slots = new HashMap<>();
+
+    /**
+     * Die Knoten, nach Platz geordnet.
+     */
+    private PetriNode[] nodes = new PetriNode[16];
+
+    /**
+     * Anzahl der Marken je Platz einer Stelle.
+     */
+    private int[] tokens = new int[16];
+
+    /**
+     * Anzahl der unmarkierten Stellen im Vorbereich je Platz einer Transition.
+     */
+    private int[] missing = new int[16];
+
+    /**
+     * Anzahl der markierten Stellen im Nachbereich je Platz einer Transition,
+     * die nicht zugleich im Vorbereich liegen.
+     */
+    private int[] contacts = new int[16];
+
+    /**
+     * Information darüber, ob die Transition auf einem Platz in enabledCount
+     * gezählt ist.
+     */
+    private boolean[] enabled = new boolean[16];
+
+    /**
+     * Stapel der freigegebenen Plätze.
+     */
+    private int[] freeSlots = new int[16];
+
+    /**
+     * Anzahl der Einträge in freeSlots.
+     */
+    private int freeCount = 0;
+
+    /**
+     * Anzahl der jemals vergebenen Plätze.
+     */
+    private int slotCount = 0;
+
+    /**
+     * Anzahl der markierten Stellen.
+     */
+    private int markedCount;
+
+    /**
+     * Anzahl der schaltbaren Transitionen.
+     */
+    private int enabledCount;
+
+    /**
+     * Die Plätze der Stellen, deren Markierung sich beim letzten Schalten
+     * geändert hat.
+     */
+    private int[] changedPlaces = new int[16];
+
+    /**
+     * Anzahl der gültigen Einträge in changedPlaces.
+     */
+    private int changedPlaceCount;
+
+    /**
+     * Die Plätze der Transitionen in der Umgebung der geänderten Stellen.
+     */
+    private int[] affected = new int[16];
+
+    /**
+     * Anzahl der gültigen Einträge in affected.
+     */
+    private int affectedCount;
+
+    /**
+     * Markierung der Plätze, die bereits in affected stehen. Ein Eintrag gilt,
+     * wenn er dem Wert von round entspricht.
+     */
+    private int[] affectedStamp = new int[16];
+
+    /**
+     * Der Zähler, mit dem affectedStamp ohne Löschen zurückgesetzt wird.
+     */
+    private int round;
+
+    /**
+     * Diese Methode baut den Zustand für die übergebenen Knoten vollständig
+     * neu auf und übernimmt die Markierung der Stellen.
+     *
+     * @param petriNodes Alle Knoten des Netzes.
+     */
+    public void reset(Collection<PetriNode> petriNodes) {
+        slots.clear();
+        Arrays.fill(nodes, null);
+        freeCount = 0;
+        slotCount = 0;
+        markedCount = 0;
+        enabledCount = 0;
+        // Die Stellen zuerst, damit die Zähler der Transitionen ihre
+        // Markierung vorfinden.
+        for (PetriNode node : petriNodes) {
+            if (node instanceof Place) {
+                nodeAdded(node);
+            }
+        }
+        for (PetriNode node : petriNodes) {
+            if (node instanceof Transition) {
+                nodeAdded(node);
+            }
+        }
+    }
+
+    /**
+     * Diese Methode wird aufgerufen, nachdem ein Knoten dem Netz hinzugefügt
+     * wurde. Eine Stelle bringt ihre Markierung mit.
+     *
+     * @param node Der neue Knoten.
+     */
+    public void nodeAdded(PetriNode node) {
+        int slot = freeCount > 0 ? freeSlots[--freeCount] : slotCount++;
+        ensureCapacity(slotCount);
+        slots.put(node, slot);
+        nodes[slot] = node;
+        if (node instanceof Place) {
+            tokens[slot] = Math.max(0, ((Place) node).getTokens());
+            if (tokens[slot] > 0) {
+                markedCount++;
+            }
+        } else {
+            enabled[slot] = false;
+            recompute(slot);
+        }
+    }
+
+    /**
+     * Diese Methode wird aufgerufen, nachdem ein Knoten und alle mit ihm
+     * verbundenen Kanten aus dem Netz entfernt wurden.
+     *
+     * @param node Der entfernte Knoten.
+     */
+    public void nodeRemoved(PetriNode node) {
+        Integer slot = slots.remove(node);
+        if (slot == null) {
+            return;
+        }
+        if (node instanceof Place) {
+            if (tokens[slot] > 0) {
+                markedCount--;
+            }
+        } else if (enabled[slot]) {
+            enabled[slot] = false;
+            enabledCount--;
+        }
+        nodes[slot] = null;
+        freeSlots[freeCount++] = slot;
+    }
+
+    /**
+     * Diese Methode wird aufgerufen, nachdem eine Kante in die Kantenlisten
+     * ihrer Knoten eingetragen oder aus ihnen entfernt wurde. Es werden nur
+     * die Zähler der Transition an der Kante neu berechnet.
+     *
+     * @param arc Die Kante.
+     */
+    public void arcChanged(Arc arc) {
+        PetriNode transition = arc.getStartNode() instanceof Transition
+                ? arc.getStartNode() : arc.getEndNode();
+        Integer slot = slots.get(transition);
+        if (slot != null) {
+            recompute(slot);
+        }
+    }
+
+    /**
+     * Diese Methode gibt an, ob eine Transition schaltbar ist.
+     *
+     * @param transition Die Transition.
+     * @return true, falls die Transition schaltbar ist.
+     */
+    public boolean isEnabled(Transition transition) {
+        Integer slot = slots.get(transition);
+        return slot != null && isEnabled(slot);
+    }
+
+    /**
+     * Diese Methode gibt an, ob eine Transition durch einen Kontakt blockiert
+     * ist, d.h. ihr Vorbereich ist markiert, aber auch eine Stelle ihres
+     * Nachbereichs.
+     *
+     * @param transition Die Transition.
+     * @return true, falls ein Kontakt vorliegt.
+     */
+    public boolean hasContact(Transition transition) {
+        Integer slot = slots.get(transition);
+        return slot != null && missing[slot] == 0 && contacts[slot] > 0
+                && !transition.getPrevArcs().isEmpty();
+    }
+
+    /**
+     * Diese Methode gibt die Anzahl der Marken einer Stelle zurück.
+     *
+     * @param place Die Stelle.
+     * @return Anzahl der Marken.
+     */
+    public int getTokens(Place place) {
+        Integer slot = slots.get(place);
+        return slot == null ? 0 : tokens[slot];
+    }
+
+    /**
+     * Diese Methode gibt die Anzahl der markierten Stellen zurück.
+     *
+     * @return Das Attribut markedCount.
+     */
+    public int getMarkedCount() {
+        return markedCount;
+    }
+
+    /**
+     * Diese Methode gibt die Anzahl der schaltbaren Transitionen zurück.
+     *
+     * @return Das Attribut enabledCount.
+     */
+    public int getEnabledCount() {
+        return enabledCount;
+    }
+
+    /**
+     * Diese Methode setzt die Anzahl der Marken einer Stelle und passt die
+     * Zähler der benachbarten Transitionen an. Die betroffenen Transitionen
+     * können danach mit getAffectedTransition abgefragt werden.
+     *
+     * @param place Die Stelle.
+     * @param count Anzahl der Marken (negative Werte werden als 0 behandelt).
+     */
+    public void setTokens(Place place, int count) {
+        startRound();
+        Integer slot = slots.get(place);
+        if (slot != null) {
+            changeTokens(slot, Math.max(0, count));
+        }
+    }
+
+    /**
+     * Diese Methode lässt eine schaltbare Transition schalten. Wie in
+     * TokenGame behalten Stellen, die zugleich im Vor- und Nachbereich liegen,
+     * ihre Marken. Die Stellen, deren Markierung sich geändert hat, und die
+     * Transitionen in ihrer Umgebung können danach abgefragt werden.
+     *
+     * @param transition Die Transition.
+     * @throws IllegalStateException Falls die Transition nicht schaltbar ist.
+     */
+    public void fire(Transition transition) {
+        if (!isEnabled(transition)) {
+            throw new IllegalStateException("Die Transition " + transition.getId()
+                    + " ist nicht schaltbar.");
+        }
+        startRound();
+        for (Arc arc : transition.getPrevArcs()) {
+            if (!isPost(transition, arc.getStartNode())) {
+                int p = slots.get(arc.getStartNode());
+                changeTokens(p, tokens[p] - 1);
+            }
+        }
+        for (Arc arc : transition.getNextArcs()) {
+            if (!isPre(transition, arc.getEndNode())) {
+                int p = slots.get(arc.getEndNode());
+                changeTokens(p, tokens[p] + 1);
+            }
+        }
+    }
+
+    /**
+     * Diese Methode gibt die Anzahl der Stellen zurück, deren Markierung sich
+     * beim letzten Schalten bzw. Setzen von Marken geändert hat.
+     *
+     * @return Das Attribut changedPlaceCount.
+     */
+    public int getChangedPlaceCount() {
+        return changedPlaceCount;
+    }
+
+    /**
+     * Diese Methode gibt eine Stelle zurück, deren Markierung sich beim letzten
+     * Schalten bzw. Setzen von Marken geändert hat.
+     *
+     * @param i Position in der Liste (0 bis getChangedPlaceCount()-1).
+     * @return Die Stelle.
+     */
+    public Place getChangedPlace(int i) {
+        return (Place) nodes[changedPlaces[i]];
+    }
+
+    /**
+     * Diese Methode gibt die Anzahl der Transitionen zurück, deren Zähler sich
+     * beim letzten Schalten bzw. Setzen von Marken geändert haben.
+     *
+     * @return Das Attribut affectedCount.
+     */
+    public int getAffectedCount() {
+        return affectedCount;
+    }
+
+    /**
+     * Diese Methode gibt eine Transition zurück, deren Zähler sich beim letzten
+     * Schalten bzw. Setzen von Marken geändert haben.
+     *
+     * @param i Position in der Liste (0 bis getAffectedCount()-1).
+     * @return Die Transition.
+     */
+    public Transition getAffectedTransition(int i) {
+        return (Transition) nodes[affected[i]];
+    }
+
+    /**
+     * Diese Methode gibt an, ob die Transition auf einem Platz schaltbar ist.
+     *
+     * @param slot Der Platz der Transition.
+     * @return true, falls die Transition schaltbar ist.
+     */
+    private boolean isEnabled(int slot) {
+        return missing[slot] == 0 && contacts[slot] == 0
+                && !nodes[slot].getPrevArcs().isEmpty();
+    }
+
+    /**
+     * Diese Methode überprüft, ob eine Stelle im Vorbereich einer Transition
+     * liegt.
+     *
+     * @param transition Die Transition.
+     * @param place Die Stelle.
+     * @return true, falls eine Kante von der Stelle zur Transition führt.
+     */
+    private static boolean isPre(PetriNode transition, PetriNode place) {
+        for (Arc arc : transition.getPrevArcs()) {
+            if (arc.getStartNode() == place) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Diese Methode überprüft, ob eine Stelle im Nachbereich einer Transition
+     * liegt.
+     *
+     * @param transition Die Transition.
+     * @param place Die Stelle.
+     * @return true, falls eine Kante von der Transition zur Stelle führt.
+     */
+    private static boolean isPost(PetriNode transition, PetriNode place) {
+        for (Arc arc : transition.getNextArcs()) {
+            if (arc.getEndNode() == place) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Diese Methode berechnet die Zähler einer Transition aus ihren Kanten neu.
+     * Die Kosten hängen nur von der Anzahl ihrer Kanten ab.
+     *
+     * @param slot Der Platz der Transition.
+     */
+    private void recompute(int slot) {
+        PetriNode transition = nodes[slot];
+        missing[slot] = 0;
+        contacts[slot] = 0;
+        for (Arc arc : transition.getPrevArcs()) {
+            if (tokens[slots.get(arc.getStartNode())] == 0) {
+                missing[slot]++;
+            }
+        }
+        for (Arc arc : transition.getNextArcs()) {
+            PetriNode place = arc.getEndNode();
+            if (tokens[slots.get(place)] > 0 && !isPre(transition, place)) {
+                contacts[slot]++;
+            }
+        }
+        refresh(slot);
+    }
+
+    /**
+     * Diese Methode setzt die Anzahl der Marken einer Stelle und passt die
+     * Zähler der Transitionen in ihrem Vor- und Nachbereich an, falls die
+     * Stelle ihre erste Marke erhalten oder ihre letzte verloren hat.
+     *
+     * @param slot Der Platz der Stelle.
+     * @param count Die neue Anzahl der Marken.
+     */
+    private void changeTokens(int slot, int count) {
+        if (tokens[slot] == count) {
+            return;
+        }
+        changedPlaces[changedPlaceCount++] = slot;
+        boolean wasMarked = tokens[slot] > 0;
+        tokens[slot] = count;
+        if (wasMarked == count > 0) {
+            return;
+        }
+        int delta = count > 0 ? -1 : 1;
+        markedCount -= delta;
+        PetriNode place = nodes[slot];
+        // Verbraucher der Stelle: die Anzahl der fehlenden Marken ändert sich.
+        for (Arc arc : place.getNextArcs()) {
+            int t = slots.get(arc.getEndNode());
+            missing[t] += delta;
+            refresh(t);
+        }
+        // Erzeuger der Stelle, die sie nicht zugleich verbrauchen: die Anzahl
+        // der Kontakte ändert sich.
+        for (Arc arc : place.getPrevArcs()) {
+            if (!isPre(arc.getStartNode(), place)) {
+                int t = slots.get(arc.getStartNode());
+                contacts[t] -= delta;
+                refresh(t);
+            }
+        }
+    }
+
+    /**
+     * Diese Methode passt nach der Änderung eines Zählers enabledCount an und
+     * vermerkt die Transition als betroffen.
+     *
+     * @param slot Der Platz der Transition.
+     */
+    private void refresh(int slot) {
+        boolean value = isEnabled(slot);
+        if (enabled[slot] != value) {
+            enabled[slot] = value;
+            enabledCount += value ? 1 : -1;
+        }
+        if (affectedStamp[slot] != round) {
+            affectedStamp[slot] = round;
+            affected[affectedCount++] = slot;
+        }
+    }
+
+    /**
+     * Diese Methode setzt die Listen der geänderten Stellen und betroffenen
+     * Transitionen zurück.
+     */
+    private void startRound() {
+        changedPlaceCount = 0;
+        affectedCount = 0;
+        if (++round == Integer.MAX_VALUE) {
+            Arrays.fill(affectedStamp, 0);
+            round = 1;
+        }
+    }
+
+    /**
+     * Diese Methode vergrößert die Arrays, falls der übergebene Platz nicht
+     * mehr hineinpasst.
+     *
+     * @param size Die benötigte Anzahl an Plätzen.
+     */
+    private void ensureCapacity(int size) {
+        if (size > nodes.length) {
+            int length = Math.max(size, nodes.length * 2);
+            nodes = Arrays.copyOf(nodes, length);
+            tokens = Arrays.copyOf(tokens, length);
+            missing = Arrays.copyOf(missing, length);
+            contacts = Arrays.copyOf(contacts, length);
+            enabled = Arrays.copyOf(enabled, length);
+            freeSlots = Arrays.copyOf(freeSlots, length);
+            changedPlaces = Arrays.copyOf(changedPlaces, length);
+            affected = Arrays.copyOf(affected, length);
+            affectedStamp = Arrays.copyOf(affectedStamp, length);
+        }
+    }
+}
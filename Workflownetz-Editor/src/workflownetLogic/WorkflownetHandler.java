@@ -1,33 +1,83 @@
 package workflownetLogic;
 
-import java.util.ArrayList;
 import petriNodes.Arc;
 import petriNodes.PetriNode;
 import petriNodes.Place;
-import petriNodes.Transition;
 import java.util.Collection;
-import java.util.HashSet;
-import java.util.Iterator;
-import java.util.List;
+import java.util.Collections;
+import java.io.Serializable;
+import java.util.function.Consumer;
+import javafx.application.Platform;
+import conformance.AlignmentChecker;
+import conformance.ConformanceChecker;
+import invariants.Invariants;
+import persistenceService.AnalysisCache;
 import petriNodes.SelectionModel;
 import resources.MyMessages;
+import stateSpace.CoverabilityTree;
 
 /**
  * Diese Klasse dient dazu Eigenschaften eines Workflownetzes zu überprüfen. Sie
  * beinhaltet Methoden, die überprüfen, ob eine Start- bzw. Endstelle existiert
  * und ob alle Elemente eines Netzes auf einem Pfad von der Startstelle zur
  * Endstelle liegen. Des weitern beinhaltet sie Methoden für die
- * Deadlock-Erkennung und Methoden, die für das Markieren bzw. das Demarkieren
- * nach einer Schaltung notwendig sind.
+ * Deadlock-Erkennung. Das Schalten selbst übernimmt das Markenspiel
+ * (TokenGame, im Editor TokenGameTracker).
  *
  * @author Tobias Hübel, 5509840
  */
 public class WorkflownetHandler {
 
-    List<PetriNode> visitedNodes = new ArrayList<>();
-    List<PetriNode> inProcessNodes = new ArrayList<>();
-    
-    
+    /**
+     * Maximale Anzahl an P-Invarianten, die in einer Meldung aufgeführt
+     * werden.
+     */
+    private static final int MAX_LISTED_INVARIANTS = 5;
+
+    /**
+     * Die Momentaufnahme des Netzes. Sie wird bei jeder Änderung verworfen und
+     * erst bei Bedarf (getGraph) neu erzeugt, d.h. für eine Analyse, nicht
+     * beim Bearbeiten des Netzes.
+     */
+    private NetGraph graph;
+
+    /**
+     * Das Netz, dessen Status zuletzt überprüft wurde.
+     */
+    private Collection<PetriNode> petriNodes = Collections.emptyList();
+
+    /**
+     * Hält den Workflownetz-Status während der Bearbeitung aktuell.
+     */
+    private final WorkflownetStatusTracker statusTracker = new WorkflownetStatusTracker();
+
+    /**
+     * Die starken Zusammenhangskomponenten der Momentaufnahme componentsGraph.
+     */
+    private StronglyConnectedComponents components;
+
+    /**
+     * Die Momentaufnahme, zu der das Attribut components bestimmt wurde.
+     */
+    private NetGraph componentsGraph;
+
+    /**
+     * Position des nächsten Kreises, der von checkCycle ausgewählt wird.
+     */
+    private int cycleIndex;
+
+    /**
+     * Das Ergebnis der letzten Soundness-Überprüfung oder null, falls das Netz
+     * seitdem verändert wurde.
+     */
+    private SoundnessResult soundnessResult;
+
+    /**
+     * Die Momentaufnahme, zu der zuletzt in den Dateien des AnalysisCache
+     * nach einem Soundness-Ergebnis gesucht wurde.
+     */
+    private NetGraph soundnessLookupGraph;
+
     /**
      * Die Startstelle eines Workflownetzes.
      */
@@ -52,149 +102,336 @@ public class WorkflownetHandler {
      * Diese Methode überprüft, ob das übergebene Objekt ein gültiges
      * Workflownetz repräsentiert. Bei einer Fehler-Erkennnung (z.B. keine
      * Start- oder Endstelle) wird im Attribut message eine entsprechende
-     * Meldung festgehalten.
+     * Meldung festgehalten. Der Zustand des statusTracker-Objekts wird dabei
+     * vollständig neu aufgebaut, weshalb diese Methode nach dem Laden eines
+     * Netzes verwendet wird.
      *
      * @param petriNodes Das potentielle Workflownetz in Form eines
      * Collection-Objekts
      * @return true, falls ein Workflownetz besteht, false, falls nicht.
      */
     public boolean checkWorkflowStatus(Collection<PetriNode> petriNodes) {
-        boolean hasOneStartNode = false;
-        boolean hasOneEndNode = false;
-        Iterator<PetriNode> iterator = petriNodes.iterator();
-        while (iterator.hasNext()) {
-            PetriNode currentNode = iterator.next();
-            if (currentNode.getPrevArcs().isEmpty() && (currentNode instanceof Place)) {
-                // Eine Stelle ohne eingehende Kanten ist ein Kandidat für eine
-                // Startstelle.
-                if (!hasOneStartNode) {
-                    // Es wurde noch keine andere potentielle Startstelle gefunden
-                    hasOneStartNode = true;
-                    startPlace = (Place) currentNode;
-                } else {
-                    // Es wurde ein zwiter Knoten ohne eingehende Kanten gefunden
-                    this.message = MyMessages.MORE_STARTPLACES;
-                    return false;
-                }
-            }
-            if (currentNode.getNextArcs().isEmpty() && (currentNode instanceof Place)) {
-                // Eine Stelle ohne ausgehende Kanten ist ein Kandidat für eine
-                // Endstelle.
-                if (!hasOneEndNode) {
-                    // Es wurde noch keine andere potentielle Endstelle gefunden
-                    endPlace = (Place) currentNode;
-                    hasOneEndNode = true;
-                } else {
-                    // Es wurde ein zwiter Knoten ohne ausgehende Kanten gefunden
-                    this.message = MyMessages.MORE_ENDPLACES;
-                    return false;
-                }
-            }
+        this.petriNodes = petriNodes;
+        this.graph = NetGraph.fromPetriNodes(petriNodes);
+        this.soundnessResult = null;
+        this.statusTracker.reset(graph);
+        return updateWorkflowStatus(petriNodes);
+    }
+
+    /**
+     * Diese Methode überprüft auf Grundlage der gemeldeten Änderungen
+     * (nodeAdded, nodeRemoved, arcAdded, arcRemoved), ob ein gültiges
+     * Workflownetz besteht. Es wird nur der Bereich des Netzes betrachtet, der
+     * von den Änderungen betroffen ist.
+     *
+     * @param petriNodes Das potentielle Workflownetz in Form eines
+     * Collection-Objekts
+     * @return true, falls ein Workflownetz besteht, false, falls nicht.
+     */
+    public boolean updateWorkflowStatus(Collection<PetriNode> petriNodes) {
+        this.petriNodes = petriNodes;
+        this.isWorkflownet = statusTracker.validate();
+        if (isWorkflownet) {
+            this.startPlace = statusTracker.getStartPlace();
+            this.endPlace = statusTracker.getEndPlace();
+        } else {
+            // Die Meldung nennt alle Knoten, die die Überprüfung nicht
+            // bestanden haben.
+            this.message = statusTracker.getMessage();
         }
-        if (!hasOneEndNode) {
-            // Es wurde keine Endstelle gefunden.
-            this.message = MyMessages.NO_ENDPLACE;
-            return false;
+        return isWorkflownet;
+    }
+
+    /**
+     * Diese Methode meldet einen neuen Knoten.
+     *
+     * @param petriNode Der neue Knoten.
+     */
+    public void nodeAdded(PetriNode petriNode) {
+        this.graph = null;
+        this.soundnessResult = null;
+        statusTracker.nodeAdded(petriNode);
+    }
+
+    /**
+     * Diese Methode meldet einen entfernten Knoten. Die Kanten des Knotens
+     * müssen vorher mit arcRemoved gemeldet worden sein.
+     *
+     * @param petriNode Der entfernte Knoten.
+     */
+    public void nodeRemoved(PetriNode petriNode) {
+        this.graph = null;
+        this.soundnessResult = null;
+        statusTracker.nodeRemoved(petriNode);
+    }
+
+    /**
+     * Diese Methode meldet eine neue Kante, nachdem sie in die Kantenlisten
+     * ihrer Knoten eingetragen wurde.
+     *
+     * @param arc Die neue Kante.
+     */
+    public void arcAdded(Arc arc) {
+        this.graph = null;
+        this.soundnessResult = null;
+        statusTracker.arcAdded(arc);
+    }
+
+    /**
+     * Diese Methode meldet eine entfernte Kante, nachdem sie aus den
+     * Kantenlisten ihrer Knoten entfernt wurde.
+     *
+     * @param arc Die entfernte Kante.
+     */
+    public void arcRemoved(Arc arc) {
+        this.graph = null;
+        this.soundnessResult = null;
+        statusTracker.arcRemoved(arc);
+    }
+
+    /**
+     * Diese Methode gibt die Momentaufnahme des aktuellen Netzes zurück. Sie
+     * wird nach einer Änderung erst bei Bedarf neu erzeugt.
+     *
+     * @return Die Momentaufnahme des Netzes.
+     */
+    public NetGraph getGraph() {
+        if (graph == null) {
+            graph = NetGraph.fromPetriNodes(petriNodes);
         }
-        if (!hasOneStartNode) {
-            // Es wurde keine Startstelle gefunden.
-            this.message = MyMessages.NO_STARTPLACE;
-            return false;
+        return graph;
+    }
+
+    /**
+     * Diese Methode gibt die aktuelle Anzahl der Marken aller Stellen in der
+     * Reihenfolge der Momentaufnahme zurück. Die Markierung der Momentaufnahme
+     * selbst ist nach dem Schalten von Transitionen nicht mehr aktuell.
+     *
+     * @return Die Anzahl der Marken jeder Stelle.
+     */
+    public int[] getCurrentMarking() {
+        NetGraph current = getGraph();
+        int[] marking = new int[current.getPlaceCount()];
+        for (int p = 0; p < marking.length; p++) {
+            marking[p] = ((Place) current.getPetriNode(p)).getTokens();
         }
+        return marking;
+    }
 
-        // Nachdem Start- und Endstelle gefunden wurde, muss überprüft werden,
-        // ob alle Knoten auf einem Pfad zwischen Start- und Endstelle liegen.
-        boolean allNodesReachable = allNodesReachable(petriNodes);
-        if (!allNodesReachable) {
-            this.message = MyMessages.NOT_REACHABLE;
-            return false;
+    /**
+     * Diese Methode erzeugt die Meldung zum Ergebnis einer
+     * Beschränktheits-Überprüfung. Bei einem unbeschränkten Netz enthält sie
+     * eine Schaltfolge zum ersten Knoten mit OMEGA. Da der Überdeckungsbaum
+     * anders als das Markenspiel des Editors die gewöhnliche Schaltregel
+     * verwendet, wird diese am Ende der Meldung genannt.
+     *
+     * @param tree Der Überdeckungsbaum des Netzes.
+     * @return Die Meldung.
+     */
+    public static String getBoundednessMessage(CoverabilityTree tree) {
+        String message;
+        if (!tree.isBounded()) {
+            message = String.format(MyMessages.UNBOUNDED,
+                    String.join(", ", tree.getUnboundedPlaceIds()));
+            message = WorkflownetValidator.describe(message,
+                    tree.getPathIds(tree.getOmegaNode()));
+        } else if (!tree.isComplete()) {
+            message = String.format(MyMessages.COVERABILITY_LIMIT, tree.getNodeCount(),
+                    tree.getBound());
+        } else {
+            message = String.format(MyMessages.BOUNDED, tree.getBound(), tree.getNodeCount());
         }
+        return message + '\n' + MyMessages.STANDARD_RULE;
+    }
 
-        isWorkflownet = hasOneEndNode && hasOneStartNode && allNodesReachable;
-        return isWorkflownet;
+    /**
+     * Diese Methode erzeugt die Meldung zum Ergebnis einer
+     * Invarianten-Berechnung. Sie nennt die Anzahl der minimalen P- und
+     * T-Invarianten, die nicht von P-Invarianten überdeckten Stellen und die
+     * ersten P-Invarianten.
+     *
+     * @param placeInvariants Die P-Invarianten des Netzes.
+     * @param transitionInvariants Die T-Invarianten des Netzes.
+     * @return Die Meldung.
+     */
+    public static String getInvariantMessage(Invariants placeInvariants,
+            Invariants transitionInvariants) {
+        if (!placeInvariants.isComplete() || !transitionInvariants.isComplete()) {
+            return MyMessages.INVARIANT_LIMIT;
+        }
+        StringBuilder builder = new StringBuilder(String.format(MyMessages.INVARIANTS,
+                placeInvariants.getCount(), transitionInvariants.getCount()));
+        builder.append('\n');
+        if (placeInvariants.isCovering()) {
+            builder.append(MyMessages.P_COVERED);
+        } else {
+            builder.append(WorkflownetValidator.describe(MyMessages.P_NOT_COVERED,
+                    placeInvariants.getUncoveredIds()));
+        }
+        int listed = Math.min(placeInvariants.getCount(), MAX_LISTED_INVARIANTS);
+        for (int i = 0; i < listed; i++) {
+            builder.append('\n').append(placeInvariants.toString(i));
+        }
+        return builder.toString();
     }
 
     /**
-     * Diese Methode überprüft, ob alle Knoten auf einem Pfad zwischen Start- und Endstelle
-     * liegen.
+     * Diese Methode erzeugt eine Soundness-Überprüfung für die aktuelle
+     * Momentaufnahme. Die Überprüfung selbst (SoundnessChecker.check) greift
+     * nicht auf die JavaFX-Objekte zu und kann in einem eigenen Thread
+     * ausgeführt werden.
      *
-     * @param petriNodes Das potentielle Workflownetz in Form eines
-     * Collection-Objekts.
-     * @return true, falls alle Knoten erreichbar sind, false, falls nicht.
-     */
-    private boolean allNodesReachable(Collection<PetriNode> petriNodes) {
-        resetReachableValues(petriNodes);
-        forwardReachableCheck(startPlace);
-        backwardReachableCheck(endPlace);
-        Iterator<PetriNode> iterator = petriNodes.iterator();
-        boolean allNodesReachable = true;
-        while (iterator.hasNext()) {
-            PetriNode currentNode = iterator.next();
-            if (!currentNode.isForwardReachable() || !currentNode.isBackwardReachable()) {
-                // Falls ein Knoten nicht erreichbar ist, wird false zurück gegeben
-                allNodesReachable = false;
-                return allNodesReachable;
-
-            }
+     * @return Die Überprüfung oder null, falls kein Workflownetz besteht.
+     */
+    public SoundnessChecker createSoundnessChecker() {
+        if (!isWorkflownet) {
+            return null;
+        }
+        NetGraph current = getGraph();
+        return new SoundnessChecker(current, current.indexOf(startPlace.getId()),
+                current.indexOf(endPlace.getId()));
+    }
+
+    /**
+     * Diese Methode erzeugt eine Überprüfung von Ereignislogs für die
+     * aktuelle Momentaufnahme. Sie muss im JavaFX-Thread aufgerufen werden,
+     * das Abspielen des Logs kann danach in einem eigenen Thread erfolgen.
+     *
+     * @return Die Überprüfung oder null, falls kein Workflownetz besteht.
+     */
+    public ConformanceChecker createConformanceChecker() {
+        if (!isWorkflownet) {
+            return null;
         }
-        return allNodesReachable;
+        NetGraph current = getGraph();
+        return new ConformanceChecker(current, current.indexOf(startPlace.getId()),
+                current.indexOf(endPlace.getId()));
     }
 
     /**
-     * Diese Methode setzt die forwardReachable-Werte aller Knoten, die vom Startknoten aus
-     * erreichbar sind auf true. Auch wenn so alle Knoten erreicht werden
-     * bedeutet das noch nicht, dass sie alle auf einem Pfad zwischen Start- und
-     * Endknoten liegen.
+     * Diese Methode erzeugt eine Berechnung von Alignments zwischen einem
+     * Ereignislog und der aktuellen Momentaufnahme. Wie
+     * createConformanceChecker muss sie im JavaFX-Thread aufgerufen werden.
      *
-     * @param startNode Der Startknoten des potentiellen Workflownetzes.
-     */
-    private void forwardReachableCheck(PetriNode startNode) {
-        startNode.setForwardReachable(true);
-        Iterator<Arc> iterator = startNode.getNextArcs().iterator();
-        while (iterator.hasNext()) {
-            Arc arc = iterator.next();
-            PetriNode nextNode = arc.getEndNode();
-            if (!nextNode.isForwardReachable()) {
-                // rekursiver Aufruf - entspricht einer Tiefensuche.
-                forwardReachableCheck(nextNode);
-            }
+     * @return Die Berechnung oder null, falls kein Workflownetz besteht.
+     */
+    public AlignmentChecker createAlignmentChecker() {
+        if (!isWorkflownet) {
+            return null;
         }
+        NetGraph current = getGraph();
+        return new AlignmentChecker(current, current.indexOf(startPlace.getId()),
+                current.indexOf(endPlace.getId()));
     }
 
     /**
-     * Diese Methode setzt die backwardReachable-Werte aller Knoten, die vom Endknoten aus
-     * über invertierte Kanten erreichbar sind auf true. Wenn so alle Knoten
-     * erreicht werden und die forwardReachable-Eigenschaft auch wahr ist,
-     * liegen alle Knoten auf einem Pfad zwischen Start- und Endknoten.
+     * Diese Methode erzeugt eine Deadlock-Suche für die aktuelle
+     * Momentaufnahme. Wie die Soundness-Überprüfung kann sie in einem eigenen
+     * Thread ausgeführt werden.
      *
-     * @param endNode Der Endknoten des potentiellen Workflownetzes.
-     */
-    private void backwardReachableCheck(PetriNode endNode) {
-        endNode.setBackwardReachable(true);
-        Iterator<Arc> iterator = endNode.getPrevArcs().iterator();
-        while (iterator.hasNext()) {
-            Arc arc = iterator.next();
-            PetriNode prevNode = arc.getStartNode();
-            if (!prevNode.isBackwardReachable()) {
-                // rekursiver Aufruf - entspricht einer Tiefensuche.
-                backwardReachableCheck(prevNode);
-            }
+     * @return Die Suche oder null, falls kein Workflownetz besteht.
+     */
+    public DeadlockFinder createDeadlockFinder() {
+        if (!isWorkflownet) {
+            return null;
         }
+        NetGraph current = getGraph();
+        return new DeadlockFinder(current, current.indexOf(startPlace.getId()),
+                current.indexOf(endPlace.getId()));
     }
 
     /**
-     * Diese Methode setzt alle Reachable-Werte der übergebnen Knoten auf false
+     * Diese Methode gibt an, ob eine Momentaufnahme noch zum aktuellen Netz
+     * gehört.
      *
-     * @param petriNodes Das potentielle Workflownetz in Form eines
-     * Collection-Objekts.
-     */
-    private void resetReachableValues(Collection<PetriNode> petriNodes) {
-        Iterator<PetriNode> iterator = petriNodes.iterator();
-        while (iterator.hasNext()) {
-            PetriNode currentNode = iterator.next();
-            currentNode.setBackwardReachable(false);
-            currentNode.setForwardReachable(false);
+     * @param snapshot Die Momentaufnahme.
+     * @return true, falls das Netz seitdem nicht verändert wurde.
+     */
+    public boolean isCurrent(NetGraph snapshot) {
+        return snapshot == graph;
+    }
+
+    /**
+     * Diese Methode hält das Ergebnis einer Soundness-Überprüfung fest, falls
+     * das Netz seit dem Erzeugen der Überprüfung nicht verändert wurde.
+     *
+     * @param checker Die ausgeführte Überprüfung.
+     * @param result Ihr Ergebnis.
+     * @return true, falls das Ergebnis zum aktuellen Netz gehört.
+     */
+    public boolean setSoundnessResult(SoundnessChecker checker, SoundnessResult result) {
+        if (checker.getGraph() != graph) {
+            return false;
         }
+        this.soundnessResult = result;
+        if (result.isDecided()) {
+            // Nur entschiedene Ergebnisse hängen nicht von den Einstellungen
+            // der Überprüfung ab.
+            AnalysisCache.getInstance().put(AnalysisCache.key(graph.getFingerprint(),
+                    AnalysisCache.SOUNDNESS), result);
+        }
+        return true;
+    }
+
+    /**
+     * Diese Methode gibt das Ergebnis der letzten Soundness-Überprüfung
+     * zurück. Sie erzeugt keine Momentaufnahme und sucht nicht im
+     * AnalysisCache, damit sie nach jeder Änderung des Netzes aufgerufen
+     * werden kann. Die Suche übernimmt loadSoundnessResult bzw.
+     * getCachedSoundnessResult.
+     *
+     * @return Das Ergebnis oder null, falls das Netz in dieser Struktur noch
+     * nicht überprüft wurde.
+     */
+    public SoundnessResult getSoundnessResult() {
+        return soundnessResult;
+    }
+
+    /**
+     * Diese Methode sucht im AnalysisCache nach einem Soundness-Ergebnis für
+     * ein Netz mit gleicher Struktur. Da dabei der Fingerabdruck berechnet und
+     * gegebenenfalls eine Datei gelesen wird, darf sie nicht im JavaFX-Thread
+     * aufgerufen werden.
+     *
+     * @param snapshot Die Momentaufnahme des Netzes.
+     * @return Das Ergebnis oder null, falls keines gespeichert ist.
+     */
+    public static SoundnessResult getCachedSoundnessResult(NetGraph snapshot) {
+        Serializable cached = AnalysisCache.getInstance().get(
+                AnalysisCache.key(snapshot.getFingerprint(), AnalysisCache.SOUNDNESS));
+        return cached instanceof SoundnessResult ? (SoundnessResult) cached : null;
+    }
+
+    /**
+     * Diese Methode sucht im AnalysisCache nach einem Soundness-Ergebnis für
+     * ein Netz mit gleicher Struktur, z.B. nach dem erneuten Öffnen einer
+     * Datei oder beim Wechsel zu diesem Tab. Nach einer Änderung des Netzes
+     * wird sie nicht aufgerufen. Der Fingerabdruck wird ebenso wie die Datei
+     * im Thread des AnalysisCache bestimmt bzw. gelesen, im JavaFX-Thread wird
+     * nur die Momentaufnahme erzeugt. Wird ein Ergebnis gefunden und wurde
+     * das Netz in der Zwischenzeit nicht verändert, wird es im JavaFX-Thread
+     * übernommen und an den Consumer übergeben.
+     *
+     * @param consumer Erhält das gefundene Ergebnis.
+     */
+    public void loadSoundnessResult(Consumer<SoundnessResult> consumer) {
+        if (soundnessResult != null || !isWorkflownet || soundnessLookupGraph == getGraph()) {
+            return;
+        }
+        NetGraph lookupGraph = graph;
+        soundnessLookupGraph = lookupGraph;
+        AnalysisCache.getInstance().load(
+                () -> AnalysisCache.key(lookupGraph.getFingerprint(), AnalysisCache.SOUNDNESS),
+                cached -> {
+                    if (cached instanceof SoundnessResult) {
+                        Platform.runLater(() -> {
+                            if (soundnessResult == null && graph == lookupGraph) {
+                                soundnessResult = (SoundnessResult) cached;
+                                consumer.accept(soundnessResult);
+                            }
+                        });
+                    }
+                });
     }
 
     /**
@@ -224,73 +461,25 @@ public class WorkflownetHandler {
         return message;
     }
 
-    /**
-     * Diese Methode gibt alle markierten Stellen, in Form eines HashSet-Objekts, zurück, die
-     * im Workflownetz direkt vor der übergebnen Transition sind.
-     *
-     * @param transition Transition, zu der die markierten Vorgängerstellen
-     * gefunden werden sollen
-     * @return HashSet-Objekt mit markierten Vorgängerstellen.
-     */
-    public HashSet<Place> getMarkedPrevPlaces(Transition transition) {
-        HashSet<Place> placesForUnset = new HashSet<>();
-        Iterator<Arc> prevIterator = transition.getPrevArcs().iterator();
-        while (prevIterator.hasNext()) {
-            Arc arc = prevIterator.next();
-            Place currentPrevPlace = (Place) arc.getStartNode();
-            if (currentPrevPlace.isMarked()) {
-                placesForUnset.add(currentPrevPlace);
-            }
-        }
-        return placesForUnset;
-    }
-
-    /**
-     * Diese Methode gibt alle unmarkierten Stellen, in Form eines HashSet-Objekts, zurück,
-     * die im Workflownetz direkt nach der übergebnen Transition sind.
-     *
-     * @param transition Transition, zu der die unmarkierten Nachfolgerstellen
-     * gefunden werden sollen
-     * @return HashSet-Objekt mit unmarkierten Nachfolgerstellen.
-     */
-    public HashSet<Place> getUnmarkedNextPlaces(Transition transition) {
-        HashSet<Place> placesForSet = new HashSet<>();
-        Iterator<Arc> nextIterator = transition.getNextArcs().iterator();
-        while (nextIterator.hasNext()) {
-            Arc arc = nextIterator.next();
-            Place currentNextPlace = (Place) arc.getEndNode();
-            if (!currentNextPlace.isMarked()) {
-                placesForSet.add(currentNextPlace);
-            }
-        }
-        return placesForSet;
-    }
-
     /**
      * Diese Methode überprüft, in einem Workflownetz, in dem keine Transition schaltbar ist,
      * ob ein Deadlock besteht. Die Überprüfung, ob ein Workflownetz besteht und
-     * ob keine Transitionen schaltbar sind, übernimmt diese Methode nicht.
+     * ob keine Transitionen schaltbar sind, übernimmt diese Methode nicht. Die
+     * Markierung wird dem Markenspiel entnommen, es werden daher nicht alle
+     * Stellen durchsucht.
      *
-     * @param petriNodes Das potentielle Workflownetz in Form eines
-     * Collection-Objekts.
-     */
-    public void checkPossibleDeadlock(Collection<PetriNode> petriNodes) {
-        boolean isDeadlock = false;
-        Iterator<PetriNode> iterator = petriNodes.iterator();
-        while (iterator.hasNext()) {
-            PetriNode node = iterator.next();
-            if (node instanceof Place) {
-                Place place = (Place) node;
-                if (place.isMarked() && !place.isEndPlace()) {
-                    isDeadlock = true;
-                    this.message = MyMessages.DEADLOCK;
-                }
-            }
-        }
-        if (!isDeadlock) {
+     * @param tokenGame Das Markenspiel des Editors.
+     */
+    public void checkPossibleDeadlock(TokenGameTracker tokenGame) {
+        int endTokens = tokenGame.getTokens(endPlace);
+        int otherMarked = tokenGame.getMarkedCount() - (endTokens > 0 ? 1 : 0);
+        if (otherMarked > 0 || endTokens > 1) {
+            this.message = MyMessages.DEADLOCK;
+        } else {
             /**
              * An dieser Stelle gilt, dass ein Workflownetz besteht, keine
-             * Transitionen schaltbar sind und nur die Endstelle markiert ist.
+             * Transitionen schaltbar sind und nur die Endstelle mit genau einer
+             * Marke markiert ist.
              * Das ist der reguläre Endzustand.
              */
             this.message = MyMessages.END_STATE;
@@ -298,64 +487,36 @@ public class WorkflownetHandler {
     }
 
     /**
-     * Diese Methode gibt alle markierten Stellen des Workflownetzes in Form eines
-     * HashSet-Objekts zurück.
+     * Diese Methode wählt den nächsten Kreis des aktuellen Netzes aus und
+     * selektiert seine Knoten. Die starken Zusammenhangskomponenten werden nur
+     * nach einer Änderung des Netzes neu bestimmt, wiederholte Aufrufe gehen
+     * der Reihe nach alle Komponenten durch, die einen Kreis enthalten. Die
+     * Position des Kreises wird im Attribut message festgehalten.
      *
-     * @param petriNodes Das potentielle Workflownetz in Form eines
-     * Collection-Objekts.
-     * @return Ein HashSet-Objekt mit allen markierten Stellen.
-     */
-    public HashSet<Place> getMarkedPlaces(Collection<PetriNode> petriNodes) {
-        HashSet<Place> result = new HashSet<>();
-        Iterator<PetriNode> iterator = petriNodes.iterator();
-        while (iterator.hasNext()) {
-            PetriNode currentNode = iterator.next();
-            if (currentNode instanceof Place && ((Place) currentNode).isMarked()) {
-                result.add((Place) currentNode);
-            }
-        }
-        return result;
-    }
-    
-    public boolean checkCycle(){
-        if(isCycle(startPlace) == true){
-            PetriNode circleConnector = inProcessNodes.get(inProcessNodes.size()-1);
-            int idxStart = inProcessNodes.indexOf(circleConnector);
-            int idxEnd = inProcessNodes.size()-1;
-            List<PetriNode> circle = inProcessNodes.subList(idxStart, idxEnd);
-            Iterator<PetriNode> iterator = circle.iterator();
-            SelectionModel selectionModel = SelectionModel.getInstance();
-            selectionModel.clearSelectedNodes();
-            while(iterator.hasNext()){
-                PetriNode currentNode = iterator.next();
-                SelectionModel.getInstance().addPetriNode(currentNode);
-            }
-            return true;
+     * @return true, falls ein Kreis gefunden wurde, false, falls nicht.
+     */
+    public boolean checkCycle() {
+        NetGraph graph = getGraph();
+        if (components == null || componentsGraph != graph) {
+            components = StronglyConnectedComponents.of(graph);
+            componentsGraph = graph;
+            cycleIndex = 0;
         }
-        else{
-            message="Kein Kreis gefunden!";
+        int[] nontrivial = components.getNontrivialComponents();
+        if (nontrivial.length == 0) {
+            message = MyMessages.NO_CYCLE;
             return false;
         }
-    }
-    
-    public boolean isCycle(PetriNode petriNode){
-        if(!visitedNodes.contains(petriNode)){
-            visitedNodes.add(petriNode);
-            inProcessNodes.add(petriNode);
-            Iterator<Arc> iterator = petriNode.getNextArcs().iterator();
-            while (iterator.hasNext()){
-                Arc currentArc = iterator.next();
-                PetriNode nextNode = currentArc.getEndNode();
-                if(isCycle(nextNode)){
-                    return true;
-                }
-                else if(inProcessNodes.contains(nextNode)){
-                    inProcessNodes.add(nextNode);
-                    return true;
-                }
-            }
-            inProcessNodes.remove(petriNode);
+        int c = nontrivial[cycleIndex];
+        int[] cycle = components.findCycle(c);
+        SelectionModel selectionModel = SelectionModel.getInstance();
+        selectionModel.clearSelectedNodes();
+        for (int v : cycle) {
+            selectionModel.addPetriNode(graph.getPetriNode(v));
         }
-        return false;
+        message = String.format(MyMessages.CYCLE_FOUND, cycleIndex + 1, nontrivial.length,
+                components.getSize(c));
+        cycleIndex = (cycleIndex + 1) % nontrivial.length;
+        return true;
     }
 }
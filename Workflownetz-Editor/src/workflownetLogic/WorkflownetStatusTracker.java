@@ -0,0 +1,511 @@
+package workflownetLogic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import petriNodes.Arc;
+import petriNodes.PetriNode;
+import petriNodes.Place;
+import resources.MyMessages;
+
+/**
+ * Diese Klasse hält den Workflownetz-Status eines Netzes aktuell, während es
+ * bearbeitet wird. Statt nach jeder Änderung das ganze Netz zu überprüfen,
+ * werden die Kandidaten für Start- und Endstelle (Stellen ohne eingehende bzw.
+ * ausgehende Kanten) über Gradzähler und die Vorwärts- bzw.
+ * Rückwärtserreichbarkeit in BitSet-Objekten gepflegt.
+ *
+ * Beim Hinzufügen einer Kante wird die Erreichbarkeit nur um die neu
+ * erreichten Knoten erweitert. Beim Entfernen einer Kante werden nur die
+ * Knoten hinter der Kante betrachtet: sie werden zunächst entfernt und dann
+ * von den Knoten aus, die weiterhin erreichbar sind, neu abgeleitet. Die Kosten
+ * einer Änderung hängen damit von der Größe des betroffenen Bereichs ab und
+ * nicht von der Größe des Netzes.
+ *
+ * Jeder Knoten erhält einen Platz (slot), über den er in den Arrays und
+ * BitSet-Objekten adressiert wird. Freie Plätze werden wiederverwendet.
+ */
+public class WorkflownetStatusTracker {
+
+    /**
+     * Zuordnung der Knoten zu ihren Plätzen.
+     */
+    private final Map<PetriNode, Integer> slots = new HashMap<>();
+
+    /**
+     * Die Knoten, nach Platz geordnet.
+     */
+    private PetriNode[] nodes = new PetriNode[16];
+
+    /**
+     * Anzahl der eingehenden Kanten je Platz.
+     */
+    private int[] inDegree = new int[16];
+
+    /**
+     * Anzahl der ausgehenden Kanten je Platz.
+     */
+    private int[] outDegree = new int[16];
+
+    /**
+     * Stapel der freigegebenen Plätze.
+     */
+    private int[] freeSlots = new int[16];
+
+    /**
+     * Anzahl der Einträge in freeSlots.
+     */
+    private int freeCount = 0;
+
+    /**
+     * Anzahl der jemals vergebenen Plätze.
+     */
+    private int slotCount = 0;
+
+    /**
+     * Alle belegten Plätze.
+     */
+    private final BitSet used = new BitSet();
+
+    /**
+     * Alle Stellen ohne eingehende Kanten.
+     */
+    private final BitSet startCandidates = new BitSet();
+
+    /**
+     * Alle Stellen ohne ausgehende Kanten.
+     */
+    private final BitSet endCandidates = new BitSet();
+
+    /**
+     * Alle Knoten, die von forwardRoot aus erreichbar sind.
+     */
+    private BitSet forward = new BitSet();
+
+    /**
+     * Alle Knoten, von denen aus backwardRoot erreichbar ist.
+     */
+    private BitSet backward = new BitSet();
+
+    /**
+     * Der Platz, von dem aus forward berechnet wurde, oder -1.
+     */
+    private int forwardRoot = -1;
+
+    /**
+     * Der Platz, für den backward berechnet wurde, oder -1.
+     */
+    private int backwardRoot = -1;
+
+    /**
+     * Hilfsmenge für shrink und für die Meldung in validate. Sie wird
+     * wiederverwendet, damit eine Änderung keine BitSet-Objekte in der Größe
+     * des Netzes anlegt.
+     */
+    private final BitSet scratch = new BitSet();
+
+    /**
+     * Arbeitsliste für die Breitensuchen.
+     */
+    private int[] workList = new int[16];
+
+    /**
+     * Der betroffene Bereich beim Entfernen einer Kante.
+     */
+    private int[] region = new int[16];
+
+    /**
+     * Die Startstelle nach der letzten Überprüfung oder -1.
+     */
+    private int startSlot = -1;
+
+    /**
+     * Die Endstelle nach der letzten Überprüfung oder -1.
+     */
+    private int endSlot = -1;
+
+    /**
+     * Eine Nachricht, die den Grund für eine fehlgeschlagene Überprüfung
+     * beinhaltet.
+     */
+    private String message;
+
+    /**
+     * Diese Methode baut den Zustand für das übergebene Netz vollständig neu
+     * auf. Die Plätze entsprechen den Indizes der Momentaufnahme.
+     *
+     * @param graph Die Momentaufnahme des Netzes. Sie muss aus
+     * PetriNode-Objekten erzeugt worden sein.
+     */
+    public void reset(NetGraph graph) {
+        int n = graph.getNodeCount();
+        slots.clear();
+        used.clear();
+        startCandidates.clear();
+        endCandidates.clear();
+        nodes = new PetriNode[Math.max(16, n)];
+        inDegree = new int[nodes.length];
+        outDegree = new int[nodes.length];
+        freeSlots = new int[nodes.length];
+        workList = new int[nodes.length];
+        region = new int[nodes.length];
+        freeCount = 0;
+        slotCount = n;
+        for (int v = 0; v < n; v++) {
+            PetriNode node = graph.getPetriNode(v);
+            nodes[v] = node;
+            slots.put(node, v);
+            inDegree[v] = graph.getPreCount(v);
+            outDegree[v] = graph.getPostCount(v);
+            updateCandidates(v);
+        }
+        used.set(0, n);
+        forwardRoot = -1;
+        backwardRoot = -1;
+        if (startCandidates.cardinality() == 1) {
+            forwardRoot = startCandidates.nextSetBit(0);
+            forward = WorkflownetValidator.forwardReachable(graph, forwardRoot);
+        }
+        if (endCandidates.cardinality() == 1) {
+            backwardRoot = endCandidates.nextSetBit(0);
+            backward = WorkflownetValidator.backwardReachable(graph, backwardRoot);
+        }
+    }
+
+    /**
+     * Diese Methode wird aufgerufen, nachdem ein Knoten dem Netz hinzugefügt
+     * wurde.
+     *
+     * @param node Der neue Knoten.
+     */
+    public void nodeAdded(PetriNode node) {
+        int slot = freeCount > 0 ? freeSlots[--freeCount] : slotCount++;
+        ensureCapacity(slotCount);
+        slots.put(node, slot);
+        nodes[slot] = node;
+        inDegree[slot] = node.getPrevArcs().size();
+        outDegree[slot] = node.getNextArcs().size();
+        used.set(slot);
+        forward.clear(slot);
+        backward.clear(slot);
+        updateCandidates(slot);
+    }
+
+    /**
+     * Diese Methode wird aufgerufen, nachdem ein Knoten und alle mit ihm
+     * verbundenen Kanten aus dem Netz entfernt wurden.
+     *
+     * @param node Der entfernte Knoten.
+     */
+    public void nodeRemoved(PetriNode node) {
+        Integer slot = slots.remove(node);
+        if (slot == null) {
+            return;
+        }
+        nodes[slot] = null;
+        used.clear(slot);
+        startCandidates.clear(slot);
+        endCandidates.clear(slot);
+        forward.clear(slot);
+        backward.clear(slot);
+        if (forwardRoot == slot) {
+            forwardRoot = -1;
+        }
+        if (backwardRoot == slot) {
+            backwardRoot = -1;
+        }
+        freeSlots[freeCount++] = slot;
+    }
+
+    /**
+     * Diese Methode wird aufgerufen, nachdem eine Kante in die Kantenlisten
+     * ihrer Knoten eingetragen wurde. Die Erreichbarkeit wird nur um die neu
+     * erreichbaren Knoten erweitert.
+     *
+     * @param arc Die neue Kante.
+     */
+    public void arcAdded(Arc arc) {
+        Integer source = slots.get(arc.getStartNode());
+        Integer target = slots.get(arc.getEndNode());
+        if (source == null || target == null) {
+            return;
+        }
+        outDegree[source]++;
+        inDegree[target]++;
+        updateCandidates(source);
+        updateCandidates(target);
+        if (forwardRoot >= 0 && forward.get(source) && !forward.get(target)) {
+            extend(target, forward, true);
+        }
+        if (backwardRoot >= 0 && backward.get(target) && !backward.get(source)) {
+            extend(source, backward, false);
+        }
+    }
+
+    /**
+     * Diese Methode wird aufgerufen, nachdem eine Kante aus den Kantenlisten
+     * ihrer Knoten entfernt wurde. Die Erreichbarkeit wird nur für die Knoten
+     * hinter (bzw. vor) der Kante neu abgeleitet.
+     *
+     * @param arc Die entfernte Kante.
+     */
+    public void arcRemoved(Arc arc) {
+        Integer source = slots.get(arc.getStartNode());
+        Integer target = slots.get(arc.getEndNode());
+        if (source == null || target == null) {
+            return;
+        }
+        outDegree[source]--;
+        inDegree[target]--;
+        updateCandidates(source);
+        updateCandidates(target);
+        if (forwardRoot >= 0 && forward.get(source) && forward.get(target)) {
+            shrink(target, forward, forwardRoot, true);
+        }
+        if (backwardRoot >= 0 && backward.get(source) && backward.get(target)) {
+            shrink(source, backward, backwardRoot, false);
+        }
+    }
+
+    /**
+     * Diese Methode überprüft anhand des gepflegten Zustands, ob ein gültiges
+     * Workflownetz besteht. Nur wenn sich Start- oder Endstelle geändert
+     * haben, wird die Erreichbarkeit von der neuen Stelle aus berechnet.
+     *
+     * @return true, falls ein Workflownetz besteht, false, falls nicht.
+     */
+    public boolean validate() {
+        startSlot = -1;
+        endSlot = -1;
+        if (startCandidates.cardinality() > 1) {
+            message = describe(MyMessages.MORE_STARTPLACES, startCandidates);
+            return false;
+        }
+        if (endCandidates.cardinality() > 1) {
+            message = describe(MyMessages.MORE_ENDPLACES, endCandidates);
+            return false;
+        }
+        if (endCandidates.isEmpty()) {
+            message = MyMessages.NO_ENDPLACE;
+            return false;
+        }
+        if (startCandidates.isEmpty()) {
+            message = MyMessages.NO_STARTPLACE;
+            return false;
+        }
+        int start = startCandidates.nextSetBit(0);
+        int end = endCandidates.nextSetBit(0);
+        if (forwardRoot != start) {
+            forwardRoot = start;
+            forward = new BitSet();
+            extend(start, forward, true);
+        }
+        if (backwardRoot != end) {
+            backwardRoot = end;
+            backward = new BitSet();
+            extend(end, backward, false);
+        }
+        // forward und backward enthalten nur belegte Plätze. Alle Knoten
+        // liegen auf einem Pfad, wenn beide so viele Plätze enthalten wie used.
+        int usedCount = used.cardinality();
+        if (forward.cardinality() != usedCount || backward.cardinality() != usedCount) {
+            scratch.clear();
+            scratch.or(forward);
+            scratch.and(backward);
+            message = describeMissing(MyMessages.NOT_REACHABLE, scratch,
+                    usedCount - scratch.cardinality());
+            return false;
+        }
+        startSlot = start;
+        endSlot = end;
+        message = null;
+        return true;
+    }
+
+    /**
+     * Diese Methode gibt die Startstelle der letzten erfolgreichen Überprüfung
+     * zurück.
+     *
+     * @return Die Startstelle oder null.
+     */
+    public Place getStartPlace() {
+        return startSlot < 0 ? null : (Place) nodes[startSlot];
+    }
+
+    /**
+     * Diese Methode gibt die Endstelle der letzten erfolgreichen Überprüfung
+     * zurück.
+     *
+     * @return Die Endstelle oder null.
+     */
+    public Place getEndPlace() {
+        return endSlot < 0 ? null : (Place) nodes[endSlot];
+    }
+
+    /**
+     * Diese Methode gibt das Attribut message zurück.
+     *
+     * @return Das Attribut message.
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * Diese Methode aktualisiert die Kandidaten für Start- und Endstelle für
+     * den übergebenen Platz.
+     *
+     * @param slot Der Platz des Knotens.
+     */
+    private void updateCandidates(int slot) {
+        boolean isPlace = nodes[slot] instanceof Place;
+        startCandidates.set(slot, isPlace && inDegree[slot] == 0);
+        endCandidates.set(slot, isPlace && outDegree[slot] == 0);
+    }
+
+    /**
+     * Diese Methode erweitert eine Erreichbarkeitsmenge um alle Knoten, die
+     * vom übergebenen Knoten aus (vorwärts oder rückwärts) erreichbar und noch
+     * nicht enthalten sind.
+     *
+     * @param from Der Platz, von dem aus gesucht wird.
+     * @param reached Die Erreichbarkeitsmenge.
+     * @param isForward true für die Vorwärts-, false für die Rückwärtssuche.
+     */
+    private void extend(int from, BitSet reached, boolean isForward) {
+        int tail = 0;
+        reached.set(from);
+        workList[tail++] = from;
+        while (tail > 0) {
+            int v = workList[--tail];
+            Iterator<Arc> iterator = isForward
+                    ? nodes[v].getNextArcs().iterator()
+                    : nodes[v].getPrevArcs().iterator();
+            while (iterator.hasNext()) {
+                Arc arc = iterator.next();
+                int w = slots.get(isForward ? arc.getEndNode() : arc.getStartNode());
+                if (!reached.get(w)) {
+                    reached.set(w);
+                    workList[tail++] = w;
+                }
+            }
+        }
+    }
+
+    /**
+     * Diese Methode passt eine Erreichbarkeitsmenge an, nachdem die Kante zum
+     * übergebenen Knoten entfernt wurde. Zuerst werden alle Knoten entfernt,
+     * die über den Knoten erreicht wurden. Danach werden die Knoten davon, die
+     * noch einen erreichbaren Vorgänger (bzw. Nachfolger) außerhalb dieses
+     * Bereichs haben, wieder aufgenommen und die Erreichbarkeit von ihnen aus
+     * neu abgeleitet.
+     *
+     * @param from Der Platz hinter (bzw. vor) der entfernten Kante.
+     * @param reached Die Erreichbarkeitsmenge.
+     * @param root Die Wurzel der Erreichbarkeitsmenge.
+     * @param isForward true für die Vorwärts-, false für die Rückwärtssuche.
+     */
+    private void shrink(int from, BitSet reached, int root, boolean isForward) {
+        // Schritt 1: betroffenen Bereich bestimmen und entfernen.
+        BitSet affected = scratch;
+        affected.clear();
+        int size = 0;
+        affected.set(from);
+        region[size++] = from;
+        for (int i = 0; i < size; i++) {
+            Iterator<Arc> iterator = isForward
+                    ? nodes[region[i]].getNextArcs().iterator()
+                    : nodes[region[i]].getPrevArcs().iterator();
+            while (iterator.hasNext()) {
+                Arc arc = iterator.next();
+                int w = slots.get(isForward ? arc.getEndNode() : arc.getStartNode());
+                if (reached.get(w) && !affected.get(w)) {
+                    affected.set(w);
+                    region[size++] = w;
+                }
+            }
+        }
+        reached.andNot(affected);
+
+        // Schritt 2: Knoten mit weiterhin erreichbarem Nachbarn neu ableiten.
+        for (int i = 0; i < size; i++) {
+            int v = region[i];
+            if (reached.get(v)) {
+                continue;
+            }
+            boolean supported = v == root;
+            Iterator<Arc> iterator = isForward
+                    ? nodes[v].getPrevArcs().iterator()
+                    : nodes[v].getNextArcs().iterator();
+            while (!supported && iterator.hasNext()) {
+                Arc arc = iterator.next();
+                int w = slots.get(isForward ? arc.getStartNode() : arc.getEndNode());
+                supported = reached.get(w);
+            }
+            if (supported) {
+                extend(v, reached, isForward);
+            }
+        }
+    }
+
+    /**
+     * Diese Methode erzeugt eine Meldung mit den ids der übergebenen Knoten.
+     * Es werden nur die ids gesammelt, die in der Meldung genannt werden.
+     *
+     * @param message Der Grund der fehlgeschlagenen Überprüfung.
+     * @param failed Die Plätze der betroffenen Knoten.
+     * @return Die Meldung.
+     */
+    private String describe(String message, BitSet failed) {
+        List<String> ids = new ArrayList<>();
+        for (int v = failed.nextSetBit(0); v >= 0 && ids.size() < WorkflownetValidator.MAX_NAMED_NODES;
+                v = failed.nextSetBit(v + 1)) {
+            ids.add(nodes[v].getId());
+        }
+        return WorkflownetValidator.describe(message, ids, failed.cardinality());
+    }
+
+    /**
+     * Diese Methode erzeugt eine Meldung mit den ids der belegten Plätze, die
+     * nicht in der übergebenen Menge liegen. Es werden nur die ids gesammelt,
+     * die in der Meldung genannt werden.
+     *
+     * @param message Der Grund der fehlgeschlagenen Überprüfung.
+     * @param passed Die Plätze der Knoten, die die Überprüfung bestanden
+     * haben.
+     * @param total Die Anzahl der betroffenen Knoten.
+     * @return Die Meldung.
+     */
+    private String describeMissing(String message, BitSet passed, int total) {
+        List<String> ids = new ArrayList<>();
+        for (int v = passed.nextClearBit(0); v < slotCount && ids.size() < WorkflownetValidator.MAX_NAMED_NODES;
+                v = passed.nextClearBit(v + 1)) {
+            if (used.get(v)) {
+                ids.add(nodes[v].getId());
+            }
+        }
+        return WorkflownetValidator.describe(message, ids, total);
+    }
+
+    /**
+     * Diese Methode vergrößert die Arrays, falls der übergebene Platz nicht
+     * mehr hineinpasst.
+     *
+     * @param size Die benötigte Anzahl an Plätzen.
+     */
+    private void ensureCapacity(int size) {
+        if (size > nodes.length) {
+            int length = Math.max(size, nodes.length * 2);
+            nodes = Arrays.copyOf(nodes, length);
+            inDegree = Arrays.copyOf(inDegree, length);
+            outDegree = Arrays.copyOf(outDegree, length);
+            freeSlots = Arrays.copyOf(freeSlots, length);
+            workList = Arrays.copyOf(workList, length);
+            region = Arrays.copyOf(region, length);
+        }
+    }
+}
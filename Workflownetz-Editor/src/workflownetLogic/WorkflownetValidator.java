@@ -0,0 +1,268 @@
+package workflownetLogic;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import resources.MyMessages;
+
+/**
+ * Diese Klasse überprüft die Struktur eines Workflownetzes auf einer
+ * Momentaufnahme (NetGraph). Es wird festgestellt, ob es genau eine Start- und
+ * eine Endstelle gibt und ob alle Knoten auf einem Pfad von der Start- zur
+ * Endstelle liegen. Die Erreichbarkeit wird iterativ mit einer Arbeitsliste
+ * bestimmt und in BitSet-Objekten festgehalten, so dass auch sehr lange Netze
+ * ohne Rekursion und in linearer Zeit überprüft werden. Die PetriNode-Objekte
+ * werden dabei nicht verändert.
+ */
+public class WorkflownetValidator {
+
+    /**
+     * Maximale Anzahl an Knoten, die in einer Meldung namentlich genannt
+     * werden.
+     */
+    static final int MAX_NAMED_NODES = 10;
+
+    /**
+     * Die zu überprüfende Momentaufnahme.
+     */
+    private final NetGraph graph;
+
+    /**
+     * Alle Stellen ohne eingehende Kanten.
+     */
+    private final BitSet startCandidates = new BitSet();
+
+    /**
+     * Alle Stellen ohne ausgehende Kanten.
+     */
+    private final BitSet endCandidates = new BitSet();
+
+    /**
+     * Alle Knoten, die die Überprüfung nicht bestanden haben.
+     */
+    private BitSet failedNodes = new BitSet();
+
+    /**
+     * Index der Startstelle oder -1.
+     */
+    private int startPlace = -1;
+
+    /**
+     * Index der Endstelle oder -1.
+     */
+    private int endPlace = -1;
+
+    /**
+     * Eine Nachricht, die den Grund für eine fehlgeschlagene Überprüfung
+     * beinhaltet.
+     */
+    private String message;
+
+    /**
+     * Dieser Konstruktor initialisiert das Attribut graph.
+     *
+     * @param graph Die zu überprüfende Momentaufnahme.
+     */
+    public WorkflownetValidator(NetGraph graph) {
+        this.graph = graph;
+    }
+
+    /**
+     * Diese Methode überprüft, ob die Momentaufnahme ein gültiges Workflownetz
+     * repräsentiert. Es werden alle fehlerhaften Knoten gesammelt, nicht nur
+     * der erste.
+     *
+     * @return true, falls ein Workflownetz besteht, false, falls nicht.
+     */
+    public boolean validate() {
+        startCandidates.clear();
+        endCandidates.clear();
+        failedNodes = new BitSet();
+        startPlace = -1;
+        endPlace = -1;
+        for (int p = 0; p < graph.getPlaceCount(); p++) {
+            if (graph.getPreCount(p) == 0) {
+                startCandidates.set(p);
+            }
+            if (graph.getPostCount(p) == 0) {
+                endCandidates.set(p);
+            }
+        }
+        if (startCandidates.cardinality() > 1) {
+            failedNodes.or(startCandidates);
+            message = MyMessages.MORE_STARTPLACES;
+            return false;
+        }
+        if (endCandidates.cardinality() > 1) {
+            failedNodes.or(endCandidates);
+            message = MyMessages.MORE_ENDPLACES;
+            return false;
+        }
+        if (endCandidates.isEmpty()) {
+            message = MyMessages.NO_ENDPLACE;
+            return false;
+        }
+        if (startCandidates.isEmpty()) {
+            message = MyMessages.NO_STARTPLACE;
+            return false;
+        }
+        startPlace = startCandidates.nextSetBit(0);
+        endPlace = endCandidates.nextSetBit(0);
+
+        // Alle Knoten, die nicht vorwärts und rückwärts erreicht werden,
+        // liegen nicht auf einem Pfad zwischen Start- und Endstelle.
+        BitSet onPath = forwardReachable(graph, startPlace);
+        onPath.and(backwardReachable(graph, endPlace));
+        failedNodes.set(0, graph.getNodeCount());
+        failedNodes.andNot(onPath);
+        if (!failedNodes.isEmpty()) {
+            message = MyMessages.NOT_REACHABLE;
+            return false;
+        }
+        message = null;
+        return true;
+    }
+
+    /**
+     * Diese Methode bestimmt alle Knoten, die vom übergebenen Knoten aus
+     * erreichbar sind (Breitensuche mit Arbeitsliste).
+     *
+     * @param graph Die Momentaufnahme des Netzes.
+     * @param from Index des Ausgangsknotens.
+     * @return Ein BitSet mit allen erreichbaren Knoten (inklusive from).
+     */
+    public static BitSet forwardReachable(NetGraph graph, int from) {
+        return reachable(graph.getPostStart(), graph.getPost(), graph.getNodeCount(), from);
+    }
+
+    /**
+     * Diese Methode bestimmt alle Knoten, von denen aus der übergebene Knoten
+     * erreichbar ist (Breitensuche über invertierte Kanten).
+     *
+     * @param graph Die Momentaufnahme des Netzes.
+     * @param to Index des Zielknotens.
+     * @return Ein BitSet mit allen Knoten, die to erreichen (inklusive to).
+     */
+    public static BitSet backwardReachable(NetGraph graph, int to) {
+        return reachable(graph.getPreStart(), graph.getPre(), graph.getNodeCount(), to);
+    }
+
+    /**
+     * Breitensuche auf einem Graphen im CSR-Format. Jeder Knoten wird genau
+     * einmal in die Arbeitsliste aufgenommen, die Laufzeit ist daher linear in
+     * der Anzahl der Knoten und Kanten.
+     *
+     * @param start Offset-Array der Nachbarn.
+     * @param adjacent Nachbarn aller Knoten.
+     * @param n Anzahl der Knoten.
+     * @param root Ausgangsknoten.
+     * @return Ein BitSet mit allen erreichten Knoten.
+     */
+    private static BitSet reachable(int[] start, int[] adjacent, int n, int root) {
+        BitSet reached = new BitSet(n);
+        int[] workList = new int[n];
+        int head = 0;
+        int tail = 0;
+        reached.set(root);
+        workList[tail++] = root;
+        while (head < tail) {
+            int v = workList[head++];
+            for (int i = start[v]; i < start[v + 1]; i++) {
+                int w = adjacent[i];
+                if (!reached.get(w)) {
+                    reached.set(w);
+                    workList[tail++] = w;
+                }
+            }
+        }
+        return reached;
+    }
+
+    /**
+     * Diese Methode erzeugt eine Meldung, die den Grund der fehlgeschlagenen
+     * Überprüfung und die ids der betroffenen Knoten beinhaltet.
+     *
+     * @return Die Meldung oder null, falls die Überprüfung erfolgreich war.
+     */
+    public String getMessage() {
+        if (message == null || failedNodes.isEmpty()) {
+            return message;
+        }
+        List<String> ids = new ArrayList<>();
+        for (int v = failedNodes.nextSetBit(0); v >= 0; v = failedNodes.nextSetBit(v + 1)) {
+            ids.add(graph.getId(v));
+        }
+        return describe(message, ids);
+    }
+
+    /**
+     * Diese Methode hängt an eine Meldung die ids der betroffenen Knoten an.
+     * Es werden höchstens MAX_NAMED_NODES ids genannt, die übrigen werden
+     * gezählt.
+     *
+     * @param message Der Grund der fehlgeschlagenen Überprüfung.
+     * @param ids Die ids aller betroffenen Knoten.
+     * @return Die Meldung mit den ids der betroffenen Knoten.
+     */
+    public static String describe(String message, List<String> ids) {
+        return describe(message, ids, ids.size());
+    }
+
+    /**
+     * Diese Methode hängt an eine Meldung die ids der ersten betroffenen
+     * Knoten an. Die Liste muss nur die ersten MAX_NAMED_NODES ids enthalten,
+     * die übrigen werden nur gezählt.
+     *
+     * @param message Der Grund der fehlgeschlagenen Überprüfung.
+     * @param ids Die ids der ersten betroffenen Knoten.
+     * @param total Die Anzahl aller betroffenen Knoten.
+     * @return Die Meldung mit den ids der betroffenen Knoten.
+     */
+    static String describe(String message, List<String> ids, int total) {
+        if (total == 0) {
+            return message;
+        }
+        StringBuilder builder = new StringBuilder(message).append('\n');
+        int named = Math.min(ids.size(), MAX_NAMED_NODES);
+        for (int i = 0; i < named; i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            builder.append(ids.get(i));
+        }
+        if (total > named) {
+            builder.append(" (und ").append(total - named).append(" weitere)");
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Diese Methode gibt alle Knoten zurück, die die Überprüfung nicht
+     * bestanden haben.
+     *
+     * @return Ein BitSet mit den Indizes der fehlerhaften Knoten.
+     */
+    public BitSet getFailedNodes() {
+        return failedNodes;
+    }
+
+    /**
+     * Diese Methode gibt den Index der Startstelle zurück.
+     *
+     * @return Index der Startstelle oder -1, falls keine eindeutige
+     * Startstelle existiert.
+     */
+    public int getStartPlace() {
+        return startPlace;
+    }
+
+    /**
+     * Diese Methode gibt den Index der Endstelle zurück.
+     *
+     * @return Index der Endstelle oder -1, falls keine eindeutige Endstelle
+     * existiert.
+     */
+    public int getEndPlace() {
+        return endPlace;
+    }
+}
@@ -1,5 +1,7 @@
 package workflownetz.editor;
 
+import controller.MainController;
+import controller.WorkflownetContainerController;
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
@@ -17,7 +19,9 @@ public class WorkflownetzEditor extends Application {
 
     @Override
     public void start(Stage stage) throws Exception {
-        BorderPane root = FXMLLoader.load(getClass().getResource("/view/main.fxml"));
+        FXMLLoader loader = new FXMLLoader(getClass().getResource("/view/main.fxml"));
+        BorderPane root = loader.load();
+        MainController mainController = loader.getController();
 
         Scene scene = new Scene(root);
 
@@ -26,9 +30,29 @@ public class WorkflownetzEditor extends Application {
         
         
         stage.setScene(scene);
+        stage.setOnCloseRequest(event -> {
+            if (!mainController.confirmExit()) {
+                event.consume();
+            }
+        });
         stage.show();
     }
 
+    /**
+     * Diese Methode wird beim Beenden der Anwendung aufgerufen und wartet auf
+     * laufende Speichervorgänge.
+     *
+     * @throws Exception Falls das Warten unterbrochen wird.
+     */
+    @Override
+    public void stop() throws Exception {
+        if (!WorkflownetContainerController.awaitPendingSaves(60)) {
+            // Der Thread SAVE_EXECUTOR ist kein Daemon-Thread, die JVM endet
+            // daher erst nach dem letzten Speichervorgang.
+            System.err.println("Das Speichern dauert an, die Anwendung wird danach beendet.");
+        }
+    }
+
     /**
      * @param args the command line arguments
      */
@@ -0,0 +1,103 @@
+package conformance;
+
+import java.io.IOException;
+import java.io.StringReader;
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+import stateSpace.MarkingEncoding;
+import workflownetLogic.NetGraph;
+
+/**
+ * Diese Klasse prüft die Kosten optimaler Alignments. Die Suche wird auf dem
+ * Netz aus TokenReplayerTest mit den stillen Transitionen t0 und t3 geprüft,
+ * die Zusammenfassung eines Logs auf dem Netz p0, t0, p1, t1, p2 aus
+ * ConformanceCheckerTest.
+ */
+public class AlignmentCheckerTest {
+
+    /**
+     * Diese Methode richtet einen Fall auf dem Netz mit stillen Transitionen
+     * aus.
+     *
+     * @param activities Die Aktivitäten des Falls.
+     * @return Das Alignment.
+     */
+    private static Alignment align(String... activities) {
+        String[] ids = {"p0", "p1", "p2", "p3", "p4", "p5", "t0", "t1", "t2", "t3"};
+        int[] source = {0, 6, 6, 1, 7, 2, 8, 3, 4, 9};
+        int[] target = {6, 1, 2, 7, 3, 8, 4, 9, 9, 5};
+        NetGraph graph = new NetGraph(ids, 6, new int[6], source, target, 10, null);
+        TokenReplayer replayer = new TokenReplayer(graph, 0, 5, new String[]{"", "a", "b", ""});
+        int[] trace = new int[activities.length];
+        for (int i = 0; i < trace.length; i++) {
+            trace[i] = replayer.getActivity(activities[i]);
+        }
+        return new AlignmentSearch(replayer, new MarkingEncoding(graph), 0, 5).align(trace);
+    }
+
+    /**
+     * Diese Methode richtet ein Log im CSV-Format auf dem Netz ohne stille
+     * Transitionen aus.
+     *
+     * @param csv Das Log.
+     * @return Das Ergebnis.
+     * @throws IOException Falls das Log nicht gelesen werden kann.
+     */
+    private static AlignmentResult alignLog(String csv) throws IOException {
+        String[] ids = {"p0", "p1", "p2", "t0", "t1"};
+        int[] source = {0, 3, 1, 4};
+        int[] target = {3, 1, 4, 2};
+        NetGraph graph = new NetGraph(ids, 3, new int[3], source, target, 4, null);
+        try (EventLogReader reader = new CsvLogReader(new StringReader(csv))) {
+            return new AlignmentChecker(graph, 0, 2).setThreads(2).align(reader);
+        }
+    }
+
+    /**
+     * Die stillen Transitionen schalten nur im Modell, kosten aber nichts.
+     * Ein Fall mit a und b in beliebiger Reihenfolge passt daher.
+     */
+    @Test
+    public void silentMovesAreFree() {
+        Alignment alignment = align("b", "a");
+        assertEquals(0, alignment.getCost());
+        assertEquals(4, alignment.getMoveCount());
+        assertEquals(Alignment.MoveType.MODEL, alignment.getMoveType(0));
+        assertEquals(Alignment.MoveType.SYNCHRONOUS, alignment.getMoveType(1));
+        assertEquals(Alignment.MoveType.SYNCHRONOUS, alignment.getMoveType(2));
+        assertEquals(Alignment.MoveType.MODEL, alignment.getMoveType(3));
+    }
+
+    /**
+     * Ein fehlendes Ereignis kostet einen Schritt nur im Modell, ein
+     * überzähliges einen Schritt nur im Log.
+     */
+    @Test
+    public void deviationsCostOne() {
+        assertEquals(1, align("a").getCost());
+        assertEquals(1, align("a", "a", "b").getCost());
+        assertEquals(2, align().getCost());
+    }
+
+    /**
+     * Die Zusammenfassung zählt die Kosten und Abweichungen aller Fälle. Der
+     * kürzeste Lauf durch das Netz kostet 2, die Fitness eines Falls ist 1
+     * minus seine Kosten geteilt durch die Länge des Falls plus 2.
+     *
+     * @throws IOException Falls das Log nicht gelesen werden kann.
+     */
+    @Test
+    public void logCostsAndFitness() throws IOException {
+        AlignmentResult result = alignLog("case,activity\n1,t0\n1,t1\n2,t1\n3,t0\n3,t0\n3,t1\n"
+                + "4,t0\n4,x\n4,t1\n");
+        assertEquals(4, result.getCases());
+        assertEquals(4, result.getVariants());
+        assertEquals(1, result.getFittingCases());
+        assertEquals(3, result.getTotalCost());
+        assertEquals(1, result.getModelMoves(0));
+        assertEquals(1, result.getLogMoves("t0"));
+        assertEquals(1, result.getLogMoves("x"));
+        double fitness = (1 + (1 - 1.0 / 3) + (1 - 1.0 / 5) + (1 - 1.0 / 5)) / 4;
+        assertEquals(fitness, result.getFitness(), 1e-9);
+    }
+}
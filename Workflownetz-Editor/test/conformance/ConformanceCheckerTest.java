@@ -0,0 +1,60 @@
+package conformance;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+import workflownetLogic.NetGraph;
+
+/**
+ * Diese Klasse prüft das Abspielen eines Ereignislogs auf dem Netz p0, t0,
+ * p1, t1, p2 mit der Startstelle p0 und der Endstelle p2.
+ */
+public class ConformanceCheckerTest {
+
+    /**
+     * Diese Methode spielt ein Log im CSV-Format ab.
+     *
+     * @param csv Das Log.
+     * @return Das Ergebnis.
+     * @throws IOException Falls das Log nicht gelesen werden kann.
+     */
+    private static ReplayResult replay(String csv) throws IOException {
+        String[] ids = {"p0", "p1", "p2", "t0", "t1"};
+        int[] source = {0, 3, 1, 4};
+        int[] target = {3, 1, 4, 2};
+        NetGraph graph = new NetGraph(ids, 3, new int[3], source, target, 4, null);
+        try (EventLogReader reader = new CsvLogReader(new StringReader(csv))) {
+            return new ConformanceChecker(graph, 0, 2).setThreads(2).replay(reader);
+        }
+    }
+
+    /**
+     * Ein Fall, der genau dem Netz folgt, passt.
+     *
+     * @throws IOException Falls das Log nicht gelesen werden kann.
+     */
+    @Test
+    public void matchingCaseFits() throws IOException {
+        ReplayResult result = replay("case,activity\n1,t0\n1,t1\n");
+        assertEquals(1, result.getCases());
+        assertEquals(1, result.getFittingCases());
+    }
+
+    /**
+     * Ein Fall, der nur aus Ereignissen ohne passende Transition besteht,
+     * passt nicht, obwohl beim Abspielen keine Marken fehlen oder übrig
+     * bleiben.
+     *
+     * @throws IOException Falls das Log nicht gelesen werden kann.
+     */
+    @Test
+    public void unmappedEventsAreDeviations() throws IOException {
+        ReplayResult result = replay("case,activity\n1,t0\n1,t1\n2,x\n2,y\n3,t0\n3,x\n3,t1\n");
+        assertEquals(3, result.getCases());
+        assertEquals(1, result.getFittingCases());
+        assertEquals(3, result.getUnmappedEvents());
+        assertEquals(Arrays.asList("2", "3"), result.getWorstCases());
+    }
+}
@@ -0,0 +1,78 @@
+package conformance;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+import workflownetLogic.NetGraph;
+
+/**
+ * Diese Klasse prüft das Abspielen einzelner Fälle auf einem Netz mit stillen
+ * Transitionen, wie es ein DiscoveredNet erzeugt: t0 verteilt die Marke von
+ * p0 auf p1 und p2, t1 (a) und t2 (b) laufen parallel, t3 führt ihre Marken
+ * in der Endstelle p5 zusammen. t0 und t3 sind still.
+ */
+public class TokenReplayerTest {
+
+    /**
+     * Diese Methode erzeugt den Replayer für das Netz.
+     *
+     * @return Der Replayer.
+     */
+    private static TokenReplayer replayer() {
+        String[] ids = {"p0", "p1", "p2", "p3", "p4", "p5", "t0", "t1", "t2", "t3"};
+        int[] source = {0, 6, 6, 1, 7, 2, 8, 3, 4, 9};
+        int[] target = {6, 1, 2, 7, 3, 8, 4, 9, 9, 5};
+        NetGraph graph = new NetGraph(ids, 6, new int[6], source, target, 10, null);
+        return new TokenReplayer(graph, 0, 5, new String[]{"", "a", "b", ""});
+    }
+
+    /**
+     * Diese Methode spielt einen Fall ab.
+     *
+     * @param replayer Der Replayer.
+     * @param activities Die Aktivitäten des Falls.
+     * @return Die Zähler des Falls.
+     */
+    private static int[] replay(TokenReplayer replayer, String... activities) {
+        int[] trace = new int[activities.length];
+        for (int i = 0; i < trace.length; i++) {
+            trace[i] = replayer.getActivity(activities[i]);
+        }
+        int[] counts = new int[4];
+        replayer.replay(trace, new int[replayer.getGraph().getPlaceCount()], counts);
+        return counts;
+    }
+
+    /**
+     * Nur die Beschriftungen werden Aktivitäten, weder die ids noch die
+     * leeren Beschriftungen der stillen Transitionen.
+     */
+    @Test
+    public void onlyLabelsAreActivities() {
+        TokenReplayer replayer = replayer();
+        assertEquals(2, replayer.getActivityCount());
+        assertEquals(-1, replayer.getActivity("t1"));
+        assertEquals(-1, replayer.getActivity(""));
+    }
+
+    /**
+     * Die stillen Transitionen werden geschaltet, sobald a bzw. das Ende des
+     * Falls es verlangen. Es fehlen keine Marken und es bleiben keine übrig.
+     */
+    @Test
+    public void silentTransitionsAreFired() {
+        TokenReplayer replayer = replayer();
+        // Erzeugt: Start, t0 (2), a, b, t3; verbraucht: t0, a, b, t3 (2), Ende.
+        assertArrayEquals(new int[]{6, 6, 0, 0}, replay(replayer, "a", "b"));
+        assertArrayEquals(new int[]{6, 6, 0, 0}, replay(replayer, "b", "a"));
+    }
+
+    /**
+     * Fehlt b, kann t3 nicht schalten. Die Marken auf p2 und p3 bleiben übrig
+     * und die Marke der Endstelle fehlt.
+     */
+    @Test
+    public void missingActivityLeavesTokens() {
+        assertArrayEquals(new int[]{4, 3, 1, 2}, replay(replayer(), "a"));
+    }
+}
@@ -0,0 +1,73 @@
+package controller;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * Diese Klasse prüft, wann ein Tab nach einem Speichervorgang als gespeichert
+ * gilt.
+ */
+public class SaveStateTest {
+
+    /**
+     * Ein erfolgreicher Speichervorgang ohne Änderung markiert das Netz als
+     * gespeichert.
+     */
+    @Test
+    public void successfulSaveMarksSaved() {
+        SaveState state = new SaveState();
+        state.changed();
+        long start = state.saveStarted();
+        assertFalse(state.isSaved());
+        assertTrue(state.isSaving());
+        state.saveSucceeded(start);
+        assertTrue(state.isSaved());
+        assertFalse(state.isSaving());
+    }
+
+    /**
+     * Eine Änderung während des Speicherns ist nicht in der Datei enthalten.
+     * Das Netz bleibt daher nicht gespeichert.
+     */
+    @Test
+    public void changeDuringSaveKeepsUnsaved() {
+        SaveState state = new SaveState();
+        long start = state.saveStarted();
+        state.changed();
+        state.saveSucceeded(start);
+        assertFalse(state.isSaved());
+    }
+
+    /**
+     * Ein fehlgeschlagener oder abgebrochener Speichervorgang lässt das Netz
+     * nicht als gespeichert zurück, auch wenn es vorher gespeichert war.
+     */
+    @Test
+    public void failedSaveMarksUnsaved() {
+        SaveState state = new SaveState();
+        state.setSaved(true);
+        state.saveStarted();
+        state.saveFailed();
+        assertFalse(state.isSaved());
+        assertFalse(state.isSaving());
+    }
+
+    /**
+     * Von zwei nacheinander gestarteten Speichervorgängen markiert nur der
+     * zweite das Netz als gespeichert, wenn dazwischen geändert wurde.
+     */
+    @Test
+    public void onlyLatestSaveMarksSaved() {
+        SaveState state = new SaveState();
+        long first = state.saveStarted();
+        state.changed();
+        long second = state.saveStarted();
+        state.saveSucceeded(first);
+        assertFalse(state.isSaved());
+        assertTrue(state.isSaving());
+        state.saveSucceeded(second);
+        assertTrue(state.isSaved());
+        assertFalse(state.isSaving());
+    }
+}
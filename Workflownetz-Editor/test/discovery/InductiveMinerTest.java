@@ -0,0 +1,85 @@
+package discovery;
+
+import java.util.ArrayList;
+import java.util.List;
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+
+/**
+ * Diese Klasse prüft die Entdeckung von Netzen aus kleinen Logs, deren
+ * Prozessbaum von Hand bestimmt wurde. Jeder Fall wird als String angegeben,
+ * jedes Zeichen ist eine Aktivität.
+ */
+public class InductiveMinerTest {
+
+    /**
+     * Diese Methode erzeugt die Directly-Follows-Relation eines Logs.
+     *
+     * @param cases Die Fälle.
+     * @return Die Directly-Follows-Relation.
+     */
+    private static DirectlyFollowsGraph log(String... cases) {
+        DirectlyFollowsGraph dfg = new DirectlyFollowsGraph();
+        for (String activities : cases) {
+            List<String> list = new ArrayList<>();
+            for (char activity : activities.toCharArray()) {
+                list.add(String.valueOf(activity));
+            }
+            dfg.addCase(list);
+        }
+        return dfg;
+    }
+
+    /**
+     * b und c kommen in beiden Reihenfolgen vor und werden parallel.
+     */
+    @Test
+    public void sequenceAndParallel() {
+        DirectlyFollowsGraph dfg = log("abcd", "acbd");
+        ProcessTree tree = new InductiveMiner(dfg).mine();
+        assertEquals("->(a, +(b, c), d)", tree.toString());
+        DiscoveredNet net = new DiscoveredNet(tree, dfg);
+        assertEquals(6, net.getPlaceCount());
+        assertEquals(4, net.getTransitionCount());
+        assertEquals(0, net.getSilentTransitionCount());
+    }
+
+    /**
+     * b und c folgen nie aufeinander und werden zur Auswahl.
+     */
+    @Test
+    public void exclusiveChoice() {
+        DirectlyFollowsGraph dfg = log("abd", "acd");
+        ProcessTree tree = new InductiveMiner(dfg).mine();
+        assertEquals("->(a, X(b, c), d)", tree.toString());
+        DiscoveredNet net = new DiscoveredNet(tree, dfg);
+        assertEquals(4, net.getPlaceCount());
+        assertEquals(4, net.getTransitionCount());
+    }
+
+    /**
+     * Ein wiederholtes b wird zur Schleife, deren Ein- und Ausgang still
+     * sind.
+     */
+    @Test
+    public void loop() {
+        DirectlyFollowsGraph dfg = log("abc", "abbc", "abbbc");
+        ProcessTree tree = new InductiveMiner(dfg).mine();
+        assertEquals("->(a, *(b, tau), c)", tree.toString());
+        DiscoveredNet net = new DiscoveredNet(tree, dfg);
+        assertEquals(5, net.getPlaceCount());
+        assertEquals(5, net.getTransitionCount());
+        assertEquals(2, net.getSilentTransitionCount());
+    }
+
+    /**
+     * Ein leerer Fall macht das ganze Verhalten optional.
+     */
+    @Test
+    public void emptyCase() {
+        DirectlyFollowsGraph dfg = log("ab", "");
+        ProcessTree tree = new InductiveMiner(dfg).mine();
+        assertEquals("X(->(a, b), tau)", tree.toString());
+        assertEquals(1, new DiscoveredNet(tree, dfg).getSilentTransitionCount());
+    }
+}
@@ -0,0 +1,110 @@
+package invariants;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+import workflownetLogic.NetGraph;
+
+/**
+ * Diese Klasse prüft die Berechnung der minimalen Invarianten an kleinen
+ * Netzen, deren Invarianten von Hand bestimmt wurden.
+ */
+public class InvariantCalculatorTest {
+
+    /**
+     * Diese Methode erzeugt ein Netz aus den ids und Kanten. Die Stellen
+     * stehen vor den Transitionen, keine Stelle trägt eine Marke.
+     *
+     * @param ids Die ids aller Knoten.
+     * @param places Die Anzahl der Stellen.
+     * @param source Die Quellen der Kanten.
+     * @param target Die Ziele der Kanten.
+     * @return Das Netz.
+     */
+    private static NetGraph net(String[] ids, int places, int[] source, int[] target) {
+        return new NetGraph(ids, places, new int[places], source, target, source.length, null);
+    }
+
+    /**
+     * Diese Methode gibt alle Invarianten als Strings zurück.
+     *
+     * @param invariants Die Invarianten.
+     * @return Die Invarianten, getrennt durch ", ".
+     */
+    private static String format(Invariants invariants) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < invariants.getCount(); i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            builder.append(invariants.toString(i));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * t0 verteilt die Marke von p0 auf p2 und p3, t1 und t2 legen je eine
+     * Marke auf p1. Die einzige minimale P-Invariante gewichtet p0 daher
+     * doppelt, T-Invarianten gibt es keine.
+     */
+    @Test
+    public void weightedPlaceInvariant() {
+        NetGraph graph = net(new String[]{"p0", "p1", "p2", "p3", "t0", "t1", "t2"}, 4,
+                new int[]{0, 4, 4, 2, 3, 5, 6}, new int[]{4, 2, 3, 5, 6, 1, 1});
+        InvariantCalculator calculator = new InvariantCalculator(graph);
+        Invariants places = calculator.placeInvariants();
+        assertTrue(places.isComplete());
+        assertEquals("2 p0 + p1 + p2 + p3", format(places));
+        assertTrue(places.isCovering());
+        assertEquals(0, calculator.transitionInvariants().getCount());
+    }
+
+    /**
+     * t0 teilt die Marke von p0 auf zwei Zweige über p2, t1, p4 und p3, t2,
+     * p5 auf, t3 führt sie in p1 zusammen. Jeder Zweig ergibt eine minimale
+     * P-Invariante, ihre Summe ist nicht minimal.
+     */
+    @Test
+    public void oneInvariantPerBranch() {
+        NetGraph graph = net(new String[]{"p0", "p1", "p2", "p3", "p4", "p5",
+            "t0", "t1", "t2", "t3"}, 6,
+                new int[]{0, 6, 6, 2, 7, 3, 8, 4, 5, 9},
+                new int[]{6, 2, 3, 7, 4, 8, 5, 9, 9, 1});
+        Invariants places = new InvariantCalculator(graph).placeInvariants();
+        assertEquals("p0 + p1 + p2 + p4, p0 + p1 + p3 + p5", format(places));
+        assertEquals(0, places.getUncoveredIds().size());
+    }
+
+    /**
+     * t0 und t1 bilden einen Kreis über p0 und p1, t2 ist eine Schleife an
+     * p1 und t3 verbraucht Marken von p1. Minimal sind die T-Invarianten t0 +
+     * t1 und t2, t3 liegt in keiner. Die einzige P-Invariante p0 + p1 wird
+     * von t3 verletzt, es gibt daher keine.
+     */
+    @Test
+    public void transitionInvariants() {
+        NetGraph graph = net(new String[]{"p0", "p1", "t0", "t1", "t2", "t3"}, 2,
+                new int[]{0, 2, 1, 3, 1, 4, 1}, new int[]{2, 1, 3, 0, 4, 1, 5});
+        InvariantCalculator calculator = new InvariantCalculator(graph);
+        Invariants transitions = calculator.transitionInvariants();
+        assertFalse(transitions.isPlaceInvariants());
+        assertEquals("t0 + t1, t2", format(transitions));
+        assertFalse(transitions.isCovering());
+        assertEquals("[t3]", transitions.getUncoveredIds().toString());
+        assertEquals(0, calculator.placeInvariants().getCount());
+    }
+
+    /**
+     * Wird die Zeilengrenze überschritten, ist das Ergebnis unvollständig
+     * und leer.
+     */
+    @Test
+    public void rowLimitGivesIncompleteResult() {
+        NetGraph graph = net(new String[]{"p0", "p1", "p2", "p3", "t0", "t1", "t2"}, 4,
+                new int[]{0, 4, 4, 2, 3, 5, 6}, new int[]{4, 2, 3, 5, 6, 1, 1});
+        Invariants places = new InvariantCalculator(graph).setMaxRows(1).placeInvariants();
+        assertFalse(places.isComplete());
+        assertEquals(0, places.getCount());
+    }
+}
@@ -0,0 +1,116 @@
+package persistenceService;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.stream.Stream;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import workflownetLogic.SoundnessResult;
+import workflownetLogic.SoundnessResult.Verdict;
+
+/**
+ * Diese Klasse prüft das Ablegen und Lesen der Dateien des AnalysisCache.
+ */
+public class AnalysisCacheTest {
+
+    /**
+     * Das Verzeichnis der Dateien.
+     */
+    private Path directory;
+
+    /**
+     * Diese Methode legt das Verzeichnis an.
+     *
+     * @throws IOException Falls das Verzeichnis nicht angelegt werden kann.
+     */
+    @Before
+    public void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("cache");
+    }
+
+    /**
+     * Diese Methode löscht das Verzeichnis mit seinem Inhalt.
+     *
+     * @throws IOException Falls eine Datei nicht gelöscht werden kann.
+     */
+    @After
+    public void deleteDirectory() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    /**
+     * Diese Methode erzeugt einen Cache, der seine Dateien im aufrufenden
+     * Thread liest und schreibt.
+     *
+     * @return Der Cache.
+     */
+    private AnalysisCache createCache() {
+        return new AnalysisCache(directory.toFile(), 4, 1 << 20, Runnable::run);
+    }
+
+    /**
+     * Ein Soundness-Ergebnis wird von einem neuen Cache aus der Datei
+     * gelesen.
+     */
+    @Test
+    public void soundnessResultIsReadFromFile() {
+        SoundnessResult result = new SoundnessResult(Verdict.DEADLOCK,
+                new ArrayList<>(Arrays.asList("t0", "t1")), Collections.<String>emptyList(),
+                BigInteger.valueOf(Long.MAX_VALUE).pow(2), true);
+        createCache().put("a-soundness", result);
+        SoundnessResult read = (SoundnessResult) createCache().get("a-soundness");
+        assertEquals(Verdict.DEADLOCK, read.getVerdict());
+        assertEquals(Arrays.asList("t0", "t1"), read.getWitness());
+        assertEquals(result.getStateCount(), read.getStateCount());
+        assertTrue(read.isReduced());
+    }
+
+    /**
+     * Eine Meldung wird von einem neuen Cache aus der Datei gelesen.
+     */
+    @Test
+    public void messageIsReadFromFile() {
+        createCache().put("a-invariants", "2 minimale P-Invarianten");
+        assertEquals("2 minimale P-Invarianten", createCache().get("a-invariants"));
+    }
+
+    /**
+     * Eine Datei mit einer nicht zugelassenen Klasse wird nicht gelesen,
+     * sondern gelöscht.
+     *
+     * @throws IOException Falls das Verzeichnis nicht gelesen werden kann.
+     */
+    @Test
+    public void otherClassIsRejected() throws IOException {
+        createCache().put("a-soundness", new HashMap<String, String>());
+        assertNull(createCache().get("a-soundness"));
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    /**
+     * Ohne Datei liefert load null.
+     */
+    @Test
+    public void loadWithoutFileReturnsNull() {
+        Object[] loaded = {"nicht aufgerufen"};
+        createCache().load(() -> "b-soundness", value -> loaded[0] = value);
+        assertNull(loaded[0]);
+    }
+}
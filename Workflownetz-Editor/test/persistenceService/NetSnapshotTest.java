@@ -0,0 +1,139 @@
+package persistenceService;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Diese Klasse prüft, dass ein Netz eine Momentaufnahme unverändert
+ * durchläuft.
+ */
+public class NetSnapshotTest {
+
+    /**
+     * Das Verzeichnis, in dem gespeichert wird.
+     */
+    private Path directory;
+
+    /**
+     * Diese Methode legt das Verzeichnis an.
+     *
+     * @throws IOException Falls das Verzeichnis nicht angelegt werden kann.
+     */
+    @Before
+    public void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("snapshot");
+    }
+
+    /**
+     * Diese Methode löscht das Verzeichnis mit seinem Inhalt.
+     *
+     * @throws IOException Falls eine Datei nicht gelöscht werden kann.
+     */
+    @After
+    public void deleteDirectory() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    /**
+     * Diese Methode erzeugt ein Netz, dessen Knoten nicht nach id sortiert
+     * angelegt werden. Die Endstelle p1 hat weder Beschriftung noch
+     * Position.
+     *
+     * @return Das Netz.
+     */
+    private static NetModel model() {
+        NetModel model = new NetModel();
+        model.addTransition("t1").setName("Prüfen");
+        NodeRecord start = model.addPlace("p0");
+        start.setName("Start");
+        start.setPosition(10, 20.5);
+        start.setMarking(1);
+        model.addPlace("p1");
+        model.addTransition("t0").setName("a");
+        model.addPlace("p2").setMarking(3);
+        model.addArc("a0", "p0", "t0");
+        model.addArc("a1", "t0", "p2");
+        model.addArc("a2", "p2", "t1");
+        model.addArc("a3", "t1", "p1");
+        return model;
+    }
+
+    /**
+     * Die Momentaufnahme ordnet die Knoten wie NetGraph und gibt alle Felder
+     * unverändert zurück, auch fehlende Beschriftungen und Positionen.
+     *
+     * @throws IOException Falls die Datei nicht geschrieben werden kann.
+     */
+    @Test
+    public void roundTripKeepsAllFields() throws IOException {
+        NetModel model = model();
+        File file = directory.resolve("net" + NetSnapshot.EXTENSION).toFile();
+        NetSnapshot.write(model, file);
+        assertTrue(NetSnapshot.isSnapshot(file));
+        NetSnapshot snapshot = NetSnapshot.open(file);
+        assertEquals(5, snapshot.getNodeCount());
+        assertEquals(3, snapshot.getPlaceCount());
+        assertEquals(4, snapshot.getArcCount());
+        String[] ids = {"p0", "p1", "p2", "t0", "t1"};
+        for (int v = 0; v < ids.length; v++) {
+            assertEquals(ids[v], snapshot.getId(v));
+            assertEquals(v < 3, snapshot.isPlace(v));
+        }
+        assertEquals("Start", snapshot.getName(0));
+        assertEquals(20.5, snapshot.getY(0), 0);
+        assertEquals(1, snapshot.getMarking(0));
+        assertNull(snapshot.getName(1));
+        assertTrue(Double.isNaN(snapshot.getX(1)));
+        assertEquals(3, snapshot.getMarking(2));
+        assertEquals("Prüfen", snapshot.getName(4));
+
+        NetModel copy = snapshot.toModel();
+        for (NodeRecord node : model.getNodes()) {
+            NodeRecord read = copy.getNode(node.getId());
+            assertEquals(node.isPlace(), read.isPlace());
+            assertEquals(node.getName(), read.getName());
+            assertEquals(node.hasPosition(), read.hasPosition());
+            assertEquals(node.getMarking(), read.getMarking());
+        }
+        assertEquals(model.getArcs().size(), copy.getArcs().size());
+        assertEquals(model.toNetGraph().getFingerprint(), snapshot.toNetGraph().getFingerprint());
+        assertEquals(model.toNetGraph().getFingerprint(), copy.toNetGraph().getFingerprint());
+    }
+
+    /**
+     * PersistenceService speichert eine Datei mit der Endung ".wfns" als
+     * Momentaufnahme und liest sie wieder ein, eine andere Endung als PNML.
+     *
+     * @throws Exception Falls das Speichern oder Laden fehlschlägt.
+     */
+    @Test
+    public void persistenceServiceChoosesFormat() throws Exception {
+        NetModel model = model();
+        File snapshot = directory.resolve("net" + NetSnapshot.EXTENSION).toFile();
+        File pnml = directory.resolve("net.pnml").toFile();
+        PersistenceService.saveModel(model, snapshot);
+        PersistenceService.saveModel(model, pnml);
+        assertTrue(NetSnapshot.isSnapshot(snapshot));
+        assertFalse(NetSnapshot.isSnapshot(pnml));
+        String fingerprint = model.toNetGraph().getFingerprint();
+        NetModel fromSnapshot = PersistenceService.loadModel(snapshot);
+        NetModel fromPnml = PersistenceService.loadModel(pnml);
+        assertEquals(fingerprint, fromSnapshot.toNetGraph().getFingerprint());
+        assertEquals(fingerprint, fromPnml.toNetGraph().getFingerprint());
+    }
+}
@@ -0,0 +1,236 @@
+package persistenceService;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+import javax.xml.stream.XMLStreamException;
+import workflownetLogic.NetGraph;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Diese Klasse prüft das Lesen von PNML Dateien mit bekannten Ergebnissen.
+ */
+public class PNMLParserTest {
+
+    /**
+     * Eine Datei mit zwei Stellen, einer Transition und zwei Kanten. Die
+     * Markierung ist von Leerraum umgeben, eine Koordinate hat
+     * Nachkommastellen.
+     */
+    private static final String NET = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+            + "<pnml><net>\n"
+            + "<place id=\"p0\"><name><value>Start</value></name>"
+            + "<graphics><position x=\"10\" y=\"20.5\"/></graphics>"
+            + "<initialMarking><token><value> 1 </value></token></initialMarking></place>\n"
+            + "<transition id=\"t0\"><name><value>a</value></name>"
+            + "<graphics><position x=\"100\" y=\"20\"/></graphics></transition>\n"
+            + "<place id=\"p1\"><name><value>Ende</value></name>"
+            + "<graphics><position x=\"200\" y=\"20\"/></graphics>"
+            + "<initialMarking><token><value>0</value></token></initialMarking></place>\n"
+            + "<arc id=\"a0\" source=\"p0\" target=\"t0\"></arc>\n"
+            + "<arc id=\"a1\" source=\"t0\" target=\"p1\"></arc>\n"
+            + "</net></pnml>\n";
+
+    /**
+     * Dieser Parser hält die Aufrufe fest, statt PetriNode-Objekte zu
+     * erzeugen.
+     */
+    private static final class Recorder extends PNMLParser {
+
+        /**
+         * Die Aufrufe in ihrer Reihenfolge.
+         */
+        private final List<String> calls = new ArrayList<>();
+
+        /**
+         * Dieser Konstruktor erstellt einen Parser für eine Datei.
+         *
+         * @param pnml Die Datei.
+         * @param cursorMode true, falls die Cursor-API verwendet werden soll.
+         */
+        Recorder(final File pnml, final boolean cursorMode) {
+            super(pnml, cursorMode);
+        }
+
+        @Override
+        public void newTransition(final String id) {
+            calls.add("transition " + id);
+        }
+
+        @Override
+        public void newPlace(final String id) {
+            calls.add("place " + id);
+        }
+
+        @Override
+        public void newArc(final String id, final String source, final String target) {
+            calls.add("arc " + id + " " + source + " " + target);
+        }
+
+        @Override
+        public void setPosition(final String id, final String x, final String y) {
+            setPosition(id, Double.parseDouble(x), Double.parseDouble(y));
+        }
+
+        @Override
+        public void setPosition(final String id, final double x, final double y) {
+            calls.add("position " + id + " " + x + " " + y);
+        }
+
+        @Override
+        public void setName(final String id, final String name) {
+            calls.add("name " + id + " " + name);
+        }
+
+        @Override
+        public void setMarking(final String id, final int marking) {
+            calls.add("marking " + id + " " + marking);
+        }
+    }
+
+    /**
+     * Das Verzeichnis für die Dateien.
+     */
+    private Path directory;
+
+    /**
+     * Diese Methode legt das Verzeichnis an.
+     *
+     * @throws IOException Falls das Verzeichnis nicht angelegt werden kann.
+     */
+    @Before
+    public void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("pnml");
+    }
+
+    /**
+     * Diese Methode löscht das Verzeichnis mit seinem Inhalt.
+     *
+     * @throws IOException Falls eine Datei nicht gelöscht werden kann.
+     */
+    @After
+    public void deleteDirectory() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    /**
+     * Diese Methode schreibt eine PNML Datei.
+     *
+     * @param pnml Der Inhalt der Datei.
+     * @return Die Datei.
+     * @throws IOException Falls die Datei nicht geschrieben werden kann.
+     */
+    private File write(String pnml) throws IOException {
+        Path file = directory.resolve("net.pnml");
+        Files.write(file, pnml.getBytes(StandardCharsets.UTF_8));
+        return file.toFile();
+    }
+
+    /**
+     * Diese Methode liest eine Datei und gibt die Aufrufe des Parsers zurück.
+     *
+     * @param file Die Datei.
+     * @param cursorMode true, falls die Cursor-API verwendet werden soll.
+     * @return Die Aufrufe in ihrer Reihenfolge.
+     * @throws XMLStreamException Falls die Datei nicht gelesen werden kann.
+     */
+    private static List<String> record(File file, boolean cursorMode)
+            throws XMLStreamException {
+        Recorder recorder = new Recorder(file, cursorMode);
+        recorder.initParser();
+        recorder.parse();
+        return recorder.calls;
+    }
+
+    /**
+     * Die Cursor-API liefert dieselben Aufrufe in derselben Reihenfolge wie
+     * die Ereignis-API.
+     *
+     * @throws Exception Falls die Datei nicht gelesen werden kann.
+     */
+    @Test
+    public void cursorMatchesEvents() throws Exception {
+        File file = write(NET);
+        List<String> events = record(file, false);
+        assertEquals(13, events.size());
+        assertEquals("position p0 10.0 20.5", events.get(2));
+        assertEquals("marking p0 1", events.get(3));
+        assertEquals("arc a0 p0 t0", events.get(11));
+        assertEquals(events, record(file, true));
+    }
+
+    /**
+     * Der PNMLModelParser liest die Datei ohne JavaFX in ein NetModel, aus
+     * dem die Momentaufnahme für die Analysen entsteht.
+     *
+     * @throws Exception Falls die Datei nicht gelesen werden kann.
+     */
+    @Test
+    public void modelWithoutJavaFx() throws Exception {
+        NetModel model = PersistenceService.loadModel(write(NET));
+        NodeRecord start = model.getNode("p0");
+        assertTrue(start.isPlace());
+        assertEquals("Start", start.getName());
+        assertEquals(10, start.getX(), 0);
+        assertEquals(20.5, start.getY(), 0);
+        assertEquals(1, start.getMarking());
+        assertEquals("a", model.getNode("t0").getName());
+        assertEquals(2, model.getArcs().size());
+        assertEquals("t0", model.getArcs().get(1).getSource().getId());
+
+        NetGraph graph = model.toNetGraph();
+        assertEquals(2, graph.getPlaceCount());
+        assertEquals(1, graph.getTransitionCount());
+        assertEquals(1, graph.getMarking(graph.indexOf("p0")));
+        assertEquals(0, graph.getMarking(graph.indexOf("p1")));
+        assertEquals(1, graph.getPostCount(graph.indexOf("p0")));
+        assertEquals(1, graph.getPreCount(graph.indexOf("p1")));
+        assertNull(graph.getPetriNode(0));
+    }
+
+    /**
+     * Kanten dürfen vor ihren Knoten stehen. Sie werden erst nach dem Ende
+     * des Dokuments in ihrer Reihenfolge übergeben, eine Kante zu einem
+     * unbekannten Knoten wird verworfen und gemeldet. Beide APIs verhalten
+     * sich gleich.
+     *
+     * @throws Exception Falls die Datei nicht gelesen werden kann.
+     */
+    @Test
+    public void arcsBeforeNodes() throws Exception {
+        File file = write("<pnml><net>\n"
+                + "<arc id=\"a1\" source=\"t0\" target=\"p1\"/>\n"
+                + "<arc id=\"a2\" source=\"t0\" target=\"p9\"/>\n"
+                + "<arc id=\"a0\" source=\"p0\" target=\"t0\"/>\n"
+                + "<place id=\"p0\"/><transition id=\"t0\"/><place id=\"p1\"/>\n"
+                + "</net></pnml>\n");
+        for (boolean cursorMode : new boolean[]{false, true}) {
+            Recorder recorder = new Recorder(file, cursorMode);
+            recorder.initParser();
+            recorder.parse();
+            assertEquals(Arrays.asList("place p0", "transition t0", "place p1",
+                    "arc a1 t0 p1", "arc a0 p0 t0"), recorder.calls);
+            assertEquals(Collections.singletonList("a2"), recorder.getUnresolvedArcs());
+        }
+        NetGraph graph = PersistenceService.loadModel(file).toNetGraph();
+        assertEquals(2, graph.getArcCount());
+        assertEquals(1, graph.getPostCount(graph.indexOf("t0")));
+    }
+}
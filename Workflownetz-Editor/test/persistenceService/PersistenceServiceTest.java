@@ -0,0 +1,140 @@
+package persistenceService;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Stream;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Diese Klasse prüft das Speichern über eine temporäre Datei.
+ */
+public class PersistenceServiceTest {
+
+    /**
+     * Das Verzeichnis, in dem gespeichert wird.
+     */
+    private Path directory;
+
+    /**
+     * Diese Methode legt das Verzeichnis an.
+     *
+     * @throws IOException Falls das Verzeichnis nicht angelegt werden kann.
+     */
+    @Before
+    public void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("persistence");
+    }
+
+    /**
+     * Diese Methode löscht das Verzeichnis mit seinem Inhalt.
+     *
+     * @throws IOException Falls eine Datei nicht gelöscht werden kann.
+     */
+    @After
+    public void deleteDirectory() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    /**
+     * Diese Methode erzeugt ein Netz aus einer Kette von Stellen und
+     * Transitionen.
+     *
+     * @param length Die Anzahl der Transitionen.
+     * @return Das Netz.
+     */
+    private static NetModel chain(int length) {
+        NetModel model = new NetModel();
+        model.addPlace("p0").setMarking(1);
+        for (int i = 0; i < length; i++) {
+            model.addTransition("t" + i);
+            model.addPlace("p" + (i + 1));
+            model.addArc("a" + (2 * i), "p" + i, "t" + i);
+            model.addArc("a" + (2 * i + 1), "t" + i, "p" + (i + 1));
+        }
+        return model;
+    }
+
+    /**
+     * Bricht das Schreiben ab, bleibt die bisherige Datei unverändert und
+     * die temporäre Datei wird gelöscht.
+     *
+     * @throws Exception Falls das Speichern anders als erwartet fehlschlägt.
+     */
+    @Test
+    public void interruptedSaveKeepsOriginalFile() throws Exception {
+        File file = directory.resolve("net.pnml").toFile();
+        PersistenceService.saveModel(chain(2), file);
+        byte[] original = Files.readAllBytes(file.toPath());
+        try {
+            PersistenceService.saveModel(chain(10000), file, fraction -> {
+                if (fraction > 0 && fraction < 1) {
+                    throw new IllegalStateException("abgebrochen");
+                }
+            });
+            fail("Das Speichern hätte abbrechen müssen.");
+        } catch (IllegalStateException e) {
+            assertEquals("abgebrochen", e.getMessage());
+        }
+        assertTrue(Arrays.equals(original, Files.readAllBytes(file.toPath())));
+        assertEquals(1, directory.toFile().list().length);
+        assertEquals(5, PersistenceService.loadModel(file).getNodes().size());
+    }
+
+    /**
+     * Kann die Zieldatei nicht ersetzt werden, meldet saveModel einen Fehler
+     * und hinterlässt keine temporäre Datei.
+     *
+     * @throws IOException Falls das Verzeichnis nicht vorbereitet werden kann.
+     */
+    @Test
+    public void failedSaveLeavesNoTemporaryFile() throws IOException {
+        File file = directory.resolve("net.pnml").toFile();
+        Files.createDirectory(file.toPath());
+        Files.write(file.toPath().resolve("inhalt"), "x".getBytes(StandardCharsets.UTF_8));
+        try {
+            PersistenceService.saveModel(chain(2), file);
+            fail("Das Speichern hätte fehlschlagen müssen.");
+        } catch (Exception e) {
+            // erwartet
+        }
+        assertEquals(1, directory.toFile().list().length);
+        Files.delete(file.toPath().resolve("inhalt"));
+    }
+
+    /**
+     * Die Zugriffsrechte einer bestehenden Datei bleiben beim Ersetzen
+     * erhalten.
+     *
+     * @throws Exception Falls das Speichern fehlschlägt.
+     */
+    @Test
+    public void saveKeepsPermissions() throws Exception {
+        assumeTrue(Files.getFileAttributeView(directory, PosixFileAttributeView.class) != null);
+        File file = directory.resolve("net.pnml").toFile();
+        PersistenceService.saveModel(chain(2), file);
+        Set<PosixFilePermission> permissions = PosixFilePermissions.fromString("rw-rw-r--");
+        Files.setPosixFilePermissions(file.toPath(), permissions);
+        PersistenceService.saveModel(chain(3), file);
+        assertEquals(permissions, Files.getPosixFilePermissions(file.toPath()));
+        assertEquals(7, PersistenceService.loadModel(file).getNodes().size());
+    }
+}
@@ -0,0 +1,71 @@
+package stateSpace;
+
+import java.util.Arrays;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * Diese Klasse prüft den Aufbau des Überdeckungsbaums mit der gewöhnlichen
+ * Schaltregel. Die Netze werden mit ReachabilityGraphBuilderTest.net erzeugt,
+ * p0 trägt also eine Marke.
+ */
+public class CoverabilityTreeBuilderTest {
+
+    /**
+     * Diese Methode baut den Überdeckungsbaum eines Netzes auf.
+     *
+     * @param places Die Anzahl der Stellen.
+     * @param transitions Die Anzahl der Transitionen.
+     * @param arcs Die Kanten als "Quelle>Ziel".
+     * @return Der Überdeckungsbaum.
+     */
+    private static CoverabilityTree build(int places, int transitions, String... arcs) {
+        return new CoverabilityTreeBuilder(ReachabilityGraphBuilderTest.net(places, transitions,
+                arcs)).build();
+    }
+
+    /**
+     * Die Transition t1 hat keinen Vorbereich und ist daher immer schaltbar.
+     * Die Stelle p2 in ihrem Nachbereich ist unbeschränkt.
+     */
+    @Test
+    public void sourceTransitionMakesNetUnbounded() {
+        CoverabilityTree tree = build(3, 2, "p0>t0", "t0>p1", "t1>p2");
+        assertTrue(tree.isComplete());
+        assertFalse(tree.isBounded());
+        assertEquals(Arrays.asList("p2"), tree.getUnboundedPlaceIds());
+    }
+
+    /**
+     * Die Schleife t1 legt ihre Marke auf p1 zurück und bei jedem Schalten
+     * eine weitere auf p2. Beim ersten Schalten überdeckt die neue Markierung
+     * ihren Vorgänger, p2 erhält daher ω, während p1 beschränkt bleibt. Der
+     * Pfad zum ersten Knoten mit ω ist t0, t1.
+     */
+    @Test
+    public void loopAddingTokensGivesOmega() {
+        CoverabilityTree tree = build(3, 2, "p0>t0", "t0>p1", "p1>t1", "t1>p1", "t1>p2");
+        assertTrue(tree.isComplete());
+        assertFalse(tree.isBounded());
+        assertEquals(Arrays.asList("p2"), tree.getUnboundedPlaceIds());
+        assertEquals(CoverabilityTree.OMEGA, tree.getBound(2));
+        assertEquals(1, tree.getBound(1));
+        int omega = tree.getOmegaNode();
+        assertEquals(CoverabilityTree.OMEGA, tree.getMarking(omega, 2));
+        assertEquals(Arrays.asList("t0", "t1"), tree.getPathIds(omega));
+    }
+
+    /**
+     * Ohne Transition ohne Vorbereich bleibt das Netz p0, t0, p1 mit einer
+     * Marke beschränkt.
+     */
+    @Test
+    public void sequenceIsBounded() {
+        CoverabilityTree tree = build(2, 1, "p0>t0", "t0>p1");
+        assertTrue(tree.isBounded());
+        assertEquals(1, tree.getBound());
+        assertEquals(2, tree.getNodeCount());
+    }
+}
@@ -0,0 +1,111 @@
+package stateSpace;
+
+import java.util.Arrays;
+import java.util.List;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+import workflownetLogic.NetGraph;
+
+/**
+ * Diese Klasse vergleicht den parallelen mit dem sequentiellen Aufbau des
+ * Erreichbarkeitsgraphen.
+ */
+public class ReachabilityGraphBuilderTest {
+
+    /**
+     * Diese Methode erzeugt ein Netz mit den Stellen p0, p1, ... und den
+     * Transitionen t0, t1, ... Nur p0 trägt eine Marke. Jede Kante wird als
+     * "Quelle>Ziel" angegeben.
+     *
+     * @param places Die Anzahl der Stellen.
+     * @param transitions Die Anzahl der Transitionen.
+     * @param arcs Die Kanten.
+     * @return Das Netz.
+     */
+    static NetGraph net(int places, int transitions, String... arcs) {
+        String[] ids = new String[places + transitions];
+        for (int p = 0; p < places; p++) {
+            ids[p] = "p" + p;
+        }
+        for (int t = 0; t < transitions; t++) {
+            ids[places + t] = "t" + t;
+        }
+        List<String> idList = Arrays.asList(ids);
+        int[] source = new int[arcs.length];
+        int[] target = new int[arcs.length];
+        for (int i = 0; i < arcs.length; i++) {
+            String[] ends = arcs[i].split(">");
+            source[i] = idList.indexOf(ends[0]);
+            target[i] = idList.indexOf(ends[1]);
+        }
+        int[] marking = new int[places];
+        marking[0] = 1;
+        return new NetGraph(ids, places, marking, source, target, arcs.length, null);
+    }
+
+    /**
+     * Diese Methode erzeugt ein Netz, in dem t0 die Marke von p0 auf neun
+     * parallele Zweige verteilt und t10 sie in p1 wieder zusammenführt. Die
+     * Zweige i = 0 bis 8 bestehen aus p(2+i), t(1+i) und p(11+i). Mit 2^9
+     * Zwischenzuständen ist es groß genug, damit der parallele Aufbau eine
+     * Ebene auf mehrere Threads verteilt.
+     *
+     * @return Das Netz.
+     */
+    private static NetGraph parallelBranches() {
+        String[] arcs = new String[38];
+        int k = 0;
+        arcs[k++] = "p0>t0";
+        for (int i = 0; i < 9; i++) {
+            arcs[k++] = "t0>p" + (2 + i);
+            arcs[k++] = "p" + (2 + i) + ">t" + (1 + i);
+            arcs[k++] = "t" + (1 + i) + ">p" + (11 + i);
+            arcs[k++] = "p" + (11 + i) + ">t10";
+        }
+        arcs[k] = "t10>p1";
+        return net(20, 11, arcs);
+    }
+
+    /**
+     * Beide Verfahren finden 2 + 2^9 Zustände. Jeder Zweig schaltet in den
+     * 2^8 Zuständen, in denen er noch nicht geschaltet hat, dazu kommen t0
+     * und t10.
+     */
+    @Test
+    public void parallelFindsSameStatesAsSequential() {
+        NetGraph graph = parallelBranches();
+        ReachabilityGraph sequential = new ReachabilityGraphBuilder(graph).build();
+        ReachabilityGraph parallel = new ParallelReachabilityGraphBuilder(graph)
+                .setThreads(4)
+                .build();
+        assertTrue(sequential.isComplete());
+        assertTrue(parallel.isComplete());
+        assertEquals(514, sequential.getStateCount());
+        assertEquals(514, parallel.getStateCount());
+        assertEquals(2 + 9 * 256, sequential.getEdgeCount());
+        assertEquals(2 + 9 * 256, parallel.getEdgeCount());
+    }
+
+    /**
+     * Mit setDeterministic(true) gleicht die Nummerierung der Zustände und
+     * Kanten der des sequentiellen Aufbaus, unabhängig von der Anzahl der
+     * Threads.
+     */
+    @Test
+    public void deterministicNumberingMatchesSequential() {
+        NetGraph graph = parallelBranches();
+        ReachabilityGraph sequential = new ReachabilityGraphBuilder(graph).build();
+        ReachabilityGraph parallel = new ParallelReachabilityGraphBuilder(graph)
+                .setThreads(4)
+                .setDeterministic(true)
+                .build();
+        for (int s = 0; s < sequential.getStateCount(); s++) {
+            assertTrue(Arrays.equals(sequential.getMarking(s), parallel.getMarking(s)));
+        }
+        assertArrayEquals(sequential.getEdgeStart(), parallel.getEdgeStart());
+        assertArrayEquals(sequential.getEdgeTarget(), parallel.getEdgeTarget());
+        assertArrayEquals(sequential.getEdgeTransition(), parallel.getEdgeTransition());
+    }
+}
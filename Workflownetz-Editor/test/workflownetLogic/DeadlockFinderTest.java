@@ -0,0 +1,117 @@
+package workflownetLogic;
+
+import java.util.Arrays;
+import java.util.List;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * Diese Klasse prüft die Deadlock-Suche mit und ohne Vereinfachung des Netzes
+ * durch NetReduction.
+ */
+public class DeadlockFinderTest {
+
+    /**
+     * Diese Methode erzeugt ein Netz mit den Stellen p0 (Start), p1 (Ende),
+     * p2, ... und den Transitionen t0, t1, ... Jede Kante wird als
+     * "Quelle>Ziel" angegeben.
+     *
+     * @param places Die Anzahl der Stellen.
+     * @param transitions Die Anzahl der Transitionen.
+     * @param arcs Die Kanten.
+     * @return Das Netz.
+     */
+    static NetGraph net(int places, int transitions, String... arcs) {
+        String[] ids = new String[places + transitions];
+        for (int p = 0; p < places; p++) {
+            ids[p] = "p" + p;
+        }
+        for (int t = 0; t < transitions; t++) {
+            ids[places + t] = "t" + t;
+        }
+        List<String> idList = Arrays.asList(ids);
+        int[] source = new int[arcs.length];
+        int[] target = new int[arcs.length];
+        for (int i = 0; i < arcs.length; i++) {
+            String[] ends = arcs[i].split(">");
+            source[i] = idList.indexOf(ends[0]);
+            target[i] = idList.indexOf(ends[1]);
+        }
+        return new NetGraph(ids, places, new int[places], source, target, arcs.length, null);
+    }
+
+    /**
+     * Im vereinfachten Netz führt t1, t4 in einen Deadlock, weil NetReduction
+     * die Schleife t3 an p2 entfernt. Im ursprünglichen Netz bleibt t3 nach
+     * t1, t4 schaltbar, es gibt dort keinen Deadlock. Mit und ohne
+     * Vereinfachung muss das Ergebnis daher gleich sein.
+     */
+    @Test
+    public void reducedWitnessIsReplayedOnOriginalNet() {
+        NetGraph graph = net(3, 5, "t0>p1", "p2>t4", "p2>t3", "t1>p2", "p0>t1",
+                "t4>p1", "t3>p2", "t4>p2");
+        NetReduction simplification = new NetReduction(graph, 0, 1);
+        NetGraph reduced = simplification.reduce();
+        DeadlockFinder reducedFinder = new DeadlockFinder(reduced,
+                reduced.indexOf("p0"), reduced.indexOf("p1"));
+        assertTrue(reducedFinder.find());
+        DeadlockFinder finder = new DeadlockFinder(graph, 0, 1);
+        assertFalse(finder.isDeadlock(simplification.expand(reducedFinder.getWitness())));
+
+        assertFalse(finder.find());
+        DeadlockFinder withReduction = new DeadlockFinder(graph, 0, 1).setNetReduction(true);
+        assertFalse(withReduction.find());
+        assertTrue(withReduction.getWitness().isEmpty());
+    }
+
+    /**
+     * Ein echter Deadlock wird mit und ohne Vereinfachung gefunden, und die
+     * Schaltfolge führt im ursprünglichen Netz in den Deadlock.
+     */
+    @Test
+    public void realDeadlockIsFoundWithAndWithoutReduction() {
+        NetGraph graph = net(4, 3, "p0>t0", "t0>p2", "p2>t1", "t1>p1", "p2>t2", "t2>p3");
+        DeadlockFinder finder = new DeadlockFinder(graph, 0, 1);
+        assertTrue(finder.find());
+        assertTrue(finder.isDeadlock(finder.getWitness()));
+
+        DeadlockFinder withReduction = new DeadlockFinder(graph, 0, 1).setNetReduction(true);
+        assertTrue(withReduction.find());
+        assertTrue(finder.isDeadlock(withReduction.getWitness()));
+        assertEquals(Arrays.asList("t0", "t2"), withReduction.getWitness());
+    }
+
+    /**
+     * Nach t0, t3 liegt eine Marke auf p2 und p4. t1 ist durch den Kontakt
+     * auf p2 blockiert, t2 fehlt die Marke auf p3. Im vereinfachten Netz
+     * gibt es diesen Deadlock nicht, er muss trotzdem gefunden werden.
+     */
+    @Test
+    public void contactDeadlockIsFoundWithReduction() {
+        NetGraph graph = net(5, 4, "p0>t0", "t0>p4", "t0>p3", "p4>t1", "t1>p2", "p2>t2",
+                "p3>t2", "t2>p1", "p3>t3", "t3>p2");
+        NetReduction simplification = new NetReduction(graph, 0, 1);
+        NetGraph reduced = simplification.reduce();
+        assertFalse(new DeadlockFinder(reduced, reduced.indexOf("p0"), reduced.indexOf("p1"))
+                .find());
+
+        DeadlockFinder withReduction = new DeadlockFinder(graph, 0, 1).setNetReduction(true);
+        assertTrue(withReduction.find());
+        assertEquals(Arrays.asList("t0", "t3"), withReduction.getWitness());
+        assertTrue(withReduction.isDeadlock(withReduction.getWitness()));
+    }
+
+    /**
+     * Eine Schaltfolge, die in der Endmarkierung endet, ist kein Deadlock.
+     */
+    @Test
+    public void finalMarkingIsNoDeadlock() {
+        NetGraph graph = net(3, 2, "p0>t0", "t0>p2", "p2>t1", "t1>p1");
+        DeadlockFinder finder = new DeadlockFinder(graph, 0, 1);
+        assertFalse(finder.isDeadlock(Arrays.asList("t0", "t1")));
+        assertFalse(finder.isDeadlock(Arrays.asList("t1")));
+        assertFalse(finder.find());
+    }
+}
@@ -0,0 +1,175 @@
+package workflownetLogic;
+
+import java.util.Arrays;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+import workflownetLogic.SoundnessResult.Verdict;
+
+/**
+ * Diese Klasse prüft die Soundness-Überprüfung mit bekannten Ergebnissen.
+ * Die Netze werden mit DeadlockFinderTest.net erzeugt, p0 ist die Start- und
+ * p1 die Endstelle.
+ */
+public class SoundnessCheckerTest {
+
+    /**
+     * Diese Methode erzeugt ein kreisfreies Netz mit einem Deadlock: t0
+     * verteilt die Marke auf vier Zweige. Im ersten wählen t1 und t2 zwischen
+     * p4 und p5, t4 benötigt aber beide. Die übrigen Zweige (t3, t5, t6)
+     * laufen unabhängig davon und vervielfachen nur die Anzahl der
+     * Zustände.
+     *
+     * @return Das Netz.
+     */
+    static NetGraph deadlockWithParallelBranches() {
+        return DeadlockFinderTest.net(11, 7, "p0>t0", "t0>p2", "t0>p3", "t0>p7", "t0>p8",
+                "p2>t1", "t1>p4", "p2>t2", "t2>p5", "p3>t3", "t3>p6", "p7>t5", "t5>p9",
+                "p8>t6", "t6>p10", "p4>t4", "p5>t4", "p6>t4", "p9>t4", "p10>t4", "t4>p1");
+    }
+
+    /**
+     * Diese Methode erzeugt ein soundes Netz: t0 teilt die Marke auf zwei
+     * Zweige mit t1 und t2 auf, t3 führt sie zusammen.
+     *
+     * @return Das Netz.
+     */
+    static NetGraph soundParallel() {
+        return DeadlockFinderTest.net(6, 4, "p0>t0", "t0>p2", "t0>p3", "p2>t1", "t1>p4",
+                "p3>t2", "t2>p5", "p4>t3", "p5>t3", "t3>p1");
+    }
+
+    /**
+     * Diese Methode erzeugt ein soundes Netz mit der Schleife t2 an p2.
+     *
+     * @return Das Netz.
+     */
+    static NetGraph soundLoop() {
+        return DeadlockFinderTest.net(3, 3, "p0>t0", "t0>p2", "p2>t1", "t1>p1", "p2>t2",
+                "t2>p2");
+    }
+
+    /**
+     * Diese Methode erzeugt ein Netz ohne proper completion: t0 teilt die
+     * Marke auf, t1 und t2 legen sie beide auf die Endstelle.
+     *
+     * @return Das Netz.
+     */
+    static NetGraph improperCompletion() {
+        return DeadlockFinderTest.net(4, 3, "p0>t0", "t0>p2", "t0>p3", "p2>t1", "p3>t2",
+                "t1>p1", "t2>p1");
+    }
+
+    /**
+     * Diese Methode erzeugt ein Netz mit einem Deadlock: t0 und t1 wählen
+     * zwischen p2 und p3, t2 benötigt beide.
+     *
+     * @return Das Netz.
+     */
+    static NetGraph choiceIntoJoin() {
+        return DeadlockFinderTest.net(4, 3, "p0>t0", "p0>t1", "t0>p2", "t1>p3", "p2>t2",
+                "p3>t2", "t2>p1");
+    }
+
+    /**
+     * Mit und ohne Stubborn-Sets wird der Deadlock gefunden. Die Schaltfolge
+     * ist in beiden Fällen eine kürzeste und führt im Netz in den Deadlock,
+     * mit Reduktion werden aber weniger Zustände untersucht.
+     */
+    @Test
+    public void stubbornSetWitnessLeadsToDeadlock() {
+        NetGraph graph = deadlockWithParallelBranches();
+        SoundnessResult full = new SoundnessChecker(graph, 0, 1).check();
+        SoundnessResult reduced = new SoundnessChecker(graph, 0, 1).setReduction(true).check();
+        DeadlockFinder finder = new DeadlockFinder(graph, 0, 1);
+
+        assertEquals(Verdict.DEADLOCK, full.getVerdict());
+        assertEquals(Verdict.DEADLOCK, reduced.getVerdict());
+        assertTrue(reduced.isReduced());
+        assertEquals(5, full.getWitness().size());
+        assertEquals(5, reduced.getWitness().size());
+        assertTrue(finder.isDeadlock(full.getWitness()));
+        assertTrue(finder.isDeadlock(reduced.getWitness()));
+        assertTrue(reduced.getStateCount().compareTo(full.getStateCount()) < 0);
+    }
+
+    /**
+     * Auch die Deadlock-Suche findet mit Stubborn-Sets eine Schaltfolge, die
+     * im Netz in den Deadlock führt.
+     */
+    @Test
+    public void stubbornSetDeadlockFinderWitness() {
+        NetGraph graph = deadlockWithParallelBranches();
+        DeadlockFinder full = new DeadlockFinder(graph, 0, 1).setReduction(false);
+        DeadlockFinder reduced = new DeadlockFinder(graph, 0, 1).setReduction(true);
+        assertTrue(full.find());
+        assertTrue(reduced.find());
+        assertTrue(full.isDeadlock(reduced.getWitness()));
+        assertTrue(reduced.getStateCount() < full.getStateCount());
+    }
+
+    /**
+     * Die symbolische Überprüfung mit BDDs kommt zum selben Urteil und zur
+     * selben Anzahl an Zuständen wie die explizite Breitensuche. Ihre
+     * Schaltfolgen führen ebenfalls in den Deadlock. Die strukturelle
+     * Überprüfung ist ausgeschaltet, damit beide den Zustandsraum aufbauen.
+     */
+    @Test
+    public void symbolicMatchesExplicit() {
+        NetGraph[] nets = {soundParallel(), soundLoop(), improperCompletion(),
+            choiceIntoJoin(), deadlockWithParallelBranches()};
+        Verdict[] verdicts = {Verdict.SOUND, Verdict.SOUND, Verdict.IMPROPER_COMPLETION,
+            Verdict.DEADLOCK, Verdict.DEADLOCK};
+        int[] states = {6, 3, 4, 3, 25};
+        for (int i = 0; i < nets.length; i++) {
+            SoundnessResult explicit = new SoundnessChecker(nets[i], 0, 1)
+                    .setStructural(false).check();
+            SoundnessResult symbolic = new SoundnessChecker(nets[i], 0, 1)
+                    .setStructural(false).setSymbolic(true).check();
+            assertEquals(verdicts[i], explicit.getVerdict());
+            assertEquals(verdicts[i], symbolic.getVerdict());
+            assertEquals(states[i], explicit.getStateCount().intValue());
+            assertEquals(states[i], symbolic.getStateCount().intValue());
+            assertEquals(explicit.getWitness().size(), symbolic.getWitness().size());
+            if (verdicts[i] == Verdict.DEADLOCK) {
+                assertTrue(new DeadlockFinder(nets[i], 0, 1).isDeadlock(symbolic.getWitness()));
+            }
+        }
+    }
+
+    /**
+     * Für free-choice Netze entscheidet die strukturelle Überprüfung ohne
+     * Zustandsraum. Sound Netze werden dabei vollständig reduziert, bei
+     * allen anderen liefert die anschließende Suche dasselbe Urteil wie die
+     * rein explizite Überprüfung.
+     */
+    @Test
+    public void structuralMatchesExplicit() {
+        NetGraph[] nets = {soundParallel(), soundLoop(), improperCompletion(),
+            choiceIntoJoin(), deadlockWithParallelBranches()};
+        for (NetGraph graph : nets) {
+            assertTrue(FreeChoiceReduction.isFreeChoice(graph));
+            SoundnessResult explicit = new SoundnessChecker(graph, 0, 1)
+                    .setStructural(false).check();
+            SoundnessResult structural = new SoundnessChecker(graph, 0, 1).check();
+            assertEquals(explicit.getVerdict(), structural.getVerdict());
+            assertEquals(explicit.isSound(), structural.isStructural());
+        }
+    }
+
+    /**
+     * Ein Netz, das nicht free-choice ist, wird immer explizit überprüft: t1
+     * und t2 teilen sich p2, t2 benötigt aber zusätzlich p3.
+     */
+    @Test
+    public void notFreeChoiceFallsBackToSearch() {
+        NetGraph graph = DeadlockFinderTest.net(4, 3, "p0>t0", "t0>p2", "t0>p3", "p2>t1",
+                "p2>t2", "p3>t2", "t1>p1", "t2>p1");
+        assertFalse(FreeChoiceReduction.isFreeChoice(graph));
+        SoundnessResult result = new SoundnessChecker(graph, 0, 1).check();
+        assertEquals(Verdict.IMPROPER_COMPLETION, result.getVerdict());
+        assertFalse(result.isStructural());
+        assertEquals(Arrays.asList("t0", "t1"), result.getWitness());
+    }
+}
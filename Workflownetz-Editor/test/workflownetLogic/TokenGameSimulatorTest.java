@@ -0,0 +1,60 @@
+package workflownetLogic;
+
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+import workflownetLogic.SimulationResult.Outcome;
+
+/**
+ * Diese Klasse prüft die Simulation an den Netzen aus SoundnessCheckerTest,
+ * deren Läufe alle auf dieselbe Art enden.
+ */
+public class TokenGameSimulatorTest {
+
+    /**
+     * Diese Methode simuliert ein Netz mit festem Startwert.
+     *
+     * @param graph Das Netz mit der Startstelle p0 und der Endstelle p1.
+     * @return Das Ergebnis.
+     */
+    private static SimulationResult simulate(NetGraph graph) {
+        return new TokenGameSimulator(graph, 0, 1).setThreads(2).setSeed(42).simulate(5000);
+    }
+
+    /**
+     * Alle Läufe eines sounden Netzes enden korrekt. Jeder Lauf schaltet die
+     * vier Transitionen genau einmal.
+     */
+    @Test
+    public void soundRunsComplete() {
+        SimulationResult result = simulate(SoundnessCheckerTest.soundParallel());
+        assertEquals(5000, result.getCount(Outcome.COMPLETED));
+        assertEquals(4, result.getMaxLength());
+        assertEquals(5000, result.getFiringCount("t3"));
+    }
+
+    /**
+     * Nach t0 legt t1 oder t2 eine Marke auf die Endstelle, die die andere
+     * Transition durch einen Kontakt blockiert. Jeder Lauf hinterlässt so
+     * Marken auf p1 und p2 bzw. p3. Sie werden vor dem nächsten Lauf
+     * entfernt, sonst würde schon t0 durch einen Kontakt blockiert.
+     */
+    @Test
+    public void improperRunsAreReset() {
+        SimulationResult result = simulate(SoundnessCheckerTest.improperCompletion());
+        assertEquals(5000, result.getCount(Outcome.IMPROPER_COMPLETION));
+        assertEquals(2, result.getMaxLength());
+        assertEquals(5000, result.getFiringCount("t0"));
+    }
+
+    /**
+     * Nach der Wahl zwischen t0 und t1 kann t2 nie schalten. Die Marke auf
+     * p2 bzw. p3 wird vor dem nächsten Lauf entfernt.
+     */
+    @Test
+    public void deadlockedRunsAreReset() {
+        SimulationResult result = simulate(SoundnessCheckerTest.choiceIntoJoin());
+        assertEquals(5000, result.getCount(Outcome.DEADLOCK));
+        assertEquals(5000, result.getFiringCount("t0") + result.getFiringCount("t1"));
+        assertEquals(0, result.getFiringCount("t2"));
+    }
+}
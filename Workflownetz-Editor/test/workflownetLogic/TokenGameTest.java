@@ -0,0 +1,70 @@
+package workflownetLogic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * Diese Klasse prüft das Markenspiel mit der Schaltregel des Editors.
+ */
+public class TokenGameTest {
+
+    /**
+     * Die Anzahl der markierten Stellen folgt dem Schalten und dem Setzen von
+     * Marken.
+     */
+    @Test
+    public void markedCountFollowsFiringAndSetTokens() {
+        NetGraph graph = DeadlockFinderTest.net(4, 2, "p0>t0", "t0>p2", "t0>p3",
+                "p2>t1", "p3>t1", "t1>p1");
+        TokenGame game = new TokenGame(graph);
+        assertEquals(0, game.getMarkedCount());
+        game.setTokens(0, 1);
+        assertEquals(1, game.getMarkedCount());
+        game.fire(0);
+        assertEquals(2, game.getMarkedCount());
+        game.setTokens(2, 3);
+        assertEquals(2, game.getMarkedCount());
+        game.setTokens(3, 0);
+        assertEquals(1, game.getMarkedCount());
+        assertFalse(game.isEnabled(1));
+        game.setTokens(3, 1);
+        game.setTokens(2, 1);
+        game.fire(1);
+        assertEquals(1, game.getMarkedCount());
+        assertTrue(game.isMarked(1));
+        assertEquals(0, game.getEnabledCount());
+    }
+
+    /**
+     * Nach dem Setzen von Marken werden nur die Transitionen in der Umgebung
+     * der Stelle als betroffen gemeldet.
+     */
+    @Test
+    public void setTokensReportsOnlyNeighbours() {
+        NetGraph graph = DeadlockFinderTest.net(4, 2, "p0>t0", "t0>p2", "p2>t1", "t1>p3",
+                "p3>t1");
+        TokenGame game = new TokenGame(graph);
+        game.setTokens(0, 1);
+        assertEquals(1, game.getAffectedCount());
+        assertEquals(0, game.getAffectedTransition(0));
+        assertTrue(game.isEnabled(0));
+        game.setTokens(1, 1);
+        assertEquals(0, game.getAffectedCount());
+    }
+
+    /**
+     * Eine markierte Stelle im Nachbereich, die nicht zugleich im Vorbereich
+     * liegt, blockiert die Transition (Kontakt).
+     */
+    @Test
+    public void contactBlocksTransition() {
+        NetGraph graph = DeadlockFinderTest.net(3, 1, "p0>t0", "t0>p2");
+        TokenGame game = new TokenGame(graph);
+        game.setTokens(0, 1);
+        game.setTokens(2, 1);
+        assertFalse(game.isEnabled(0));
+        assertTrue(game.hasContact(0));
+    }
+}